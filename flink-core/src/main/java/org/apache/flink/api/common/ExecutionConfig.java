@@ -158,6 +158,9 @@ public class ExecutionConfig implements Serializable, Archiveable<ArchivedExecut
 	/** This flag defines if we use compression for the state snapshot data or not. Default: false */
 	private boolean useSnapshotCompression = false;
 
+	/** The codec, and optionally the level, of the compression of the state snapshot data. Default: SNAPPY */
+	private String snapshotCompressionCodec = ExecutionOptions.SNAPSHOT_COMPRESSION_CODEC.defaultValue();
+
 	/**
 	 * @deprecated Should no longer be used because we would not support to let task directly fail on checkpoint error.
 	 */
@@ -956,6 +959,25 @@ public class ExecutionConfig implements Serializable, Archiveable<ArchivedExecut
 		this.useSnapshotCompression = useSnapshotCompression;
 	}
 
+	/**
+	 * Gets the codec which is used to compress the state snapshot data if snapshot compression is enabled.
+	 *
+	 * @see ExecutionOptions#SNAPSHOT_COMPRESSION_CODEC
+	 */
+	public String getSnapshotCompressionCodec() {
+		return snapshotCompressionCodec;
+	}
+
+	/**
+	 * Sets the codec which is used to compress the state snapshot data if snapshot compression is enabled, e.g.
+	 * "LZ4" or "ZSTD:9".
+	 *
+	 * @see ExecutionOptions#SNAPSHOT_COMPRESSION_CODEC
+	 */
+	public void setSnapshotCompressionCodec(String snapshotCompressionCodec) {
+		this.snapshotCompressionCodec = Preconditions.checkNotNull(snapshotCompressionCodec);
+	}
+
 	/**
 	 * @deprecated This method takes no effect since we would not forward the configuration from the checkpoint config
 	 * to the task, and we have not supported task to fail on checkpoint error.
@@ -1003,6 +1025,7 @@ public class ExecutionConfig implements Serializable, Archiveable<ArchivedExecut
 				registeredPojoTypes.equals(other.registeredPojoTypes) &&
 				taskCancellationIntervalMillis == other.taskCancellationIntervalMillis &&
 				useSnapshotCompression == other.useSnapshotCompression &&
+				Objects.equals(snapshotCompressionCodec, other.snapshotCompressionCodec) &&
 				defaultInputDependencyConstraint == other.defaultInputDependencyConstraint;
 
 		} else {
@@ -1031,6 +1054,7 @@ public class ExecutionConfig implements Serializable, Archiveable<ArchivedExecut
 			registeredPojoTypes,
 			taskCancellationIntervalMillis,
 			useSnapshotCompression,
+			snapshotCompressionCodec,
 			defaultInputDependencyConstraint);
 	}
 
@@ -1057,6 +1081,7 @@ public class ExecutionConfig implements Serializable, Archiveable<ArchivedExecut
 			", taskCancellationIntervalMillis=" + taskCancellationIntervalMillis +
 			", taskCancellationTimeoutMillis=" + taskCancellationTimeoutMillis +
 			", useSnapshotCompression=" + useSnapshotCompression +
+			", snapshotCompressionCodec=" + snapshotCompressionCodec +
 			", failTaskOnCheckpointError=" + failTaskOnCheckpointError +
 			", defaultInputDependencyConstraint=" + defaultInputDependencyConstraint +
 			", globalJobParameters=" + globalJobParameters +
@@ -1195,6 +1220,8 @@ public class ExecutionConfig implements Serializable, Archiveable<ArchivedExecut
 			.ifPresent(this::setTaskCancellationTimeout);
 		configuration.getOptional(ExecutionOptions.SNAPSHOT_COMPRESSION)
 			.ifPresent(this::setUseSnapshotCompression);
+		configuration.getOptional(ExecutionOptions.SNAPSHOT_COMPRESSION_CODEC)
+			.ifPresent(this::setSnapshotCompressionCodec);
 		RestartStrategies.fromConfiguration(configuration)
 			.ifPresent(this::setRestartStrategy);
 		configuration.getOptional(PipelineOptions.KRYO_DEFAULT_SERIALIZERS)
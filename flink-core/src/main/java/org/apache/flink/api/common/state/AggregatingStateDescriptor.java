@@ -42,6 +42,9 @@ public class AggregatingStateDescriptor<IN, ACC, OUT> extends StateDescriptor<Ag
 	/** The aggregation function for the state. */
 	private final AggregateFunction<IN, ACC, OUT> aggFunction;
 
+	/** Whether state backends may store added values as partial accumulators, see {@link #enableMergeAggregation()}. */
+	private boolean mergeAggregation;
+
 	/**
 	 * Creates a new state descriptor with the given name, function, and type.
 	 *
@@ -100,6 +103,25 @@ public class AggregatingStateDescriptor<IN, ACC, OUT> extends StateDescriptor<Ag
 		return aggFunction;
 	}
 
+	/**
+	 * Declares that the aggregate function implements {@link AggregateFunction#merge(Object, Object)}. State
+	 * backends may then store every added value as a partial accumulator, which are merged when the state is read,
+	 * instead of reading and updating the accumulator on every add. The RocksDB state backend does this if
+	 * {@code state.backend.rocksdb.merge-aggregation.enabled} is set.
+	 */
+	public void enableMergeAggregation() {
+		this.mergeAggregation = true;
+	}
+
+	/**
+	 * Returns true if state backends may store added values as partial accumulators.
+	 *
+	 * @see #enableMergeAggregation()
+	 */
+	public boolean isMergeAggregationEnabled() {
+		return mergeAggregation;
+	}
+
 	@Override
 	public Type getType() {
 		return Type.AGGREGATING;
@@ -20,6 +20,8 @@ package org.apache.flink.configuration;
 
 import org.apache.flink.annotation.docs.Documentation;
 
+import java.time.Duration;
+
 /**
  * A collection of all configuration options that relate to checkpoints
  * and savepoints.
@@ -46,6 +48,21 @@ public class CheckpointingOptions {
 			.defaultValue(1)
 			.withDescription("The maximum number of completed checkpoints to retain.");
 
+	/**
+	 * The format version in which the metadata of checkpoints and savepoints is written.
+	 *
+	 * <p>Version 4 writes shared file paths and state handles only once, but cannot be read by
+	 * Flink versions which only know version 3.
+	 */
+	@Documentation.Section(Documentation.Sections.EXPERT_STATE_BACKENDS)
+	public static final ConfigOption<Integer> METADATA_VERSION = ConfigOptions
+			.key("state.checkpoints.metadata-version")
+			.defaultValue(3)
+			.withDescription("The format version in which the metadata of checkpoints and savepoints is written." +
+				" Version 4 writes shared file paths and state handles only once, which makes the metadata of jobs" +
+				" with many subtasks and incremental checkpoints much smaller, but it cannot be read by Flink versions" +
+				" which only know version 3. Supported values are 3 and 4.");
+
 	/** Option whether the state backend should use an asynchronous snapshot method where
 	 * possible and configurable.
 	 *
@@ -157,4 +174,33 @@ public class CheckpointingOptions {
 		.withDescription(String.format("The default size of the write buffer for the checkpoint streams that write to file systems. " +
 			"The actual write buffer size is determined to be the maximum of the value of this option and option '%s'.", FS_SMALL_FILE_THRESHOLD.key()));
 
+	/**
+	 * The maximum number of files which an incremental checkpoint of the file system state backend references.
+	 */
+	@Documentation.Section(Documentation.Sections.EXPERT_STATE_BACKENDS)
+	public static final ConfigOption<Integer> FS_INCREMENTAL_MAX_FILES = ConfigOptions
+		.key("state.backend.fs.incremental.max-files")
+		.intType()
+		.defaultValue(10)
+		.withDescription(String.format("The maximum number of files which an incremental checkpoint of the file system " +
+			"state backend references, if '%s' is enabled. Every incremental checkpoint writes the key groups that changed " +
+			"since the last completed checkpoint to a new file, and references the files of earlier checkpoints for all " +
+			"other key groups. A checkpoint that would reference more files rewrites all key groups to one file, which " +
+			"bounds the number of files that are read on restore.", INCREMENTAL_CHECKPOINTS.key()));
+
+	/**
+	 * The tick of the timing wheel that keeps the timers on the heap.
+	 */
+	@Documentation.Section(Documentation.Sections.EXPERT_STATE_BACKENDS)
+	public static final ConfigOption<Duration> TIMER_SERVICE_TIMING_WHEEL_TICK = ConfigOptions
+		.key("state.backend.timer-service.timing-wheel.tick")
+		.durationType()
+		.defaultValue(Duration.ZERO)
+		.withDescription("The interval of timestamps that every bucket of the timing wheel covers, which keeps the " +
+			"timers on the heap. Timers are added to and deleted from a bucket in constant time, and the timers of a " +
+			"bucket are only ordered when the timers before it have fired. This suits large numbers of timers with " +
+			"close timestamps, e.g. of session windows. With the default of 0, the timers are kept in a binary heap. " +
+			"This applies to the file system and memory state backends, and to the RocksDB state backend with timers " +
+			"on the heap.");
+
 }
@@ -24,6 +24,8 @@ import org.apache.flink.configuration.description.TextElement;
 
 import java.time.Duration;
 
+import static org.apache.flink.configuration.description.TextElement.code;
+
 /**
  * {@link ConfigOption}s specific for a single execution of a user program.
  */
@@ -40,6 +42,18 @@ public class ExecutionOptions {
 			.defaultValue(false)
 		.withDescription("Tells if we should use compression for the state snapshot data or not");
 
+	public static final ConfigOption<String> SNAPSHOT_COMPRESSION_CODEC =
+		ConfigOptions.key("execution.checkpointing.snapshot-compression.codec")
+			.stringType()
+			.defaultValue("SNAPPY")
+			.withDescription(Description.builder()
+				.text("The codec that is used to compress the state snapshot data if '%s' is enabled. Supported " +
+					"codecs are 'SNAPPY', 'LZ4', 'LZ4_HC' and 'ZSTD'. The compression level of 'LZ4_HC' (1 to 17, " +
+					"default 9) and 'ZSTD' (default 3) can be appended after a colon, e.g. 'ZSTD:9'. The codec is " +
+					"recorded in the snapshot, so it can be changed between a snapshot and its restore.",
+					code(SNAPSHOT_COMPRESSION.key()))
+				.build());
+
 	public static final ConfigOption<Duration> BUFFER_TIMEOUT =
 		ConfigOptions.key("execution.buffer-timeout")
 			.durationType()
@@ -21,6 +21,8 @@ package org.apache.flink.configuration;
 import org.apache.flink.annotation.PublicEvolving;
 import org.apache.flink.annotation.docs.Documentation;
 
+import java.time.Duration;
+
 import static org.apache.flink.configuration.ConfigOptions.key;
 
 /**
@@ -79,14 +81,36 @@ public class NettyShuffleEnvironmentOptions {
 				" more effective for IO bounded scenario when data compression ratio is high. Currently, shuffle data " +
 				"compression is an experimental feature and the config option can be changed in the future.");
 
+	/**
+	 * Boolean flag indicating whether the shuffle data will be compressed for pipelined shuffle mode.
+	 *
+	 * <p>Note: Only the buffers which are sent over the network are compressed, the data exchanged between tasks
+	 * in the same TaskManager stays uncompressed.
+	 */
+	@Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER_NETWORK)
+	public static final ConfigOption<Boolean> PIPELINED_SHUFFLE_COMPRESSION_ENABLED =
+		key("taskmanager.network.pipelined-shuffle.compression.enabled")
+			.defaultValue(false)
+			.withDescription("Boolean flag indicating whether the shuffle data will be compressed for pipelined shuffle" +
+				" mode. Only the buffers which are sent over the network to tasks of other TaskManagers are" +
+				" compressed, small buffers and buffers which do not compress well are sent uncompressed. This" +
+				" trades CPU time of the sending and the receiving tasks for network bandwidth, so it is most" +
+				" effective for network bounded jobs. The buffers are only compressed if the consuming TaskManager" +
+				" has enabled the option as well and uses the same codec, which is negotiated when the partition" +
+				" is requested.");
+
 	/**
 	 * The codec to be used when compressing shuffle data.
 	 */
-	@Documentation.ExcludeFromDocumentation("Currently, LZ4 is the only legal option.")
+	@Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER_NETWORK)
 	public static final ConfigOption<String> SHUFFLE_COMPRESSION_CODEC =
 		key("taskmanager.network.compression.codec")
 			.defaultValue("LZ4")
-			.withDescription("The codec to be used when compressing shuffle data.");
+			.withDescription("The codec to be used when compressing shuffle data. Supported codecs are " +
+				"\"LZ4\" (fastest), \"LZ4_HC\", \"SNAPPY\" and \"ZSTD\" (best compression ratio), or the " +
+				"class name of a custom BlockCompressionFactory. The compression level of \"LZ4_HC\" " +
+				"(1 to 17, default 9) and \"ZSTD\" (default 3) can be appended to the codec name, e.g. " +
+				"\"ZSTD:9\".");
 
 	/**
 	 * Boolean flag to enable/disable more detailed metrics about inbound/outbound network queue
@@ -208,6 +232,113 @@ public class NettyShuffleEnvironmentOptions {
 					" by configured memory limits, but some resource frameworks like yarn would track this memory usage and kill the container once" +
 					" memory exceeding some threshold. Also note that this option is experimental and might be changed future.");
 
+	/**
+	 * Parallelism threshold to switch between sort-merge based blocking shuffle and the default
+	 * hash-based blocking shuffle.
+	 */
+	@Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER_NETWORK)
+	public static final ConfigOption<Integer> NETWORK_SORT_SHUFFLE_MIN_PARALLELISM =
+		key("taskmanager.network.sort-shuffle.min-parallelism")
+			.intType()
+			.defaultValue(Integer.MAX_VALUE)
+			.withDescription("Parallelism threshold to switch between sort-merge blocking shuffle and the default" +
+				" hash-based blocking shuffle, which means for batch jobs of small parallelism, the hash-based blocking" +
+				" shuffle will be used and for batch jobs of large parallelism, the sort-merge one will be used. The" +
+				" sort-merge blocking shuffle writes the data of all subpartitions into a single data file with an index" +
+				" file per result partition, which reduces the number of open files and turns random IO into sequential" +
+				" IO. Note that this option is experimental and might be changed in the future.");
+
+	/**
+	 * Number of network buffers used per sort-merge blocking result partition.
+	 */
+	@Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER_NETWORK)
+	public static final ConfigOption<Integer> NETWORK_SORT_SHUFFLE_MIN_BUFFERS =
+		key("taskmanager.network.sort-shuffle.min-buffers")
+			.intType()
+			.defaultValue(64)
+			.withDescription("Number of network buffers used by a sort-merge blocking result partition to" +
+				" buffer and sort the data of all subpartitions in memory before spilling it to disk. The sort buffer" +
+				" is shared by all subpartitions, so the number of buffers does not depend on the parallelism. Larger values" +
+				" lead to fewer and larger spilled regions, which means more sequential IO when reading. Note that" +
+				" this option is experimental and might be changed in the future.");
+
+	/**
+	 * Whether to adapt the in-flight data of the input channels to the consumption throughput.
+	 */
+	@Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER_NETWORK)
+	public static final ConfigOption<Boolean> BUFFER_DEBLOAT_ENABLED =
+		key("taskmanager.network.memory.buffer-debloat.enabled")
+			.booleanType()
+			.defaultValue(false)
+			.withDescription("Boolean flag to enable the buffer debloating. If enabled, the input gates measure" +
+				" their consumption throughput and reduce the buffer size announced to the producers and the" +
+				" number of floating buffers requested, so that the in-flight data of a gate can be consumed within" +
+				" the time configured by 'taskmanager.network.memory.buffer-debloat.target'. This keeps the" +
+				" in-flight data small under back pressure, which speeds up checkpoint barriers. Note that this" +
+				" option is experimental and might be changed in the future.");
+
+	/**
+	 * The time in which the in-flight data of an input gate should be consumed with buffer debloating.
+	 */
+	@Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER_NETWORK)
+	public static final ConfigOption<Duration> BUFFER_DEBLOAT_TARGET =
+		key("taskmanager.network.memory.buffer-debloat.target")
+			.durationType()
+			.defaultValue(Duration.ofSeconds(1))
+			.withDescription("The target time in which the in-flight data of an input gate should be consumed," +
+				" if the buffer debloating is enabled. Together with the measured throughput it determines the" +
+				" buffer size and the credit announced to the producers.");
+
+	/**
+	 * The interval in which the buffer debloating recalculates the throughput and the buffer size.
+	 */
+	@Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER_NETWORK)
+	public static final ConfigOption<Duration> BUFFER_DEBLOAT_PERIOD =
+		key("taskmanager.network.memory.buffer-debloat.period")
+			.durationType()
+			.defaultValue(Duration.ofMillis(200))
+			.withDescription("The minimum interval in which the buffer debloating recalculates the consumption" +
+				" throughput and the buffer size. Shorter intervals react faster to throughput changes, but lead" +
+				" to more frequent announcements of new buffer sizes to the producers.");
+
+	/**
+	 * The minimum buffer size which the buffer debloating may announce to the producers.
+	 */
+	@Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER_NETWORK)
+	public static final ConfigOption<MemorySize> BUFFER_DEBLOAT_MIN_BUFFER_SIZE =
+		key("taskmanager.network.memory.buffer-debloat.min-buffer-size")
+			.memoryType()
+			.defaultValue(MemorySize.parse("256b"))
+			.withDescription("The minimum buffer size the buffer debloating may announce to the producers. Small" +
+				" buffers lead to a higher per-buffer overhead, so this bounds the cost of the debloating for" +
+				" very slow consumers.");
+
+	/**
+	 * Number of finished buffers after which the consumer of a local input channel is notified.
+	 */
+	@Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER_NETWORK)
+	public static final ConfigOption<Integer> NETWORK_LOCAL_CHANNEL_NOTIFICATION_BATCH_SIZE =
+		key("taskmanager.network.local-channel.notification-batch-size")
+			.intType()
+			.defaultValue(1)
+			.withDescription("Number of finished buffers a producer collects for a consumer in the same" +
+				" TaskManager before it wakes the consumer up. Larger values reduce the number of wake-ups of" +
+				" the consuming task at the cost of latency. Flushes (see the buffer timeout), events and the" +
+				" end of the data are always handed over right away.");
+
+	/**
+	 * Maximum number of buffers of the input gate's buffer pool to assemble one spanning record in.
+	 */
+	@Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER_NETWORK)
+	public static final ConfigOption<Integer> NETWORK_MAX_BUFFERS_PER_SPANNING_RECORD =
+		key("taskmanager.network.memory.max-buffers-per-spanning-record")
+			.intType()
+			.defaultValue(0)
+			.withDescription("Maximum number of network buffers an input channel may borrow from the buffer pool" +
+				" of its input gate to assemble a record which spans multiple buffers. Such records are otherwise" +
+				" assembled in a growing heap byte array per input channel. Buffers are only borrowed if they are" +
+				" available right away, otherwise the record is assembled on the heap. 0 disables the borrowing.");
+
 	// ------------------------------------------------------------------------
 	//  Netty Options
 	// ------------------------------------------------------------------------
@@ -240,6 +371,15 @@ public class NettyShuffleEnvironmentOptions {
 			.withDeprecatedKeys("taskmanager.net.server.backlog")
 			.withDescription("The netty server connection backlog.");
 
+	@Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER_NETWORK)
+	public static final ConfigOption<Integer> SERVER_MAX_BYTES_PER_FLUSH =
+		key("taskmanager.network.netty.server.max-bytes-per-flush")
+			.defaultValue(65536)
+			.withDescription("The maximum number of bytes the Netty server writes to a connection before flushing it." +
+				" Buffers which are available at the same time are written together and handed to the socket with a" +
+				" single gathering write, which reduces the number of system calls for small buffers. Data is never held" +
+				" back waiting for more buffers. A value of 0 flushes every buffer separately.");
+
 	@Documentation.Section(Documentation.Sections.ALL_TASK_MANAGER_NETWORK)
 	public static final ConfigOption<Integer> CLIENT_CONNECT_TIMEOUT_SECONDS =
 		key("taskmanager.network.netty.client.connectTimeoutSec")
@@ -70,6 +70,24 @@ public interface BlobWriter {
 	 */
 	PermanentBlobKey putPermanent(JobID jobId, InputStream inputStream) throws IOException;
 
+	/**
+	 * Deletes the permanent BLOB of the given job from the BLOB server and the HA store. Caches
+	 * which already hold a copy of the BLOB keep it until the job is cleaned up.
+	 *
+	 * <p>By default, the BLOB is not deleted and kept until the job is cleaned up.
+	 *
+	 * @param jobId
+	 * 		ID of the job this blob belongs to
+	 * @param key
+	 * 		the key of the BLOB to delete
+	 *
+	 * @return  <tt>true</tt> if the given blob is successfully deleted or non-existing;
+	 *          <tt>false</tt> otherwise
+	 */
+	default boolean deletePermanent(JobID jobId, PermanentBlobKey key) {
+		return false;
+	}
+
 	/**
 	 * Returns the min size before data will be offloaded to the BLOB store.
 	 *
@@ -99,7 +117,7 @@ public interface BlobWriter {
 		final SerializedValue<T> serializedValue = new SerializedValue<>(value);
 
 		if (serializedValue.getByteArray().length < blobWriter.getMinOffloadingSize()) {
-			return Either.Left(new SerializedValue<>(value));
+			return Either.Left(serializedValue);
 		} else {
 			try {
 				final PermanentBlobKey permanentBlobKey = blobWriter.putPermanent(jobId, serializedValue.getByteArray());
@@ -126,6 +126,17 @@ public class CheckpointCoordinator {
 	@GuardedBy("lock")
 	private final Map<Long, PendingCheckpoint> pendingCheckpoints;
 
+	/** Map from checkpoint ID to the fully acknowledged checkpoints whose finalization is still in
+	 * progress. They no longer are in {@link #pendingCheckpoints}, but still count towards the
+	 * concurrent checkpoints. */
+	@GuardedBy("lock")
+	private final Map<Long, FinalizingCheckpoint> finalizingCheckpoints;
+
+	/** Future of the last finalization. Finalizations are chained so that checkpoints are added to
+	 * the completed checkpoint store in the order in which they were completed. */
+	@GuardedBy("lock")
+	private CompletableFuture<Void> finalizationFuture = FutureUtils.completedVoidFuture();
+
 	/** Completed checkpoints. Implementations can be blocking. Make sure calls to methods
 	 * accessing this don't block the job manager actor and run asynchronously. */
 	private final CompletedCheckpointStore completedCheckpointStore;
@@ -195,6 +206,9 @@ public class CheckpointCoordinator {
 
 	private final CheckpointFailureManager failureManager;
 
+	/** The format version in which the metadata of checkpoints and savepoints is written. */
+	private final int metadataVersion;
+
 	private final Clock clock;
 
 	private final boolean isExactlyOnceMode;
@@ -219,7 +233,8 @@ public class CheckpointCoordinator {
 		Executor executor,
 		ScheduledExecutor timer,
 		SharedStateRegistryFactory sharedStateRegistryFactory,
-		CheckpointFailureManager failureManager) {
+		CheckpointFailureManager failureManager,
+		int metadataVersion) {
 
 		this(
 			job,
@@ -235,6 +250,7 @@ public class CheckpointCoordinator {
 			timer,
 			sharedStateRegistryFactory,
 			failureManager,
+			metadataVersion,
 			SystemClock.getInstance());
 	}
 
@@ -253,6 +269,7 @@ public class CheckpointCoordinator {
 			ScheduledExecutor timer,
 			SharedStateRegistryFactory sharedStateRegistryFactory,
 			CheckpointFailureManager failureManager,
+			int metadataVersion,
 			Clock clock) {
 
 		// sanity checks
@@ -280,6 +297,7 @@ public class CheckpointCoordinator {
 		this.tasksToCommitTo = checkNotNull(tasksToCommitTo);
 		this.coordinatorsToCheckpoint = Collections.unmodifiableCollection(coordinatorsToCheckpoint);
 		this.pendingCheckpoints = new LinkedHashMap<>();
+		this.finalizingCheckpoints = new LinkedHashMap<>();
 		this.checkpointIdCounter = checkNotNull(checkpointIDCounter);
 		this.completedCheckpointStore = checkNotNull(completedCheckpointStore);
 		this.executor = checkNotNull(executor);
@@ -287,6 +305,7 @@ public class CheckpointCoordinator {
 		this.sharedStateRegistry = sharedStateRegistryFactory.create(executor);
 		this.isPreferCheckpointForRecovery = chkConfig.isPreferCheckpointForRecovery();
 		this.failureManager = checkNotNull(failureManager);
+		this.metadataVersion = metadataVersion;
 		this.clock = checkNotNull(clock);
 		this.isExactlyOnceMode = chkConfig.isExactlyOnce();
 		this.unalignedCheckpointsEnabled = chkConfig.isUnalignedCheckpointsEnabled();
@@ -317,7 +336,7 @@ public class CheckpointCoordinator {
 			this::rescheduleTrigger,
 			this.clock,
 			this.minPauseBetweenCheckpoints,
-			this.pendingCheckpoints::size);
+			() -> pendingCheckpoints.size() + finalizingCheckpoints.size());
 	}
 
 	// --------------------------------------------------------------------------------------------
@@ -655,6 +674,7 @@ public class CheckpointCoordinator {
 			masterHooks.keySet(),
 			props,
 			checkpointStorageLocation,
+			metadataVersion,
 			executor,
 			onCompletionPromise);
 
@@ -919,13 +939,18 @@ public class CheckpointCoordinator {
 	 * Receives an AcknowledgeCheckpoint message and returns whether the
 	 * message was associated with a pending checkpoint.
 	 *
+	 * <p>The subtask state of the message is added to the pending checkpoint outside of the
+	 * coordinator-wide lock, so that acknowledgements of different tasks can be processed
+	 * concurrently. Once the checkpoint is fully acknowledged, it is finalized asynchronously.
+	 *
 	 * @param message Checkpoint ack from the task manager
 	 *
 	 * @param taskManagerLocationInfo The location of the acknowledge checkpoint message's sender
 	 * @return Flag indicating whether the ack'd checkpoint was associated
 	 * with a pending checkpoint.
 	 *
-	 * @throws CheckpointException If the checkpoint cannot be added to the completed checkpoint store.
+	 * @throws CheckpointException If the checkpoint was finalized by the calling thread and could
+	 * not be added to the completed checkpoint store.
 	 */
 	public boolean receiveAcknowledgeMessage(AcknowledgeCheckpoint message, String taskManagerLocationInfo) throws CheckpointException {
 		if (shutdown || message == null) {
@@ -938,6 +963,7 @@ public class CheckpointCoordinator {
 		}
 
 		final long checkpointId = message.getCheckpointId();
+		final PendingCheckpoint checkpoint;
 
 		synchronized (lock) {
 			// we need to check inside the lock for being shutdown as well, otherwise we
@@ -946,49 +972,14 @@ public class CheckpointCoordinator {
 				return false;
 			}
 
-			final PendingCheckpoint checkpoint = pendingCheckpoints.get(checkpointId);
-
-			if (checkpoint != null && !checkpoint.isDiscarded()) {
-
-				switch (checkpoint.acknowledgeTask(message.getTaskExecutionId(), message.getSubtaskState(), message.getCheckpointMetrics())) {
-					case SUCCESS:
-						LOG.debug("Received acknowledge message for checkpoint {} from task {} of job {} at {}.",
-							checkpointId, message.getTaskExecutionId(), message.getJob(), taskManagerLocationInfo);
-
-						if (checkpoint.areTasksFullyAcknowledged()) {
-							completePendingCheckpoint(checkpoint);
-						}
-						break;
-					case DUPLICATE:
-						LOG.debug("Received a duplicate acknowledge message for checkpoint {}, task {}, job {}, location {}.",
-							message.getCheckpointId(), message.getTaskExecutionId(), message.getJob(), taskManagerLocationInfo);
-						break;
-					case UNKNOWN:
-						LOG.warn("Could not acknowledge the checkpoint {} for task {} of job {} at {}, " +
-								"because the task's execution attempt id was unknown. Discarding " +
-								"the state handle to avoid lingering state.", message.getCheckpointId(),
-							message.getTaskExecutionId(), message.getJob(), taskManagerLocationInfo);
-
-						discardSubtaskState(message.getJob(), message.getTaskExecutionId(), message.getCheckpointId(), message.getSubtaskState());
-
-						break;
-					case DISCARDED:
-						LOG.warn("Could not acknowledge the checkpoint {} for task {} of job {} at {}, " +
-							"because the pending checkpoint had been discarded. Discarding the " +
-								"state handle tp avoid lingering state.",
-							message.getCheckpointId(), message.getTaskExecutionId(), message.getJob(), taskManagerLocationInfo);
-
-						discardSubtaskState(message.getJob(), message.getTaskExecutionId(), message.getCheckpointId(), message.getSubtaskState());
-				}
+			checkpoint = pendingCheckpoints.get(checkpointId);
 
-				return true;
-			}
-			else if (checkpoint != null) {
+			if (checkpoint != null && checkpoint.isDiscarded()) {
 				// this should not happen
 				throw new IllegalStateException(
 						"Received message for discarded but non-removed checkpoint " + checkpointId);
 			}
-			else {
+			else if (checkpoint == null) {
 				boolean wasPendingCheckpoint;
 
 				// message is for an unknown checkpoint, or comes too late (checkpoint disposed)
@@ -1009,96 +1000,263 @@ public class CheckpointCoordinator {
 				return wasPendingCheckpoint;
 			}
 		}
+
+		switch (checkpoint.acknowledgeTask(message.getTaskExecutionId(), message.getSubtaskState(), message.getCheckpointMetrics())) {
+			case SUCCESS:
+				LOG.debug("Received acknowledge message for checkpoint {} from task {} of job {} at {}.",
+					checkpointId, message.getTaskExecutionId(), message.getJob(), taskManagerLocationInfo);
+
+				if (checkpoint.areTasksFullyAcknowledged()) {
+					CompletableFuture<Void> finalization = null;
+					synchronized (lock) {
+						// several acknowledgements may observe the checkpoint as fully acknowledged,
+						// but only the first one finds it still pending
+						if (!shutdown && pendingCheckpoints.get(checkpointId) == checkpoint && checkpoint.areTasksFullyAcknowledged()) {
+							finalization = completePendingCheckpoint(checkpoint);
+						}
+					}
+					if (finalization != null) {
+						rethrowFinalizationFailure(finalization);
+					}
+				}
+				break;
+			case DUPLICATE:
+				LOG.debug("Received a duplicate acknowledge message for checkpoint {}, task {}, job {}, location {}.",
+					message.getCheckpointId(), message.getTaskExecutionId(), message.getJob(), taskManagerLocationInfo);
+				break;
+			case UNKNOWN:
+				LOG.warn("Could not acknowledge the checkpoint {} for task {} of job {} at {}, " +
+						"because the task's execution attempt id was unknown. Discarding " +
+						"the state handle to avoid lingering state.", message.getCheckpointId(),
+					message.getTaskExecutionId(), message.getJob(), taskManagerLocationInfo);
+
+				discardSubtaskState(message.getJob(), message.getTaskExecutionId(), message.getCheckpointId(), message.getSubtaskState());
+
+				break;
+			case DISCARDED:
+				LOG.warn("Could not acknowledge the checkpoint {} for task {} of job {} at {}, " +
+					"because the pending checkpoint had been discarded. Discarding the " +
+						"state handle tp avoid lingering state.",
+					message.getCheckpointId(), message.getTaskExecutionId(), message.getJob(), taskManagerLocationInfo);
+
+				discardSubtaskState(message.getJob(), message.getTaskExecutionId(), message.getCheckpointId(), message.getSubtaskState());
+		}
+
+		return true;
 	}
 
 	/**
-	 * Try to complete the given pending checkpoint.
+	 * Completes the given fully acknowledged pending checkpoint. The checkpoint is removed from
+	 * the pending checkpoints and finalized asynchronously, after all previously completed
+	 * checkpoints have been finalized.
 	 *
 	 * <p>Important: This method should only be called in the checkpoint lock scope.
 	 *
 	 * @param pendingCheckpoint to complete
-	 * @throws CheckpointException if the completion failed
+	 * @return the future of the finalization, which is completed exceptionally with a
+	 * {@link CheckpointException} if the checkpoint could not be completed
 	 */
-	private void completePendingCheckpoint(PendingCheckpoint pendingCheckpoint) throws CheckpointException {
-		final long checkpointId = pendingCheckpoint.getCheckpointId();
-		final CompletedCheckpoint completedCheckpoint;
-
+	private CompletableFuture<Void> completePendingCheckpoint(PendingCheckpoint pendingCheckpoint) {
 		// As a first step to complete the checkpoint, we register its state with the registry
 		Map<OperatorID, OperatorState> operatorStates = pendingCheckpoint.getOperatorStates();
 		sharedStateRegistry.registerAll(operatorStates.values());
 
+		final FinalizingCheckpoint finalizingCheckpoint = new FinalizingCheckpoint(pendingCheckpoint);
+		pendingCheckpoints.remove(pendingCheckpoint.getCheckpointId());
+		finalizingCheckpoints.put(pendingCheckpoint.getCheckpointId(), finalizingCheckpoint);
+
+		final CompletableFuture<Void> checkpointFinalization = finalizationFuture.thenRunAsync(
+			() -> {
+				try {
+					finalizePendingCheckpoint(finalizingCheckpoint);
+				} catch (CheckpointException e) {
+					throw new CompletionException(e);
+				}
+			},
+			executor);
+
+		// the failures to complete the checkpoint have been handled by finalizePendingCheckpoint,
+		// the finalization of the following checkpoints must not be skipped because of them
+		finalizationFuture = checkpointFinalization.exceptionally(throwable -> {
+			if (!(ExceptionUtils.stripCompletionException(throwable) instanceof CheckpointException)) {
+				LOG.error("Could not finalize the pending checkpoint {} of job {}.",
+					pendingCheckpoint.getCheckpointId(), job, throwable);
+			}
+			return null;
+		});
+
+		return checkpointFinalization;
+	}
+
+	/**
+	 * Rethrows the failure of a finalization which has already been completed, i.e. which ran on
+	 * the calling thread.
+	 */
+	private static void rethrowFinalizationFailure(CompletableFuture<Void> finalization) throws CheckpointException {
 		try {
-			try {
-				completedCheckpoint = pendingCheckpoint.finalizeCheckpoint();
-				failureManager.handleCheckpointSuccess(pendingCheckpoint.getCheckpointId());
+			finalization.getNow(null);
+		} catch (CompletionException e) {
+			final Throwable cause = ExceptionUtils.stripCompletionException(e);
+			if (cause instanceof CheckpointException) {
+				throw (CheckpointException) cause;
 			}
-			catch (Exception e1) {
-				// abort the current pending checkpoint if we fails to finalize the pending checkpoint.
-				if (!pendingCheckpoint.isDiscarded()) {
-					abortPendingCheckpoint(
-						pendingCheckpoint,
-						new CheckpointException(
-							CheckpointFailureReason.FINALIZE_CHECKPOINT_FAILURE, e1));
-				}
+			ExceptionUtils.rethrow(cause);
+		}
+	}
 
-				throw new CheckpointException("Could not finalize the pending checkpoint " + checkpointId + '.',
-					CheckpointFailureReason.FINALIZE_CHECKPOINT_FAILURE, e1);
+	/**
+	 * Writes the metadata of the given pending checkpoint and adds the resulting completed
+	 * checkpoint to the completed checkpoint store. The metadata is written without holding the
+	 * coordinator-wide lock. If the checkpoint is aborted before the finalization starts, it is not
+	 * finalized. If it is aborted while the metadata is written, the completed checkpoint is not
+	 * added to the completed checkpoint store.
+	 *
+	 * <p>The completion future of the checkpoint is completed once the checkpoint has been added
+	 * to the completed checkpoint store, and failed otherwise.
+	 *
+	 * @param finalizingCheckpoint to finalize
+	 * @throws CheckpointException If the checkpoint could not be finalized, was aborted while it was
+	 * finalized or could not be added to the completed checkpoint store.
+	 */
+	private void finalizePendingCheckpoint(FinalizingCheckpoint finalizingCheckpoint) throws CheckpointException {
+		final PendingCheckpoint pendingCheckpoint = finalizingCheckpoint.pendingCheckpoint;
+		final long checkpointId = pendingCheckpoint.getCheckpointId();
+
+		synchronized (lock) {
+			if (finalizingCheckpoints.get(checkpointId) != finalizingCheckpoint) {
+				// the checkpoint has already been finalized by another thread
+				return;
 			}
+			finalizingCheckpoint.started = true;
+		}
+
+		CompletedCheckpoint completedCheckpoint = null;
+		Throwable finalizationFailure = null;
+
+		try {
+			completedCheckpoint = pendingCheckpoint.finalizeCheckpoint();
 
 			// the pending checkpoint must be discarded after the finalization
 			Preconditions.checkState(pendingCheckpoint.isDiscarded() && completedCheckpoint != null);
+		}
+		catch (Throwable t) {
+			finalizationFailure = t;
+		}
 
+		synchronized (lock) {
 			try {
-				completedCheckpointStore.addCheckpoint(completedCheckpoint);
-			} catch (Exception exception) {
-				// we failed to store the completed checkpoint. Let's clean up
-				executor.execute(new Runnable() {
-					@Override
-					public void run() {
-						try {
-							completedCheckpoint.discardOnFailedStoring();
-						} catch (Throwable t) {
-							LOG.warn("Could not properly discard completed checkpoint {}.", completedCheckpoint.getCheckpointID(), t);
-						}
+				finalizingCheckpoints.remove(checkpointId);
+
+				if (finalizationFailure != null) {
+					LOG.warn("Could not finalize the pending checkpoint {} of job {}.", checkpointId, job, finalizationFailure);
+
+					final CheckpointException exception = finalizingCheckpoint.abortCause != null ?
+						finalizingCheckpoint.abortCause :
+						new CheckpointException(
+							"Could not finalize the pending checkpoint " + checkpointId + '.',
+							CheckpointFailureReason.FINALIZE_CHECKPOINT_FAILURE,
+							finalizationFailure);
+
+					// abort the current pending checkpoint if we fails to finalize the pending checkpoint.
+					if (!pendingCheckpoint.isDiscarded()) {
+						abortPendingCheckpoint(pendingCheckpoint, exception);
+					} else {
+						failCompletedCheckpoint(pendingCheckpoint, exception);
 					}
-				});
+					throw exception;
+				}
+
+				if (finalizingCheckpoint.abortCause != null) {
+					LOG.info("Checkpoint {} of job {} was aborted while it was finalized. " +
+						"It is not added to the completed checkpoints.", checkpointId, job);
+
+					discardCompletedCheckpointAsync(completedCheckpoint);
+					failCompletedCheckpoint(pendingCheckpoint, finalizingCheckpoint.abortCause);
+					throw finalizingCheckpoint.abortCause;
+				}
+
+				try {
+					completedCheckpointStore.addCheckpoint(completedCheckpoint);
+				} catch (Exception exception) {
+					// we failed to store the completed checkpoint. Let's clean up
+					discardCompletedCheckpointAsync(completedCheckpoint);
+
+					final CheckpointException checkpointException = new CheckpointException(
+						"Could not complete the pending checkpoint " + checkpointId + '.',
+						CheckpointFailureReason.FINALIZE_CHECKPOINT_FAILURE,
+						exception);
+					LOG.warn("Could not complete the pending checkpoint {} of job {}.", checkpointId, job, exception);
+					failCompletedCheckpoint(pendingCheckpoint, checkpointException);
+					throw checkpointException;
+				}
 
-				sendAbortedMessages(checkpointId, pendingCheckpoint.getCheckpointTimestamp());
-				throw new CheckpointException("Could not complete the pending checkpoint " + checkpointId + '.',
-					CheckpointFailureReason.FINALIZE_CHECKPOINT_FAILURE, exception);
+				failureManager.handleCheckpointSuccess(checkpointId);
+				pendingCheckpoint.getCompletionFuture().complete(completedCheckpoint);
+			} finally {
+				timer.execute(this::executeQueuedRequest);
 			}
-		} finally {
-			pendingCheckpoints.remove(checkpointId);
-			timer.execute(this::executeQueuedRequest);
-		}
 
-		rememberRecentCheckpointId(checkpointId);
+			rememberRecentCheckpointId(checkpointId);
 
-		// drop those pending checkpoints that are at prior to the completed one
-		dropSubsumedCheckpoints(checkpointId);
+			// drop those pending checkpoints that are at prior to the completed one
+			dropSubsumedCheckpoints(checkpointId);
 
-		// record the time when this was completed, to calculate
-		// the 'min delay between checkpoints'
-		lastCheckpointCompletionRelativeTime = clock.relativeTimeMillis();
+			// record the time when this was completed, to calculate
+			// the 'min delay between checkpoints'
+			lastCheckpointCompletionRelativeTime = clock.relativeTimeMillis();
 
-		LOG.info("Completed checkpoint {} for job {} ({} bytes in {} ms).", checkpointId, job,
-			completedCheckpoint.getStateSize(), completedCheckpoint.getDuration());
+			LOG.info("Completed checkpoint {} for job {} ({} bytes in {} ms).", checkpointId, job,
+				completedCheckpoint.getStateSize(), completedCheckpoint.getDuration());
 
-		if (LOG.isDebugEnabled()) {
-			StringBuilder builder = new StringBuilder();
-			builder.append("Checkpoint state: ");
-			for (OperatorState state : completedCheckpoint.getOperatorStates().values()) {
-				builder.append(state);
-				builder.append(", ");
+			if (LOG.isDebugEnabled()) {
+				StringBuilder builder = new StringBuilder();
+				builder.append("Checkpoint state: ");
+				for (OperatorState state : completedCheckpoint.getOperatorStates().values()) {
+					builder.append(state);
+					builder.append(", ");
+				}
+				// Remove last two chars ", "
+				builder.setLength(builder.length() - 2);
+
+				LOG.debug(builder.toString());
 			}
-			// Remove last two chars ", "
-			builder.setLength(builder.length() - 2);
 
-			LOG.debug(builder.toString());
+			// send the "notify complete" call to all vertices, coordinators, etc.
+			sendAcknowledgeMessages(checkpointId, completedCheckpoint.getTimestamp());
 		}
+	}
+
+	/**
+	 * Fails a checkpoint whose metadata has been written, but which is not added to the completed
+	 * checkpoint store. Like an aborted pending checkpoint, the failure is reported to the failure
+	 * manager and the tasks are notified about the abortion.
+	 */
+	private void failCompletedCheckpoint(PendingCheckpoint pendingCheckpoint, CheckpointException exception) {
+		assert Thread.holdsLock(lock);
+
+		final long checkpointId = pendingCheckpoint.getCheckpointId();
+		pendingCheckpoint.getCompletionFuture().completeExceptionally(exception);
 
-		// send the "notify complete" call to all vertices, coordinators, etc.
-		sendAcknowledgeMessages(checkpointId, completedCheckpoint.getTimestamp());
+		try {
+			if (pendingCheckpoint.getProps().isSavepoint() && pendingCheckpoint.getProps().isSynchronous()) {
+				failureManager.handleSynchronousSavepointFailure(exception);
+			} else {
+				failureManager.handleJobLevelCheckpointException(exception, checkpointId);
+			}
+		} finally {
+			sendAbortedMessages(checkpointId, pendingCheckpoint.getCheckpointTimestamp());
+			rememberRecentCheckpointId(checkpointId);
+		}
+	}
+
+	private void discardCompletedCheckpointAsync(CompletedCheckpoint completedCheckpoint) {
+		executor.execute(() -> {
+			try {
+				completedCheckpoint.discardOnFailedStoring();
+			} catch (Throwable t) {
+				LOG.warn("Could not properly discard completed checkpoint {}.", completedCheckpoint.getCheckpointID(), t);
+			}
+		});
 	}
 
 	private void sendAcknowledgeMessages(long checkpointId, long timestamp) {
@@ -1264,6 +1422,13 @@ public class CheckpointCoordinator {
 				throw new IllegalStateException("CheckpointCoordinator is shut down");
 			}
 
+			// A checkpoint which is finalized concurrently must not be added to the completed checkpoint
+			// store after the state to restore has been chosen. Only global restores also restore the
+			// coordinators, regional failovers restore a set of subtasks.
+			abortFinalizingCheckpoints(new CheckpointException(restoreCoordinators ?
+				CheckpointFailureReason.JOB_FAILURE :
+				CheckpointFailureReason.JOB_FAILOVER_REGION));
+
 			// We create a new shared state registry object, so that all pending async disposal requests from previous
 			// runs will go against the old object (were they can do no harm).
 			// This must happen under the checkpoint lock.
@@ -1478,12 +1643,14 @@ public class CheckpointCoordinator {
 	}
 
 	/**
-	 * Aborts all the pending checkpoints due to en exception.
+	 * Aborts all the pending checkpoints due to en exception. The fully acknowledged checkpoints
+	 * which are being finalized are completed or aborted, see {@link #abortFinalizingCheckpoints}.
 	 * @param exception The exception.
 	 */
 	public void abortPendingCheckpoints(CheckpointException exception) {
 		synchronized (lock) {
 			abortPendingCheckpoints(ignored -> true, exception);
+			abortFinalizingCheckpoints(exception);
 		}
 	}
 
@@ -1505,6 +1672,36 @@ public class CheckpointCoordinator {
 		}
 	}
 
+	/**
+	 * Settles all the checkpoints which are being finalized, so that none of them is added to the
+	 * completed checkpoint store afterwards.
+	 *
+	 * <p>A fully acknowledged checkpoint is complete, only its finalization is deferred. If the
+	 * finalization has not started yet, it is run right away on the calling thread. A checkpoint
+	 * whose metadata is being written by another thread cannot be waited for under the lock, so it
+	 * is aborted with the given exception once the metadata has been written.
+	 */
+	private void abortFinalizingCheckpoints(CheckpointException exception) {
+		assert Thread.holdsLock(lock);
+
+		final FinalizingCheckpoint[] finalizingCheckpointsToSettle =
+			finalizingCheckpoints.values().toArray(new FinalizingCheckpoint[0]);
+
+		for (FinalizingCheckpoint finalizingCheckpoint : finalizingCheckpointsToSettle) {
+			if (finalizingCheckpoint.started) {
+				if (finalizingCheckpoint.abortCause == null) {
+					finalizingCheckpoint.abortCause = exception;
+				}
+			} else {
+				try {
+					finalizePendingCheckpoint(finalizingCheckpoint);
+				} catch (CheckpointException ignored) {
+					// the failure has been handled by the finalization
+				}
+			}
+		}
+	}
+
 	private void rescheduleTrigger(long tillNextMillis) {
 		cancelPeriodicTrigger();
 		currentPeriodicTrigger = scheduleTriggerWithDelay(tillNextMillis);
@@ -1744,7 +1941,9 @@ public class CheckpointCoordinator {
 			synchronized (lock) {
 				// only do the work if the checkpoint is not discarded anyways
 				// note that checkpoint completion discards the pending checkpoint object
-				if (!pendingCheckpoint.isDiscarded()) {
+				// and that a fully acknowledged checkpoint is no longer pending while it is finalized
+				if (!pendingCheckpoint.isDiscarded() &&
+						pendingCheckpoints.get(pendingCheckpoint.getCheckpointId()) == pendingCheckpoint) {
 					LOG.info("Checkpoint {} of job {} expired before completing.",
 						pendingCheckpoint.getCheckpointId(), job);
 
@@ -1765,6 +1964,27 @@ public class CheckpointCoordinator {
 			.orElseGet(() -> new CheckpointException(defaultReason, throwable));
 	}
 
+	/**
+	 * A fully acknowledged checkpoint which is being finalized.
+	 */
+	private static final class FinalizingCheckpoint {
+
+		private final PendingCheckpoint pendingCheckpoint;
+
+		/** Whether the metadata of the checkpoint is being written. */
+		@GuardedBy("lock")
+		private boolean started;
+
+		/** The cause of aborting the checkpoint, or null if it has not been aborted. */
+		@GuardedBy("lock")
+		@Nullable
+		private CheckpointException abortCause;
+
+		FinalizingCheckpoint(PendingCheckpoint pendingCheckpoint) {
+			this.pendingCheckpoint = checkNotNull(pendingCheckpoint);
+		}
+	}
+
 	private static class CheckpointIdAndStorageLocation {
 		private final long checkpointId;
 		private final CheckpointStorageLocation checkpointStorageLocation;
@@ -25,6 +25,7 @@ import org.apache.flink.runtime.checkpoint.metadata.CheckpointMetadata;
 import org.apache.flink.runtime.checkpoint.metadata.MetadataSerializer;
 import org.apache.flink.runtime.checkpoint.metadata.MetadataSerializers;
 import org.apache.flink.runtime.checkpoint.metadata.MetadataV3Serializer;
+import org.apache.flink.runtime.checkpoint.metadata.MetadataV4Serializer;
 import org.apache.flink.runtime.executiongraph.ExecutionJobVertex;
 import org.apache.flink.runtime.jobgraph.JobVertexID;
 import org.apache.flink.runtime.jobgraph.OperatorID;
@@ -49,7 +50,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Predicate;
 
+import static org.apache.flink.util.Preconditions.checkArgument;
 import static org.apache.flink.util.Preconditions.checkNotNull;
 
 /**
@@ -83,11 +86,47 @@ public class Checkpoints {
 			CheckpointMetadata checkpointMetadata,
 			DataOutputStream out) throws IOException {
 
+		storeCheckpointMetadata(checkpointMetadata, out, MetadataV3Serializer.VERSION);
+	}
+
+	public static void storeCheckpointMetadata(
+			CheckpointMetadata checkpointMetadata,
+			OutputStream out,
+			int version) throws IOException {
+
+		DataOutputStream dos = new DataOutputStream(out);
+		storeCheckpointMetadata(checkpointMetadata, dos, version);
+	}
+
+	/**
+	 * Writes the checkpoint metadata in the given format version, which must be one of the
+	 * versions accepted by {@link #isSupportedMetadataVersionForWriting(int)}.
+	 */
+	public static void storeCheckpointMetadata(
+			CheckpointMetadata checkpointMetadata,
+			DataOutputStream out,
+			int version) throws IOException {
+
+		checkArgument(isSupportedMetadataVersionForWriting(version),
+			"Checkpoint metadata cannot be written in version %s.", version);
+
 		// write generic header
 		out.writeInt(HEADER_MAGIC_NUMBER);
 
-		out.writeInt(MetadataV3Serializer.VERSION);
-		MetadataV3Serializer.serialize(checkpointMetadata, out);
+		out.writeInt(version);
+		if (version == MetadataV4Serializer.VERSION) {
+			MetadataV4Serializer.serialize(checkpointMetadata, out);
+		} else {
+			MetadataV3Serializer.serialize(checkpointMetadata, out);
+		}
+	}
+
+	/**
+	 * Checks whether checkpoint metadata can be written in the given format version. Older
+	 * versions can only be read.
+	 */
+	public static boolean isSupportedMetadataVersionForWriting(int version) {
+		return version == MetadataV3Serializer.VERSION || version == MetadataV4Serializer.VERSION;
 	}
 
 	// ------------------------------------------------------------------------
@@ -95,15 +134,29 @@ public class Checkpoints {
 	// ------------------------------------------------------------------------
 
 	public static CheckpointMetadata loadCheckpointMetadata(DataInputStream in, ClassLoader classLoader, String externalPointer) throws IOException {
+		return loadCheckpointMetadata(in, classLoader, externalPointer, operatorId -> true);
+	}
+
+	/**
+	 * Loads the checkpoint metadata with only the states of the operators accepted by the given
+	 * filter. Depending on the metadata version, the states of the other operators are not read at all.
+	 */
+	public static CheckpointMetadata loadCheckpointMetadata(
+			DataInputStream in,
+			ClassLoader classLoader,
+			String externalPointer,
+			Predicate<OperatorID> operatorFilter) throws IOException {
+
 		checkNotNull(in, "input stream");
 		checkNotNull(classLoader, "classLoader");
+		checkNotNull(operatorFilter, "operatorFilter");
 
 		final int magicNumber = in.readInt();
 
 		if (magicNumber == HEADER_MAGIC_NUMBER) {
 			final int version = in.readInt();
 			final MetadataSerializer serializer = MetadataSerializers.getSerializer(version);
-			return serializer.deserialize(in, classLoader, externalPointer);
+			return serializer.deserialize(in, classLoader, externalPointer, operatorFilter);
 		}
 		else {
 			throw new IOException("Unexpected magic number. This can have multiple reasons: " +
@@ -128,13 +181,6 @@ public class Checkpoints {
 		final StreamStateHandle metadataHandle = location.getMetadataHandle();
 		final String checkpointPointer = location.getExternalPointer();
 
-		// (1) load the savepoint
-		final CheckpointMetadata checkpointMetadata;
-		try (InputStream in = metadataHandle.openInputStream()) {
-			DataInputStream dis = new DataInputStream(in);
-			checkpointMetadata = loadCheckpointMetadata(dis, classLoader, checkpointPointer);
-		}
-
 		// generate mapping from operator to task
 		Map<OperatorID, ExecutionJobVertex> operatorToJobVertexMapping = new HashMap<>();
 		for (ExecutionJobVertex task : tasks.values()) {
@@ -144,6 +190,20 @@ public class Checkpoints {
 			}
 		}
 
+		// (1) load the savepoint, without the state of operators that are skipped anyways
+		final CheckpointMetadata checkpointMetadata;
+		try (InputStream in = metadataHandle.openInputStream()) {
+			DataInputStream dis = new DataInputStream(in);
+			checkpointMetadata = loadCheckpointMetadata(dis, classLoader, checkpointPointer, operatorId -> {
+				if (operatorToJobVertexMapping.containsKey(operatorId) || !allowNonRestoredState) {
+					return true;
+				} else {
+					LOG.info("Skipping savepoint state for operator {}.", operatorId);
+					return false;
+				}
+			});
+		}
+
 		// (2) validate it (parallelism, etc)
 		HashMap<OperatorID, OperatorState> operatorStates = new HashMap<>(checkpointMetadata.getOperatorStates().size());
 		for (OperatorState operatorState : checkpointMetadata.getOperatorStates()) {
@@ -168,9 +228,8 @@ public class Checkpoints {
 
 					throw new IllegalStateException(msg);
 				}
-			} else if (allowNonRestoredState) {
-				LOG.info("Skipping savepoint state for operator {}.", operatorState.getOperatorID());
 			} else {
+				// the state of operators that are not in the program is only loaded if it may not be skipped
 				if (operatorState.getCoordinatorState() != null) {
 					throwNonRestoredStateException(checkpointPointer, operatorState.getOperatorID());
 				}
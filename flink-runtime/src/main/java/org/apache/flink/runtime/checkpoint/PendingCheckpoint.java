@@ -42,14 +42,18 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static org.apache.flink.util.Preconditions.checkArgument;
 import static org.apache.flink.util.Preconditions.checkNotNull;
@@ -62,6 +66,10 @@ import static org.apache.flink.util.Preconditions.checkState;
  *
  * <p>Note that the pending checkpoint, as well as the successful checkpoint keep the
  * state handles always as serialized values, never as actual values.
+ *
+ * <p>Task acknowledgements may be processed concurrently by multiple threads. They only share the
+ * read side of the checkpoint's lock and aggregate the reported state per operator, while all other
+ * modifications (finalization, disposal, coordinator and master states) hold the write side.
  */
 public class PendingCheckpoint {
 
@@ -80,7 +88,7 @@ public class PendingCheckpoint {
 	/** The PendingCheckpoint logs to the same logger as the CheckpointCoordinator. */
 	private static final Logger LOG = LoggerFactory.getLogger(CheckpointCoordinator.class);
 
-	private final Object lock = new Object();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
 	private final JobID jobId;
 
@@ -107,15 +115,18 @@ public class PendingCheckpoint {
 	/** Target storage location to persist the checkpoint metadata to. */
 	private final CheckpointStorageLocation targetLocation;
 
+	/** The format version in which the checkpoint metadata is written. */
+	private final int metadataVersion;
+
 	/** The promise to fulfill once the checkpoint has been completed. */
 	private final CompletableFuture<CompletedCheckpoint> onCompletionPromise;
 
 	/** The executor for potentially blocking I/O operations, like state disposal. */
 	private final Executor executor;
 
-	private int numAcknowledgedTasks;
+	private final AtomicInteger numAcknowledgedTasks = new AtomicInteger();
 
-	private boolean discarded;
+	private volatile boolean discarded;
 
 	/** Optional stats tracker callback. */
 	@Nullable
@@ -136,6 +147,7 @@ public class PendingCheckpoint {
 			Collection<String> masterStateIdentifiers,
 			CheckpointProperties props,
 			CheckpointStorageLocation targetLocation,
+			int metadataVersion,
 			Executor executor,
 			CompletableFuture<CompletedCheckpoint> onCompletionPromise) {
 
@@ -145,18 +157,19 @@ public class PendingCheckpoint {
 		this.jobId = checkNotNull(jobId);
 		this.checkpointId = checkpointId;
 		this.checkpointTimestamp = checkpointTimestamp;
-		this.notYetAcknowledgedTasks = checkNotNull(verticesToConfirm);
+		this.notYetAcknowledgedTasks = new ConcurrentHashMap<>(checkNotNull(verticesToConfirm));
 		this.props = checkNotNull(props);
 		this.targetLocation = checkNotNull(targetLocation);
+		this.metadataVersion = metadataVersion;
 		this.executor = Preconditions.checkNotNull(executor);
 
-		this.operatorStates = new HashMap<>();
+		this.operatorStates = new ConcurrentHashMap<>();
 		this.masterStates = new ArrayList<>(masterStateIdentifiers.size());
 		this.notYetAcknowledgedMasterStates = masterStateIdentifiers.isEmpty()
 				? Collections.emptySet() : new HashSet<>(masterStateIdentifiers);
 		this.notYetAcknowledgedOperatorCoordinators = operatorCoordinatorsToConfirm.isEmpty()
 				? Collections.emptySet() : new HashSet<>(operatorCoordinatorsToConfirm);
-		this.acknowledgedTasks = new HashSet<>(verticesToConfirm.size());
+		this.acknowledgedTasks = ConcurrentHashMap.newKeySet(verticesToConfirm.size());
 		this.onCompletionPromise = checkNotNull(onCompletionPromise);
 	}
 
@@ -191,7 +204,7 @@ public class PendingCheckpoint {
 	}
 
 	public int getNumberOfAcknowledgedTasks() {
-		return numAcknowledgedTasks;
+		return numAcknowledgedTasks.get();
 	}
 
 	public Map<OperatorID, OperatorState> getOperatorStates() {
@@ -259,7 +272,9 @@ public class PendingCheckpoint {
 	 * @return true, if the handle was set, false, if the checkpoint is already disposed;
 	 */
 	public boolean setCancellerHandle(ScheduledFuture<?> cancellerHandle) {
-		synchronized (lock) {
+		final Lock writeLock = lock.writeLock();
+		writeLock.lock();
+		try {
 			if (this.cancellerHandle == null) {
 				if (!discarded) {
 					this.cancellerHandle = cancellerHandle;
@@ -271,6 +286,8 @@ public class PendingCheckpoint {
 			else {
 				throw new IllegalStateException("A canceller handle was already set");
 			}
+		} finally {
+			writeLock.unlock();
 		}
 	}
 
@@ -291,9 +308,17 @@ public class PendingCheckpoint {
 		return onCompletionPromise;
 	}
 
+	/**
+	 * Writes the metadata of this fully acknowledged checkpoint and returns the resulting completed
+	 * checkpoint. The completion future is only failed by this method: the checkpoint is not
+	 * complete before the {@link CheckpointCoordinator} has added it to the completed checkpoint
+	 * store, which then completes the future.
+	 */
 	public CompletedCheckpoint finalizeCheckpoint() throws IOException {
 
-		synchronized (lock) {
+		final Lock writeLock = lock.writeLock();
+		writeLock.lock();
+		try {
 			checkState(!isDiscarded(), "checkpoint is discarded");
 			checkState(isFullyAcknowledged(), "Pending checkpoint has not been fully acknowledged yet");
 
@@ -304,7 +329,7 @@ public class PendingCheckpoint {
 				final CompletedCheckpointStorageLocation finalizedLocation;
 
 				try (CheckpointMetadataOutputStream out = targetLocation.createMetadataOutputStream()) {
-					Checkpoints.storeCheckpointMetadata(savepoint, out);
+					Checkpoints.storeCheckpointMetadata(savepoint, out, metadataVersion);
 					finalizedLocation = out.closeAndFinalizeCheckpoint();
 				}
 
@@ -318,8 +343,6 @@ public class PendingCheckpoint {
 						props,
 						finalizedLocation);
 
-				onCompletionPromise.complete(completed);
-
 				// to prevent null-pointers from concurrent modification, copy reference onto stack
 				PendingCheckpointStats statsCallback = this.statsCallback;
 				if (statsCallback != null) {
@@ -340,12 +363,17 @@ public class PendingCheckpoint {
 				ExceptionUtils.rethrowIOException(t);
 				return null; // silence the compiler
 			}
+		} finally {
+			writeLock.unlock();
 		}
 	}
 
 	/**
 	 * Acknowledges the task with the given execution attempt id and the given subtask state.
 	 *
+	 * <p>This method may be called concurrently for different tasks. The subtask states are
+	 * aggregated per operator, so that only acknowledgements for the same operator contend.
+	 *
 	 * @param executionAttemptId of the acknowledged task
 	 * @param operatorSubtaskStates of the acknowledged task
 	 * @param metrics Checkpoint metrics for the stats
@@ -356,12 +384,14 @@ public class PendingCheckpoint {
 			TaskStateSnapshot operatorSubtaskStates,
 			CheckpointMetrics metrics) {
 
-		synchronized (lock) {
+		final Lock readLock = lock.readLock();
+		readLock.lock();
+		try {
 			if (discarded) {
 				return TaskAcknowledgeResult.DISCARDED;
 			}
 
-			final ExecutionVertex vertex = notYetAcknowledgedTasks.remove(executionAttemptId);
+			final ExecutionVertex vertex = notYetAcknowledgedTasks.get(executionAttemptId);
 
 			if (vertex == null) {
 				if (acknowledgedTasks.contains(executionAttemptId)) {
@@ -369,8 +399,11 @@ public class PendingCheckpoint {
 				} else {
 					return TaskAcknowledgeResult.UNKNOWN;
 				}
-			} else {
-				acknowledgedTasks.add(executionAttemptId);
+			}
+
+			// of several concurrent acknowledgements of the same task, only the first one is applied
+			if (!acknowledgedTasks.add(executionAttemptId)) {
+				return TaskAcknowledgeResult.DUPLICATE;
 			}
 
 			List<OperatorIDPair> operatorIDs = vertex.getJobVertex().getOperatorIDs();
@@ -390,22 +423,21 @@ public class PendingCheckpoint {
 						operatorSubtaskState = new OperatorSubtaskState();
 					}
 
-					OperatorState operatorState = operatorStates.get(operatorID.getGeneratedOperatorID());
-
-					if (operatorState == null) {
-						operatorState = new OperatorState(
-							operatorID.getGeneratedOperatorID(),
+					OperatorState operatorState = operatorStates.computeIfAbsent(
+						operatorID.getGeneratedOperatorID(),
+						operatorId -> new OperatorState(
+							operatorId,
 							vertex.getTotalNumberOfParallelSubtasks(),
-							vertex.getMaxParallelism());
-						operatorStates.put(operatorID.getGeneratedOperatorID(), operatorState);
-					}
+							vertex.getMaxParallelism()));
 
-					operatorState.putState(subtaskIndex, operatorSubtaskState);
+					synchronized (operatorState) {
+						operatorState.putState(subtaskIndex, operatorSubtaskState);
+					}
 					stateSize += operatorSubtaskState.getStateSize();
 				}
 			}
 
-			++numAcknowledgedTasks;
+			numAcknowledgedTasks.incrementAndGet();
 
 			// publish the checkpoint statistics
 			// to prevent null-pointers from concurrent modification, copy reference onto stack
@@ -424,10 +456,17 @@ public class PendingCheckpoint {
 					alignmentDurationMillis,
 					checkpointStartDelayMillis);
 
-				statsCallback.reportSubtaskStats(vertex.getJobvertexId(), subtaskStateStats);
+				synchronized (statsCallback) {
+					statsCallback.reportSubtaskStats(vertex.getJobvertexId(), subtaskStateStats);
+				}
 			}
 
+			// the task counts as acknowledged only once its state is part of this checkpoint
+			notYetAcknowledgedTasks.remove(executionAttemptId);
+
 			return TaskAcknowledgeResult.SUCCESS;
+		} finally {
+			readLock.unlock();
 		}
 	}
 
@@ -435,7 +474,9 @@ public class PendingCheckpoint {
 			OperatorInfo coordinatorInfo,
 			@Nullable ByteStreamStateHandle stateHandle) {
 
-		synchronized (lock) {
+		final Lock writeLock = lock.writeLock();
+		writeLock.lock();
+		try {
 			if (discarded) {
 				return TaskAcknowledgeResult.DISCARDED;
 			}
@@ -460,6 +501,8 @@ public class PendingCheckpoint {
 			}
 
 			return TaskAcknowledgeResult.SUCCESS;
+		} finally {
+			writeLock.unlock();
 		}
 	}
 
@@ -472,12 +515,16 @@ public class PendingCheckpoint {
 	 */
 	public void acknowledgeMasterState(String identifier, @Nullable MasterState state) {
 
-		synchronized (lock) {
+		final Lock writeLock = lock.writeLock();
+		writeLock.lock();
+		try {
 			if (!discarded) {
 				if (notYetAcknowledgedMasterStates.remove(identifier) && state != null) {
 					masterStates.add(state);
 				}
 			}
+		} finally {
+			writeLock.unlock();
 		}
 	}
 
@@ -515,9 +562,11 @@ public class PendingCheckpoint {
 
 	private void dispose(boolean releaseState) {
 
-		synchronized (lock) {
+		final Lock writeLock = lock.writeLock();
+		writeLock.lock();
+		try {
 			try {
-				numAcknowledgedTasks = -1;
+				numAcknowledgedTasks.set(-1);
 				if (!discarded && releaseState) {
 					executor.execute(new Runnable() {
 						@Override
@@ -544,6 +593,8 @@ public class PendingCheckpoint {
 				acknowledgedTasks.clear();
 				cancelCanceller();
 			}
+		} finally {
+			writeLock.unlock();
 		}
 	}
 
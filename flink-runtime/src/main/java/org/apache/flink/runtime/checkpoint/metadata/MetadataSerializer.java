@@ -19,9 +19,14 @@
 package org.apache.flink.runtime.checkpoint.metadata;
 
 import org.apache.flink.core.io.Versioned;
+import org.apache.flink.runtime.checkpoint.OperatorState;
+import org.apache.flink.runtime.jobgraph.OperatorID;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
  * Deserializer for checkpoint metadata. Different deserializers exist to deserialize from different
@@ -41,4 +46,30 @@ public interface MetadataSerializer extends Versioned {
 	 * @throws IOException Serialization failures are forwarded
 	 */
 	CheckpointMetadata deserialize(DataInputStream dis, ClassLoader userCodeClassLoader, String externalPointer) throws IOException;
+
+	/**
+	 * Deserializes a savepoint from an input stream, keeping only the states of the operators that
+	 * are accepted by the given filter. Serializers of formats that can skip the states of single
+	 * operators override this method to not read the other states at all.
+	 *
+	 * @param dis Input stream to deserialize savepoint from
+	 * @param  userCodeClassLoader the user code class loader
+	 * @param externalPointer the external pointer of the given checkpoint
+	 * @param operatorFilter Filter for the operators whose states are needed
+	 * @return The deserialized savepoint, with the states of the accepted operators
+	 * @throws IOException Serialization failures are forwarded
+	 */
+	default CheckpointMetadata deserialize(
+			DataInputStream dis,
+			ClassLoader userCodeClassLoader,
+			String externalPointer,
+			Predicate<OperatorID> operatorFilter) throws IOException {
+
+		final CheckpointMetadata checkpointMetadata = deserialize(dis, userCodeClassLoader, externalPointer);
+		final List<OperatorState> operatorStates = checkpointMetadata.getOperatorStates().stream()
+			.filter(operatorState -> operatorFilter.test(operatorState.getOperatorID()))
+			.collect(Collectors.toList());
+
+		return new CheckpointMetadata(checkpointMetadata.getCheckpointId(), operatorStates, checkpointMetadata.getMasterStates());
+	}
 }
@@ -517,7 +517,7 @@ public abstract class MetadataV2V3SerializerBase {
 	// ------------------------------------------------------------------------
 
 	@Nullable
-	private static <T> T extractSingleton(Collection<T> collection) {
+	static <T> T extractSingleton(Collection<T> collection) {
 		if (collection == null || collection.isEmpty()) {
 			return null;
 		}
@@ -0,0 +1,849 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.checkpoint.metadata;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.core.fs.Path;
+import org.apache.flink.runtime.checkpoint.MasterState;
+import org.apache.flink.runtime.checkpoint.OperatorState;
+import org.apache.flink.runtime.checkpoint.OperatorSubtaskState;
+import org.apache.flink.runtime.checkpoint.StateObjectCollection;
+import org.apache.flink.runtime.checkpoint.channel.InputChannelInfo;
+import org.apache.flink.runtime.checkpoint.channel.ResultSubpartitionInfo;
+import org.apache.flink.runtime.checkpoint.metadata.MetadataV2V3SerializerBase.DeserializationContext;
+import org.apache.flink.runtime.jobgraph.OperatorID;
+import org.apache.flink.runtime.state.AbstractChannelStateHandle;
+import org.apache.flink.runtime.state.AbstractChannelStateHandle.StateContentMetaInfo;
+import org.apache.flink.runtime.state.IncrementalRemoteKeyedStateHandle;
+import org.apache.flink.runtime.state.InputChannelStateHandle;
+import org.apache.flink.runtime.state.KeyGroupRange;
+import org.apache.flink.runtime.state.KeyGroupRangeOffsets;
+import org.apache.flink.runtime.state.KeyGroupsStateHandle;
+import org.apache.flink.runtime.state.KeyedStateHandle;
+import org.apache.flink.runtime.state.OperatorStateHandle;
+import org.apache.flink.runtime.state.OperatorStreamStateHandle;
+import org.apache.flink.runtime.state.ResultSubpartitionStateHandle;
+import org.apache.flink.runtime.state.StateHandleID;
+import org.apache.flink.runtime.state.StreamStateHandle;
+import org.apache.flink.runtime.state.filesystem.FileStateHandle;
+import org.apache.flink.runtime.state.filesystem.RelativeFileStateHandle;
+import org.apache.flink.runtime.state.memory.ByteStreamStateHandle;
+import org.apache.flink.util.function.BiConsumerWithException;
+import org.apache.flink.util.function.FunctionWithException;
+
+import javax.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * (De)serializer for checkpoint metadata format version 4.
+ *
+ * <p>Version 4 holds the same information as version 3, but writes every file path, state name and
+ * state handle ID only once, and keeps the states of each operator in a separate block, so that
+ * the states of operators which are not needed can be skipped when reading the metadata.
+ *
+ * <p>Basic checkpoint metadata layout:
+ * <pre>
+ *  +--------------+---------------+---------+--------------+--------------------+-----------------+
+ *  | checkpointID | master states | strings | file handles | operator directory | operator blocks |
+ *  +--------------+---------------+---------+--------------+--------------------+-----------------+
+ *
+ *  File handle:
+ *  +------+-------------------------------------------+------------+
+ *  | type | directory + file name, or relative path   | state size |
+ *  +------+-------------------------------------------+------------+
+ *
+ *  Operator directory entry:
+ *  +-------------+-------------+-----------------+--------------+
+ *  | operator ID | parallelism | max parallelism | block length |
+ *  +-------------+-------------+-----------------+--------------+
+ *
+ *  Operator block:
+ *  +-------------------+-----------------+-------------------+-----+----------------------------+
+ *  | coordinator state | subtask indexes | managed op. state | ... | result subpartition states |
+ *  +-------------------+-----------------+-------------------+-----+----------------------------+
+ * </pre>
+ *
+ * <p>Strings (directories and names of files, state names, state handle IDs and backend IDs) and
+ * file state handles are kept in dictionaries and referenced by their index. The operator blocks
+ * are laid out column by column: after the indexes of the subtasks follows one column per kind of
+ * state, holding the state handles of all subtasks. Byte stream state handles carry the state
+ * itself and are therefore stored inline.
+ */
+@Internal
+public class MetadataV4Serializer implements MetadataSerializer {
+
+	/** The metadata format version. */
+	public static final int VERSION = 4;
+
+	/** The singleton instance of the serializer. */
+	public static final MetadataV4Serializer INSTANCE = new MetadataV4Serializer();
+
+	private static final byte NULL_HANDLE = 0;
+	private static final byte FILE_STREAM_STATE_HANDLE = 2;
+	private static final byte KEY_GROUPS_HANDLE = 3;
+	private static final byte PARTITIONABLE_OPERATOR_STATE_HANDLE = 4;
+	private static final byte INCREMENTAL_KEY_GROUPS_HANDLE = 5;
+	private static final byte RELATIVE_STREAM_STATE_HANDLE = 6;
+
+	/** Reference to a null stream state handle, all other non-negative references point into the file handles. */
+	private static final int NULL_HANDLE_REFERENCE = -1;
+
+	/** Reference to a byte stream state handle, which directly follows the reference. */
+	private static final int BYTE_STREAM_STATE_HANDLE_REFERENCE = -2;
+
+	/** Singleton, not meant to be instantiated. */
+	private MetadataV4Serializer() {}
+
+	@Override
+	public int getVersion() {
+		return VERSION;
+	}
+
+	// ------------------------------------------------------------------------
+	//  (De)serialization entry points
+	// ------------------------------------------------------------------------
+
+	public static void serialize(CheckpointMetadata checkpointMetadata, DataOutputStream dos) throws IOException {
+		new MetadataWriter().write(checkpointMetadata, dos);
+	}
+
+	@Override
+	public CheckpointMetadata deserialize(DataInputStream dis, ClassLoader classLoader, String externalPointer) throws IOException {
+		return deserialize(dis, classLoader, externalPointer, operatorId -> true);
+	}
+
+	@Override
+	public CheckpointMetadata deserialize(
+			DataInputStream dis,
+			ClassLoader classLoader,
+			String externalPointer,
+			Predicate<OperatorID> operatorFilter) throws IOException {
+
+		final DeserializationContext context = externalPointer == null
+				? null : new DeserializationContext(externalPointer);
+
+		return new MetadataReader(dis, context).read(operatorFilter);
+	}
+
+	// ------------------------------------------------------------------------
+	//  serialization
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Writes the metadata of a single checkpoint. The writer collects the dictionaries while
+	 * serializing the operator blocks, and writes them ahead of the blocks.
+	 */
+	private static final class MetadataWriter {
+
+		private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+		private final Map<FileHandleKey, Integer> fileHandleReferences = new HashMap<>();
+
+		private final List<FileHandleEntry> fileHandles = new ArrayList<>();
+
+		void write(CheckpointMetadata checkpointMetadata, DataOutputStream dos) throws IOException {
+			// the operator blocks go first, because they fill the dictionaries
+			final Collection<OperatorState> operatorStates = checkpointMetadata.getOperatorStates();
+			final List<byte[]> operatorBlocks = new ArrayList<>(operatorStates.size());
+			for (OperatorState operatorState : operatorStates) {
+				final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+				final DataOutputStream out = new DataOutputStream(baos);
+				writeOperatorBlock(operatorState, out);
+				out.close();
+				operatorBlocks.add(baos.toByteArray());
+			}
+
+			// first: checkpoint ID
+			dos.writeLong(checkpointMetadata.getCheckpointId());
+
+			// second: master state
+			final Collection<MasterState> masterStates = checkpointMetadata.getMasterStates();
+			dos.writeInt(masterStates.size());
+			for (MasterState ms : masterStates) {
+				MetadataV3Serializer.INSTANCE.serializeMasterState(ms, dos);
+			}
+
+			// third: dictionaries
+			dos.writeInt(strings.size());
+			for (String string : strings.keySet()) {
+				dos.writeUTF(string);
+			}
+
+			dos.writeInt(fileHandles.size());
+			for (FileHandleEntry entry : fileHandles) {
+				dos.writeByte(entry.type);
+				dos.writeInt(entry.firstStringReference);
+				if (entry.type == FILE_STREAM_STATE_HANDLE) {
+					dos.writeInt(entry.secondStringReference);
+				}
+				dos.writeLong(entry.stateSize);
+			}
+
+			// fourth: operator directory and blocks
+			dos.writeInt(operatorStates.size());
+			int blockIndex = 0;
+			for (OperatorState operatorState : operatorStates) {
+				dos.writeLong(operatorState.getOperatorID().getLowerPart());
+				dos.writeLong(operatorState.getOperatorID().getUpperPart());
+				dos.writeInt(operatorState.getParallelism());
+				dos.writeInt(operatorState.getMaxParallelism());
+				dos.writeInt(operatorBlocks.get(blockIndex++).length);
+			}
+
+			for (byte[] operatorBlock : operatorBlocks) {
+				dos.write(operatorBlock);
+			}
+
+			dos.flush();
+		}
+
+		private void writeOperatorBlock(OperatorState operatorState, DataOutputStream out) throws IOException {
+			// Coordinator state
+			writeStreamStateHandle(operatorState.getCoordinatorState(), out);
+
+			// Sub task states, column by column
+			final Map<Integer, OperatorSubtaskState> subtaskStateMap = operatorState.getSubtaskStates();
+			out.writeInt(subtaskStateMap.size());
+			for (int subtaskIndex : subtaskStateMap.keySet()) {
+				out.writeInt(subtaskIndex);
+			}
+
+			final Collection<OperatorSubtaskState> subtaskStates = subtaskStateMap.values();
+			writeColumn(subtaskStates, OperatorSubtaskState::getManagedOperatorState, this::writeOperatorStateHandle, out);
+			writeColumn(subtaskStates, OperatorSubtaskState::getRawOperatorState, this::writeOperatorStateHandle, out);
+			writeColumn(subtaskStates, OperatorSubtaskState::getManagedKeyedState, this::writeKeyedStateHandle, out);
+			writeColumn(subtaskStates, OperatorSubtaskState::getRawKeyedState, this::writeKeyedStateHandle, out);
+			writeColumn(subtaskStates, OperatorSubtaskState::getInputChannelState, this::writeInputChannelStateHandles, out);
+			writeColumn(subtaskStates, OperatorSubtaskState::getResultSubpartitionState, this::writeResultSubpartitionStateHandles, out);
+		}
+
+		private static <T> void writeColumn(
+				Collection<OperatorSubtaskState> subtaskStates,
+				Function<OperatorSubtaskState, T> column,
+				BiConsumerWithException<T, DataOutputStream, IOException> writer,
+				DataOutputStream out) throws IOException {
+
+			for (OperatorSubtaskState subtaskState : subtaskStates) {
+				writer.accept(column.apply(subtaskState), out);
+			}
+		}
+
+		private void writeOperatorStateHandle(
+				StateObjectCollection<OperatorStateHandle> stateHandles,
+				DataOutputStream out) throws IOException {
+
+			final OperatorStateHandle stateHandle = MetadataV2V3SerializerBase.extractSingleton(stateHandles);
+			if (stateHandle == null) {
+				out.writeByte(NULL_HANDLE);
+				return;
+			}
+
+			out.writeByte(PARTITIONABLE_OPERATOR_STATE_HANDLE);
+			final Map<String, OperatorStateHandle.StateMetaInfo> partitionOffsetsMap =
+				stateHandle.getStateNameToPartitionOffsets();
+			out.writeInt(partitionOffsetsMap.size());
+			for (Map.Entry<String, OperatorStateHandle.StateMetaInfo> entry : partitionOffsetsMap.entrySet()) {
+				out.writeInt(stringReference(entry.getKey()));
+
+				final OperatorStateHandle.StateMetaInfo stateMetaInfo = entry.getValue();
+				out.writeByte(stateMetaInfo.getDistributionMode().ordinal());
+
+				final long[] offsets = stateMetaInfo.getOffsets();
+				out.writeInt(offsets.length);
+				for (long offset : offsets) {
+					out.writeLong(offset);
+				}
+			}
+			writeStreamStateHandle(stateHandle.getDelegateStateHandle(), out);
+		}
+
+		private void writeKeyedStateHandle(
+				StateObjectCollection<KeyedStateHandle> stateHandles,
+				DataOutputStream out) throws IOException {
+
+			final KeyedStateHandle stateHandle = MetadataV2V3SerializerBase.extractSingleton(stateHandles);
+			if (stateHandle == null) {
+				out.writeByte(NULL_HANDLE);
+			} else if (stateHandle instanceof KeyGroupsStateHandle) {
+				final KeyGroupsStateHandle keyGroupsStateHandle = (KeyGroupsStateHandle) stateHandle;
+
+				out.writeByte(KEY_GROUPS_HANDLE);
+				out.writeInt(keyGroupsStateHandle.getKeyGroupRange().getStartKeyGroup());
+				out.writeInt(keyGroupsStateHandle.getKeyGroupRange().getNumberOfKeyGroups());
+				for (int keyGroup : keyGroupsStateHandle.getKeyGroupRange()) {
+					out.writeLong(keyGroupsStateHandle.getOffsetForKeyGroup(keyGroup));
+				}
+				writeStreamStateHandle(keyGroupsStateHandle.getDelegateStateHandle(), out);
+			} else if (stateHandle instanceof IncrementalRemoteKeyedStateHandle) {
+				final IncrementalRemoteKeyedStateHandle incrementalKeyedStateHandle =
+					(IncrementalRemoteKeyedStateHandle) stateHandle;
+
+				out.writeByte(INCREMENTAL_KEY_GROUPS_HANDLE);
+				out.writeLong(incrementalKeyedStateHandle.getCheckpointId());
+				out.writeInt(stringReference(String.valueOf(incrementalKeyedStateHandle.getBackendIdentifier())));
+				out.writeInt(incrementalKeyedStateHandle.getKeyGroupRange().getStartKeyGroup());
+				out.writeInt(incrementalKeyedStateHandle.getKeyGroupRange().getNumberOfKeyGroups());
+
+				writeStreamStateHandle(incrementalKeyedStateHandle.getMetaStateHandle(), out);
+
+				writeStreamStateHandleMap(incrementalKeyedStateHandle.getSharedState(), out);
+				writeStreamStateHandleMap(incrementalKeyedStateHandle.getPrivateState(), out);
+			} else {
+				throw new IllegalStateException("Unknown KeyedStateHandle type: " + stateHandle.getClass());
+			}
+		}
+
+		private void writeStreamStateHandleMap(Map<StateHandleID, StreamStateHandle> map, DataOutputStream out) throws IOException {
+			out.writeInt(map.size());
+			for (Map.Entry<StateHandleID, StreamStateHandle> entry : map.entrySet()) {
+				out.writeInt(stringReference(entry.getKey().toString()));
+				writeStreamStateHandle(entry.getValue(), out);
+			}
+		}
+
+		private void writeInputChannelStateHandles(
+				@Nullable StateObjectCollection<InputChannelStateHandle> stateHandles,
+				DataOutputStream out) throws IOException {
+
+			if (stateHandles == null) {
+				out.writeInt(0);
+				return;
+			}
+
+			out.writeInt(stateHandles.size());
+			for (InputChannelStateHandle stateHandle : stateHandles) {
+				out.writeInt(stateHandle.getInfo().getGateIdx());
+				out.writeInt(stateHandle.getInfo().getInputChannelIdx());
+				writeChannelStateContent(stateHandle, out);
+			}
+		}
+
+		private void writeResultSubpartitionStateHandles(
+				@Nullable StateObjectCollection<ResultSubpartitionStateHandle> stateHandles,
+				DataOutputStream out) throws IOException {
+
+			if (stateHandles == null) {
+				out.writeInt(0);
+				return;
+			}
+
+			out.writeInt(stateHandles.size());
+			for (ResultSubpartitionStateHandle stateHandle : stateHandles) {
+				out.writeInt(stateHandle.getInfo().getPartitionIdx());
+				out.writeInt(stateHandle.getInfo().getSubPartitionIdx());
+				writeChannelStateContent(stateHandle, out);
+			}
+		}
+
+		private void writeChannelStateContent(AbstractChannelStateHandle<?> stateHandle, DataOutputStream out) throws IOException {
+			out.writeInt(stateHandle.getOffsets().size());
+			for (long offset : stateHandle.getOffsets()) {
+				out.writeLong(offset);
+			}
+			out.writeLong(stateHandle.getStateSize());
+			writeStreamStateHandle(stateHandle.getDelegate(), out);
+		}
+
+		private void writeStreamStateHandle(@Nullable StreamStateHandle stateHandle, DataOutputStream out) throws IOException {
+			if (stateHandle == null) {
+				out.writeInt(NULL_HANDLE_REFERENCE);
+			} else if (stateHandle instanceof FileStateHandle) {
+				out.writeInt(fileHandleReference((FileStateHandle) stateHandle));
+			} else if (stateHandle instanceof ByteStreamStateHandle) {
+				final ByteStreamStateHandle byteStreamStateHandle = (ByteStreamStateHandle) stateHandle;
+				out.writeInt(BYTE_STREAM_STATE_HANDLE_REFERENCE);
+				out.writeUTF(byteStreamStateHandle.getHandleName());
+				final byte[] internalData = byteStreamStateHandle.getData();
+				out.writeInt(internalData.length);
+				out.write(internalData);
+			} else {
+				throw new IOException("Unknown implementation of StreamStateHandle: " + stateHandle.getClass());
+			}
+		}
+
+		private int fileHandleReference(FileStateHandle stateHandle) {
+			final FileHandleKey key = new FileHandleKey(stateHandle);
+			final Integer reference = fileHandleReferences.get(key);
+			if (reference != null) {
+				return reference;
+			}
+
+			final FileHandleEntry entry;
+			if (stateHandle instanceof RelativeFileStateHandle) {
+				final String relativePath = ((RelativeFileStateHandle) stateHandle).getRelativePath();
+				entry = new FileHandleEntry(
+					RELATIVE_STREAM_STATE_HANDLE, stringReference(relativePath), -1, stateHandle.getStateSize());
+			} else {
+				// many files share their directory, which is therefore interned separately from the file name
+				final String path = stateHandle.getFilePath().toString();
+				final int nameStart = path.lastIndexOf('/') + 1;
+				entry = new FileHandleEntry(
+					FILE_STREAM_STATE_HANDLE,
+					stringReference(path.substring(0, nameStart)),
+					stringReference(path.substring(nameStart)),
+					stateHandle.getStateSize());
+			}
+			fileHandles.add(entry);
+			fileHandleReferences.put(key, fileHandles.size() - 1);
+			return fileHandles.size() - 1;
+		}
+
+		private int stringReference(String string) {
+			return strings.computeIfAbsent(string, ignored -> strings.size());
+		}
+	}
+
+	/**
+	 * An entry of the file handle dictionary, which holds the interned path of a file state handle
+	 * and its size.
+	 */
+	private static final class FileHandleEntry {
+
+		private final byte type;
+
+		private final int firstStringReference;
+
+		private final int secondStringReference;
+
+		private final long stateSize;
+
+		FileHandleEntry(byte type, int firstStringReference, int secondStringReference, long stateSize) {
+			this.type = type;
+			this.firstStringReference = firstStringReference;
+			this.secondStringReference = secondStringReference;
+			this.stateSize = stateSize;
+		}
+	}
+
+	/**
+	 * Key of the file handle dictionary. File state handles are only written once if they are
+	 * equal and of the same class, because the equality of {@link FileStateHandle} and
+	 * {@link RelativeFileStateHandle} is not symmetric. The state size is compared as well, so
+	 * that no handle is restored with the size of another one.
+	 */
+	private static final class FileHandleKey {
+
+		private final FileStateHandle stateHandle;
+
+		FileHandleKey(FileStateHandle stateHandle) {
+			this.stateHandle = stateHandle;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			FileStateHandle that = ((FileHandleKey) o).stateHandle;
+			return stateHandle == that || (stateHandle.getClass() == that.getClass() &&
+				stateHandle.getStateSize() == that.getStateSize() &&
+				stateHandle.equals(that));
+		}
+
+		@Override
+		public int hashCode() {
+			return stateHandle.hashCode();
+		}
+	}
+
+	// ------------------------------------------------------------------------
+	//  deserialization
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Reads the metadata of a single checkpoint. The file state handles are only created once
+	 * they are referenced by an operator that is read, and are shared between all references.
+	 */
+	private static final class MetadataReader {
+
+		private final DataInputStream dis;
+
+		@Nullable
+		private final DeserializationContext context;
+
+		private String[] strings;
+
+		private byte[] fileHandleTypes;
+
+		private int[] fileHandleFirstStringReferences;
+
+		private int[] fileHandleSecondStringReferences;
+
+		private long[] fileHandleStateSizes;
+
+		private FileStateHandle[] fileHandles;
+
+		MetadataReader(DataInputStream dis, @Nullable DeserializationContext context) {
+			this.dis = dis;
+			this.context = context;
+		}
+
+		CheckpointMetadata read(Predicate<OperatorID> operatorFilter) throws IOException {
+			// first: checkpoint ID
+			final long checkpointId = dis.readLong();
+			if (checkpointId < 0) {
+				throw new IOException("invalid checkpoint ID: " + checkpointId);
+			}
+
+			// second: master state
+			final List<MasterState> masterStates;
+			final int numMasterStates = dis.readInt();
+
+			if (numMasterStates == 0) {
+				masterStates = Collections.emptyList();
+			}
+			else if (numMasterStates > 0) {
+				masterStates = new ArrayList<>(numMasterStates);
+				for (int i = 0; i < numMasterStates; i++) {
+					masterStates.add(MetadataV3Serializer.INSTANCE.deserializeMasterState(dis));
+				}
+			}
+			else {
+				throw new IOException("invalid number of master states: " + numMasterStates);
+			}
+
+			// third: dictionaries
+			readStrings();
+			readFileHandles();
+
+			// fourth: operator directory and blocks
+			final int numOperators = readCount("operators");
+			final OperatorID[] operatorIds = new OperatorID[numOperators];
+			final int[] parallelisms = new int[numOperators];
+			final int[] maxParallelisms = new int[numOperators];
+			final int[] blockLengths = new int[numOperators];
+			for (int i = 0; i < numOperators; i++) {
+				operatorIds[i] = new OperatorID(dis.readLong(), dis.readLong());
+				parallelisms[i] = dis.readInt();
+				maxParallelisms[i] = dis.readInt();
+				blockLengths[i] = readCount("operator block bytes");
+			}
+
+			final List<OperatorState> operatorStates = new ArrayList<>(numOperators);
+			for (int i = 0; i < numOperators; i++) {
+				if (operatorFilter.test(operatorIds[i])) {
+					final byte[] operatorBlock = new byte[blockLengths[i]];
+					dis.readFully(operatorBlock);
+
+					final DataInputStream in = new DataInputStream(new ByteArrayInputStream(operatorBlock));
+					operatorStates.add(readOperatorBlock(operatorIds[i], parallelisms[i], maxParallelisms[i], in));
+
+					// check that the data is not corrupt
+					if (in.read() != -1) {
+						throw new IOException("found trailing bytes in the state of operator " + operatorIds[i]);
+					}
+				} else {
+					skipFully(blockLengths[i]);
+				}
+			}
+
+			return new CheckpointMetadata(checkpointId, operatorStates, masterStates);
+		}
+
+		private void readStrings() throws IOException {
+			strings = new String[readCount("strings")];
+			for (int i = 0; i < strings.length; i++) {
+				strings[i] = dis.readUTF();
+			}
+		}
+
+		private void readFileHandles() throws IOException {
+			final int numFileHandles = readCount("file handles");
+			fileHandleTypes = new byte[numFileHandles];
+			fileHandleFirstStringReferences = new int[numFileHandles];
+			fileHandleSecondStringReferences = new int[numFileHandles];
+			fileHandleStateSizes = new long[numFileHandles];
+			fileHandles = new FileStateHandle[numFileHandles];
+
+			for (int i = 0; i < numFileHandles; i++) {
+				final byte type = dis.readByte();
+				fileHandleTypes[i] = type;
+				fileHandleFirstStringReferences[i] = dis.readInt();
+				if (FILE_STREAM_STATE_HANDLE == type) {
+					fileHandleSecondStringReferences[i] = dis.readInt();
+				} else if (RELATIVE_STREAM_STATE_HANDLE != type) {
+					throw new IOException("Unknown implementation of file state handle, code: " + type);
+				}
+				fileHandleStateSizes[i] = dis.readLong();
+			}
+		}
+
+		private OperatorState readOperatorBlock(
+				OperatorID operatorId,
+				int parallelism,
+				int maxParallelism,
+				DataInputStream in) throws IOException {
+
+			final OperatorState operatorState = new OperatorState(operatorId, parallelism, maxParallelism);
+
+			// Coordinator state
+			final StreamStateHandle coordinatorState = readStreamStateHandle(in);
+			if (coordinatorState == null || coordinatorState instanceof ByteStreamStateHandle) {
+				operatorState.setCoordinatorState((ByteStreamStateHandle) coordinatorState);
+			} else {
+				throw new IOException("Expected a ByteStreamStateHandle but found a " + coordinatorState.getClass().getName());
+			}
+
+			// Sub task states, column by column
+			final int numSubtaskStates = in.readInt();
+			final int[] subtaskIndexes = new int[numSubtaskStates];
+			for (int i = 0; i < numSubtaskStates; i++) {
+				subtaskIndexes[i] = in.readInt();
+			}
+
+			final List<OperatorStateHandle> managedOperatorStates = readColumn(numSubtaskStates, this::readOperatorStateHandle, in);
+			final List<OperatorStateHandle> rawOperatorStates = readColumn(numSubtaskStates, this::readOperatorStateHandle, in);
+			final List<KeyedStateHandle> managedKeyedStates = readColumn(numSubtaskStates, this::readKeyedStateHandle, in);
+			final List<KeyedStateHandle> rawKeyedStates = readColumn(numSubtaskStates, this::readKeyedStateHandle, in);
+			final List<StateObjectCollection<InputChannelStateHandle>> inputChannelStates =
+				readColumn(numSubtaskStates, this::readInputChannelStateHandles, in);
+			final List<StateObjectCollection<ResultSubpartitionStateHandle>> resultSubpartitionStates =
+				readColumn(numSubtaskStates, this::readResultSubpartitionStateHandles, in);
+
+			for (int i = 0; i < numSubtaskStates; i++) {
+				operatorState.putState(subtaskIndexes[i], new OperatorSubtaskState(
+					managedOperatorStates.get(i),
+					rawOperatorStates.get(i),
+					managedKeyedStates.get(i),
+					rawKeyedStates.get(i),
+					inputChannelStates.get(i),
+					resultSubpartitionStates.get(i)));
+			}
+
+			return operatorState;
+		}
+
+		private static <T> List<T> readColumn(
+				int numSubtaskStates,
+				FunctionWithException<DataInputStream, T, IOException> reader,
+				DataInputStream in) throws IOException {
+
+			final List<T> column = new ArrayList<>(numSubtaskStates);
+			for (int i = 0; i < numSubtaskStates; i++) {
+				column.add(reader.apply(in));
+			}
+			return column;
+		}
+
+		@Nullable
+		private OperatorStateHandle readOperatorStateHandle(DataInputStream in) throws IOException {
+			final int type = in.readByte();
+			if (NULL_HANDLE == type) {
+				return null;
+			} else if (PARTITIONABLE_OPERATOR_STATE_HANDLE == type) {
+				final int mapSize = in.readInt();
+				final Map<String, OperatorStateHandle.StateMetaInfo> offsetsMap = new HashMap<>(mapSize);
+				for (int i = 0; i < mapSize; ++i) {
+					final String key = string(in.readInt());
+
+					final int modeOrdinal = in.readByte();
+					final OperatorStateHandle.Mode mode = OperatorStateHandle.Mode.values()[modeOrdinal];
+
+					final long[] offsets = new long[in.readInt()];
+					for (int j = 0; j < offsets.length; ++j) {
+						offsets[j] = in.readLong();
+					}
+
+					offsetsMap.put(key, new OperatorStateHandle.StateMetaInfo(offsets, mode));
+				}
+				final StreamStateHandle stateHandle = readStreamStateHandle(in);
+				return new OperatorStreamStateHandle(offsetsMap, stateHandle);
+			} else {
+				throw new IllegalStateException("Reading invalid OperatorStateHandle, type: " + type);
+			}
+		}
+
+		@Nullable
+		private KeyedStateHandle readKeyedStateHandle(DataInputStream in) throws IOException {
+			final int type = in.readByte();
+			if (NULL_HANDLE == type) {
+
+				return null;
+			} else if (KEY_GROUPS_HANDLE == type) {
+
+				final int startKeyGroup = in.readInt();
+				final int numKeyGroups = in.readInt();
+				final KeyGroupRange keyGroupRange =
+					KeyGroupRange.of(startKeyGroup, startKeyGroup + numKeyGroups - 1);
+				final long[] offsets = new long[numKeyGroups];
+				for (int i = 0; i < numKeyGroups; ++i) {
+					offsets[i] = in.readLong();
+				}
+				final KeyGroupRangeOffsets keyGroupRangeOffsets = new KeyGroupRangeOffsets(
+					keyGroupRange, offsets);
+				final StreamStateHandle stateHandle = readStreamStateHandle(in);
+				return new KeyGroupsStateHandle(keyGroupRangeOffsets, stateHandle);
+			} else if (INCREMENTAL_KEY_GROUPS_HANDLE == type) {
+
+				final long checkpointId = in.readLong();
+				final UUID backendId = UUID.fromString(string(in.readInt()));
+				final int startKeyGroup = in.readInt();
+				final int numKeyGroups = in.readInt();
+				final KeyGroupRange keyGroupRange =
+					KeyGroupRange.of(startKeyGroup, startKeyGroup + numKeyGroups - 1);
+
+				final StreamStateHandle metaDataStateHandle = readStreamStateHandle(in);
+				final Map<StateHandleID, StreamStateHandle> sharedStates = readStreamStateHandleMap(in);
+				final Map<StateHandleID, StreamStateHandle> privateStates = readStreamStateHandleMap(in);
+
+				return new IncrementalRemoteKeyedStateHandle(
+					backendId,
+					keyGroupRange,
+					checkpointId,
+					sharedStates,
+					privateStates,
+					metaDataStateHandle);
+			} else {
+				throw new IllegalStateException("Reading invalid KeyedStateHandle, type: " + type);
+			}
+		}
+
+		private Map<StateHandleID, StreamStateHandle> readStreamStateHandleMap(DataInputStream in) throws IOException {
+			final int size = in.readInt();
+			final Map<StateHandleID, StreamStateHandle> result = new HashMap<>(size);
+
+			for (int i = 0; i < size; ++i) {
+				final StateHandleID stateHandleID = new StateHandleID(string(in.readInt()));
+				final StreamStateHandle stateHandle = readStreamStateHandle(in);
+				result.put(stateHandleID, stateHandle);
+			}
+
+			return result;
+		}
+
+		private StateObjectCollection<InputChannelStateHandle> readInputChannelStateHandles(DataInputStream in) throws IOException {
+			final int size = in.readInt();
+			final List<InputChannelStateHandle> result = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				final InputChannelInfo info = new InputChannelInfo(in.readInt(), in.readInt());
+				final StateContentMetaInfo contentMetaInfo = readChannelStateContentMetaInfo(in);
+				result.add(new InputChannelStateHandle(info, readStreamStateHandle(in), contentMetaInfo));
+			}
+			return new StateObjectCollection<>(result);
+		}
+
+		private StateObjectCollection<ResultSubpartitionStateHandle> readResultSubpartitionStateHandles(DataInputStream in) throws IOException {
+			final int size = in.readInt();
+			final List<ResultSubpartitionStateHandle> result = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				final ResultSubpartitionInfo info = new ResultSubpartitionInfo(in.readInt(), in.readInt());
+				final StateContentMetaInfo contentMetaInfo = readChannelStateContentMetaInfo(in);
+				result.add(new ResultSubpartitionStateHandle(info, readStreamStateHandle(in), contentMetaInfo));
+			}
+			return new StateObjectCollection<>(result);
+		}
+
+		private static StateContentMetaInfo readChannelStateContentMetaInfo(DataInputStream in) throws IOException {
+			final int offsetsSize = in.readInt();
+			final List<Long> offsets = new ArrayList<>(offsetsSize);
+			for (int i = 0; i < offsetsSize; i++) {
+				offsets.add(in.readLong());
+			}
+			final long size = in.readLong();
+			return new StateContentMetaInfo(offsets, size);
+		}
+
+		@Nullable
+		private StreamStateHandle readStreamStateHandle(DataInputStream in) throws IOException {
+			final int reference = in.readInt();
+			if (NULL_HANDLE_REFERENCE == reference) {
+				return null;
+			} else if (BYTE_STREAM_STATE_HANDLE_REFERENCE == reference) {
+				final String handleName = in.readUTF();
+				final byte[] data = new byte[in.readInt()];
+				in.readFully(data);
+				return new ByteStreamStateHandle(handleName, data);
+			} else if (reference >= 0 && reference < fileHandles.length) {
+				FileStateHandle fileHandle = fileHandles[reference];
+				if (fileHandle == null) {
+					fileHandle = createFileHandle(reference);
+					fileHandles[reference] = fileHandle;
+				}
+				return fileHandle;
+			} else {
+				throw new IOException("Invalid reference to a stream state handle: " + reference);
+			}
+		}
+
+		private FileStateHandle createFileHandle(int index) throws IOException {
+			final long stateSize = fileHandleStateSizes[index];
+			if (RELATIVE_STREAM_STATE_HANDLE == fileHandleTypes[index]) {
+				if (context == null) {
+					throw new IOException("Cannot deserialize a RelativeFileStateHandle without a context to make it relative to.");
+				}
+				final String relativePath = string(fileHandleFirstStringReferences[index]);
+				final Path statePath = new Path(context.getExclusiveDirPath(), relativePath);
+				return new RelativeFileStateHandle(statePath, relativePath, stateSize);
+			} else {
+				final String directory = string(fileHandleFirstStringReferences[index]);
+				final String fileName = string(fileHandleSecondStringReferences[index]);
+				return new FileStateHandle(new Path(directory + fileName), stateSize);
+			}
+		}
+
+		private String string(int reference) throws IOException {
+			if (reference >= 0 && reference < strings.length) {
+				return strings[reference];
+			} else {
+				throw new IOException("Invalid reference to a string: " + reference);
+			}
+		}
+
+		private int readCount(String description) throws IOException {
+			final int count = dis.readInt();
+			if (count < 0) {
+				throw new IOException("invalid number of " + description + ": " + count);
+			}
+			return count;
+		}
+
+		private void skipFully(int numBytes) throws IOException {
+			int remaining = numBytes;
+			while (remaining > 0) {
+				final int skipped = dis.skipBytes(remaining);
+				if (skipped > 0) {
+					remaining -= skipped;
+				} else if (dis.read() != -1) {
+					remaining--;
+				} else {
+					throw new EOFException("Unexpected end of checkpoint metadata, " + remaining + " bytes missing.");
+				}
+			}
+		}
+	}
+}
@@ -18,14 +18,26 @@
 
 package org.apache.flink.runtime.deployment;
 
+import org.apache.flink.api.common.JobID;
+import org.apache.flink.runtime.blob.PermanentBlobKey;
+import org.apache.flink.runtime.blob.PermanentBlobService;
+import org.apache.flink.runtime.deployment.TaskDeploymentDescriptor.MaybeOffloaded;
+import org.apache.flink.runtime.deployment.TaskDeploymentDescriptor.NonOffloaded;
+import org.apache.flink.runtime.deployment.TaskDeploymentDescriptor.Offloaded;
 import org.apache.flink.runtime.io.network.partition.ResultPartitionType;
 import org.apache.flink.runtime.io.network.partition.consumer.SingleInputGate;
 import org.apache.flink.runtime.jobgraph.DistributionPattern;
 import org.apache.flink.runtime.jobgraph.IntermediateDataSetID;
 import org.apache.flink.runtime.shuffle.ShuffleDescriptor;
+import org.apache.flink.util.FileUtils;
+import org.apache.flink.util.Preconditions;
+import org.apache.flink.util.SerializedValue;
 
 import javax.annotation.Nonnegative;
+import javax.annotation.Nullable;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Arrays;
 
@@ -59,8 +71,20 @@ public class InputGateDeploymentDescriptor implements Serializable {
 	@Nonnegative
 	private final int consumedSubpartitionIndex;
 
-	/** An input channel for each consumed subpartition. */
-	private final ShuffleDescriptor[] inputChannels;
+	/**
+	 * An input channel for each consumed subpartition, or <tt>null</tt> if the input channels
+	 * have not been deserialized yet.
+	 */
+	@Nullable
+	private ShuffleDescriptor[] inputChannels;
+
+	/**
+	 * The serialized input channels, or <tt>null</tt> if they have been deserialized. The serialized
+	 * value may be shared with the input gates of other consumers of the same partitions, and may be
+	 * offloaded to the {@link org.apache.flink.runtime.blob.BlobServer}.
+	 */
+	@Nullable
+	private MaybeOffloaded<ShuffleDescriptor[]> serializedInputChannels;
 
 	public InputGateDeploymentDescriptor(
 			IntermediateDataSetID consumedResultId,
@@ -71,6 +95,19 @@ public class InputGateDeploymentDescriptor implements Serializable {
 		this.consumedPartitionType = checkNotNull(consumedPartitionType);
 		this.consumedSubpartitionIndex = consumedSubpartitionIndex;
 		this.inputChannels = checkNotNull(inputChannels);
+		this.serializedInputChannels = null;
+	}
+
+	public InputGateDeploymentDescriptor(
+			IntermediateDataSetID consumedResultId,
+			ResultPartitionType consumedPartitionType,
+			@Nonnegative int consumedSubpartitionIndex,
+			MaybeOffloaded<ShuffleDescriptor[]> serializedInputChannels) {
+		this.consumedResultId = checkNotNull(consumedResultId);
+		this.consumedPartitionType = checkNotNull(consumedPartitionType);
+		this.consumedSubpartitionIndex = consumedSubpartitionIndex;
+		this.inputChannels = null;
+		this.serializedInputChannels = checkNotNull(serializedInputChannels);
 	}
 
 	public IntermediateDataSetID getConsumedResultId() {
@@ -91,15 +128,74 @@ public class InputGateDeploymentDescriptor implements Serializable {
 		return consumedSubpartitionIndex;
 	}
 
+	/**
+	 * Returns the shuffle descriptors of the input channels, deserializing them if necessary.
+	 *
+	 * @return shuffle descriptors (may throw {@link IllegalStateException} if {@link
+	 * #loadBigData(PermanentBlobService, JobID)} is not called beforehand)
+	 * @throws IllegalStateException If the input channels are offloaded to BLOB store.
+	 */
 	public ShuffleDescriptor[] getShuffleDescriptors() {
+		if (inputChannels == null) {
+			if (!(serializedInputChannels instanceof NonOffloaded)) {
+				throw new IllegalStateException(
+					"Trying to work with offloaded serialized input channels.");
+			}
+
+			try {
+				deserializeInputChannels();
+			} catch (IOException | ClassNotFoundException e) {
+				throw new IllegalStateException("Could not deserialize the input channels.", e);
+			}
+		}
 		return inputChannels;
 	}
 
+	/**
+	 * Loads the offloaded input channels from the BLOB store and deserializes them.
+	 *
+	 * @param blobService
+	 * 		service to use to retrieve the offloaded input channels, may be <tt>null</tt> if they
+	 * 		are not offloaded
+	 * @param jobId
+	 * 		ID of the job the offloaded input channels belong to
+	 */
+	public void loadBigData(@Nullable PermanentBlobService blobService, JobID jobId)
+			throws IOException, ClassNotFoundException {
+
+		if (serializedInputChannels instanceof Offloaded) {
+			PermanentBlobKey inputChannelsKey =
+				((Offloaded<ShuffleDescriptor[]>) serializedInputChannels).serializedValueKey;
+
+			Preconditions.checkNotNull(blobService);
+
+			final File dataFile = blobService.getFile(jobId, inputChannelsKey);
+			// NOTE: Do not delete the input channels BLOB since it is shared with other consumers
+			//       and may be needed again during recovery.
+			//       (it is deleted automatically on the BLOB server and cache when the job
+			//       enters a terminal state)
+			SerializedValue<ShuffleDescriptor[]> serializedValue =
+				SerializedValue.fromBytes(FileUtils.readAllBytes(dataFile.toPath()));
+			serializedInputChannels = new NonOffloaded<>(serializedValue);
+		}
+
+		if (inputChannels == null) {
+			deserializeInputChannels();
+		}
+	}
+
+	private void deserializeInputChannels() throws IOException, ClassNotFoundException {
+		NonOffloaded<ShuffleDescriptor[]> nonOffloaded =
+			(NonOffloaded<ShuffleDescriptor[]>) serializedInputChannels;
+		inputChannels = nonOffloaded.serializedValue.deserializeValue(getClass().getClassLoader());
+		serializedInputChannels = null;
+	}
+
 	@Override
 	public String toString() {
 		return String.format("InputGateDeploymentDescriptor [result id: %s, " +
 						"consumed subpartition index: %d, input channels: %s]",
 				consumedResultId.toString(), consumedSubpartitionIndex,
-				Arrays.toString(inputChannels));
+				inputChannels != null ? Arrays.toString(inputChannels) : "(serialized)");
 	}
 }
@@ -20,14 +20,15 @@ package org.apache.flink.runtime.deployment;
 
 import org.apache.flink.annotation.VisibleForTesting;
 import org.apache.flink.api.common.JobID;
+import org.apache.flink.runtime.blob.BlobWriter;
 import org.apache.flink.runtime.blob.PermanentBlobKey;
 import org.apache.flink.runtime.checkpoint.JobManagerTaskRestore;
 import org.apache.flink.runtime.clusterframework.types.AllocationID;
 import org.apache.flink.runtime.deployment.TaskDeploymentDescriptor.MaybeOffloaded;
 import org.apache.flink.runtime.execution.ExecutionState;
+import org.apache.flink.runtime.executiongraph.ConsumedPartitionGroup;
 import org.apache.flink.runtime.executiongraph.Execution;
 import org.apache.flink.runtime.executiongraph.ExecutionAttemptID;
-import org.apache.flink.runtime.executiongraph.ExecutionEdge;
 import org.apache.flink.runtime.executiongraph.ExecutionGraph;
 import org.apache.flink.runtime.executiongraph.ExecutionVertex;
 import org.apache.flink.runtime.executiongraph.IntermediateResult;
@@ -61,7 +62,8 @@ public class TaskDeploymentDescriptorFactory {
 	private final JobID jobID;
 	private final boolean allowUnknownPartitions;
 	private final int subtaskIndex;
-	private final ExecutionEdge[][] inputEdges;
+	private final List<ConsumedPartitionGroup> consumedPartitionGroups;
+	private final BlobWriter blobWriter;
 
 	private TaskDeploymentDescriptorFactory(
 			ExecutionAttemptID executionId,
@@ -71,7 +73,8 @@ public class TaskDeploymentDescriptorFactory {
 			JobID jobID,
 			boolean allowUnknownPartitions,
 			int subtaskIndex,
-			ExecutionEdge[][] inputEdges) {
+			List<ConsumedPartitionGroup> consumedPartitionGroups,
+			BlobWriter blobWriter) {
 		this.executionId = executionId;
 		this.attemptNumber = attemptNumber;
 		this.serializedJobInformation = serializedJobInformation;
@@ -79,14 +82,15 @@ public class TaskDeploymentDescriptorFactory {
 		this.jobID = jobID;
 		this.allowUnknownPartitions = allowUnknownPartitions;
 		this.subtaskIndex = subtaskIndex;
-		this.inputEdges = inputEdges;
+		this.consumedPartitionGroups = consumedPartitionGroups;
+		this.blobWriter = blobWriter;
 	}
 
 	public TaskDeploymentDescriptor createDeploymentDescriptor(
 			AllocationID allocationID,
 			int targetSlotNumber,
 			@Nullable JobManagerTaskRestore taskRestore,
-			Collection<ResultPartitionDeploymentDescriptor> producedPartitions) {
+			Collection<ResultPartitionDeploymentDescriptor> producedPartitions) throws IOException {
 		return new TaskDeploymentDescriptor(
 			jobID,
 			serializedJobInformation,
@@ -101,41 +105,85 @@ public class TaskDeploymentDescriptorFactory {
 			createInputGateDeploymentDescriptors());
 	}
 
-	private List<InputGateDeploymentDescriptor> createInputGateDeploymentDescriptors() {
-		List<InputGateDeploymentDescriptor> inputGates = new ArrayList<>(inputEdges.length);
+	private List<InputGateDeploymentDescriptor> createInputGateDeploymentDescriptors() throws IOException {
+		List<InputGateDeploymentDescriptor> inputGates = new ArrayList<>(consumedPartitionGroups.size());
 
-		for (ExecutionEdge[] edges : inputEdges) {
+		for (ConsumedPartitionGroup consumedPartitionGroup : consumedPartitionGroups) {
 			// If the produced partition has multiple consumers registered, we
 			// need to request the one matching our sub task index.
 			// TODO Refactor after removing the consumers from the intermediate result partitions
-			int numConsumerEdges = edges[0].getSource().getConsumers().get(0).size();
+			int numConsumers = consumedPartitionGroup.getFirst().getConsumerVertexGroups().get(0).size();
 
-			int queueToRequest = subtaskIndex % numConsumerEdges;
+			int queueToRequest = subtaskIndex % numConsumers;
 
-			IntermediateResult consumedIntermediateResult = edges[0].getSource().getIntermediateResult();
+			IntermediateResult consumedIntermediateResult = consumedPartitionGroup.getIntermediateResult();
 			IntermediateDataSetID resultId = consumedIntermediateResult.getId();
 			ResultPartitionType partitionType = consumedIntermediateResult.getResultType();
 
-			inputGates.add(new InputGateDeploymentDescriptor(
-				resultId,
-				partitionType,
-				queueToRequest,
-				getConsumedPartitionShuffleDescriptors(edges)));
+			MaybeOffloaded<ShuffleDescriptor[]> cachedShuffleDescriptors =
+				consumedIntermediateResult.getCachedShuffleDescriptors(consumedPartitionGroup);
+			if (cachedShuffleDescriptors != null) {
+				inputGates.add(new InputGateDeploymentDescriptor(
+					resultId,
+					partitionType,
+					queueToRequest,
+					cachedShuffleDescriptors));
+				continue;
+			}
+
+			ShuffleDescriptor[] shuffleDescriptors = getConsumedPartitionShuffleDescriptors(consumedPartitionGroup);
+			if (numConsumers > 1 && areAllShuffleDescriptorsKnown(shuffleDescriptors)) {
+				// the shuffle descriptors do not change until one of the consumed partitions is reset,
+				// so they are serialized (and offloaded if large) only once for all consumers
+				MaybeOffloaded<ShuffleDescriptor[]> serializedShuffleDescriptors =
+					serializeAndTryOffloadShuffleDescriptors(shuffleDescriptors);
+				consumedIntermediateResult.cacheShuffleDescriptors(consumedPartitionGroup, serializedShuffleDescriptors);
+
+				inputGates.add(new InputGateDeploymentDescriptor(
+					resultId,
+					partitionType,
+					queueToRequest,
+					serializedShuffleDescriptors));
+			} else {
+				inputGates.add(new InputGateDeploymentDescriptor(
+					resultId,
+					partitionType,
+					queueToRequest,
+					shuffleDescriptors));
+			}
 		}
 
 		return inputGates;
 	}
 
-	private ShuffleDescriptor[] getConsumedPartitionShuffleDescriptors(ExecutionEdge[] edges) {
-		ShuffleDescriptor[] shuffleDescriptors = new ShuffleDescriptor[edges.length];
-		// Each edge is connected to a different result partition
-		for (int i = 0; i < edges.length; i++) {
-			shuffleDescriptors[i] =
-				getConsumedPartitionShuffleDescriptor(edges[i], allowUnknownPartitions);
+	private ShuffleDescriptor[] getConsumedPartitionShuffleDescriptors(ConsumedPartitionGroup consumedPartitionGroup) {
+		ShuffleDescriptor[] shuffleDescriptors = new ShuffleDescriptor[consumedPartitionGroup.size()];
+		int i = 0;
+		for (IntermediateResultPartition consumedPartition : consumedPartitionGroup) {
+			shuffleDescriptors[i++] =
+				getConsumedPartitionShuffleDescriptor(consumedPartition, allowUnknownPartitions);
 		}
 		return shuffleDescriptors;
 	}
 
+	private static boolean areAllShuffleDescriptorsKnown(ShuffleDescriptor[] shuffleDescriptors) {
+		for (ShuffleDescriptor shuffleDescriptor : shuffleDescriptors) {
+			if (shuffleDescriptor.isUnknown()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private MaybeOffloaded<ShuffleDescriptor[]> serializeAndTryOffloadShuffleDescriptors(
+			ShuffleDescriptor[] shuffleDescriptors) throws IOException {
+		Either<SerializedValue<ShuffleDescriptor[]>, PermanentBlobKey> shuffleDescriptorsOrBlobKey =
+			BlobWriter.serializeAndTryOffload(shuffleDescriptors, jobID, blobWriter);
+		return shuffleDescriptorsOrBlobKey.isLeft() ?
+			new TaskDeploymentDescriptor.NonOffloaded<>(shuffleDescriptorsOrBlobKey.left()) :
+			new TaskDeploymentDescriptor.Offloaded<>(shuffleDescriptorsOrBlobKey.right());
+	}
+
 	public static TaskDeploymentDescriptorFactory fromExecutionVertex(
 			ExecutionVertex executionVertex,
 			int attemptNumber) throws IOException {
@@ -148,7 +196,8 @@ public class TaskDeploymentDescriptorFactory {
 			executionGraph.getJobID(),
 			executionGraph.getScheduleMode().allowLazyDeployment(),
 			executionVertex.getParallelSubtaskIndex(),
-			executionVertex.getAllInputEdges());
+			executionVertex.getAllConsumedPartitionGroups(),
+			executionGraph.getBlobWriter());
 	}
 
 	private static MaybeOffloaded<JobInformation> getSerializedJobInformation(ExecutionGraph executionGraph) {
@@ -170,9 +219,8 @@ public class TaskDeploymentDescriptorFactory {
 	}
 
 	public static ShuffleDescriptor getConsumedPartitionShuffleDescriptor(
-			ExecutionEdge edge,
+			IntermediateResultPartition consumedPartition,
 			boolean allowUnknownPartitions) {
-		IntermediateResultPartition consumedPartition = edge.getSource();
 		Execution producer = consumedPartition.getProducer().getCurrentExecutionAttempt();
 
 		ExecutionState producerState = producer.getState();
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.executiongraph;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * The partitions of an {@link IntermediateResult} which are consumed through one input of an
+ * {@link ExecutionVertex}.
+ *
+ * <p>For an {@link org.apache.flink.runtime.jobgraph.DistributionPattern#ALL_TO_ALL ALL_TO_ALL} edge, a single
+ * group containing all partitions of the result is shared by all consumer vertices, so that the memory of the
+ * connections grows linearly with the parallelism instead of quadratically.
+ */
+public class ConsumedPartitionGroup implements Iterable<IntermediateResultPartition> {
+
+	private final List<IntermediateResultPartition> partitions;
+
+	public ConsumedPartitionGroup(List<IntermediateResultPartition> partitions) {
+		checkArgument(!checkNotNull(partitions).isEmpty(), "A consumed partition group must not be empty.");
+		this.partitions = Collections.unmodifiableList(partitions);
+	}
+
+	public List<IntermediateResultPartition> getPartitions() {
+		return partitions;
+	}
+
+	public IntermediateResultPartition getFirst() {
+		return partitions.get(0);
+	}
+
+	public IntermediateResult getIntermediateResult() {
+		return getFirst().getIntermediateResult();
+	}
+
+	public int size() {
+		return partitions.size();
+	}
+
+	@Override
+	public Iterator<IntermediateResultPartition> iterator() {
+		return partitions.iterator();
+	}
+
+	@Override
+	public String toString() {
+		return "ConsumedPartitionGroup [" + getIntermediateResult() + ", " + partitions.size() + " partitions]";
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.executiongraph;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * The {@link ExecutionVertex ExecutionVertices} which consume an {@link IntermediateResultPartition}.
+ *
+ * <p>For an {@link org.apache.flink.runtime.jobgraph.DistributionPattern#ALL_TO_ALL ALL_TO_ALL} edge, a single
+ * group containing all consumer vertices is shared by all partitions of the consumed result.
+ */
+public class ConsumerVertexGroup implements Iterable<ExecutionVertex> {
+
+	/** Group of a partition whose consumer is registered but not connected. */
+	static final ConsumerVertexGroup EMPTY = new ConsumerVertexGroup(Collections.emptyList());
+
+	private final List<ExecutionVertex> vertices;
+
+	public ConsumerVertexGroup(List<ExecutionVertex> vertices) {
+		this.vertices = Collections.unmodifiableList(checkNotNull(vertices));
+	}
+
+	public List<ExecutionVertex> getVertices() {
+		return vertices;
+	}
+
+	public int size() {
+		return vertices.size();
+	}
+
+	public boolean isEmpty() {
+		return vertices.isEmpty();
+	}
+
+	@Override
+	public Iterator<ExecutionVertex> iterator() {
+		return vertices.iterator();
+	}
+
+	@Override
+	public String toString() {
+		return "ConsumerVertexGroup [" + vertices.size() + " vertices]";
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.executiongraph;
+
+import org.apache.flink.runtime.jobgraph.DistributionPattern;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Utilities to connect the {@link ExecutionVertex ExecutionVertices} of an {@link ExecutionJobVertex} to the
+ * partitions of a consumed {@link IntermediateResult}.
+ *
+ * <p>Instead of one edge object per pair of producer and consumer, the connections are kept as
+ * {@link ConsumedPartitionGroup ConsumedPartitionGroups} and {@link ConsumerVertexGroup ConsumerVertexGroups}.
+ * Vertices (respectively partitions) with the same connections share the same group instance.
+ */
+final class EdgeManagerBuildUtil {
+
+	private EdgeManagerBuildUtil() {
+	}
+
+	/**
+	 * Connects all vertices of the given job vertex to the partitions of the given result.
+	 *
+	 * @param vertex the consuming job vertex
+	 * @param result the consumed intermediate result
+	 * @param inputNumber the index of the input of the job vertex which consumes the result
+	 * @param consumerNumber the index of the consumer as registered at the result
+	 * @param distributionPattern the distribution pattern of the job edge
+	 */
+	static void connectVertexToResult(
+			ExecutionJobVertex vertex,
+			IntermediateResult result,
+			int inputNumber,
+			int consumerNumber,
+			DistributionPattern distributionPattern) {
+
+		switch (distributionPattern) {
+			case POINTWISE:
+				connectPointwise(vertex.getTaskVertices(), result.getPartitions(), inputNumber, consumerNumber);
+				break;
+
+			case ALL_TO_ALL:
+				connectAllToAll(vertex.getTaskVertices(), result.getPartitions(), inputNumber, consumerNumber);
+				break;
+
+			default:
+				throw new RuntimeException("Unrecognized distribution pattern.");
+		}
+	}
+
+	private static void connectAllToAll(
+			ExecutionVertex[] taskVertices,
+			IntermediateResultPartition[] partitions,
+			int inputNumber,
+			int consumerNumber) {
+
+		ConsumedPartitionGroup consumedPartitions = new ConsumedPartitionGroup(Arrays.asList(partitions));
+		for (ExecutionVertex ev : taskVertices) {
+			ev.setConsumedPartitionGroup(inputNumber, consumedPartitions);
+		}
+
+		ConsumerVertexGroup consumerVertices = new ConsumerVertexGroup(Arrays.asList(taskVertices));
+		for (IntermediateResultPartition partition : partitions) {
+			partition.setConsumerVertexGroup(consumerNumber, consumerVertices);
+		}
+	}
+
+	private static void connectPointwise(
+			ExecutionVertex[] taskVertices,
+			IntermediateResultPartition[] partitions,
+			int inputNumber,
+			int consumerNumber) {
+
+		final int numSources = partitions.length;
+		final int parallelism = taskVertices.length;
+
+		// simple case same number of sources as targets
+		if (numSources == parallelism) {
+			for (int i = 0; i < parallelism; i++) {
+				connect(
+					Collections.singletonList(taskVertices[i]),
+					Collections.singletonList(partitions[i]),
+					inputNumber,
+					consumerNumber);
+			}
+		}
+		else if (numSources < parallelism) {
+			// every target consumes one source, so the targets of a source share their group
+			List<ExecutionVertex> consumers = new ArrayList<>();
+			int currentSource = 0;
+
+			for (int subTaskIndex = 0; subTaskIndex < parallelism; subTaskIndex++) {
+				int sourcePartition;
+
+				// check if the pattern is regular or irregular
+				// we use int arithmetics for regular, and floating point with rounding for irregular
+				if (parallelism % numSources == 0) {
+					// same number of targets per source
+					int factor = parallelism / numSources;
+					sourcePartition = subTaskIndex / factor;
+				}
+				else {
+					// different number of targets per source
+					float factor = ((float) parallelism) / numSources;
+					sourcePartition = (int) (subTaskIndex / factor);
+				}
+
+				if (sourcePartition != currentSource && !consumers.isEmpty()) {
+					connect(consumers, Collections.singletonList(partitions[currentSource]), inputNumber, consumerNumber);
+					consumers = new ArrayList<>();
+				}
+				currentSource = sourcePartition;
+				consumers.add(taskVertices[subTaskIndex]);
+			}
+
+			connect(consumers, Collections.singletonList(partitions[currentSource]), inputNumber, consumerNumber);
+		}
+		else {
+			for (int subTaskIndex = 0; subTaskIndex < parallelism; subTaskIndex++) {
+				int start;
+				int end;
+
+				if (numSources % parallelism == 0) {
+					// same number of sources per target
+					int factor = numSources / parallelism;
+					start = subTaskIndex * factor;
+					end = start + factor;
+				}
+				else {
+					float factor = ((float) numSources) / parallelism;
+
+					start = (int) (subTaskIndex * factor);
+					end = (subTaskIndex == parallelism - 1) ?
+							numSources :
+							(int) ((subTaskIndex + 1) * factor);
+				}
+
+				connect(
+					Collections.singletonList(taskVertices[subTaskIndex]),
+					Arrays.asList(partitions).subList(start, end),
+					inputNumber,
+					consumerNumber);
+			}
+		}
+	}
+
+	private static void connect(
+			List<ExecutionVertex> consumers,
+			List<IntermediateResultPartition> consumedPartitions,
+			int inputNumber,
+			int consumerNumber) {
+
+		ConsumedPartitionGroup consumedPartitionGroup = new ConsumedPartitionGroup(consumedPartitions);
+		for (ExecutionVertex ev : consumers) {
+			ev.setConsumedPartitionGroup(inputNumber, consumedPartitionGroup);
+		}
+
+		ConsumerVertexGroup consumerVertexGroup = new ConsumerVertexGroup(consumers);
+		for (IntermediateResultPartition partition : consumedPartitions) {
+			partition.setConsumerVertexGroup(consumerNumber, consumerVertexGroup);
+		}
+	}
+}
@@ -673,10 +673,10 @@ public class Execution implements AccessExecution, Archiveable<ArchivedExecution
 	}
 
 	private static int getPartitionMaxParallelism(IntermediateResultPartition partition) {
-		final List<List<ExecutionEdge>> consumers = partition.getConsumers();
-		Preconditions.checkArgument(!consumers.isEmpty(), "Currently there has to be exactly one consumer in real jobs");
-		List<ExecutionEdge> consumer = consumers.get(0);
-		ExecutionJobVertex consumerVertex = consumer.get(0).getTarget().getJobVertex();
+		final List<ConsumerVertexGroup> consumerVertexGroups = partition.getConsumerVertexGroups();
+		Preconditions.checkArgument(!consumerVertexGroups.isEmpty(), "Currently there has to be exactly one consumer in real jobs");
+		ConsumerVertexGroup consumerVertexGroup = consumerVertexGroups.get(0);
+		ExecutionJobVertex consumerVertex = consumerVertexGroup.getVertices().get(0).getJobVertex();
 		int maxParallelism = consumerVertex.getMaxParallelism();
 		return maxParallelism;
 	}
@@ -882,17 +882,19 @@ public class Execution implements AccessExecution, Archiveable<ArchivedExecution
 		}
 	}
 
-	void scheduleOrUpdateConsumers(List<List<ExecutionEdge>> allConsumers) {
+	void scheduleOrUpdateConsumers(IntermediateResultPartition partition) {
 		assertRunningInJobMasterMainThread();
 
 		final HashSet<ExecutionVertex> consumerDeduplicator = new HashSet<>();
-		scheduleOrUpdateConsumers(allConsumers, consumerDeduplicator);
+		scheduleOrUpdateConsumers(partition, consumerDeduplicator);
 	}
 
 	private void scheduleOrUpdateConsumers(
-			final List<List<ExecutionEdge>> allConsumers,
+			final IntermediateResultPartition partition,
 			final HashSet<ExecutionVertex> consumerDeduplicator) {
 
+		final List<ConsumerVertexGroup> allConsumers = partition.getConsumerVertexGroups();
+
 		if (allConsumers.size() == 0) {
 			return;
 		}
@@ -901,8 +903,10 @@ public class Execution implements AccessExecution, Archiveable<ArchivedExecution
 			return;
 		}
 
-		for (ExecutionEdge edge : allConsumers.get(0)) {
-			final ExecutionVertex consumerVertex = edge.getTarget();
+		// the partition info is the same for all consumers, it is only created once it is needed
+		PartitionInfo partitionInfo = null;
+
+		for (ExecutionVertex consumerVertex : allConsumers.get(0)) {
 			final Execution consumer = consumerVertex.getCurrentExecutionAttempt();
 			final ExecutionState consumerState = consumer.getState();
 
@@ -928,7 +932,9 @@ public class Execution implements AccessExecution, Archiveable<ArchivedExecution
 			// sent after switching to running
 			// ----------------------------------------------------------------
 			else if (consumerState == DEPLOYING || consumerState == RUNNING) {
-				final PartitionInfo partitionInfo = createPartitionInfo(edge);
+				if (partitionInfo == null) {
+					partitionInfo = createPartitionInfo(partition);
+				}
 
 				if (consumerState == DEPLOYING) {
 					consumerVertex.cachePartitionInfo(partitionInfo);
@@ -939,9 +945,9 @@ public class Execution implements AccessExecution, Archiveable<ArchivedExecution
 		}
 	}
 
-	private static PartitionInfo createPartitionInfo(ExecutionEdge executionEdge) {
-		IntermediateDataSetID intermediateDataSetID = executionEdge.getSource().getIntermediateResult().getId();
-		ShuffleDescriptor shuffleDescriptor = getConsumedPartitionShuffleDescriptor(executionEdge, false);
+	private static PartitionInfo createPartitionInfo(IntermediateResultPartition consumedPartition) {
+		IntermediateDataSetID intermediateDataSetID = consumedPartition.getIntermediateResult().getId();
+		ShuffleDescriptor shuffleDescriptor = getConsumedPartitionShuffleDescriptor(consumedPartition, false);
 		return new PartitionInfo(intermediateDataSetID, shuffleDescriptor);
 	}
 
@@ -1162,7 +1168,7 @@ public class Execution implements AccessExecution, Archiveable<ArchivedExecution
 					finishedPartition.getIntermediateResult().getPartitions();
 
 			for (IntermediateResultPartition partition : allPartitionsOfNewlyFinishedResults) {
-				scheduleOrUpdateConsumers(partition.getConsumers(), consumerDeduplicator);
+				scheduleOrUpdateConsumers(partition, consumerDeduplicator);
 			}
 		}
 	}
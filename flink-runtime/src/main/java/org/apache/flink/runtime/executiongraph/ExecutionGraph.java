@@ -453,6 +453,7 @@ public class ExecutionGraph implements AccessExecutionGraph {
 			CheckpointIDCounter checkpointIDCounter,
 			CompletedCheckpointStore checkpointStore,
 			StateBackend checkpointStateBackend,
+			int checkpointMetadataVersion,
 			CheckpointStatsTracker statsTracker) {
 
 		checkState(state == JobStatus.CREATED, "Job must be in CREATED state");
@@ -501,7 +502,8 @@ public class ExecutionGraph implements AccessExecutionGraph {
 			ioExecutor,
 			new ScheduledExecutorServiceAdapter(checkpointCoordinatorTimer),
 			SharedStateRegistry.DEFAULT_FACTORY,
-			failureManager);
+			failureManager,
+			checkpointMetadataVersion);
 
 		// register the master hooks on the checkpoint coordinator
 		for (MasterTriggerRestoreHook<?> hook : masterHooks) {
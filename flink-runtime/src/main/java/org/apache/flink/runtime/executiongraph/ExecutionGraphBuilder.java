@@ -32,6 +32,7 @@ import org.apache.flink.runtime.blob.BlobWriter;
 import org.apache.flink.runtime.checkpoint.CheckpointIDCounter;
 import org.apache.flink.runtime.checkpoint.CheckpointRecoveryFactory;
 import org.apache.flink.runtime.checkpoint.CheckpointStatsTracker;
+import org.apache.flink.runtime.checkpoint.Checkpoints;
 import org.apache.flink.runtime.checkpoint.CompletedCheckpointStore;
 import org.apache.flink.runtime.checkpoint.MasterTriggerRestoreHook;
 import org.apache.flink.runtime.checkpoint.hooks.MasterHooks;
@@ -275,6 +276,16 @@ public class ExecutionGraphBuilder {
 				throw new JobExecutionException(jobId, "Failed to initialize high-availability checkpoint handler", e);
 			}
 
+			int metadataVersion = jobManagerConfig.getInteger(CheckpointingOptions.METADATA_VERSION);
+			if (!Checkpoints.isSupportedMetadataVersionForWriting(metadataVersion)) {
+				log.warn("The setting for '{} : {}' is invalid. Using default value of {}",
+						CheckpointingOptions.METADATA_VERSION.key(),
+						metadataVersion,
+						CheckpointingOptions.METADATA_VERSION.defaultValue());
+
+				metadataVersion = CheckpointingOptions.METADATA_VERSION.defaultValue();
+			}
+
 			// Maximum number of remembered checkpoints
 			int historySize = jobManagerConfig.getInteger(WebOptions.CHECKPOINTS_HISTORY_SIZE);
 
@@ -352,6 +363,7 @@ public class ExecutionGraphBuilder {
 				checkpointIdCounter,
 				completedCheckpoints,
 				rootBackend,
+				metadataVersion,
 				checkpointStatsTracker);
 		}
 
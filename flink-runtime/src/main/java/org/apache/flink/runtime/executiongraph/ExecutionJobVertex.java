@@ -449,10 +449,7 @@ public class ExecutionJobVertex implements AccessExecutionJobVertex, Archiveable
 
 			int consumerIndex = ires.registerConsumer();
 
-			for (int i = 0; i < parallelism; i++) {
-				ExecutionVertex ev = taskVertices[i];
-				ev.connectSource(num, ires, edge, consumerIndex);
-			}
+			EdgeManagerBuildUtil.connectVertexToResult(this, ires, num, consumerIndex, edge.getDistributionPattern());
 		}
 	}
 
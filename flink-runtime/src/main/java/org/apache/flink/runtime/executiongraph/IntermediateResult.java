@@ -19,11 +19,22 @@
 package org.apache.flink.runtime.executiongraph;
 
 import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.runtime.blob.PermanentBlobKey;
+import org.apache.flink.runtime.deployment.TaskDeploymentDescriptor.MaybeOffloaded;
+import org.apache.flink.runtime.deployment.TaskDeploymentDescriptor.Offloaded;
 import org.apache.flink.runtime.io.network.partition.ResultPartitionType;
 import org.apache.flink.runtime.jobgraph.IntermediateDataSetID;
 import org.apache.flink.runtime.jobgraph.IntermediateResultPartitionID;
+import org.apache.flink.runtime.shuffle.ShuffleDescriptor;
 
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.apache.flink.util.Preconditions.checkArgument;
@@ -31,6 +42,8 @@ import static org.apache.flink.util.Preconditions.checkNotNull;
 
 public class IntermediateResult {
 
+	private static final Logger LOG = ExecutionGraph.LOG;
+
 	private final IntermediateDataSetID id;
 
 	private final ExecutionJobVertex producer;
@@ -57,6 +70,21 @@ public class IntermediateResult {
 
 	private final ResultPartitionType resultType;
 
+	/**
+	 * The serialized shuffle descriptors of the consumed partition groups of this result, which are
+	 * shared by the deployment descriptors of all consumers of a group. They are invalidated when a
+	 * partition of this result is reset for a new execution.
+	 */
+	private final Map<ConsumedPartitionGroup, MaybeOffloaded<ShuffleDescriptor[]>> shuffleDescriptorCache = new HashMap<>();
+
+	/**
+	 * The BLOBs of the offloaded shuffle descriptors of the previous cache generation. Consumers
+	 * whose deployment is still in progress may not have fetched them yet, so they are only deleted
+	 * when the cache is invalidated the next time, or together with the other BLOBs of the job when
+	 * it terminates.
+	 */
+	private final List<PermanentBlobKey> retiredShuffleDescriptorBlobKeys = new ArrayList<>();
+
 	public IntermediateResult(
 			IntermediateDataSetID id,
 			ExecutionJobVertex producer,
@@ -155,6 +183,46 @@ public class IntermediateResult {
 		return connectionIndex;
 	}
 
+	@Nullable
+	public MaybeOffloaded<ShuffleDescriptor[]> getCachedShuffleDescriptors(ConsumedPartitionGroup consumedPartitionGroup) {
+		return shuffleDescriptorCache.get(consumedPartitionGroup);
+	}
+
+	public void cacheShuffleDescriptors(
+			ConsumedPartitionGroup consumedPartitionGroup,
+			MaybeOffloaded<ShuffleDescriptor[]> shuffleDescriptors) {
+		checkArgument(consumedPartitionGroup.getIntermediateResult() == this);
+		shuffleDescriptorCache.put(consumedPartitionGroup, checkNotNull(shuffleDescriptors));
+	}
+
+	void clearCachedShuffleDescriptors() {
+		if (shuffleDescriptorCache.isEmpty()) {
+			// the cache has already been invalidated by the reset of another partition
+			return;
+		}
+
+		// the deployments which referenced the descriptors of the previous generation are done by now
+		for (PermanentBlobKey blobKey : retiredShuffleDescriptorBlobKeys) {
+			deleteOffloadedShuffleDescriptors(blobKey);
+		}
+		retiredShuffleDescriptorBlobKeys.clear();
+
+		for (MaybeOffloaded<ShuffleDescriptor[]> shuffleDescriptors : shuffleDescriptorCache.values()) {
+			if (shuffleDescriptors instanceof Offloaded) {
+				retiredShuffleDescriptorBlobKeys.add(((Offloaded<ShuffleDescriptor[]>) shuffleDescriptors).serializedValueKey);
+			}
+		}
+		shuffleDescriptorCache.clear();
+	}
+
+	private void deleteOffloadedShuffleDescriptors(PermanentBlobKey blobKey) {
+		final ExecutionGraph graph = producer.getGraph();
+		if (!graph.getBlobWriter().deletePermanent(graph.getJobID(), blobKey)) {
+			LOG.warn("Failed to delete the offloaded shuffle descriptors {} of result {} of job {}.",
+				blobKey, id, graph.getJobID());
+		}
+	}
+
 	@VisibleForTesting
 	void resetForNewExecution() {
 		for (IntermediateResultPartition partition : partitions) {
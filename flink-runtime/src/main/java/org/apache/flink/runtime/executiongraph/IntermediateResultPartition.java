@@ -34,7 +34,7 @@ public class IntermediateResultPartition {
 
 	private final IntermediateResultPartitionID partitionId;
 
-	private List<List<ExecutionEdge>> consumers;
+	private final List<ConsumerVertexGroup> consumerVertexGroups;
 
 	/**
 	 * Whether this partition has produced some data.
@@ -45,7 +45,7 @@ public class IntermediateResultPartition {
 		this.totalResult = totalResult;
 		this.producer = producer;
 		this.partitionNumber = partitionNumber;
-		this.consumers = new ArrayList<List<ExecutionEdge>>(0);
+		this.consumerVertexGroups = new ArrayList<>(1);
 		this.partitionId = new IntermediateResultPartitionID(totalResult.getId(), partitionNumber);
 	}
 
@@ -69,8 +69,8 @@ public class IntermediateResultPartition {
 		return totalResult.getResultType();
 	}
 
-	public List<List<ExecutionEdge>> getConsumers() {
-		return consumers;
+	public List<ConsumerVertexGroup> getConsumerVertexGroups() {
+		return consumerVertexGroups;
 	}
 
 	public void markDataProduced() {
@@ -86,6 +86,9 @@ public class IntermediateResultPartition {
 	}
 
 	void resetForNewExecution() {
+		// the shuffle descriptor of this partition changes with the new execution attempt
+		totalResult.clearCachedShuffleDescriptors();
+
 		if (getResultType().isBlocking() && hasDataProduced) {
 			// A BLOCKING result partition with data produced means it is finished
 			// Need to add the running producer count of the result on resetting it
@@ -95,19 +98,19 @@ public class IntermediateResultPartition {
 	}
 
 	int addConsumerGroup() {
-		int pos = consumers.size();
+		int pos = consumerVertexGroups.size();
 
 		// NOTE: currently we support only one consumer per result!!!
 		if (pos != 0) {
 			throw new RuntimeException("Currently, each intermediate result can only have one consumer.");
 		}
 
-		consumers.add(new ArrayList<ExecutionEdge>());
+		consumerVertexGroups.add(ConsumerVertexGroup.EMPTY);
 		return pos;
 	}
 
-	void addConsumer(ExecutionEdge edge, int consumerNumber) {
-		consumers.get(consumerNumber).add(edge);
+	void setConsumerVertexGroup(int consumerNumber, ConsumerVertexGroup consumerVertexGroup) {
+		consumerVertexGroups.set(consumerNumber, consumerVertexGroup);
 	}
 
 	boolean markFinished() {
@@ -26,9 +26,13 @@ import org.apache.flink.runtime.topology.Vertex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -48,50 +52,71 @@ public final class PipelinedRegionComputeUtil {
 			return uniqueRegions(buildOneRegionForAllVertices(topology));
 		}
 
-		final Map<V, Set<V>> vertexToRegion = new IdentityHashMap<>();
-
-		// iterate all the vertices which are topologically sorted
+		final List<V> vertices = new ArrayList<>();
+		final Map<V, Integer> vertexIndices = new IdentityHashMap<>();
 		for (V vertex : topology.getVertices()) {
-			Set<V> currentRegion = new HashSet<>();
-			currentRegion.add(vertex);
-			vertexToRegion.put(vertex, currentRegion);
-
-			for (R consumedResult : vertex.getConsumedResults()) {
-				if (consumedResult.getResultType().isPipelined()) {
-					final V producerVertex = consumedResult.getProducer();
-					final Set<V> producerRegion = vertexToRegion.get(producerVertex);
-
-					if (producerRegion == null) {
-						throw new IllegalStateException("Producer task " + producerVertex.getId()
-							+ " failover region is null while calculating failover region for the consumer task "
-							+ vertex.getId() + ". This should be a failover region building bug.");
-					}
+			vertexIndices.put(vertex, vertices.size());
+			vertices.add(vertex);
+		}
+
+		final DisjointSets regions = new DisjointSets(vertices.size());
+
+		// groups of consumed results whose producers have already been merged into one region
+		final Set<Iterable<? extends R>> mergedResultGroups = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		for (int vertexIndex = 0; vertexIndex < vertices.size(); vertexIndex++) {
+			final V vertex = vertices.get(vertexIndex);
+
+			for (Iterable<? extends R> consumedResultGroup : vertex.getGroupedConsumedResults()) {
+				final Iterator<? extends R> consumedResults = consumedResultGroup.iterator();
+				if (!consumedResults.hasNext()) {
+					continue;
+				}
 
-					// check if it is the same as the producer region, if so skip the merge
-					// this check can significantly reduce compute complexity in All-to-All PIPELINED edge case
-					if (currentRegion != producerRegion) {
-						// merge current region and producer region
-						// merge the smaller region into the larger one to reduce the cost
-						final Set<V> smallerSet;
-						final Set<V> largerSet;
-						if (currentRegion.size() < producerRegion.size()) {
-							smallerSet = currentRegion;
-							largerSet = producerRegion;
-						} else {
-							smallerSet = producerRegion;
-							largerSet = currentRegion;
-						}
-						for (V v : smallerSet) {
-							vertexToRegion.put(v, largerSet);
-						}
-						largerSet.addAll(smallerSet);
-						currentRegion = largerSet;
+				final R firstConsumedResult = consumedResults.next();
+				if (!firstConsumedResult.getResultType().isPipelined()) {
+					// all results of a group have the same result type
+					continue;
+				}
+
+				regions.union(vertexIndex, getProducerIndex(vertex, firstConsumedResult, vertexIndices));
+
+				// the producers of a group which was consumed by an earlier vertex are already in one region,
+				// this check significantly reduces the compute complexity in the All-to-All PIPELINED edge case
+				if (mergedResultGroups.add(consumedResultGroup)) {
+					while (consumedResults.hasNext()) {
+						regions.union(vertexIndex, getProducerIndex(vertex, consumedResults.next(), vertexIndices));
 					}
 				}
 			}
 		}
 
-		return uniqueRegions(vertexToRegion);
+		final Map<Integer, Set<V>> regionsByRoot = new HashMap<>();
+		for (int vertexIndex = 0; vertexIndex < vertices.size(); vertexIndex++) {
+			regionsByRoot
+				.computeIfAbsent(regions.find(vertexIndex), ignored -> new HashSet<>())
+				.add(vertices.get(vertexIndex));
+		}
+
+		final Set<Set<V>> distinctRegions = Collections.newSetFromMap(new IdentityHashMap<>());
+		distinctRegions.addAll(regionsByRoot.values());
+		return distinctRegions;
+	}
+
+	private static <V extends Vertex<?, ?, V, R>, R extends Result<?, ?, V, R>> int getProducerIndex(
+			final V vertex,
+			final R consumedResult,
+			final Map<V, Integer> vertexIndices) {
+
+		final V producerVertex = consumedResult.getProducer();
+		final Integer producerIndex = vertexIndices.get(producerVertex);
+
+		if (producerIndex == null) {
+			throw new IllegalStateException("Producer task " + producerVertex.getId()
+				+ " failover region is null while calculating failover region for the consumer task "
+				+ vertex.getId() + ". This should be a failover region building bug.");
+		}
+		return producerIndex;
 	}
 
 	private static <V extends Vertex<?, ?, V, ?>> Map<V, Set<V>> buildOneRegionForAllVertices(
@@ -118,4 +143,50 @@ public final class PipelinedRegionComputeUtil {
 
 	private PipelinedRegionComputeUtil() {
 	}
+
+	/**
+	 * Union-find structure over the vertex indices, with union by size and path halving. Merging
+	 * two regions and looking up the region of a vertex take amortized almost constant time.
+	 */
+	private static final class DisjointSets {
+
+		private final int[] parents;
+
+		private final int[] sizes;
+
+		DisjointSets(int numElements) {
+			this.parents = new int[numElements];
+			this.sizes = new int[numElements];
+			for (int i = 0; i < numElements; i++) {
+				parents[i] = i;
+				sizes[i] = 1;
+			}
+		}
+
+		int find(int element) {
+			int current = element;
+			while (parents[current] != current) {
+				parents[current] = parents[parents[current]];
+				current = parents[current];
+			}
+			return current;
+		}
+
+		void union(int first, int second) {
+			int firstRoot = find(first);
+			int secondRoot = find(second);
+			if (firstRoot == secondRoot) {
+				return;
+			}
+
+			// attach the smaller tree to the root of the larger one
+			if (sizes[firstRoot] < sizes[secondRoot]) {
+				int tmp = firstRoot;
+				firstRoot = secondRoot;
+				secondRoot = tmp;
+			}
+			parents[secondRoot] = firstRoot;
+			sizes[firstRoot] += sizes[secondRoot];
+		}
+	}
 }
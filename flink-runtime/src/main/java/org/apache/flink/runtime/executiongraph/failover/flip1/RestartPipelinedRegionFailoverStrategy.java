@@ -145,6 +145,8 @@ public class RestartPipelinedRegionFailoverStrategy implements FailoverStrategy
 	private Set<SchedulingPipelinedRegion> getRegionsToRestart(SchedulingPipelinedRegion failedRegion) {
 		Set<SchedulingPipelinedRegion> regionsToRestart = Collections.newSetFromMap(new IdentityHashMap<>());
 		Set<SchedulingPipelinedRegion> visitedRegions = Collections.newSetFromMap(new IdentityHashMap<>());
+		Set<Iterable<? extends SchedulingResultPartition>> visitedConsumedResultGroups = Collections.newSetFromMap(new IdentityHashMap<>());
+		Set<Iterable<? extends SchedulingExecutionVertex>> visitedConsumerGroups = Collections.newSetFromMap(new IdentityHashMap<>());
 
 		// start from the failed region to visit all involved regions
 		Queue<SchedulingPipelinedRegion> regionsToVisit = new ArrayDeque<>();
@@ -158,12 +160,18 @@ public class RestartPipelinedRegionFailoverStrategy implements FailoverStrategy
 
 			// if a needed input result partition is not available, its producer region is involved
 			for (SchedulingExecutionVertex vertex : regionToRestart.getVertices()) {
-				for (SchedulingResultPartition consumedPartition : vertex.getConsumedResults()) {
-					if (!resultPartitionAvailabilityChecker.isAvailable(consumedPartition.getId())) {
-						SchedulingPipelinedRegion producerRegion = topology.getPipelinedRegionOfVertex(consumedPartition.getProducer().getId());
-						if (!visitedRegions.contains(producerRegion)) {
-							visitedRegions.add(producerRegion);
-							regionsToVisit.add(producerRegion);
+				for (Iterable<? extends SchedulingResultPartition> consumedResultGroup : vertex.getGroupedConsumedResults()) {
+					// partitions of an All-to-All edge are consumed as one shared group, which is checked only once
+					if (!visitedConsumedResultGroups.add(consumedResultGroup)) {
+						continue;
+					}
+					for (SchedulingResultPartition consumedPartition : consumedResultGroup) {
+						if (!resultPartitionAvailabilityChecker.isAvailable(consumedPartition.getId())) {
+							SchedulingPipelinedRegion producerRegion = topology.getPipelinedRegionOfVertex(consumedPartition.getProducer().getId());
+							if (!visitedRegions.contains(producerRegion)) {
+								visitedRegions.add(producerRegion);
+								regionsToVisit.add(producerRegion);
+							}
 						}
 					}
 				}
@@ -172,11 +180,17 @@ public class RestartPipelinedRegionFailoverStrategy implements FailoverStrategy
 			// all consumer regions of an involved region should be involved
 			for (SchedulingExecutionVertex vertex : regionToRestart.getVertices()) {
 				for (SchedulingResultPartition producedPartition : vertex.getProducedResults()) {
-					for (SchedulingExecutionVertex consumerVertex : producedPartition.getConsumers()) {
-						SchedulingPipelinedRegion consumerRegion = topology.getPipelinedRegionOfVertex(consumerVertex.getId());
-						if (!visitedRegions.contains(consumerRegion)) {
-							visitedRegions.add(consumerRegion);
-							regionsToVisit.add(consumerRegion);
+					for (Iterable<? extends SchedulingExecutionVertex> consumerGroup : producedPartition.getGroupedConsumers()) {
+						// partitions of an All-to-All edge share their consumer group, which is visited only once
+						if (!visitedConsumerGroups.add(consumerGroup)) {
+							continue;
+						}
+						for (SchedulingExecutionVertex consumerVertex : consumerGroup) {
+							SchedulingPipelinedRegion consumerRegion = topology.getPipelinedRegionOfVertex(consumerVertex.getId());
+							if (!visitedRegions.contains(consumerRegion)) {
+								visitedRegions.add(consumerRegion);
+								regionsToVisit.add(consumerRegion);
+							}
 						}
 					}
 				}
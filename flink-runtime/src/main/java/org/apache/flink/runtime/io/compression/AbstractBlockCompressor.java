@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.compression;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.apache.flink.runtime.io.compression.Lz4BlockCompressionFactory.HEADER_LENGTH;
+
+/**
+ * Base class of the {@link BlockCompressor}s of the codecs which are accessed through native
+ * libraries, i.e. which can compress either between byte arrays or between direct buffers.
+ *
+ * <p>It writes the same block header as the {@link Lz4BlockCompressor}: the compressed length and
+ * the original length of the block as little-endian integers. If only one of the given
+ * {@link ByteBuffer}s is a direct buffer, the data of the direct buffer is copied through a
+ * reusable heap array, so instances of this class must not be shared between threads.
+ */
+abstract class AbstractBlockCompressor implements BlockCompressor {
+
+	/** Reusable heap array for the uncompressed data of direct buffers. */
+	private byte[] srcCopyBuffer = new byte[0];
+
+	/** Reusable heap array for the compressed data written to direct buffers. */
+	private byte[] dstCopyBuffer = new byte[0];
+
+	/**
+	 * Returns the maximum length of the compressed data (without header) for a given original size.
+	 */
+	abstract int maxCompressedLength(int srcSize);
+
+	/**
+	 * Compresses the given range of the source array into the target array.
+	 *
+	 * @return Length of compressed data (without header)
+	 */
+	abstract int compressArray(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int maxDstLen)
+			throws IOException;
+
+	/**
+	 * Compresses the given range of the direct source buffer into the direct target buffer. The
+	 * offsets are absolute positions, the positions and limits of the buffers must not be changed.
+	 *
+	 * @return Length of compressed data (without header)
+	 */
+	abstract int compressDirect(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dst, int dstOff, int maxDstLen)
+			throws IOException;
+
+	@Override
+	public int getMaxCompressedSize(int srcSize) {
+		return HEADER_LENGTH + maxCompressedLength(srcSize);
+	}
+
+	@Override
+	public int compress(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dst, int dstOff)
+			throws InsufficientBufferException {
+		final int prevSrcOff = src.position() + srcOff;
+		final int prevDstOff = dst.position() + dstOff;
+
+		final int maxCompressedLength = maxCompressedLength(srcLen);
+		// the native libraries do not check the bounds of the target, so we require the worst case
+		if (dst.limit() - prevDstOff - HEADER_LENGTH < maxCompressedLength) {
+			throw new InsufficientBufferException("Buffer length too small");
+		}
+
+		final int compressedLength;
+		try {
+			if (src.isDirect() && dst.isDirect()) {
+				compressedLength = compressDirect(
+					src, prevSrcOff, srcLen, dst, prevDstOff + HEADER_LENGTH, maxCompressedLength);
+			} else {
+				compressedLength = compressHeap(src, prevSrcOff, srcLen, dst, prevDstOff + HEADER_LENGTH, maxCompressedLength);
+			}
+		}
+		catch (IOException e) {
+			throw new InsufficientBufferException(e);
+		}
+
+		src.position(prevSrcOff + srcLen);
+
+		dst.position(prevDstOff);
+		dst.order(ByteOrder.LITTLE_ENDIAN);
+		dst.putInt(compressedLength);
+		dst.putInt(srcLen);
+		dst.position(prevDstOff + compressedLength + HEADER_LENGTH);
+
+		return HEADER_LENGTH + compressedLength;
+	}
+
+	private int compressHeap(
+			ByteBuffer src,
+			int srcOff,
+			int srcLen,
+			ByteBuffer dst,
+			int dstOff,
+			int maxDstLen) throws IOException {
+
+		final byte[] srcArray;
+		final int srcArrayOff;
+		if (src.hasArray()) {
+			srcArray = src.array();
+			srcArrayOff = src.arrayOffset() + srcOff;
+		} else {
+			if (srcCopyBuffer.length < srcLen) {
+				srcCopyBuffer = new byte[srcLen];
+			}
+			srcArray = srcCopyBuffer;
+			srcArrayOff = 0;
+			ByteBuffer srcView = src.duplicate();
+			srcView.position(srcOff);
+			srcView.get(srcArray, 0, srcLen);
+		}
+
+		if (dst.hasArray()) {
+			return compressArray(srcArray, srcArrayOff, srcLen, dst.array(), dst.arrayOffset() + dstOff, maxDstLen);
+		}
+
+		if (dstCopyBuffer.length < maxDstLen) {
+			dstCopyBuffer = new byte[maxDstLen];
+		}
+		int compressedLength = compressArray(srcArray, srcArrayOff, srcLen, dstCopyBuffer, 0, maxDstLen);
+		ByteBuffer dstView = dst.duplicate();
+		dstView.position(dstOff);
+		dstView.put(dstCopyBuffer, 0, compressedLength);
+		return compressedLength;
+	}
+
+	@Override
+	public int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff)
+			throws InsufficientBufferException {
+		final int maxCompressedLength = maxCompressedLength(srcLen);
+		if (dst.length - dstOff - HEADER_LENGTH < maxCompressedLength) {
+			throw new InsufficientBufferException("Buffer length too small");
+		}
+
+		try {
+			int compressedLength = compressArray(
+				src, srcOff, srcLen, dst, dstOff + HEADER_LENGTH, maxCompressedLength);
+			writeIntLE(compressedLength, dst, dstOff);
+			writeIntLE(srcLen, dst, dstOff + 4);
+			return HEADER_LENGTH + compressedLength;
+		}
+		catch (IOException e) {
+			throw new InsufficientBufferException(e);
+		}
+	}
+
+	private static void writeIntLE(int i, byte[] buf, int offset) {
+		buf[offset++] = (byte) i;
+		buf[offset++] = (byte) (i >>> 8);
+		buf[offset++] = (byte) (i >>> 16);
+		buf[offset] = (byte) (i >>> 24);
+	}
+}
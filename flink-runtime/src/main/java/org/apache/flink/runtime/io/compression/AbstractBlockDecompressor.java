@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.compression;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.apache.flink.runtime.io.compression.Lz4BlockCompressionFactory.HEADER_LENGTH;
+
+/**
+ * Base class of the {@link BlockDecompressor}s which decode data written by an
+ * {@link AbstractBlockCompressor}. Like the compressor, it copies the data through reusable heap
+ * arrays if only one of the given {@link ByteBuffer}s is a direct buffer, so instances of this
+ * class must not be shared between threads.
+ */
+abstract class AbstractBlockDecompressor implements BlockDecompressor {
+
+	/** Reusable heap array for the compressed data of direct buffers. */
+	private byte[] srcCopyBuffer = new byte[0];
+
+	/** Reusable heap array for the decompressed data written to direct buffers. */
+	private byte[] dstCopyBuffer = new byte[0];
+
+	/**
+	 * Decompresses the given range of the source array into the target array. Implementations must
+	 * not write more than {@code originalLen} bytes to the target.
+	 *
+	 * @return Length of decompressed data
+	 */
+	abstract int decompressArray(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int originalLen)
+			throws IOException;
+
+	/**
+	 * Decompresses the given range of the direct source buffer into the direct target buffer. The
+	 * offsets are absolute positions, the positions and limits of the buffers must not be changed.
+	 * Implementations must not write more than {@code originalLen} bytes to the target.
+	 *
+	 * @return Length of decompressed data
+	 */
+	abstract int decompressDirect(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dst, int dstOff, int originalLen)
+			throws IOException;
+
+	@Override
+	public int decompress(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dst, int dstOff)
+			throws DataCorruptionException {
+		final int prevSrcOff = src.position() + srcOff;
+		final int prevDstOff = dst.position() + dstOff;
+
+		src.order(ByteOrder.LITTLE_ENDIAN);
+		final int compressedLen = src.getInt(prevSrcOff);
+		final int originalLen = src.getInt(prevSrcOff + 4);
+		validateLength(compressedLen, originalLen);
+
+		if (dst.limit() - prevDstOff < originalLen) {
+			throw new InsufficientBufferException("Buffer length too small");
+		}
+
+		if (src.limit() - prevSrcOff - HEADER_LENGTH < compressedLen) {
+			throw new DataCorruptionException("Source data is not integral for decompression.");
+		}
+
+		final int decompressedLen;
+		try {
+			if (src.isDirect() && dst.isDirect()) {
+				decompressedLen = decompressDirect(
+					src, prevSrcOff + HEADER_LENGTH, compressedLen, dst, prevDstOff, originalLen);
+			} else {
+				decompressedLen = decompressHeap(
+					src, prevSrcOff + HEADER_LENGTH, compressedLen, dst, prevDstOff, originalLen);
+			}
+		}
+		catch (IOException e) {
+			throw new DataCorruptionException("Input is corrupted", e);
+		}
+		validateDecompressedLength(decompressedLen, originalLen);
+
+		src.position(prevSrcOff + compressedLen + HEADER_LENGTH);
+		dst.position(prevDstOff + originalLen);
+
+		return originalLen;
+	}
+
+	private int decompressHeap(
+			ByteBuffer src,
+			int srcOff,
+			int srcLen,
+			ByteBuffer dst,
+			int dstOff,
+			int originalLen) throws IOException {
+
+		final byte[] srcArray;
+		final int srcArrayOff;
+		if (src.hasArray()) {
+			srcArray = src.array();
+			srcArrayOff = src.arrayOffset() + srcOff;
+		} else {
+			if (srcCopyBuffer.length < srcLen) {
+				srcCopyBuffer = new byte[srcLen];
+			}
+			srcArray = srcCopyBuffer;
+			srcArrayOff = 0;
+			ByteBuffer srcView = src.duplicate();
+			srcView.position(srcOff);
+			srcView.get(srcArray, 0, srcLen);
+		}
+
+		if (dst.hasArray()) {
+			return decompressArray(srcArray, srcArrayOff, srcLen, dst.array(), dst.arrayOffset() + dstOff, originalLen);
+		}
+
+		if (dstCopyBuffer.length < originalLen) {
+			dstCopyBuffer = new byte[originalLen];
+		}
+		int decompressedLen = decompressArray(srcArray, srcArrayOff, srcLen, dstCopyBuffer, 0, originalLen);
+		validateDecompressedLength(decompressedLen, originalLen);
+		ByteBuffer dstView = dst.duplicate();
+		dstView.position(dstOff);
+		dstView.put(dstCopyBuffer, 0, decompressedLen);
+		return decompressedLen;
+	}
+
+	@Override
+	public int decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff)
+			throws InsufficientBufferException, DataCorruptionException {
+		final int compressedLen = readIntLE(src, srcOff);
+		final int originalLen = readIntLE(src, srcOff + 4);
+		validateLength(compressedLen, originalLen);
+
+		if (dst.length - dstOff < originalLen) {
+			throw new InsufficientBufferException("Buffer length too small");
+		}
+
+		if (src.length - srcOff - HEADER_LENGTH < compressedLen) {
+			throw new DataCorruptionException("Source data is not integral for decompression.");
+		}
+
+		final int decompressedLen;
+		try {
+			decompressedLen = decompressArray(
+				src, srcOff + HEADER_LENGTH, compressedLen, dst, dstOff, originalLen);
+		}
+		catch (IOException e) {
+			throw new DataCorruptionException("Input is corrupted", e);
+		}
+		validateDecompressedLength(decompressedLen, originalLen);
+
+		return originalLen;
+	}
+
+	private static int readIntLE(byte[] buf, int offset) {
+		return (buf[offset] & 0xFF)
+			| ((buf[offset + 1] & 0xFF) << 8)
+			| ((buf[offset + 2] & 0xFF) << 16)
+			| ((buf[offset + 3] & 0xFF) << 24);
+	}
+
+	private static void validateLength(int compressedLen, int originalLen) throws DataCorruptionException {
+		if (originalLen < 0
+			|| compressedLen < 0
+			|| (originalLen == 0 && compressedLen != 0)
+			|| (originalLen != 0 && compressedLen == 0)) {
+			throw new DataCorruptionException("Input is corrupted, invalid length.");
+		}
+	}
+
+	private static void validateDecompressedLength(int decompressedLen, int originalLen)
+			throws DataCorruptionException {
+		if (decompressedLen != originalLen) {
+			throw new DataCorruptionException("Input is corrupted, unexpected original length.");
+		}
+	}
+}
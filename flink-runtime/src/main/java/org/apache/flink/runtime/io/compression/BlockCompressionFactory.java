@@ -32,25 +32,49 @@ public interface BlockCompressionFactory {
 
 	BlockDecompressor getDecompressor();
 
+	/**
+	 * Separator between the name of a compression codec and its compression level, e.g. "ZSTD:9".
+	 */
+	String LEVEL_SEPARATOR = ":";
+
 	/**
 	 * Name of {@link BlockCompressionFactory}.
 	 */
 	enum CompressionFactoryName {
-		LZ4
+		LZ4,
+		LZ4_HC,
+		SNAPPY,
+		ZSTD
 	}
 
 	/**
 	 * Creates {@link BlockCompressionFactory} according to the configuration.
 	 * @param compressionFactoryName supported compression codecs or user-defined class name inherited from
-	 *                               {@link BlockCompressionFactory}.
+	 *                               {@link BlockCompressionFactory}. The level of the codecs which support
+	 *                               compression levels (LZ4_HC and ZSTD) can be appended to the codec name,
+	 *                               separated by {@link #LEVEL_SEPARATOR}, e.g. "ZSTD:9".
 	 */
 	static BlockCompressionFactory createBlockCompressionFactory(String compressionFactoryName) {
 
 		checkNotNull(compressionFactoryName);
 
+		String codecName = compressionFactoryName;
+		Integer level = null;
+		int separatorIndex = compressionFactoryName.lastIndexOf(LEVEL_SEPARATOR);
+		if (separatorIndex >= 0) {
+			codecName = compressionFactoryName.substring(0, separatorIndex);
+			String levelString = compressionFactoryName.substring(separatorIndex + 1).trim();
+			try {
+				level = Integer.parseInt(levelString);
+			} catch (NumberFormatException e) {
+				throw new IllegalConfigurationException(
+					"Invalid compression level " + levelString + " of codec " + codecName, e);
+			}
+		}
+
 		CompressionFactoryName compressionName;
 		try {
-			compressionName = CompressionFactoryName.valueOf(compressionFactoryName.toUpperCase());
+			compressionName = CompressionFactoryName.valueOf(codecName.trim().toUpperCase());
 		} catch (IllegalArgumentException e) {
 			compressionName = null;
 		}
@@ -59,11 +83,29 @@ public interface BlockCompressionFactory {
 		if (compressionName != null) {
 			switch (compressionName) {
 				case LZ4:
-					blockCompressionFactory = new Lz4BlockCompressionFactory();
+				case SNAPPY:
+					if (level != null) {
+						throw new IllegalConfigurationException(
+							"Compression codec " + compressionName + " does not support compression levels.");
+					}
+					blockCompressionFactory = compressionName == CompressionFactoryName.LZ4
+						? new Lz4BlockCompressionFactory()
+						: new SnappyBlockCompressionFactory();
+					break;
+				case LZ4_HC:
+					blockCompressionFactory = new Lz4HcBlockCompressionFactory(
+						level != null ? level : Lz4HcBlockCompressionFactory.DEFAULT_LEVEL);
+					break;
+				case ZSTD:
+					blockCompressionFactory = new ZstdBlockCompressionFactory(
+						level != null ? level : ZstdBlockCompressionFactory.DEFAULT_LEVEL);
 					break;
 				default:
 					throw new IllegalStateException("Unknown CompressionMethod " + compressionName);
 			}
+		} else if (level != null) {
+			throw new IllegalConfigurationException(
+				"Compression levels are only supported by the built-in codecs, but got " + compressionFactoryName);
 		} else {
 			Object factoryObj;
 			try {
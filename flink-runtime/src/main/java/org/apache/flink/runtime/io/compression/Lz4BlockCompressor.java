@@ -27,6 +27,7 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
 import static org.apache.flink.runtime.io.compression.Lz4BlockCompressionFactory.HEADER_LENGTH;
+import static org.apache.flink.util.Preconditions.checkNotNull;
 
 /**
  * Encode data into LZ4 format (not compatible with the LZ4 Frame format).
@@ -39,7 +40,15 @@ public class Lz4BlockCompressor implements BlockCompressor {
 	private final LZ4Compressor compressor;
 
 	public Lz4BlockCompressor() {
-		this.compressor = LZ4Factory.fastestInstance().fastCompressor();
+		this(LZ4Factory.fastestInstance().fastCompressor());
+	}
+
+	/**
+	 * Creates a compressor using the given LZ4 compressor, e.g. the high compression one.
+	 * The output can be decompressed by the {@link Lz4BlockDecompressor} in any case.
+	 */
+	Lz4BlockCompressor(LZ4Compressor compressor) {
+		this.compressor = checkNotNull(compressor);
 	}
 
 	@Override
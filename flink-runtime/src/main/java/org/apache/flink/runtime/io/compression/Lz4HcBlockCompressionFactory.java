@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.compression;
+
+import net.jpountz.lz4.LZ4Factory;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * Implementation of {@link BlockCompressionFactory} for the high compression variant of the Lz4 codec.
+ * It trades compression speed for a better compression ratio, the decompression is as fast as for
+ * the {@link Lz4BlockCompressionFactory} and uses the same data format.
+ */
+public class Lz4HcBlockCompressionFactory implements BlockCompressionFactory {
+
+	/** The default compression level of lz4-java. */
+	public static final int DEFAULT_LEVEL = 9;
+
+	/** The maximum compression level of lz4-java, higher levels are treated as this one. */
+	public static final int MAX_LEVEL = 17;
+
+	private final int level;
+
+	public Lz4HcBlockCompressionFactory() {
+		this(DEFAULT_LEVEL);
+	}
+
+	public Lz4HcBlockCompressionFactory(int level) {
+		checkArgument(level >= 1 && level <= MAX_LEVEL,
+			"The compression level of LZ4_HC must be between 1 and %s, but is %s.", MAX_LEVEL, level);
+		this.level = level;
+	}
+
+	@Override
+	public BlockCompressor getCompressor() {
+		return new Lz4BlockCompressor(LZ4Factory.fastestInstance().highCompressor(level));
+	}
+
+	@Override
+	public BlockDecompressor getDecompressor() {
+		return new Lz4BlockDecompressor();
+	}
+}
@@ -16,36 +16,20 @@
  * limitations under the License.
  */
 
-package org.apache.flink.runtime.executiongraph;
+package org.apache.flink.runtime.io.compression;
 
-public class ExecutionEdge {
-
-	private final IntermediateResultPartition source;
-
-	private final ExecutionVertex target;
-
-	private final int inputNum;
-
-	public ExecutionEdge(IntermediateResultPartition source, ExecutionVertex target, int inputNum) {
-		this.source = source;
-		this.target = target;
-		this.inputNum = inputNum;
-	}
-
-	public IntermediateResultPartition getSource() {
-		return source;
-	}
-
-	public ExecutionVertex getTarget() {
-		return target;
-	}
+/**
+ * Implementation of {@link BlockCompressionFactory} for Snappy codec.
+ */
+public class SnappyBlockCompressionFactory implements BlockCompressionFactory {
 
-	public int getInputNum() {
-		return inputNum;
+	@Override
+	public BlockCompressor getCompressor() {
+		return new SnappyBlockCompressor();
 	}
 
 	@Override
-	public String toString() {
-		return "ExecutionEdge [" + source + " <=> " + target + "]";
+	public BlockDecompressor getDecompressor() {
+		return new SnappyBlockDecompressor();
 	}
 }
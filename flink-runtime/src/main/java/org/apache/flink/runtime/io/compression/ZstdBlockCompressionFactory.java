@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.compression;
+
+import com.github.luben.zstd.Zstd;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * Implementation of {@link BlockCompressionFactory} for Zstd codec. Higher compression levels give
+ * better compression ratios at the cost of compression speed, the decompression speed is mostly
+ * independent of the level.
+ */
+public class ZstdBlockCompressionFactory implements BlockCompressionFactory {
+
+	/** The default compression level of the Zstd library. */
+	public static final int DEFAULT_LEVEL = 3;
+
+	private final int level;
+
+	public ZstdBlockCompressionFactory() {
+		this(DEFAULT_LEVEL);
+	}
+
+	public ZstdBlockCompressionFactory(int level) {
+		checkArgument(level >= Zstd.minCompressionLevel() && level <= Zstd.maxCompressionLevel(),
+			"The compression level of ZSTD must be between %s and %s, but is %s.",
+			Zstd.minCompressionLevel(), Zstd.maxCompressionLevel(), level);
+		this.level = level;
+	}
+
+	@Override
+	public BlockCompressor getCompressor() {
+		return new ZstdBlockCompressor(level);
+	}
+
+	@Override
+	public BlockDecompressor getDecompressor() {
+		return new ZstdBlockDecompressor();
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.compression;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encode data into Zstd format, prefixed with the same header as the {@link Lz4BlockCompressor}.
+ * It reads from and writes to byte arrays or direct buffers provided from the outside, thus reducing copy time.
+ */
+public class ZstdBlockCompressor extends AbstractBlockCompressor {
+
+	private final int level;
+
+	public ZstdBlockCompressor(int level) {
+		this.level = level;
+	}
+
+	@Override
+	int maxCompressedLength(int srcSize) {
+		return (int) Zstd.compressBound(srcSize);
+	}
+
+	@Override
+	int compressArray(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int maxDstLen)
+			throws IOException {
+		return checkResult(Zstd.compressByteArray(dst, dstOff, maxDstLen, src, srcOff, srcLen, level));
+	}
+
+	@Override
+	int compressDirect(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dst, int dstOff, int maxDstLen)
+			throws IOException {
+		return checkResult(Zstd.compressDirectByteBuffer(dst, dstOff, maxDstLen, src, srcOff, srcLen, level));
+	}
+
+	static int checkResult(long result) throws IOException {
+		if (Zstd.isError(result)) {
+			throw new IOException(Zstd.getErrorName(result));
+		}
+		return (int) result;
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.compression;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.apache.flink.runtime.io.compression.ZstdBlockCompressor.checkResult;
+
+/**
+ * Decode data written with {@link ZstdBlockCompressor}.
+ * It reads from and writes to byte arrays or direct buffers provided from the outside, thus reducing copy time.
+ */
+public class ZstdBlockDecompressor extends AbstractBlockDecompressor {
+
+	@Override
+	int decompressArray(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int originalLen)
+			throws IOException {
+		return checkResult(Zstd.decompressByteArray(dst, dstOff, originalLen, src, srcOff, srcLen));
+	}
+
+	@Override
+	int decompressDirect(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dst, int dstOff, int originalLen)
+			throws IOException {
+		return checkResult(Zstd.decompressDirectByteBuffer(dst, dstOff, originalLen, src, srcOff, srcLen));
+	}
+}
@@ -27,6 +27,7 @@ import org.apache.flink.runtime.io.disk.FileChannelManagerImpl;
 import org.apache.flink.runtime.io.network.buffer.NetworkBufferPool;
 import org.apache.flink.runtime.io.network.netty.NettyConfig;
 import org.apache.flink.runtime.io.network.netty.NettyConnectionManager;
+import org.apache.flink.runtime.io.network.netty.NettyServerFlushMetrics;
 import org.apache.flink.runtime.io.network.partition.ResultPartition;
 import org.apache.flink.runtime.io.network.partition.ResultPartitionFactory;
 import org.apache.flink.runtime.io.network.partition.ResultPartitionManager;
@@ -40,6 +41,7 @@ import org.apache.flink.runtime.taskmanager.NettyShuffleEnvironmentConfiguration
 
 import java.util.concurrent.Executor;
 
+import static org.apache.flink.runtime.io.network.metrics.NettyShuffleMetricFactory.registerNettyServerMetrics;
 import static org.apache.flink.runtime.io.network.metrics.NettyShuffleMetricFactory.registerShuffleMetrics;
 import static org.apache.flink.util.Preconditions.checkNotNull;
 
@@ -105,9 +107,14 @@ public class NettyShuffleServiceFactory implements ShuffleServiceFactory<NettySh
 
 		FileChannelManager fileChannelManager = new FileChannelManagerImpl(config.getTempDirs(), DIR_NAME_PREFIX);
 
-		ConnectionManager connectionManager = nettyConfig != null ?
-			new NettyConnectionManager(resultPartitionManager, taskEventPublisher, nettyConfig) :
-			new LocalConnectionManager();
+		ConnectionManager connectionManager;
+		if (nettyConfig != null) {
+			NettyServerFlushMetrics serverFlushMetrics = new NettyServerFlushMetrics();
+			registerNettyServerMetrics(metricGroup, serverFlushMetrics);
+			connectionManager = new NettyConnectionManager(resultPartitionManager, taskEventPublisher, nettyConfig, serverFlushMetrics);
+		} else {
+			connectionManager = new LocalConnectionManager();
+		}
 
 		NetworkBufferPool networkBufferPool = new NetworkBufferPool(
 			config.numNetworkBuffers(),
@@ -126,8 +133,11 @@ public class NettyShuffleServiceFactory implements ShuffleServiceFactory<NettySh
 			config.networkBufferSize(),
 			config.isForcePartitionReleaseOnConsumption(),
 			config.isBlockingShuffleCompressionEnabled(),
+			config.isPipelinedShuffleCompressionEnabled(),
 			config.getCompressionCodec(),
-			config.getMaxBuffersPerChannel());
+			config.getMaxBuffersPerChannel(),
+			config.sortShuffleMinBuffers(),
+			config.sortShuffleMinParallelism());
 
 		SingleInputGateFactory singleInputGateFactory = new SingleInputGateFactory(
 			taskExecutorResourceId,
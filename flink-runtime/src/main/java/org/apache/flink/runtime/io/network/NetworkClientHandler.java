@@ -56,4 +56,12 @@ public interface NetworkClientHandler extends ChannelHandler {
 	 * @param inputChannel The input channel to resume data consumption.
 	 */
 	void resumeConsumption(RemoteInputChannel inputChannel);
+
+	/**
+	 * Announces the buffer size desired by the given input channel to the producer.
+	 *
+	 * @param inputChannel The input channel which announces the buffer size.
+	 * @param bufferSize The desired buffer size.
+	 */
+	void notifyNewBufferSize(RemoteInputChannel inputChannel, int bufferSize);
 }
@@ -50,6 +50,13 @@ public interface NetworkSequenceViewReader {
 	 */
 	void resumeConsumption();
 
+	/**
+	 * Notifies the view of the buffer size desired by the consumer.
+	 *
+	 * @param newBufferSize The maximum size of the buffers produced from now on.
+	 */
+	void notifyNewBufferSize(int newBufferSize);
+
 	/**
 	 * Checks whether this reader is available or not.
 	 *
@@ -57,6 +57,14 @@ public interface PartitionRequestClient {
 	 */
 	void resumeConsumption(RemoteInputChannel inputChannel);
 
+	/**
+	 * Announces the buffer size desired by one remote input channel to the producer.
+	 *
+	 * @param inputChannel The remote input channel which announces the buffer size.
+	 * @param bufferSize The maximum size of the buffers the producer should send from now on.
+	 */
+	void notifyNewBufferSize(RemoteInputChannel inputChannel, int bufferSize);
+
 	/**
 	 * Sends a task event backwards to an intermediate result partition.
 	 *
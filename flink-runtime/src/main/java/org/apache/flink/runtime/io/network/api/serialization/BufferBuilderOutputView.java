@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.api.serialization;
+
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.core.memory.DataOutputView;
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.runtime.io.network.buffer.BufferBuilder;
+
+import java.io.IOException;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * A {@link DataOutputView} which writes a length-prefixed record directly into the remaining
+ * memory of a {@link BufferBuilder}, without the intermediate copy of the
+ * {@link SpanningRecordSerializer}.
+ *
+ * <p>If the record does not fit into the remaining memory, the bytes written so far are moved to
+ * the given overflow buffer and the rest of the record is written there, so that the record can be
+ * spanned over multiple buffers as usual. The length prefix is written in place once the record is
+ * complete.
+ */
+final class BufferBuilderOutputView implements DataOutputView {
+
+	/** Size of the length prefix of every record. */
+	static final int LENGTH_BYTES = 4;
+
+	/** The buffer which takes the record if it does not fit into the target buffer. */
+	private final DataOutputSerializer overflowBuffer;
+
+	/** The target buffer of the current record, null if there is no current record. */
+	private BufferBuilder targetBuffer;
+
+	private MemorySegment segment;
+
+	/** The position of the length prefix of the current record in the memory segment. */
+	private int recordStart;
+
+	/** The current write position in the memory segment. */
+	private int position;
+
+	/** The end of the writable memory of the target buffer. */
+	private int limit;
+
+	/** Whether the current record is written to the overflow buffer. */
+	private boolean overflow;
+
+	BufferBuilderOutputView(DataOutputSerializer overflowBuffer) {
+		this.overflowBuffer = checkNotNull(overflowBuffer);
+	}
+
+	/**
+	 * Starts a new record at the current position of the given buffer builder, reserving the space
+	 * of the length prefix.
+	 */
+	void startRecord(BufferBuilder targetBuffer) throws IOException {
+		checkState(!targetBuffer.isFinished());
+
+		this.targetBuffer = targetBuffer;
+		this.segment = targetBuffer.getWritableMemorySegment();
+		this.recordStart = targetBuffer.getCommittedBytes();
+		this.position = recordStart;
+		this.limit = targetBuffer.getMaxCapacity();
+		this.overflow = false;
+
+		skipBytesToWrite(LENGTH_BYTES);
+	}
+
+	/**
+	 * Finishes the current record. If the record was written directly into the target buffer, the
+	 * length prefix is written and the record is appended to the target buffer, but not committed.
+	 * Otherwise, the overflow buffer holds the record, apart from its length prefix.
+	 *
+	 * @return <tt>true</tt> if the record was written directly into the target buffer
+	 */
+	boolean finishRecord() {
+		checkState(targetBuffer != null, "No record started.");
+
+		final boolean written = !overflow;
+		if (written) {
+			segment.putIntBigEndian(recordStart, position - recordStart - LENGTH_BYTES);
+			targetBuffer.appendWritten(position - recordStart);
+		}
+
+		targetBuffer = null;
+		segment = null;
+		return written;
+	}
+
+	/**
+	 * Returns whether the given number of bytes can be written into the target buffer. Otherwise,
+	 * switches to the overflow buffer.
+	 */
+	private boolean reserve(int numBytes) throws IOException {
+		if (overflow) {
+			return false;
+		}
+		if (limit - position >= numBytes) {
+			return true;
+		}
+
+		overflowBuffer.clear();
+		overflowBuffer.write(segment, recordStart, position - recordStart);
+		overflow = true;
+		return false;
+	}
+
+	// ------------------------------------------------------------------------
+	//  DataOutputView
+	// ------------------------------------------------------------------------
+
+	@Override
+	public void write(int b) throws IOException {
+		if (reserve(1)) {
+			segment.put(position++, (byte) b);
+		} else {
+			overflowBuffer.write(b);
+		}
+	}
+
+	@Override
+	public void write(byte[] b) throws IOException {
+		write(b, 0, b.length);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (reserve(len)) {
+			segment.put(position, b, off, len);
+			position += len;
+		} else {
+			overflowBuffer.write(b, off, len);
+		}
+	}
+
+	@Override
+	public void writeBoolean(boolean v) throws IOException {
+		write(v ? 1 : 0);
+	}
+
+	@Override
+	public void writeByte(int v) throws IOException {
+		write(v);
+	}
+
+	@Override
+	public void writeShort(int v) throws IOException {
+		if (reserve(2)) {
+			segment.putShortBigEndian(position, (short) v);
+			position += 2;
+		} else {
+			overflowBuffer.writeShort(v);
+		}
+	}
+
+	@Override
+	public void writeChar(int v) throws IOException {
+		if (reserve(2)) {
+			segment.putCharBigEndian(position, (char) v);
+			position += 2;
+		} else {
+			overflowBuffer.writeChar(v);
+		}
+	}
+
+	@Override
+	public void writeInt(int v) throws IOException {
+		if (reserve(4)) {
+			segment.putIntBigEndian(position, v);
+			position += 4;
+		} else {
+			overflowBuffer.writeInt(v);
+		}
+	}
+
+	@Override
+	public void writeLong(long v) throws IOException {
+		if (reserve(8)) {
+			segment.putLongBigEndian(position, v);
+			position += 8;
+		} else {
+			overflowBuffer.writeLong(v);
+		}
+	}
+
+	@Override
+	public void writeFloat(float v) throws IOException {
+		writeInt(Float.floatToIntBits(v));
+	}
+
+	@Override
+	public void writeDouble(double v) throws IOException {
+		writeLong(Double.doubleToLongBits(v));
+	}
+
+	@Override
+	public void writeBytes(String s) throws IOException {
+		for (int i = 0; i < s.length(); i++) {
+			write(s.charAt(i));
+		}
+	}
+
+	@Override
+	public void writeChars(String s) throws IOException {
+		for (int i = 0; i < s.length(); i++) {
+			writeChar(s.charAt(i));
+		}
+	}
+
+	@Override
+	public void writeUTF(String str) throws IOException {
+		// the encoded length is not known upfront, so we leave the encoding to the overflow buffer
+		reserve(Integer.MAX_VALUE);
+		overflowBuffer.writeUTF(str);
+	}
+
+	@Override
+	public void skipBytesToWrite(int numBytes) throws IOException {
+		if (reserve(numBytes)) {
+			position += numBytes;
+		} else {
+			overflowBuffer.skipBytesToWrite(numBytes);
+		}
+	}
+
+	@Override
+	public void write(DataInputView source, int numBytes) throws IOException {
+		if (reserve(numBytes)) {
+			segment.put(source, position, numBytes);
+			position += numBytes;
+		} else {
+			overflowBuffer.write(source, numBytes);
+		}
+	}
+}
@@ -22,6 +22,7 @@ import org.apache.flink.core.io.IOReadableWritable;
 import org.apache.flink.runtime.io.network.buffer.BufferBuilder;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Interface for turning records into sequences of memory segments.
@@ -72,6 +73,22 @@ public interface RecordSerializer<T extends IOReadableWritable> {
 	 */
 	void serializeRecord(T record) throws IOException;
 
+	/**
+	 * Serializes the given record directly into the remaining memory of the given target buffer,
+	 * without going through the intermediate data buffer. The record is appended to the target
+	 * buffer, but not committed.
+	 *
+	 * <p>If the record does not fit into the target buffer, nothing is appended and the record is
+	 * left in the intermediate data buffer, as if it had been serialized with
+	 * {@link #serializeRecord(IOReadableWritable)}, to be copied with
+	 * {@link #copyToBufferBuilder(BufferBuilder)}.
+	 *
+	 * @param record the record to serialize
+	 * @param targetBuffer the target buffer to serialize the record into
+	 * @return <tt>true</tt> if the complete record was written to the target buffer
+	 */
+	boolean serializeRecordToBufferBuilder(T record, BufferBuilder targetBuffer) throws IOException;
+
 	/**
 	 * Copies the intermediate data serialization buffer to the given target buffer.
 	 *
@@ -81,6 +98,14 @@ public interface RecordSerializer<T extends IOReadableWritable> {
 	 */
 	SerializationResult copyToBufferBuilder(BufferBuilder bufferBuilder);
 
+	/**
+	 * Returns the intermediate data serialization buffer holding the complete record (including its
+	 * length header) from its beginning, for writers which do not copy it into target buffers.
+	 *
+	 * @return the serialized record, which is consumed by reading it
+	 */
+	ByteBuffer getSerializedRecord();
+
 	/**
 	 * Clears the buffer and checks to decrease the size of intermediate data serialization buffer
 	 * after finishing the whole serialization process including
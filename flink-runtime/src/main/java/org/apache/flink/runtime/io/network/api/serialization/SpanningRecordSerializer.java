@@ -30,6 +30,10 @@ import java.nio.ByteBuffer;
  * data serialization buffer and copies this buffer to target buffers
  * one-by-one using {@link #copyToBufferBuilder(BufferBuilder)}.
  *
+ * <p>Alternatively, records can be serialized directly into a target buffer with
+ * {@link #serializeRecordToBufferBuilder(IOReadableWritable, BufferBuilder)}, which avoids the
+ * copy for all records fitting into the remaining memory of the target buffer.
+ *
  * @param <T> The type of the records that are serialized.
  */
 public class SpanningRecordSerializer<T extends IOReadableWritable> implements RecordSerializer<T> {
@@ -43,8 +47,12 @@ public class SpanningRecordSerializer<T extends IOReadableWritable> implements R
 	/** Intermediate buffer for data serialization (wrapped from {@link #serializationBuffer}). */
 	private ByteBuffer dataBuffer;
 
+	/** Output view for serializing records directly into the target buffers. */
+	private final BufferBuilderOutputView directOutput;
+
 	public SpanningRecordSerializer() {
 		serializationBuffer = new DataOutputSerializer(128);
+		directOutput = new BufferBuilderOutputView(serializationBuffer);
 
 		// ensure initial state with hasRemaining false (for correct continueWritingWithNextBufferBuilder logic)
 		dataBuffer = serializationBuffer.wrapAsByteBuffer();
@@ -69,7 +77,37 @@ public class SpanningRecordSerializer<T extends IOReadableWritable> implements R
 
 		// write data and length
 		record.write(serializationBuffer);
+		writeLengthAndWrapSerializationBuffer();
+	}
+
+	/**
+	 * Serializes the record directly into the target buffer if it fits, otherwise to the
+	 * intermediate data serialization buffer.
+	 *
+	 * @param record the record to serialize
+	 * @param targetBuffer the target buffer to serialize the record into
+	 * @return <tt>true</tt> if the complete record was written to the target buffer
+	 */
+	@Override
+	public boolean serializeRecordToBufferBuilder(T record, BufferBuilder targetBuffer) throws IOException {
+		if (CHECKED) {
+			if (dataBuffer.hasRemaining()) {
+				throw new IllegalStateException("Pending serialization of previous record.");
+			}
+		}
 
+		directOutput.startRecord(targetBuffer);
+		record.write(directOutput);
+		if (directOutput.finishRecord()) {
+			return true;
+		}
+
+		// the record did not fit and is now in the serialization buffer
+		writeLengthAndWrapSerializationBuffer();
+		return false;
+	}
+
+	private void writeLengthAndWrapSerializationBuffer() throws IOException {
 		int len = serializationBuffer.length() - 4;
 		serializationBuffer.setPosition(0);
 		serializationBuffer.writeInt(len);
@@ -93,6 +131,12 @@ public class SpanningRecordSerializer<T extends IOReadableWritable> implements R
 		return getSerializationResult(targetBuffer);
 	}
 
+	@Override
+	public ByteBuffer getSerializedRecord() {
+		dataBuffer.position(0);
+		return dataBuffer;
+	}
+
 	private SerializationResult getSerializationResult(BufferBuilder targetBuffer) {
 		if (dataBuffer.hasRemaining()) {
 			return SerializationResult.PARTIAL_RECORD_MEMORY_SEGMENT_FULL;
@@ -28,10 +28,15 @@ import org.apache.flink.runtime.io.disk.FileBasedBufferIterator;
 import org.apache.flink.runtime.io.network.buffer.Buffer;
 import org.apache.flink.runtime.io.network.buffer.FreeingBufferRecycler;
 import org.apache.flink.runtime.io.network.buffer.NetworkBuffer;
+import org.apache.flink.runtime.memory.AbstractPagedInputView;
 import org.apache.flink.util.CloseableIterator;
 import org.apache.flink.util.StringUtils;
+import org.apache.flink.util.function.SupplierWithException;
+
+import javax.annotation.Nullable;
 
 import java.io.BufferedInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -39,6 +44,7 @@ import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Random;
 
@@ -89,11 +95,40 @@ final class SpanningWrapper {
 
 	private int thresholdForSpilling;
 
+	/** Supplier of pooled buffers to gather records in, null if records are always gathered on the heap. */
+	@Nullable
+	private final SupplierWithException<Buffer, IOException> pooledBufferSupplier;
+
+	private final int maxPooledBuffersPerRecord;
+
+	/** The pooled buffers gathering the current record, empty if the record is not gathered in pooled buffers. */
+	private final ArrayList<Buffer> pooledBuffers = new ArrayList<>();
+
+	private final PooledBuffersInputView pooledBuffersReadView = new PooledBuffersInputView();
+
+	private int pooledBufferSize;
+
 	SpanningWrapper(String[] tempDirs) {
-		this(tempDirs, DEFAULT_THRESHOLD_FOR_SPILLING, DEFAULT_FILE_BUFFER_SIZE);
+		this(tempDirs, null, 0);
+	}
+
+	SpanningWrapper(
+			String[] tempDirs,
+			@Nullable SupplierWithException<Buffer, IOException> pooledBufferSupplier,
+			int maxPooledBuffersPerRecord) {
+		this(tempDirs, DEFAULT_THRESHOLD_FOR_SPILLING, DEFAULT_FILE_BUFFER_SIZE, pooledBufferSupplier, maxPooledBuffersPerRecord);
 	}
 
 	SpanningWrapper(String[] tempDirectories, int threshold, int fileBufferSize) {
+		this(tempDirectories, threshold, fileBufferSize, null, 0);
+	}
+
+	SpanningWrapper(
+			String[] tempDirectories,
+			int threshold,
+			int fileBufferSize,
+			@Nullable SupplierWithException<Buffer, IOException> pooledBufferSupplier,
+			int maxPooledBuffersPerRecord) {
 		this.tempDirs = tempDirectories;
 		this.lengthBuffer = ByteBuffer.allocate(LENGTH_BYTES);
 		this.lengthBuffer.order(ByteOrder.BIG_ENDIAN);
@@ -102,6 +137,8 @@ final class SpanningWrapper {
 		this.buffer = initialBuffer;
 		this.thresholdForSpilling = threshold;
 		this.fileBufferSize = fileBufferSize;
+		this.pooledBufferSupplier = pooledBufferSupplier;
+		this.maxPooledBuffersPerRecord = maxPooledBuffersPerRecord;
 	}
 
 	/**
@@ -109,7 +146,13 @@ final class SpanningWrapper {
 	 */
 	void transferFrom(NonSpanningWrapper partial, int nextRecordLength) throws IOException {
 		updateLength(nextRecordLength);
-		accumulatedRecordBytes = isAboveSpillingThreshold() ? spill(partial) : partial.copyContentTo(buffer);
+		if (isAboveSpillingThreshold()) {
+			accumulatedRecordBytes = spill(partial);
+		} else if (isGatheringInPooledBuffers()) {
+			copyIntoPooledBuffers(partial.wrapIntoByteBuffer());
+		} else {
+			accumulatedRecordBytes = partial.copyContentTo(buffer);
+		}
 		partial.clear();
 	}
 
@@ -138,10 +181,12 @@ final class SpanningWrapper {
 	}
 
 	private void copyFromSegment(MemorySegment segment, int offset, int length) throws IOException {
-		if (spillingChannel == null) {
-			copyIntoBuffer(segment, offset, length);
-		} else {
+		if (spillingChannel != null) {
 			copyIntoFile(segment, offset, length);
+		} else if (isGatheringInPooledBuffers()) {
+			copyIntoPooledBuffers(segment.wrap(offset, length));
+		} else {
+			copyIntoBuffer(segment, offset, length);
 		}
 	}
 
@@ -162,6 +207,19 @@ final class SpanningWrapper {
 		}
 	}
 
+	private void copyIntoPooledBuffers(ByteBuffer source) {
+		while (source.hasRemaining()) {
+			int positionInBuffer = accumulatedRecordBytes % pooledBufferSize;
+			int toCopy = min(source.remaining(), pooledBufferSize - positionInBuffer);
+			MemorySegment target = pooledBuffers.get(accumulatedRecordBytes / pooledBufferSize).getMemorySegment();
+			target.put(positionInBuffer, source, toCopy);
+			accumulatedRecordBytes += toCopy;
+		}
+		if (hasFullRecord()) {
+			pooledBuffersReadView.reset();
+		}
+	}
+
 	private int readLength(MemorySegment segment, int segmentPosition, int segmentRemaining) throws IOException {
 		int bytesToRead = min(lengthBuffer.remaining(), segmentRemaining);
 		segment.get(segmentPosition, lengthBuffer, bytesToRead);
@@ -176,11 +234,55 @@ final class SpanningWrapper {
 		recordLength = length;
 		if (isAboveSpillingThreshold()) {
 			spillingChannel = createSpillingChannel();
-		} else {
+		} else if (!requestPooledBuffers(length)) {
 			ensureBufferCapacity(length);
 		}
 	}
 
+	/**
+	 * Tries to borrow enough pooled buffers to gather a record of the given length in, instead of
+	 * growing the heap buffer. Either all needed buffers are borrowed or none.
+	 *
+	 * @return <tt>true</tt> if the record is gathered in pooled buffers
+	 */
+	private boolean requestPooledBuffers(int length) throws IOException {
+		if (pooledBufferSupplier == null || length <= initialBuffer.length) {
+			return false;
+		}
+
+		Buffer pooledBuffer = pooledBufferSupplier.get();
+		if (pooledBuffer == null) {
+			return false;
+		}
+		pooledBuffers.add(pooledBuffer);
+		pooledBufferSize = pooledBuffer.getMaxCapacity();
+
+		int numBuffers = (length - 1) / pooledBufferSize + 1;
+		if (numBuffers > maxPooledBuffersPerRecord) {
+			recyclePooledBuffers();
+			return false;
+		}
+		while (pooledBuffers.size() < numBuffers) {
+			if ((pooledBuffer = pooledBufferSupplier.get()) == null) {
+				recyclePooledBuffers();
+				return false;
+			}
+			pooledBuffers.add(pooledBuffer);
+		}
+		return true;
+	}
+
+	private boolean isGatheringInPooledBuffers() {
+		return !pooledBuffers.isEmpty();
+	}
+
+	private void recyclePooledBuffers() {
+		for (Buffer pooledBuffer : pooledBuffers) {
+			pooledBuffer.recycleBuffer();
+		}
+		pooledBuffers.clear();
+	}
+
 	CloseableIterator<Buffer> getUnconsumedSegment() throws IOException {
 		if (isReadingLength()) {
 			return singleBufferIterator(wrapCopy(lengthBuffer.array(), 0, lengthBuffer.position()));
@@ -210,7 +312,14 @@ final class SpanningWrapper {
 		int unconsumedSize = LENGTH_BYTES + accumulatedRecordBytes + leftOverSize;
 		DataOutputSerializer serializer = new DataOutputSerializer(unconsumedSize);
 		serializer.writeInt(recordLength);
-		serializer.write(buffer, 0, accumulatedRecordBytes);
+		if (isGatheringInPooledBuffers()) {
+			for (int offset = 0; offset < accumulatedRecordBytes; offset += pooledBufferSize) {
+				MemorySegment pooledSegment = pooledBuffers.get(offset / pooledBufferSize).getMemorySegment();
+				serializer.write(pooledSegment, 0, min(pooledBufferSize, accumulatedRecordBytes - offset));
+			}
+		} else {
+			serializer.write(buffer, 0, accumulatedRecordBytes);
+		}
 		if (leftOverData != null) {
 			serializer.write(leftOverData, leftOverStart, leftOverSize);
 		}
@@ -241,6 +350,7 @@ final class SpanningWrapper {
 	public void clear() {
 		buffer = initialBuffer;
 		serializationReadBuffer.releaseArrays();
+		recyclePooledBuffers();
 
 		recordLength = -1;
 		lengthBuffer.clear();
@@ -266,7 +376,10 @@ final class SpanningWrapper {
 	}
 
 	public DataInputView getInputView() {
-		return spillFileReader == null ? serializationReadBuffer : spillFileReader;
+		if (spillFileReader != null) {
+			return spillFileReader;
+		}
+		return isGatheringInPooledBuffers() ? pooledBuffersReadView : serializationReadBuffer;
 	}
 
 	private void ensureBufferCapacity(int minLength) {
@@ -321,4 +434,37 @@ final class SpanningWrapper {
 		return CloseableIterator.ofElement(buffer, Buffer::recycleBuffer);
 	}
 
+	/**
+	 * Reads the record gathered in the pooled buffers across the boundaries of the buffers.
+	 */
+	private final class PooledBuffersInputView extends AbstractPagedInputView {
+
+		private int currentBufferIndex;
+
+		PooledBuffersInputView() {
+			super(0);
+		}
+
+		void reset() {
+			currentBufferIndex = 0;
+			MemorySegment firstSegment = pooledBuffers.get(0).getMemorySegment();
+			seekInput(firstSegment, 0, getLimitForSegment(firstSegment));
+		}
+
+		@Override
+		protected MemorySegment nextSegment(MemorySegment current) throws EOFException {
+			if (currentBufferIndex + 1 >= pooledBuffers.size()) {
+				throw new EOFException();
+			}
+			return pooledBuffers.get(++currentBufferIndex).getMemorySegment();
+		}
+
+		@Override
+		protected int getLimitForSegment(MemorySegment segment) {
+			return currentBufferIndex == pooledBuffers.size() - 1
+				? recordLength - currentBufferIndex * pooledBufferSize
+				: pooledBufferSize;
+		}
+	}
+
 }
@@ -22,6 +22,9 @@ import org.apache.flink.core.io.IOReadableWritable;
 import org.apache.flink.core.memory.MemorySegment;
 import org.apache.flink.runtime.io.network.buffer.Buffer;
 import org.apache.flink.util.CloseableIterator;
+import org.apache.flink.util.function.SupplierWithException;
+
+import javax.annotation.Nullable;
 
 import java.io.IOException;
 
@@ -43,8 +46,25 @@ public class SpillingAdaptiveSpanningRecordDeserializer<T extends IOReadableWrit
 	private Buffer currentBuffer;
 
 	public SpillingAdaptiveSpanningRecordDeserializer(String[] tmpDirectories) {
+		this(tmpDirectories, null, 0);
+	}
+
+	/**
+	 * Creates a deserializer which gathers records spanning multiple buffers in pooled buffers of
+	 * the given supplier, instead of a growing heap array, as long as a record needs at most the
+	 * given number of buffers and the supplier has enough buffers available right away. Records are
+	 * read from the pooled buffers without copying them into one continuous array.
+	 *
+	 * @param tmpDirectories the directories to spill very large records to
+	 * @param pooledBufferSupplier supplies pooled buffers without blocking, or <tt>null</tt> if none is available
+	 * @param maxPooledBuffersPerRecord the maximum number of pooled buffers to gather one record in
+	 */
+	public SpillingAdaptiveSpanningRecordDeserializer(
+			String[] tmpDirectories,
+			@Nullable SupplierWithException<Buffer, IOException> pooledBufferSupplier,
+			int maxPooledBuffersPerRecord) {
 		this.nonSpanningWrapper = new NonSpanningWrapper();
-		this.spanningWrapper = new SpanningWrapper(tmpDirectories);
+		this.spanningWrapper = new SpanningWrapper(tmpDirectories, pooledBufferSupplier, maxPooledBuffersPerRecord);
 	}
 
 	@Override
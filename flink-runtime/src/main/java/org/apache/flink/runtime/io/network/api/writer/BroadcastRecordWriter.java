@@ -32,13 +32,13 @@ import static org.apache.flink.util.Preconditions.checkState;
 /**
  * A special record-oriented runtime result writer only for broadcast mode.
  *
- * <p>The BroadcastRecordWriter extends the {@link RecordWriter} and maintain a single {@link BufferBuilder}
+ * <p>The BroadcastRecordWriter extends the {@link BufferWritingRecordWriter} and maintain a single {@link BufferBuilder}
  * for all the channels. Then the serialization results need be copied only once to this buffer which would be
  * shared for all the channels in a more efficient way.
  *
  * @param <T> the type of the record that can be emitted with this record writer
  */
-public final class BroadcastRecordWriter<T extends IOReadableWritable> extends RecordWriter<T> {
+public final class BroadcastRecordWriter<T extends IOReadableWritable> extends BufferWritingRecordWriter<T> {
 
 	/** The current buffer builder shared for all the channels. */
 	@Nullable
@@ -53,7 +53,7 @@ public final class BroadcastRecordWriter<T extends IOReadableWritable> extends R
 	private BufferConsumer randomTriggeredConsumer;
 
 	BroadcastRecordWriter(
-			ResultPartitionWriter writer,
+			BufferWritingResultPartitionWriter writer,
 			long timeout,
 			String taskName) {
 		super(writer, timeout, taskName);
@@ -131,6 +131,9 @@ public final class BroadcastRecordWriter<T extends IOReadableWritable> extends R
 		checkState(bufferBuilder == null || bufferBuilder.isFinished());
 
 		BufferBuilder builder = super.requestNewBufferBuilder(targetChannel);
+		// the rest of the buffer is shared by all channels, even after a random emit, so it must not
+		// exceed the buffer size desired by any of them
+		builder.trim(getBufferWritingPartition().getDesiredBroadcastBufferSize());
 		if (randomTriggered) {
 			addBufferConsumer(randomTriggeredConsumer = builder.createBufferConsumer(), targetChannel);
 		} else {
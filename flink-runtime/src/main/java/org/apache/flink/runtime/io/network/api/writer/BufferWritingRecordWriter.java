@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.api.writer;
+
+import org.apache.flink.core.io.IOReadableWritable;
+import org.apache.flink.runtime.event.AbstractEvent;
+import org.apache.flink.runtime.io.network.buffer.BufferBuilder;
+import org.apache.flink.runtime.io.network.buffer.BufferConsumer;
+
+import java.io.IOException;
+
+import static org.apache.flink.runtime.io.network.api.serialization.RecordSerializer.SerializationResult;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * An abstract record-oriented runtime result writer which copies the serialized records into
+ * {@link BufferBuilder}s requested from a {@link BufferWritingResultPartitionWriter}.
+ *
+ * <p>How the buffer builders are kept for the channels is up to the subclasses: the
+ * {@link ChannelSelectorRecordWriter} keeps one per channel, the {@link BroadcastRecordWriter} shares
+ * one between all channels.
+ *
+ * @param <T> the type of the record that can be emitted with this record writer
+ */
+public abstract class BufferWritingRecordWriter<T extends IOReadableWritable> extends RecordWriter<T> {
+
+	private final BufferWritingResultPartitionWriter targetPartition;
+
+	BufferWritingRecordWriter(BufferWritingResultPartitionWriter writer, long timeout, String taskName) {
+		super(writer, timeout, taskName);
+
+		this.targetPartition = writer;
+	}
+
+	@Override
+	protected void emit(T record, int targetChannel) throws IOException, InterruptedException {
+		checkErroneous();
+
+		serializer.serializeRecord(record);
+
+		// Make sure we don't hold onto the large intermediate serialization buffer for too long
+		if (copyFromSerializerToTargetChannel(targetChannel)) {
+			serializer.prune();
+		}
+	}
+
+	/**
+	 * Serializes the record directly into the current buffer of the target channel, which avoids
+	 * the copy from the intermediate serialization buffer. A record which does not fit into the
+	 * remaining memory of that buffer is spanned over the next buffers like in
+	 * {@link #emit(IOReadableWritable, int)}.
+	 */
+	protected void emitDirectly(T record, int targetChannel) throws IOException, InterruptedException {
+		BufferBuilder bufferBuilder = getBufferBuilder(targetChannel);
+		if (serializer.serializeRecordToBufferBuilder(record, bufferBuilder)) {
+			bufferBuilder.commit();
+			if (bufferBuilder.isFull()) {
+				finishBufferBuilder(bufferBuilder);
+				emptyCurrentBufferBuilder(targetChannel);
+			}
+
+			if (flushAlways) {
+				flushTargetPartition(targetChannel);
+			}
+		} else if (copyFromSerializerToTargetChannel(targetChannel)) {
+			serializer.prune();
+		}
+	}
+
+	/**
+	 * @param targetChannel
+	 * @return <tt>true</tt> if the intermediate serialization buffer should be pruned
+	 */
+	protected boolean copyFromSerializerToTargetChannel(int targetChannel) throws IOException, InterruptedException {
+		// We should reset the initial position of the intermediate serialization buffer before
+		// copying, so the serialization results can be copied to multiple target buffers.
+		serializer.reset();
+
+		boolean pruneTriggered = false;
+		BufferBuilder bufferBuilder = getBufferBuilder(targetChannel);
+		SerializationResult result = serializer.copyToBufferBuilder(bufferBuilder);
+		while (result.isFullBuffer()) {
+			finishBufferBuilder(bufferBuilder);
+
+			// If this was a full record, we are done. Not breaking out of the loop at this point
+			// will lead to another buffer request before breaking out (that would not be a
+			// problem per se, but it can lead to stalls in the pipeline).
+			if (result.isFullRecord()) {
+				pruneTriggered = true;
+				emptyCurrentBufferBuilder(targetChannel);
+				break;
+			}
+
+			bufferBuilder = requestNewBufferBuilder(targetChannel);
+			result = serializer.copyToBufferBuilder(bufferBuilder);
+		}
+		checkState(!serializer.hasSerializedData(), "All data should be written at once");
+
+		if (flushAlways) {
+			flushTargetPartition(targetChannel);
+		}
+		return pruneTriggered;
+	}
+
+	@Override
+	public void broadcastEvent(AbstractEvent event, boolean isPriorityEvent) throws IOException {
+		for (int targetChannel = 0; targetChannel < numberOfChannels; targetChannel++) {
+			tryFinishCurrentBufferBuilder(targetChannel);
+		}
+
+		super.broadcastEvent(event, isPriorityEvent);
+	}
+
+	protected void finishBufferBuilder(BufferBuilder bufferBuilder) {
+		numBytesOut.inc(bufferBuilder.finish());
+		numBuffersOut.inc();
+	}
+
+	/**
+	 * The {@link BufferBuilder} may already exist if not filled up last time, otherwise we need
+	 * request a new one for this target channel.
+	 */
+	abstract BufferBuilder getBufferBuilder(int targetChannel) throws IOException, InterruptedException;
+
+	/**
+	 * Marks the current {@link BufferBuilder} as finished if present and clears the state for next one.
+	 */
+	abstract void tryFinishCurrentBufferBuilder(int targetChannel);
+
+	/**
+	 * Marks the current {@link BufferBuilder} as empty for the target channel.
+	 */
+	abstract void emptyCurrentBufferBuilder(int targetChannel);
+
+	/**
+	 * Marks the current {@link BufferBuilder} as finished and releases the resources for the target channel.
+	 */
+	abstract void closeBufferBuilder(int targetChannel);
+
+	protected void addBufferConsumer(BufferConsumer consumer, int targetChannel) throws IOException {
+		targetPartition.addBufferConsumer(consumer, targetChannel);
+	}
+
+	/**
+	 * Requests a new {@link BufferBuilder} for the target channel and returns it.
+	 */
+	public BufferBuilder requestNewBufferBuilder(int targetChannel) throws IOException, InterruptedException {
+		BufferBuilder builder = targetPartition.tryGetBufferBuilder(targetChannel);
+		if (builder == null) {
+			long start = System.currentTimeMillis();
+			builder = targetPartition.getBufferBuilder(targetChannel);
+			idleTimeMsPerSecond.markEvent(System.currentTimeMillis() - start);
+		}
+		return builder;
+	}
+
+	/**
+	 * Returns the partition which provides the {@link BufferBuilder}s that the records are written into, for
+	 * subclasses which have to adjust these buffers to the partition, like the {@link BroadcastRecordWriter}.
+	 */
+	protected BufferWritingResultPartitionWriter getBufferWritingPartition() {
+		return targetPartition;
+	}
+}
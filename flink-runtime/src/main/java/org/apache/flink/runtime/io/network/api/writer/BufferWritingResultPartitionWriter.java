@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.api.writer;
+
+import org.apache.flink.runtime.io.network.buffer.BufferBuilder;
+import org.apache.flink.runtime.io.network.buffer.BufferConsumer;
+import org.apache.flink.runtime.io.network.partition.ResultSubpartition;
+
+import java.io.IOException;
+
+/**
+ * A {@link ResultPartitionWriter} which hands out a {@link BufferBuilder} per subpartition. The records
+ * are serialized into these buffers, whose {@link BufferConsumer} is added to the subpartition.
+ */
+public interface BufferWritingResultPartitionWriter extends ResultPartitionWriter {
+
+	/**
+	 * Requests a {@link BufferBuilder} from this partition for writing data.
+	 */
+	BufferBuilder getBufferBuilder(int targetChannel) throws IOException, InterruptedException;
+
+	/**
+	 * Try to request a {@link BufferBuilder} from this partition for writing data.
+	 *
+	 * <p>Returns <code>null</code> if no buffer is available or the buffer provider has been destroyed.
+	 */
+	BufferBuilder tryGetBufferBuilder(int targetChannel) throws IOException;
+
+	/**
+	 * Returns the maximum size of the buffers which are shared by all subpartitions (broadcast), i.e. the
+	 * smallest buffer size desired by any of the subpartitions, see {@link ResultSubpartition#getDesiredBufferSize()}.
+	 */
+	default int getDesiredBroadcastBufferSize() {
+		return Integer.MAX_VALUE;
+	}
+}
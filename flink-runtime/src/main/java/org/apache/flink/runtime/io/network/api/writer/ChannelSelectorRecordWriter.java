@@ -29,13 +29,17 @@ import static org.apache.flink.util.Preconditions.checkState;
 /**
  * A regular record-oriented runtime result writer.
  *
- * <p>The ChannelSelectorRecordWriter extends the {@link RecordWriter} and maintains an array of
+ * <p>The ChannelSelectorRecordWriter extends the {@link BufferWritingRecordWriter} and maintains an array of
  * {@link BufferBuilder}s for all the channels. The {@link #emit(IOReadableWritable)}
  * operation is based on {@link ChannelSelector} to select the target channel.
  *
+ * <p>Records are serialized directly into the buffer of their target channel. Local input channels
+ * read that buffer as a slice of the same memory segment, so a record which fits into the buffer
+ * is handed over to a consumer in the same TaskManager without being copied after serialization.
+ *
  * @param <T> the type of the record that can be emitted with this record writer
  */
-public final class ChannelSelectorRecordWriter<T extends IOReadableWritable> extends RecordWriter<T> {
+public final class ChannelSelectorRecordWriter<T extends IOReadableWritable> extends BufferWritingRecordWriter<T> {
 
 	private final ChannelSelector<T> channelSelector;
 
@@ -43,7 +47,7 @@ public final class ChannelSelectorRecordWriter<T extends IOReadableWritable> ext
 	private final BufferBuilder[] bufferBuilders;
 
 	ChannelSelectorRecordWriter(
-			ResultPartitionWriter writer,
+			BufferWritingResultPartitionWriter writer,
 			ChannelSelector<T> channelSelector,
 			long timeout,
 			String taskName) {
@@ -57,7 +61,23 @@ public final class ChannelSelectorRecordWriter<T extends IOReadableWritable> ext
 
 	@Override
 	public void emit(T record) throws IOException, InterruptedException {
-		emit(record, channelSelector.selectChannel(record));
+		checkErroneous();
+
+		emitDirectly(record, channelSelector.selectChannel(record));
+	}
+
+	/**
+	 * Like {@link #emit(IOReadableWritable)}, the records are serialized directly into the buffers of
+	 * their target channels, apart from the records which have to be spanned over multiple buffers.
+	 * The flusher errors are only checked once per batch.
+	 */
+	@Override
+	public void emitAll(Iterable<T> records) throws IOException, InterruptedException {
+		checkErroneous();
+
+		for (T record : records) {
+			emitDirectly(record, channelSelector.selectChannel(record));
+		}
 	}
 
 	@Override
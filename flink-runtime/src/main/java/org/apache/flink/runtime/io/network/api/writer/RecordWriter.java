@@ -29,7 +29,6 @@ import org.apache.flink.runtime.io.AvailabilityProvider;
 import org.apache.flink.runtime.io.network.api.serialization.EventSerializer;
 import org.apache.flink.runtime.io.network.api.serialization.RecordSerializer;
 import org.apache.flink.runtime.io.network.api.serialization.SpanningRecordSerializer;
-import org.apache.flink.runtime.io.network.buffer.BufferBuilder;
 import org.apache.flink.runtime.io.network.buffer.BufferConsumer;
 import org.apache.flink.runtime.metrics.groups.TaskIOMetricGroup;
 import org.apache.flink.util.XORShiftRandom;
@@ -43,15 +42,14 @@ import java.io.IOException;
 import java.util.Random;
 import java.util.concurrent.CompletableFuture;
 
-import static org.apache.flink.runtime.io.network.api.serialization.RecordSerializer.SerializationResult;
 import static org.apache.flink.util.Preconditions.checkArgument;
-import static org.apache.flink.util.Preconditions.checkState;
 
 /**
  * An abstract record-oriented runtime result writer.
  *
  * <p>The RecordWriter wraps the runtime's {@link ResultPartitionWriter} and takes care of
- * serializing records into buffers.
+ * serializing records. The {@link BufferWritingRecordWriter}s copy the serialized records into
+ * buffers of the partition, while the {@link SortMergeRecordWriter} hands them to the partition.
  *
  * <p><strong>Important</strong>: it is necessary to call {@link #flushAll()} after
  * all records have been written with {@link #emit(IOReadableWritable)}. This
@@ -76,13 +74,13 @@ public abstract class RecordWriter<T extends IOReadableWritable> implements Avai
 
 	protected final Random rng = new XORShiftRandom();
 
-	private Counter numBytesOut = new SimpleCounter();
+	protected Counter numBytesOut = new SimpleCounter();
 
-	private Counter numBuffersOut = new SimpleCounter();
+	protected Counter numBuffersOut = new SimpleCounter();
 
 	protected Meter idleTimeMsPerSecond = new MeterView(new SimpleCounter());
 
-	private final boolean flushAlways;
+	protected final boolean flushAlways;
 
 	/** The thread that periodically flushes the output, to give an upper latency bound. */
 	@Nullable
@@ -114,51 +112,10 @@ public abstract class RecordWriter<T extends IOReadableWritable> implements Avai
 		}
 	}
 
-	protected void emit(T record, int targetChannel) throws IOException, InterruptedException {
-		checkErroneous();
-
-		serializer.serializeRecord(record);
-
-		// Make sure we don't hold onto the large intermediate serialization buffer for too long
-		if (copyFromSerializerToTargetChannel(targetChannel)) {
-			serializer.prune();
-		}
-	}
-
 	/**
-	 * @param targetChannel
-	 * @return <tt>true</tt> if the intermediate serialization buffer should be pruned
+	 * This is used to send a regular record to the given target channel.
 	 */
-	protected boolean copyFromSerializerToTargetChannel(int targetChannel) throws IOException, InterruptedException {
-		// We should reset the initial position of the intermediate serialization buffer before
-		// copying, so the serialization results can be copied to multiple target buffers.
-		serializer.reset();
-
-		boolean pruneTriggered = false;
-		BufferBuilder bufferBuilder = getBufferBuilder(targetChannel);
-		SerializationResult result = serializer.copyToBufferBuilder(bufferBuilder);
-		while (result.isFullBuffer()) {
-			finishBufferBuilder(bufferBuilder);
-
-			// If this was a full record, we are done. Not breaking out of the loop at this point
-			// will lead to another buffer request before breaking out (that would not be a
-			// problem per se, but it can lead to stalls in the pipeline).
-			if (result.isFullRecord()) {
-				pruneTriggered = true;
-				emptyCurrentBufferBuilder(targetChannel);
-				break;
-			}
-
-			bufferBuilder = requestNewBufferBuilder(targetChannel);
-			result = serializer.copyToBufferBuilder(bufferBuilder);
-		}
-		checkState(!serializer.hasSerializedData(), "All data should be written at once");
-
-		if (flushAlways) {
-			flushTargetPartition(targetChannel);
-		}
-		return pruneTriggered;
-	}
+	protected abstract void emit(T record, int targetChannel) throws IOException, InterruptedException;
 
 	public void broadcastEvent(AbstractEvent event) throws IOException {
 		broadcastEvent(event, false);
@@ -167,8 +124,6 @@ public abstract class RecordWriter<T extends IOReadableWritable> implements Avai
 	public void broadcastEvent(AbstractEvent event, boolean isPriorityEvent) throws IOException {
 		try (BufferConsumer eventBufferConsumer = EventSerializer.toBufferConsumer(event)) {
 			for (int targetChannel = 0; targetChannel < numberOfChannels; targetChannel++) {
-				tryFinishCurrentBufferBuilder(targetChannel);
-
 				// Retain the buffer so that it can be recycled by each channel of targetPartition
 				targetPartition.addBufferConsumer(eventBufferConsumer.copy(), targetChannel, isPriorityEvent);
 			}
@@ -196,11 +151,6 @@ public abstract class RecordWriter<T extends IOReadableWritable> implements Avai
 		idleTimeMsPerSecond = metrics.getIdleTimeMsPerSecond();
 	}
 
-	protected void finishBufferBuilder(BufferBuilder bufferBuilder) {
-		numBytesOut.inc(bufferBuilder.finish());
-		numBuffersOut.inc();
-	}
-
 	@Override
 	public CompletableFuture<?> getAvailableFuture() {
 		return targetPartition.getAvailableFuture();
@@ -211,6 +161,16 @@ public abstract class RecordWriter<T extends IOReadableWritable> implements Avai
 	 */
 	public abstract void emit(T record) throws IOException, InterruptedException;
 
+	/**
+	 * This is used to send a batch of regular records. Implementations may serialize the records
+	 * directly into the target buffers, which is cheaper than emitting small records one by one.
+	 */
+	public void emitAll(Iterable<T> records) throws IOException, InterruptedException {
+		for (T record : records) {
+			emit(record);
+		}
+	}
+
 	/**
 	 * This is used to send LatencyMarks to a random target channel.
 	 */
@@ -222,28 +182,7 @@ public abstract class RecordWriter<T extends IOReadableWritable> implements Avai
 	public abstract void broadcastEmit(T record) throws IOException, InterruptedException;
 
 	/**
-	 * The {@link BufferBuilder} may already exist if not filled up last time, otherwise we need
-	 * request a new one for this target channel.
-	 */
-	abstract BufferBuilder getBufferBuilder(int targetChannel) throws IOException, InterruptedException;
-
-	/**
-	 * Marks the current {@link BufferBuilder} as finished if present and clears the state for next one.
-	 */
-	abstract void tryFinishCurrentBufferBuilder(int targetChannel);
-
-	/**
-	 * Marks the current {@link BufferBuilder} as empty for the target channel.
-	 */
-	abstract void emptyCurrentBufferBuilder(int targetChannel);
-
-	/**
-	 * Marks the current {@link BufferBuilder} as finished and releases the resources for the target channel.
-	 */
-	abstract void closeBufferBuilder(int targetChannel);
-
-	/**
-	 * Closes the {@link BufferBuilder}s for all the channels.
+	 * Releases the buffers which are held by this writer for all the channels.
 	 */
 	public abstract void clearBuffers();
 
@@ -289,23 +228,6 @@ public abstract class RecordWriter<T extends IOReadableWritable> implements Avai
 		}
 	}
 
-	protected void addBufferConsumer(BufferConsumer consumer, int targetChannel) throws IOException {
-		targetPartition.addBufferConsumer(consumer, targetChannel);
-	}
-
-	/**
-	 * Requests a new {@link BufferBuilder} for the target channel and returns it.
-	 */
-	public BufferBuilder requestNewBufferBuilder(int targetChannel) throws IOException, InterruptedException {
-		BufferBuilder builder = targetPartition.tryGetBufferBuilder(targetChannel);
-		if (builder == null) {
-			long start = System.currentTimeMillis();
-			builder = targetPartition.getBufferBuilder(targetChannel);
-			idleTimeMsPerSecond.markEvent(System.currentTimeMillis() - start);
-		}
-		return builder;
-	}
-
 	@VisibleForTesting
 	public Meter getIdleTimeMsPerSecond() {
 		return idleTimeMsPerSecond;
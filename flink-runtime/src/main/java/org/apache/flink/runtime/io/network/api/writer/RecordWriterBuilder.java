@@ -19,6 +19,9 @@
 package org.apache.flink.runtime.io.network.api.writer;
 
 import org.apache.flink.core.io.IOReadableWritable;
+import org.apache.flink.runtime.io.network.partition.SortMergeResultPartition;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
 
 /**
  * Utility class to encapsulate the logic of building a {@link RecordWriter} instance.
@@ -47,10 +50,19 @@ public class RecordWriterBuilder<T extends IOReadableWritable> {
 	}
 
 	public RecordWriter<T> build(ResultPartitionWriter writer) {
+		if (writer instanceof SortMergeResultPartition) {
+			return new SortMergeRecordWriter<>((SortMergeResultPartition) writer, selector, taskName);
+		}
+
+		checkArgument(
+			writer instanceof BufferWritingResultPartitionWriter,
+			"Unsupported result partition writer %s.",
+			writer);
+		final BufferWritingResultPartitionWriter bufferWriter = (BufferWritingResultPartitionWriter) writer;
 		if (selector.isBroadcast()) {
-			return new BroadcastRecordWriter<>(writer, timeout, taskName);
+			return new BroadcastRecordWriter<>(bufferWriter, timeout, taskName);
 		} else {
-			return new ChannelSelectorRecordWriter<>(writer, selector, timeout, taskName);
+			return new ChannelSelectorRecordWriter<>(bufferWriter, selector, timeout, taskName);
 		}
 	}
 }
@@ -20,7 +20,6 @@ package org.apache.flink.runtime.io.network.api.writer;
 
 import org.apache.flink.runtime.checkpoint.channel.ChannelStateReader;
 import org.apache.flink.runtime.io.AvailabilityProvider;
-import org.apache.flink.runtime.io.network.buffer.BufferBuilder;
 import org.apache.flink.runtime.io.network.buffer.BufferConsumer;
 import org.apache.flink.runtime.io.network.partition.ResultPartitionID;
 import org.apache.flink.runtime.io.network.partition.ResultSubpartition;
@@ -36,6 +35,9 @@ import java.io.IOException;
  * {@link ResultPartitionWriter#finish()}, it abruptly triggers failure and cancellation of production.
  * In this case {@link ResultPartitionWriter#fail(Throwable)} still needs to be called afterwards to fully release
  * all resources associated the the partition and propagate failure cause to the consumer if possible.
+ *
+ * <p>Partitions which hand out a buffer per subpartition to write the records into implement
+ * {@link BufferWritingResultPartitionWriter}.
  */
 public interface ResultPartitionWriter extends AutoCloseable, AvailabilityProvider {
 
@@ -56,19 +58,6 @@ public interface ResultPartitionWriter extends AutoCloseable, AvailabilityProvid
 
 	int getNumTargetKeyGroups();
 
-	/**
-	 * Requests a {@link BufferBuilder} from this partition for writing data.
-	 */
-	BufferBuilder getBufferBuilder(int targetChannel) throws IOException, InterruptedException;
-
-
-	/**
-	 * Try to request a {@link BufferBuilder} from this partition for writing data.
-	 *
-	 * <p>Returns <code>null</code> if no buffer is available or the buffer provider has been destroyed.
-	 */
-	BufferBuilder tryGetBufferBuilder(int targetChannel) throws IOException;
-
 	/**
 	 * Adds the bufferConsumer to the subpartition with the given index.
 	 *
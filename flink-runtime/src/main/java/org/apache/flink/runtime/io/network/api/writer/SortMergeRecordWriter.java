@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.api.writer;
+
+import org.apache.flink.core.io.IOReadableWritable;
+import org.apache.flink.runtime.io.network.buffer.BufferBuilder;
+import org.apache.flink.runtime.io.network.partition.SortMergeResultPartition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * A record-oriented runtime result writer for the {@link SortMergeResultPartition}.
+ *
+ * <p>Unlike the other writers, the SortMergeRecordWriter does not maintain any {@link BufferBuilder}:
+ * the serialized records are handed over to the shared sort buffer of the partition, so the
+ * memory used for writing does not depend on the number of channels.
+ *
+ * @param <T> the type of the record that can be emitted with this record writer
+ */
+public final class SortMergeRecordWriter<T extends IOReadableWritable> extends RecordWriter<T> {
+
+	private final SortMergeResultPartition partition;
+
+	private final ChannelSelector<T> channelSelector;
+
+	SortMergeRecordWriter(
+			SortMergeResultPartition partition,
+			ChannelSelector<T> channelSelector,
+			String taskName) {
+		// the data of a blocking partition can only be consumed once it is finished,
+		// so there is nothing to flush periodically
+		super(partition, -1, taskName);
+
+		this.partition = partition;
+		this.channelSelector = checkNotNull(channelSelector);
+		this.channelSelector.setup(numberOfChannels);
+	}
+
+	@Override
+	public void emit(T record) throws IOException, InterruptedException {
+		if (channelSelector.isBroadcast()) {
+			broadcastEmit(record);
+		} else {
+			emit(record, channelSelector.selectChannel(record));
+		}
+	}
+
+	@Override
+	protected void emit(T record, int targetChannel) throws IOException {
+		checkErroneous();
+
+		serializer.serializeRecord(record);
+		final ByteBuffer serializedRecord = serializer.getSerializedRecord();
+		numBytesOut.inc(serializedRecord.remaining());
+		partition.emitRecord(serializedRecord, targetChannel);
+
+		// Make sure we don't hold onto the large intermediate serialization buffer for too long
+		serializer.prune();
+	}
+
+	@Override
+	public void randomEmit(T record) throws IOException {
+		emit(record, rng.nextInt(numberOfChannels));
+	}
+
+	@Override
+	public void broadcastEmit(T record) throws IOException {
+		checkErroneous();
+
+		serializer.serializeRecord(record);
+		final ByteBuffer serializedRecord = serializer.getSerializedRecord();
+		numBytesOut.inc((long) serializedRecord.remaining() * numberOfChannels);
+		partition.broadcastRecord(serializedRecord);
+
+		serializer.prune();
+	}
+
+	/**
+	 * The records are handed over to the partition right away, there are no buffers to release.
+	 */
+	@Override
+	public void clearBuffers() {
+	}
+}
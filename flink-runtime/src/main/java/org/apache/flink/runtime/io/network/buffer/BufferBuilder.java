@@ -26,6 +26,7 @@ import javax.annotation.concurrent.ThreadSafe;
 
 import java.nio.ByteBuffer;
 
+import static org.apache.flink.util.Preconditions.checkArgument;
 import static org.apache.flink.util.Preconditions.checkNotNull;
 import static org.apache.flink.util.Preconditions.checkState;
 
@@ -41,11 +42,15 @@ public class BufferBuilder {
 
 	private final SettablePositionMarker positionMarker = new SettablePositionMarker();
 
+	/** The number of bytes which may be written, at most the size of the memory segment. */
+	private int maxCapacity;
+
 	private boolean bufferConsumerCreated = false;
 
 	public BufferBuilder(MemorySegment memorySegment, BufferRecycler recycler) {
 		this.memorySegment = checkNotNull(memorySegment);
 		this.recycler = checkNotNull(recycler);
+		this.maxCapacity = memorySegment.size();
 	}
 
 	/**
@@ -91,6 +96,18 @@ public class BufferBuilder {
 		return toCopy;
 	}
 
+	/**
+	 * Appends the given number of bytes which have been written directly into the {@link #getWritableMemorySegment()
+	 * memory segment}, starting at the current writer position. Like {@link #append(ByteBuffer)}, this does not
+	 * {@link #commit()} the appending.
+	 */
+	public void appendWritten(int numBytes) {
+		checkState(!isFinished());
+		checkArgument(numBytes >= 0 && numBytes <= getWritableBytes(), "Illegal number of written bytes.");
+
+		positionMarker.move(numBytes);
+	}
+
 	/**
 	 * Make the change visible to the readers. This is costly operation (volatile access) thus in case of bulk writes
 	 * it's better to commit them all together instead one by one.
@@ -132,7 +149,18 @@ public class BufferBuilder {
 	}
 
 	public int getMaxCapacity() {
-		return memorySegment.size();
+		return maxCapacity;
+	}
+
+	/**
+	 * Limits the number of bytes which can be written to this {@link BufferBuilder} to the given size,
+	 * but never below the number of bytes already written and never above the size of the underlying
+	 * {@link MemorySegment}. This allows to produce smaller buffers than the segments of the buffer pool.
+	 *
+	 * @param newSize the desired maximum number of bytes of this buffer.
+	 */
+	public void trim(int newSize) {
+		maxCapacity = Math.min(Math.max(newSize, positionMarker.getCached()), memorySegment.size());
 	}
 
 	@VisibleForTesting
@@ -140,6 +168,17 @@ public class BufferBuilder {
 		return recycler;
 	}
 
+	/**
+	 * Returns the underlying {@link MemorySegment} to serialize data directly into it, without the copy of
+	 * {@link #append(ByteBuffer)}. Data may only be written from the current writer position
+	 * ({@link #getCommittedBytes()}) up to {@link #getMaxCapacity()}, because the data before it may already be read
+	 * by the {@link BufferConsumer}. The written data only becomes part of the buffer with {@link #appendWritten(int)}.
+	 */
+	public MemorySegment getWritableMemorySegment() {
+		checkState(!isFinished());
+		return memorySegment;
+	}
+
 	@VisibleForTesting
 	public MemorySegment getMemorySegment() {
 		return memorySegment;
@@ -43,7 +43,7 @@ public class BufferCompressor {
 		checkNotNull(factoryName);
 		// the size of this intermediate heap buffer will be gotten from the
 		// plugin configuration in the future, and currently, double size of
-		// the input buffer is enough for lz4-java compression library.
+		// the input buffer is enough for all built-in compression codecs.
 		final byte[] heapBuffer = new byte[2 * bufferSize];
 		this.internalBuffer = new NetworkBuffer(MemorySegmentFactory.wrap(heapBuffer), FreeingBufferRecycler.INSTANCE);
 		this.blockCompressor = BlockCompressionFactory.createBlockCompressionFactory(factoryName).getCompressor();
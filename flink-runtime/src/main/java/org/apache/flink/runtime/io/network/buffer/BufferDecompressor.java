@@ -39,6 +39,9 @@ public class BufferDecompressor {
 	/** The intermediate buffer for the decompressed data. */
 	private final NetworkBuffer internalBuffer;
 
+	/** The name of the codec the buffers have been compressed with. */
+	private final String compressionCodec;
+
 	public BufferDecompressor(int bufferSize, String factoryName) {
 		checkArgument(bufferSize > 0);
 		checkNotNull(factoryName);
@@ -47,6 +50,21 @@ public class BufferDecompressor {
 		final byte[] heapBuffer = new byte[bufferSize];
 		this.internalBuffer = new NetworkBuffer(MemorySegmentFactory.wrap(heapBuffer), FreeingBufferRecycler.INSTANCE);
 		this.blockDecompressor = BlockCompressionFactory.createBlockCompressionFactory(factoryName).getDecompressor();
+		this.compressionCodec = factoryName;
+	}
+
+	/**
+	 * Returns the name of the codec this decompressor decompresses, e.g. to request buffers compressed with it.
+	 */
+	public String getCompressionCodec() {
+		return compressionCodec;
+	}
+
+	/**
+	 * Returns the size of the segments the decompressed data of a buffer is guaranteed to fit into.
+	 */
+	public int getMaxDecompressedSize() {
+		return internalBuffer.capacity();
 	}
 
 	/**
@@ -81,24 +99,53 @@ public class BufferDecompressor {
 		return new ReadOnlySlicedNetworkBuffer(buffer.asByteBuf(), 0, decompressedLen, memorySegmentOffset, false);
 	}
 
+	/**
+	 * Decompresses the given {@link Buffer} into the given target segment and returns a buffer of it, which is
+	 * recycled to the given recycler. Different from {@link #decompressToIntermediateBuffer(Buffer)}, the returned
+	 * {@link Buffer} is independent of this {@link BufferDecompressor}, so the caller can keep it as long as needed.
+	 * The input {@link Buffer} is left untouched.
+	 *
+	 * <p>The target segment must be at least {@link #getMaxDecompressedSize()} bytes large.
+	 */
+	public Buffer decompressToBuffer(Buffer buffer, MemorySegment target, BufferRecycler recycler) {
+		checkArgument(target.size() >= internalBuffer.capacity(), "The target segment is too small.");
+
+		final NetworkBuffer targetBuffer = new NetworkBuffer(target, recycler);
+		try {
+			targetBuffer.setSize(decompress(buffer, targetBuffer));
+		} catch (Throwable t) {
+			targetBuffer.recycleBuffer();
+			throw t;
+		}
+		return targetBuffer;
+	}
+
 	/**
 	 * Decompresses the input {@link Buffer} into the intermediate buffer and returns the decompressed data size.
 	 */
 	private int decompress(Buffer buffer) {
+		checkState(internalBuffer.refCnt() == 1, "Illegal reference count, buffer need to be released.");
+
+		return decompress(buffer, internalBuffer);
+	}
+
+	/**
+	 * Decompresses the input {@link Buffer} into the target buffer and returns the decompressed data size.
+	 */
+	private int decompress(Buffer buffer, NetworkBuffer targetBuffer) {
 		checkArgument(buffer != null, "The input buffer must not be null.");
 		checkArgument(buffer.isBuffer(), "Event can not be decompressed.");
 		checkArgument(buffer.isCompressed(), "Buffer not compressed.");
 		checkArgument(buffer.getReaderIndex() == 0, "Reader index of the input buffer must be 0.");
 		checkArgument(buffer.readableBytes() > 0, "No data to be decompressed.");
-		checkState(internalBuffer.refCnt() == 1, "Illegal reference count, buffer need to be released.");
 
 		int length = buffer.getSize();
-		// decompress the given buffer into the internal heap buffer
+		// decompress the given buffer into the target heap buffer
 		return blockDecompressor.decompress(
 			buffer.getNioBuffer(0, length),
 			0,
 			length,
-			internalBuffer.getNioBuffer(0, internalBuffer.capacity()),
+			targetBuffer.getNioBuffer(0, targetBuffer.capacity()),
 			0);
 	}
 }
@@ -301,6 +301,18 @@ class LocalBufferPool implements BufferPool {
 
 	@Nullable
 	private MemorySegment requestMemorySegment(int targetChannel) throws IOException {
+		MemorySegment segment = tryRequestMemorySegment(targetChannel);
+		if (segment == null && bufferPoolOwner != null) {
+			// The owner releases memory by recycling buffers to this pool, which must happen
+			// outside of the lock because the owner may hold its own locks while recycling.
+			bufferPoolOwner.releaseMemory(1);
+			segment = tryRequestMemorySegment(targetChannel);
+		}
+		return segment;
+	}
+
+	@Nullable
+	private MemorySegment tryRequestMemorySegment(int targetChannel) throws IOException {
 		MemorySegment segment = null;
 		synchronized (availableMemorySegments) {
 			returnExcessMemorySegments();
@@ -308,7 +320,6 @@ class LocalBufferPool implements BufferPool {
 			if (availableMemorySegments.isEmpty()) {
 				segment = requestMemorySegmentFromGlobal();
 			}
-			// segment may have been released by buffer pool owner
 			if (segment == null) {
 				segment = availableMemorySegments.poll();
 			}
@@ -347,10 +358,6 @@ class LocalBufferPool implements BufferPool {
 			}
 		}
 
-		if (bufferPoolOwner != null) {
-			bufferPoolOwner.releaseMemory(1);
-		}
-
 		return null;
 	}
 
@@ -20,6 +20,7 @@ package org.apache.flink.runtime.io.network.metrics;
 
 import org.apache.flink.metrics.Gauge;
 import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.runtime.io.network.partition.consumer.BufferDebloater;
 import org.apache.flink.runtime.io.network.partition.consumer.InputChannel;
 import org.apache.flink.runtime.io.network.partition.consumer.RemoteInputChannel;
 import org.apache.flink.runtime.io.network.partition.consumer.SingleInputGate;
@@ -190,4 +191,23 @@ public class InputGateMetrics {
 			group.gauge("avgQueueLen", metrics.getAvgQueueLenGauge());
 		}
 	}
+
+	/**
+	 * Registers the metrics of the buffer debloating of all given gates which debloat their
+	 * in-flight data, see {@link BufferDebloater}.
+	 */
+	public static void registerDebloatingMetrics(MetricGroup parent, SingleInputGate[] gates) {
+		for (int i = 0; i < gates.length; i++) {
+			final BufferDebloater debloater = gates[i].getBufferDebloater();
+			if (debloater == null) {
+				continue;
+			}
+
+			MetricGroup group = parent.addGroup(i);
+			group.gauge("debloatedBufferSize", (Gauge<Integer>) debloater::getBufferSize);
+			group.gauge("debloatedCredit", (Gauge<Integer>) debloater::getCredit);
+			group.gauge("debloatTargetBytes", (Gauge<Long>) debloater::getTargetInFlightBytes);
+			group.gauge("consumptionThroughput", (Gauge<Long>) debloater::getThroughput);
+		}
+	}
 }
@@ -22,6 +22,7 @@ import org.apache.flink.metrics.Gauge;
 import org.apache.flink.metrics.MetricGroup;
 import org.apache.flink.runtime.io.network.api.writer.ResultPartitionWriter;
 import org.apache.flink.runtime.io.network.buffer.NetworkBufferPool;
+import org.apache.flink.runtime.io.network.netty.NettyServerFlushMetrics;
 import org.apache.flink.runtime.io.network.partition.ResultPartition;
 import org.apache.flink.runtime.io.network.partition.consumer.InputGate;
 import org.apache.flink.runtime.io.network.partition.consumer.SingleInputGate;
@@ -49,6 +50,13 @@ public class NettyShuffleMetricFactory {
 	private static final String METRIC_TOTAL_MEMORY_SEGMENT = "TotalMemorySegments";
 	private static final String METRIC_AVAILABLE_MEMORY_SEGMENT = "AvailableMemorySegments";
 
+	// netty server metrics: Shuffle.Netty.Server.*
+
+	private static final String METRIC_GROUP_SERVER = "Server";
+	private static final String METRIC_NUM_FLUSHES = "numFlushes";
+	private static final String METRIC_NUM_BYTES_FLUSHED = "numBytesFlushed";
+	private static final String METRIC_AVG_BYTES_PER_FLUSH = "avgBytesPerFlush";
+
 	// task level metric group structure: Shuffle.Netty.<Input|Output>.Buffers
 
 	private static final String METRIC_GROUP_SHUFFLE = "Shuffle";
@@ -94,6 +102,24 @@ public class NettyShuffleMetricFactory {
 			networkBufferPool::getNumberOfAvailableMemorySegments);
 	}
 
+	/**
+	 * Registers the flush metrics of the netty server, which are shared by all its connections.
+	 */
+	public static void registerNettyServerMetrics(
+			MetricGroup metricGroup,
+			NettyServerFlushMetrics flushMetrics) {
+		checkNotNull(metricGroup);
+		checkNotNull(flushMetrics);
+
+		MetricGroup serverGroup = metricGroup
+			.addGroup(METRIC_GROUP_SHUFFLE)
+			.addGroup(METRIC_GROUP_NETTY)
+			.addGroup(METRIC_GROUP_SERVER);
+		serverGroup.<Long, Gauge<Long>>gauge(METRIC_NUM_FLUSHES, flushMetrics::getNumFlushes);
+		serverGroup.<Long, Gauge<Long>>gauge(METRIC_NUM_BYTES_FLUSHED, flushMetrics::getNumBytesFlushed);
+		serverGroup.<Double, Gauge<Double>>gauge(METRIC_AVG_BYTES_PER_FLUSH, flushMetrics::getAverageBytesPerFlush);
+	}
+
 	public static MetricGroup createShuffleIOOwnerMetricGroup(MetricGroup parentGroup) {
 		return parentGroup.addGroup(METRIC_GROUP_SHUFFLE).addGroup(METRIC_GROUP_NETTY);
 	}
@@ -150,6 +176,7 @@ public class NettyShuffleMetricFactory {
 		if (isDetailedMetrics) {
 			ResultPartitionMetrics.registerQueueLengthMetrics(outputGroup, resultPartitions);
 		}
+		ResultPartitionMetrics.registerCompressionMetrics(outputGroup, resultPartitions);
 		buffersGroup.gauge(METRIC_OUTPUT_QUEUE_LENGTH, new OutputBuffersGauge(resultPartitions));
 		buffersGroup.gauge(METRIC_OUTPUT_POOL_USAGE, new OutputBufferPoolUsageGauge(resultPartitions));
 	}
@@ -173,6 +200,7 @@ public class NettyShuffleMetricFactory {
 		if (isDetailedMetrics) {
 			InputGateMetrics.registerQueueLengthMetrics(inputGroup, inputGates);
 		}
+		InputGateMetrics.registerDebloatingMetrics(inputGroup, inputGates);
 
 		buffersGroup.gauge(METRIC_INPUT_QUEUE_LENGTH, new InputBuffersGauge(inputGates));
 
@@ -20,6 +20,7 @@ package org.apache.flink.runtime.io.network.metrics;
 
 import org.apache.flink.metrics.Gauge;
 import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.runtime.io.network.partition.PipelinedBufferCompressor;
 import org.apache.flink.runtime.io.network.partition.ResultPartition;
 import org.apache.flink.runtime.io.network.partition.ResultSubpartition;
 
@@ -171,4 +172,21 @@ public class ResultPartitionMetrics {
 			group.gauge("avgQueueLen", metrics.getAvgQueueLenGauge());
 		}
 	}
+
+	/**
+	 * Registers the compression metrics of all given partitions which compress the buffers sent to
+	 * remote consumers, see {@link PipelinedBufferCompressor}.
+	 */
+	public static void registerCompressionMetrics(MetricGroup parent, ResultPartition[] partitions) {
+		for (int i = 0; i < partitions.length; i++) {
+			final PipelinedBufferCompressor compressor = partitions[i].getPipelinedBufferCompressor();
+			if (compressor == null) {
+				continue;
+			}
+
+			MetricGroup group = parent.addGroup(i);
+			group.gauge("compressionRatio", (Gauge<Double>) compressor::getCompressionRatio);
+			group.gauge("compressionTimeMs", (Gauge<Long>) compressor::getCompressionTimeMillis);
+		}
+	}
 }
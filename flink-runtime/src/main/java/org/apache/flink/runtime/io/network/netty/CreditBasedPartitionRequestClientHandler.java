@@ -24,6 +24,7 @@ import org.apache.flink.runtime.io.network.netty.exception.LocalTransportExcepti
 import org.apache.flink.runtime.io.network.netty.exception.RemoteTransportException;
 import org.apache.flink.runtime.io.network.netty.exception.TransportException;
 import org.apache.flink.runtime.io.network.netty.NettyMessage.AddCredit;
+import org.apache.flink.runtime.io.network.netty.NettyMessage.NewBufferSize;
 import org.apache.flink.runtime.io.network.netty.NettyMessage.ResumeConsumption;
 import org.apache.flink.runtime.io.network.partition.PartitionNotFoundException;
 import org.apache.flink.runtime.io.network.partition.consumer.InputChannelID;
@@ -121,6 +122,11 @@ class CreditBasedPartitionRequestClientHandler extends ChannelInboundHandlerAdap
 		ctx.executor().execute(() -> ctx.pipeline().fireUserEventTriggered(new ResumeConsumptionMessage(inputChannel)));
 	}
 
+	@Override
+	public void notifyNewBufferSize(RemoteInputChannel inputChannel, int bufferSize) {
+		ctx.executor().execute(() -> ctx.pipeline().fireUserEventTriggered(new NewBufferSizeMessage(inputChannel, bufferSize)));
+	}
+
 	// ------------------------------------------------------------------------
 	// Network events
 	// ------------------------------------------------------------------------
@@ -397,4 +403,19 @@ class CreditBasedPartitionRequestClientHandler extends ChannelInboundHandlerAdap
 			return new ResumeConsumption(inputChannel.getInputChannelId());
 		}
 	}
+
+	private static class NewBufferSizeMessage extends ClientOutboundMessage {
+
+		private final int bufferSize;
+
+		NewBufferSizeMessage(RemoteInputChannel inputChannel, int bufferSize) {
+			super(checkNotNull(inputChannel));
+			this.bufferSize = bufferSize;
+		}
+
+		@Override
+		Object buildMessage() {
+			return new NewBufferSize(bufferSize, inputChannel.getInputChannelId());
+		}
+	}
 }
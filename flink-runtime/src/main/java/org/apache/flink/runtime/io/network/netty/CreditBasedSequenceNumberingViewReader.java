@@ -29,6 +29,8 @@ import org.apache.flink.runtime.io.network.partition.consumer.InputChannel.Buffe
 import org.apache.flink.runtime.io.network.partition.consumer.InputChannelID;
 import org.apache.flink.runtime.io.network.partition.consumer.LocalInputChannel;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 
 /**
@@ -45,6 +47,10 @@ class CreditBasedSequenceNumberingViewReader implements BufferAvailabilityListen
 
 	private final PartitionRequestQueue requestQueue;
 
+	/** The codec the receiver can decompress buffers with, or null if it expects uncompressed buffers. */
+	@Nullable
+	private final String decompressionCodec;
+
 	private volatile ResultSubpartitionView subpartitionView;
 
 	/**
@@ -65,9 +71,18 @@ class CreditBasedSequenceNumberingViewReader implements BufferAvailabilityListen
 			InputChannelID receiverId,
 			int initialCredit,
 			PartitionRequestQueue requestQueue) {
+		this(receiverId, initialCredit, null, requestQueue);
+	}
+
+	CreditBasedSequenceNumberingViewReader(
+			InputChannelID receiverId,
+			int initialCredit,
+			@Nullable String decompressionCodec,
+			PartitionRequestQueue requestQueue) {
 
 		this.receiverId = receiverId;
 		this.numCreditsAvailable = initialCredit;
+		this.decompressionCodec = decompressionCodec;
 		this.requestQueue = requestQueue;
 	}
 
@@ -87,6 +102,8 @@ class CreditBasedSequenceNumberingViewReader implements BufferAvailabilityListen
 					resultPartitionId,
 					subPartitionIndex,
 					this);
+				// the buffers of this view are sent over the network
+				this.subpartitionView.notifyRemoteConsumer(decompressionCodec);
 			} else {
 				throw new IllegalStateException("Subpartition already requested");
 			}
@@ -103,6 +120,11 @@ class CreditBasedSequenceNumberingViewReader implements BufferAvailabilityListen
 		subpartitionView.resumeConsumption();
 	}
 
+	@Override
+	public void notifyNewBufferSize(int newBufferSize) {
+		subpartitionView.notifyNewBufferSize(newBufferSize);
+	}
+
 	@Override
 	public void setRegisteredAsAvailable(boolean isRegisteredAvailable) {
 		this.isRegisteredAsAvailable = isRegisteredAvailable;
@@ -94,6 +94,10 @@ public class NettyConfig {
 		return config.getInteger(NettyShuffleEnvironmentOptions.CONNECT_BACKLOG);
 	}
 
+	public int getServerMaxBytesPerFlush() {
+		return config.getInteger(NettyShuffleEnvironmentOptions.SERVER_MAX_BYTES_PER_FLUSH);
+	}
+
 	public int getNumberOfArenas() {
 		// default: number of slots
 		final int configValue = config.getInteger(NettyShuffleEnvironmentOptions.NUM_ARENAS);
@@ -172,7 +176,8 @@ public class NettyConfig {
 				"number of client threads: %d (%s), " +
 				"server connect backlog: %d (%s), " +
 				"client connect timeout (sec): %d, " +
-				"send/receive buffer size (bytes): %d (%s)]";
+				"send/receive buffer size (bytes): %d (%s), " +
+				"server max bytes per flush: %d]";
 
 		String def = "use Netty's default";
 		String man = "manual";
@@ -183,6 +188,7 @@ public class NettyConfig {
 				getClientNumThreads(), getClientNumThreads() == 0 ? def : man,
 				getServerConnectBacklog(), getServerConnectBacklog() == 0 ? def : man,
 				getClientConnectTimeoutSeconds(), getSendAndReceiveBufferSize(),
-				getSendAndReceiveBufferSize() == 0 ? def : man);
+				getSendAndReceiveBufferSize() == 0 ? def : man,
+				getServerMaxBytesPerFlush());
 	}
 }
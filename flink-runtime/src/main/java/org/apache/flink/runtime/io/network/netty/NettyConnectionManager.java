@@ -44,6 +44,14 @@ public class NettyConnectionManager implements ConnectionManager {
 		ResultPartitionProvider partitionProvider,
 		TaskEventPublisher taskEventPublisher,
 		NettyConfig nettyConfig) {
+		this(partitionProvider, taskEventPublisher, nettyConfig, new NettyServerFlushMetrics());
+	}
+
+	public NettyConnectionManager(
+		ResultPartitionProvider partitionProvider,
+		TaskEventPublisher taskEventPublisher,
+		NettyConfig nettyConfig,
+		NettyServerFlushMetrics serverFlushMetrics) {
 
 		this.server = new NettyServer(nettyConfig);
 		this.client = new NettyClient(nettyConfig);
@@ -51,7 +59,11 @@ public class NettyConnectionManager implements ConnectionManager {
 
 		this.partitionRequestClientFactory = new PartitionRequestClientFactory(client, nettyConfig.getNetworkRetries());
 
-		this.nettyProtocol = new NettyProtocol(checkNotNull(partitionProvider), checkNotNull(taskEventPublisher));
+		this.nettyProtocol = new NettyProtocol(
+			checkNotNull(partitionProvider),
+			checkNotNull(taskEventPublisher),
+			nettyConfig.getServerMaxBytesPerFlush(),
+			checkNotNull(serverFlushMetrics));
 	}
 
 	@Override
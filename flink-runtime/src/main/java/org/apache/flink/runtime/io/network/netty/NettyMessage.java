@@ -46,6 +46,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.ProtocolException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 import static org.apache.flink.util.Preconditions.checkArgument;
 import static org.apache.flink.util.Preconditions.checkNotNull;
@@ -246,6 +247,9 @@ public abstract class NettyMessage {
 					case ResumeConsumption.ID:
 						decodedMsg = ResumeConsumption.readFrom(msg);
 						break;
+					case NewBufferSize.ID:
+						decodedMsg = NewBufferSize.readFrom(msg);
+						break;
 					default:
 						throw new ProtocolException(
 							"Received unknown message from producer: " + msg);
@@ -500,11 +504,25 @@ public abstract class NettyMessage {
 
 		final int credit;
 
+		/** The codec the receiver can decompress buffers with, or null if it expects uncompressed buffers. */
+		@Nullable
+		final String decompressionCodec;
+
 		PartitionRequest(ResultPartitionID partitionId, int queueIndex, InputChannelID receiverId, int credit) {
+			this(partitionId, queueIndex, receiverId, credit, null);
+		}
+
+		PartitionRequest(
+				ResultPartitionID partitionId,
+				int queueIndex,
+				InputChannelID receiverId,
+				int credit,
+				@Nullable String decompressionCodec) {
 			this.partitionId = checkNotNull(partitionId);
 			this.queueIndex = queueIndex;
 			this.receiverId = checkNotNull(receiverId);
 			this.credit = credit;
+			this.decompressionCodec = decompressionCodec;
 		}
 
 		@Override
@@ -512,7 +530,11 @@ public abstract class NettyMessage {
 			ByteBuf result = null;
 
 			try {
-				result = allocateBuffer(allocator, ID, 20 + 24 + 4 + 16 + 4);
+				final byte[] codec = decompressionCodec == null
+					? null
+					: decompressionCodec.getBytes(StandardCharsets.UTF_8);
+
+				result = allocateBuffer(allocator, ID, 20 + 24 + 4 + 16 + 4 + 4 + (codec == null ? 0 : codec.length));
 
 				partitionId.getPartitionId().writeTo(result);
 				partitionId.getProducerId().writeTo(result);
@@ -520,6 +542,14 @@ public abstract class NettyMessage {
 				receiverId.writeTo(result);
 				result.writeInt(credit);
 
+				// the length of the codec name, -1 if the receiver does not decompress buffers
+				if (codec == null) {
+					result.writeInt(-1);
+				} else {
+					result.writeInt(codec.length);
+					result.writeBytes(codec);
+				}
+
 				return result;
 			}
 			catch (Throwable t) {
@@ -540,12 +570,20 @@ public abstract class NettyMessage {
 			InputChannelID receiverId = InputChannelID.fromByteBuf(buffer);
 			int credit = buffer.readInt();
 
-			return new PartitionRequest(partitionId, queueIndex, receiverId, credit);
+			String decompressionCodec = null;
+			int codecLength = buffer.readInt();
+			if (codecLength >= 0) {
+				byte[] codec = new byte[codecLength];
+				buffer.readBytes(codec);
+				decompressionCodec = new String(codec, StandardCharsets.UTF_8);
+			}
+
+			return new PartitionRequest(partitionId, queueIndex, receiverId, credit, decompressionCodec);
 		}
 
 		@Override
 		public String toString() {
-			return String.format("PartitionRequest(%s:%d:%d)", partitionId, queueIndex, credit);
+			return String.format("PartitionRequest(%s:%d:%d:%s)", partitionId, queueIndex, credit, decompressionCodec);
 		}
 	}
 
@@ -764,4 +802,54 @@ public abstract class NettyMessage {
 			return String.format("ResumeConsumption(%s)", receiverId);
 		}
 	}
+
+	/**
+	 * Announcement of the buffer size desired by the client to the server.
+	 */
+	static class NewBufferSize extends NettyMessage {
+
+		private static final byte ID = 8;
+
+		final int bufferSize;
+
+		final InputChannelID receiverId;
+
+		NewBufferSize(int bufferSize, InputChannelID receiverId) {
+			checkArgument(bufferSize > 0, "The announced buffer size should be greater than 0");
+			this.bufferSize = bufferSize;
+			this.receiverId = receiverId;
+		}
+
+		@Override
+		ByteBuf write(ByteBufAllocator allocator) throws IOException {
+			ByteBuf result = null;
+
+			try {
+				result = allocateBuffer(allocator, ID, 4 + 16);
+				result.writeInt(bufferSize);
+				receiverId.writeTo(result);
+
+				return result;
+			}
+			catch (Throwable t) {
+				if (result != null) {
+					result.release();
+				}
+
+				throw new IOException(t);
+			}
+		}
+
+		static NewBufferSize readFrom(ByteBuf buffer) {
+			int bufferSize = buffer.readInt();
+			InputChannelID receiverId = InputChannelID.fromByteBuf(buffer);
+
+			return new NewBufferSize(bufferSize, receiverId);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("NewBufferSize(%s : %d)", receiverId, bufferSize);
+		}
+	}
 }
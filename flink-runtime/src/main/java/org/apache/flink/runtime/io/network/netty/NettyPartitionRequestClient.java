@@ -110,7 +110,11 @@ public class NettyPartitionRequestClient implements PartitionRequestClient {
 		clientHandler.addInputChannel(inputChannel);
 
 		final PartitionRequest request = new PartitionRequest(
-				partitionId, subpartitionIndex, inputChannel.getInputChannelId(), inputChannel.getInitialCredit());
+				partitionId,
+				subpartitionIndex,
+				inputChannel.getInputChannelId(),
+				inputChannel.getInitialCredit(),
+				inputChannel.getDecompressionCodec());
 
 		final ChannelFutureListener listener = new ChannelFutureListener() {
 			@Override
@@ -180,6 +184,11 @@ public class NettyPartitionRequestClient implements PartitionRequestClient {
 		clientHandler.resumeConsumption(inputChannel);
 	}
 
+	@Override
+	public void notifyNewBufferSize(RemoteInputChannel inputChannel, int bufferSize) {
+		clientHandler.notifyNewBufferSize(inputChannel, bufferSize);
+	}
+
 	@Override
 	public void close(RemoteInputChannel inputChannel) throws IOException {
 
@@ -18,6 +18,7 @@
 
 package org.apache.flink.runtime.io.network.netty;
 
+import org.apache.flink.configuration.NettyShuffleEnvironmentOptions;
 import org.apache.flink.runtime.io.network.NetworkClientHandler;
 import org.apache.flink.runtime.io.network.TaskEventPublisher;
 import org.apache.flink.runtime.io.network.partition.ResultPartitionProvider;
@@ -35,9 +36,27 @@ public class NettyProtocol {
 	private final ResultPartitionProvider partitionProvider;
 	private final TaskEventPublisher taskEventPublisher;
 
+	private final int serverMaxBytesPerFlush;
+
+	private final NettyServerFlushMetrics serverFlushMetrics;
+
 	NettyProtocol(ResultPartitionProvider partitionProvider, TaskEventPublisher taskEventPublisher) {
+		this(
+			partitionProvider,
+			taskEventPublisher,
+			NettyShuffleEnvironmentOptions.SERVER_MAX_BYTES_PER_FLUSH.defaultValue(),
+			new NettyServerFlushMetrics());
+	}
+
+	NettyProtocol(
+			ResultPartitionProvider partitionProvider,
+			TaskEventPublisher taskEventPublisher,
+			int serverMaxBytesPerFlush,
+			NettyServerFlushMetrics serverFlushMetrics) {
 		this.partitionProvider = partitionProvider;
 		this.taskEventPublisher = taskEventPublisher;
+		this.serverMaxBytesPerFlush = serverMaxBytesPerFlush;
+		this.serverFlushMetrics = serverFlushMetrics;
 	}
 
 	/**
@@ -74,7 +93,7 @@ public class NettyProtocol {
 	 * @return channel handlers
 	 */
 	public ChannelHandler[] getServerChannelHandlers() {
-		PartitionRequestQueue queueOfPartitionQueues = new PartitionRequestQueue();
+		PartitionRequestQueue queueOfPartitionQueues = new PartitionRequestQueue(serverMaxBytesPerFlush, serverFlushMetrics);
 		PartitionRequestServerHandler serverHandler = new PartitionRequestServerHandler(
 			partitionProvider,
 			taskEventPublisher,
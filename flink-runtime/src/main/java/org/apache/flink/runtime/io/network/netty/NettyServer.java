@@ -120,6 +120,10 @@ class NettyServer {
 			bootstrap.option(ChannelOption.SO_BACKLOG, config.getServerConnectBacklog());
 		}
 
+		// Buffers are already batched by the partition request queue before flushing,
+		// so they should be sent without waiting for further data
+		bootstrap.childOption(ChannelOption.TCP_NODELAY, true);
+
 		// Receive and send buffer size
 		int receiveAndSendBufferSize = config.getSendAndReceiveBufferSize();
 		if (receiveAndSendBufferSize > 0) {
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.netty;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the flushes of the buffers written by the {@link PartitionRequestQueue}s of all connections
+ * of the netty server. Each flush hands the buffers written since the previous flush to the socket,
+ * usually with a single gathering write.
+ */
+public class NettyServerFlushMetrics {
+
+	private final LongAdder numFlushes = new LongAdder();
+
+	private final LongAdder numBytesFlushed = new LongAdder();
+
+	void onFlush(long numBytes) {
+		numFlushes.increment();
+		numBytesFlushed.add(numBytes);
+	}
+
+	/**
+	 * Returns the number of flushes of all connections so far.
+	 */
+	public long getNumFlushes() {
+		return numFlushes.sum();
+	}
+
+	/**
+	 * Returns the number of buffer bytes handed to the sockets of all connections so far.
+	 */
+	public long getNumBytesFlushed() {
+		return numBytesFlushed.sum();
+	}
+
+	/**
+	 * Returns the average number of buffer bytes handed to the socket per flush.
+	 */
+	public double getAverageBytesPerFlush() {
+		final long flushes = getNumFlushes();
+		return flushes == 0 ? 0.0 : (double) getNumBytesFlushed() / flushes;
+	}
+}
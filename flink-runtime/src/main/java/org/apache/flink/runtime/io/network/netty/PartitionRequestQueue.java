@@ -19,6 +19,7 @@
 package org.apache.flink.runtime.io.network.netty;
 
 import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.configuration.NettyShuffleEnvironmentOptions;
 import org.apache.flink.runtime.io.network.NetworkSequenceViewReader;
 import org.apache.flink.runtime.io.network.buffer.Buffer;
 import org.apache.flink.runtime.io.network.netty.NettyMessage.ErrorResponse;
@@ -44,6 +45,8 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.function.Consumer;
 
 import static org.apache.flink.runtime.io.network.netty.NettyMessage.BufferResponse;
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
 
 /**
  * A nonEmptyReader of partition queues, which listens for channel writability changed
@@ -55,6 +58,8 @@ class PartitionRequestQueue extends ChannelInboundHandlerAdapter {
 
 	private final ChannelFutureListener writeListener = new WriteAndFlushNextMessageIfPossibleListener();
 
+	private final ChannelFutureListener writeFailureListener = new WriteFailureListener();
+
 	/** The readers which are already enqueued available for transferring data. */
 	private final ArrayDeque<NetworkSequenceViewReader> availableReaders = new ArrayDeque<>();
 
@@ -65,6 +70,28 @@ class PartitionRequestQueue extends ChannelInboundHandlerAdapter {
 
 	private ChannelHandlerContext ctx;
 
+	/** The maximum number of buffer bytes written to the channel before it is flushed. */
+	private final int maxBytesPerFlush;
+
+	/** The flush counters shared by the queues of all connections of the server. */
+	private final NettyServerFlushMetrics flushMetrics;
+
+	/** The number of flushes of this connection, only accessed by the netty IO thread. */
+	private long numFlushes;
+
+	/** The number of buffer bytes flushed to this connection, only accessed by the netty IO thread. */
+	private long numBytesFlushed;
+
+	PartitionRequestQueue() {
+		this(NettyShuffleEnvironmentOptions.SERVER_MAX_BYTES_PER_FLUSH.defaultValue(), new NettyServerFlushMetrics());
+	}
+
+	PartitionRequestQueue(int maxBytesPerFlush, NettyServerFlushMetrics flushMetrics) {
+		checkArgument(maxBytesPerFlush >= 0, "Illegal maximum number of bytes per flush.");
+		this.maxBytesPerFlush = maxBytesPerFlush;
+		this.flushMetrics = checkNotNull(flushMetrics);
+	}
+
 	@Override
 	public void channelRegistered(final ChannelHandlerContext ctx) throws Exception {
 		if (this.ctx == null) {
@@ -164,6 +191,25 @@ class PartitionRequestQueue extends ChannelInboundHandlerAdapter {
 		}
 	}
 
+	/**
+	 * Notifies the reader of the given consumer of the buffer size desired by the consumer. The
+	 * reader is not enqueued, because the new size only applies to the buffers produced later.
+	 *
+	 * @param receiverId The input channel id to identify the consumer.
+	 * @param newBufferSize The buffer size desired by the consumer.
+	 */
+	void notifyNewBufferSize(InputChannelID receiverId, int newBufferSize) {
+		if (fatalError) {
+			return;
+		}
+
+		// the consumer may announce a new buffer size concurrently to the release of the reader
+		NetworkSequenceViewReader reader = allReaders.get(receiverId);
+		if (reader != null) {
+			reader.notifyNewBufferSize(newBufferSize);
+		}
+	}
+
 	@Override
 	public void userEventTriggered(ChannelHandlerContext ctx, Object msg) throws Exception {
 		// The user event triggered event loop callback is used for thread-safe
@@ -202,7 +248,13 @@ class PartitionRequestQueue extends ChannelInboundHandlerAdapter {
 		// input channel logic. You can think of this class acting as the input
 		// gate and the consumed views as the local input channels.
 
+		// Buffers which are available at the same time are written without a flush
+		// until the flush limit is reached, so that the transport can hand them to
+		// the socket with a single gathering write. Only the last message of such a
+		// batch is flushed, and its listener continues with the next batch.
 		BufferAndAvailability next = null;
+		BufferResponse pending = null;
+		long numBytesInBatch = 0;
 		try {
 			while (true) {
 				NetworkSequenceViewReader reader = pollAvailableReader();
@@ -210,7 +262,7 @@ class PartitionRequestQueue extends ChannelInboundHandlerAdapter {
 				// No queue with available data. We allow this here, because
 				// of the write callbacks that are executed after each write.
 				if (reader == null) {
-					return;
+					break;
 				}
 
 				next = reader.getNextBuffer();
@@ -239,18 +291,41 @@ class PartitionRequestQueue extends ChannelInboundHandlerAdapter {
 						reader.getSequenceNumber(),
 						reader.getReceiverId(),
 						next.buffersInBacklog());
+					next = null;
+
+					// the new message is released by us until it is written, the previous one
+					// is owned (and released on failure) by netty as soon as it is written
+					final BufferResponse previous = pending;
+					pending = msg;
+					numBytesInBatch += msg.bufferSize;
+					if (previous != null) {
+						channel.write(previous).addListener(writeFailureListener);
+					}
 
-					// Write and flush and wait until this is done before
-					// trying to continue with the next buffer.
-					channel.writeAndFlush(msg).addListener(writeListener);
-
-					return;
+					if (numBytesInBatch >= maxBytesPerFlush || !channel.isWritable()) {
+						break;
+					}
 				}
 			}
+
+			if (pending != null) {
+				numFlushes++;
+				numBytesFlushed += numBytesInBatch;
+				flushMetrics.onFlush(numBytesInBatch);
+
+				// Write and flush and wait until this is done before
+				// trying to continue with the next buffers.
+				BufferResponse last = pending;
+				pending = null;
+				channel.writeAndFlush(last).addListener(writeListener);
+			}
 		} catch (Throwable t) {
 			if (next != null) {
 				next.buffer().recycleBuffer();
 			}
+			if (pending != null) {
+				pending.releaseBuffer();
+			}
 
 			throw new IOException(t.getMessage(), t);
 		}
@@ -272,6 +347,11 @@ class PartitionRequestQueue extends ChannelInboundHandlerAdapter {
 
 	@Override
 	public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Channel {} flushed {} bytes of buffers with {} flushes ({} bytes per flush).",
+				ctx.channel(), numBytesFlushed, numFlushes, numFlushes == 0 ? 0 : numBytesFlushed / numFlushes);
+		}
+
 		releaseAllResources();
 
 		ctx.fireChannelInactive();
@@ -328,4 +408,19 @@ class PartitionRequestQueue extends ChannelInboundHandlerAdapter {
 			}
 		}
 	}
+
+	// This listener is called after a message, which was written without a flush as part
+	// of a batch, has been flushed. The last message of the batch triggers the further
+	// processing, so only failures are handled here.
+	private class WriteFailureListener implements ChannelFutureListener {
+
+		@Override
+		public void operationComplete(ChannelFuture future) throws Exception {
+			if (!future.isSuccess() && !fatalError) {
+				handleException(
+					future.channel(),
+					future.cause() != null ? future.cause() : new IllegalStateException("Sending cancelled by user."));
+			}
+		}
+	}
 }
@@ -23,6 +23,7 @@ import org.apache.flink.runtime.io.network.TaskEventPublisher;
 import org.apache.flink.runtime.io.network.netty.NettyMessage.AddCredit;
 import org.apache.flink.runtime.io.network.netty.NettyMessage.CancelPartitionRequest;
 import org.apache.flink.runtime.io.network.netty.NettyMessage.CloseRequest;
+import org.apache.flink.runtime.io.network.netty.NettyMessage.NewBufferSize;
 import org.apache.flink.runtime.io.network.netty.NettyMessage.ResumeConsumption;
 import org.apache.flink.runtime.io.network.partition.PartitionNotFoundException;
 import org.apache.flink.runtime.io.network.partition.ResultPartitionProvider;
@@ -88,6 +89,7 @@ class PartitionRequestServerHandler extends SimpleChannelInboundHandler<NettyMes
 					reader = new CreditBasedSequenceNumberingViewReader(
 						request.receiverId,
 						request.credit,
+						request.decompressionCodec,
 						outboundQueue);
 
 					reader.requestSubpartitionView(
@@ -123,6 +125,10 @@ class PartitionRequestServerHandler extends SimpleChannelInboundHandler<NettyMes
 				ResumeConsumption request = (ResumeConsumption) msg;
 
 				outboundQueue.addCreditOrResumeConsumption(request.receiverId, NetworkSequenceViewReader::resumeConsumption);
+			} else if (msgClazz == NewBufferSize.class) {
+				NewBufferSize request = (NewBufferSize) msg;
+
+				outboundQueue.notifyNewBufferSize(request.receiverId, request.bufferSize);
 			} else {
 				LOG.warn("Received unexpected client request: {}", msg);
 			}
@@ -33,6 +33,15 @@ public interface BufferAvailabilityListener {
 	 */
 	void notifyDataAvailable();
 
+	/**
+	 * Returns the number of finished buffers after which the listener wants to be notified. Larger
+	 * values save notifications at the cost of latency; explicit flushes, events and the end of the
+	 * data are notified regardless.
+	 */
+	default int getNotificationBatchSize() {
+		return 1;
+	}
+
 	/**
 	 * Allows the listener to react to a priority event before it is added to the outgoing buffer queue.
 	 *
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import org.apache.flink.runtime.io.network.api.writer.BufferWritingResultPartitionWriter;
+import org.apache.flink.runtime.io.network.buffer.BufferBuilder;
+import org.apache.flink.runtime.io.network.buffer.BufferCompressor;
+import org.apache.flink.runtime.io.network.buffer.BufferPool;
+import org.apache.flink.runtime.io.network.buffer.BufferPoolOwner;
+import org.apache.flink.util.function.FunctionWithException;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+
+/**
+ * A {@link ResultPartition} which hands out a {@link BufferBuilder} from its {@link BufferPool} per
+ * subpartition. The finished buffers are added to the {@link ResultSubpartition}s, which either keep
+ * them in memory until they are consumed or write them to a file of their own.
+ */
+public class BufferWritingResultPartition extends ResultPartition implements BufferWritingResultPartitionWriter {
+
+	public BufferWritingResultPartition(
+		String owningTaskName,
+		int partitionIndex,
+		ResultPartitionID partitionId,
+		ResultPartitionType partitionType,
+		ResultSubpartition[] subpartitions,
+		int numTargetKeyGroups,
+		ResultPartitionManager partitionManager,
+		@Nullable BufferCompressor bufferCompressor,
+		FunctionWithException<BufferPoolOwner, BufferPool, IOException> bufferPoolFactory) {
+
+		this(
+			owningTaskName,
+			partitionIndex,
+			partitionId,
+			partitionType,
+			subpartitions,
+			numTargetKeyGroups,
+			partitionManager,
+			bufferCompressor,
+			null,
+			bufferPoolFactory);
+	}
+
+	public BufferWritingResultPartition(
+		String owningTaskName,
+		int partitionIndex,
+		ResultPartitionID partitionId,
+		ResultPartitionType partitionType,
+		ResultSubpartition[] subpartitions,
+		int numTargetKeyGroups,
+		ResultPartitionManager partitionManager,
+		@Nullable BufferCompressor bufferCompressor,
+		@Nullable PipelinedBufferCompressor pipelinedBufferCompressor,
+		FunctionWithException<BufferPoolOwner, BufferPool, IOException> bufferPoolFactory) {
+
+		super(
+			owningTaskName,
+			partitionIndex,
+			partitionId,
+			partitionType,
+			subpartitions,
+			numTargetKeyGroups,
+			partitionManager,
+			bufferCompressor,
+			pipelinedBufferCompressor,
+			bufferPoolFactory);
+	}
+
+	@Override
+	public BufferBuilder getBufferBuilder(int targetChannel) throws IOException, InterruptedException {
+		checkInProduceState();
+
+		final BufferPool bufferPool = getBufferPool();
+		BufferBuilder bufferBuilder = bufferPool.requestBufferBuilder(targetChannel);
+		if (bufferBuilder == null) {
+			notifyHeldBackBuffers();
+			bufferBuilder = bufferPool.requestBufferBuilderBlocking(targetChannel);
+		}
+		bufferBuilder.trim(subpartitions[targetChannel].getDesiredBufferSize());
+		return bufferBuilder;
+	}
+
+	@Override
+	public BufferBuilder tryGetBufferBuilder(int targetChannel) throws IOException {
+		BufferBuilder bufferBuilder = getBufferPool().requestBufferBuilder(targetChannel);
+		if (bufferBuilder != null) {
+			bufferBuilder.trim(subpartitions[targetChannel].getDesiredBufferSize());
+		}
+		return bufferBuilder;
+	}
+
+	@Override
+	public int getDesiredBroadcastBufferSize() {
+		int desiredBufferSize = Integer.MAX_VALUE;
+		for (ResultSubpartition subpartition : subpartitions) {
+			desiredBufferSize = Math.min(desiredBufferSize, subpartition.getDesiredBufferSize());
+		}
+		return desiredBufferSize;
+	}
+}
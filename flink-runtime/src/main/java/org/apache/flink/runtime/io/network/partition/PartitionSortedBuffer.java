@@ -0,0 +1,418 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.runtime.io.network.buffer.BufferProvider;
+import org.apache.flink.runtime.io.network.buffer.BufferRecycler;
+import org.apache.flink.runtime.io.network.buffer.NetworkBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkElementIndex;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * The sort buffer of a {@link SortMergeResultPartition}. It collects the serialized records and
+ * events of all subpartitions in one shared set of network buffers and hands them out again
+ * ordered by subpartition index, so that they can be spilled as one region of the
+ * {@link PartitionedFile}.
+ *
+ * <p>The records are appended in their arrival order, each preceded by an index entry which holds
+ * the length and the data type of the record and the address of the index entry of the next record
+ * of the same subpartition. The records of every subpartition thus form a linked list, and reading
+ * them out by subpartition does not require to move any data. Apart from the first and last index
+ * entry address of every subpartition, the memory used does not depend on the number of
+ * subpartitions.
+ *
+ * <p>A broadcast record is appended only once and linked into a separate broadcast list. When the
+ * data of a subpartition is read, its own list and the broadcast list are merged by address, which
+ * is the arrival order, so the broadcast records are fanned out to all subpartitions on read.
+ *
+ * <p>An address is the position in the concatenation of all buffers of the sort buffer. Index
+ * entries never span two buffers, the record data may span any number of buffers.
+ *
+ * <p>This class is not thread-safe, the owning partition guards all accesses.
+ */
+final class PartitionSortedBuffer {
+
+	/** Size of an index entry: the record length (int), the data type (int) and the next address (long). */
+	static final int INDEX_ENTRY_SIZE = 4 + 4 + 8;
+
+	/** The provider to request the buffers of this sort buffer from. */
+	private final BufferProvider bufferProvider;
+
+	/** The buffers holding the index entries and records, kept until the sort buffer is released. */
+	private final ArrayList<Buffer> buffers = new ArrayList<>();
+
+	/** Maximum number of buffers this sort buffer may request. */
+	private final int maxNumBuffers;
+
+	/** Size of each buffer. */
+	private final int bufferSize;
+
+	/** Number of subpartitions, which is also the index of the broadcast list in the address arrays. */
+	private final int numSubpartitions;
+
+	/** Address of the first index entry of each subpartition and of the broadcast list, -1 if there is no data. */
+	private final long[] firstIndexEntryAddresses;
+
+	/** Address of the last index entry of each subpartition and of the broadcast list, -1 if there is no data. */
+	private final long[] lastIndexEntryAddresses;
+
+	/** Address at which the next index entry is written. */
+	private long writeAddress;
+
+	/** Number of records and events appended since the last reset. */
+	private long numRecords;
+
+	/** Number of bytes of the records and events appended since the last reset. */
+	private long numBytes;
+
+	/** Whether the appending has finished and the data is being read. */
+	private boolean isFinished;
+
+	/** Subpartition whose data is read next, equal to the number of subpartitions when all data is read. */
+	private int readSubpartition;
+
+	/** Address of the index entry of the record which is read next (or currently). */
+	private long readIndexEntryAddress;
+
+	/** Whether the record which is read next (or currently) is a broadcast record. */
+	private boolean isReadingBroadcastRecord;
+
+	/** Address of the index entry of the next not yet read record of the read subpartition's own list, or -1. */
+	private long nextOwnIndexEntryAddress;
+
+	/** Address of the index entry of the next broadcast record not yet read for the read subpartition, or -1. */
+	private long nextBroadcastIndexEntryAddress;
+
+	/** Address of the not yet read data of the current record. */
+	private long recordReadAddress;
+
+	/** Number of not yet read bytes of the current record, 0 if no record was started. */
+	private int recordRemainingBytes;
+
+	/** Whether the sort buffer has been released. */
+	private boolean isReleased;
+
+	PartitionSortedBuffer(BufferProvider bufferProvider, int numSubpartitions, int bufferSize, int maxNumBuffers) {
+		checkArgument(numSubpartitions > 0, "The number of subpartitions must be positive.");
+		checkArgument(bufferSize > INDEX_ENTRY_SIZE, "The buffer size must be larger than an index entry.");
+		checkArgument(maxNumBuffers > 0, "The maximum number of buffers must be positive.");
+
+		this.bufferProvider = checkNotNull(bufferProvider);
+		this.bufferSize = bufferSize;
+		this.maxNumBuffers = maxNumBuffers;
+		this.numSubpartitions = numSubpartitions;
+		this.firstIndexEntryAddresses = new long[numSubpartitions + 1];
+		this.lastIndexEntryAddresses = new long[numSubpartitions + 1];
+
+		reset();
+	}
+
+	// ------------------------------------------------------------------------
+	//  Appending
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Appends the remaining bytes of the given source as one record of the given data type to the
+	 * given subpartition.
+	 *
+	 * @return <tt>false</tt> if the record does not fit into the sort buffer, in which case nothing
+	 * 		   was appended and the source is not consumed.
+	 */
+	boolean append(ByteBuffer source, int subpartitionIndex, Buffer.DataType dataType) throws IOException {
+		checkElementIndex(subpartitionIndex, numSubpartitions, "Subpartition not found.");
+
+		return appendToList(source, subpartitionIndex, dataType);
+	}
+
+	/**
+	 * Appends the remaining bytes of the given source as one record of the given data type to all
+	 * subpartitions. The record is only stored once.
+	 *
+	 * @return <tt>false</tt> if the record does not fit into the sort buffer, in which case nothing
+	 * 		   was appended and the source is not consumed.
+	 */
+	boolean appendBroadcast(ByteBuffer source, Buffer.DataType dataType) throws IOException {
+		return appendToList(source, numSubpartitions, dataType);
+	}
+
+	private boolean appendToList(ByteBuffer source, int listIndex, Buffer.DataType dataType) throws IOException {
+		checkState(!isFinished, "Sort buffer is already finished.");
+		checkState(!isReleased, "Sort buffer is already released.");
+
+		final int numRecordBytes = source.remaining();
+
+		// index entries never span two buffers
+		long indexEntryAddress = writeAddress;
+		final int remainingInBuffer = bufferSize - getOffset(indexEntryAddress);
+		if (remainingInBuffer < INDEX_ENTRY_SIZE) {
+			indexEntryAddress += remainingInBuffer;
+		}
+
+		final long recordAddress = indexEntryAddress + INDEX_ENTRY_SIZE;
+		if (!allocateBuffers(recordAddress + numRecordBytes)) {
+			return false;
+		}
+
+		final MemorySegment indexSegment = getSegment(indexEntryAddress);
+		final int indexOffset = getOffset(indexEntryAddress);
+		indexSegment.putInt(indexOffset, numRecordBytes);
+		indexSegment.putInt(indexOffset + 4, dataType.ordinal());
+		indexSegment.putLong(indexOffset + 8, -1L);
+
+		final long lastIndexEntryAddress = lastIndexEntryAddresses[listIndex];
+		if (lastIndexEntryAddress < 0) {
+			firstIndexEntryAddresses[listIndex] = indexEntryAddress;
+		} else {
+			getSegment(lastIndexEntryAddress).putLong(getOffset(lastIndexEntryAddress) + 8, indexEntryAddress);
+		}
+		lastIndexEntryAddresses[listIndex] = indexEntryAddress;
+
+		long address = recordAddress;
+		while (source.hasRemaining()) {
+			final int offset = getOffset(address);
+			final int numBytes = Math.min(bufferSize - offset, source.remaining());
+			getSegment(address).put(offset, source, numBytes);
+			address += numBytes;
+		}
+
+		writeAddress = address;
+		numRecords++;
+		numBytes += numRecordBytes;
+		return true;
+	}
+
+	private boolean allocateBuffers(long endAddress) throws IOException {
+		while ((long) buffers.size() * bufferSize < endAddress) {
+			if (buffers.size() >= maxNumBuffers) {
+				return false;
+			}
+
+			final Buffer buffer = bufferProvider.requestBuffer();
+			if (buffer == null) {
+				return false;
+			}
+			buffers.add(buffer);
+		}
+		return true;
+	}
+
+	/**
+	 * Finishes the appending. Afterwards, the data can be read with {@link #copyIntoSegment}.
+	 */
+	void finish() {
+		checkState(!isFinished, "Sort buffer is already finished.");
+
+		isFinished = true;
+		readSubpartition = -1;
+		moveToNextSubpartition();
+	}
+
+	// ------------------------------------------------------------------------
+	//  Reading
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Whether there is data left to read with {@link #copyIntoSegment}.
+	 */
+	boolean hasRemaining() {
+		return isFinished && readSubpartition < numSubpartitions;
+	}
+
+	/**
+	 * Returns the subpartition of the data which is copied by the next {@link #copyIntoSegment} call.
+	 */
+	int getReadSubpartition() {
+		checkState(hasRemaining(), "No data remaining.");
+		return readSubpartition;
+	}
+
+	/**
+	 * Copies the next data of the subpartition returned by {@link #getReadSubpartition()} into the
+	 * given target segment and returns it as buffer. A buffer holds data of a single subpartition
+	 * only, and an event is always copied into a buffer of its own. Records may be split over
+	 * multiple buffers.
+	 */
+	Buffer copyIntoSegment(MemorySegment target, BufferRecycler recycler) {
+		checkState(hasRemaining(), "No data remaining.");
+		checkState(!isReleased, "Sort buffer is already released.");
+
+		Buffer.DataType bufferDataType = Buffer.DataType.DATA_BUFFER;
+		int numBytesCopied = 0;
+		while (numBytesCopied < target.size()) {
+			final MemorySegment indexSegment = getSegment(readIndexEntryAddress);
+			final int indexOffset = getOffset(readIndexEntryAddress);
+
+			if (recordRemainingBytes == 0) {
+				final int length = indexSegment.getInt(indexOffset);
+				final Buffer.DataType dataType = Buffer.DataType.values()[indexSegment.getInt(indexOffset + 4)];
+				if (!dataType.isBuffer()) {
+					if (numBytesCopied > 0) {
+						break;
+					}
+					checkState(length <= target.size(), "Event does not fit into one buffer.");
+				}
+
+				bufferDataType = dataType;
+				recordRemainingBytes = length;
+				recordReadAddress = readIndexEntryAddress + INDEX_ENTRY_SIZE;
+			}
+
+			numBytesCopied += copyRecordData(target, numBytesCopied);
+			if (recordRemainingBytes > 0) {
+				// the target is full
+				break;
+			}
+
+			if (!moveToNextRecord(indexSegment.getLong(indexOffset + 8))) {
+				moveToNextSubpartition();
+				break;
+			}
+
+			if (!bufferDataType.isBuffer()) {
+				break;
+			}
+		}
+
+		return new NetworkBuffer(target, recycler, bufferDataType, numBytesCopied);
+	}
+
+	private int copyRecordData(MemorySegment target, int targetOffset) {
+		int numBytesCopied = 0;
+		while (recordRemainingBytes > 0 && targetOffset + numBytesCopied < target.size()) {
+			final int offset = getOffset(recordReadAddress);
+			final int numBytes = Math.min(
+				Math.min(recordRemainingBytes, bufferSize - offset),
+				target.size() - targetOffset - numBytesCopied);
+
+			getSegment(recordReadAddress).copyTo(offset, target, targetOffset + numBytesCopied, numBytes);
+			recordReadAddress += numBytes;
+			recordRemainingBytes -= numBytes;
+			numBytesCopied += numBytes;
+		}
+		return numBytesCopied;
+	}
+
+	/**
+	 * Advances the list of the current record to the given next index entry address and selects the
+	 * record which is read next for the current subpartition.
+	 *
+	 * @return <tt>false</tt> if there is no record left for the current subpartition.
+	 */
+	private boolean moveToNextRecord(long nextIndexEntryAddress) {
+		if (isReadingBroadcastRecord) {
+			nextBroadcastIndexEntryAddress = nextIndexEntryAddress;
+		} else {
+			nextOwnIndexEntryAddress = nextIndexEntryAddress;
+		}
+		return selectNextRecord();
+	}
+
+	private boolean selectNextRecord() {
+		if (nextOwnIndexEntryAddress < 0 && nextBroadcastIndexEntryAddress < 0) {
+			return false;
+		}
+
+		// the addresses grow with the arrival order of the records
+		isReadingBroadcastRecord = nextOwnIndexEntryAddress < 0
+			|| (nextBroadcastIndexEntryAddress >= 0 && nextBroadcastIndexEntryAddress < nextOwnIndexEntryAddress);
+		readIndexEntryAddress = isReadingBroadcastRecord ? nextBroadcastIndexEntryAddress : nextOwnIndexEntryAddress;
+		return true;
+	}
+
+	private void moveToNextSubpartition() {
+		while (++readSubpartition < numSubpartitions) {
+			nextOwnIndexEntryAddress = firstIndexEntryAddresses[readSubpartition];
+			nextBroadcastIndexEntryAddress = firstIndexEntryAddresses[numSubpartitions];
+			if (selectNextRecord()) {
+				return;
+			}
+		}
+	}
+
+	// ------------------------------------------------------------------------
+	//  Life-cycle
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Discards all appended data, but keeps the requested buffers for the next records.
+	 */
+	void reset() {
+		checkState(!isReleased, "Sort buffer is already released.");
+
+		Arrays.fill(firstIndexEntryAddresses, -1L);
+		Arrays.fill(lastIndexEntryAddresses, -1L);
+		writeAddress = 0;
+		numRecords = 0;
+		numBytes = 0;
+		isFinished = false;
+		readSubpartition = numSubpartitions;
+		recordRemainingBytes = 0;
+	}
+
+	/**
+	 * Recycles all buffers. The sort buffer can not be used anymore afterwards.
+	 */
+	void release() {
+		if (isReleased) {
+			return;
+		}
+		isReleased = true;
+
+		for (Buffer buffer : buffers) {
+			buffer.recycleBuffer();
+		}
+		buffers.clear();
+	}
+
+	boolean isReleased() {
+		return isReleased;
+	}
+
+	// ------------------------------------------------------------------------
+
+	long numRecords() {
+		return numRecords;
+	}
+
+	long numBytes() {
+		return numBytes;
+	}
+
+	int numBuffers() {
+		return buffers.size();
+	}
+
+	private MemorySegment getSegment(long address) {
+		return buffers.get((int) (address / bufferSize)).getMemorySegment();
+	}
+
+	private int getOffset(long address) {
+		return (int) (address % bufferSize);
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import java.nio.file.Path;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkElementIndex;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * The result file of a {@link SortMergeResultPartition}. It consists of a single data file which
+ * holds the data of all subpartitions and an index file which locates the data of each subpartition
+ * in the data file.
+ *
+ * <p>The data file is organized in regions. Each region is the result of one spill of the sort
+ * buffer and stores the buffers of all subpartitions ordered by subpartition index, so the data of
+ * one subpartition is a continuous section of each region. The index file holds one entry per
+ * region and subpartition (in region-major order), consisting of the file offset of the section
+ * and the number of buffers in it.
+ */
+public class PartitionedFile {
+
+	/** Size of one index entry: the offset (long) and the number of buffers (int) of a section. */
+	static final int INDEX_ENTRY_SIZE = 8 + 4;
+
+	/** Suffix of the file which stores the data of all subpartitions. */
+	static final String DATA_FILE_SUFFIX = ".shuffle.data";
+
+	/** Suffix of the file which stores the index entries of the data file. */
+	static final String INDEX_FILE_SUFFIX = ".shuffle.index";
+
+	private final int numRegions;
+
+	private final int numSubpartitions;
+
+	private final Path dataFilePath;
+
+	private final Path indexFilePath;
+
+	private final long dataFileSize;
+
+	PartitionedFile(
+			int numRegions,
+			int numSubpartitions,
+			Path dataFilePath,
+			Path indexFilePath,
+			long dataFileSize) {
+
+		checkArgument(numRegions >= 0, "Illegal number of data regions.");
+		checkArgument(numSubpartitions > 0, "Illegal number of subpartitions.");
+
+		this.numRegions = numRegions;
+		this.numSubpartitions = numSubpartitions;
+		this.dataFilePath = checkNotNull(dataFilePath);
+		this.indexFilePath = checkNotNull(indexFilePath);
+		this.dataFileSize = dataFileSize;
+	}
+
+	public int getNumRegions() {
+		return numRegions;
+	}
+
+	public int getNumSubpartitions() {
+		return numSubpartitions;
+	}
+
+	public Path getDataFilePath() {
+		return dataFilePath;
+	}
+
+	public Path getIndexFilePath() {
+		return indexFilePath;
+	}
+
+	public long getDataFileSize() {
+		return dataFileSize;
+	}
+
+	/**
+	 * Returns the position of the index entry of the given region and subpartition in the index file.
+	 */
+	long getIndexEntryOffset(int region, int subpartition) {
+		checkElementIndex(region, numRegions, "Region not found.");
+		checkElementIndex(subpartition, numSubpartitions, "Subpartition not found.");
+
+		return ((long) region * numSubpartitions + subpartition) * INDEX_ENTRY_SIZE;
+	}
+
+	@Override
+	public String toString() {
+		return "PartitionedFile{" +
+			"numRegions=" + numRegions +
+			", numSubpartitions=" + numSubpartitions +
+			", dataFilePath=" + dataFilePath +
+			", indexFilePath=" + indexFilePath +
+			", dataFileSize=" + dataFileSize +
+			'}';
+	}
+}
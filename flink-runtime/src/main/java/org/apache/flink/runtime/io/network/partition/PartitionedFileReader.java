@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.runtime.io.network.buffer.BufferRecycler;
+import org.apache.flink.util.IOUtils;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import static org.apache.flink.util.Preconditions.checkElementIndex;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Reader which reads the data of a single subpartition from a {@link PartitionedFile}. The data
+ * sections of the subpartition are read region by region, which means the data file is only read
+ * sequentially by each reader.
+ */
+final class PartitionedFileReader implements AutoCloseable {
+
+	private final PartitionedFile partitionedFile;
+
+	private final int subpartitionIndex;
+
+	private final FileChannel dataFileChannel;
+
+	private final ByteBuffer headerBuffer;
+
+	/** File offsets of the data sections of the target subpartition, one per region. */
+	private final long[] regionOffsets;
+
+	/** Number of buffers in the data sections of the target subpartition, one per region. */
+	private final int[] regionBuffers;
+
+	/** Index of the region that is currently read. */
+	private int currentRegion = -1;
+
+	/** Number of remaining buffers to read in the current region. */
+	private int numRemainingBuffersInRegion;
+
+	/** Number of remaining buffers to read in all regions. */
+	private long numRemainingBuffers;
+
+	PartitionedFileReader(PartitionedFile partitionedFile, int subpartitionIndex) throws IOException {
+		checkElementIndex(subpartitionIndex, partitionedFile.getNumSubpartitions(), "Subpartition not found.");
+
+		this.partitionedFile = checkNotNull(partitionedFile);
+		this.subpartitionIndex = subpartitionIndex;
+		this.headerBuffer = BufferReaderWriterUtil.allocatedHeaderBuffer();
+
+		final int numRegions = partitionedFile.getNumRegions();
+		this.regionOffsets = new long[numRegions];
+		this.regionBuffers = new int[numRegions];
+		readIndexEntries();
+
+		this.dataFileChannel = FileChannel.open(partitionedFile.getDataFilePath(), StandardOpenOption.READ);
+	}
+
+	private void readIndexEntries() throws IOException {
+		final ByteBuffer indexEntry = ByteBuffer.allocate(PartitionedFile.INDEX_ENTRY_SIZE);
+		BufferReaderWriterUtil.configureByteBuffer(indexEntry);
+
+		try (FileChannel indexFileChannel = FileChannel.open(partitionedFile.getIndexFilePath(), StandardOpenOption.READ)) {
+			for (int region = 0; region < regionOffsets.length; ++region) {
+				indexEntry.clear();
+				long position = partitionedFile.getIndexEntryOffset(region, subpartitionIndex);
+				while (indexEntry.hasRemaining()) {
+					int bytesRead = indexFileChannel.read(indexEntry, position);
+					if (bytesRead < 0) {
+						throw new IOException("The index file is corrupt: premature end of file");
+					}
+					position += bytesRead;
+				}
+				indexEntry.flip();
+
+				regionOffsets[region] = indexEntry.getLong();
+				regionBuffers[region] = indexEntry.getInt();
+				numRemainingBuffers += regionBuffers[region];
+			}
+		}
+	}
+
+	/**
+	 * Reads the next buffer of the target subpartition into the given memory segment.
+	 *
+	 * @return the read buffer or {@code null} if all data of the subpartition has been read.
+	 */
+	@Nullable
+	Buffer readBuffer(MemorySegment target, BufferRecycler recycler) throws IOException {
+		while (numRemainingBuffersInRegion == 0) {
+			if (currentRegion + 1 >= regionOffsets.length) {
+				return null;
+			}
+			numRemainingBuffersInRegion = regionBuffers[++currentRegion];
+			if (numRemainingBuffersInRegion > 0) {
+				dataFileChannel.position(regionOffsets[currentRegion]);
+			}
+		}
+
+		--numRemainingBuffersInRegion;
+		--numRemainingBuffers;
+		return BufferReaderWriterUtil.readFromByteChannel(dataFileChannel, headerBuffer, target, recycler);
+	}
+
+	boolean hasRemaining() {
+		return numRemainingBuffers > 0;
+	}
+
+	@Override
+	public void close() {
+		IOUtils.closeQuietly(dataFileChannel);
+	}
+}
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.util.ExceptionUtils;
+import org.apache.flink.util.IOUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkElementIndex;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * File writer which writes the data of all subpartitions of a {@link SortMergeResultPartition}
+ * into a single {@link PartitionedFile}.
+ *
+ * <p>Data is written region by region. Within a region, the buffers must be written in the order
+ * of their subpartition index, which allows each subpartition to be read with sequential IO.
+ */
+final class PartitionedFileWriter implements AutoCloseable {
+
+	private final int numSubpartitions;
+
+	private final Path dataFilePath;
+
+	private final Path indexFilePath;
+
+	private final FileChannel dataFileChannel;
+
+	private final FileChannel indexFileChannel;
+
+	private final ByteBuffer[] headerAndBufferArray;
+
+	/** Buffer to assemble the index entries of the current region before they are written. */
+	private final ByteBuffer indexBuffer;
+
+	/** Offsets in the data file of the data of each subpartition in the current region. */
+	private final long[] subpartitionOffsets;
+
+	/** Number of buffers of each subpartition in the current region. */
+	private final int[] subpartitionBuffers;
+
+	/** Subpartition of the last buffer written to the current region, -1 if none was written yet. */
+	private int currentSubpartition = -1;
+
+	private int numRegions;
+
+	private boolean isRegionOpen;
+
+	private long totalBytesWritten;
+
+	private boolean isFinished;
+
+	private boolean isClosed;
+
+	PartitionedFileWriter(
+			int numSubpartitions,
+			Path dataFilePath,
+			Path indexFilePath,
+			FileChannel dataFileChannel,
+			FileChannel indexFileChannel) {
+
+		checkArgument(numSubpartitions > 0, "Illegal number of subpartitions.");
+
+		this.numSubpartitions = numSubpartitions;
+		this.dataFilePath = checkNotNull(dataFilePath);
+		this.indexFilePath = checkNotNull(indexFilePath);
+		this.dataFileChannel = checkNotNull(dataFileChannel);
+		this.indexFileChannel = checkNotNull(indexFileChannel);
+		this.headerAndBufferArray = BufferReaderWriterUtil.allocatedWriteBufferArray();
+		this.indexBuffer = ByteBuffer.allocateDirect(numSubpartitions * PartitionedFile.INDEX_ENTRY_SIZE);
+		BufferReaderWriterUtil.configureByteBuffer(indexBuffer);
+		this.subpartitionOffsets = new long[numSubpartitions];
+		this.subpartitionBuffers = new int[numSubpartitions];
+	}
+
+	/**
+	 * Persists the index of the previous region (if any) and starts a new one. Must be called before
+	 * writing the first buffer.
+	 */
+	void startNewRegion() throws IOException {
+		checkState(!isFinished, "File writer is already finished.");
+		checkState(!isClosed, "File writer is already closed.");
+
+		writeRegionIndex();
+
+		Arrays.fill(subpartitionOffsets, totalBytesWritten);
+		Arrays.fill(subpartitionBuffers, 0);
+		currentSubpartition = -1;
+		isRegionOpen = true;
+	}
+
+	/**
+	 * Writes the given buffer of the given subpartition to the current region. The caller keeps
+	 * the ownership of the buffer.
+	 */
+	void writeBuffer(Buffer buffer, int subpartitionIndex) throws IOException {
+		checkState(isRegionOpen, "No region is started.");
+		checkElementIndex(subpartitionIndex, numSubpartitions, "Subpartition not found.");
+		checkState(subpartitionIndex >= currentSubpartition, "Buffers must be written in subpartition order.");
+
+		if (subpartitionIndex != currentSubpartition) {
+			subpartitionOffsets[subpartitionIndex] = totalBytesWritten;
+			currentSubpartition = subpartitionIndex;
+		}
+
+		totalBytesWritten += BufferReaderWriterUtil.writeToByteChannel(dataFileChannel, buffer, headerAndBufferArray);
+		++subpartitionBuffers[subpartitionIndex];
+	}
+
+	/**
+	 * Finishes writing and returns the written {@link PartitionedFile}. No more data can be written
+	 * afterwards.
+	 */
+	PartitionedFile finish() throws IOException {
+		checkState(!isFinished, "File writer is already finished.");
+		checkState(!isClosed, "File writer is already closed.");
+
+		writeRegionIndex();
+		isFinished = true;
+
+		close();
+
+		return new PartitionedFile(numRegions, numSubpartitions, dataFilePath, indexFilePath, totalBytesWritten);
+	}
+
+	/**
+	 * Closes the underlying file channels. Unlike {@link #finish()}, this does not flush the index
+	 * of the current region, so it should be used for releasing resources on failure.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (isClosed) {
+			return;
+		}
+		isClosed = true;
+
+		IOUtils.closeAllQuietly(dataFileChannel, indexFileChannel);
+	}
+
+	/**
+	 * Closes the writer and deletes the written files. Readers which have opened the data file
+	 * before can continue reading it until they close it.
+	 */
+	void deleteFiles() throws IOException {
+		close();
+
+		Files.deleteIfExists(dataFilePath);
+		Files.deleteIfExists(indexFilePath);
+	}
+
+	private void writeRegionIndex() throws IOException {
+		if (!isRegionOpen) {
+			return;
+		}
+
+		indexBuffer.clear();
+		for (int subpartition = 0; subpartition < numSubpartitions; ++subpartition) {
+			indexBuffer.putLong(subpartitionOffsets[subpartition]);
+			indexBuffer.putInt(subpartitionBuffers[subpartition]);
+		}
+		indexBuffer.flip();
+
+		while (indexBuffer.hasRemaining()) {
+			indexFileChannel.write(indexBuffer);
+		}
+
+		++numRegions;
+		isRegionOpen = false;
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Creates a writer which writes to the data and index file derived from the given base path.
+	 */
+	static PartitionedFileWriter create(int numSubpartitions, String basePath) throws IOException {
+		final Path dataFilePath = Paths.get(basePath + PartitionedFile.DATA_FILE_SUFFIX);
+		final Path indexFilePath = Paths.get(basePath + PartitionedFile.INDEX_FILE_SUFFIX);
+
+		final FileChannel dataFileChannel = FileChannel.open(
+			dataFilePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		final FileChannel indexFileChannel;
+		try {
+			indexFileChannel = FileChannel.open(
+				indexFilePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		} catch (IOException e) {
+			IOUtils.closeQuietly(dataFileChannel);
+			ExceptionUtils.suppressExceptions(() -> Files.deleteIfExists(dataFilePath));
+			throw e;
+		}
+
+		return new PartitionedFileWriter(
+			numSubpartitions,
+			dataFilePath,
+			indexFilePath,
+			dataFileChannel,
+			indexFileChannel);
+	}
+}
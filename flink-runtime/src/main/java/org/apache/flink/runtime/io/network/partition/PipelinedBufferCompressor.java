@@ -0,0 +1,292 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.core.memory.MemorySegmentFactory;
+import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.runtime.io.network.buffer.BufferCompressor;
+import org.apache.flink.runtime.io.network.buffer.BufferRecycler;
+import org.apache.flink.runtime.io.network.buffer.FreeingBufferRecycler;
+import org.apache.flink.runtime.io.network.buffer.NetworkBuffer;
+
+import org.apache.flink.shaded.netty4.io.netty.buffer.ByteBuf;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Compresses the buffers of the {@link PipelinedSubpartition}s of a {@link ResultPartition} which are
+ * sent to remote consumers. Buffers consumed by local input channels are never compressed, because
+ * the compression would only cost CPU time there, and neither are the buffers of remote consumers which
+ * did not request this codec in their partition request (see {@link ResultSubpartitionView#notifyRemoteConsumer(String)}).
+ *
+ * <p>The buffers of pipelined subpartitions may share their memory with the writer, with other
+ * subpartitions (broadcast) or with a snapshot of the in-flight data (unaligned checkpoints), so
+ * they are never compressed in place. Instead, the compressed data is copied to a new unpooled
+ * buffer which is freed once it has been sent. Buffers which are too small or which do not
+ * compress well are sent as they are.
+ *
+ * <p>The subpartitions of a partition are consumed by different netty threads, so this class keeps
+ * a pool of {@link BufferCompressor}s, one for each thread compressing at the same time.
+ *
+ * <p>A broadcast writes each buffer once and shares it with all subpartitions. To not compress the
+ * same data once per subpartition, the results of compressing shared buffers are remembered for a
+ * few buffers and handed out to the other subpartitions reading the same data. The compressed
+ * memory is then shared as well and left to the garbage collector.
+ */
+public final class PipelinedBufferCompressor {
+
+	/** Buffers smaller than this are not compressed, because the gain would not pay off the CPU time. */
+	static final int MIN_COMPRESSION_SIZE = 1024;
+
+	/** Compressed buffers are only sent if they are at most this fraction of the original size. */
+	static final double MAX_COMPRESSED_SIZE_FRACTION = 0.9;
+
+	/** The number of compression results of shared buffers which are remembered. */
+	static final int NUM_SHARED_RESULTS = 4;
+
+	/** The shared compressed memory is unpooled heap memory, which is left to the garbage collector. */
+	private static final BufferRecycler SHARED_MEMORY_RECYCLER = memorySegment -> {};
+
+	private final int bufferSize;
+
+	private final String compressionCodec;
+
+	/** The compressors which are not used by any thread at the moment. */
+	private final ConcurrentLinkedQueue<BufferCompressor> idleCompressors = new ConcurrentLinkedQueue<>();
+
+	/** The number of bytes of all data buffers before compression. */
+	private final AtomicLong numBytesIn = new AtomicLong();
+
+	/** The number of bytes of all data buffers after compression, i.e. the number of bytes sent. */
+	private final AtomicLong numBytesOut = new AtomicLong();
+
+	/** The time spent on compressing the buffers. */
+	private final AtomicLong compressionTimeNanos = new AtomicLong();
+
+	/** The latest compression results of buffers which are shared by several subpartitions. */
+	@GuardedBy("sharedResults")
+	private final SharedCompressionResult[] sharedResults = new SharedCompressionResult[NUM_SHARED_RESULTS];
+
+	@GuardedBy("sharedResults")
+	private int nextSharedResultIndex;
+
+	/** The number of buffers which have actually been compressed. */
+	private final AtomicLong numCompressedBuffers = new AtomicLong();
+
+	public PipelinedBufferCompressor(int bufferSize, String compressionCodec) {
+		checkArgument(bufferSize > 0, "The buffer size must be positive.");
+		this.bufferSize = bufferSize;
+		this.compressionCodec = checkNotNull(compressionCodec);
+
+		// create the first compressor eagerly to fail fast on illegal codecs
+		idleCompressors.add(new BufferCompressor(bufferSize, compressionCodec));
+	}
+
+	/**
+	 * Compresses the given buffer if it is a data buffer which is large enough and compresses well.
+	 * Returns either the given buffer or a new compressed buffer, in which case the given buffer
+	 * has been recycled.
+	 */
+	public Buffer compress(Buffer buffer) {
+		if (!buffer.isBuffer() || buffer.isCompressed()) {
+			return buffer;
+		}
+
+		final int size = buffer.readableBytes();
+		numBytesIn.addAndGet(size);
+		if (size < MIN_COMPRESSION_SIZE) {
+			numBytesOut.addAndGet(size);
+			return buffer;
+		}
+
+		final ByteBuf owner = getOwner(buffer);
+		final int offset = buffer.getMemorySegmentOffset() + buffer.getReaderIndex();
+		final SharedCompressionResult sharedResult = getSharedResult(owner, offset, size);
+		if (sharedResult != null) {
+			return toResultBuffer(buffer, sharedResult.compressedSegment, sharedResult.compressedSize, SHARED_MEMORY_RECYCLER);
+		}
+		// other subpartitions still hold references to the memory of the buffer
+		final boolean isShared = buffer.asByteBuf().refCnt() > 1;
+
+		BufferCompressor compressor = idleCompressors.poll();
+		if (compressor == null) {
+			compressor = new BufferCompressor(bufferSize, compressionCodec);
+		}
+
+		final long start = System.nanoTime();
+		MemorySegment compressedSegment = null;
+		int compressedSize = size;
+		try {
+			numCompressedBuffers.incrementAndGet();
+			final Buffer compressedBuffer = compressor.compressToIntermediateBuffer(buffer);
+			if (compressedBuffer != buffer) {
+				try {
+					if (compressedBuffer.readableBytes() <= size * MAX_COMPRESSED_SIZE_FRACTION) {
+						compressedSize = compressedBuffer.readableBytes();
+						compressedSegment = MemorySegmentFactory.allocateUnpooledSegment(compressedSize);
+						compressedBuffer.getMemorySegment().copyTo(
+							compressedBuffer.getMemorySegmentOffset(), compressedSegment, 0, compressedSize);
+					}
+				}
+				finally {
+					compressedBuffer.recycleBuffer();
+				}
+			}
+		}
+		finally {
+			compressionTimeNanos.addAndGet(System.nanoTime() - start);
+			idleCompressors.add(compressor);
+		}
+
+		if (isShared) {
+			addSharedResult(new SharedCompressionResult(owner, offset, size, compressedSegment, compressedSize));
+			return toResultBuffer(buffer, compressedSegment, compressedSize, SHARED_MEMORY_RECYCLER);
+		}
+		return toResultBuffer(buffer, compressedSegment, compressedSize, FreeingBufferRecycler.INSTANCE);
+	}
+
+	/**
+	 * Returns the given buffer if the compressed segment is null, i.e. the data did not compress well.
+	 * Otherwise, recycles the given buffer and returns a compressed buffer of the compressed segment.
+	 */
+	private Buffer toResultBuffer(
+			Buffer buffer,
+			@Nullable MemorySegment compressedSegment,
+			int compressedSize,
+			BufferRecycler recycler) {
+
+		if (compressedSegment == null) {
+			numBytesOut.addAndGet(buffer.readableBytes());
+			return buffer;
+		}
+
+		final Buffer result = new NetworkBuffer(compressedSegment, recycler, buffer.getDataType(), true, compressedSize);
+		buffer.recycleBuffer();
+		numBytesOut.addAndGet(compressedSize);
+		return result;
+	}
+
+	@Nullable
+	private SharedCompressionResult getSharedResult(ByteBuf owner, int offset, int size) {
+		synchronized (sharedResults) {
+			for (SharedCompressionResult result : sharedResults) {
+				if (result != null && result.owner == owner && result.offset == offset && result.size == size) {
+					return result;
+				}
+			}
+			return null;
+		}
+	}
+
+	private void addSharedResult(SharedCompressionResult result) {
+		synchronized (sharedResults) {
+			sharedResults[nextSharedResultIndex] = result;
+			nextSharedResultIndex = (nextSharedResultIndex + 1) % NUM_SHARED_RESULTS;
+		}
+	}
+
+	/**
+	 * Returns the buffer which owns the memory of the given (possibly sliced) buffer. A new owner is
+	 * created for every use of a pooled memory segment, so unlike the memory segment, the owner
+	 * identifies the data even after the segment has been recycled and reused.
+	 */
+	private static ByteBuf getOwner(Buffer buffer) {
+		ByteBuf owner = buffer.asByteBuf();
+		while (owner.unwrap() != null) {
+			owner = owner.unwrap();
+		}
+		return owner;
+	}
+
+	/**
+	 * Returns the name of the codec the buffers are compressed with.
+	 */
+	public String getCompressionCodec() {
+		return compressionCodec;
+	}
+
+	/**
+	 * Returns the ratio of the size of all data buffers before compression to their size after
+	 * compression, including the buffers which have been sent uncompressed.
+	 */
+	public double getCompressionRatio() {
+		final long bytesOut = numBytesOut.get();
+		return bytesOut == 0 ? 1.0 : (double) numBytesIn.get() / bytesOut;
+	}
+
+	/**
+	 * Returns the total time spent on compressing buffers in milliseconds.
+	 */
+	public long getCompressionTimeMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(compressionTimeNanos.get());
+	}
+
+	@VisibleForTesting
+	int getNumIdleCompressors() {
+		return idleCompressors.size();
+	}
+
+	@VisibleForTesting
+	long getNumCompressedBuffers() {
+		return numCompressedBuffers.get();
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * The result of compressing a region of a shared buffer. The compressed segment is null if the
+	 * region did not compress well and is sent uncompressed.
+	 */
+	private static final class SharedCompressionResult {
+
+		private final ByteBuf owner;
+
+		private final int offset;
+
+		private final int size;
+
+		@Nullable
+		private final MemorySegment compressedSegment;
+
+		private final int compressedSize;
+
+		SharedCompressionResult(
+				ByteBuf owner,
+				int offset,
+				int size,
+				@Nullable MemorySegment compressedSegment,
+				int compressedSize) {
+			this.owner = owner;
+			this.offset = offset;
+			this.size = size;
+			this.compressedSegment = compressedSegment;
+			this.compressedSize = compressedSize;
+		}
+	}
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.core.memory.MemorySegmentFactory;
+import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.runtime.io.network.buffer.BufferRecycler;
+import org.apache.flink.util.IOUtils;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * The spill file of a {@link PipelinedSubpartition} of a {@link ResultPartitionType#HYBRID} partition.
+ * It holds the oldest buffers of the subpartition, which have been written to disk to release their
+ * memory, and reads them back in the same order into a few dedicated read buffers. Events between
+ * the spilled data buffers are spilled as well to keep their order.
+ *
+ * <p>The file is read under the lock of the subpartition, while the subpartition spills buffers
+ * outside of that lock. Appending buffers and resetting the file once it has been fully read are
+ * therefore synchronized on a lock of the file. The read buffers are recycled concurrently by the
+ * consumer.
+ */
+final class PipelinedSpillFile implements BufferRecycler {
+
+	private static final int NUM_READ_BUFFERS = 2;
+
+	private final Path filePath;
+
+	private final FileChannel writeChannel;
+
+	private final FileChannel readChannel;
+
+	private final ByteBuffer[] headerAndBufferArray;
+
+	private final ByteBuffer headerBuffer;
+
+	@GuardedBy("readBuffers")
+	private final ArrayDeque<MemorySegment> readBuffers;
+
+	/** Called when a read buffer is recycled after a read failed for lack of read buffers. */
+	private final Runnable readBufferAvailabilityListener;
+
+	/** Guards the end of the file, which moves when buffers are spilled and when the file is reset. */
+	private final Object writeLock = new Object();
+
+	/** The number of spilled buffers which have not been read yet. */
+	@GuardedBy("writeLock")
+	private volatile int numBuffers;
+
+	/**
+	 * The data types of the spilled buffers which have not been read yet. The file only tells
+	 * data buffers and events apart, but events may also block the upstream.
+	 */
+	@GuardedBy("writeLock")
+	private final ArrayDeque<Buffer.DataType> dataTypes = new ArrayDeque<>();
+
+	@GuardedBy("readBuffers")
+	private boolean isWaitingForReadBuffer;
+
+	private PipelinedSpillFile(
+			Path filePath,
+			FileChannel writeChannel,
+			FileChannel readChannel,
+			int bufferSize,
+			Runnable readBufferAvailabilityListener) {
+
+		this.filePath = checkNotNull(filePath);
+		this.writeChannel = checkNotNull(writeChannel);
+		this.readChannel = checkNotNull(readChannel);
+		this.readBufferAvailabilityListener = checkNotNull(readBufferAvailabilityListener);
+		this.headerAndBufferArray = BufferReaderWriterUtil.allocatedWriteBufferArray();
+		this.headerBuffer = BufferReaderWriterUtil.allocatedHeaderBuffer();
+
+		this.readBuffers = new ArrayDeque<>(NUM_READ_BUFFERS);
+		for (int i = 0; i < NUM_READ_BUFFERS; i++) {
+			readBuffers.add(MemorySegmentFactory.allocateUnpooledSegment(bufferSize));
+		}
+	}
+
+	/**
+	 * Writes the given buffer to the end of the file. The buffer is not recycled.
+	 */
+	void spill(Buffer buffer) throws IOException {
+		synchronized (writeLock) {
+			BufferReaderWriterUtil.writeToByteChannel(writeChannel, buffer, headerAndBufferArray);
+			dataTypes.add(buffer.getDataType());
+			numBuffers++;
+		}
+	}
+
+	/**
+	 * Reads the oldest spilled buffer, or returns null if all read buffers are in use. The consumer
+	 * is notified via the read buffer availability listener once a read buffer is recycled.
+	 */
+	@Nullable
+	Buffer readNext() throws IOException {
+		checkState(numBuffers > 0, "There are no spilled buffers.");
+
+		final MemorySegment segment;
+		synchronized (readBuffers) {
+			segment = readBuffers.poll();
+			isWaitingForReadBuffer = segment == null;
+		}
+		if (segment == null) {
+			return null;
+		}
+
+		final Buffer buffer = BufferReaderWriterUtil.readFromByteChannel(readChannel, headerBuffer, segment, this);
+		if (buffer == null) {
+			recycle(segment);
+			throw new IOException("Premature end of spill file " + filePath);
+		}
+
+		synchronized (writeLock) {
+			buffer.setDataType(dataTypes.poll());
+			if (--numBuffers == 0) {
+				// all spilled data has been read, so the file can be reused from its beginning
+				writeChannel.truncate(0);
+				writeChannel.position(0);
+				readChannel.position(0);
+			}
+		}
+		return buffer;
+	}
+
+	boolean isEmpty() {
+		return numBuffers == 0;
+	}
+
+	/**
+	 * Whether the oldest spilled buffer is an event.
+	 */
+	boolean isNextEvent() {
+		synchronized (writeLock) {
+			final Buffer.DataType dataType = dataTypes.peek();
+			return dataType != null && !dataType.isBuffer();
+		}
+	}
+
+	int getNumberOfBuffers() {
+		return numBuffers;
+	}
+
+	@Override
+	public void recycle(MemorySegment memorySegment) {
+		final boolean notifyAvailable;
+		synchronized (readBuffers) {
+			readBuffers.add(memorySegment);
+			notifyAvailable = isWaitingForReadBuffer;
+			isWaitingForReadBuffer = false;
+		}
+		if (notifyAvailable) {
+			readBufferAvailabilityListener.run();
+		}
+	}
+
+	void close() throws IOException {
+		IOUtils.closeAllQuietly(writeChannel, readChannel);
+		Files.deleteIfExists(filePath);
+	}
+
+	// ------------------------------------------------------------------------
+
+	static PipelinedSpillFile create(
+			Path filePath,
+			int bufferSize,
+			Runnable readBufferAvailabilityListener) throws IOException {
+
+		final FileChannel writeChannel = FileChannel.open(
+			filePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		final FileChannel readChannel;
+		try {
+			readChannel = FileChannel.open(filePath, StandardOpenOption.READ);
+		} catch (IOException e) {
+			IOUtils.closeQuietly(writeChannel);
+			Files.deleteIfExists(filePath);
+			throw e;
+		}
+
+		return new PipelinedSpillFile(filePath, writeChannel, readChannel, bufferSize, readBufferAvailabilityListener);
+	}
+}
@@ -21,6 +21,7 @@ package org.apache.flink.runtime.io.network.partition;
 import org.apache.flink.annotation.VisibleForTesting;
 import org.apache.flink.runtime.checkpoint.channel.ChannelStateReader;
 import org.apache.flink.runtime.checkpoint.channel.ChannelStateReader.ReadResult;
+import org.apache.flink.runtime.io.disk.FileChannelManager;
 import org.apache.flink.runtime.io.network.api.EndOfPartitionEvent;
 import org.apache.flink.runtime.io.network.api.serialization.EventSerializer;
 import org.apache.flink.runtime.io.network.buffer.Buffer;
@@ -36,8 +37,10 @@ import javax.annotation.concurrent.GuardedBy;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
+import static org.apache.flink.util.Preconditions.checkArgument;
 import static org.apache.flink.util.Preconditions.checkNotNull;
 import static org.apache.flink.util.Preconditions.checkState;
 
@@ -56,11 +59,29 @@ import static org.apache.flink.util.Preconditions.checkState;
  * <p>Explicit calls to {@link #flush()} will force this
  * {@link PipelinedSubpartitionView#notifyDataAvailable() notification} for any
  * {@link BufferConsumer} present in the queue.
+ *
+ * <p>If the reader asks for batched notifications (see
+ * {@link BufferAvailabilityListener#getNotificationBatchSize()}), we notify only once the given number
+ * of finished buffers turned up instead of the first one. Events, flushes and {@link #notifyHeldBackBuffers()}
+ * still notify the reader of any smaller batch.
+ *
+ * <p>The subpartitions of a {@link ResultPartitionType#HYBRID} partition spill their finished
+ * buffers to a {@link PipelinedSpillFile} when the buffer pool of the partition asks them to
+ * {@link #releaseMemory() release memory}, and the reader first drains the spilled buffers before
+ * continuing with the buffers in memory.
  */
 public class PipelinedSubpartition extends ResultSubpartition {
 
 	private static final Logger LOG = LoggerFactory.getLogger(PipelinedSubpartition.class);
 
+	/**
+	 * The maximum number of buffers which are spilled at once. Spilling is triggered by the thread
+	 * which requests a buffer from the exhausted buffer pool, usually the producer, so this bounds
+	 * how long it waits for the disk.
+	 */
+	@VisibleForTesting
+	static final int MAX_BUFFERS_PER_SPILL = 16;
+
 	// ------------------------------------------------------------------------
 
 	/** All buffers of this subpartition. Access to the buffers is synchronized on this object. */
@@ -95,10 +116,47 @@ public class PipelinedSubpartition extends ResultSubpartition {
 	@GuardedBy("buffers")
 	private boolean isBlockedByCheckpoint = false;
 
+	/** The maximum size of the produced buffers as announced by the consumer. */
+	private volatile int desiredBufferSize = Integer.MAX_VALUE;
+
+	/** The number of finished buffers after which the read view is notified, see {@link #createReadView}. */
+	private volatile int notificationBatchSize = 1;
+
+	/** The file channel manager to create the spill file with, null if this subpartition never spills. */
+	@Nullable
+	private final FileChannelManager spillFileChannelManager;
+
+	/** The size of the buffers which are read back from the spill file. */
+	private final int spillBufferSize;
+
+	/** The oldest buffers of this subpartition, which have been spilled to release their memory. */
+	@GuardedBy("buffers")
+	@Nullable
+	private PipelinedSpillFile spillFile;
+
+	/**
+	 * The number of buffers which have been taken from the queue and are being written to the spill
+	 * file outside of the lock. They are older than the queued buffers, so the reader waits for them.
+	 */
+	@GuardedBy("buffers")
+	private volatile int numBuffersBeingSpilled;
+
 	// ------------------------------------------------------------------------
 
 	PipelinedSubpartition(int index, ResultPartition parent) {
+		this(index, parent, null, 0);
+	}
+
+	PipelinedSubpartition(
+			int index,
+			ResultPartition parent,
+			@Nullable FileChannelManager spillFileChannelManager,
+			int spillBufferSize) {
 		super(index, parent);
+
+		checkArgument(spillFileChannelManager == null || spillBufferSize > 0, "Illegal spill buffer size.");
+		this.spillFileChannelManager = spillFileChannelManager;
+		this.spillBufferSize = spillBufferSize;
 	}
 
 	@Override
@@ -153,7 +211,7 @@ public class PipelinedSubpartition extends ResultSubpartition {
 			handleAddingBarrier(bufferConsumer, insertAsHead);
 			updateStatistics(bufferConsumer);
 			increaseBuffersInBacklog(bufferConsumer);
-			notifyDataAvailable = insertAsHead || finish || shouldNotifyDataAvailable();
+			notifyDataAvailable = insertAsHead || finish || shouldNotifyDataAvailable(bufferConsumer);
 
 			isFinished |= finish;
 		}
@@ -170,6 +228,7 @@ public class PipelinedSubpartition extends ResultSubpartition {
 		if (insertAsHead) {
 			checkState(inflightBufferSnapshot.isEmpty(), "Supporting only one concurrent checkpoint in unaligned " +
 				"checkpoints");
+			checkState(!hasSpilledBuffersUnsafe(), "Priority events cannot overtake spilled buffers.");
 
 			// Meanwhile prepare the collection of in-flight buffers which would be fetched in the next step later.
 			for (BufferConsumer buffer : buffers) {
@@ -209,6 +268,14 @@ public class PipelinedSubpartition extends ResultSubpartition {
 			}
 			buffers.clear();
 
+			if (spillFile != null) {
+				try {
+					spillFile.close();
+				} catch (IOException e) {
+					LOG.warn("{}: Failed to delete the spill file of {}.", parent.getOwningTaskName(), this, e);
+				}
+			}
+
 			view = readView;
 			readView = null;
 
@@ -224,12 +291,16 @@ public class PipelinedSubpartition extends ResultSubpartition {
 	}
 
 	@Nullable
-	BufferAndBacklog pollBuffer() {
+	BufferAndBacklog pollBuffer() throws IOException {
 		synchronized (buffers) {
 			if (isBlockedByCheckpoint) {
 				return null;
 			}
 
+			if (hasSpilledBuffersUnsafe()) {
+				return pollSpilledBuffer();
+			}
+
 			Buffer buffer = null;
 
 			if (buffers.isEmpty()) {
@@ -284,6 +355,34 @@ public class PipelinedSubpartition extends ResultSubpartition {
 		}
 	}
 
+	@Nullable
+	private BufferAndBacklog pollSpilledBuffer() throws IOException {
+		assert Thread.holdsLock(buffers);
+
+		if (!hasReadableSpilledBuffersUnsafe()) {
+			// the reader is notified once the buffers being spilled have been written
+			return null;
+		}
+
+		// null if all read buffers are in use, the reader is notified once one is recycled
+		final Buffer buffer = spillFile.readNext();
+		if (buffer == null) {
+			return null;
+		}
+
+		decreaseBuffersInBacklogUnsafe(buffer.isBuffer());
+		if (buffer.getDataType().isBlockingUpstream()) {
+			isBlockedByCheckpoint = true;
+		}
+
+		updateStatistics(buffer);
+		return new BufferAndBacklog(
+			buffer,
+			isDataAvailableUnsafe(),
+			getBuffersInBacklog(),
+			isEventAvailableUnsafe());
+	}
+
 	void resumeConsumption() {
 		synchronized (buffers) {
 			checkState(isBlockedByCheckpoint, "Should be blocked by checkpoint.");
@@ -293,10 +392,117 @@ public class PipelinedSubpartition extends ResultSubpartition {
 	}
 
 	@Override
-	public int releaseMemory() {
-		// The pipelined subpartition does not react to memory release requests.
-		// The buffers will be recycled by the consuming task.
-		return 0;
+	public int releaseMemory() throws IOException {
+		if (spillFileChannelManager == null) {
+			// The pipelined subpartition does not react to memory release requests.
+			// The buffers will be recycled by the consuming task.
+			return 0;
+		}
+
+		// The buffers are taken from the queue under the lock, but written to the spill file outside
+		// of it, so that neither the producer nor the reader wait for the disk meanwhile.
+		final List<Buffer> buffersToSpill = new ArrayList<>();
+		PipelinedSpillFile file;
+		synchronized (buffers) {
+			if (isReleased || numBuffersBeingSpilled > 0) {
+				return 0;
+			}
+
+			// Only the finished buffers at the head of the queue are spilled, so that the spill file
+			// always holds the oldest buffers of this subpartition. The events between them are
+			// spilled as well to keep their order. As in pollBuffer(), all but the last buffer are
+			// finished.
+			final int numBuffersToSpill = Math.min(
+				MAX_BUFFERS_PER_SPILL,
+				buffers.isEmpty() || buffers.peekLast().isFinished() ? buffers.size() : buffers.size() - 1);
+			if (!containsDataBuffer(numBuffersToSpill)) {
+				// spilling events only would not release any memory
+				return 0;
+			}
+
+			for (int i = 0; i < numBuffersToSpill; i++) {
+				final BufferConsumer bufferConsumer = buffers.pop();
+				final Buffer buffer = bufferConsumer.build();
+				bufferConsumer.close();
+				if (buffer.isBuffer() && buffer.readableBytes() == 0) {
+					buffer.recycleBuffer();
+					decreaseBuffersInBacklogUnsafe(true);
+				} else {
+					buffersToSpill.add(buffer);
+				}
+			}
+
+			if (buffersToSpill.isEmpty()) {
+				return 0;
+			}
+			numBuffersBeingSpilled = buffersToSpill.size();
+			file = spillFile;
+		}
+
+		int numSpilledBuffers = 0;
+		try {
+			if (file == null) {
+				file = PipelinedSpillFile.create(
+					spillFileChannelManager.createChannel().getPathFile().toPath(),
+					spillBufferSize,
+					this::notifyDataAvailable);
+				synchronized (buffers) {
+					if (isReleased) {
+						file.close();
+						return 0;
+					}
+					spillFile = file;
+				}
+			}
+
+			for (Buffer buffer : buffersToSpill) {
+				file.spill(buffer);
+				if (buffer.isBuffer()) {
+					numSpilledBuffers++;
+				}
+			}
+		} catch (IOException e) {
+			// the spill file is closed if the subpartition is released meanwhile
+			synchronized (buffers) {
+				if (!isReleased) {
+					throw e;
+				}
+			}
+		} finally {
+			for (Buffer buffer : buffersToSpill) {
+				buffer.recycleBuffer();
+			}
+			synchronized (buffers) {
+				numBuffersBeingSpilled = 0;
+			}
+		}
+
+		notifyDataAvailable();
+		return numSpilledBuffers;
+	}
+
+	private boolean containsDataBuffer(int numHeadBuffers) {
+		assert Thread.holdsLock(buffers);
+
+		final Iterator<BufferConsumer> iterator = buffers.iterator();
+		for (int i = 0; i < numHeadBuffers; i++) {
+			if (iterator.next().isBuffer()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean hasReadableSpilledBuffersUnsafe() {
+		assert Thread.holdsLock(buffers);
+
+		return spillFile != null && !spillFile.isEmpty();
+	}
+
+	private boolean hasSpilledBuffersUnsafe() {
+		assert Thread.holdsLock(buffers);
+
+		return numBuffersBeingSpilled > 0 || hasReadableSpilledBuffersUnsafe();
 	}
 
 	@Override
@@ -318,8 +524,12 @@ public class PipelinedSubpartition extends ResultSubpartition {
 			LOG.debug("{}: Creating read view for subpartition {} of partition {}.",
 				parent.getOwningTaskName(), getSubPartitionIndex(), parent.getPartitionId());
 
+			final int batchSize = availabilityListener.getNotificationBatchSize();
+			checkArgument(batchSize > 0, "The notification batch size must be positive.");
+			notificationBatchSize = batchSize;
+
 			readView = new PipelinedSubpartitionView(this, availabilityListener);
-			notifyDataAvailable = !buffers.isEmpty();
+			notifyDataAvailable = !buffers.isEmpty() || hasSpilledBuffersUnsafe();
 		}
 		if (notifyDataAvailable) {
 			notifyDataAvailable();
@@ -341,13 +551,26 @@ public class PipelinedSubpartition extends ResultSubpartition {
 	private boolean isDataAvailableUnsafe() {
 		assert Thread.holdsLock(buffers);
 
-		return !isBlockedByCheckpoint && (flushRequested || getNumberOfFinishedBuffers() > 0);
+		if (isBlockedByCheckpoint) {
+			return false;
+		}
+		if (hasSpilledBuffersUnsafe()) {
+			// the queued buffers are only read after the spilled ones
+			return hasReadableSpilledBuffersUnsafe();
+		}
+		return flushRequested || getNumberOfFinishedBuffers() > 0;
 	}
 
 	private boolean isEventAvailableUnsafe() {
 		assert Thread.holdsLock(buffers);
 
-		return !isBlockedByCheckpoint && !buffers.isEmpty() && !buffers.peekFirst().isBuffer();
+		if (isBlockedByCheckpoint) {
+			return false;
+		}
+		if (hasSpilledBuffersUnsafe()) {
+			return hasReadableSpilledBuffersUnsafe() && spillFile.isNextEvent();
+		}
+		return !buffers.isEmpty() && !buffers.peekFirst().isBuffer();
 	}
 
 	// ------------------------------------------------------------------------
@@ -356,6 +579,13 @@ public class PipelinedSubpartition extends ResultSubpartition {
 		return buffers.size();
 	}
 
+	@VisibleForTesting
+	int getNumberOfSpilledBuffers() {
+		synchronized (buffers) {
+			return spillFile == null ? 0 : spillFile.getNumberOfBuffers();
+		}
+	}
+
 	// ------------------------------------------------------------------------
 
 	@Override
@@ -380,7 +610,18 @@ public class PipelinedSubpartition extends ResultSubpartition {
 	@Override
 	public int unsynchronizedGetNumberOfQueuedBuffers() {
 		// since we do not synchronize, the size may actually be lower than 0!
-		return Math.max(buffers.size(), 0);
+		final PipelinedSpillFile spilled = spillFile;
+		return Math.max(buffers.size(), 0) + numBuffersBeingSpilled + (spilled == null ? 0 : spilled.getNumberOfBuffers());
+	}
+
+	@Override
+	public int getDesiredBufferSize() {
+		return desiredBufferSize;
+	}
+
+	void setDesiredBufferSize(int desiredBufferSize) {
+		checkArgument(desiredBufferSize > 0, "The buffer size must be positive.");
+		this.desiredBufferSize = desiredBufferSize;
 	}
 
 	@Override
@@ -390,9 +631,11 @@ public class PipelinedSubpartition extends ResultSubpartition {
 			if (buffers.isEmpty() || flushRequested) {
 				return;
 			}
-			// if there is more then 1 buffer, we already notified the reader
-			// (at the latest when adding the second buffer)
-			notifyDataAvailable = !isBlockedByCheckpoint && buffers.size() == 1 && buffers.peek().isDataAvailable();
+			// if there is more then 1 buffer, we already notified the reader (at the latest when
+			// adding the second buffer), unless the notifications are batched and the batch is not full
+			notifyDataAvailable = !isBlockedByCheckpoint && (buffers.size() == 1
+				? buffers.peek().isDataAvailable()
+				: getNumberOfFinishedBuffers() < notificationBatchSize);
 			flushRequested = buffers.size() > 1 || notifyDataAvailable;
 		}
 		if (notifyDataAvailable) {
@@ -459,9 +702,33 @@ public class PipelinedSubpartition extends ResultSubpartition {
 		}
 	}
 
-	private boolean shouldNotifyDataAvailable() {
-		// Notify only when we added first finished buffer.
-		return readView != null && !flushRequested && !isBlockedByCheckpoint && getNumberOfFinishedBuffers() == 1;
+	private boolean shouldNotifyDataAvailable(BufferConsumer bufferConsumer) {
+		if (readView == null || flushRequested || isBlockedByCheckpoint) {
+			return false;
+		}
+
+		// Notify only when we added the finished buffer completing a batch (by default the first
+		// finished buffer), but never hold back events.
+		final int numberOfFinishedBuffers = getNumberOfFinishedBuffers();
+		return numberOfFinishedBuffers == notificationBatchSize
+			|| (!bufferConsumer.isBuffer() && numberOfFinishedBuffers < notificationBatchSize);
+	}
+
+	@Override
+	public void notifyHeldBackBuffers() {
+		if (notificationBatchSize == 1) {
+			return;
+		}
+
+		final boolean notifyDataAvailable;
+		synchronized (buffers) {
+			final int numberOfFinishedBuffers = getNumberOfFinishedBuffers();
+			notifyDataAvailable = readView != null && !flushRequested && !isBlockedByCheckpoint
+				&& numberOfFinishedBuffers > 0 && numberOfFinishedBuffers < notificationBatchSize;
+		}
+		if (notifyDataAvailable) {
+			notifyDataAvailable();
+		}
 	}
 
 	private void notifyDataAvailable() {
@@ -18,6 +18,7 @@
 
 package org.apache.flink.runtime.io.network.partition;
 
+import org.apache.flink.runtime.io.network.buffer.Buffer;
 import org.apache.flink.runtime.io.network.buffer.BufferConsumer;
 import org.apache.flink.runtime.io.network.partition.ResultSubpartition.BufferAndBacklog;
 
@@ -41,6 +42,10 @@ public class PipelinedSubpartitionView implements ResultSubpartitionView {
 	/** Flag indicating whether this view has been released. */
 	private final AtomicBoolean isReleased;
 
+	/** The compressor of the buffers if this view is consumed by a remote input channel which can decompress them. */
+	@Nullable
+	private volatile PipelinedBufferCompressor bufferCompressor;
+
 	public PipelinedSubpartitionView(PipelinedSubpartition parent, BufferAvailabilityListener listener) {
 		this.parent = checkNotNull(parent);
 		this.availabilityListener = checkNotNull(listener);
@@ -49,8 +54,29 @@ public class PipelinedSubpartitionView implements ResultSubpartitionView {
 
 	@Nullable
 	@Override
-	public BufferAndBacklog getNextBuffer() {
-		return parent.pollBuffer();
+	public BufferAndBacklog getNextBuffer() throws IOException {
+		final BufferAndBacklog next = parent.pollBuffer();
+		final PipelinedBufferCompressor compressor = bufferCompressor;
+		if (next == null || compressor == null) {
+			return next;
+		}
+
+		final Buffer buffer = compressor.compress(next.buffer());
+		if (buffer == next.buffer()) {
+			return next;
+		}
+		return new BufferAndBacklog(buffer, next.isDataAvailable(), next.buffersInBacklog(), next.isEventAvailable());
+	}
+
+	@Override
+	public void notifyRemoteConsumer(@Nullable String decompressionCodec) {
+		final PipelinedBufferCompressor compressor = parent.parent.getPipelinedBufferCompressor();
+		// only compress if the consumer can decompress the buffers, its TaskManager may be configured differently
+		if (compressor != null
+				&& decompressionCodec != null
+				&& compressor.getCompressionCodec().equalsIgnoreCase(decompressionCodec)) {
+			bufferCompressor = compressor;
+		}
 	}
 
 	@Override
@@ -77,6 +103,11 @@ public class PipelinedSubpartitionView implements ResultSubpartitionView {
 		parent.resumeConsumption();
 	}
 
+	@Override
+	public void notifyNewBufferSize(int newBufferSize) {
+		parent.setDesiredBufferSize(newBufferSize);
+	}
+
 	@Override
 	public boolean isAvailable(int numCreditsAvailable) {
 		return parent.isAvailable(numCreditsAvailable);
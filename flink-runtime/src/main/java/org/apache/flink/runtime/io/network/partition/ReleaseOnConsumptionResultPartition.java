@@ -31,7 +31,7 @@ import static org.apache.flink.util.Preconditions.checkState;
 /**
  * ResultPartition that releases itself once all subpartitions have been consumed.
  */
-public class ReleaseOnConsumptionResultPartition extends ResultPartition {
+public class ReleaseOnConsumptionResultPartition extends BufferWritingResultPartition {
 
 	private static final Object lock = new Object();
 
@@ -55,6 +55,7 @@ public class ReleaseOnConsumptionResultPartition extends ResultPartition {
 			int numTargetKeyGroups,
 			ResultPartitionManager partitionManager,
 			@Nullable BufferCompressor bufferCompressor,
+			@Nullable PipelinedBufferCompressor pipelinedBufferCompressor,
 			FunctionWithException<BufferPoolOwner, BufferPool, IOException> bufferPoolFactory) {
 		super(
 			owningTaskName,
@@ -65,6 +66,7 @@ public class ReleaseOnConsumptionResultPartition extends ResultPartition {
 			numTargetKeyGroups,
 			partitionManager,
 			bufferCompressor,
+			pipelinedBufferCompressor,
 			bufferPoolFactory);
 
 		this.consumedSubpartitions = new boolean[subpartitions.length];
@@ -22,7 +22,6 @@ import org.apache.flink.runtime.checkpoint.channel.ChannelStateReader;
 import org.apache.flink.runtime.executiongraph.IntermediateResultPartition;
 import org.apache.flink.runtime.io.network.api.writer.ResultPartitionWriter;
 import org.apache.flink.runtime.io.network.buffer.Buffer;
-import org.apache.flink.runtime.io.network.buffer.BufferBuilder;
 import org.apache.flink.runtime.io.network.buffer.BufferCompressor;
 import org.apache.flink.runtime.io.network.buffer.BufferConsumer;
 import org.apache.flink.runtime.io.network.buffer.BufferPool;
@@ -40,6 +39,7 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nullable;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -70,9 +70,13 @@ import static org.apache.flink.util.Preconditions.checkState;
  *
  * <h2>Buffer management</h2>
  *
+ * <p>How the data is written into the partition is up to the subclasses: the
+ * {@link BufferWritingResultPartition} hands out a buffer per subpartition, while the
+ * {@link SortMergeResultPartition} collects the records of all subpartitions in a shared sort buffer.
+ *
  * <h2>State management</h2>
  */
-public class ResultPartition implements ResultPartitionWriter, BufferPoolOwner {
+public abstract class ResultPartition implements ResultPartitionWriter, BufferPoolOwner {
 
 	protected static final Logger LOG = LoggerFactory.getLogger(ResultPartition.class);
 
@@ -108,7 +112,35 @@ public class ResultPartition implements ResultPartitionWriter, BufferPoolOwner {
 	@Nullable
 	protected final BufferCompressor bufferCompressor;
 
-	public ResultPartition(
+	/** Used to compress the buffers of pipelined subpartitions which are sent over the network. */
+	@Nullable
+	protected final PipelinedBufferCompressor pipelinedBufferCompressor;
+
+	protected ResultPartition(
+		String owningTaskName,
+		int partitionIndex,
+		ResultPartitionID partitionId,
+		ResultPartitionType partitionType,
+		ResultSubpartition[] subpartitions,
+		int numTargetKeyGroups,
+		ResultPartitionManager partitionManager,
+		@Nullable BufferCompressor bufferCompressor,
+		FunctionWithException<BufferPoolOwner, BufferPool, IOException> bufferPoolFactory) {
+
+		this(
+			owningTaskName,
+			partitionIndex,
+			partitionId,
+			partitionType,
+			subpartitions,
+			numTargetKeyGroups,
+			partitionManager,
+			bufferCompressor,
+			null,
+			bufferPoolFactory);
+	}
+
+	protected ResultPartition(
 		String owningTaskName,
 		int partitionIndex,
 		ResultPartitionID partitionId,
@@ -117,6 +149,7 @@ public class ResultPartition implements ResultPartitionWriter, BufferPoolOwner {
 		int numTargetKeyGroups,
 		ResultPartitionManager partitionManager,
 		@Nullable BufferCompressor bufferCompressor,
+		@Nullable PipelinedBufferCompressor pipelinedBufferCompressor,
 		FunctionWithException<BufferPoolOwner, BufferPool, IOException> bufferPoolFactory) {
 
 		this.owningTaskName = checkNotNull(owningTaskName);
@@ -128,6 +161,7 @@ public class ResultPartition implements ResultPartitionWriter, BufferPoolOwner {
 		this.numTargetKeyGroups = numTargetKeyGroups;
 		this.partitionManager = checkNotNull(partitionManager);
 		this.bufferCompressor = bufferCompressor;
+		this.pipelinedBufferCompressor = pipelinedBufferCompressor;
 		this.bufferPoolFactory = bufferPoolFactory;
 	}
 
@@ -144,13 +178,21 @@ public class ResultPartition implements ResultPartitionWriter, BufferPoolOwner {
 		checkState(this.bufferPool == null, "Bug in result partition setup logic: Already registered buffer pool.");
 
 		BufferPool bufferPool = checkNotNull(bufferPoolFactory.apply(this));
-		checkArgument(bufferPool.getNumberOfRequiredMemorySegments() >= getNumberOfSubpartitions(),
+		checkArgument(bufferPool.getNumberOfRequiredMemorySegments() >= getNumberOfRequiredBuffers(),
 			"Bug in result partition setup logic: Buffer pool has not enough guaranteed buffers for this result partition.");
 
 		this.bufferPool = bufferPool;
 		partitionManager.registerResultPartition(this);
 	}
 
+	/**
+	 * Returns the minimum number of guaranteed buffers of the buffer pool of this partition. By
+	 * default, every subpartition needs at least one buffer.
+	 */
+	protected int getNumberOfRequiredBuffers() {
+		return getNumberOfSubpartitions();
+	}
+
 	@Override
 	public void readRecoveredState(ChannelStateReader stateReader) throws IOException, InterruptedException {
 		for (ResultSubpartition subpartition : subpartitions) {
@@ -185,6 +227,15 @@ public class ResultPartition implements ResultPartitionWriter, BufferPoolOwner {
 		return bufferPool;
 	}
 
+	/**
+	 * Returns the compressor of the buffers sent over the network, or null if the buffers of this
+	 * partition are sent uncompressed.
+	 */
+	@Nullable
+	public PipelinedBufferCompressor getPipelinedBufferCompressor() {
+		return pipelinedBufferCompressor;
+	}
+
 	public int getNumberOfQueuedBuffers() {
 		int totalBuffers = 0;
 
@@ -206,19 +257,6 @@ public class ResultPartition implements ResultPartitionWriter, BufferPoolOwner {
 
 	// ------------------------------------------------------------------------
 
-	@Override
-	public BufferBuilder getBufferBuilder(int targetChannel) throws IOException, InterruptedException {
-		checkInProduceState();
-
-		return bufferPool.requestBufferBuilderBlocking(targetChannel);
-	}
-
-	@Override
-	public BufferBuilder tryGetBufferBuilder(int targetChannel) throws IOException {
-		BufferBuilder bufferBuilder = bufferPool.requestBufferBuilder(targetChannel);
-		return bufferBuilder;
-	}
-
 	@Override
 	public boolean addBufferConsumer(
 			BufferConsumer bufferConsumer,
@@ -343,8 +381,18 @@ public class ResultPartition implements ResultPartitionWriter, BufferPoolOwner {
 	public void releaseMemory(int toRelease) throws IOException {
 		checkArgument(toRelease > 0);
 
-		for (ResultSubpartition subpartition : subpartitions) {
-			toRelease -= subpartition.releaseMemory();
+		// Start with the subpartitions holding most buffers, which are the ones of the slowest
+		// consumers. The sizes are sampled once, because they change concurrently.
+		final int[] numQueuedBuffers = new int[subpartitions.length];
+		final Integer[] order = new Integer[subpartitions.length];
+		for (int i = 0; i < subpartitions.length; i++) {
+			numQueuedBuffers[i] = subpartitions[i].unsynchronizedGetNumberOfQueuedBuffers();
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Integer.compare(numQueuedBuffers[b], numQueuedBuffers[a]));
+
+		for (int index : order) {
+			toRelease -= subpartitions[index].releaseMemory();
 
 			// Only release as much memory as needed
 			if (toRelease <= 0) {
@@ -365,7 +413,19 @@ public class ResultPartition implements ResultPartitionWriter, BufferPoolOwner {
 
 	@Override
 	public CompletableFuture<?> getAvailableFuture() {
-		return bufferPool.getAvailableFuture();
+		final CompletableFuture<?> availableFuture = bufferPool.getAvailableFuture();
+		if (!availableFuture.isDone()) {
+			// the producer waits for buffers, which the readers might only recycle once they are
+			// notified of the buffers held back for batching
+			notifyHeldBackBuffers();
+		}
+		return availableFuture;
+	}
+
+	void notifyHeldBackBuffers() {
+		for (ResultSubpartition subpartition : subpartitions) {
+			subpartition.notifyHeldBackBuffers();
+		}
 	}
 
 	@Override
@@ -395,7 +455,7 @@ public class ResultPartition implements ResultPartitionWriter, BufferPoolOwner {
 
 	// ------------------------------------------------------------------------
 
-	private void checkInProduceState() throws IllegalStateException {
+	void checkInProduceState() throws IllegalStateException {
 		checkState(!isFinished, "Partition already finished.");
 	}
 }
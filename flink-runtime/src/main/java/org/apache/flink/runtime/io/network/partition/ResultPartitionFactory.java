@@ -62,10 +62,16 @@ public class ResultPartitionFactory {
 
 	private final boolean blockingShuffleCompressionEnabled;
 
+	private final boolean pipelinedShuffleCompressionEnabled;
+
 	private final String compressionCodec;
 
 	private final int maxBuffersPerChannel;
 
+	private final int sortShuffleMinBuffers;
+
+	private final int sortShuffleMinParallelism;
+
 	public ResultPartitionFactory(
 		ResultPartitionManager partitionManager,
 		FileChannelManager channelManager,
@@ -76,8 +82,11 @@ public class ResultPartitionFactory {
 		int networkBufferSize,
 		boolean forcePartitionReleaseOnConsumption,
 		boolean blockingShuffleCompressionEnabled,
+		boolean pipelinedShuffleCompressionEnabled,
 		String compressionCodec,
-		int maxBuffersPerChannel) {
+		int maxBuffersPerChannel,
+		int sortShuffleMinBuffers,
+		int sortShuffleMinParallelism) {
 
 		this.partitionManager = partitionManager;
 		this.channelManager = channelManager;
@@ -88,8 +97,11 @@ public class ResultPartitionFactory {
 		this.networkBufferSize = networkBufferSize;
 		this.forcePartitionReleaseOnConsumption = forcePartitionReleaseOnConsumption;
 		this.blockingShuffleCompressionEnabled = blockingShuffleCompressionEnabled;
+		this.pipelinedShuffleCompressionEnabled = pipelinedShuffleCompressionEnabled;
 		this.compressionCodec = compressionCodec;
 		this.maxBuffersPerChannel = maxBuffersPerChannel;
+		this.sortShuffleMinBuffers = sortShuffleMinBuffers;
+		this.sortShuffleMinParallelism = sortShuffleMinParallelism;
 	}
 
 	public ResultPartition create(
@@ -120,6 +132,23 @@ public class ResultPartitionFactory {
 			bufferCompressor = new BufferCompressor(networkBufferSize, compressionCodec);
 		}
 
+		PipelinedBufferCompressor pipelinedBufferCompressor = null;
+		if (!type.isBlocking() && pipelinedShuffleCompressionEnabled) {
+			pipelinedBufferCompressor = new PipelinedBufferCompressor(networkBufferSize, compressionCodec);
+		}
+
+		if (isSortMergePartition(numberOfSubpartitions, type)) {
+			return createSortMergePartition(
+				taskNameWithSubtaskAndId,
+				partitionIndex,
+				id,
+				type,
+				numberOfSubpartitions,
+				maxParallelism,
+				bufferCompressor,
+				bufferPoolFactory);
+		}
+
 		ResultSubpartition[] subpartitions = new ResultSubpartition[numberOfSubpartitions];
 		ResultPartition partition = forcePartitionReleaseOnConsumption || !type.isBlocking()
 			? new ReleaseOnConsumptionResultPartition(
@@ -131,8 +160,9 @@ public class ResultPartitionFactory {
 				maxParallelism,
 				partitionManager,
 				bufferCompressor,
+				pipelinedBufferCompressor,
 				bufferPoolFactory)
-			: new ResultPartition(
+			: new BufferWritingResultPartition(
 				taskNameWithSubtaskAndId,
 				partitionIndex,
 				id,
@@ -150,6 +180,59 @@ public class ResultPartitionFactory {
 		return partition;
 	}
 
+	private SortMergeResultPartition createSortMergePartition(
+			String taskNameWithSubtaskAndId,
+			int partitionIndex,
+			ResultPartitionID id,
+			ResultPartitionType type,
+			int numberOfSubpartitions,
+			int maxParallelism,
+			BufferCompressor bufferCompressor,
+			FunctionWithException<BufferPoolOwner, BufferPool, IOException> bufferPoolFactory) {
+		final PartitionedFileWriter fileWriter;
+		try {
+			fileWriter = PartitionedFileWriter.create(numberOfSubpartitions, channelManager.createChannel().getPath());
+		}
+		catch (IOException e) {
+			// see initializeBoundedBlockingPartitions for why we need to wrap the exception here
+			throw new FlinkRuntimeException(e);
+		}
+
+		SortMergeSubpartition[] subpartitions = new SortMergeSubpartition[numberOfSubpartitions];
+		SortMergeResultPartition partition = new SortMergeResultPartition(
+			taskNameWithSubtaskAndId,
+			partitionIndex,
+			id,
+			type,
+			subpartitions,
+			maxParallelism,
+			partitionManager,
+			fileWriter,
+			sortShuffleMinBuffers,
+			networkBufferSize,
+			bufferCompressor,
+			bufferPoolFactory);
+
+		for (int i = 0; i < subpartitions.length; i++) {
+			subpartitions[i] = new SortMergeSubpartition(i, partition);
+		}
+
+		LOG.debug("{}: Initialized {}", taskNameWithSubtaskAndId, this);
+
+		return partition;
+	}
+
+	/**
+	 * Whether the sort-merge blocking shuffle is used for a partition of the given type and number
+	 * of subpartitions. The hash-based blocking shuffle is used when partitions must be released on
+	 * consumption.
+	 */
+	private boolean isSortMergePartition(int numberOfSubpartitions, ResultPartitionType type) {
+		return type.isBlocking()
+			&& !forcePartitionReleaseOnConsumption
+			&& numberOfSubpartitions >= sortShuffleMinParallelism;
+	}
+
 	private void createSubpartitions(
 			ResultPartition partition,
 			ResultPartitionType type,
@@ -163,6 +246,10 @@ public class ResultPartitionFactory {
 				blockingSubpartitionType,
 				networkBufferSize,
 				channelManager);
+		} else if (type == ResultPartitionType.HYBRID) {
+			for (int i = 0; i < subpartitions.length; i++) {
+				subpartitions[i] = new PipelinedSubpartition(i, partition, channelManager, networkBufferSize);
+			}
 		} else {
 			for (int i = 0; i < subpartitions.length; i++) {
 				subpartitions[i] = new PipelinedSubpartition(i, partition);
@@ -217,16 +304,29 @@ public class ResultPartitionFactory {
 			int numberOfSubpartitions,
 			ResultPartitionType type) {
 		return bufferPoolOwner -> {
+			if (isSortMergePartition(numberOfSubpartitions, type)) {
+				// The sort-merge partition collects the data of all subpartitions in one sort
+				// buffer of a fixed size, independent of the number of subpartitions, and spills
+				// it by itself when it is full.
+				return bufferPoolFactory.createBufferPool(
+					sortShuffleMinBuffers,
+					sortShuffleMinBuffers,
+					null,
+					numberOfSubpartitions,
+					Integer.MAX_VALUE);
+			}
+
 			int maxNumberOfMemorySegments = type.isBounded() ?
 				numberOfSubpartitions * networkBuffersPerChannel + floatingNetworkBuffersPerGate : Integer.MAX_VALUE;
 			// If the partition type is back pressure-free, we register with the buffer pool for
-			// callbacks to release memory.
+			// callbacks to release memory. A single slow subpartition of a hybrid partition may then
+			// hold any number of buffers, because they are spilled on demand.
 			return bufferPoolFactory.createBufferPool(
 				numberOfSubpartitions + 1,
 				maxNumberOfMemorySegments,
 				type.hasBackPressure() ? null : bufferPoolOwner,
 				numberOfSubpartitions,
-				maxBuffersPerChannel);
+				type == ResultPartitionType.HYBRID ? Integer.MAX_VALUE : maxBuffersPerChannel);
 		};
 	}
 
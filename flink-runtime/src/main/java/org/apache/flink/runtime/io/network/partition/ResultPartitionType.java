@@ -71,7 +71,20 @@ public enum ResultPartitionType {
 	 * <p>For batch jobs, it will be best to keep this unlimited ({@link #PIPELINED}) since there are
 	 * no checkpoint barriers.
 	 */
-	PIPELINED_BOUNDED(true, true, true, false);
+	PIPELINED_BOUNDED(true, true, true, false),
+
+	/**
+	 * Pipelined partitions with a bounded (local) buffer pool, which spill the unconsumed buffers to
+	 * disk instead of producing back pressure when the buffer pool is exhausted.
+	 *
+	 * <p>The consumers of such a partition are decoupled from each other, so that a slow consumer
+	 * does not slow down the producer and thereby the fast consumers. The spilled buffers are read
+	 * back from disk in the order in which they were produced.
+	 *
+	 * <p>This is meant for bounded streams. It does not support unaligned checkpoints, because
+	 * priority events cannot overtake the spilled buffers.
+	 */
+	HYBRID(true, false, true, false);
 
 	/** Can the partition be consumed while being produced? */
 	private final boolean isPipelined;
@@ -147,6 +147,24 @@ public abstract class ResultSubpartition {
 	 */
 	public abstract int unsynchronizedGetNumberOfQueuedBuffers();
 
+	/**
+	 * Returns the maximum size of the buffers which should be produced for this subpartition, see
+	 * {@link ResultSubpartitionView#notifyNewBufferSize(int)}. By default, the buffers are not limited.
+	 */
+	public int getDesiredBufferSize() {
+		return Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Notifies the reader of the finished buffers it has not been notified of yet because it batches
+	 * its notifications (see {@link BufferAvailabilityListener#getNotificationBatchSize()}). This is
+	 * called once the buffer pool of the producer is exhausted, i.e. before the producer blocks on it
+	 * and whenever the availability of the partition is queried while it is unavailable, as the reader
+	 * might have to recycle buffers for the producer to continue.
+	 */
+	public void notifyHeldBackBuffers() {
+	}
+
 	// ------------------------------------------------------------------------
 
 	/**
@@ -57,4 +57,27 @@ public interface ResultSubpartitionView {
 	boolean isAvailable(int numCreditsAvailable);
 
 	int unsynchronizedGetNumberOfQueuedBuffers();
+
+	/**
+	 * Notifies this view that it is consumed by a remote input channel, i.e. that its buffers are
+	 * sent over the network. Views may compress their buffers with the given codec in this case,
+	 * which the consumer has requested because it can decompress them. Views consumed by local
+	 * input channels or by remote consumers which did not request a codec must hand over their
+	 * buffers as they are.
+	 *
+	 * @param decompressionCodec the codec the consumer can decompress buffers with, or null if the
+	 *                           consumer expects uncompressed buffers
+	 */
+	default void notifyRemoteConsumer(@Nullable String decompressionCodec) {
+	}
+
+	/**
+	 * Notifies this view of the buffer size desired by the consumer, see
+	 * {@link org.apache.flink.runtime.io.network.partition.consumer.BufferDebloater}. Views which
+	 * cannot influence the size of the produced buffers ignore it.
+	 *
+	 * @param newBufferSize the maximum number of bytes of the buffers produced from now on.
+	 */
+	default void notifyNewBufferSize(int newBufferSize) {
+	}
 }
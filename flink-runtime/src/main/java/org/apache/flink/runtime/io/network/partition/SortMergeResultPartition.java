@@ -0,0 +1,463 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.core.memory.MemorySegmentFactory;
+import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.runtime.io.network.buffer.BufferBuilder;
+import org.apache.flink.runtime.io.network.buffer.BufferCompressor;
+import org.apache.flink.runtime.io.network.buffer.BufferPool;
+import org.apache.flink.runtime.io.network.buffer.BufferPoolOwner;
+import org.apache.flink.runtime.io.network.buffer.BufferRecycler;
+import org.apache.flink.runtime.io.network.buffer.NetworkBuffer;
+import org.apache.flink.util.function.FunctionWithException;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * A blocking {@link ResultPartition} which writes the data of all its subpartitions into a single
+ * {@link PartitionedFile}, instead of one file per subpartition like the partitions consisting of
+ * {@link BoundedBlockingSubpartition}s do.
+ *
+ * <p>The serialized records of all subpartitions are appended to one shared
+ * {@link PartitionSortedBuffer}, backed by a fixed number of network buffers of this partition's
+ * {@link BufferPool}. When the sort buffer is full, its data is read out ordered by subpartition
+ * index and spilled as one region to the data file, which only requires sequential writes. Each
+ * subpartition can then be consumed by reading its section of every region, again with sequential
+ * reads.
+ *
+ * <p>Unlike the other partitions, this partition does not hand out a {@link BufferBuilder} per
+ * subpartition, so its memory does not depend on the number of subpartitions: the records are
+ * written with {@link #emitRecord(ByteBuffer, int)} and {@link #broadcastRecord(ByteBuffer)}.
+ * This also reduces the number of files (and file handles) from one per subpartition to two per
+ * partition, which matters for batch jobs of large parallelism.
+ */
+public class SortMergeResultPartition extends ResultPartition {
+
+	/** This lock guards the sort buffer, the result file and the creation of readers. */
+	private final Object lock = new Object();
+
+	/** The subpartitions of this partition, which keep the statistics of the written data. */
+	private final SortMergeSubpartition[] sortMergeSubpartitions;
+
+	/** Maximum number of network buffers of the sort buffer. */
+	private final int sortBufferCapacity;
+
+	/** Size of the network buffers, used to spill and to read the result file. */
+	private final int networkBufferSize;
+
+	/** Writer of the result file, closed once the writing is finished or the partition is released. */
+	@GuardedBy("lock")
+	private final PartitionedFileWriter fileWriter;
+
+	/** All created and not yet released readers. */
+	@GuardedBy("lock")
+	private final Set<SortMergeSubpartitionReader> readers = new HashSet<>();
+
+	/** The sort buffer, created once the buffer pool is set up. */
+	@GuardedBy("lock")
+	@Nullable
+	private PartitionSortedBuffer sortBuffer;
+
+	/** The memory the data of the sort buffer is copied into to write it to the result file. */
+	@GuardedBy("lock")
+	@Nullable
+	private MemorySegment writeSegment;
+
+	/** The result file, available once the writing has finished. */
+	@GuardedBy("lock")
+	@Nullable
+	private PartitionedFile resultFile;
+
+	/** Flag indicating whether the sort buffer and the result file have been released. */
+	@GuardedBy("lock")
+	private boolean isResultReleased;
+
+	public SortMergeResultPartition(
+			String owningTaskName,
+			int partitionIndex,
+			ResultPartitionID partitionId,
+			ResultPartitionType partitionType,
+			SortMergeSubpartition[] subpartitions,
+			int numTargetKeyGroups,
+			ResultPartitionManager partitionManager,
+			PartitionedFileWriter fileWriter,
+			int sortBufferCapacity,
+			int networkBufferSize,
+			@Nullable BufferCompressor bufferCompressor,
+			FunctionWithException<BufferPoolOwner, BufferPool, IOException> bufferPoolFactory) {
+
+		super(
+			owningTaskName,
+			partitionIndex,
+			partitionId,
+			partitionType,
+			subpartitions,
+			numTargetKeyGroups,
+			partitionManager,
+			bufferCompressor,
+			bufferPoolFactory);
+
+		checkArgument(partitionType.isBlocking(), "Sort-merge partitions must be blocking.");
+		checkArgument(sortBufferCapacity > 0, "The sort buffer capacity must be positive.");
+		checkArgument(networkBufferSize > PartitionSortedBuffer.INDEX_ENTRY_SIZE, "The network buffer size is too small.");
+
+		this.sortMergeSubpartitions = subpartitions;
+		this.fileWriter = checkNotNull(fileWriter);
+		this.sortBufferCapacity = sortBufferCapacity;
+		this.networkBufferSize = networkBufferSize;
+	}
+
+	@Override
+	public void setup() throws IOException {
+		super.setup();
+
+		synchronized (lock) {
+			sortBuffer = new PartitionSortedBuffer(
+				getBufferPool(), sortMergeSubpartitions.length, networkBufferSize, sortBufferCapacity);
+			writeSegment = MemorySegmentFactory.allocateUnpooledOffHeapMemory(networkBufferSize, null);
+		}
+	}
+
+	/**
+	 * The sort buffer only needs a single buffer to make progress, the number of subpartitions
+	 * does not matter.
+	 */
+	@Override
+	protected int getNumberOfRequiredBuffers() {
+		return 1;
+	}
+
+	// ------------------------------------------------------------------------
+	//  Writing
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Writes the given serialized record (including its length header) to the given subpartition.
+	 * The remaining bytes of the record are consumed.
+	 */
+	public void emitRecord(ByteBuffer record, int targetSubpartition) throws IOException {
+		synchronized (lock) {
+			checkWritable();
+
+			append(record, targetSubpartition, Buffer.DataType.DATA_BUFFER);
+		}
+	}
+
+	/**
+	 * Writes the given serialized record (including its length header) to all subpartitions.
+	 * The remaining bytes of the record are consumed.
+	 *
+	 * <p>The record is only stored once in the sort buffer, it is copied for every subpartition
+	 * when the sort buffer is spilled.
+	 */
+	public void broadcastRecord(ByteBuffer record) throws IOException {
+		synchronized (lock) {
+			checkWritable();
+
+			final PartitionSortedBuffer buffer = checkNotNull(sortBuffer, "partition not set up");
+			if (buffer.appendBroadcast(record, Buffer.DataType.DATA_BUFFER)) {
+				return;
+			}
+
+			spillSortBuffer();
+			if (!buffer.appendBroadcast(record, Buffer.DataType.DATA_BUFFER)) {
+				writeLargeRecord(record, 0, sortMergeSubpartitions.length);
+			}
+		}
+	}
+
+	/**
+	 * Writes the given event buffer of the given subpartition to the sort buffer and recycles it.
+	 */
+	void addEvent(Buffer event, int subpartitionIndex) throws IOException {
+		synchronized (lock) {
+			try {
+				if (!isResultReleased) {
+					append(event.getNioBufferReadable(), subpartitionIndex, event.getDataType());
+				}
+			}
+			finally {
+				event.recycleBuffer();
+			}
+		}
+	}
+
+	@GuardedBy("lock")
+	private void checkWritable() {
+		checkState(!isResultReleased, "data partition already released");
+		checkState(resultFile == null, "data partition already finished");
+	}
+
+	@GuardedBy("lock")
+	private void append(ByteBuffer data, int subpartition, Buffer.DataType dataType) throws IOException {
+		assert Thread.holdsLock(lock);
+
+		final PartitionSortedBuffer buffer = checkNotNull(sortBuffer, "partition not set up");
+		if (buffer.append(data, subpartition, dataType)) {
+			return;
+		}
+
+		spillSortBuffer();
+		if (!buffer.append(data, subpartition, dataType)) {
+			// the record does not even fit into the empty sort buffer
+			checkState(dataType.isBuffer(), "Event does not fit into the sort buffer.");
+			writeLargeRecord(data, subpartition, subpartition + 1);
+		}
+	}
+
+	/**
+	 * Reads all data out of the sort buffer ordered by subpartition index and writes it as a new
+	 * region into the result file. The buffers of the sort buffer are kept for the next records.
+	 */
+	@GuardedBy("lock")
+	private void spillSortBuffer() throws IOException {
+		assert Thread.holdsLock(lock);
+
+		final PartitionSortedBuffer buffer = sortBuffer;
+		if (buffer == null || buffer.numRecords() == 0 || isResultReleased) {
+			return;
+		}
+
+		buffer.finish();
+		fileWriter.startNewRegion();
+		while (buffer.hasRemaining()) {
+			final int subpartition = buffer.getReadSubpartition();
+			writeBuffer(buffer.copyIntoSegment(writeSegment, WriteSegmentRecycler.INSTANCE), subpartition);
+		}
+		buffer.reset();
+	}
+
+	/**
+	 * Writes a record which does not fit into the sort buffer directly as a region of its own
+	 * into the result file, split over as many buffers as needed. The record is written to all
+	 * subpartitions from the given first (inclusive) to the given last (exclusive) one.
+	 */
+	@GuardedBy("lock")
+	private void writeLargeRecord(ByteBuffer record, int firstSubpartition, int lastSubpartition) throws IOException {
+		assert Thread.holdsLock(lock);
+
+		fileWriter.startNewRegion();
+		final int position = record.position();
+		for (int subpartition = firstSubpartition; subpartition < lastSubpartition; subpartition++) {
+			record.position(position);
+			while (record.hasRemaining()) {
+				final int numBytes = Math.min(writeSegment.size(), record.remaining());
+				writeSegment.put(0, record, numBytes);
+				writeBuffer(
+					new NetworkBuffer(writeSegment, WriteSegmentRecycler.INSTANCE, Buffer.DataType.DATA_BUFFER, numBytes),
+					subpartition);
+			}
+		}
+	}
+
+	private void writeBuffer(Buffer buffer, int subpartition) throws IOException {
+		sortMergeSubpartitions[subpartition].onBufferWritten(buffer);
+
+		if (bufferCompressor != null && buffer.isBuffer() && buffer.readableBytes() > 0) {
+			final Buffer compressedBuffer = bufferCompressor.compressToIntermediateBuffer(buffer);
+			fileWriter.writeBuffer(compressedBuffer, subpartition);
+			if (compressedBuffer != buffer) {
+				compressedBuffer.recycleBuffer();
+			}
+		} else {
+			fileWriter.writeBuffer(buffer, subpartition);
+		}
+	}
+
+	@Override
+	public void finish() throws IOException {
+		super.finish();
+
+		synchronized (lock) {
+			checkState(!isResultReleased, "data partition already released");
+
+			spillSortBuffer();
+			resultFile = fileWriter.finish();
+			releaseWriteMemory();
+		}
+
+		LOG.debug("{}: Finished writing {}.", getOwningTaskName(), resultFile);
+	}
+
+	/**
+	 * Flushing is a no-op, the data of a blocking partition can only be consumed once the
+	 * partition is finished.
+	 */
+	@Override
+	public void flushAll() {
+	}
+
+	@Override
+	public void flush(int subpartitionIndex) {
+	}
+
+	/**
+	 * The sort-merge partition never waits for buffers, because it spills its own sort buffer
+	 * to free them. So it must not block the producer while the sort buffer holds all buffers.
+	 */
+	@Override
+	public CompletableFuture<?> getAvailableFuture() {
+		return AVAILABLE;
+	}
+
+	@GuardedBy("lock")
+	private void releaseWriteMemory() {
+		assert Thread.holdsLock(lock);
+
+		if (sortBuffer != null) {
+			sortBuffer.release();
+		}
+		if (writeSegment != null) {
+			writeSegment.free();
+			writeSegment = null;
+		}
+	}
+
+	// ------------------------------------------------------------------------
+	//  Reading
+	// ------------------------------------------------------------------------
+
+	SortMergeSubpartitionReader createSubpartitionReader(
+			SortMergeSubpartition subpartition,
+			BufferAvailabilityListener availability) throws IOException {
+
+		synchronized (lock) {
+			checkState(!isResultReleased, "data partition already released");
+			checkState(resultFile != null, "writing of blocking partition not yet finished");
+
+			availability.notifyDataAvailable();
+
+			final PartitionedFileReader fileReader = new PartitionedFileReader(
+				resultFile, subpartition.getSubPartitionIndex());
+			final SortMergeSubpartitionReader reader = new SortMergeSubpartitionReader(
+				subpartition,
+				this,
+				fileReader,
+				subpartition.getBuffersInBacklog(),
+				networkBufferSize,
+				availability);
+			readers.add(reader);
+			return reader;
+		}
+	}
+
+	void releaseReaderReference(SortMergeSubpartitionReader reader) throws IOException {
+		reader.getSubpartition().onConsumedSubpartition();
+
+		synchronized (lock) {
+			if (readers.remove(reader) && isResultReleased) {
+				checkReaderReferencesAndDispose();
+			}
+		}
+	}
+
+	// ------------------------------------------------------------------------
+	//  Release
+	// ------------------------------------------------------------------------
+
+	@Override
+	public void release(Throwable cause) {
+		super.release(cause);
+
+		synchronized (lock) {
+			if (isResultReleased) {
+				return;
+			}
+			isResultReleased = true;
+
+			releaseWriteMemory();
+
+			try {
+				fileWriter.close();
+				checkReaderReferencesAndDispose();
+			}
+			catch (Throwable t) {
+				LOG.error("Error during release of result file of " + this + ": " + t.getMessage(), t);
+			}
+		}
+	}
+
+	@GuardedBy("lock")
+	private void checkReaderReferencesAndDispose() throws IOException {
+		assert Thread.holdsLock(lock);
+
+		// the readers keep the data file open, so deleting it would not break them, but we still
+		// wait for them like the other blocking partitions do, to have a consistent life-cycle
+		if (readers.isEmpty()) {
+			fileWriter.deleteFiles();
+		}
+	}
+
+	// ------------------------------------------------------------------------
+
+	@VisibleForTesting
+	long getNumRecordsInSortBuffer() {
+		synchronized (lock) {
+			return sortBuffer == null || sortBuffer.isReleased() ? 0 : sortBuffer.numRecords();
+		}
+	}
+
+	@VisibleForTesting
+	int getNumBuffersInSortBuffer() {
+		synchronized (lock) {
+			return sortBuffer == null ? 0 : sortBuffer.numBuffers();
+		}
+	}
+
+	@VisibleForTesting
+	@Nullable
+	PartitionedFile getResultFile() {
+		synchronized (lock) {
+			return resultFile;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SortMergeResultPartition " + partitionId.toString() + " [" + partitionType + ", "
+			+ subpartitions.length + " subpartitions]";
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Recycler of the buffers wrapping the write segment, which is reused for every written buffer
+	 * and freed by the partition itself.
+	 */
+	private enum WriteSegmentRecycler implements BufferRecycler {
+		INSTANCE;
+
+		@Override
+		public void recycle(MemorySegment memorySegment) {}
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import org.apache.flink.runtime.io.network.api.EndOfPartitionEvent;
+import org.apache.flink.runtime.io.network.api.serialization.EventSerializer;
+import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.runtime.io.network.buffer.BufferConsumer;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * A subpartition of a {@link SortMergeResultPartition}. Unlike the {@link BoundedBlockingSubpartition},
+ * it does neither own any file nor any buffer: the records are written to the sort buffer of the
+ * parent partition, which spills the data of all subpartitions into one shared {@link PartitionedFile}.
+ * The subpartition only keeps the statistics of its data.
+ *
+ * <p>Like the other blocking subpartitions, the data can only be consumed after the writing has
+ * finished, and it can be consumed multiple times and concurrently.
+ */
+final class SortMergeSubpartition extends ResultSubpartition {
+
+	/** The parent partition which owns the sort buffer and the result file. */
+	private final SortMergeResultPartition sortMergePartition;
+
+	/** Counter for the number of data buffers (not events!) written. */
+	private int numDataBuffersWritten;
+
+	/** The counter for the number of data buffers and events. */
+	private int numBuffersAndEventsWritten;
+
+	/** The counter for the number of bytes written (before compression). */
+	private long numBytesWritten;
+
+	/** Flag indicating whether the writing has finished and this is now available for read. */
+	private boolean isFinished;
+
+	/** Flag indicating whether the subpartition has been released. */
+	private volatile boolean isReleased;
+
+	SortMergeSubpartition(int index, SortMergeResultPartition parent) {
+		super(index, parent);
+
+		this.sortMergePartition = checkNotNull(parent);
+	}
+
+	// ------------------------------------------------------------------------
+
+	public boolean isFinished() {
+		return isFinished;
+	}
+
+	@Override
+	public boolean isReleased() {
+		return isReleased;
+	}
+
+	/**
+	 * Only events are added as buffer consumers, the records are written to the parent partition
+	 * directly. The event is added to the sort buffer right away.
+	 */
+	@Override
+	public boolean add(BufferConsumer bufferConsumer, boolean isPriorityEvent) throws IOException {
+		if (isFinished()) {
+			bufferConsumer.close();
+			return false;
+		}
+
+		final Buffer buffer;
+		try {
+			checkState(bufferConsumer.isFinished(), "Only finished events can be added to a sort-merge subpartition.");
+			buffer = bufferConsumer.build();
+		}
+		finally {
+			bufferConsumer.close();
+		}
+		sortMergePartition.addEvent(buffer, getSubPartitionIndex());
+		return true;
+	}
+
+	@Override
+	public void flush() {
+		// nothing to flush, the data can only be consumed once the partition is finished
+	}
+
+	/**
+	 * Called by the parent partition for every buffer of this subpartition written to the result file.
+	 */
+	void onBufferWritten(Buffer buffer) {
+		numBuffersAndEventsWritten++;
+		numBytesWritten += buffer.readableBytes();
+		if (buffer.isBuffer()) {
+			numDataBuffersWritten++;
+		}
+	}
+
+	@Override
+	public List<Buffer> requestInflightBufferSnapshot() {
+		throw new UnsupportedOperationException("The batch job does not support unaligned checkpoint.");
+	}
+
+	@Override
+	public void finish() throws IOException {
+		checkState(!isReleased, "data partition already released");
+		checkState(!isFinished, "data partition already finished");
+
+		sortMergePartition.addEvent(EventSerializer.toBuffer(EndOfPartitionEvent.INSTANCE), getSubPartitionIndex());
+		isFinished = true;
+	}
+
+	@Override
+	public void release() {
+		if (isReleased) {
+			return;
+		}
+
+		isReleased = true;
+		isFinished = true; // for fail fast writes
+	}
+
+	@Override
+	public ResultSubpartitionView createReadView(BufferAvailabilityListener availability) throws IOException {
+		checkState(!isReleased, "data partition already released");
+		checkState(isFinished, "writing of blocking partition not yet finished");
+
+		return sortMergePartition.createSubpartitionReader(this, availability);
+	}
+
+	// ------------------------------ legacy ----------------------------------
+
+	@Override
+	public int releaseMemory() {
+		return 0;
+	}
+
+	// ---------------------------- statistics --------------------------------
+
+	@Override
+	public int unsynchronizedGetNumberOfQueuedBuffers() {
+		return 0;
+	}
+
+	@Override
+	protected long getTotalNumberOfBuffers() {
+		return numBuffersAndEventsWritten;
+	}
+
+	@Override
+	protected long getTotalNumberOfBytes() {
+		return numBytesWritten;
+	}
+
+	@Override
+	int getBuffersInBacklog() {
+		return numDataBuffersWritten;
+	}
+}
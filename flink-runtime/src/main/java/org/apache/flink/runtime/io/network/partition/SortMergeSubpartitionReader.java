@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.core.memory.MemorySegmentFactory;
+import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.runtime.io.network.buffer.BufferRecycler;
+import org.apache.flink.runtime.io.network.partition.ResultSubpartition.BufferAndBacklog;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * The reader (read view) of a {@link SortMergeSubpartition}. It reads the data sections of the
+ * subpartition from the shared {@link PartitionedFile} sequentially, using a small dedicated
+ * set of read buffers, similar to the reader of the {@link FileChannelBoundedData}.
+ */
+final class SortMergeSubpartitionReader implements ResultSubpartitionView, BufferRecycler {
+
+	private static final int NUM_READ_BUFFERS = 2;
+
+	/** The result subpartition that we read. */
+	private final SortMergeSubpartition subpartition;
+
+	/** The parent partition which owns the result file. */
+	private final SortMergeResultPartition partition;
+
+	/** The listener that is notified when there are available buffers for this subpartition view. */
+	private final BufferAvailabilityListener availabilityListener;
+
+	/** The free memory segments to read data into. */
+	private final ArrayDeque<MemorySegment> readBuffers;
+
+	/** The next buffer (look ahead). Null once the data is depleted or reader is disposed. */
+	@Nullable
+	private Buffer nextBuffer;
+
+	/** The reader of the subpartition data in the result file. Null once the reader is disposed. */
+	@Nullable
+	private PartitionedFileReader fileReader;
+
+	/** The remaining number of data buffers (not events) in the result. */
+	private int dataBufferBacklog;
+
+	/** Flag whether this reader is released. */
+	private volatile boolean isReleased;
+
+	SortMergeSubpartitionReader(
+			SortMergeSubpartition subpartition,
+			SortMergeResultPartition partition,
+			PartitionedFileReader fileReader,
+			int numDataBuffers,
+			int bufferSize,
+			BufferAvailabilityListener availabilityListener) throws IOException {
+
+		this.subpartition = checkNotNull(subpartition);
+		this.partition = checkNotNull(partition);
+		this.fileReader = checkNotNull(fileReader);
+		this.availabilityListener = checkNotNull(availabilityListener);
+
+		checkArgument(numDataBuffers >= 0);
+		this.dataBufferBacklog = numDataBuffers;
+
+		this.readBuffers = new ArrayDeque<>(NUM_READ_BUFFERS);
+		for (int i = 0; i < NUM_READ_BUFFERS; i++) {
+			readBuffers.addLast(MemorySegmentFactory.allocateUnpooledOffHeapMemory(bufferSize, null));
+		}
+
+		this.nextBuffer = readNextBuffer();
+	}
+
+	@Nullable
+	private Buffer readNextBuffer() throws IOException {
+		final PartitionedFileReader reader = fileReader;
+		if (reader == null || !reader.hasRemaining()) {
+			return null;
+		}
+
+		final MemorySegment memory = readBuffers.pollFirst();
+		if (memory == null) {
+			// all read buffers are in flight, we continue reading once one is recycled
+			return null;
+		}
+
+		final Buffer buffer = reader.readBuffer(memory, this);
+		if (buffer == null) {
+			readBuffers.addLast(memory);
+		}
+		return buffer;
+	}
+
+	@Nullable
+	@Override
+	public BufferAndBacklog getNextBuffer() throws IOException {
+		final Buffer current = nextBuffer; // copy reference to stack
+
+		if (current == null) {
+			// as per contract, we must return null when the reader is empty,
+			// but also in case the reader is disposed (rather than throwing an exception)
+			return null;
+		}
+		if (current.isBuffer()) {
+			dataBufferBacklog--;
+		}
+
+		nextBuffer = readNextBuffer();
+
+		return BufferAndBacklog.fromBufferAndLookahead(current, nextBuffer, dataBufferBacklog);
+	}
+
+	@Override
+	public void notifyDataAvailable() {
+		if (nextBuffer == null && fileReader != null) {
+			try {
+				nextBuffer = readNextBuffer();
+			} catch (IOException ex) {
+				// this exception wrapper is only for avoiding throwing IOException explicitly
+				// in relevant interface methods
+				throw new IllegalStateException("No data available while reading", ex);
+			}
+
+			// next buffer is null indicates the end of partition
+			if (nextBuffer != null) {
+				availabilityListener.notifyDataAvailable();
+			}
+		}
+	}
+
+	@Override
+	public void recycle(MemorySegment memorySegment) {
+		readBuffers.addLast(memorySegment);
+
+		if (!isReleased) {
+			notifyDataAvailable();
+		}
+	}
+
+	@Override
+	public void releaseAllResources() throws IOException {
+		// it is not a problem if this method executes multiple times
+		isReleased = true;
+
+		final PartitionedFileReader reader = fileReader;
+		// nulling these fields means the read method and will fail fast
+		nextBuffer = null;
+		fileReader = null;
+
+		if (reader != null) {
+			reader.close();
+		}
+
+		// Notify the parent that this one is released. This allows the parent to
+		// eventually release all resources (when all readers are done and the
+		// parent is disposed).
+		partition.releaseReaderReference(this);
+	}
+
+	@Override
+	public boolean isReleased() {
+		return isReleased;
+	}
+
+	@Override
+	public void resumeConsumption() {
+		throw new UnsupportedOperationException("Method should never be called.");
+	}
+
+	@Override
+	public boolean isAvailable(int numCreditsAvailable) {
+		if (numCreditsAvailable > 0) {
+			return nextBuffer != null;
+		}
+
+		return nextBuffer != null && !nextBuffer.isBuffer();
+	}
+
+	@Override
+	public Throwable getFailureCause() {
+		// we can never throw an error after this was created
+		return null;
+	}
+
+	@Override
+	public int unsynchronizedGetNumberOfQueuedBuffers() {
+		return subpartition.unsynchronizedGetNumberOfQueuedBuffers();
+	}
+
+	SortMergeSubpartition getSubpartition() {
+		return subpartition;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Sort-Merge Subpartition Reader: ID=%s, index=%d",
+				partition.getPartitionId(),
+				subpartition.getSubPartitionIndex());
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition.consumer;
+
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.configuration.IllegalConfigurationException;
+import org.apache.flink.configuration.NettyShuffleEnvironmentOptions;
+
+import java.time.Duration;
+import java.util.Objects;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Configuration of the {@link BufferDebloater} of the input gates.
+ */
+public final class BufferDebloatConfiguration {
+
+	private final boolean enabled;
+
+	private final Duration targetTotalTime;
+
+	private final Duration updatePeriod;
+
+	private final int minBufferSize;
+
+	public BufferDebloatConfiguration(
+			boolean enabled,
+			Duration targetTotalTime,
+			Duration updatePeriod,
+			int minBufferSize) {
+
+		this.enabled = enabled;
+		this.targetTotalTime = checkNotNull(targetTotalTime);
+		this.updatePeriod = checkNotNull(updatePeriod);
+		this.minBufferSize = minBufferSize;
+
+		if (targetTotalTime.isNegative() || targetTotalTime.isZero()) {
+			throw new IllegalConfigurationException(
+				"The buffer debloat target must be positive, but was " + targetTotalTime + '.');
+		}
+		if (updatePeriod.isNegative() || updatePeriod.isZero()) {
+			throw new IllegalConfigurationException(
+				"The buffer debloat period must be positive, but was " + updatePeriod + '.');
+		}
+		if (minBufferSize <= 0) {
+			throw new IllegalConfigurationException(
+				"The minimum buffer size of the buffer debloating must be positive, but was " + minBufferSize + '.');
+		}
+	}
+
+	public static BufferDebloatConfiguration fromConfiguration(Configuration configuration) {
+		return new BufferDebloatConfiguration(
+			configuration.get(NettyShuffleEnvironmentOptions.BUFFER_DEBLOAT_ENABLED),
+			configuration.get(NettyShuffleEnvironmentOptions.BUFFER_DEBLOAT_TARGET),
+			configuration.get(NettyShuffleEnvironmentOptions.BUFFER_DEBLOAT_PERIOD),
+			(int) configuration.get(NettyShuffleEnvironmentOptions.BUFFER_DEBLOAT_MIN_BUFFER_SIZE).getBytes());
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Returns the time in which the in-flight data of an input gate should be consumed.
+	 */
+	public Duration getTargetTotalTime() {
+		return targetTotalTime;
+	}
+
+	public Duration getUpdatePeriod() {
+		return updatePeriod;
+	}
+
+	public int getMinBufferSize() {
+		return minBufferSize;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		BufferDebloatConfiguration that = (BufferDebloatConfiguration) o;
+		return enabled == that.enabled &&
+			minBufferSize == that.minBufferSize &&
+			targetTotalTime.equals(that.targetTotalTime) &&
+			updatePeriod.equals(that.updatePeriod);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(enabled, targetTotalTime, updatePeriod, minBufferSize);
+	}
+
+	@Override
+	public String toString() {
+		return "BufferDebloatConfiguration{" +
+			"enabled=" + enabled +
+			", targetTotalTime=" + targetTotalTime +
+			", updatePeriod=" + updatePeriod +
+			", minBufferSize=" + minBufferSize +
+			'}';
+	}
+}
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition.consumer;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.util.clock.Clock;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Adapts the in-flight data of the input channels of a {@link SingleInputGate} to the throughput with
+ * which the gate is consumed, so that only the data of a configured amount of time is buffered (see
+ * {@link BufferDebloatConfiguration#getTargetTotalTime()}). This keeps the in-flight data small under
+ * back pressure, which speeds up checkpoint barriers, without limiting the throughput otherwise.
+ *
+ * <p>The debloater measures the number of consumed bytes per update period of busy time: the time in
+ * which the gate had no data to consume is not counted, because the consumer could not have consumed
+ * more data then and the measured throughput would otherwise drop for idle or upstream-limited gates
+ * rather than for back pressured ones. Out of the (smoothed)
+ * throughput and the target time it computes the desired amount of in-flight data per channel, which
+ * is split into a credit and a buffer size: the credit limits the number of floating buffers a
+ * channel may request, but never goes below the exclusive buffers of a channel, and the buffer size
+ * limits the size of the buffers produced by the upstream subpartitions.
+ *
+ * <p>This class is only accessed by the task thread, except for the getters which are used for
+ * metrics.
+ */
+@NotThreadSafe
+public class BufferDebloater {
+
+	/** Weight of the latest measurement in the smoothed throughput. */
+	private static final double THROUGHPUT_SMOOTHING_FACTOR = 0.3;
+
+	/** Relative change of the buffer size below which the new size is not announced. */
+	private static final double BUFFER_SIZE_CHANGE_THRESHOLD = 0.1;
+
+	private final Clock clock;
+
+	private final long targetTotalTimeMillis;
+
+	private final long updatePeriodNanos;
+
+	private final int numberOfInputChannels;
+
+	private final int minBufferSize;
+
+	private final int maxBufferSize;
+
+	private final int minCredit;
+
+	private final int maxCredit;
+
+	/** The bytes consumed since the last update. */
+	private long consumedBytes;
+
+	/** The time of the last update. */
+	private long lastUpdateNanos;
+
+	/** The time in which the gate had no data since the last update. */
+	private long idleNanos;
+
+	/** The time at which the gate ran out of data, or -1 if it has data. */
+	private long idleStartNanos = -1;
+
+	/** The smoothed throughput in bytes per second, negative before the first measurement. */
+	private volatile long throughput = -1;
+
+	/** The desired amount of in-flight data of the gate in bytes. */
+	private volatile long targetInFlightBytes;
+
+	private volatile int bufferSize;
+
+	private volatile int credit;
+
+	public BufferDebloater(
+			BufferDebloatConfiguration configuration,
+			int numberOfInputChannels,
+			int networkBuffersPerChannel,
+			int floatingNetworkBuffersPerGate,
+			int networkBufferSize,
+			Clock clock) {
+
+		checkArgument(numberOfInputChannels > 0, "The number of input channels must be positive.");
+		checkArgument(networkBufferSize > 0, "The network buffer size must be positive.");
+
+		this.clock = checkNotNull(clock);
+		this.targetTotalTimeMillis = configuration.getTargetTotalTime().toMillis();
+		this.updatePeriodNanos = configuration.getUpdatePeriod().toNanos();
+		this.numberOfInputChannels = numberOfInputChannels;
+		this.maxBufferSize = networkBufferSize;
+		this.minBufferSize = Math.min(configuration.getMinBufferSize(), networkBufferSize);
+		this.minCredit = Math.max(1, networkBuffersPerChannel);
+		this.maxCredit = minCredit + Math.max(0, floatingNetworkBuffersPerGate);
+
+		this.bufferSize = maxBufferSize;
+		this.credit = maxCredit;
+		this.targetInFlightBytes = (long) numberOfInputChannels * maxCredit * maxBufferSize;
+		this.lastUpdateNanos = clock.relativeTimeNanos();
+	}
+
+	/**
+	 * Records that the gate has no data to consume. The time until the next buffer is consumed does not
+	 * count into the measured consumption time.
+	 */
+	void onIdle() {
+		if (idleStartNanos < 0) {
+			idleStartNanos = clock.relativeTimeNanos();
+		}
+	}
+
+	/**
+	 * Records the given number of consumed bytes and recomputes the credit and the buffer size once
+	 * per update period of busy time.
+	 *
+	 * @return true if the credit or the buffer size changed enough to be announced to the channels.
+	 */
+	boolean onBufferConsumed(int numBytes) {
+		consumedBytes += numBytes;
+
+		final long now = clock.relativeTimeNanos();
+		if (idleStartNanos >= 0) {
+			idleNanos += now - idleStartNanos;
+			idleStartNanos = -1;
+		}
+
+		final long busyNanos = now - lastUpdateNanos - idleNanos;
+		if (busyNanos < updatePeriodNanos) {
+			return false;
+		}
+
+		final long currentThroughput = (long) (consumedBytes * 1_000_000_000.0 / busyNanos);
+		consumedBytes = 0;
+		idleNanos = 0;
+		lastUpdateNanos = now;
+
+		return update(currentThroughput);
+	}
+
+	@VisibleForTesting
+	boolean update(long currentThroughput) {
+		final long lastThroughput = throughput;
+		final long newThroughput = lastThroughput < 0
+			? currentThroughput
+			: (long) (THROUGHPUT_SMOOTHING_FACTOR * currentThroughput + (1 - THROUGHPUT_SMOOTHING_FACTOR) * lastThroughput);
+		throughput = newThroughput;
+
+		final long newTargetInFlightBytes = newThroughput * targetTotalTimeMillis / 1000;
+		targetInFlightBytes = newTargetInFlightBytes;
+
+		final long bytesPerChannel = newTargetInFlightBytes / numberOfInputChannels;
+		final int newCredit = (int) Math.max(minCredit, Math.min(maxCredit, divideRoundUp(bytesPerChannel, maxBufferSize)));
+		final int newBufferSize = (int) Math.max(minBufferSize, Math.min(maxBufferSize, bytesPerChannel / newCredit));
+
+		final int lastBufferSize = bufferSize;
+		final boolean changed = newCredit != credit
+			|| Math.abs(newBufferSize - lastBufferSize) > lastBufferSize * BUFFER_SIZE_CHANGE_THRESHOLD
+			// always announce reaching the bounds, otherwise we might stop right before them
+			|| (newBufferSize != lastBufferSize && (newBufferSize == minBufferSize || newBufferSize == maxBufferSize));
+
+		if (changed) {
+			credit = newCredit;
+			bufferSize = newBufferSize;
+		}
+		return changed;
+	}
+
+	private static long divideRoundUp(long dividend, long divisor) {
+		return (dividend + divisor - 1) / divisor;
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Returns the maximum size of the buffers the upstream subpartitions should produce.
+	 */
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * Returns the maximum number of buffers (exclusive and floating) of each input channel.
+	 */
+	public int getCredit() {
+		return credit;
+	}
+
+	/**
+	 * Returns the smoothed consumption throughput of the gate in bytes per second.
+	 */
+	public long getThroughput() {
+		return Math.max(0, throughput);
+	}
+
+	/**
+	 * Returns the amount of in-flight data of the gate which can be consumed in the target time.
+	 */
+	public long getTargetInFlightBytes() {
+		return targetInFlightBytes;
+	}
+}
@@ -27,6 +27,7 @@ import org.apache.flink.runtime.execution.CancelTaskException;
 import org.apache.flink.runtime.io.network.api.CheckpointBarrier;
 import org.apache.flink.runtime.io.network.api.serialization.EventSerializer;
 import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.runtime.io.network.buffer.BufferPool;
 import org.apache.flink.runtime.io.network.partition.PartitionException;
 import org.apache.flink.runtime.io.network.partition.ResultPartitionID;
 import org.apache.flink.runtime.io.network.partition.ResultSubpartitionView;
@@ -128,6 +129,19 @@ public abstract class InputChannel {
 		return partitionId;
 	}
 
+	/**
+	 * Requests a buffer of the gate's buffer pool to assemble a record which spans multiple buffers
+	 * in, without waiting for one to become available. The borrower recycles the buffer once the
+	 * record is deserialized.
+	 *
+	 * @return the borrowed buffer, or <tt>null</tt> if no buffer is available right now.
+	 */
+	@Nullable
+	public Buffer requestSpanningRecordBuffer() throws IOException {
+		final BufferPool bufferPool = inputGate.getBufferPool();
+		return bufferPool == null ? null : bufferPool.requestBuffer();
+	}
+
 	/**
 	 * After sending a {@link org.apache.flink.runtime.io.network.api.CheckpointBarrier} of
 	 * exactly-once mode, the upstream will be blocked and become unavailable. This method
@@ -157,6 +171,16 @@ public abstract class InputChannel {
 	protected void notifyBufferAvailable(int numAvailableBuffers) throws IOException {
 	}
 
+	/**
+	 * Applies the buffer size and the credit computed by the {@link BufferDebloater} of the owning
+	 * gate. Channels which do not consume a subpartition (yet) ignore them.
+	 *
+	 * @param bufferSize The maximum size of the buffers the producer should send.
+	 * @param credit The maximum number of buffers (exclusive and floating) this channel should use.
+	 */
+	void announceDebloatedBuffers(int bufferSize, int credit) {
+	}
+
 	// ------------------------------------------------------------------------
 	// Consume
 	// ------------------------------------------------------------------------
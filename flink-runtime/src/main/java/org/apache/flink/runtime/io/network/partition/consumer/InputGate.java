@@ -121,6 +121,16 @@ public abstract class InputGate implements PullingAsyncDataInput<BufferOrEvent>,
 	 */
 	public abstract InputChannel getChannel(int channelIndex);
 
+	/**
+	 * Returns the maximum number of buffers the channels of this gate may borrow from the buffer pool
+	 * of their gate to assemble one record which spans multiple buffers.
+	 *
+	 * @see InputChannel#requestSpanningRecordBuffer()
+	 */
+	public int getMaxBuffersPerSpanningRecord() {
+		return 0;
+	}
+
 	/**
 	 * Returns the channel infos of this gate.
 	 */
@@ -42,6 +42,7 @@ import java.util.Optional;
 import java.util.Timer;
 import java.util.TimerTask;
 
+import static org.apache.flink.util.Preconditions.checkArgument;
 import static org.apache.flink.util.Preconditions.checkNotNull;
 import static org.apache.flink.util.Preconditions.checkState;
 
@@ -65,6 +66,9 @@ public class LocalInputChannel extends InputChannel implements BufferAvailabilit
 	/** The consumed subpartition. */
 	private volatile ResultSubpartitionView subpartitionView;
 
+	/** The buffer size computed by the buffer debloater, or 0 if the buffers are not debloated. */
+	private volatile int debloatedBufferSize;
+
 	private volatile boolean isReleased;
 
 	/** The latest already triggered checkpoint id which would be updated during {@link #spillInflightBuffers(long, ChannelStateWriter)}.*/
@@ -127,6 +131,10 @@ public class LocalInputChannel extends InputChannel implements BufferAvailabilit
 						throw new IOException("Error requesting subpartition.");
 					}
 
+					if (debloatedBufferSize > 0) {
+						subpartitionView.notifyNewBufferSize(debloatedBufferSize);
+					}
+
 					// make the subpartition view visible
 					this.subpartitionView = subpartitionView;
 
@@ -228,6 +236,11 @@ public class LocalInputChannel extends InputChannel implements BufferAvailabilit
 		notifyChannelNonEmpty();
 	}
 
+	@Override
+	public int getNotificationBatchSize() {
+		return inputGate.getLocalChannelNotificationBatchSize();
+	}
+
 	private ResultSubpartitionView checkAndWaitForSubpartitionView() {
 		// synchronizing on the request lock means this blocks until the asynchronous request
 		// for the partition view has been completed
@@ -250,6 +263,18 @@ public class LocalInputChannel extends InputChannel implements BufferAvailabilit
 		}
 	}
 
+	@Override
+	void announceDebloatedBuffers(int bufferSize, int credit) {
+		checkArgument(bufferSize > 0, "Illegal buffer size.");
+
+		// a local channel has no credit, it only limits the buffers of the subpartition
+		debloatedBufferSize = bufferSize;
+		final ResultSubpartitionView view = subpartitionView;
+		if (view != null) {
+			view.notifyNewBufferSize(bufferSize);
+		}
+	}
+
 	// ------------------------------------------------------------------------
 	// Task events
 	// ------------------------------------------------------------------------
@@ -19,6 +19,8 @@
 package org.apache.flink.runtime.io.network.partition.consumer;
 
 import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.core.memory.MemorySegmentFactory;
 import org.apache.flink.metrics.Counter;
 import org.apache.flink.runtime.checkpoint.channel.ChannelStateWriter;
 import org.apache.flink.runtime.event.TaskEvent;
@@ -45,6 +47,7 @@ import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.apache.flink.util.Preconditions.checkArgument;
 import static org.apache.flink.util.Preconditions.checkNotNull;
 import static org.apache.flink.util.Preconditions.checkState;
 
@@ -89,6 +92,15 @@ public class RemoteInputChannel extends InputChannel {
 	/** The number of available buffers that have not been announced to the producer yet. */
 	private final AtomicInteger unannouncedCredit = new AtomicInteger(0);
 
+	/** The maximum number of exclusive and floating buffers as computed by the buffer debloater. */
+	private volatile int debloatedCredit = Integer.MAX_VALUE;
+
+	/** The buffer size computed by the buffer debloater, or 0 if the buffers are not debloated. */
+	private int debloatedBufferSize;
+
+	/** The buffer size announced to the producer, or 0 if no buffer size was announced. */
+	private int announcedBufferSize;
+
 	/**
 	 * The latest already triggered checkpoint id which would be updated during
 	 * {@link #spillInflightBuffers(long, ChannelStateWriter)}.
@@ -101,6 +113,14 @@ public class RemoteInputChannel extends InputChannel {
 
 	private final BufferManager bufferManager;
 
+	/**
+	 * The segments which compressed in-flight buffers are decompressed into when they are persisted for
+	 * a checkpoint. They are returned once the persisted buffers are recycled and reused for the next
+	 * checkpoints, so that at most one segment per spilled buffer is allocated over the channel's lifetime.
+	 */
+	@GuardedBy("decompressionSegments")
+	private final ArrayDeque<MemorySegment> decompressionSegments = new ArrayDeque<>();
+
 	public RemoteInputChannel(
 		SingleInputGate inputGate,
 		int channelIndex,
@@ -152,6 +172,7 @@ public class RemoteInputChannel extends InputChannel {
 			}
 
 			partitionRequestClient.requestSubpartition(partitionId, subpartitionIndex, this, 0);
+			announceBufferSizeIfNeeded();
 		}
 	}
 
@@ -205,7 +226,10 @@ public class RemoteInputChannel extends InputChannel {
 				if (checkpointBarrier != null && checkpointBarrier.getId() >= checkpointId) {
 					break;
 				}
-				if (buffer.isBuffer()) {
+				if (buffer.isCompressed()) {
+					// the in-flight data is recovered without decompression, so it must be persisted uncompressed
+					inflightBuffers.add(decompressInflightBuffer(buffer));
+				} else if (buffer.isBuffer()) {
 					inflightBuffers.add(buffer.retainBuffer());
 				}
 			}
@@ -220,6 +244,27 @@ public class RemoteInputChannel extends InputChannel {
 		}
 	}
 
+	private Buffer decompressInflightBuffer(Buffer buffer) {
+		MemorySegment segment;
+		synchronized (decompressionSegments) {
+			segment = decompressionSegments.poll();
+		}
+		if (segment == null) {
+			segment = MemorySegmentFactory.allocateUnpooledSegment(inputGate.getMaxDecompressedSize());
+		}
+		return inputGate.decompressToBuffer(buffer, segment, this::recycleDecompressionSegment);
+	}
+
+	private void recycleDecompressionSegment(MemorySegment segment) {
+		synchronized (decompressionSegments) {
+			if (!isReleased.get()) {
+				decompressionSegments.add(segment);
+				return;
+			}
+		}
+		segment.free();
+	}
+
 	// ------------------------------------------------------------------------
 	// Task events
 	// ------------------------------------------------------------------------
@@ -255,6 +300,11 @@ public class RemoteInputChannel extends InputChannel {
 			}
 			bufferManager.releaseAllBuffers(releasedBuffers);
 
+			synchronized (decompressionSegments) {
+				decompressionSegments.forEach(MemorySegment::free);
+				decompressionSegments.clear();
+			}
+
 			// The released flag has to be set before closing the connection to ensure that
 			// buffers received concurrently with closing are properly recycled.
 			if (partitionRequestClient != null) {
@@ -344,6 +394,32 @@ public class RemoteInputChannel extends InputChannel {
 		partitionRequestClient.resumeConsumption(this);
 	}
 
+	@Override
+	void announceDebloatedBuffers(int bufferSize, int credit) {
+		checkArgument(bufferSize > 0 && credit > 0, "Illegal buffer size or credit.");
+
+		debloatedCredit = credit;
+		debloatedBufferSize = bufferSize;
+		announceBufferSizeIfNeeded();
+	}
+
+	/**
+	 * Announces the debloated buffer size to the producer, if it was not announced yet and the
+	 * subpartition has been requested.
+	 */
+	private void announceBufferSizeIfNeeded() {
+		final PartitionRequestClient client = partitionRequestClient;
+		if (client != null && !isReleased() && debloatedBufferSize > 0 && debloatedBufferSize != announcedBufferSize) {
+			announcedBufferSize = debloatedBufferSize;
+			client.notifyNewBufferSize(this, debloatedBufferSize);
+		}
+	}
+
+	@VisibleForTesting
+	int getDebloatedCredit() {
+		return debloatedCredit;
+	}
+
 	// ------------------------------------------------------------------------
 	// Network I/O notifications (called by network I/O thread)
 	// ------------------------------------------------------------------------
@@ -398,6 +474,15 @@ public class RemoteInputChannel extends InputChannel {
 		return initialCredit;
 	}
 
+	/**
+	 * Returns the codec the producer may compress the buffers of this channel with, or null if the
+	 * buffers must be sent uncompressed.
+	 */
+	@Nullable
+	public String getDecompressionCodec() {
+		return inputGate.getDecompressionCodec();
+	}
+
 	public BufferProvider getBufferProvider() throws IOException {
 		if (isReleased.get()) {
 			return null;
@@ -426,7 +511,9 @@ public class RemoteInputChannel extends InputChannel {
 	 * @param backlog The number of unsent buffers in the producer's sub partition.
 	 */
 	void onSenderBacklog(int backlog) throws IOException {
-		int numRequestedBuffers = bufferManager.requestFloatingBuffers(backlog + initialCredit);
+		// the debloated credit only limits the floating buffers, the exclusive ones are always announced
+		int numRequiredBuffers = Math.min(backlog + initialCredit, Math.max(initialCredit, debloatedCredit));
+		int numRequestedBuffers = bufferManager.requestFloatingBuffers(numRequiredBuffers);
 		if (numRequestedBuffers > 0 && unannouncedCredit.getAndAdd(numRequestedBuffers) == 0) {
 			notifyCreditAvailable();
 		}
@@ -443,7 +530,7 @@ public class RemoteInputChannel extends InputChannel {
 
 			final boolean wasEmpty;
 			final CheckpointBarrier notifyReceivedBarrier;
-			final Buffer notifyReceivedBuffer;
+			Buffer notifyReceivedBuffer;
 			final BufferReceivedListener listener = inputGate.getBufferReceivedListener();
 			synchronized (receivedBuffers) {
 				// Similar to notifyBufferAvailable(), make sure that we never add a buffer
@@ -481,6 +568,15 @@ public class RemoteInputChannel extends InputChannel {
 					listener.notifyBarrierReceived(notifyReceivedBarrier, channelInfo);
 				}
 			} else if (notifyReceivedBuffer != null) {
+				if (notifyReceivedBuffer.isCompressed()) {
+					// the in-flight data is recovered without decompression, so it must be persisted uncompressed
+					final Buffer compressedBuffer = notifyReceivedBuffer;
+					try {
+						notifyReceivedBuffer = decompressInflightBuffer(compressedBuffer);
+					} finally {
+						compressedBuffer.recycleBuffer();
+					}
+				}
 				listener.notifyBufferReceived(notifyReceivedBuffer, channelInfo);
 			}
 		} finally {
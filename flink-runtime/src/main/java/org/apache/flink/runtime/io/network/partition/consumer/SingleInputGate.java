@@ -19,6 +19,7 @@
 package org.apache.flink.runtime.io.network.partition.consumer;
 
 import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.core.memory.MemorySegment;
 import org.apache.flink.core.memory.MemorySegmentProvider;
 import org.apache.flink.runtime.checkpoint.channel.ChannelStateReader;
 import org.apache.flink.runtime.clusterframework.types.ResourceID;
@@ -31,6 +32,7 @@ import org.apache.flink.runtime.io.network.buffer.Buffer;
 import org.apache.flink.runtime.io.network.buffer.BufferDecompressor;
 import org.apache.flink.runtime.io.network.buffer.BufferPool;
 import org.apache.flink.runtime.io.network.buffer.BufferProvider;
+import org.apache.flink.runtime.io.network.buffer.BufferRecycler;
 import org.apache.flink.runtime.io.network.buffer.BufferReceivedListener;
 import org.apache.flink.runtime.io.network.partition.PartitionProducerStateProvider;
 import org.apache.flink.runtime.io.network.partition.ResultPartitionID;
@@ -188,6 +190,16 @@ public class SingleInputGate extends IndexedInputGate {
 	@Nullable
 	private final BufferDecompressor bufferDecompressor;
 
+	/** Adapts the in-flight data of the channels to the consumption throughput, if enabled. */
+	@Nullable
+	private final BufferDebloater bufferDebloater;
+
+	/** Number of finished buffers after which the producers of the local channels notify this gate. */
+	private final int localChannelNotificationBatchSize;
+
+	/** Maximum number of buffers of the buffer pool the channels may borrow to assemble a spanning record. */
+	private final int maxBuffersPerSpanningRecord;
+
 	private final MemorySegmentProvider memorySegmentProvider;
 
 	public SingleInputGate(
@@ -200,7 +212,10 @@ public class SingleInputGate extends IndexedInputGate {
 		PartitionProducerStateProvider partitionProducerStateProvider,
 		SupplierWithException<BufferPool, IOException> bufferPoolFactory,
 		@Nullable BufferDecompressor bufferDecompressor,
-		MemorySegmentProvider memorySegmentProvider) {
+		MemorySegmentProvider memorySegmentProvider,
+		@Nullable BufferDebloater bufferDebloater,
+		int localChannelNotificationBatchSize,
+		int maxBuffersPerSpanningRecord) {
 
 		this.owningTaskName = checkNotNull(owningTaskName);
 		Preconditions.checkArgument(0 <= gateIndex, "The gate index must be positive.");
@@ -224,6 +239,11 @@ public class SingleInputGate extends IndexedInputGate {
 		this.partitionProducerStateProvider = checkNotNull(partitionProducerStateProvider);
 
 		this.bufferDecompressor = bufferDecompressor;
+		this.bufferDebloater = bufferDebloater;
+		checkArgument(localChannelNotificationBatchSize > 0, "The notification batch size must be positive.");
+		this.localChannelNotificationBatchSize = localChannelNotificationBatchSize;
+		checkArgument(maxBuffersPerSpanningRecord >= 0, "The maximum number of buffers must not be negative.");
+		this.maxBuffersPerSpanningRecord = maxBuffersPerSpanningRecord;
 		this.memorySegmentProvider = checkNotNull(memorySegmentProvider);
 
 		this.closeFuture = new CompletableFuture<>();
@@ -669,7 +689,33 @@ public class SingleInputGate extends IndexedInputGate {
 	}
 
 	private BufferOrEvent transformBuffer(Buffer buffer, boolean moreAvailable, InputChannel currentChannel) {
-		return new BufferOrEvent(decompressBufferIfNeeded(buffer), currentChannel.getChannelInfo(), moreAvailable);
+		final Buffer decompressedBuffer = decompressBufferIfNeeded(buffer);
+		debloatBuffersIfNeeded(decompressedBuffer.getSize());
+		return new BufferOrEvent(decompressedBuffer, currentChannel.getChannelInfo(), moreAvailable);
+	}
+
+	private void debloatBuffersIfNeeded(int consumedBytes) {
+		if (bufferDebloater != null && bufferDebloater.onBufferConsumed(consumedBytes)) {
+			final int bufferSize = bufferDebloater.getBufferSize();
+			final int credit = bufferDebloater.getCredit();
+			for (InputChannel channel : channels) {
+				channel.announceDebloatedBuffers(bufferSize, credit);
+			}
+		}
+	}
+
+	@Nullable
+	public BufferDebloater getBufferDebloater() {
+		return bufferDebloater;
+	}
+
+	int getLocalChannelNotificationBatchSize() {
+		return localChannelNotificationBatchSize;
+	}
+
+	@Override
+	public int getMaxBuffersPerSpanningRecord() {
+		return maxBuffersPerSpanningRecord;
 	}
 
 	private BufferOrEvent transformEvent(
@@ -703,6 +749,33 @@ public class SingleInputGate extends IndexedInputGate {
 		return new BufferOrEvent(event, currentChannel.getChannelInfo(), moreAvailable, buffer.getSize());
 	}
 
+	/**
+	 * Returns the codec the consumed partitions are requested to compress their buffers with, or null
+	 * if this gate does not decompress buffers.
+	 */
+	@Nullable
+	String getDecompressionCodec() {
+		return bufferDecompressor == null ? null : bufferDecompressor.getCompressionCodec();
+	}
+
+	/**
+	 * Returns the size of the segments which {@link #decompressToBuffer(Buffer, MemorySegment, BufferRecycler)}
+	 * requires.
+	 */
+	int getMaxDecompressedSize() {
+		checkNotNull(bufferDecompressor, "Buffer decompressor not set.");
+		return bufferDecompressor.getMaxDecompressedSize();
+	}
+
+	/**
+	 * Returns a decompressed copy of the given compressed buffer in the given segment, which is independent
+	 * of the buffer decompressor of this gate, e.g. to persist the in-flight data of a checkpoint.
+	 */
+	Buffer decompressToBuffer(Buffer buffer, MemorySegment target, BufferRecycler recycler) {
+		checkNotNull(bufferDecompressor, "Buffer decompressor not set.");
+		return bufferDecompressor.decompressToBuffer(buffer, target, recycler);
+	}
+
 	private Buffer decompressBufferIfNeeded(Buffer buffer) {
 		if (buffer.isCompressed()) {
 			try {
@@ -802,6 +875,10 @@ public class SingleInputGate extends IndexedInputGate {
 					throw new IllegalStateException("Released");
 				}
 
+				if (bufferDebloater != null) {
+					bufferDebloater.onIdle();
+				}
+
 				if (blocking) {
 					inputChannelsWithData.wait();
 				}
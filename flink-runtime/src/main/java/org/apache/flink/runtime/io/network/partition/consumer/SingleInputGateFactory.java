@@ -36,6 +36,7 @@ import org.apache.flink.runtime.io.network.partition.ResultPartitionType;
 import org.apache.flink.runtime.shuffle.NettyShuffleDescriptor;
 import org.apache.flink.runtime.shuffle.ShuffleDescriptor;
 import org.apache.flink.runtime.taskmanager.NettyShuffleEnvironmentConfiguration;
+import org.apache.flink.util.clock.SystemClock;
 import org.apache.flink.util.function.SupplierWithException;
 
 import org.slf4j.Logger;
@@ -78,10 +79,18 @@ public class SingleInputGateFactory {
 
 	private final boolean blockingShuffleCompressionEnabled;
 
+	private final boolean pipelinedShuffleCompressionEnabled;
+
 	private final String compressionCodec;
 
 	private final int networkBufferSize;
 
+	private final BufferDebloatConfiguration bufferDebloatConfiguration;
+
+	private final int localChannelNotificationBatchSize;
+
+	private final int maxBuffersPerSpanningRecord;
+
 	public SingleInputGateFactory(
 			@Nonnull ResourceID taskExecutorResourceId,
 			@Nonnull NettyShuffleEnvironmentConfiguration networkConfig,
@@ -95,8 +104,12 @@ public class SingleInputGateFactory {
 		this.networkBuffersPerChannel = networkConfig.networkBuffersPerChannel();
 		this.floatingNetworkBuffersPerGate = networkConfig.floatingNetworkBuffersPerGate();
 		this.blockingShuffleCompressionEnabled = networkConfig.isBlockingShuffleCompressionEnabled();
+		this.pipelinedShuffleCompressionEnabled = networkConfig.isPipelinedShuffleCompressionEnabled();
 		this.compressionCodec = networkConfig.getCompressionCodec();
 		this.networkBufferSize = networkConfig.networkBufferSize();
+		this.bufferDebloatConfiguration = networkConfig.getBufferDebloatConfiguration();
+		this.localChannelNotificationBatchSize = networkConfig.getLocalChannelNotificationBatchSize();
+		this.maxBuffersPerSpanningRecord = networkConfig.getMaxBuffersPerSpanningRecord();
 		this.connectionManager = connectionManager;
 		this.partitionManager = partitionManager;
 		this.taskEventPublisher = taskEventPublisher;
@@ -120,10 +133,24 @@ public class SingleInputGateFactory {
 			igdd.getConsumedPartitionType());
 
 		BufferDecompressor bufferDecompressor = null;
-		if (igdd.getConsumedPartitionType().isBlocking() && blockingShuffleCompressionEnabled) {
+		if (igdd.getConsumedPartitionType().isBlocking()
+				? blockingShuffleCompressionEnabled
+				: pipelinedShuffleCompressionEnabled) {
 			bufferDecompressor = new BufferDecompressor(networkBufferSize, compressionCodec);
 		}
 
+		// the in-flight data of blocking partitions does not delay checkpoint barriers
+		BufferDebloater bufferDebloater = null;
+		if (bufferDebloatConfiguration.isEnabled() && !igdd.getConsumedPartitionType().isBlocking()) {
+			bufferDebloater = new BufferDebloater(
+				bufferDebloatConfiguration,
+				igdd.getShuffleDescriptors().length,
+				networkBuffersPerChannel,
+				floatingNetworkBuffersPerGate,
+				networkBufferSize,
+				SystemClock.getInstance());
+		}
+
 		SingleInputGate inputGate = new SingleInputGate(
 			owningTaskName,
 			gateIndex,
@@ -134,7 +161,10 @@ public class SingleInputGateFactory {
 			partitionProducerStateProvider,
 			bufferPoolFactory,
 			bufferDecompressor,
-			networkBufferPool);
+			networkBufferPool,
+			bufferDebloater,
+			localChannelNotificationBatchSize,
+			maxBuffersPerSpanningRecord);
 
 		createInputChannels(owningTaskName, igdd, inputGate, metrics);
 		return inputGate;
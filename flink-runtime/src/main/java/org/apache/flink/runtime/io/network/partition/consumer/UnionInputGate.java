@@ -148,6 +148,15 @@ public class UnionInputGate extends InputGate {
 			.getChannel(channelIndex - inputGateChannelIndexOffsets[gateIndex]);
 	}
 
+	@Override
+	public int getMaxBuffersPerSpanningRecord() {
+		int maxBuffersPerSpanningRecord = 0;
+		for (InputGate inputGate : inputGatesByGateIndex.values()) {
+			maxBuffersPerSpanningRecord = Math.max(maxBuffersPerSpanningRecord, inputGate.getMaxBuffersPerSpanningRecord());
+		}
+		return maxBuffersPerSpanningRecord;
+	}
+
 	@Override
 	public boolean isFinished() {
 		return inputGatesWithRemainingData.isEmpty();
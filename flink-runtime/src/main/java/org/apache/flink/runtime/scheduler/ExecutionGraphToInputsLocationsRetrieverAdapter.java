@@ -19,10 +19,11 @@
 package org.apache.flink.runtime.scheduler;
 
 import org.apache.flink.runtime.execution.ExecutionState;
-import org.apache.flink.runtime.executiongraph.ExecutionEdge;
+import org.apache.flink.runtime.executiongraph.ConsumedPartitionGroup;
 import org.apache.flink.runtime.executiongraph.ExecutionGraph;
 import org.apache.flink.runtime.executiongraph.ExecutionJobVertex;
 import org.apache.flink.runtime.executiongraph.ExecutionVertex;
+import org.apache.flink.runtime.executiongraph.IntermediateResultPartition;
 import org.apache.flink.runtime.scheduler.strategy.ExecutionVertexID;
 import org.apache.flink.runtime.taskmanager.TaskManagerLocation;
 
@@ -53,10 +54,10 @@ public class ExecutionGraphToInputsLocationsRetrieverAdapter implements InputsLo
 
 		List<Collection<ExecutionVertexID>> resultPartitionProducers = new ArrayList<>(ev.getNumberOfInputs());
 		for (int i = 0; i < ev.getNumberOfInputs(); i++) {
-			ExecutionEdge[] inputEdges = ev.getInputEdges(i);
-			List<ExecutionVertexID> producers = new ArrayList<>(inputEdges.length);
-			for (ExecutionEdge inputEdge : inputEdges) {
-				ExecutionVertex producer = inputEdge.getSource().getProducer();
+			ConsumedPartitionGroup consumedPartitions = ev.getConsumedPartitionGroup(i);
+			List<ExecutionVertexID> producers = new ArrayList<>(consumedPartitions.size());
+			for (IntermediateResultPartition consumedPartition : consumedPartitions) {
+				ExecutionVertex producer = consumedPartition.getProducer();
 				producers.add(producer.getID());
 			}
 			resultPartitionProducers.add(producers);
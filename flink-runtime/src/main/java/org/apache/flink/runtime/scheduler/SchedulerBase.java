@@ -353,8 +353,9 @@ public abstract class SchedulerBase implements SchedulerNG {
 		// abort pending checkpoints to
 		// i) enable new checkpoint triggering without waiting for last checkpoint expired.
 		// ii) ensure the EXACTLY_ONCE semantics if needed.
-		checkpointCoordinator.abortPendingCheckpoints(
-				new CheckpointException(CheckpointFailureReason.JOB_FAILOVER_REGION));
+		checkpointCoordinator.abortPendingCheckpoints(new CheckpointException(isGlobalRecovery ?
+				CheckpointFailureReason.JOB_FAILURE :
+				CheckpointFailureReason.JOB_FAILOVER_REGION));
 
 		final Set<ExecutionJobVertex> jobVerticesToRestore = getInvolvedExecutionJobVertices(vertices);
 		if (isGlobalRecovery) {
@@ -18,7 +18,8 @@
 
 package org.apache.flink.runtime.scheduler.adapter;
 
-import org.apache.flink.runtime.executiongraph.ExecutionEdge;
+import org.apache.flink.runtime.executiongraph.ConsumedPartitionGroup;
+import org.apache.flink.runtime.executiongraph.ConsumerVertexGroup;
 import org.apache.flink.runtime.executiongraph.ExecutionGraph;
 import org.apache.flink.runtime.executiongraph.ExecutionJobVertex;
 import org.apache.flink.runtime.executiongraph.ExecutionVertex;
@@ -36,6 +37,7 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -188,17 +190,53 @@ public class DefaultExecutionTopology implements SchedulingTopology {
 		Map<ExecutionVertex, DefaultExecutionVertex> executionVertexMap,
 		Map<IntermediateResultPartitionID, DefaultResultPartition> resultPartitions) {
 
+		// the groups are shared in the execution graph, so that the adapted groups are shared as well
+		final Map<ConsumedPartitionGroup, List<DefaultResultPartition>> consumedResultGroups = new IdentityHashMap<>();
+		final Map<ConsumerVertexGroup, List<DefaultExecutionVertex>> consumerGroups = new IdentityHashMap<>();
+
 		for (Map.Entry<ExecutionVertex, DefaultExecutionVertex> mapEntry : executionVertexMap.entrySet()) {
 			final DefaultExecutionVertex schedulingVertex = mapEntry.getValue();
 			final ExecutionVertex executionVertex = mapEntry.getKey();
 
 			for (int index = 0; index < executionVertex.getNumberOfInputs(); index++) {
-				for (ExecutionEdge edge : executionVertex.getInputEdges(index)) {
-					DefaultResultPartition partition = resultPartitions.get(edge.getSource().getPartitionId());
-					schedulingVertex.addConsumedResult(partition);
-					partition.addConsumer(schedulingVertex);
+				final ConsumedPartitionGroup consumedPartitionGroup = executionVertex.getConsumedPartitionGroup(index);
+				schedulingVertex.addConsumedResultGroup(consumedResultGroups.computeIfAbsent(
+					consumedPartitionGroup,
+					group -> adaptConsumedPartitionGroup(group, resultPartitions)));
+			}
+
+			for (IntermediateResultPartition producedPartition : executionVertex.getProducedPartitions().values()) {
+				final DefaultResultPartition partition = resultPartitions.get(producedPartition.getPartitionId());
+				for (ConsumerVertexGroup consumerVertexGroup : producedPartition.getConsumerVertexGroups()) {
+					if (!consumerVertexGroup.isEmpty()) {
+						partition.addConsumerGroup(consumerGroups.computeIfAbsent(
+							consumerVertexGroup,
+							group -> adaptConsumerVertexGroup(group, executionVertexMap)));
+					}
 				}
 			}
 		}
 	}
+
+	private static List<DefaultResultPartition> adaptConsumedPartitionGroup(
+		ConsumedPartitionGroup consumedPartitionGroup,
+		Map<IntermediateResultPartitionID, DefaultResultPartition> resultPartitions) {
+
+		final List<DefaultResultPartition> consumedResults = new ArrayList<>(consumedPartitionGroup.size());
+		for (IntermediateResultPartition consumedPartition : consumedPartitionGroup) {
+			consumedResults.add(resultPartitions.get(consumedPartition.getPartitionId()));
+		}
+		return Collections.unmodifiableList(consumedResults);
+	}
+
+	private static List<DefaultExecutionVertex> adaptConsumerVertexGroup(
+		ConsumerVertexGroup consumerVertexGroup,
+		Map<ExecutionVertex, DefaultExecutionVertex> executionVertexMap) {
+
+		final List<DefaultExecutionVertex> consumers = new ArrayList<>(consumerVertexGroup.size());
+		for (ExecutionVertex consumer : consumerVertexGroup) {
+			consumers.add(executionVertexMap.get(consumer));
+		}
+		return Collections.unmodifiableList(consumers);
+	}
 }
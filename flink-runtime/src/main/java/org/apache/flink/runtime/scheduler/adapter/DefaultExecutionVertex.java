@@ -23,6 +23,8 @@ import org.apache.flink.runtime.execution.ExecutionState;
 import org.apache.flink.runtime.scheduler.strategy.ExecutionVertexID;
 import org.apache.flink.runtime.scheduler.strategy.SchedulingExecutionVertex;
 
+import org.apache.flink.shaded.guava18.com.google.common.collect.Iterables;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Supplier;
@@ -36,7 +38,7 @@ class DefaultExecutionVertex implements SchedulingExecutionVertex {
 
 	private final ExecutionVertexID executionVertexId;
 
-	private final List<DefaultResultPartition> consumedResults;
+	private final List<List<DefaultResultPartition>> consumedResultGroups;
 
 	private final List<DefaultResultPartition> producedResults;
 
@@ -50,7 +52,7 @@ class DefaultExecutionVertex implements SchedulingExecutionVertex {
 			Supplier<ExecutionState> stateSupplier,
 			InputDependencyConstraint constraint) {
 		this.executionVertexId = checkNotNull(executionVertexId);
-		this.consumedResults = new ArrayList<>();
+		this.consumedResultGroups = new ArrayList<>();
 		this.stateSupplier = checkNotNull(stateSupplier);
 		this.producedResults = checkNotNull(producedPartitions);
 		this.inputDependencyConstraint = checkNotNull(constraint);
@@ -68,7 +70,7 @@ class DefaultExecutionVertex implements SchedulingExecutionVertex {
 
 	@Override
 	public Iterable<DefaultResultPartition> getConsumedResults() {
-		return consumedResults;
+		return Iterables.concat(consumedResultGroups);
 	}
 
 	@Override
@@ -81,7 +83,12 @@ class DefaultExecutionVertex implements SchedulingExecutionVertex {
 		return inputDependencyConstraint;
 	}
 
-	void addConsumedResult(DefaultResultPartition result) {
-			consumedResults.add(result);
+	@Override
+	public List<List<DefaultResultPartition>> getGroupedConsumedResults() {
+		return consumedResultGroups;
+	}
+
+	void addConsumedResultGroup(List<DefaultResultPartition> resultGroup) {
+		consumedResultGroups.add(checkNotNull(resultGroup));
 	}
 }
@@ -24,6 +24,8 @@ import org.apache.flink.runtime.jobgraph.IntermediateResultPartitionID;
 import org.apache.flink.runtime.scheduler.strategy.ResultPartitionState;
 import org.apache.flink.runtime.scheduler.strategy.SchedulingResultPartition;
 
+import org.apache.flink.shaded.guava18.com.google.common.collect.Iterables;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Supplier;
@@ -45,7 +47,7 @@ class DefaultResultPartition implements SchedulingResultPartition {
 
 	private DefaultExecutionVertex producer;
 
-	private final List<DefaultExecutionVertex> consumers;
+	private final List<List<DefaultExecutionVertex>> consumerGroups;
 
 	DefaultResultPartition(
 			IntermediateResultPartitionID partitionId,
@@ -56,7 +58,7 @@ class DefaultResultPartition implements SchedulingResultPartition {
 		this.intermediateDataSetId = checkNotNull(intermediateDataSetId);
 		this.partitionType = checkNotNull(partitionType);
 		this.resultPartitionStateSupplier = checkNotNull(resultPartitionStateSupplier);
-		this.consumers = new ArrayList<>();
+		this.consumerGroups = new ArrayList<>(1);
 	}
 
 	@Override
@@ -86,11 +88,16 @@ class DefaultResultPartition implements SchedulingResultPartition {
 
 	@Override
 	public Iterable<DefaultExecutionVertex> getConsumers() {
-		return consumers;
+		return Iterables.concat(consumerGroups);
+	}
+
+	@Override
+	public List<List<DefaultExecutionVertex>> getGroupedConsumers() {
+		return consumerGroups;
 	}
 
-	void addConsumer(DefaultExecutionVertex vertex) {
-		consumers.add(checkNotNull(vertex));
+	void addConsumerGroup(List<DefaultExecutionVertex> consumerGroup) {
+		consumerGroups.add(checkNotNull(consumerGroup));
 	}
 
 	void setProducer(DefaultExecutionVertex vertex) {
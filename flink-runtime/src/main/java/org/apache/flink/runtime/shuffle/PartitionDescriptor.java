@@ -19,7 +19,7 @@
 package org.apache.flink.runtime.shuffle;
 
 import org.apache.flink.annotation.VisibleForTesting;
-import org.apache.flink.runtime.executiongraph.ExecutionEdge;
+import org.apache.flink.runtime.executiongraph.ConsumerVertexGroup;
 import org.apache.flink.runtime.executiongraph.IntermediateResult;
 import org.apache.flink.runtime.executiongraph.IntermediateResultPartition;
 import org.apache.flink.runtime.io.network.partition.ResultPartitionType;
@@ -119,7 +119,7 @@ public class PartitionDescriptor implements Serializable {
 		// If no consumers are known at this point, we use a single subpartition, otherwise we have
 		// one for each consuming sub task.
 		int numberOfSubpartitions = 1;
-		List<List<ExecutionEdge>> consumers = partition.getConsumers();
+		List<ConsumerVertexGroup> consumers = partition.getConsumerVertexGroups();
 		if (!consumers.isEmpty() && !consumers.get(0).isEmpty()) {
 			if (consumers.size() > 1) {
 				throw new IllegalStateException("Currently, only a single consumer group per partition is supported.");
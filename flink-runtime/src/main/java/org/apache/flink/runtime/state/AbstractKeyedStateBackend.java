@@ -140,7 +140,7 @@ public abstract class AbstractKeyedStateBackend<K> implements
 
 	private static StreamCompressionDecorator determineStreamCompression(ExecutionConfig executionConfig) {
 		if (executionConfig != null && executionConfig.isUseSnapshotCompression()) {
-			return SnappyStreamCompressionDecorator.INSTANCE;
+			return StreamCompressionDecorators.forCodec(executionConfig.getSnapshotCompressionCodec());
 		} else {
 			return UncompressedStreamCompressionDecorator.INSTANCE;
 		}
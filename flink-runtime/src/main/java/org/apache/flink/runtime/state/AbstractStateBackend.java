@@ -45,7 +45,7 @@ public abstract class AbstractStateBackend implements StateBackend, java.io.Seri
 
 	public static StreamCompressionDecorator getCompressionDecorator(ExecutionConfig executionConfig) {
 		if (executionConfig != null && executionConfig.isUseSnapshotCompression()) {
-			return SnappyStreamCompressionDecorator.INSTANCE;
+			return StreamCompressionDecorators.forCodec(executionConfig.getSnapshotCompressionCodec());
 		} else {
 			return UncompressedStreamCompressionDecorator.INSTANCE;
 		}
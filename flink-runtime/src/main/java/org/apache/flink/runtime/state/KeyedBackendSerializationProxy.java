@@ -46,7 +46,7 @@ import static org.apache.flink.runtime.state.metainfo.StateMetaInfoSnapshotReade
  */
 public class KeyedBackendSerializationProxy<K> extends VersionedIOReadableWritable {
 
-	public static final int VERSION = 6;
+	public static final int VERSION = 7;
 
 	private static final Map<Integer, Integer> META_INFO_SNAPSHOT_FORMAT_VERSION_MAPPER = new HashMap<>();
 	static {
@@ -56,12 +56,15 @@ public class KeyedBackendSerializationProxy<K> extends VersionedIOReadableWritab
 		META_INFO_SNAPSHOT_FORMAT_VERSION_MAPPER.put(4, 4);
 		META_INFO_SNAPSHOT_FORMAT_VERSION_MAPPER.put(5, 5);
 		META_INFO_SNAPSHOT_FORMAT_VERSION_MAPPER.put(6, CURRENT_STATE_META_INFO_SNAPSHOT_VERSION);
+		META_INFO_SNAPSHOT_FORMAT_VERSION_MAPPER.put(7, CURRENT_STATE_META_INFO_SNAPSHOT_VERSION);
 	}
 
-	//TODO allow for more (user defined) compression formats + backwards compatibility story.
 	/** This specifies if we use a compressed format write the key-groups */
 	private boolean usingKeyGroupCompression;
 
+	/** The compression of the key-groups, which is written since version 7. Before, Snappy was the only codec. */
+	private StreamCompressionDecorator keyGroupCompressionDecorator;
+
 	// TODO the keySerializer field should be removed, once all serializers have the restoreSerializer() method implemented
 	private TypeSerializer<K> keySerializer;
 	private TypeSerializerSnapshot<K> keySerializerSnapshot;
@@ -78,8 +81,20 @@ public class KeyedBackendSerializationProxy<K> extends VersionedIOReadableWritab
 			TypeSerializer<K> keySerializer,
 			List<StateMetaInfoSnapshot> stateMetaInfoSnapshots,
 			boolean compression) {
+		this(
+			keySerializer,
+			stateMetaInfoSnapshots,
+			compression ? SnappyStreamCompressionDecorator.INSTANCE : UncompressedStreamCompressionDecorator.INSTANCE);
+	}
+
+	public KeyedBackendSerializationProxy(
+			TypeSerializer<K> keySerializer,
+			List<StateMetaInfoSnapshot> stateMetaInfoSnapshots,
+			StreamCompressionDecorator keyGroupCompressionDecorator) {
 
-		this.usingKeyGroupCompression = compression;
+		this.keyGroupCompressionDecorator = Preconditions.checkNotNull(keyGroupCompressionDecorator);
+		this.usingKeyGroupCompression =
+			!(keyGroupCompressionDecorator instanceof UncompressedStreamCompressionDecorator);
 
 		this.keySerializer = Preconditions.checkNotNull(keySerializer);
 		this.keySerializerSnapshot = Preconditions.checkNotNull(keySerializer.snapshotConfiguration());
@@ -101,6 +116,13 @@ public class KeyedBackendSerializationProxy<K> extends VersionedIOReadableWritab
 		return usingKeyGroupCompression;
 	}
 
+	/**
+	 * Returns the compression with which the key-groups were written.
+	 */
+	public StreamCompressionDecorator getKeyGroupCompressionDecorator() {
+		return keyGroupCompressionDecorator;
+	}
+
 	@Override
 	public int getVersion() {
 		return VERSION;
@@ -108,7 +130,7 @@ public class KeyedBackendSerializationProxy<K> extends VersionedIOReadableWritab
 
 	@Override
 	public int[] getCompatibleVersions() {
-		return new int[]{VERSION, 5, 4, 3, 2, 1};
+		return new int[]{VERSION, 6, 5, 4, 3, 2, 1};
 	}
 
 	@Override
@@ -117,6 +139,9 @@ public class KeyedBackendSerializationProxy<K> extends VersionedIOReadableWritab
 
 		// write the compression format used to write each key-group
 		out.writeBoolean(usingKeyGroupCompression);
+		if (usingKeyGroupCompression) {
+			StreamCompressionDecorators.write(keyGroupCompressionDecorator, out);
+		}
 
 		TypeSerializerSnapshotSerializationUtil.writeSerializerSnapshot(out, keySerializerSnapshot, keySerializer);
 
@@ -140,6 +165,14 @@ public class KeyedBackendSerializationProxy<K> extends VersionedIOReadableWritab
 			usingKeyGroupCompression = false;
 		}
 
+		if (!usingKeyGroupCompression) {
+			keyGroupCompressionDecorator = UncompressedStreamCompressionDecorator.INSTANCE;
+		} else if (readVersion >= 7) {
+			keyGroupCompressionDecorator = StreamCompressionDecorators.read(in);
+		} else {
+			keyGroupCompressionDecorator = SnappyStreamCompressionDecorator.INSTANCE;
+		}
+
 		// only starting from version 3, we have the key serializer and its config snapshot written
 		if (readVersion >= 6) {
 			this.keySerializerSnapshot = TypeSerializerSnapshotSerializationUtil.readSerializerSnapshot(
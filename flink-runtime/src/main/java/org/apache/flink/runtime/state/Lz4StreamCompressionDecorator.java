@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.runtime.util.NonClosingInputStreamDecorator;
+import org.apache.flink.runtime.util.NonClosingOutpusStreamDecorator;
+
+import net.jpountz.lz4.LZ4BlockInputStream;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.xxhash.XXHashFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * This implementation decorates the stream with lz4 compression. With a compression level, the high compression
+ * variant of lz4 is used, which compresses slower but decompresses as fast as the default variant.
+ */
+@Internal
+public class Lz4StreamCompressionDecorator extends StreamCompressionDecorator {
+
+	public static final StreamCompressionDecorator INSTANCE = new Lz4StreamCompressionDecorator(0);
+
+	/** The default compression level of the high compression variant. */
+	public static final int DEFAULT_HC_LEVEL = 9;
+
+	/** The maximum compression level of the high compression variant. */
+	public static final int MAX_HC_LEVEL = 17;
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int COMPRESSION_BLOCK_SIZE = 64 * 1024;
+
+	/** The compression level of the high compression variant, or 0 for the default variant. */
+	private final int level;
+
+	public Lz4StreamCompressionDecorator(int level) {
+		checkArgument(level >= 0 && level <= MAX_HC_LEVEL,
+			"The compression level of LZ4 must be between 0 and %s, but is %s.", MAX_HC_LEVEL, level);
+		this.level = level;
+	}
+
+	public int getLevel() {
+		return level;
+	}
+
+	@Override
+	protected OutputStream decorateWithCompression(NonClosingOutpusStreamDecorator stream) throws IOException {
+		LZ4Compressor compressor = level == 0 ?
+			LZ4Factory.fastestInstance().fastCompressor() :
+			LZ4Factory.fastestInstance().highCompressor(level);
+		return new LZ4BlockOutputStream(stream, COMPRESSION_BLOCK_SIZE, compressor);
+	}
+
+	@Override
+	protected InputStream decorateWithCompression(NonClosingInputStreamDecorator stream) throws IOException {
+		// the state of a key-group can consist of several concatenated compressed streams
+		return new LZ4BlockInputStream(
+			stream,
+			LZ4Factory.fastestInstance().fastDecompressor(),
+			XXHashFactory.fastestInstance().newStreamingHash32(0x9747b28c).asChecksum(),
+			false);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return this == o || (o != null && getClass() == o.getClass() && level == ((Lz4StreamCompressionDecorator) o).level);
+	}
+
+	@Override
+	public int hashCode() {
+		return level;
+	}
+
+	@Override
+	public String toString() {
+		return level == 0 ? "LZ4" : "LZ4_HC:" + level;
+	}
+}
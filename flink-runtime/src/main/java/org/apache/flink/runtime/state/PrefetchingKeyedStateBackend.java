@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state;
+
+import java.util.Collection;
+
+/**
+ * A {@link KeyedStateBackend} which can fetch the values of many keys of a value state with one batched lookup.
+ * Operators which process their input in bundles, e.g. mini-batches, can prefetch the values of all keys of a
+ * bundle before they process the keys one by one.
+ *
+ * @param <K> The key by which state is keyed.
+ */
+public interface PrefetchingKeyedStateBackend<K> extends KeyedStateBackend<K> {
+
+	/**
+	 * Prefetches the values of the given keys in the current namespace of the value state with the given name, so
+	 * that the next read of each of these keys does not access the storage. A later prefetch of the same state
+	 * drops the values of the previous one which were not read yet.
+	 *
+	 * <p>This is only a hint, it does nothing if there is no value state with the given name.
+	 *
+	 * @param stateName The name of the value state.
+	 * @param keys The keys whose values are read next.
+	 */
+	void prefetchValues(String stateName, Collection<? extends K> keys) throws Exception;
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.configuration.IllegalConfigurationException;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputView;
+
+import java.io.IOException;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Utilities to create the {@link StreamCompressionDecorator} of a compression codec, and to write the codec of a
+ * snapshot to its meta data, so that the snapshot can be restored with any configured codec.
+ */
+@Internal
+public final class StreamCompressionDecorators {
+
+	/** Separator between the name of a compression codec and its compression level, e.g. "ZSTD:9". */
+	public static final String LEVEL_SEPARATOR = ":";
+
+	/** The codecs of snapshots, in the order of their ids in the meta data of snapshots. */
+	private enum Codec {
+		NONE,
+		SNAPPY,
+		LZ4,
+		LZ4_HC,
+		ZSTD
+	}
+
+	private StreamCompressionDecorators() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Creates the decorator of the given codec, which is one of "SNAPPY", "LZ4", "LZ4_HC" and "ZSTD". The level of
+	 * "LZ4_HC" and "ZSTD" can be appended to the name, separated by {@link #LEVEL_SEPARATOR}, e.g. "ZSTD:9".
+	 */
+	public static StreamCompressionDecorator forCodec(String codecName) {
+		checkNotNull(codecName);
+
+		String name = codecName;
+		Integer level = null;
+		int separatorIndex = codecName.lastIndexOf(LEVEL_SEPARATOR);
+		if (separatorIndex >= 0) {
+			name = codecName.substring(0, separatorIndex);
+			String levelString = codecName.substring(separatorIndex + 1).trim();
+			try {
+				level = Integer.parseInt(levelString);
+			} catch (NumberFormatException e) {
+				throw new IllegalConfigurationException(
+					"Invalid compression level " + levelString + " of snapshot compression codec " + name, e);
+			}
+		}
+
+		final Codec codec;
+		try {
+			codec = Codec.valueOf(name.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new IllegalConfigurationException("Unknown snapshot compression codec " + codecName, e);
+		}
+
+		if (level != null && codec != Codec.LZ4_HC && codec != Codec.ZSTD) {
+			throw new IllegalConfigurationException(
+				"Snapshot compression codec " + name + " does not support compression levels.");
+		}
+
+		try {
+			switch (codec) {
+				case NONE:
+					return UncompressedStreamCompressionDecorator.INSTANCE;
+				case SNAPPY:
+					return SnappyStreamCompressionDecorator.INSTANCE;
+				case LZ4:
+					return Lz4StreamCompressionDecorator.INSTANCE;
+				case LZ4_HC:
+					return new Lz4StreamCompressionDecorator(
+						level != null ? level : Lz4StreamCompressionDecorator.DEFAULT_HC_LEVEL);
+				case ZSTD:
+					return new ZstdStreamCompressionDecorator(
+						level != null ? level : ZstdStreamCompressionDecorator.DEFAULT_LEVEL);
+				default:
+					throw new IllegalStateException("Unknown snapshot compression codec " + codec);
+			}
+		} catch (IllegalArgumentException e) {
+			throw new IllegalConfigurationException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Writes the codec and the compression level of the given decorator.
+	 */
+	public static void write(StreamCompressionDecorator decorator, DataOutputView out) throws IOException {
+		final Codec codec;
+		int level = 0;
+		if (decorator instanceof UncompressedStreamCompressionDecorator) {
+			codec = Codec.NONE;
+		} else if (decorator instanceof SnappyStreamCompressionDecorator) {
+			codec = Codec.SNAPPY;
+		} else if (decorator instanceof Lz4StreamCompressionDecorator) {
+			level = ((Lz4StreamCompressionDecorator) decorator).getLevel();
+			codec = level == 0 ? Codec.LZ4 : Codec.LZ4_HC;
+		} else if (decorator instanceof ZstdStreamCompressionDecorator) {
+			level = ((ZstdStreamCompressionDecorator) decorator).getLevel();
+			codec = Codec.ZSTD;
+		} else {
+			throw new IOException("Unsupported snapshot compression: " + decorator.getClass().getName());
+		}
+
+		out.writeByte(codec.ordinal());
+		out.writeInt(level);
+	}
+
+	/**
+	 * Reads a decorator which was written by {@link #write(StreamCompressionDecorator, DataOutputView)}. Only the
+	 * codec matters for decompression, not the level.
+	 */
+	public static StreamCompressionDecorator read(DataInputView in) throws IOException {
+		final int codecId = in.readByte();
+		final int level = in.readInt();
+
+		if (codecId < 0 || codecId >= Codec.values().length) {
+			throw new IOException("Unknown snapshot compression codec id " + codecId);
+		}
+
+		switch (Codec.values()[codecId]) {
+			case NONE:
+				return UncompressedStreamCompressionDecorator.INSTANCE;
+			case SNAPPY:
+				return SnappyStreamCompressionDecorator.INSTANCE;
+			case LZ4:
+			case LZ4_HC:
+				return new Lz4StreamCompressionDecorator(level);
+			case ZSTD:
+				return new ZstdStreamCompressionDecorator(level);
+			default:
+				throw new IOException("Unknown snapshot compression codec id " + codecId);
+		}
+	}
+}
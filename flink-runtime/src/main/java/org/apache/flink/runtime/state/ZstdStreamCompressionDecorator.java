@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.runtime.util.NonClosingInputStreamDecorator;
+import org.apache.flink.runtime.util.NonClosingOutpusStreamDecorator;
+
+import com.github.luben.zstd.RecyclingBufferPool;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStreamNoFinalizer;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * This implementation decorates the stream with zstd compression. Higher compression levels give better compression
+ * ratios at the cost of compression speed, the decompression speed is mostly independent of the level.
+ */
+@Internal
+public class ZstdStreamCompressionDecorator extends StreamCompressionDecorator {
+
+	/** The default compression level of the zstd library. */
+	public static final int DEFAULT_LEVEL = 3;
+
+	public static final StreamCompressionDecorator INSTANCE = new ZstdStreamCompressionDecorator(DEFAULT_LEVEL);
+
+	private static final long serialVersionUID = 1L;
+
+	private final int level;
+
+	public ZstdStreamCompressionDecorator(int level) {
+		checkArgument(level >= Zstd.minCompressionLevel() && level <= Zstd.maxCompressionLevel(),
+			"The compression level of ZSTD must be between %s and %s, but is %s.",
+			Zstd.minCompressionLevel(), Zstd.maxCompressionLevel(), level);
+		this.level = level;
+	}
+
+	public int getLevel() {
+		return level;
+	}
+
+	@Override
+	protected OutputStream decorateWithCompression(NonClosingOutpusStreamDecorator stream) throws IOException {
+		return new ZstdOutputStreamNoFinalizer(stream, RecyclingBufferPool.INSTANCE, level);
+	}
+
+	@Override
+	protected InputStream decorateWithCompression(NonClosingInputStreamDecorator stream) throws IOException {
+		// concatenated compressed streams are decompressed as one stream
+		return new ZstdInputStreamNoFinalizer(stream, RecyclingBufferPool.INSTANCE);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return this == o || (o != null && getClass() == o.getClass() && level == ((ZstdStreamCompressionDecorator) o).level);
+	}
+
+	@Override
+	public int hashCode() {
+		return level;
+	}
+
+	@Override
+	public String toString() {
+		return "ZSTD:" + level;
+	}
+}
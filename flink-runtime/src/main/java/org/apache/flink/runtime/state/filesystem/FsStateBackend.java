@@ -115,6 +115,14 @@ public class FsStateBackend extends AbstractFileStateBackend implements Configur
 	 * A value of 'undefined' means not yet configured, in which case the default will be used. */
 	private final TernaryBoolean asynchronousSnapshots;
 
+	/** Switch to chose between full and incremental checkpoints.
+	 * A value of 'undefined' means not yet configured, in which case the default will be used. */
+	private final TernaryBoolean incrementalCheckpoints;
+
+	/** The max number of files which an incremental checkpoint references.
+	 * A value of '-1' means not yet configured, in which case the default will be used. */
+	private final int maxIncrementalCheckpointFiles;
+
 	/**
 	 * The write buffer size for created checkpoint stream, this should not be less than file state threshold when we want
 	 * state below that threshold stored as part of metadata not files.
@@ -122,6 +130,10 @@ public class FsStateBackend extends AbstractFileStateBackend implements Configur
 	 * */
 	private final int writeBufferSize;
 
+	/** The tick of the timing wheel of the timers in milliseconds, where '0' keeps the timers in a binary heap.
+	 * A value of '-1' means not yet configured, in which case the default will be used. */
+	private final long timerTimingWheelTickMillis;
+
 	// -----------------------------------------------------------------------
 
 	/**
@@ -335,20 +347,77 @@ public class FsStateBackend extends AbstractFileStateBackend implements Configur
 			int fileStateSizeThreshold,
 			int writeBufferSize,
 			TernaryBoolean asynchronousSnapshots) {
+		this(
+			checkpointDirectory,
+			defaultSavepointDirectory,
+			fileStateSizeThreshold,
+			writeBufferSize,
+			asynchronousSnapshots,
+			TernaryBoolean.UNDEFINED,
+			-1);
+	}
+
+	/**
+	 * Creates a new state backend that stores its checkpoint data in the file system and location
+	 * defined by the given URI.
+	 *
+	 * <p>A file system for the file system scheme in the URI (e.g., 'file://', 'hdfs://', or 'S3://')
+	 * must be accessible via {@link FileSystem#get(URI)}.
+	 *
+	 * <p>For a state backend targeting HDFS, this means that the URI must either specify the authority
+	 * (host and port), or that the Hadoop configuration that describes that information must be in the
+	 * classpath.
+	 *
+	 * @param checkpointDirectory        The path to write checkpoint metadata to.
+	 * @param defaultSavepointDirectory  The path to write savepoints to. If null, the value from
+	 *                                   the runtime configuration will be used, or savepoint
+	 *                                   target locations need to be passed when triggering a savepoint.
+	 * @param fileStateSizeThreshold     State below this size will be stored as part of the metadata,
+	 *                                   rather than in files. If -1, the value configured in the
+	 *                                   runtime configuration will be used, or the default value (1KB)
+	 *                                   if nothing is configured.
+	 * @param writeBufferSize            Write buffer size used to serialize state. If -1, the value configured in the
+	 *                                   runtime configuration will be used, or the default value (4KB)
+	 *                                   if nothing is configured.
+	 * @param asynchronousSnapshots      Flag to switch between synchronous and asynchronous
+	 *                                   snapshot mode. If UNDEFINED, the value configured in the
+	 *                                   runtime configuration will be used.
+	 * @param incrementalCheckpoints     Flag to switch between full and incremental checkpoints of
+	 *                                   keyed state. If UNDEFINED, the value configured in the
+	 *                                   runtime configuration will be used.
+	 * @param maxIncrementalCheckpointFiles The max number of files which an incremental checkpoint
+	 *                                   references. If -1, the value configured in the runtime
+	 *                                   configuration will be used.
+	 */
+	public FsStateBackend(
+			URI checkpointDirectory,
+			@Nullable URI defaultSavepointDirectory,
+			int fileStateSizeThreshold,
+			int writeBufferSize,
+			TernaryBoolean asynchronousSnapshots,
+			TernaryBoolean incrementalCheckpoints,
+			int maxIncrementalCheckpointFiles) {
 
 		super(checkNotNull(checkpointDirectory, "checkpoint directory is null"), defaultSavepointDirectory);
 
 		checkNotNull(asynchronousSnapshots, "asynchronousSnapshots");
+		checkNotNull(incrementalCheckpoints, "incrementalCheckpoints");
 		checkArgument(fileStateSizeThreshold >= -1 && fileStateSizeThreshold <= MAX_FILE_STATE_THRESHOLD,
 				"The threshold for file state size must be in [-1, %s], where '-1' means to use " +
 						"the value from the deployment's configuration.", MAX_FILE_STATE_THRESHOLD);
 		checkArgument(writeBufferSize >= -1 ,
 			"The write buffer size must be not less than '-1', where '-1' means to use " +
 				"the value from the deployment's configuration.");
+		checkArgument(maxIncrementalCheckpointFiles == -1 || maxIncrementalCheckpointFiles > 0,
+			"The max number of files of an incremental checkpoint must be positive, or '-1' to use " +
+				"the value from the deployment's configuration.");
 
 		this.fileStateThreshold = fileStateSizeThreshold;
 		this.writeBufferSize = writeBufferSize;
 		this.asynchronousSnapshots = asynchronousSnapshots;
+		this.incrementalCheckpoints = incrementalCheckpoints;
+		this.maxIncrementalCheckpointFiles = maxIncrementalCheckpointFiles;
+		this.timerTimingWheelTickMillis = -1L;
 	}
 
 	/**
@@ -365,6 +434,13 @@ public class FsStateBackend extends AbstractFileStateBackend implements Configur
 		this.asynchronousSnapshots = original.asynchronousSnapshots.resolveUndefined(
 				configuration.get(CheckpointingOptions.ASYNC_SNAPSHOTS));
 
+		this.incrementalCheckpoints = original.incrementalCheckpoints.resolveUndefined(
+				configuration.get(CheckpointingOptions.INCREMENTAL_CHECKPOINTS));
+
+		this.maxIncrementalCheckpointFiles = original.maxIncrementalCheckpointFiles > 0 ?
+			original.maxIncrementalCheckpointFiles :
+			configuration.get(CheckpointingOptions.FS_INCREMENTAL_MAX_FILES);
+
 		if (getValidFileStateThreshold(original.fileStateThreshold) >= 0) {
 			this.fileStateThreshold = original.fileStateThreshold;
 		} else {
@@ -390,6 +466,10 @@ public class FsStateBackend extends AbstractFileStateBackend implements Configur
 			configuration.get(CheckpointingOptions.FS_WRITE_BUFFER_SIZE);
 
 		this.writeBufferSize = Math.max(bufferSize, this.fileStateThreshold);
+
+		this.timerTimingWheelTickMillis = original.timerTimingWheelTickMillis >= 0 ?
+			original.timerTimingWheelTickMillis :
+			configuration.get(CheckpointingOptions.TIMER_SERVICE_TIMING_WHEEL_TICK).toMillis();
 	}
 
 	private int getValidFileStateThreshold(long fileStateThreshold) {
@@ -470,6 +550,43 @@ public class FsStateBackend extends AbstractFileStateBackend implements Configur
 		return asynchronousSnapshots.getOrDefault(CheckpointingOptions.ASYNC_SNAPSHOTS.defaultValue());
 	}
 
+	/**
+	 * Gets whether checkpoints of keyed state only write the key groups that changed since the last
+	 * completed checkpoint.
+	 *
+	 * <p>If not explicitly configured, this is the default value of
+	 * {@link CheckpointingOptions#INCREMENTAL_CHECKPOINTS}.
+	 */
+	public boolean isIncrementalCheckpointsEnabled() {
+		return incrementalCheckpoints.getOrDefault(CheckpointingOptions.INCREMENTAL_CHECKPOINTS.defaultValue());
+	}
+
+	/**
+	 * Gets the max number of files which an incremental checkpoint references, before all key groups
+	 * are rewritten to one file.
+	 *
+	 * <p>If not explicitly configured, this is the default value of
+	 * {@link CheckpointingOptions#FS_INCREMENTAL_MAX_FILES}.
+	 */
+	public int getMaxIncrementalCheckpointFiles() {
+		return maxIncrementalCheckpointFiles > 0 ?
+			maxIncrementalCheckpointFiles :
+			CheckpointingOptions.FS_INCREMENTAL_MAX_FILES.defaultValue();
+	}
+
+	/**
+	 * Gets the tick of the timing wheel which keeps the timers, in milliseconds. With '0', the timers are kept in a
+	 * binary heap.
+	 *
+	 * <p>If not explicitly configured, this is the default value of
+	 * {@link CheckpointingOptions#TIMER_SERVICE_TIMING_WHEEL_TICK}.
+	 */
+	public long getTimerTimingWheelTickMillis() {
+		return timerTimingWheelTickMillis >= 0 ?
+			timerTimingWheelTickMillis :
+			CheckpointingOptions.TIMER_SERVICE_TIMING_WHEEL_TICK.defaultValue().toMillis();
+	}
+
 	// ------------------------------------------------------------------------
 	//  Reconfiguration
 	// ------------------------------------------------------------------------
@@ -522,7 +639,7 @@ public class FsStateBackend extends AbstractFileStateBackend implements Configur
 		TaskStateManager taskStateManager = env.getTaskStateManager();
 		LocalRecoveryConfig localRecoveryConfig = taskStateManager.createLocalRecoveryConfig();
 		HeapPriorityQueueSetFactory priorityQueueSetFactory =
-			new HeapPriorityQueueSetFactory(keyGroupRange, numberOfKeyGroups, 128);
+			new HeapPriorityQueueSetFactory(keyGroupRange, numberOfKeyGroups, 128, getTimerTimingWheelTickMillis());
 
 		return new HeapKeyedStateBackendBuilder<>(
 			kvStateRegistry,
@@ -537,7 +654,9 @@ public class FsStateBackend extends AbstractFileStateBackend implements Configur
 			localRecoveryConfig,
 			priorityQueueSetFactory,
 			isUsingAsynchronousSnapshots(),
-			cancelStreamRegistry).build();
+			cancelStreamRegistry)
+			.setIncrementalCheckpoints(isIncrementalCheckpointsEnabled(), getMaxIncrementalCheckpointFiles())
+			.build();
 	}
 
 	@Override
@@ -565,6 +684,7 @@ public class FsStateBackend extends AbstractFileStateBackend implements Configur
 				"checkpoints: '" + getCheckpointPath() +
 				"', savepoints: '" + getSavepointPath() +
 				"', asynchronous: " + asynchronousSnapshots +
+				", incremental: " + incrementalCheckpoints +
 				", fileStateThreshold: " + fileStateThreshold + ")";
 	}
 }
@@ -29,6 +29,7 @@ import org.apache.flink.runtime.state.KeyedStateHandle;
 import org.apache.flink.runtime.state.LocalRecoveryConfig;
 import org.apache.flink.runtime.state.StreamCompressionDecorator;
 import org.apache.flink.runtime.state.ttl.TtlTimeProvider;
+import org.apache.flink.util.Preconditions;
 
 import javax.annotation.Nonnull;
 import java.util.Collection;
@@ -53,7 +54,14 @@ public class HeapKeyedStateBackendBuilder<K> extends AbstractKeyedStateBackendBu
 	 * Whether asynchronous snapshot is enabled.
 	 */
 	private final boolean asynchronousSnapshots;
-
+	/**
+	 * Whether checkpoints are incremental.
+	 */
+	private boolean incrementalCheckpoints = false;
+	/**
+	 * The max number of files which an incremental checkpoint references, before all key-groups are rewritten.
+	 */
+	private int maxIncrementalCheckpointFiles = Integer.MAX_VALUE;
 
 	public HeapKeyedStateBackendBuilder(
 		TaskKvStateRegistry kvStateRegistry,
@@ -85,6 +93,20 @@ public class HeapKeyedStateBackendBuilder<K> extends AbstractKeyedStateBackendBu
 		this.asynchronousSnapshots = asynchronousSnapshots;
 	}
 
+	/**
+	 * Enables incremental checkpoints, which reference the files of earlier checkpoints for the key-groups that were
+	 * not modified, as long as no more than the given number of files is referenced.
+	 */
+	public HeapKeyedStateBackendBuilder<K> setIncrementalCheckpoints(
+		boolean incrementalCheckpoints,
+		int maxIncrementalCheckpointFiles) {
+		Preconditions.checkArgument(maxIncrementalCheckpointFiles > 0,
+			"The max number of files of an incremental checkpoint must be positive.");
+		this.incrementalCheckpoints = incrementalCheckpoints;
+		this.maxIncrementalCheckpointFiles = maxIncrementalCheckpointFiles;
+		return this;
+	}
+
 	@Override
 	public HeapKeyedStateBackend<K> build() throws BackendBuildingException {
 		// Map of registered Key/Value states
@@ -135,10 +157,9 @@ public class HeapKeyedStateBackendBuilder<K> extends AbstractKeyedStateBackendBu
 		boolean asynchronousSnapshots,
 		Map<String, StateTable<K, ?, ?>> registeredKVStates,
 		Map<String, HeapPriorityQueueSnapshotRestoreWrapper> registeredPQStates,
-		CloseableRegistry cancelStreamRegistry) {
-		SnapshotStrategySynchronicityBehavior<K> synchronicityTrait = asynchronousSnapshots ?
-			new AsyncSnapshotStrategySynchronicityBehavior<>() :
-			new SyncSnapshotStrategySynchronicityBehavior<>();
+		CloseableRegistry cancelStreamRegistry) throws BackendBuildingException {
+		SnapshotStrategySynchronicityBehavior<K> synchronicityTrait =
+			createSynchronicityBehavior(asynchronousSnapshots, cancelStreamRegistry);
 		return new HeapSnapshotStrategy<>(
 			synchronicityTrait,
 			registeredKVStates,
@@ -147,6 +168,21 @@ public class HeapKeyedStateBackendBuilder<K> extends AbstractKeyedStateBackendBu
 			localRecoveryConfig,
 			keyGroupRange,
 			cancelStreamRegistry,
-			keySerializerProvider);
+			keySerializerProvider,
+			incrementalCheckpoints,
+			maxIncrementalCheckpointFiles);
+	}
+
+	/**
+	 * Creates the behavior which decides about the {@link StateTable} implementation and whether snapshots are taken
+	 * asynchronously. Resources which live as long as the backend can be registered with the given registry, which is
+	 * closed when the backend is disposed.
+	 */
+	SnapshotStrategySynchronicityBehavior<K> createSynchronicityBehavior(
+		boolean asynchronousSnapshots,
+		CloseableRegistry cancelStreamRegistryForBackend) throws BackendBuildingException {
+		return asynchronousSnapshots ?
+			new AsyncSnapshotStrategySynchronicityBehavior<>() :
+			new SyncSnapshotStrategySynchronicityBehavior<>();
 	}
 }
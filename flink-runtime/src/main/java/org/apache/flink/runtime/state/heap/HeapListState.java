@@ -92,7 +92,7 @@ class HeapListState<K, N, V>
 		final N namespace = currentNamespace;
 
 		final StateTable<K, N, List<V>> map = stateTable;
-		List<V> list = map.get(namespace);
+		List<V> list = map.getForModification(namespace);
 
 		if (list == null) {
 			list = new ArrayList<>();
@@ -95,7 +95,7 @@ class HeapMapState<K, N, UK, UV>
 	@Override
 	public void put(UK userKey, UV userValue) {
 
-		Map<UK, UV> userMap = stateTable.get(currentNamespace);
+		Map<UK, UV> userMap = stateTable.getForModification(currentNamespace);
 		if (userMap == null) {
 			userMap = new HashMap<>();
 			stateTable.put(currentNamespace, userMap);
@@ -107,7 +107,7 @@ class HeapMapState<K, N, UK, UV>
 	@Override
 	public void putAll(Map<UK, UV> value) {
 
-		Map<UK, UV> userMap = stateTable.get(currentNamespace);
+		Map<UK, UV> userMap = stateTable.getForModification(currentNamespace);
 
 		if (userMap == null) {
 			userMap = new HashMap<>();
@@ -120,7 +120,7 @@ class HeapMapState<K, N, UK, UV>
 	@Override
 	public void remove(UK userKey) {
 
-		Map<UK, UV> userMap = stateTable.get(currentNamespace);
+		Map<UK, UV> userMap = stateTable.getForModification(currentNamespace);
 		if (userMap == null) {
 			return;
 		}
@@ -140,25 +140,25 @@ class HeapMapState<K, N, UK, UV>
 
 	@Override
 	public Iterable<Map.Entry<UK, UV>> entries() {
-		Map<UK, UV> userMap = stateTable.get(currentNamespace);
+		Map<UK, UV> userMap = stateTable.getForModification(currentNamespace);
 		return userMap == null ? Collections.emptySet() : userMap.entrySet();
 	}
 
 	@Override
 	public Iterable<UK> keys() {
-		Map<UK, UV> userMap = stateTable.get(currentNamespace);
+		Map<UK, UV> userMap = stateTable.getForModification(currentNamespace);
 		return userMap == null ? Collections.emptySet() : userMap.keySet();
 	}
 
 	@Override
 	public Iterable<UV> values() {
-		Map<UK, UV> userMap = stateTable.get(currentNamespace);
+		Map<UK, UV> userMap = stateTable.getForModification(currentNamespace);
 		return userMap == null ? Collections.emptySet() : userMap.values();
 	}
 
 	@Override
 	public Iterator<Map.Entry<UK, UV>> iterator() {
-		Map<UK, UV> userMap = stateTable.get(currentNamespace);
+		Map<UK, UV> userMap = stateTable.getForModification(currentNamespace);
 		return userMap == null ? Collections.emptyIterator() : userMap.entrySet().iterator();
 	}
 
@@ -28,6 +28,7 @@ import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Set;
 
@@ -70,6 +71,12 @@ public class HeapPriorityQueueSet<T extends HeapPriorityQueueElement>
 	 */
 	private final int totalNumberOfKeyGroups;
 
+	/**
+	 * The local indexes of the key-groups which were modified since the last call to
+	 * {@link #drainModifiedKeyGroups(BitSet)}.
+	 */
+	private final BitSet modifiedKeyGroups;
+
 	/**
 	 * Creates an empty {@link HeapPriorityQueueSet} with the requested initial capacity.
 	 *
@@ -97,6 +104,7 @@ public class HeapPriorityQueueSet<T extends HeapPriorityQueueElement>
 		final int keyGroupsInLocalRange = keyGroupRange.getNumberOfKeyGroups();
 		final int deduplicationSetSize = 1 + minimumCapacity / keyGroupsInLocalRange;
 		this.deduplicationMapsByKeyGroup = new HashMap[keyGroupsInLocalRange];
+		this.modifiedKeyGroups = new BitSet(keyGroupsInLocalRange);
 		for (int i = 0; i < keyGroupsInLocalRange; ++i) {
 			deduplicationMapsByKeyGroup[i] = new HashMap<>(deduplicationSetSize);
 		}
@@ -140,6 +148,16 @@ public class HeapPriorityQueueSet<T extends HeapPriorityQueueElement>
 		for (HashMap<?, ?> elementHashMap : deduplicationMapsByKeyGroup) {
 			elementHashMap.clear();
 		}
+		modifiedKeyGroups.set(0, deduplicationMapsByKeyGroup.length);
+	}
+
+	/**
+	 * Adds the local indexes of the key-groups which were modified since the last call to the given set, and resets
+	 * them.
+	 */
+	void drainModifiedKeyGroups(BitSet target) {
+		target.or(modifiedKeyGroups);
+		modifiedKeyGroups.clear();
 	}
 
 	private HashMap<T, T> getDedupMapForKeyGroup(
@@ -147,11 +165,24 @@ public class HeapPriorityQueueSet<T extends HeapPriorityQueueElement>
 		return deduplicationMapsByKeyGroup[globalKeyGroupToLocalIndex(keyGroupId)];
 	}
 
-	private HashMap<T, T> getDedupMapForElement(T element) {
+	/**
+	 * Adds the element to the heap, without de-duplication. This is for subclasses which keep some of the elements of
+	 * the de-duplication maps outside of the heap.
+	 */
+	protected boolean addToHeap(@Nonnull T element) {
+		return super.add(element);
+	}
+
+	/**
+	 * Returns the de-duplication map of the key-group of the given element, and marks the key-group as modified.
+	 */
+	protected HashMap<T, T> getDedupMapForElement(T element) {
 		int keyGroup = KeyGroupRangeAssignment.assignToKeyGroup(
 			keyExtractor.extractKeyFromElement(element),
 			totalNumberOfKeyGroups);
-		return getDedupMapForKeyGroup(keyGroup);
+		int localIndex = globalKeyGroupToLocalIndex(keyGroup);
+		modifiedKeyGroups.set(localIndex);
+		return deduplicationMapsByKeyGroup[localIndex];
 	}
 
 	private int globalKeyGroupToLocalIndex(int keyGroup) {
@@ -25,12 +25,14 @@ import org.apache.flink.runtime.state.Keyed;
 import org.apache.flink.runtime.state.PriorityComparable;
 import org.apache.flink.runtime.state.PriorityComparator;
 import org.apache.flink.runtime.state.PriorityQueueSetFactory;
+import org.apache.flink.util.Preconditions;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 
 /**
- * Factory for {@link HeapPriorityQueueSet}.
+ * Factory for {@link HeapPriorityQueueSet}, or for {@link HeapTimingWheelPriorityQueueSet} if a tick for the timing
+ * wheel is configured and the elements have a timestamp.
  */
 public class HeapPriorityQueueSetFactory implements PriorityQueueSetFactory {
 
@@ -43,22 +45,53 @@ public class HeapPriorityQueueSetFactory implements PriorityQueueSetFactory {
 	@Nonnegative
 	private final int minimumCapacity;
 
+	/** The tick of the timing wheel in milliseconds, or 0 to keep the elements in a binary heap. */
+	@Nonnegative
+	private final long timingWheelTickMillis;
+
 	public HeapPriorityQueueSetFactory(
 		@Nonnull KeyGroupRange keyGroupRange,
 		@Nonnegative int totalKeyGroups,
 		@Nonnegative int minimumCapacity) {
+		this(keyGroupRange, totalKeyGroups, minimumCapacity, 0L);
+	}
+
+	public HeapPriorityQueueSetFactory(
+		@Nonnull KeyGroupRange keyGroupRange,
+		@Nonnegative int totalKeyGroups,
+		@Nonnegative int minimumCapacity,
+		@Nonnegative long timingWheelTickMillis) {
 
+		Preconditions.checkArgument(timingWheelTickMillis >= 0, "The tick of the timing wheel must not be negative.");
 		this.keyGroupRange = keyGroupRange;
 		this.totalKeyGroups = totalKeyGroups;
 		this.minimumCapacity = minimumCapacity;
+		this.timingWheelTickMillis = timingWheelTickMillis;
 	}
 
+	/**
+	 * Creates a new priority queue. With a tick for the timing wheel, the queue is a
+	 * {@link HeapTimingWheelPriorityQueueSet} if the serializer is a
+	 * {@link TimestampedHeapPriorityQueueElementSerializer}, and a plain {@link HeapPriorityQueueSet} otherwise.
+	 */
 	@Nonnull
 	@Override
 	public <T extends HeapPriorityQueueElement & PriorityComparable & Keyed> HeapPriorityQueueSet<T> create(
 		@Nonnull String stateName,
 		@Nonnull TypeSerializer<T> byteOrderedElementSerializer) {
 
+		if (timingWheelTickMillis > 0 &&
+			byteOrderedElementSerializer instanceof TimestampedHeapPriorityQueueElementSerializer) {
+			return new HeapTimingWheelPriorityQueueSet<>(
+				PriorityComparator.forPriorityComparableObjects(),
+				KeyExtractorFunction.forKeyedObjects(),
+				element -> ((TimestampedHeapPriorityQueueElement) element).getTimestamp(),
+				timingWheelTickMillis,
+				minimumCapacity,
+				keyGroupRange,
+				totalKeyGroups);
+		}
+
 		return new HeapPriorityQueueSet<>(
 			PriorityComparator.forPriorityComparableObjects(),
 			KeyExtractorFunction.forKeyedObjects(),
@@ -24,9 +24,9 @@ import org.apache.flink.api.java.tuple.Tuple2;
 import org.apache.flink.core.fs.CloseableRegistry;
 import org.apache.flink.core.fs.FSDataInputStream;
 import org.apache.flink.core.memory.DataInputViewStreamWrapper;
+import org.apache.flink.runtime.state.IncrementalRemoteKeyedStateHandle;
 import org.apache.flink.runtime.state.KeyExtractorFunction;
 import org.apache.flink.runtime.state.KeyGroupRange;
-import org.apache.flink.runtime.state.KeyGroupRangeOffsets;
 import org.apache.flink.runtime.state.KeyGroupsStateHandle;
 import org.apache.flink.runtime.state.Keyed;
 import org.apache.flink.runtime.state.KeyedBackendSerializationProxy;
@@ -35,12 +35,12 @@ import org.apache.flink.runtime.state.PriorityComparable;
 import org.apache.flink.runtime.state.RegisteredKeyValueStateBackendMetaInfo;
 import org.apache.flink.runtime.state.RegisteredPriorityQueueStateBackendMetaInfo;
 import org.apache.flink.runtime.state.RestoreOperation;
-import org.apache.flink.runtime.state.SnappyStreamCompressionDecorator;
+import org.apache.flink.runtime.state.StateHandleID;
 import org.apache.flink.runtime.state.StateSerializerProvider;
 import org.apache.flink.runtime.state.StateSnapshotKeyGroupReader;
 import org.apache.flink.runtime.state.StateSnapshotRestore;
 import org.apache.flink.runtime.state.StreamCompressionDecorator;
-import org.apache.flink.runtime.state.UncompressedStreamCompressionDecorator;
+import org.apache.flink.runtime.state.StreamStateHandle;
 import org.apache.flink.runtime.state.metainfo.StateMetaInfoSnapshot;
 import org.apache.flink.util.Preconditions;
 import org.apache.flink.util.StateMigrationException;
@@ -74,6 +74,7 @@ public class HeapRestoreOperation<K> implements RestoreOperation<Void> {
 	private final int numberOfKeyGroups;
 	private final HeapSnapshotStrategy<K> snapshotStrategy;
 	private final InternalKeyContext<K> keyContext;
+	private boolean keySerializerRestored;
 
 	HeapRestoreOperation(
 		@Nonnull Collection<KeyedStateHandle> restoreStateHandles,
@@ -106,7 +107,7 @@ public class HeapRestoreOperation<K> implements RestoreOperation<Void> {
 		registeredKVStates.clear();
 		registeredPQStates.clear();
 
-		boolean keySerializerRestored = false;
+		keySerializerRestored = false;
 
 		for (KeyedStateHandle keyedStateHandle : restoreStateHandles) {
 
@@ -114,57 +115,98 @@ public class HeapRestoreOperation<K> implements RestoreOperation<Void> {
 				continue;
 			}
 
-			if (!(keyedStateHandle instanceof KeyGroupsStateHandle)) {
+			if (keyedStateHandle instanceof KeyGroupsStateHandle) {
+				KeyGroupsStateHandle keyGroupsStateHandle = (KeyGroupsStateHandle) keyedStateHandle;
+				restoreStateHandle(keyGroupsStateHandle, keyGroupsStateHandle.getGroupRangeOffsets());
+			} else if (keyedStateHandle instanceof IncrementalRemoteKeyedStateHandle) {
+				restoreIncrementalStateHandle((IncrementalRemoteKeyedStateHandle) keyedStateHandle);
+			} else {
 				throw new IllegalStateException("Unexpected state handle type, " +
-					"expected: " + KeyGroupsStateHandle.class +
+					"expected: " + KeyGroupsStateHandle.class + " or " + IncrementalRemoteKeyedStateHandle.class +
 					", but found: " + keyedStateHandle.getClass());
 			}
+		}
+		return null;
+	}
 
-			KeyGroupsStateHandle keyGroupsStateHandle = (KeyGroupsStateHandle) keyedStateHandle;
-			FSDataInputStream fsDataInputStream = keyGroupsStateHandle.openInputStream();
-			cancelStreamRegistry.registerCloseable(fsDataInputStream);
+	/**
+	 * Restores the key-groups of this backend from the files of an incremental snapshot, which are listed in the
+	 * {@link IncrementalKeyGroupsIndex} of the snapshot.
+	 */
+	private void restoreIncrementalStateHandle(IncrementalRemoteKeyedStateHandle stateHandle) throws Exception {
+		final IncrementalKeyGroupsIndex index;
+		FSDataInputStream indexInputStream = stateHandle.getMetaStateHandle().openInputStream();
+		cancelStreamRegistry.registerCloseable(indexInputStream);
+		try {
+			index = IncrementalKeyGroupsIndex.read(new DataInputViewStreamWrapper(indexInputStream));
+		} finally {
+			if (cancelStreamRegistry.unregisterCloseable(indexInputStream)) {
+				IOUtils.closeQuietly(indexInputStream);
+			}
+		}
 
-			try {
-				DataInputViewStreamWrapper inView = new DataInputViewStreamWrapper(fsDataInputStream);
+		for (Map.Entry<StateHandleID, List<Tuple2<Integer, Long>>> fileOffsets :
+			index.getOffsetsByFile(keyGroupRange).entrySet()) {
 
-				KeyedBackendSerializationProxy<K> serializationProxy =
-					new KeyedBackendSerializationProxy<>(userCodeClassLoader);
+			StreamStateHandle file = stateHandle.getSharedState().get(fileOffsets.getKey());
+			if (file == null) {
+				throw new IllegalStateException("Missing file " + fileOffsets.getKey() + " of incremental snapshot " +
+					stateHandle.getCheckpointId() + ".");
+			}
+			restoreStateHandle(file, fileOffsets.getValue());
+		}
+	}
 
-				serializationProxy.read(inView);
+	/**
+	 * Restores the key-groups at the given offsets from the given stream state handle, which starts with the meta data
+	 * of the states.
+	 */
+	private void restoreStateHandle(
+		StreamStateHandle streamStateHandle,
+		Iterable<Tuple2<Integer, Long>> keyGroupOffsets) throws Exception {
 
-				if (!keySerializerRestored) {
-					// check for key serializer compatibility; this also reconfigures the
-					// key serializer to be compatible, if it is required and is possible
-					TypeSerializerSchemaCompatibility<K> keySerializerSchemaCompat =
-						keySerializerProvider.setPreviousSerializerSnapshotForRestoredState(serializationProxy.getKeySerializerSnapshot());
-					if (keySerializerSchemaCompat.isCompatibleAfterMigration() || keySerializerSchemaCompat.isIncompatible()) {
-						throw new StateMigrationException("The new key serializer must be compatible.");
-					}
+		FSDataInputStream fsDataInputStream = streamStateHandle.openInputStream();
+		cancelStreamRegistry.registerCloseable(fsDataInputStream);
 
-					keySerializerRestored = true;
+		try {
+			DataInputViewStreamWrapper inView = new DataInputViewStreamWrapper(fsDataInputStream);
+
+			KeyedBackendSerializationProxy<K> serializationProxy =
+				new KeyedBackendSerializationProxy<>(userCodeClassLoader);
+
+			serializationProxy.read(inView);
+
+			if (!keySerializerRestored) {
+				// check for key serializer compatibility; this also reconfigures the
+				// key serializer to be compatible, if it is required and is possible
+				TypeSerializerSchemaCompatibility<K> keySerializerSchemaCompat =
+					keySerializerProvider.setPreviousSerializerSnapshotForRestoredState(serializationProxy.getKeySerializerSnapshot());
+				if (keySerializerSchemaCompat.isCompatibleAfterMigration() || keySerializerSchemaCompat.isIncompatible()) {
+					throw new StateMigrationException("The new key serializer must be compatible.");
 				}
 
-				List<StateMetaInfoSnapshot> restoredMetaInfos =
-					serializationProxy.getStateMetaInfoSnapshots();
+				keySerializerRestored = true;
+			}
+
+			List<StateMetaInfoSnapshot> restoredMetaInfos =
+				serializationProxy.getStateMetaInfoSnapshots();
 
-				final Map<Integer, StateMetaInfoSnapshot> kvStatesById = new HashMap<>();
+			final Map<Integer, StateMetaInfoSnapshot> kvStatesById = new HashMap<>();
 
-				createOrCheckStateForMetaInfo(restoredMetaInfos, kvStatesById);
+			createOrCheckStateForMetaInfo(restoredMetaInfos, kvStatesById);
 
-				readStateHandleStateData(
-					fsDataInputStream,
-					inView,
-					keyGroupsStateHandle.getGroupRangeOffsets(),
-					kvStatesById, restoredMetaInfos.size(),
-					serializationProxy.getReadVersion(),
-					serializationProxy.isUsingKeyGroupCompression());
-			} finally {
-				if (cancelStreamRegistry.unregisterCloseable(fsDataInputStream)) {
-					IOUtils.closeQuietly(fsDataInputStream);
-				}
+			readStateHandleStateData(
+				fsDataInputStream,
+				inView,
+				keyGroupOffsets,
+				kvStatesById, restoredMetaInfos.size(),
+				serializationProxy.getReadVersion(),
+				serializationProxy.getKeyGroupCompressionDecorator());
+		} finally {
+			if (cancelStreamRegistry.unregisterCloseable(fsDataInputStream)) {
+				IOUtils.closeQuietly(fsDataInputStream);
 			}
 		}
-		return null;
 	}
 
 	private void createOrCheckStateForMetaInfo(
@@ -226,14 +268,11 @@ public class HeapRestoreOperation<K> implements RestoreOperation<Void> {
 	private void readStateHandleStateData(
 		FSDataInputStream fsDataInputStream,
 		DataInputViewStreamWrapper inView,
-		KeyGroupRangeOffsets keyGroupOffsets,
+		Iterable<Tuple2<Integer, Long>> keyGroupOffsets,
 		Map<Integer, StateMetaInfoSnapshot> kvStatesById,
 		int numStates,
 		int readVersion,
-		boolean isCompressed) throws IOException {
-
-		final StreamCompressionDecorator streamCompressionDecorator = isCompressed ?
-			SnappyStreamCompressionDecorator.INSTANCE : UncompressedStreamCompressionDecorator.INSTANCE;
+		StreamCompressionDecorator streamCompressionDecorator) throws IOException {
 
 		for (Tuple2<Integer, Long> groupOffset : keyGroupOffsets) {
 			int keyGroupIndex = groupOffset.f0;
@@ -20,6 +20,7 @@ package org.apache.flink.runtime.state.heap;
 
 import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.core.fs.CloseableRegistry;
+import org.apache.flink.core.memory.DataOutputSerializer;
 import org.apache.flink.core.memory.DataOutputViewStreamWrapper;
 import org.apache.flink.runtime.checkpoint.CheckpointOptions;
 import org.apache.flink.runtime.state.AbstractSnapshotStrategy;
@@ -28,37 +29,51 @@ import org.apache.flink.runtime.state.CheckpointStreamFactory;
 import org.apache.flink.runtime.state.CheckpointStreamWithResultProvider;
 import org.apache.flink.runtime.state.CheckpointedStateScope;
 import org.apache.flink.runtime.state.DoneFuture;
+import org.apache.flink.runtime.state.IncrementalRemoteKeyedStateHandle;
 import org.apache.flink.runtime.state.KeyGroupRange;
 import org.apache.flink.runtime.state.KeyGroupRangeOffsets;
 import org.apache.flink.runtime.state.KeyedBackendSerializationProxy;
 import org.apache.flink.runtime.state.KeyedStateHandle;
 import org.apache.flink.runtime.state.LocalRecoveryConfig;
+import org.apache.flink.runtime.state.PlaceholderStreamStateHandle;
 import org.apache.flink.runtime.state.RegisteredKeyValueStateBackendMetaInfo;
 import org.apache.flink.runtime.state.SnapshotResult;
+import org.apache.flink.runtime.state.StateHandleID;
 import org.apache.flink.runtime.state.StateSerializerProvider;
 import org.apache.flink.runtime.state.StateSnapshot;
 import org.apache.flink.runtime.state.StateSnapshotRestore;
 import org.apache.flink.runtime.state.StreamCompressionDecorator;
 import org.apache.flink.runtime.state.StreamStateHandle;
-import org.apache.flink.runtime.state.UncompressedStreamCompressionDecorator;
 import org.apache.flink.runtime.state.metainfo.StateMetaInfoSnapshot;
 import org.apache.flink.util.Preconditions;
 import org.apache.flink.util.function.SupplierWithException;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.RunnableFuture;
 
 /**
  * Base class for the snapshots of the heap backend that outlines the algorithm and offers some hooks to realize
  * the concrete strategies. Subclasses must be threadsafe.
+ *
+ * <p>If incremental snapshots are enabled, checkpoints only write the key-groups that were modified since the last
+ * completed checkpoint to a new shared file, and reference the files of earlier checkpoints for all other key-groups,
+ * see {@link IncrementalKeyGroupsIndex}. Once a checkpoint would reference more than the configured number of files,
+ * it rewrites all key-groups to a single file. Savepoints are always full snapshots.
  */
 class HeapSnapshotStrategy<K>
 	extends AbstractSnapshotStrategy<KeyedStateHandle> implements SnapshotStrategySynchronicityBehavior<K> {
@@ -72,6 +87,22 @@ class HeapSnapshotStrategy<K>
 	private final CloseableRegistry cancelStreamRegistry;
 	private final StateSerializerProvider<K> keySerializerProvider;
 
+	/** Whether checkpoints are incremental. */
+	private final boolean incrementalSnapshots;
+
+	/** The max number of files which an incremental checkpoint references, before all key-groups are rewritten. */
+	private final int maxIncrementalSnapshotFiles;
+
+	/** The unique id of the backend, which is the namespace of its shared files in the shared state registry. */
+	private final UUID backendUID;
+
+	/** The incremental checkpoints which were taken after the last completed one, by checkpoint id. */
+	private final SortedMap<Long, IncrementalSnapshot> pendingIncrementalSnapshots;
+
+	/** The last completed incremental checkpoint, which later checkpoints are based on. */
+	@Nullable
+	private IncrementalSnapshot lastCompletedIncrementalSnapshot;
+
 	HeapSnapshotStrategy(
 		SnapshotStrategySynchronicityBehavior<K> snapshotStrategySynchronicityTrait,
 		Map<String, StateTable<K, ?, ?>> registeredKVStates,
@@ -80,8 +111,12 @@ class HeapSnapshotStrategy<K>
 		LocalRecoveryConfig localRecoveryConfig,
 		KeyGroupRange keyGroupRange,
 		CloseableRegistry cancelStreamRegistry,
-		StateSerializerProvider<K> keySerializerProvider) {
+		StateSerializerProvider<K> keySerializerProvider,
+		boolean incrementalSnapshots,
+		int maxIncrementalSnapshotFiles) {
 		super("Heap backend snapshot");
+		Preconditions.checkArgument(maxIncrementalSnapshotFiles > 0,
+			"The max number of files of an incremental snapshot must be positive.");
 		this.snapshotStrategySynchronicityTrait = snapshotStrategySynchronicityTrait;
 		this.registeredKVStates = registeredKVStates;
 		this.registeredPQStates = registeredPQStates;
@@ -90,6 +125,10 @@ class HeapSnapshotStrategy<K>
 		this.keyGroupRange = keyGroupRange;
 		this.cancelStreamRegistry = cancelStreamRegistry;
 		this.keySerializerProvider = keySerializerProvider;
+		this.incrementalSnapshots = incrementalSnapshots;
+		this.maxIncrementalSnapshotFiles = maxIncrementalSnapshotFiles;
+		this.backendUID = UUID.randomUUID();
+		this.pendingIncrementalSnapshots = new TreeMap<>();
 	}
 
 	@Nonnull
@@ -136,7 +175,16 @@ class HeapSnapshotStrategy<K>
 				// get a serialized form already at state registration time in the future
 				getKeySerializer(),
 				metaInfoSnapshots,
-				!Objects.equals(UncompressedStreamCompressionDecorator.INSTANCE, keyGroupCompressionDecorator));
+				keyGroupCompressionDecorator);
+
+		if (incrementalSnapshots && !checkpointOptions.getCheckpointType().isSavepoint()) {
+			return incrementalSnapshot(
+				checkpointId,
+				primaryStreamFactory,
+				serializationProxy,
+				cowStateStableSnapshots,
+				stateNamesToId);
+		}
 
 		final SupplierWithException<CheckpointStreamWithResultProvider, Exception> checkpointStreamSupplier =
 
@@ -173,24 +221,13 @@ class HeapSnapshotStrategy<K>
 					final long[] keyGroupRangeOffsets = new long[keyGroupRange.getNumberOfKeyGroups()];
 
 					for (int keyGroupPos = 0; keyGroupPos < keyGroupRange.getNumberOfKeyGroups(); ++keyGroupPos) {
-						int keyGroupId = keyGroupRange.getKeyGroupId(keyGroupPos);
 						keyGroupRangeOffsets[keyGroupPos] = localStream.getPos();
-						outView.writeInt(keyGroupId);
-
-						for (Map.Entry<StateUID, StateSnapshot> stateSnapshot :
-							cowStateStableSnapshots.entrySet()) {
-							StateSnapshot.StateKeyGroupWriter partitionedSnapshot =
-
-								stateSnapshot.getValue().getKeyGroupWriter();
-							try (
-								OutputStream kgCompressionOut =
-									keyGroupCompressionDecorator.decorateWithCompression(localStream)) {
-								DataOutputViewStreamWrapper kgCompressionView =
-									new DataOutputViewStreamWrapper(kgCompressionOut);
-								kgCompressionView.writeShort(stateNamesToId.get(stateSnapshot.getKey()));
-								partitionedSnapshot.writeStateInKeyGroup(kgCompressionView, keyGroupId);
-							} // this will just close the outer compression stream
-						}
+						writeKeyGroup(
+							localStream,
+							outView,
+							keyGroupRange.getKeyGroupId(keyGroupPos),
+							cowStateStableSnapshots,
+							stateNamesToId);
 					}
 
 					if (snapshotCloseableRegistry.unregisterCloseable(streamWithResultProvider)) {
@@ -225,6 +262,203 @@ class HeapSnapshotStrategy<K>
 		return task;
 	}
 
+	/**
+	 * Takes an incremental snapshot, which writes the key-groups that were modified since the last completed
+	 * checkpoint. This must be called from the task thread, like {@link #notifyCheckpointComplete(long)}.
+	 */
+	private RunnableFuture<SnapshotResult<KeyedStateHandle>> incrementalSnapshot(
+		long checkpointId,
+		CheckpointStreamFactory primaryStreamFactory,
+		KeyedBackendSerializationProxy<K> serializationProxy,
+		Map<StateUID, StateSnapshot> cowStateStableSnapshots,
+		Map<StateUID, Integer> stateNamesToId) throws IOException {
+
+		final DataOutputSerializer headerView = new DataOutputSerializer(256);
+		serializationProxy.write(headerView);
+		final byte[] header = headerView.getCopyOfBuffer();
+
+		final IncrementalKeyGroupsIndex baseIndex;
+		final BitSet keyGroupsToWrite;
+		final IncrementalSnapshot incrementalSnapshot;
+
+		synchronized (pendingIncrementalSnapshots) {
+			if (lastCompletedIncrementalSnapshot != null &&
+				Arrays.equals(header, lastCompletedIncrementalSnapshot.header)) {
+				baseIndex = lastCompletedIncrementalSnapshot.index;
+			} else {
+				// the files of a snapshot must not mix different states or serializers
+				baseIndex = IncrementalKeyGroupsIndex.empty(keyGroupRange);
+			}
+
+			keyGroupsToWrite = baseIndex.getMissingKeyGroups();
+			for (StateTable<K, ?, ?> stateTable : registeredKVStates.values()) {
+				stateTable.drainModifiedKeyGroups(keyGroupsToWrite);
+			}
+			for (HeapPriorityQueueSnapshotRestoreWrapper<?> queue : registeredPQStates.values()) {
+				queue.getPriorityQueue().drainModifiedKeyGroups(keyGroupsToWrite);
+			}
+			// key-groups of checkpoints that did not complete yet can't be referenced
+			for (IncrementalSnapshot pendingSnapshot : pendingIncrementalSnapshots.values()) {
+				keyGroupsToWrite.or(pendingSnapshot.writtenKeyGroups);
+			}
+
+			if (!keyGroupsToWrite.isEmpty() &&
+				baseIndex.getFilesExcept(keyGroupsToWrite).size() >= maxIncrementalSnapshotFiles) {
+				keyGroupsToWrite.set(0, keyGroupRange.getNumberOfKeyGroups());
+			}
+
+			incrementalSnapshot = new IncrementalSnapshot(keyGroupsToWrite, header);
+			pendingIncrementalSnapshots.put(checkpointId, incrementalSnapshot);
+		}
+
+		//--------------------------------------------------- this becomes the end of sync part
+
+		final AsyncSnapshotCallable<SnapshotResult<KeyedStateHandle>> asyncSnapshotCallable =
+			new AsyncSnapshotCallable<SnapshotResult<KeyedStateHandle>>() {
+				@Override
+				protected SnapshotResult<KeyedStateHandle> callInternal() throws Exception {
+
+					final Map<StateHandleID, StreamStateHandle> sharedState = new HashMap<>();
+					for (StateHandleID file : baseIndex.getFilesExcept(keyGroupsToWrite)) {
+						sharedState.put(file, new PlaceholderStreamStateHandle());
+					}
+
+					IncrementalKeyGroupsIndex index = baseIndex;
+					StreamStateHandle fileHandle = null;
+
+					try {
+						if (!keyGroupsToWrite.isEmpty()) {
+							final StateHandleID file = new StateHandleID(UUID.randomUUID().toString());
+							final long[] offsets = new long[keyGroupRange.getNumberOfKeyGroups()];
+
+							final CheckpointStreamFactory.CheckpointStateOutputStream fileStream =
+								openStream(primaryStreamFactory, CheckpointedStateScope.SHARED);
+							final DataOutputViewStreamWrapper outView = new DataOutputViewStreamWrapper(fileStream);
+							outView.write(header);
+
+							for (int keyGroupPos = keyGroupsToWrite.nextSetBit(0);
+								keyGroupPos >= 0;
+								keyGroupPos = keyGroupsToWrite.nextSetBit(keyGroupPos + 1)) {
+								offsets[keyGroupPos] = fileStream.getPos();
+								writeKeyGroup(
+									fileStream,
+									outView,
+									keyGroupRange.getKeyGroupId(keyGroupPos),
+									cowStateStableSnapshots,
+									stateNamesToId);
+							}
+
+							fileHandle = closeStream(fileStream);
+							sharedState.put(file, fileHandle);
+							index = baseIndex.withKeyGroupsInFile(keyGroupsToWrite, file, offsets);
+						}
+
+						final CheckpointStreamFactory.CheckpointStateOutputStream indexStream =
+							openStream(primaryStreamFactory, CheckpointedStateScope.EXCLUSIVE);
+						index.write(new DataOutputViewStreamWrapper(indexStream));
+						final StreamStateHandle indexHandle = closeStream(indexStream);
+
+						incrementalSnapshot.index = index;
+
+						return SnapshotResult.of(new IncrementalRemoteKeyedStateHandle(
+							backendUID,
+							keyGroupRange,
+							checkpointId,
+							sharedState,
+							Collections.emptyMap(),
+							indexHandle));
+					} catch (Exception e) {
+						if (fileHandle != null) {
+							try {
+								fileHandle.discardState();
+							} catch (Exception discardException) {
+								e.addSuppressed(discardException);
+							}
+						}
+						throw e;
+					}
+				}
+
+				private CheckpointStreamFactory.CheckpointStateOutputStream openStream(
+					CheckpointStreamFactory streamFactory,
+					CheckpointedStateScope scope) throws IOException {
+
+					CheckpointStreamFactory.CheckpointStateOutputStream stream =
+						streamFactory.createCheckpointStateOutputStream(scope);
+					snapshotCloseableRegistry.registerCloseable(stream);
+					return stream;
+				}
+
+				private StreamStateHandle closeStream(
+					CheckpointStreamFactory.CheckpointStateOutputStream stream) throws IOException {
+
+					if (snapshotCloseableRegistry.unregisterCloseable(stream)) {
+						return stream.closeAndGetHandle();
+					} else {
+						throw new IOException("Stream already unregistered.");
+					}
+				}
+
+				@Override
+				protected void cleanupProvidedResources() {
+					for (StateSnapshot tableSnapshot : cowStateStableSnapshots.values()) {
+						tableSnapshot.release();
+					}
+				}
+
+				@Override
+				protected void logAsyncSnapshotComplete(long startTime) {
+					if (snapshotStrategySynchronicityTrait.isAsynchronous()) {
+						logAsyncCompleted(primaryStreamFactory, startTime);
+					}
+				}
+			};
+
+		final FutureTask<SnapshotResult<KeyedStateHandle>> task =
+			asyncSnapshotCallable.toAsyncSnapshotFutureTask(cancelStreamRegistry);
+		finalizeSnapshotBeforeReturnHook(task);
+
+		return task;
+	}
+
+	/**
+	 * Makes the given checkpoint the base of the following incremental checkpoints, if it was one.
+	 */
+	void notifyCheckpointComplete(long checkpointId) {
+		synchronized (pendingIncrementalSnapshots) {
+			IncrementalSnapshot completedSnapshot = pendingIncrementalSnapshots.get(checkpointId);
+			if (completedSnapshot != null && completedSnapshot.index != null) {
+				lastCompletedIncrementalSnapshot = completedSnapshot;
+				pendingIncrementalSnapshots.headMap(checkpointId + 1).clear();
+			}
+		}
+	}
+
+	private void writeKeyGroup(
+		OutputStream stream,
+		DataOutputViewStreamWrapper outView,
+		int keyGroupId,
+		Map<StateUID, StateSnapshot> cowStateStableSnapshots,
+		Map<StateUID, Integer> stateNamesToId) throws IOException {
+
+		outView.writeInt(keyGroupId);
+
+		for (Map.Entry<StateUID, StateSnapshot> stateSnapshot :
+			cowStateStableSnapshots.entrySet()) {
+			StateSnapshot.StateKeyGroupWriter partitionedSnapshot =
+
+				stateSnapshot.getValue().getKeyGroupWriter();
+			try (
+				OutputStream kgCompressionOut =
+					keyGroupCompressionDecorator.decorateWithCompression(stream)) {
+				DataOutputViewStreamWrapper kgCompressionView =
+					new DataOutputViewStreamWrapper(kgCompressionOut);
+				kgCompressionView.writeShort(stateNamesToId.get(stateSnapshot.getKey()));
+				partitionedSnapshot.writeStateInKeyGroup(kgCompressionView, keyGroupId);
+			} // this will just close the outer compression stream
+		}
+	}
+
 	@Override
 	public void finalizeSnapshotBeforeReturnHook(Runnable runnable) {
 		snapshotStrategySynchronicityTrait.finalizeSnapshotBeforeReturnHook(runnable);
@@ -269,4 +503,25 @@ class HeapSnapshotStrategy<K>
 	public TypeSerializer<K> getKeySerializer() {
 		return keySerializerProvider.currentSchemaSerializer();
 	}
+
+	/**
+	 * An incremental checkpoint of this backend.
+	 */
+	private static final class IncrementalSnapshot {
+
+		/** The positions of the key-groups which the checkpoint writes to its own file. */
+		final BitSet writtenKeyGroups;
+
+		/** The serialized meta data of the states at the start of every file of the checkpoint. */
+		final byte[] header;
+
+		/** The index of the checkpoint, which is set once it has been written. */
+		@Nullable
+		volatile IncrementalKeyGroupsIndex index;
+
+		IncrementalSnapshot(BitSet writtenKeyGroups, byte[] header) {
+			this.writtenKeyGroups = writtenKeyGroups;
+			this.header = header;
+		}
+	}
 }
@@ -0,0 +1,342 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.runtime.state.KeyExtractorFunction;
+import org.apache.flink.runtime.state.KeyGroupRange;
+import org.apache.flink.runtime.state.PriorityComparator;
+import org.apache.flink.util.CloseableIterator;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.ToLongFunction;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * A {@link HeapPriorityQueueSet} for elements whose priority is a timestamp, organized as a timing wheel of
+ * coarse-grained buckets. Every bucket covers a fixed interval of timestamps (the tick). Elements are added to and
+ * deleted from a bucket in constant time, without any ordering. Only the earliest non-empty bucket is kept ordered by
+ * priority, in the heap of the {@link HeapPriorityQueueSet}: when the queue reaches it, the whole bucket is loaded at
+ * once, and its elements can be polled in order. The de-duplication and the access to the elements of a key-group are
+ * the same as in {@link HeapPriorityQueueSet}, for the elements of all buckets.
+ *
+ * <p>This is suitable for large numbers of timers, which share the buckets of their (rounded) timestamps. The
+ * priority comparator must order the elements by ascending timestamps.
+ *
+ * <p>Buckets that become empty by deletes are only dropped when the queue reaches their interval.
+ *
+ * @param <T> type of the contained elements.
+ */
+public class HeapTimingWheelPriorityQueueSet<T extends HeapPriorityQueueElement> extends HeapPriorityQueueSet<T> {
+
+	/**
+	 * Function to extract the timestamp from contained elements.
+	 */
+	private final ToLongFunction<T> timestampExtractor;
+
+	/**
+	 * The interval of timestamps that is covered by every bucket.
+	 */
+	private final long tickMillis;
+
+	/**
+	 * The buckets after the active bucket, by bucket id.
+	 */
+	private final HashMap<Long, Bucket<T>> buckets;
+
+	/**
+	 * The ids of all buckets after the active bucket, as min-heap.
+	 */
+	private final PriorityQueue<Long> bucketIds;
+
+	/**
+	 * The id of the active bucket. All elements with this or a smaller bucket id are in the heap.
+	 */
+	private long activeBucketId;
+
+	/**
+	 * The number of elements in the buckets after the active bucket.
+	 */
+	private int numBucketedElements;
+
+	/**
+	 * Creates an empty {@link HeapTimingWheelPriorityQueueSet}.
+	 *
+	 * @param elementPriorityComparator comparator for the priority of contained elements.
+	 * @param keyExtractor function to extract a key from the contained elements.
+	 * @param timestampExtractor function to extract the timestamp from the contained elements.
+	 * @param tickMillis the interval of timestamps that is covered by every bucket.
+	 * @param minimumCapacity the minimum and initial capacity of the active bucket.
+	 * @param keyGroupRange the key-group range of the elements in this set.
+	 * @param totalNumberOfKeyGroups the total number of key-groups of the job.
+	 */
+	public HeapTimingWheelPriorityQueueSet(
+		@Nonnull PriorityComparator<T> elementPriorityComparator,
+		@Nonnull KeyExtractorFunction<T> keyExtractor,
+		@Nonnull ToLongFunction<T> timestampExtractor,
+		long tickMillis,
+		@Nonnegative int minimumCapacity,
+		@Nonnull KeyGroupRange keyGroupRange,
+		@Nonnegative int totalNumberOfKeyGroups) {
+
+		super(elementPriorityComparator, keyExtractor, minimumCapacity, keyGroupRange, totalNumberOfKeyGroups);
+
+		checkArgument(tickMillis > 0, "The tick of the timing wheel must be positive.");
+
+		this.timestampExtractor = timestampExtractor;
+		this.tickMillis = tickMillis;
+		this.buckets = new HashMap<>();
+		this.bucketIds = new PriorityQueue<>();
+		this.activeBucketId = Long.MIN_VALUE;
+	}
+
+	@Override
+	@Nullable
+	public T poll() {
+		if (size == 0) {
+			loadNextBucket();
+		}
+		return super.poll();
+	}
+
+	@Override
+	@Nullable
+	public T peek() {
+		if (size == 0) {
+			loadNextBucket();
+		}
+		return super.peek();
+	}
+
+	/**
+	 * Adds the element to the queue, if no such element is already contained (determined by {@link #equals(Object)}).
+	 *
+	 * @return <code>true</code> if the operation changed the head element or if is it unclear if the head element changed.
+	 * Only returns <code>false</code> iff the head element was not changed by this operation.
+	 */
+	@Override
+	public boolean add(@Nonnull T toAdd) {
+		final long bucketId = getBucketId(toAdd);
+		if (bucketId <= activeBucketId) {
+			return super.add(toAdd);
+		}
+
+		if (getDedupMapForElement(toAdd).putIfAbsent(toAdd, toAdd) != null) {
+			return false;
+		}
+
+		Bucket<T> bucket = buckets.get(bucketId);
+		if (bucket == null) {
+			bucket = new Bucket<>();
+			buckets.put(bucketId, bucket);
+			bucketIds.add(bucketId);
+		}
+		bucket.add(toAdd);
+		++numBucketedElements;
+		// the head is only computed lazily if the active bucket is empty
+		return size == 0;
+	}
+
+	/**
+	 * Removes the element which is equal to the given element (determined by {@link #equals(Object)}).
+	 *
+	 * @return <code>true</code> if the operation changed the head element or if is it unclear if the head element changed.
+	 * Only returns <code>false</code> iff the head element was not changed by this operation.
+	 */
+	@Override
+	public boolean remove(@Nonnull T toRemove) {
+		// equal elements have equal priorities, so they are in the same bucket
+		final long bucketId = getBucketId(toRemove);
+		if (bucketId <= activeBucketId) {
+			return super.remove(toRemove);
+		}
+
+		final T storedElement = getDedupMapForElement(toRemove).remove(toRemove);
+		if (storedElement == null) {
+			return false;
+		}
+
+		buckets.get(bucketId).remove(storedElement);
+		--numBucketedElements;
+		return size == 0;
+	}
+
+	@Override
+	public int size() {
+		return size + numBucketedElements;
+	}
+
+	@Override
+	public void addAll(@Nullable Collection<? extends T> toAdd) {
+		if (toAdd == null) {
+			return;
+		}
+
+		// unlike the superclass, do not size the heap for all elements, most of them go to later buckets
+		for (T element : toAdd) {
+			add(element);
+		}
+	}
+
+	@Nonnull
+	@Override
+	@SuppressWarnings("unchecked")
+	public <O> O[] toArray(O[] out) {
+		final int totalSize = size();
+		final O[] result = out.length < totalSize ?
+			(O[]) Arrays.copyOf(out, totalSize, out.getClass()) :
+			out;
+
+		int pos = 0;
+		final TimingWheelIterator iterator = new TimingWheelIterator();
+		while (iterator.hasNext()) {
+			result[pos++] = (O) iterator.next();
+		}
+
+		if (result.length > totalSize) {
+			result[totalSize] = null;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns an iterator over the elements in this queue. The iterator does not return the elements in any particular
+	 * order.
+	 */
+	@Nonnull
+	@Override
+	public CloseableIterator<T> iterator() {
+		return new TimingWheelIterator();
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		buckets.clear();
+		bucketIds.clear();
+		numBucketedElements = 0;
+	}
+
+	/**
+	 * Makes the earliest non-empty bucket the active bucket, and loads its elements into the heap.
+	 */
+	private void loadNextBucket() {
+		Long nextBucketId;
+		while ((nextBucketId = bucketIds.poll()) != null) {
+			final Bucket<T> nextBucket = buckets.remove(nextBucketId);
+			activeBucketId = nextBucketId;
+			if (nextBucket.size > 0) {
+				for (T element : nextBucket.asList()) {
+					// the elements are already in the de-duplication maps
+					addToHeap(element);
+				}
+				numBucketedElements -= nextBucket.size;
+				return;
+			}
+		}
+	}
+
+	private long getBucketId(T element) {
+		return Math.floorDiv(timestampExtractor.applyAsLong(element), tickMillis);
+	}
+
+	/**
+	 * An unordered bucket of elements, which supports constant time deletes via the internal index of the elements.
+	 */
+	private static final class Bucket<T extends HeapPriorityQueueElement> {
+
+		private HeapPriorityQueueElement[] elements = new HeapPriorityQueueElement[4];
+
+		private int size;
+
+		void add(T element) {
+			if (size == elements.length) {
+				elements = Arrays.copyOf(elements, 2 * size);
+			}
+			element.setInternalIndex(size);
+			elements[size++] = element;
+		}
+
+		void remove(T element) {
+			final int index = element.getInternalIndex();
+			final HeapPriorityQueueElement last = elements[--size];
+			elements[index] = last;
+			last.setInternalIndex(index);
+			elements[size] = null;
+		}
+
+		@SuppressWarnings("unchecked")
+		Collection<T> asList() {
+			return (Collection<T>) (Collection<?>) Arrays.asList(elements).subList(0, size);
+		}
+	}
+
+	/**
+	 * {@link Iterator} over the heap and all further buckets. {@link Iterator#remove()} is not supported.
+	 */
+	private final class TimingWheelIterator implements CloseableIterator<T> {
+
+		private final CloseableIterator<T> activeBucketIterator = HeapTimingWheelPriorityQueueSet.super.iterator();
+
+		private final Iterator<Bucket<T>> bucketIterator = buckets.values().iterator();
+
+		private Bucket<T> currentBucket;
+
+		private int currentBucketIndex;
+
+		@Override
+		public boolean hasNext() {
+			if (activeBucketIterator.hasNext()) {
+				return true;
+			}
+			while (currentBucket == null || currentBucketIndex >= currentBucket.size) {
+				if (!bucketIterator.hasNext()) {
+					return false;
+				}
+				currentBucket = bucketIterator.next();
+				currentBucketIndex = 0;
+			}
+			return true;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException("Iterator has no next element.");
+			}
+			return activeBucketIterator.hasNext() ?
+				activeBucketIterator.next() :
+				(T) currentBucket.elements[currentBucketIndex++];
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputView;
+import org.apache.flink.runtime.state.KeyGroupRange;
+import org.apache.flink.runtime.state.StateHandleID;
+import org.apache.flink.util.Preconditions;
+
+import javax.annotation.Nonnull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The index of an incremental snapshot of the heap backend, which maps every key-group of the backend to the shared
+ * file that contains its latest data, and to the offset of the key-group in that file. Every file starts with the
+ * {@link org.apache.flink.runtime.state.KeyedBackendSerializationProxy} of the states that it contains, followed by
+ * the key-groups in the same format as the ones of a full snapshot.
+ *
+ * <p>Instances are immutable.
+ */
+final class IncrementalKeyGroupsIndex {
+
+	private static final int VERSION = 1;
+
+	/** The key-group range of the backend that wrote the snapshot. */
+	@Nonnull
+	private final KeyGroupRange keyGroupRange;
+
+	/** The file of every key-group, by position in the key-group range, or null if not contained yet. */
+	@Nonnull
+	private final StateHandleID[] files;
+
+	/** The offset of every key-group in its file, by position in the key-group range. */
+	@Nonnull
+	private final long[] offsets;
+
+	private IncrementalKeyGroupsIndex(
+		@Nonnull KeyGroupRange keyGroupRange,
+		@Nonnull StateHandleID[] files,
+		@Nonnull long[] offsets) {
+		this.keyGroupRange = keyGroupRange;
+		this.files = files;
+		this.offsets = offsets;
+	}
+
+	/**
+	 * Creates an index that contains none of the key-groups of the given range.
+	 */
+	static IncrementalKeyGroupsIndex empty(KeyGroupRange keyGroupRange) {
+		int numberOfKeyGroups = keyGroupRange.getNumberOfKeyGroups();
+		return new IncrementalKeyGroupsIndex(
+			keyGroupRange,
+			new StateHandleID[numberOfKeyGroups],
+			new long[numberOfKeyGroups]);
+	}
+
+	/**
+	 * Returns the positions of the key-groups which are not contained in this index.
+	 */
+	BitSet getMissingKeyGroups() {
+		BitSet missingKeyGroups = new BitSet(files.length);
+		for (int pos = 0; pos < files.length; pos++) {
+			if (files[pos] == null) {
+				missingKeyGroups.set(pos);
+			}
+		}
+		return missingKeyGroups;
+	}
+
+	/**
+	 * Returns the files which contain the key-groups at all positions, except the given ones.
+	 */
+	Set<StateHandleID> getFilesExcept(BitSet keyGroupPositions) {
+		Set<StateHandleID> result = new LinkedHashSet<>();
+		for (int pos = 0; pos < files.length; pos++) {
+			if (files[pos] != null && !keyGroupPositions.get(pos)) {
+				result.add(files[pos]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a copy of this index where the key-groups at the given positions are contained in the given file, at
+	 * the given offsets. The offsets are indexed by position.
+	 */
+	IncrementalKeyGroupsIndex withKeyGroupsInFile(BitSet keyGroupPositions, StateHandleID file, long[] fileOffsets) {
+		StateHandleID[] newFiles = files.clone();
+		long[] newOffsets = offsets.clone();
+		for (int pos = keyGroupPositions.nextSetBit(0); pos >= 0; pos = keyGroupPositions.nextSetBit(pos + 1)) {
+			newFiles[pos] = file;
+			newOffsets[pos] = fileOffsets[pos];
+		}
+		return new IncrementalKeyGroupsIndex(keyGroupRange, newFiles, newOffsets);
+	}
+
+	/**
+	 * Returns the (key-group, offset) pairs of the key-groups in the given range, grouped by the file that contains
+	 * them. The key-groups of every file are in ascending order.
+	 */
+	Map<StateHandleID, List<Tuple2<Integer, Long>>> getOffsetsByFile(KeyGroupRange restoredKeyGroupRange) {
+		Map<StateHandleID, List<Tuple2<Integer, Long>>> result = new LinkedHashMap<>();
+		for (int pos = 0; pos < files.length; pos++) {
+			int keyGroup = keyGroupRange.getKeyGroupId(pos);
+			if (files[pos] != null && restoredKeyGroupRange.contains(keyGroup)) {
+				result.computeIfAbsent(files[pos], file -> new ArrayList<>()).add(Tuple2.of(keyGroup, offsets[pos]));
+			}
+		}
+		return result;
+	}
+
+	void write(DataOutputView out) throws IOException {
+		Preconditions.checkState(getMissingKeyGroups().isEmpty(), "Every key-group must be contained in the index.");
+
+		out.writeInt(VERSION);
+		out.writeInt(keyGroupRange.getStartKeyGroup());
+		out.writeInt(keyGroupRange.getEndKeyGroup());
+
+		Map<StateHandleID, Integer> fileIds = new HashMap<>();
+		List<StateHandleID> distinctFiles = new ArrayList<>();
+		for (StateHandleID file : files) {
+			if (!fileIds.containsKey(file)) {
+				fileIds.put(file, distinctFiles.size());
+				distinctFiles.add(file);
+			}
+		}
+
+		out.writeInt(distinctFiles.size());
+		for (StateHandleID file : distinctFiles) {
+			out.writeUTF(file.getKeyString());
+		}
+
+		for (int pos = 0; pos < files.length; pos++) {
+			out.writeInt(fileIds.get(files[pos]));
+			out.writeLong(offsets[pos]);
+		}
+	}
+
+	static IncrementalKeyGroupsIndex read(DataInputView in) throws IOException {
+		int version = in.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported version of the incremental heap snapshot index: " + version);
+		}
+
+		KeyGroupRange keyGroupRange = KeyGroupRange.of(in.readInt(), in.readInt());
+
+		StateHandleID[] distinctFiles = new StateHandleID[in.readInt()];
+		for (int i = 0; i < distinctFiles.length; i++) {
+			distinctFiles[i] = new StateHandleID(in.readUTF());
+		}
+
+		int numberOfKeyGroups = keyGroupRange.getNumberOfKeyGroups();
+		StateHandleID[] files = new StateHandleID[numberOfKeyGroups];
+		long[] offsets = new long[numberOfKeyGroups];
+		for (int pos = 0; pos < numberOfKeyGroups; pos++) {
+			files[pos] = distinctFiles[in.readInt()];
+			offsets[pos] = in.readLong();
+		}
+		return new IncrementalKeyGroupsIndex(keyGroupRange, files, offsets);
+	}
+}
@@ -32,6 +32,7 @@ import org.apache.flink.util.Preconditions;
 import javax.annotation.Nonnull;
 
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Objects;
@@ -76,6 +77,12 @@ public abstract class StateTable<K, N, S>
 	 */
 	protected final StateMap<K, N, S>[] keyGroupedStateMaps;
 
+	/**
+	 * The positions in {@link #keyGroupedStateMaps} of the key-groups which were accessed for modification since the
+	 * last call to {@link #drainModifiedKeyGroups(BitSet)}. This is what incremental snapshots write.
+	 */
+	private final BitSet modifiedKeyGroups;
+
 	/**
 	 * @param keyContext    the key context provides the key scope for all put/get/delete operations.
 	 * @param metaInfo      the meta information, including the type serializer for state copy-on-write.
@@ -94,6 +101,7 @@ public abstract class StateTable<K, N, S>
 		@SuppressWarnings("unchecked")
 		StateMap<K, N, S>[] state = (StateMap<K, N, S>[]) new StateMap[keyContext.getKeyGroupRange().getNumberOfKeyGroups()];
 		this.keyGroupedStateMaps = state;
+		this.modifiedKeyGroups = new BitSet(keyGroupedStateMaps.length);
 		for (int i = 0; i < this.keyGroupedStateMaps.length; i++) {
 			this.keyGroupedStateMaps[i] = createStateMap();
 		}
@@ -138,6 +146,23 @@ public abstract class StateTable<K, N, S>
 		return get(keyContext.getCurrentKey(), keyContext.getCurrentKeyGroupIndex(), namespace);
 	}
 
+	/**
+	 * Returns the state of the mapping for the composite of active key and given namespace like {@link #get(N)}, for
+	 * callers that modify the returned state in place. This marks the key-group of the active key as modified.
+	 *
+	 * @param namespace the namespace. Not null.
+	 * @return the states of the mapping with the specified key/namespace composite key, or {@code null}
+	 * if no mapping for the specified key is found.
+	 */
+	public S getForModification(N namespace) {
+		K key = keyContext.getCurrentKey();
+		checkKeyNamespacePreconditions(key, namespace);
+
+		StateMap<K, N, S> stateMap = getMapForModification(keyContext.getCurrentKeyGroupIndex());
+
+		return stateMap == null ? null : stateMap.get(key, namespace);
+	}
+
 	/**
 	 * Returns whether this table contains a mapping for the composite of active key and given namespace.
 	 *
@@ -199,7 +224,7 @@ public abstract class StateTable<K, N, S>
 		checkKeyNamespacePreconditions(key, namespace);
 
 		int keyGroup = keyContext.getCurrentKeyGroupIndex();
-		StateMap<K, N, S> stateMap = getMapForKeyGroup(keyGroup);
+		StateMap<K, N, S> stateMap = getMapForModification(keyGroup);
 		stateMap.transform(key, namespace, value, transformation);
 	}
 
@@ -260,14 +285,14 @@ public abstract class StateTable<K, N, S>
 	private void remove(K key, int keyGroupIndex, N namespace) {
 		checkKeyNamespacePreconditions(key, namespace);
 
-		StateMap<K, N, S> stateMap = getMapForKeyGroup(keyGroupIndex);
+		StateMap<K, N, S> stateMap = getMapForModification(keyGroupIndex);
 		stateMap.remove(key, namespace);
 	}
 
 	private S removeAndGetOld(K key, int keyGroupIndex, N namespace) {
 		checkKeyNamespacePreconditions(key, namespace);
 
-		StateMap<K, N, S> stateMap = getMapForKeyGroup(keyGroupIndex);
+		StateMap<K, N, S> stateMap = getMapForModification(keyGroupIndex);
 
 		return stateMap.removeAndGetOld(key, namespace);
 	}
@@ -288,8 +313,11 @@ public abstract class StateTable<K, N, S>
 		return keyGroupOffset;
 	}
 
-	@VisibleForTesting
-	StateMap<K, N, S> getMapForKeyGroup(int keyGroupIndex) {
+	/**
+	 * Returns the {@link StateMap} for the given key-group, or null if the key-group is not in the range of this table.
+	 * All key/namespace accesses of this table go through this method.
+	 */
+	protected StateMap<K, N, S> getMapForKeyGroup(int keyGroupIndex) {
 		final int pos = indexToOffset(keyGroupIndex);
 		if (pos >= 0 && pos < keyGroupedStateMaps.length) {
 			return keyGroupedStateMaps[pos];
@@ -298,6 +326,27 @@ public abstract class StateTable<K, N, S>
 		}
 	}
 
+	/**
+	 * Returns the {@link StateMap} for the given key-group like {@link #getMapForKeyGroup(int)}, and marks the
+	 * key-group as modified. All mutations of this table go through this method.
+	 */
+	private StateMap<K, N, S> getMapForModification(int keyGroupIndex) {
+		final StateMap<K, N, S> stateMap = getMapForKeyGroup(keyGroupIndex);
+		if (stateMap != null) {
+			modifiedKeyGroups.set(indexToOffset(keyGroupIndex));
+		}
+		return stateMap;
+	}
+
+	/**
+	 * Adds the positions of the key-groups (relative to the first key-group of this table) which were accessed for
+	 * modification since the last call to the given set, and resets them.
+	 */
+	void drainModifiedKeyGroups(BitSet target) {
+		target.or(modifiedKeyGroups);
+		modifiedKeyGroups.clear();
+	}
+
 	/**
 	 * Translates a key-group id to the internal array offset.
 	 */
@@ -332,7 +381,7 @@ public abstract class StateTable<K, N, S>
 	public void put(K key, int keyGroup, N namespace, S state) {
 		checkKeyNamespacePreconditions(key, namespace);
 
-		StateMap<K, N, S> stateMap = getMapForKeyGroup(keyGroup);
+		StateMap<K, N, S> stateMap = getMapForModification(keyGroup);
 		stateMap.put(key, namespace, state);
 	}
 
@@ -417,11 +466,13 @@ public abstract class StateTable<K, N, S>
 
 		@Override
 		public void remove(StateEntry<K, N, S> stateEntry) {
+			modifiedKeyGroups.set(keyGroupIndex - 1);
 			keyGroupedStateMaps[keyGroupIndex - 1].remove(stateEntry.getKey(), stateEntry.getNamespace());
 		}
 
 		@Override
 		public void update(StateEntry<K, N, S> stateEntry, S newValue) {
+			modifiedKeyGroups.set(keyGroupIndex - 1);
 			keyGroupedStateMaps[keyGroupIndex - 1].put(stateEntry.getKey(), stateEntry.getNamespace(), newValue);
 		}
 	}
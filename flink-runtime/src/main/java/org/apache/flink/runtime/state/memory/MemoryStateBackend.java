@@ -117,6 +117,10 @@ public class MemoryStateBackend extends AbstractFileStateBackend implements Conf
 	 * A value of 'UNDEFINED' means not yet configured, in which case the default will be used. */
 	private final TernaryBoolean asynchronousSnapshots;
 
+	/** The tick of the timing wheel of the timers in milliseconds, where '0' keeps the timers in a binary heap.
+	 * A value of '-1' means not yet configured, in which case the default will be used. */
+	private final long timerTimingWheelTickMillis;
+
 	// ------------------------------------------------------------------------
 
 	/**
@@ -225,6 +229,7 @@ public class MemoryStateBackend extends AbstractFileStateBackend implements Conf
 		this.maxStateSize = maxStateSize;
 
 		this.asynchronousSnapshots = asynchronousSnapshots;
+		this.timerTimingWheelTickMillis = -1L;
 	}
 
 	/**
@@ -243,6 +248,10 @@ public class MemoryStateBackend extends AbstractFileStateBackend implements Conf
 		// else check the configuration
 		this.asynchronousSnapshots = original.asynchronousSnapshots.resolveUndefined(
 				configuration.get(CheckpointingOptions.ASYNC_SNAPSHOTS));
+
+		this.timerTimingWheelTickMillis = original.timerTimingWheelTickMillis >= 0 ?
+			original.timerTimingWheelTickMillis :
+			configuration.get(CheckpointingOptions.TIMER_SERVICE_TIMING_WHEEL_TICK).toMillis();
 	}
 
 	// ------------------------------------------------------------------------
@@ -269,6 +278,19 @@ public class MemoryStateBackend extends AbstractFileStateBackend implements Conf
 		return asynchronousSnapshots.getOrDefault(CheckpointingOptions.ASYNC_SNAPSHOTS.defaultValue());
 	}
 
+	/**
+	 * Gets the tick of the timing wheel which keeps the timers, in milliseconds. With '0', the timers are kept in a
+	 * binary heap.
+	 *
+	 * <p>If not explicitly configured, this is the default value of
+	 * {@link CheckpointingOptions#TIMER_SERVICE_TIMING_WHEEL_TICK}.
+	 */
+	public long getTimerTimingWheelTickMillis() {
+		return timerTimingWheelTickMillis >= 0 ?
+			timerTimingWheelTickMillis :
+			CheckpointingOptions.TIMER_SERVICE_TIMING_WHEEL_TICK.defaultValue().toMillis();
+	}
+
 	// ------------------------------------------------------------------------
 	//  Reconfiguration
 	// ------------------------------------------------------------------------
@@ -330,7 +352,7 @@ public class MemoryStateBackend extends AbstractFileStateBackend implements Conf
 
 		TaskStateManager taskStateManager = env.getTaskStateManager();
 		HeapPriorityQueueSetFactory priorityQueueSetFactory =
-			new HeapPriorityQueueSetFactory(keyGroupRange, numberOfKeyGroups, 128);
+			new HeapPriorityQueueSetFactory(keyGroupRange, numberOfKeyGroups, 128, getTimerTimingWheelTickMillis());
 		return new HeapKeyedStateBackendBuilder<>(
 			kvStateRegistry,
 			keySerializer,
@@ -21,6 +21,7 @@ package org.apache.flink.runtime.taskmanager;
 import org.apache.flink.api.common.JobID;
 import org.apache.flink.runtime.checkpoint.channel.ChannelStateReader;
 import org.apache.flink.runtime.deployment.ResultPartitionDeploymentDescriptor;
+import org.apache.flink.runtime.io.network.api.writer.BufferWritingResultPartitionWriter;
 import org.apache.flink.runtime.io.network.api.writer.ResultPartitionWriter;
 import org.apache.flink.runtime.io.network.buffer.BufferBuilder;
 import org.apache.flink.runtime.io.network.buffer.BufferConsumer;
@@ -42,13 +43,13 @@ import static org.apache.flink.util.Preconditions.checkNotNull;
  * results, receivers are deployed as soon as the first buffer is added to the result partition.
  * With blocking results on the other hand, receivers are deployed after the partition is finished.
  */
-public class ConsumableNotifyingResultPartitionWriterDecorator implements ResultPartitionWriter {
+public class ConsumableNotifyingResultPartitionWriterDecorator implements BufferWritingResultPartitionWriter {
 
 	private final TaskActions taskActions;
 
 	private final JobID jobId;
 
-	private final ResultPartitionWriter partitionWriter;
+	private final BufferWritingResultPartitionWriter partitionWriter;
 
 	private final ResultPartitionConsumableNotifier partitionConsumableNotifier;
 
@@ -57,7 +58,7 @@ public class ConsumableNotifyingResultPartitionWriterDecorator implements Result
 	public ConsumableNotifyingResultPartitionWriterDecorator(
 			TaskActions taskActions,
 			JobID jobId,
-			ResultPartitionWriter partitionWriter,
+			BufferWritingResultPartitionWriter partitionWriter,
 			ResultPartitionConsumableNotifier partitionConsumableNotifier) {
 		this.taskActions = checkNotNull(taskActions);
 		this.jobId = checkNotNull(jobId);
@@ -95,6 +96,11 @@ public class ConsumableNotifyingResultPartitionWriterDecorator implements Result
 		partitionWriter.setup();
 	}
 
+	@Override
+	public int getDesiredBroadcastBufferSize() {
+		return partitionWriter.getDesiredBroadcastBufferSize();
+	}
+
 	@Override
 	public ResultSubpartition getSubpartition(int subpartitionIndex) {
 		return partitionWriter.getSubpartition(subpartitionIndex);
@@ -179,10 +185,11 @@ public class ConsumableNotifyingResultPartitionWriterDecorator implements Result
 		int counter = 0;
 		for (ResultPartitionDeploymentDescriptor desc : descs) {
 			if (desc.sendScheduleOrUpdateConsumersMessage() && desc.getPartitionType().isPipelined()) {
+				// pipelined partitions are always written buffer by buffer
 				consumableNotifyingPartitionWriters[counter] = new ConsumableNotifyingResultPartitionWriterDecorator(
 					taskActions,
 					jobId,
-					partitionWriters[counter],
+					(BufferWritingResultPartitionWriter) partitionWriters[counter],
 					notifier);
 			} else {
 				consumableNotifyingPartitionWriters[counter] = partitionWriters[counter];
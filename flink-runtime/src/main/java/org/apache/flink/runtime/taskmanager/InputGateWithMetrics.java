@@ -70,6 +70,11 @@ public class InputGateWithMetrics extends IndexedInputGate {
 		return inputGate.getChannel(channelIndex);
 	}
 
+	@Override
+	public int getMaxBuffersPerSpanningRecord() {
+		return inputGate.getMaxBuffersPerSpanningRecord();
+	}
+
 	@Override
 	public int getGateIndex() {
 		return inputGate.getGateIndex();
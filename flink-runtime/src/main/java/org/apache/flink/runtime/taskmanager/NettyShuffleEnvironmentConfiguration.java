@@ -24,6 +24,7 @@ import org.apache.flink.configuration.MemorySize;
 import org.apache.flink.configuration.NettyShuffleEnvironmentOptions;
 import org.apache.flink.runtime.io.network.netty.NettyConfig;
 import org.apache.flink.runtime.io.network.partition.BoundedBlockingSubpartitionType;
+import org.apache.flink.runtime.io.network.partition.consumer.BufferDebloatConfiguration;
 import org.apache.flink.runtime.util.ConfigurationParserUtils;
 import org.apache.flink.util.Preconditions;
 
@@ -76,6 +77,18 @@ public class NettyShuffleEnvironmentConfiguration {
 
 	private final int maxBuffersPerChannel;
 
+	private final int sortShuffleMinBuffers;
+
+	private final int sortShuffleMinParallelism;
+
+	private final boolean pipelinedShuffleCompressionEnabled;
+
+	private final BufferDebloatConfiguration bufferDebloatConfiguration;
+
+	private final int localChannelNotificationBatchSize;
+
+	private final int maxBuffersPerSpanningRecord;
+
 	public NettyShuffleEnvironmentConfiguration(
 			int numNetworkBuffers,
 			int networkBufferSize,
@@ -91,7 +104,13 @@ public class NettyShuffleEnvironmentConfiguration {
 			boolean forcePartitionReleaseOnConsumption,
 			boolean blockingShuffleCompressionEnabled,
 			String compressionCodec,
-			int maxBuffersPerChannel) {
+			int maxBuffersPerChannel,
+			int sortShuffleMinBuffers,
+			int sortShuffleMinParallelism,
+			boolean pipelinedShuffleCompressionEnabled,
+			BufferDebloatConfiguration bufferDebloatConfiguration,
+			int localChannelNotificationBatchSize,
+			int maxBuffersPerSpanningRecord) {
 
 		this.numNetworkBuffers = numNetworkBuffers;
 		this.networkBufferSize = networkBufferSize;
@@ -108,6 +127,12 @@ public class NettyShuffleEnvironmentConfiguration {
 		this.blockingShuffleCompressionEnabled = blockingShuffleCompressionEnabled;
 		this.compressionCodec = Preconditions.checkNotNull(compressionCodec);
 		this.maxBuffersPerChannel = maxBuffersPerChannel;
+		this.sortShuffleMinBuffers = sortShuffleMinBuffers;
+		this.sortShuffleMinParallelism = sortShuffleMinParallelism;
+		this.pipelinedShuffleCompressionEnabled = pipelinedShuffleCompressionEnabled;
+		this.bufferDebloatConfiguration = Preconditions.checkNotNull(bufferDebloatConfiguration);
+		this.localChannelNotificationBatchSize = localChannelNotificationBatchSize;
+		this.maxBuffersPerSpanningRecord = maxBuffersPerSpanningRecord;
 	}
 
 	// ------------------------------------------------------------------------
@@ -164,6 +189,22 @@ public class NettyShuffleEnvironmentConfiguration {
 		return blockingShuffleCompressionEnabled;
 	}
 
+	public boolean isPipelinedShuffleCompressionEnabled() {
+		return pipelinedShuffleCompressionEnabled;
+	}
+
+	public BufferDebloatConfiguration getBufferDebloatConfiguration() {
+		return bufferDebloatConfiguration;
+	}
+
+	public int getLocalChannelNotificationBatchSize() {
+		return localChannelNotificationBatchSize;
+	}
+
+	public int getMaxBuffersPerSpanningRecord() {
+		return maxBuffersPerSpanningRecord;
+	}
+
 	public String getCompressionCodec() {
 		return compressionCodec;
 	}
@@ -172,6 +213,14 @@ public class NettyShuffleEnvironmentConfiguration {
 		return maxBuffersPerChannel;
 	}
 
+	public int sortShuffleMinBuffers() {
+		return sortShuffleMinBuffers;
+	}
+
+	public int sortShuffleMinParallelism() {
+		return sortShuffleMinParallelism;
+	}
+
 	// ------------------------------------------------------------------------
 
 	/**
@@ -223,8 +272,32 @@ public class NettyShuffleEnvironmentConfiguration {
 
 		boolean blockingShuffleCompressionEnabled =
 			configuration.get(NettyShuffleEnvironmentOptions.BLOCKING_SHUFFLE_COMPRESSION_ENABLED);
+		boolean pipelinedShuffleCompressionEnabled =
+			configuration.get(NettyShuffleEnvironmentOptions.PIPELINED_SHUFFLE_COMPRESSION_ENABLED);
 		String compressionCodec = configuration.getString(NettyShuffleEnvironmentOptions.SHUFFLE_COMPRESSION_CODEC);
 
+		int sortShuffleMinBuffers = configuration.getInteger(NettyShuffleEnvironmentOptions.NETWORK_SORT_SHUFFLE_MIN_BUFFERS);
+		int sortShuffleMinParallelism = configuration.getInteger(
+			NettyShuffleEnvironmentOptions.NETWORK_SORT_SHUFFLE_MIN_PARALLELISM);
+
+		BufferDebloatConfiguration bufferDebloatConfiguration = BufferDebloatConfiguration.fromConfiguration(configuration);
+
+		int localChannelNotificationBatchSize = configuration.getInteger(
+			NettyShuffleEnvironmentOptions.NETWORK_LOCAL_CHANNEL_NOTIFICATION_BATCH_SIZE);
+		ConfigurationParserUtils.checkConfigParameter(
+			localChannelNotificationBatchSize > 0,
+			localChannelNotificationBatchSize,
+			NettyShuffleEnvironmentOptions.NETWORK_LOCAL_CHANNEL_NOTIFICATION_BATCH_SIZE.key(),
+			"The notification batch size must be positive.");
+
+		int maxBuffersPerSpanningRecord = configuration.getInteger(
+			NettyShuffleEnvironmentOptions.NETWORK_MAX_BUFFERS_PER_SPANNING_RECORD);
+		ConfigurationParserUtils.checkConfigParameter(
+			maxBuffersPerSpanningRecord >= 0,
+			maxBuffersPerSpanningRecord,
+			NettyShuffleEnvironmentOptions.NETWORK_MAX_BUFFERS_PER_SPANNING_RECORD.key(),
+			"The maximum number of buffers per spanning record must not be negative.");
+
 		return new NettyShuffleEnvironmentConfiguration(
 			numberOfNetworkBuffers,
 			pageSize,
@@ -240,7 +313,13 @@ public class NettyShuffleEnvironmentConfiguration {
 			forcePartitionReleaseOnConsumption,
 			blockingShuffleCompressionEnabled,
 			compressionCodec,
-			maxBuffersPerChannel);
+			maxBuffersPerChannel,
+			sortShuffleMinBuffers,
+			sortShuffleMinParallelism,
+			pipelinedShuffleCompressionEnabled,
+			bufferDebloatConfiguration,
+			localChannelNotificationBatchSize,
+			maxBuffersPerSpanningRecord);
 	}
 
 	/**
@@ -363,6 +442,12 @@ public class NettyShuffleEnvironmentConfiguration {
 		result = 31 * result + (blockingShuffleCompressionEnabled ? 1 : 0);
 		result = 31 * result + Objects.hashCode(compressionCodec);
 		result = 31 * result + maxBuffersPerChannel;
+		result = 31 * result + sortShuffleMinBuffers;
+		result = 31 * result + sortShuffleMinParallelism;
+		result = 31 * result + (pipelinedShuffleCompressionEnabled ? 1 : 0);
+		result = 31 * result + bufferDebloatConfiguration.hashCode();
+		result = 31 * result + localChannelNotificationBatchSize;
+		result = 31 * result + maxBuffersPerSpanningRecord;
 		return result;
 	}
 
@@ -389,6 +474,12 @@ public class NettyShuffleEnvironmentConfiguration {
 					this.forcePartitionReleaseOnConsumption == that.forcePartitionReleaseOnConsumption &&
 					this.blockingShuffleCompressionEnabled == that.blockingShuffleCompressionEnabled &&
 					this.maxBuffersPerChannel == that.maxBuffersPerChannel &&
+					this.sortShuffleMinBuffers == that.sortShuffleMinBuffers &&
+					this.sortShuffleMinParallelism == that.sortShuffleMinParallelism &&
+					this.pipelinedShuffleCompressionEnabled == that.pipelinedShuffleCompressionEnabled &&
+					this.bufferDebloatConfiguration.equals(that.bufferDebloatConfiguration) &&
+					this.localChannelNotificationBatchSize == that.localChannelNotificationBatchSize &&
+					this.maxBuffersPerSpanningRecord == that.maxBuffersPerSpanningRecord &&
 					Objects.equals(this.compressionCodec, that.compressionCodec);
 		}
 	}
@@ -409,6 +500,12 @@ public class NettyShuffleEnvironmentConfiguration {
 				", blockingShuffleCompressionEnabled=" + blockingShuffleCompressionEnabled +
 				", compressionCodec=" + compressionCodec +
 				", maxBuffersPerChannel=" + maxBuffersPerChannel +
+				", sortShuffleMinBuffers=" + sortShuffleMinBuffers +
+				", sortShuffleMinParallelism=" + sortShuffleMinParallelism +
+				", pipelinedShuffleCompressionEnabled=" + pipelinedShuffleCompressionEnabled +
+				", bufferDebloatConfiguration=" + bufferDebloatConfiguration +
+				", localChannelNotificationBatchSize=" + localChannelNotificationBatchSize +
+				", maxBuffersPerSpanningRecord=" + maxBuffersPerSpanningRecord +
 				'}';
 	}
 }
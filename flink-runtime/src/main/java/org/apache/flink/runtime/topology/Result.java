@@ -20,6 +20,8 @@ package org.apache.flink.runtime.topology;
 
 import org.apache.flink.runtime.io.network.partition.ResultPartitionType;
 
+import java.util.Collections;
+
 /**
  * Represents a data set produced by a {@link Vertex}
  * Each result is produced by one {@link Vertex}.
@@ -35,4 +37,14 @@ public interface Result<VID extends VertexID, RID extends ResultID,
 	V getProducer();
 
 	Iterable<? extends V> getConsumers();
+
+	/**
+	 * Returns the consumers split into groups. Results which are consumed by the same vertices may return the
+	 * same group instances, so that a group only needs to be processed once instead of once per result.
+	 *
+	 * <p>By default, all consumers form one group.
+	 */
+	default Iterable<? extends Iterable<? extends V>> getGroupedConsumers() {
+		return Collections.singletonList(getConsumers());
+	}
 }
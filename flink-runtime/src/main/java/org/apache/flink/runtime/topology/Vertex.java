@@ -18,6 +18,10 @@
 
 package org.apache.flink.runtime.topology;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Represents a logical or execution task.
  * Each vertex can consume data from multiple {@link Result}.
@@ -31,4 +35,19 @@ public interface Vertex<VID extends VertexID, RID extends ResultID,
 	Iterable<? extends R> getConsumedResults();
 
 	Iterable<? extends R> getProducedResults();
+
+	/**
+	 * Returns the consumed results split into groups. All results of a group have the same result type.
+	 * Vertices which consume the same results may return the same group instances, so that a group only
+	 * needs to be processed once instead of once per consumer.
+	 *
+	 * <p>By default, each consumed result forms a group of its own.
+	 */
+	default Iterable<? extends Iterable<? extends R>> getGroupedConsumedResults() {
+		final List<List<R>> groups = new ArrayList<>();
+		for (R consumedResult : getConsumedResults()) {
+			groups.add(Collections.singletonList(consumedResult));
+		}
+		return groups;
+	}
 }
@@ -40,12 +40,17 @@ import org.junit.Test;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -69,6 +74,9 @@ public class CheckpointCoordinatorFailureTest extends TestLogger {
 		final ExecutionAttemptID executionAttemptId = new ExecutionAttemptID();
 		final ExecutionVertex vertex = CheckpointCoordinatorTestingUtils.mockExecutionVertex(executionAttemptId);
 
+		final CheckpointFailureManager failureManager =
+			spy(new CheckpointFailureManager(0, NoOpFailJobCall.INSTANCE));
+
 		// set up the coordinator and validate the initial state
 		CheckpointCoordinator coord =
 			new CheckpointCoordinatorBuilder()
@@ -76,9 +84,10 @@ public class CheckpointCoordinatorFailureTest extends TestLogger {
 				.setTasks(new ExecutionVertex[] { vertex })
 				.setCompletedCheckpointStore(new FailingCompletedCheckpointStore())
 				.setTimer(manuallyTriggeredScheduledExecutor)
+				.setFailureManager(failureManager)
 				.build();
 
-		coord.triggerCheckpoint(false);
+		final CompletableFuture<CompletedCheckpoint> checkpointFuture = coord.triggerCheckpoint(false);
 
 		manuallyTriggeredScheduledExecutor.triggerAll();
 
@@ -117,11 +126,19 @@ public class CheckpointCoordinatorFailureTest extends TestLogger {
 			fail("Expected a checkpoint exception because the completed checkpoint store could not " +
 				"store the completed checkpoint.");
 		} catch (CheckpointException e) {
-			// ignore because we expected this exception
+			assertEquals(CheckpointFailureReason.FINALIZE_CHECKPOINT_FAILURE, e.getCheckpointFailureReason());
 		}
 
 		// make sure that the pending checkpoint has been discarded after we could not complete it
 		assertTrue(pendingCheckpoint.isDiscarded());
+		assertEquals(0, coord.getNumberOfPendingCheckpoints());
+
+		// make sure that the failure has been reported and the checkpoint has not been completed
+		verify(failureManager).handleJobLevelCheckpointException(
+			argThat(e -> e.getCheckpointFailureReason() == CheckpointFailureReason.FINALIZE_CHECKPOINT_FAILURE),
+			eq(checkpointId));
+		verify(failureManager, never()).handleCheckpointSuccess(anyLong());
+		assertTrue(checkpointFuture.isCompletedExceptionally());
 
 		// make sure that the subtask state has been discarded after we could not complete it.
 		verify(operatorSubtaskState).discardState();
@@ -52,6 +52,7 @@ import org.apache.flink.runtime.state.testutils.TestCompletedCheckpointStorageLo
 import org.apache.flink.runtime.testutils.RecoverableCompletedCheckpointStore;
 import org.apache.flink.util.ExceptionUtils;
 import org.apache.flink.util.TestLogger;
+import org.apache.flink.util.function.ThrowingConsumer;
 
 import org.apache.flink.shaded.guava18.com.google.common.collect.Iterables;
 
@@ -2303,6 +2304,187 @@ public class CheckpointCoordinatorTest extends TestLogger {
 		}
 	}
 
+	@Test
+	public void testFailoverCompletesFinalizingCheckpoint() throws Exception {
+		testCompleteFinalizingCheckpoint(coordinator ->
+			coordinator.abortPendingCheckpoints(new CheckpointException(CheckpointFailureReason.JOB_FAILOVER_REGION)));
+	}
+
+	@Test
+	public void testRestoreCompletesFinalizingCheckpoint() throws Exception {
+		testCompleteFinalizingCheckpoint(coordinator ->
+			coordinator.restoreLatestCheckpointedStateToAll(Collections.emptySet(), false));
+	}
+
+	/**
+	 * Tests that a fully acknowledged checkpoint whose finalization has not started yet is completed
+	 * before the given action returns.
+	 */
+	private void testCompleteFinalizingCheckpoint(
+		ThrowingConsumer<CheckpointCoordinator, Exception> action) throws Exception {
+
+		final JobID jobId = new JobID();
+		final ExecutionAttemptID attemptId = new ExecutionAttemptID();
+		final ManuallyTriggeredScheduledExecutor ioExecutor = new ManuallyTriggeredScheduledExecutor();
+		final CheckpointCoordinator coordinator = getCheckpointCoordinator(jobId, attemptId, ioExecutor);
+
+		try {
+			final CompletableFuture<CompletedCheckpoint> checkpointFuture = coordinator.triggerCheckpoint(false);
+			final long checkpointId = triggerAndGetPendingCheckpointId(coordinator, ioExecutor);
+
+			coordinator.receiveAcknowledgeMessage(
+				new AcknowledgeCheckpoint(jobId, attemptId, checkpointId), TASK_MANAGER_LOCATION_INFO);
+
+			// the finalization of the fully acknowledged checkpoint is queued on the io executor
+			assertEquals(0, coordinator.getNumberOfPendingCheckpoints());
+			assertFalse(checkpointFuture.isDone());
+
+			action.accept(coordinator);
+
+			assertEquals(checkpointId, checkpointFuture.get().getCheckpointID());
+			assertEquals(1, coordinator.getNumberOfRetainedSuccessfulCheckpoints());
+
+			// the queued finalization does not finalize the checkpoint again
+			ioExecutor.triggerAll();
+			manuallyTriggeredScheduledExecutor.triggerAll();
+			assertEquals(1, coordinator.getNumberOfRetainedSuccessfulCheckpoints());
+		} finally {
+			coordinator.shutdown(JobStatus.FINISHED);
+		}
+	}
+
+	@Test
+	public void testFailoverAbortsCheckpointWhileFinalizing() throws Exception {
+		testAbortCheckpointWhileFinalizing(
+			coordinator -> coordinator.abortPendingCheckpoints(new CheckpointException(CheckpointFailureReason.JOB_FAILOVER_REGION)),
+			CheckpointFailureReason.JOB_FAILOVER_REGION);
+	}
+
+	@Test
+	public void testGlobalRestoreAbortsCheckpointWhileFinalizing() throws Exception {
+		testAbortCheckpointWhileFinalizing(
+			coordinator -> coordinator.restoreLatestCheckpointedStateToAll(Collections.emptySet(), false),
+			CheckpointFailureReason.JOB_FAILURE);
+	}
+
+	@Test
+	public void testRegionalRestoreAbortsCheckpointWhileFinalizing() throws Exception {
+		testAbortCheckpointWhileFinalizing(
+			coordinator -> coordinator.restoreLatestCheckpointedStateToSubtasks(Collections.emptySet()),
+			CheckpointFailureReason.JOB_FAILOVER_REGION);
+	}
+
+	/**
+	 * Tests that a checkpoint which is aborted while its metadata is written is not added to the
+	 * completed checkpoint store, and that its completion future is failed with the abort cause.
+	 */
+	private void testAbortCheckpointWhileFinalizing(
+		ThrowingConsumer<CheckpointCoordinator, Exception> abortAction,
+		CheckpointFailureReason expectedReason) throws Exception {
+
+		final JobID jobId = new JobID();
+		final ExecutionAttemptID attemptId = new ExecutionAttemptID();
+		final ManuallyTriggeredScheduledExecutor ioExecutor = new ManuallyTriggeredScheduledExecutor();
+		final CheckpointCoordinator coordinator = getCheckpointCoordinator(jobId, attemptId, ioExecutor);
+
+		// the stats are reported once the metadata has been written, before the checkpoint is stored
+		final CheckpointStatsTracker tracker = mock(CheckpointStatsTracker.class);
+		final PendingCheckpointStats pendingCheckpointStats = mock(PendingCheckpointStats.class);
+		when(tracker.reportPendingCheckpoint(anyLong(), anyLong(), any(CheckpointProperties.class)))
+			.thenReturn(pendingCheckpointStats);
+		doAnswer(invocation -> {
+			abortAction.accept(coordinator);
+			return null;
+		}).when(pendingCheckpointStats).reportCompletedCheckpoint(any(String.class));
+		coordinator.setCheckpointStatsTracker(tracker);
+
+		try {
+			final CompletableFuture<CompletedCheckpoint> checkpointFuture = coordinator.triggerCheckpoint(false);
+			final long checkpointId = triggerAndGetPendingCheckpointId(coordinator, ioExecutor);
+
+			coordinator.receiveAcknowledgeMessage(
+				new AcknowledgeCheckpoint(jobId, attemptId, checkpointId), TASK_MANAGER_LOCATION_INFO);
+			ioExecutor.triggerAll();
+			manuallyTriggeredScheduledExecutor.triggerAll();
+
+			assertTrue(checkpointFuture.isCompletedExceptionally());
+			try {
+				checkpointFuture.get();
+				fail("The checkpoint should have been aborted.");
+			} catch (ExecutionException e) {
+				final Optional<CheckpointException> cause = ExceptionUtils.findThrowable(e, CheckpointException.class);
+				assertTrue(cause.isPresent());
+				assertEquals(expectedReason, cause.get().getCheckpointFailureReason());
+			}
+			assertEquals(0, coordinator.getNumberOfRetainedSuccessfulCheckpoints());
+
+			// the aborted checkpoint does not count towards the concurrent checkpoints anymore
+			coordinator.triggerCheckpoint(false);
+			triggerAndGetPendingCheckpointId(coordinator, ioExecutor);
+			assertEquals(0, coordinator.getNumQueuedRequests());
+		} finally {
+			coordinator.shutdown(JobStatus.FINISHED);
+		}
+	}
+
+	@Test
+	public void testFailedFinalizationReleasesConcurrentCheckpoint() throws Exception {
+		final JobID jobId = new JobID();
+		final ExecutionAttemptID attemptId = new ExecutionAttemptID();
+		final ManuallyTriggeredScheduledExecutor ioExecutor = new ManuallyTriggeredScheduledExecutor();
+		final CheckpointCoordinator coordinator = getCheckpointCoordinator(jobId, attemptId, ioExecutor);
+
+		try {
+			coordinator.triggerCheckpoint(false);
+			final long checkpointId = triggerAndGetPendingCheckpointId(coordinator, ioExecutor);
+			final PendingCheckpoint pendingCheckpoint = coordinator.getPendingCheckpoints().get(checkpointId);
+
+			coordinator.receiveAcknowledgeMessage(
+				new AcknowledgeCheckpoint(jobId, attemptId, checkpointId), TASK_MANAGER_LOCATION_INFO);
+
+			// a checkpoint which is discarded before it is finalized fails the finalization
+			pendingCheckpoint.abort(CheckpointFailureReason.CHECKPOINT_EXPIRED);
+			ioExecutor.triggerAll();
+			manuallyTriggeredScheduledExecutor.triggerAll();
+
+			assertEquals(0, coordinator.getNumberOfRetainedSuccessfulCheckpoints());
+
+			coordinator.triggerCheckpoint(false);
+			triggerAndGetPendingCheckpointId(coordinator, ioExecutor);
+			assertEquals(0, coordinator.getNumQueuedRequests());
+		} finally {
+			coordinator.shutdown(JobStatus.FINISHED);
+		}
+	}
+
+	/**
+	 * Runs the triggering of the last triggered checkpoint and returns its ID.
+	 */
+	private long triggerAndGetPendingCheckpointId(
+		CheckpointCoordinator coordinator,
+		ManuallyTriggeredScheduledExecutor ioExecutor) {
+
+		ioExecutor.triggerAll();
+		manuallyTriggeredScheduledExecutor.triggerAll();
+
+		assertEquals(1, coordinator.getNumberOfPendingCheckpoints());
+		return coordinator.getPendingCheckpoints().keySet().iterator().next();
+	}
+
+	private CheckpointCoordinator getCheckpointCoordinator(
+		JobID jobId,
+		ExecutionAttemptID attemptId,
+		ManuallyTriggeredScheduledExecutor ioExecutor) {
+
+		return new CheckpointCoordinatorBuilder()
+			.setJobId(jobId)
+			.setTasks(new ExecutionVertex[]{ mockExecutionVertex(attemptId) })
+			.setCheckpointCoordinatorConfiguration(CheckpointCoordinatorConfiguration.builder().setMaxConcurrentCheckpoints(1).build())
+			.setIoExecutor(ioExecutor)
+			.setTimer(manuallyTriggeredScheduledExecutor)
+			.build();
+	}
+
 	private CheckpointCoordinator getCheckpointCoordinator(
 		JobID jobId,
 		ExecutionVertex vertex1,
@@ -21,6 +21,7 @@ package org.apache.flink.runtime.checkpoint;
 import org.apache.flink.api.common.JobID;
 import org.apache.flink.api.common.time.Time;
 import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.configuration.CheckpointingOptions;
 import org.apache.flink.core.fs.FSDataInputStream;
 import org.apache.flink.core.io.SimpleVersionedSerializer;
 import org.apache.flink.mock.Whitebox;
@@ -614,6 +615,8 @@ public class CheckpointCoordinatorTestingUtils {
 		private CheckpointFailureManager failureManager =
 			new CheckpointFailureManager(0, NoOpFailJobCall.INSTANCE);
 
+		private int metadataVersion = CheckpointingOptions.METADATA_VERSION.defaultValue();
+
 		public CheckpointCoordinatorBuilder() {
 			ExecutionVertex vertex = mockExecutionVertex(new ExecutionAttemptID());
 			ExecutionVertex[] defaultVertices = new ExecutionVertex[] { vertex };
@@ -698,6 +701,11 @@ public class CheckpointCoordinatorTestingUtils {
 			return this;
 		}
 
+		public CheckpointCoordinatorBuilder setMetadataVersion(int metadataVersion) {
+			this.metadataVersion = metadataVersion;
+			return this;
+		}
+
 		public CheckpointCoordinator build() {
 			return new CheckpointCoordinator(
 				jobId,
@@ -712,7 +720,8 @@ public class CheckpointCoordinatorTestingUtils {
 				ioExecutor,
 				timer,
 				sharedStateRegistryFactory,
-				failureManager);
+				failureManager,
+				metadataVersion);
 		}
 	}
 
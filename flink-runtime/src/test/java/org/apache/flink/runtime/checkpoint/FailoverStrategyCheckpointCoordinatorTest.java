@@ -19,6 +19,7 @@
 package org.apache.flink.runtime.checkpoint;
 
 import org.apache.flink.api.common.JobID;
+import org.apache.flink.configuration.CheckpointingOptions;
 import org.apache.flink.runtime.concurrent.Executors;
 import org.apache.flink.runtime.concurrent.ManuallyTriggeredScheduledExecutor;
 import org.apache.flink.runtime.execution.ExecutionState;
@@ -85,7 +86,8 @@ public class FailoverStrategyCheckpointCoordinatorTest extends TestLogger {
 			Executors.directExecutor(),
 			manualThreadExecutor,
 			SharedStateRegistry.DEFAULT_FACTORY,
-			mock(CheckpointFailureManager.class));
+			mock(CheckpointFailureManager.class),
+			CheckpointingOptions.METADATA_VERSION.defaultValue());
 
 		// switch current execution's state to running to allow checkpoint could be triggered.
 		mockExecutionRunning(executionVertex);
@@ -19,9 +19,11 @@
 package org.apache.flink.runtime.checkpoint;
 
 import org.apache.flink.api.common.JobID;
+import org.apache.flink.configuration.CheckpointingOptions;
 import org.apache.flink.core.fs.Path;
 import org.apache.flink.core.fs.local.LocalFileSystem;
 import org.apache.flink.core.io.SimpleVersionedSerializer;
+import org.apache.flink.core.testutils.CheckedThread;
 import org.apache.flink.runtime.OperatorIDPair;
 import org.apache.flink.runtime.checkpoint.CheckpointCoordinatorTestingUtils.StringSerializer;
 import org.apache.flink.runtime.checkpoint.PendingCheckpoint.TaskAcknowledgeResult;
@@ -140,8 +142,8 @@ public class PendingCheckpointTest {
 	}
 
 	/**
-	 * Tests that the completion future is succeeded on finalize and failed on
-	 * abort and failures during finalize.
+	 * Tests that the completion future is failed on abort and failures during finalize, and left
+	 * to the coordinator to complete on a successful finalize.
 	 */
 	@Test
 	public void testCompletionFuture() throws Exception {
@@ -179,7 +181,8 @@ public class PendingCheckpointTest {
 		pending.acknowledgeTask(ATTEMPT_ID, null, new CheckpointMetrics());
 		assertTrue(pending.areTasksFullyAcknowledged());
 		pending.finalizeCheckpoint();
-		assertTrue(future.isDone());
+		assertTrue(pending.isDiscarded());
+		assertFalse(future.isDone());
 
 		// Finalize (missing ACKs)
 		pending = createPendingCheckpoint(props);
@@ -340,6 +343,67 @@ public class PendingCheckpointTest {
 		Assert.assertFalse(pending.getOperatorStates().isEmpty());
 	}
 
+	/**
+	 * Tests that acknowledgements of many tasks which are processed concurrently are all part of the checkpoint.
+	 */
+	@Test
+	public void testConcurrentTaskAcknowledgements() throws Exception {
+		final int parallelism = 64;
+		final OperatorID operatorId = new OperatorID();
+
+		ExecutionJobVertex jobVertex = mock(ExecutionJobVertex.class);
+		when(jobVertex.getOperatorIDs()).thenReturn(Collections.singletonList(OperatorIDPair.generatedIDOnly(operatorId)));
+
+		final Map<ExecutionAttemptID, ExecutionVertex> ackTasks = new HashMap<>();
+		for (int i = 0; i < parallelism; i++) {
+			ExecutionVertex vertex = mock(ExecutionVertex.class);
+			when(vertex.getMaxParallelism()).thenReturn(128);
+			when(vertex.getTotalNumberOfParallelSubtasks()).thenReturn(parallelism);
+			when(vertex.getParallelSubtaskIndex()).thenReturn(i);
+			when(vertex.getJobVertex()).thenReturn(jobVertex);
+			ackTasks.put(new ExecutionAttemptID(), vertex);
+		}
+
+		final PendingCheckpoint pending = createPendingCheckpoint(
+			CheckpointProperties.forCheckpoint(CheckpointRetentionPolicy.NEVER_RETAIN_AFTER_TERMINATION),
+			ackTasks,
+			Collections.emptyList(),
+			Collections.emptyList(),
+			Executors.directExecutor());
+
+		final List<CheckedThread> threads = new ArrayList<>(parallelism);
+		for (ExecutionAttemptID attemptId : ackTasks.keySet()) {
+			threads.add(new CheckedThread() {
+				@Override
+				public void go() {
+					TaskStateSnapshot taskStateSnapshot = new TaskStateSnapshot();
+					taskStateSnapshot.putSubtaskStateByOperatorID(operatorId, new OperatorSubtaskState());
+
+					assertEquals(
+						TaskAcknowledgeResult.SUCCESS,
+						pending.acknowledgeTask(attemptId, taskStateSnapshot, new CheckpointMetrics()));
+				}
+			});
+		}
+
+		for (CheckedThread thread : threads) {
+			thread.start();
+		}
+		for (CheckedThread thread : threads) {
+			thread.sync();
+		}
+
+		assertTrue(pending.areTasksFullyAcknowledged());
+		assertEquals(parallelism, pending.getNumberOfAcknowledgedTasks());
+		assertEquals(parallelism, pending.getOperatorStates().get(operatorId).getSubtaskStates().size());
+
+		for (ExecutionAttemptID attemptId : ackTasks.keySet()) {
+			assertEquals(
+				TaskAcknowledgeResult.DUPLICATE,
+				pending.acknowledgeTask(attemptId, null, new CheckpointMetrics()));
+		}
+	}
+
 	@Test
 	public void testSetCanceller() throws Exception {
 		final CheckpointProperties props = new CheckpointProperties(false, CheckpointType.CHECKPOINT, true, true, true, true, true);
@@ -540,6 +604,16 @@ public class PendingCheckpointTest {
 			Collection<String> masterStateIdentifiers,
 			Executor executor) throws IOException {
 
+		return createPendingCheckpoint(props, ACK_TASKS, operatorCoordinators, masterStateIdentifiers, executor);
+	}
+
+	private PendingCheckpoint createPendingCheckpoint(
+			CheckpointProperties props,
+			Map<ExecutionAttemptID, ExecutionVertex> tasksToAcknowledge,
+			Collection<OperatorID> operatorCoordinators,
+			Collection<String> masterStateIdentifiers,
+			Executor executor) throws IOException {
+
 		final Path checkpointDir = new Path(tmpFolder.newFolder().toURI());
 		final FsCheckpointStorageLocation location = new FsCheckpointStorageLocation(
 				LocalFileSystem.getSharedInstance(),
@@ -548,7 +622,7 @@ public class PendingCheckpointTest {
 				1024,
 				4096);
 
-		final Map<ExecutionAttemptID, ExecutionVertex> ackTasks = new HashMap<>(ACK_TASKS);
+		final Map<ExecutionAttemptID, ExecutionVertex> ackTasks = new HashMap<>(tasksToAcknowledge);
 
 		return new PendingCheckpoint(
 			new JobID(),
@@ -559,6 +633,7 @@ public class PendingCheckpointTest {
 			masterStateIdentifiers,
 			props,
 			location,
+			CheckpointingOptions.METADATA_VERSION.defaultValue(),
 			executor,
 			new CompletableFuture<>());
 	}
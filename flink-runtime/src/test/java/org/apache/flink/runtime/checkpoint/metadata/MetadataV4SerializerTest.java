@@ -0,0 +1,318 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.checkpoint.metadata;
+
+import org.apache.flink.core.fs.FileSystem;
+import org.apache.flink.core.fs.Path;
+import org.apache.flink.core.memory.ByteArrayInputStreamWithPos;
+import org.apache.flink.core.memory.ByteArrayOutputStreamWithPos;
+import org.apache.flink.core.memory.DataInputViewStreamWrapper;
+import org.apache.flink.core.memory.DataOutputViewStreamWrapper;
+import org.apache.flink.runtime.checkpoint.Checkpoints;
+import org.apache.flink.runtime.checkpoint.MasterState;
+import org.apache.flink.runtime.checkpoint.OperatorState;
+import org.apache.flink.runtime.checkpoint.OperatorSubtaskState;
+import org.apache.flink.runtime.jobgraph.OperatorID;
+import org.apache.flink.runtime.state.IncrementalRemoteKeyedStateHandle;
+import org.apache.flink.runtime.state.KeyGroupRange;
+import org.apache.flink.runtime.state.StateHandleID;
+import org.apache.flink.runtime.state.StreamStateHandle;
+import org.apache.flink.runtime.state.filesystem.FileStateHandle;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.annotation.Nullable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Various tests for the version 4 format serializer of a checkpoint.
+ */
+public class MetadataV4SerializerTest {
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testCheckpointWithNoState() throws Exception {
+		final Random rnd = new Random();
+
+		for (int i = 0; i < 100; ++i) {
+			final long checkpointId = rnd.nextLong() & 0x7fffffffffffffffL;
+			final Collection<OperatorState> taskStates = Collections.emptyList();
+			final Collection<MasterState> masterStates = Collections.emptyList();
+
+			testCheckpointSerialization(checkpointId, taskStates, masterStates, null);
+		}
+	}
+
+	@Test
+	public void testCheckpointWithMasterAndTaskStateForCheckpoint() throws Exception {
+		testCheckpointWithMasterAndTaskState(null);
+	}
+
+	@Test
+	public void testCheckpointWithMasterAndTaskStateForSavepoint() throws Exception {
+		testCheckpointWithMasterAndTaskState(temporaryFolder.newFolder().toURI().toString());
+	}
+
+	private void testCheckpointWithMasterAndTaskState(String basePath) throws Exception {
+		final Random rnd = new Random();
+
+		final int maxNumMasterStates = 5;
+		final int maxTaskStates = 20;
+		final int maxNumSubtasks = 20;
+
+		for (int i = 0; i < 100; ++i) {
+			final long checkpointId = rnd.nextLong() & 0x7fffffffffffffffL;
+
+			final int numTasks = rnd.nextInt(maxTaskStates) + 1;
+			final int numSubtasks = rnd.nextInt(maxNumSubtasks) + 1;
+			final Collection<OperatorState> taskStates =
+					CheckpointTestUtils.createOperatorStates(rnd, basePath, numTasks, numSubtasks);
+
+			final int numMasterStates = rnd.nextInt(maxNumMasterStates);
+			final Collection<MasterState> masterStates =
+					CheckpointTestUtils.createRandomMasterStates(rnd, numMasterStates);
+
+			testCheckpointSerialization(checkpointId, taskStates, masterStates, basePath);
+		}
+	}
+
+	/**
+	 * Tests that only the states of the operators accepted by the filter are deserialized.
+	 */
+	@Test
+	public void testDeserializeSelectedOperators() throws Exception {
+		final Random rnd = new Random();
+		final List<OperatorState> operatorStates =
+			new ArrayList<>(CheckpointTestUtils.createOperatorStates(rnd, null, 10, 4));
+		final Collection<MasterState> masterStates = CheckpointTestUtils.createRandomMasterStates(rnd, 2);
+
+		final byte[] bytes = serialize(new CheckpointMetadata(42L, operatorStates, masterStates));
+
+		final List<OperatorState> selectedOperatorStates = new ArrayList<>();
+		for (int i = 0; i < operatorStates.size(); i += 3) {
+			selectedOperatorStates.add(operatorStates.get(i));
+		}
+		final Predicate<OperatorID> operatorFilter = operatorId -> selectedOperatorStates.stream()
+			.anyMatch(operatorState -> operatorState.getOperatorID().equals(operatorId));
+
+		final CheckpointMetadata deserialized = MetadataV4Serializer.INSTANCE.deserialize(
+			new DataInputViewStreamWrapper(new ByteArrayInputStreamWithPos(bytes)),
+			getClass().getClassLoader(),
+			null,
+			operatorFilter);
+
+		assertEquals(42L, deserialized.getCheckpointId());
+		assertEquals(selectedOperatorStates, deserialized.getOperatorStates());
+		assertEquals(masterStates.size(), deserialized.getMasterStates().size());
+	}
+
+	/**
+	 * Tests that the file paths and state handle IDs which are shared by many subtasks are written
+	 * only once, which makes the metadata smaller than in version 3.
+	 */
+	@Test
+	public void testSharedStateHandlesAreWrittenOnce() throws Exception {
+		final int parallelism = 64;
+		final String sharedDirectory = "file:/checkpoints/job/shared/";
+
+		final Map<StateHandleID, StreamStateHandle> sharedState = new HashMap<>();
+		for (int i = 0; i < 16; i++) {
+			sharedState.put(
+				new StateHandleID(String.format("%06d.sst", i)),
+				new FileStateHandle(new Path(sharedDirectory + UUID.randomUUID()), 1024L * i));
+		}
+
+		final OperatorState operatorState = new OperatorState(new OperatorID(), parallelism, 128);
+		for (int subtaskIndex = 0; subtaskIndex < parallelism; subtaskIndex++) {
+			final IncrementalRemoteKeyedStateHandle keyedStateHandle = new IncrementalRemoteKeyedStateHandle(
+				UUID.randomUUID(),
+				new KeyGroupRange(subtaskIndex * 2, subtaskIndex * 2 + 1),
+				42L,
+				sharedState,
+				Collections.emptyMap(),
+				new FileStateHandle(new Path("file:/checkpoints/job/chk-42/" + UUID.randomUUID()), 512L));
+
+			operatorState.putState(subtaskIndex, new OperatorSubtaskState(null, null, keyedStateHandle, null, null, null));
+		}
+
+		final CheckpointMetadata metadata = new CheckpointMetadata(
+			42L, Collections.singletonList(operatorState), Collections.emptyList());
+
+		final byte[] bytes = serialize(metadata);
+
+		final ByteArrayOutputStreamWithPos baos = new ByteArrayOutputStreamWithPos();
+		final DataOutputStream out = new DataOutputViewStreamWrapper(baos);
+		MetadataV3Serializer.serialize(metadata, out);
+		out.close();
+
+		assertThat(bytes.length, lessThan(baos.toByteArray().length / 4));
+
+		final CheckpointMetadata deserialized = MetadataV4Serializer.INSTANCE.deserialize(
+			new DataInputViewStreamWrapper(new ByteArrayInputStreamWithPos(bytes)),
+			getClass().getClassLoader(),
+			null);
+		assertEquals(metadata.getOperatorStates(), deserialized.getOperatorStates());
+	}
+
+	/**
+	 * Tests that file state handles are only written once if they are equal, and that equal
+	 * handles are restored as a single instance.
+	 */
+	@Test
+	public void testOnlyEqualFileStateHandlesAreWrittenOnce() throws Exception {
+		final Path sharedPath = new Path("file:/checkpoints/job/shared/" + UUID.randomUUID());
+		final StreamStateHandle sharedHandle = new FileStateHandle(sharedPath, 1024L);
+		final Map<StateHandleID, StreamStateHandle> sharedState =
+			Collections.singletonMap(new StateHandleID("000001.sst"), sharedHandle);
+
+		final OperatorState operatorState = new OperatorState(new OperatorID(), 2, 128);
+		for (int subtaskIndex = 0; subtaskIndex < 2; subtaskIndex++) {
+			// the meta state handles point to the same file, but differ in their size
+			final IncrementalRemoteKeyedStateHandle keyedStateHandle = new IncrementalRemoteKeyedStateHandle(
+				UUID.randomUUID(),
+				new KeyGroupRange(subtaskIndex * 2, subtaskIndex * 2 + 1),
+				42L,
+				sharedState,
+				Collections.emptyMap(),
+				new FileStateHandle(new Path("file:/checkpoints/job/chk-42/meta"), 512L + subtaskIndex));
+
+			operatorState.putState(subtaskIndex, new OperatorSubtaskState(null, null, keyedStateHandle, null, null, null));
+		}
+
+		final CheckpointMetadata metadata = new CheckpointMetadata(
+			42L, Collections.singletonList(operatorState), Collections.emptyList());
+
+		final CheckpointMetadata deserialized = MetadataV4Serializer.INSTANCE.deserialize(
+			new DataInputViewStreamWrapper(new ByteArrayInputStreamWithPos(serialize(metadata))),
+			getClass().getClassLoader(),
+			null);
+		assertEquals(metadata.getOperatorStates(), deserialized.getOperatorStates());
+
+		final OperatorState deserializedOperatorState = deserialized.getOperatorStates().iterator().next();
+		final IncrementalRemoteKeyedStateHandle first = (IncrementalRemoteKeyedStateHandle)
+			deserializedOperatorState.getState(0).getManagedKeyedState().iterator().next();
+		final IncrementalRemoteKeyedStateHandle second = (IncrementalRemoteKeyedStateHandle)
+			deserializedOperatorState.getState(1).getManagedKeyedState().iterator().next();
+
+		assertSame(
+			first.getSharedState().values().iterator().next(),
+			second.getSharedState().values().iterator().next());
+		assertEquals(512L, first.getMetaStateHandle().getStateSize());
+		assertEquals(513L, second.getMetaStateHandle().getStateSize());
+	}
+
+	/**
+	 * Tests that checkpoint metadata is written in version 3 unless version 4 is requested.
+	 */
+	@Test
+	public void testStoreCheckpointMetadataInRequestedVersion() throws Exception {
+		final Random rnd = new Random();
+		final CheckpointMetadata metadata = new CheckpointMetadata(
+			42L,
+			CheckpointTestUtils.createOperatorStates(rnd, null, 4, 2),
+			CheckpointTestUtils.createRandomMasterStates(rnd, 2));
+
+		assertEquals(MetadataV3Serializer.VERSION, storeAndLoadCheckpointMetadata(metadata, null));
+		assertEquals(MetadataV4Serializer.VERSION, storeAndLoadCheckpointMetadata(metadata, MetadataV4Serializer.VERSION));
+	}
+
+	private int storeAndLoadCheckpointMetadata(CheckpointMetadata metadata, @Nullable Integer version) throws IOException {
+		final ByteArrayOutputStreamWithPos baos = new ByteArrayOutputStreamWithPos();
+		if (version == null) {
+			Checkpoints.storeCheckpointMetadata(metadata, baos);
+		} else {
+			Checkpoints.storeCheckpointMetadata(metadata, baos, version);
+		}
+		final byte[] bytes = baos.toByteArray();
+
+		final CheckpointMetadata deserialized = Checkpoints.loadCheckpointMetadata(
+			new DataInputStream(new ByteArrayInputStreamWithPos(bytes)), getClass().getClassLoader(), null);
+		assertEquals(metadata.getOperatorStates(), deserialized.getOperatorStates());
+
+		final DataInputStream in = new DataInputStream(new ByteArrayInputStreamWithPos(bytes));
+		assertEquals(Checkpoints.HEADER_MAGIC_NUMBER, in.readInt());
+		return in.readInt();
+	}
+
+	/**
+	 * Test checkpoint metadata (de)serialization.
+	 *
+	 * @param checkpointId The given checkpointId will write into the metadata.
+	 * @param operatorStates the given states for all the operators.
+	 * @param masterStates the masterStates of the given checkpoint/savepoint.
+	 */
+	private void testCheckpointSerialization(
+			long checkpointId,
+			Collection<OperatorState> operatorStates,
+			Collection<MasterState> masterStates,
+			@Nullable String basePath) throws IOException {
+
+		final byte[] bytes = serialize(new CheckpointMetadata(checkpointId, operatorStates, masterStates));
+
+		// see MetadataV3SerializerTest, the relative pointer resolution needs a "_metadata" file
+		if (basePath != null) {
+			final Path metaPath = new Path(basePath, "_metadata");
+			// this is in the temp folder, so it will get automatically deleted
+			FileSystem.getLocalFileSystem().create(metaPath, FileSystem.WriteMode.OVERWRITE).close();
+		}
+
+		DataInputStream in = new DataInputViewStreamWrapper(new ByteArrayInputStreamWithPos(bytes));
+		CheckpointMetadata deserialized = MetadataV4Serializer.INSTANCE.deserialize(in, getClass().getClassLoader(), basePath);
+		assertEquals(checkpointId, deserialized.getCheckpointId());
+		assertEquals(operatorStates, deserialized.getOperatorStates());
+
+		assertEquals(masterStates.size(), deserialized.getMasterStates().size());
+		for (Iterator<MasterState> a = masterStates.iterator(), b = deserialized.getMasterStates().iterator();
+				a.hasNext();) {
+			CheckpointTestUtils.assertMasterStateEquality(a.next(), b.next());
+		}
+	}
+
+	private static byte[] serialize(CheckpointMetadata metadata) throws IOException {
+		ByteArrayOutputStreamWithPos baos = new ByteArrayOutputStreamWithPos();
+		DataOutputStream out = new DataOutputViewStreamWrapper(baos);
+
+		MetadataV4Serializer.serialize(metadata, out);
+		out.close();
+
+		return baos.toByteArray();
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.executiongraph;
+
+import org.apache.flink.runtime.io.network.partition.ResultPartitionType;
+import org.apache.flink.runtime.jobgraph.DistributionPattern;
+import org.apache.flink.runtime.jobgraph.JobGraph;
+import org.apache.flink.runtime.jobgraph.JobVertex;
+import org.apache.flink.runtime.testtasks.NoOpInvokable;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for {@link EdgeManagerBuildUtil}.
+ */
+public class EdgeManagerBuildUtilTest extends TestLogger {
+
+	@Test
+	public void testAllToAllEdgesShareGroups() throws Exception {
+		final int producerParallelism = 7;
+		final int consumerParallelism = 5;
+
+		ExecutionGraph eg = createExecutionGraph(producerParallelism, consumerParallelism, DistributionPattern.ALL_TO_ALL);
+		Iterator<ExecutionJobVertex> jobVertices = eg.getVerticesTopologically().iterator();
+		ExecutionVertex[] producers = jobVertices.next().getTaskVertices();
+		ExecutionVertex[] consumers = jobVertices.next().getTaskVertices();
+
+		ConsumedPartitionGroup consumedPartitionGroup = consumers[0].getConsumedPartitionGroup(0);
+		assertEquals(producerParallelism, consumedPartitionGroup.size());
+		for (ExecutionVertex consumer : consumers) {
+			assertSame(consumedPartitionGroup, consumer.getConsumedPartitionGroup(0));
+		}
+
+		ConsumerVertexGroup consumerVertexGroup = consumedPartitionGroup.getFirst().getConsumerVertexGroups().get(0);
+		assertEquals(Arrays.asList(consumers), consumerVertexGroup.getVertices());
+		for (ExecutionVertex producer : producers) {
+			IntermediateResultPartition partition = producer.getProducedPartitions().values().iterator().next();
+			assertEquals(1, partition.getConsumerVertexGroups().size());
+			assertSame(consumerVertexGroup, partition.getConsumerVertexGroups().get(0));
+		}
+	}
+
+	@Test
+	public void testPointwiseConsumerGroups() throws Exception {
+		testPointwiseConsumerGroups(4, 4);
+		testPointwiseConsumerGroups(3, 7);
+		testPointwiseConsumerGroups(7, 3);
+		testPointwiseConsumerGroups(2, 8);
+		testPointwiseConsumerGroups(8, 2);
+	}
+
+	private static void testPointwiseConsumerGroups(int producerParallelism, int consumerParallelism) throws Exception {
+		ExecutionGraph eg = createExecutionGraph(producerParallelism, consumerParallelism, DistributionPattern.POINTWISE);
+		ExecutionVertex[] producers = eg.getVerticesTopologically().iterator().next().getTaskVertices();
+
+		int numConnections = 0;
+		for (ExecutionVertex producer : producers) {
+			IntermediateResultPartition partition = producer.getProducedPartitions().values().iterator().next();
+			for (ExecutionVertex consumer : partition.getConsumerVertexGroups().get(0)) {
+				// the consumers of a partition consume the partition
+				assertEquals(1, consumer.getConsumedPartitionGroup(0).getPartitions().stream()
+					.filter(consumedPartition -> consumedPartition == partition)
+					.count());
+				numConnections++;
+			}
+		}
+
+		assertEquals(Math.max(producerParallelism, consumerParallelism), numConnections);
+	}
+
+	private static ExecutionGraph createExecutionGraph(
+			int producerParallelism,
+			int consumerParallelism,
+			DistributionPattern distributionPattern) throws Exception {
+
+		JobVertex producer = new JobVertex("producer");
+		producer.setInvokableClass(NoOpInvokable.class);
+		producer.setParallelism(producerParallelism);
+
+		JobVertex consumer = new JobVertex("consumer");
+		consumer.setInvokableClass(NoOpInvokable.class);
+		consumer.setParallelism(consumerParallelism);
+		consumer.connectNewDataSetAsInput(producer, distributionPattern, ResultPartitionType.BLOCKING);
+
+		return TestingExecutionGraphBuilder.newBuilder().setJobGraph(new JobGraph(producer, consumer)).build();
+	}
+}
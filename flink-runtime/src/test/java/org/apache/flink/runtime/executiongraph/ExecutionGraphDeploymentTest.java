@@ -33,11 +33,15 @@ import org.apache.flink.runtime.blob.PermanentBlobService;
 import org.apache.flink.runtime.blob.VoidBlobWriter;
 import org.apache.flink.runtime.checkpoint.CheckpointRetentionPolicy;
 import org.apache.flink.runtime.checkpoint.StandaloneCheckpointRecoveryFactory;
+import org.apache.flink.runtime.clusterframework.types.AllocationID;
 import org.apache.flink.runtime.concurrent.ComponentMainThreadExecutorServiceAdapter;
 import org.apache.flink.runtime.concurrent.FutureUtils;
 import org.apache.flink.runtime.deployment.InputGateDeploymentDescriptor;
 import org.apache.flink.runtime.deployment.ResultPartitionDeploymentDescriptor;
 import org.apache.flink.runtime.deployment.TaskDeploymentDescriptor;
+import org.apache.flink.runtime.deployment.TaskDeploymentDescriptor.MaybeOffloaded;
+import org.apache.flink.runtime.deployment.TaskDeploymentDescriptor.NonOffloaded;
+import org.apache.flink.runtime.deployment.TaskDeploymentDescriptorFactory;
 import org.apache.flink.runtime.execution.ExecutionState;
 import org.apache.flink.runtime.executiongraph.restart.NoRestartStrategy;
 import org.apache.flink.runtime.executiongraph.utils.SimpleAckingTaskManagerGateway;
@@ -59,6 +63,7 @@ import org.apache.flink.runtime.jobmaster.slotpool.SlotProvider;
 import org.apache.flink.runtime.messages.Acknowledge;
 import org.apache.flink.runtime.operators.BatchTask;
 import org.apache.flink.runtime.shuffle.NettyShuffleMaster;
+import org.apache.flink.runtime.shuffle.ShuffleDescriptor;
 import org.apache.flink.runtime.taskexecutor.TestingTaskExecutorGateway;
 import org.apache.flink.runtime.taskexecutor.TestingTaskExecutorGatewayBuilder;
 import org.apache.flink.runtime.taskmanager.LocalTaskManagerLocation;
@@ -68,6 +73,7 @@ import org.apache.flink.runtime.testingUtils.TestingUtils;
 import org.apache.flink.runtime.testtasks.NoOpInvokable;
 import org.apache.flink.runtime.testutils.DirectScheduledExecutorService;
 import org.apache.flink.util.FlinkException;
+import org.apache.flink.util.SerializedValue;
 import org.apache.flink.util.TestLogger;
 import org.apache.flink.util.function.FunctionUtils;
 
@@ -96,6 +102,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
@@ -136,6 +144,31 @@ public class ExecutionGraphDeploymentTest extends TestLogger {
 		assertTrue(eg.getJobVertex(jobVertexId).getTaskInformationOrBlobKey().isLeft());
 	}
 
+	/**
+	 * Checks that the shared shuffle descriptors have been offloaded successfully (if offloading is
+	 * used).
+	 *
+	 * @param eg                  the execution graph that was created
+	 * @param shuffleDescriptors  the cached shuffle descriptors
+	 */
+	protected void checkShuffleDescriptorsOffloaded(
+			ExecutionGraph eg,
+			MaybeOffloaded<ShuffleDescriptor[]> shuffleDescriptors) throws Exception {
+		assertTrue(shuffleDescriptors instanceof NonOffloaded);
+	}
+
+	/**
+	 * Checks that the shared shuffle descriptors have been deleted from the BLOB store after they
+	 * were invalidated (if offloading is used).
+	 *
+	 * @param eg                  the execution graph that was created
+	 * @param shuffleDescriptors  the invalidated shuffle descriptors
+	 */
+	protected void checkShuffleDescriptorsDeleted(
+			ExecutionGraph eg,
+			MaybeOffloaded<ShuffleDescriptor[]> shuffleDescriptors) throws Exception {
+	}
+
 	@Test
 	public void testBuildDeploymentDescriptor() {
 		try {
@@ -239,6 +272,81 @@ public class ExecutionGraphDeploymentTest extends TestLogger {
 		}
 	}
 
+	/**
+	 * Tests that the shuffle descriptors of the partitions consumed by several consumers are
+	 * serialized once, shared by the deployment descriptors of all consumers and invalidated when
+	 * a consumed partition is reset.
+	 */
+	@Test
+	public void testShuffleDescriptorsAreCachedForAllConsumers() throws Exception {
+		final JobID jobId = new JobID();
+		final int parallelism = 4;
+
+		JobVertex v1 = new JobVertex("v1", new JobVertexID());
+		JobVertex v2 = new JobVertex("v2", new JobVertexID());
+		v1.setParallelism(parallelism);
+		v2.setParallelism(parallelism);
+		v1.setInvokableClass(NoOpInvokable.class);
+		v2.setInvokableClass(NoOpInvokable.class);
+		v2.connectNewDataSetAsInput(v1, DistributionPattern.ALL_TO_ALL, ResultPartitionType.PIPELINED);
+
+		ExecutionGraph eg = TestingExecutionGraphBuilder
+			.newBuilder()
+			.setJobGraph(new JobGraph(jobId, "Test Job", v1, v2))
+			.setBlobWriter(blobWriter)
+			.build();
+		eg.start(ComponentMainThreadExecutorServiceAdapter.forMainThread());
+
+		TaskManagerLocation location = new LocalTaskManagerLocation();
+		for (ExecutionVertex producer : eg.getJobVertex(v1.getID()).getTaskVertices()) {
+			producer.getCurrentExecutionAttempt().registerProducedPartitions(location, false).get();
+			ExecutionGraphTestUtils.setVertexState(producer, ExecutionState.RUNNING);
+		}
+
+		ExecutionVertex[] consumers = eg.getJobVertex(v2.getID()).getTaskVertices();
+		ConsumedPartitionGroup consumedPartitionGroup = consumers[0].getConsumedPartitionGroup(0);
+		IntermediateResult consumedResult = consumedPartitionGroup.getIntermediateResult();
+		assertNull(consumedResult.getCachedShuffleDescriptors(consumedPartitionGroup));
+
+		ShuffleDescriptor[] firstShuffleDescriptors = createAndLoadShuffleDescriptors(consumers[0]);
+		MaybeOffloaded<ShuffleDescriptor[]> cachedShuffleDescriptors =
+			consumedResult.getCachedShuffleDescriptors(consumedPartitionGroup);
+		assertNotNull(cachedShuffleDescriptors);
+		checkShuffleDescriptorsOffloaded(eg, cachedShuffleDescriptors);
+
+		ShuffleDescriptor[] secondShuffleDescriptors = createAndLoadShuffleDescriptors(consumers[1]);
+		assertSame(cachedShuffleDescriptors, consumedResult.getCachedShuffleDescriptors(consumedPartitionGroup));
+
+		assertEquals(parallelism, firstShuffleDescriptors.length);
+		assertEquals(parallelism, secondShuffleDescriptors.length);
+		for (int i = 0; i < parallelism; i++) {
+			assertFalse(firstShuffleDescriptors[i].isUnknown());
+			assertEquals(
+				firstShuffleDescriptors[i].getResultPartitionID(),
+				secondShuffleDescriptors[i].getResultPartitionID());
+		}
+
+		consumedResult.resetForNewExecution();
+		assertNull(consumedResult.getCachedShuffleDescriptors(consumedPartitionGroup));
+		// consumers which are still being deployed may fetch the invalidated descriptors
+		checkShuffleDescriptorsOffloaded(eg, cachedShuffleDescriptors);
+
+		// the invalidated descriptors are deleted when the next generation of the cache is invalidated
+		consumedResult.cacheShuffleDescriptors(
+			consumedPartitionGroup,
+			new NonOffloaded<>(new SerializedValue<>(new ShuffleDescriptor[0])));
+		consumedResult.resetForNewExecution();
+		checkShuffleDescriptorsDeleted(eg, cachedShuffleDescriptors);
+	}
+
+	private ShuffleDescriptor[] createAndLoadShuffleDescriptors(ExecutionVertex consumer) throws Exception {
+		TaskDeploymentDescriptor tdd = TaskDeploymentDescriptorFactory
+			.fromExecutionVertex(consumer, 0)
+			.createDeploymentDescriptor(new AllocationID(), 0, null, Collections.emptyList());
+		tdd.loadBigData(blobCache);
+		return tdd.getInputGates().get(0).getShuffleDescriptors();
+	}
+
 	@Test
 	public void testRegistrationOfExecutionsFinishing() {
 		try {
@@ -24,7 +24,10 @@ import org.apache.flink.configuration.Configuration;
 import org.apache.flink.runtime.blob.BlobServer;
 import org.apache.flink.runtime.blob.PermanentBlobKey;
 import org.apache.flink.runtime.blob.VoidBlobStore;
+import org.apache.flink.runtime.deployment.TaskDeploymentDescriptor.MaybeOffloaded;
+import org.apache.flink.runtime.deployment.TaskDeploymentDescriptor.Offloaded;
 import org.apache.flink.runtime.jobgraph.JobVertexID;
+import org.apache.flink.runtime.shuffle.ShuffleDescriptor;
 import org.apache.flink.types.Either;
 import org.apache.flink.util.SerializedValue;
 
@@ -38,6 +41,7 @@ import java.util.Collections;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
@@ -55,7 +59,7 @@ public class ExecutionGraphDeploymentWithBlobServerTest extends ExecutionGraphDe
 	@Before
 	public void setupBlobServer() throws IOException {
 		Configuration config = new Configuration();
-		// always offload the serialized job and task information
+		// always offload the serialized job and task information and the shared shuffle descriptors
 		config.setInteger(BlobServerOptions.OFFLOAD_MINSIZE, 0);
 		blobServer = Mockito.spy(new BlobServer(config, new VoidBlobStore()));
 		blobWriter = blobServer;
@@ -103,4 +107,23 @@ public class ExecutionGraphDeploymentWithBlobServerTest extends ExecutionGraphDe
 		// must not throw:
 		blobServer.getFile(eg.getJobID(), taskInformationOrBlobKey.right());
 	}
+
+	@Override
+	protected void checkShuffleDescriptorsOffloaded(
+			ExecutionGraph eg,
+			MaybeOffloaded<ShuffleDescriptor[]> shuffleDescriptors) throws Exception {
+		assertTrue(shuffleDescriptors instanceof Offloaded);
+
+		// must not throw:
+		blobServer.getFile(eg.getJobID(), ((Offloaded<ShuffleDescriptor[]>) shuffleDescriptors).serializedValueKey);
+	}
+
+	@Override
+	protected void checkShuffleDescriptorsDeleted(
+			ExecutionGraph eg,
+			MaybeOffloaded<ShuffleDescriptor[]> shuffleDescriptors) throws Exception {
+		PermanentBlobKey blobKey = ((Offloaded<ShuffleDescriptor[]>) shuffleDescriptors).serializedValueKey;
+
+		assertFalse(blobServer.getStorageLocation(eg.getJobID(), blobKey).exists());
+	}
 }
@@ -291,6 +291,20 @@ public class ExecutionGraphTestUtils {
 		}
 	}
 
+	/**
+	 * Marks the partitions produced by the given vertex as finished (BLOCKING) or as having
+	 * produced data (PIPELINED), without changing the state of its current execution.
+	 */
+	public static void finishProducedPartitions(ExecutionVertex vertex) {
+		for (IntermediateResultPartition partition : vertex.getProducedPartitions().values()) {
+			if (partition.getResultType().isBlocking()) {
+				partition.markFinished();
+			} else {
+				partition.markDataProduced();
+			}
+		}
+	}
+
 	// ------------------------------------------------------------------------
 	//  Mocking ExecutionGraph
 	// ------------------------------------------------------------------------
@@ -571,13 +585,15 @@ public class ExecutionGraphTestUtils {
 				assertEquals(inputJobVertices.size(), ev.getNumberOfInputs());
 
 				for (int i = 0; i < inputJobVertices.size(); i++) {
-					ExecutionEdge[] inputEdges = ev.getInputEdges(i);
-					assertEquals(inputJobVertices.get(i).getParallelism(), inputEdges.length);
+					ConsumedPartitionGroup consumedPartitions = ev.getConsumedPartitionGroup(i);
+					assertEquals(inputJobVertices.get(i).getParallelism(), consumedPartitions.size());
 
 					int expectedPartitionNum = 0;
-					for (ExecutionEdge inEdge : inputEdges) {
-						assertEquals(i, inEdge.getInputNum());
-						assertEquals(expectedPartitionNum, inEdge.getSource().getPartitionNumber());
+					for (IntermediateResultPartition consumedPartition : consumedPartitions) {
+						assertEquals(
+							inputJobVertices.get(i).getID(),
+							consumedPartition.getIntermediateResult().getProducer().getJobVertexId());
+						assertEquals(expectedPartitionNum, consumedPartition.getPartitionNumber());
 
 						expectedPartitionNum++;
 					}
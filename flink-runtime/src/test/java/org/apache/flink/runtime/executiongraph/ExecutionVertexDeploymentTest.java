@@ -43,6 +43,7 @@ import org.junit.Test;
 
 import java.net.InetAddress;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.concurrent.CompletableFuture;
 
 import static org.apache.flink.runtime.executiongraph.ExecutionGraphTestUtils.getExecutionJobVertex;
@@ -302,10 +303,12 @@ public class ExecutionVertexDeploymentTest extends TestLogger {
 			TaskDeploymentDescriptorFactory tddFactory =
 				TaskDeploymentDescriptorFactory.fromExecutionVertex(vertex, 1);
 
-			ExecutionEdge mockEdge = createMockExecutionEdge(1);
+			ExecutionVertex mockConsumer = createMockConsumerVertex(1);
 
 			result.getPartitions()[0].addConsumerGroup();
-			result.getPartitions()[0].addConsumer(mockEdge, 0);
+			result.getPartitions()[0].setConsumerVertexGroup(
+				0,
+				new ConsumerVertexGroup(Collections.singletonList(mockConsumer)));
 
 			TaskManagerLocation location =
 				new TaskManagerLocation(ResourceID.generate(), InetAddress.getLoopbackAddress(), 1);
@@ -324,15 +327,12 @@ public class ExecutionVertexDeploymentTest extends TestLogger {
 		}
 	}
 
-	private ExecutionEdge createMockExecutionEdge(int maxParallelism) {
+	private ExecutionVertex createMockConsumerVertex(int maxParallelism) {
 		ExecutionVertex targetVertex = mock(ExecutionVertex.class);
 		ExecutionJobVertex targetJobVertex = mock(ExecutionJobVertex.class);
 
 		when(targetVertex.getJobVertex()).thenReturn(targetJobVertex);
 		when(targetJobVertex.getMaxParallelism()).thenReturn(maxParallelism);
-
-		ExecutionEdge edge = mock(ExecutionEdge.class);
-		when(edge.getTarget()).thenReturn(targetVertex);
-		return edge;
+		return targetVertex;
 	}
 }
@@ -68,10 +68,10 @@ public class PointwisePatternTest {
 		for (ExecutionVertex ev : target.getTaskVertices()) {
 			assertEquals(1, ev.getNumberOfInputs());
 			
-			ExecutionEdge[] inEdges = ev.getInputEdges(0);
-			assertEquals(1, inEdges.length);
+			ConsumedPartitionGroup consumedPartitions = ev.getConsumedPartitionGroup(0);
+			assertEquals(1, consumedPartitions.size());
 			
-			assertEquals(ev.getParallelSubtaskIndex(), inEdges[0].getSource().getPartitionNumber());
+			assertEquals(ev.getParallelSubtaskIndex(), consumedPartitions.getPartitions().get(0).getPartitionNumber());
 		}
 	}
 	
@@ -106,11 +106,11 @@ public class PointwisePatternTest {
 		for (ExecutionVertex ev : target.getTaskVertices()) {
 			assertEquals(1, ev.getNumberOfInputs());
 			
-			ExecutionEdge[] inEdges = ev.getInputEdges(0);
-			assertEquals(2, inEdges.length);
+			ConsumedPartitionGroup consumedPartitions = ev.getConsumedPartitionGroup(0);
+			assertEquals(2, consumedPartitions.size());
 			
-			assertEquals(ev.getParallelSubtaskIndex() * 2, inEdges[0].getSource().getPartitionNumber());
-			assertEquals(ev.getParallelSubtaskIndex() * 2 + 1, inEdges[1].getSource().getPartitionNumber());
+			assertEquals(ev.getParallelSubtaskIndex() * 2, consumedPartitions.getPartitions().get(0).getPartitionNumber());
+			assertEquals(ev.getParallelSubtaskIndex() * 2 + 1, consumedPartitions.getPartitions().get(1).getPartitionNumber());
 		}
 	}
 	
@@ -145,12 +145,12 @@ public class PointwisePatternTest {
 		for (ExecutionVertex ev : target.getTaskVertices()) {
 			assertEquals(1, ev.getNumberOfInputs());
 			
-			ExecutionEdge[] inEdges = ev.getInputEdges(0);
-			assertEquals(3, inEdges.length);
+			ConsumedPartitionGroup consumedPartitions = ev.getConsumedPartitionGroup(0);
+			assertEquals(3, consumedPartitions.size());
 			
-			assertEquals(ev.getParallelSubtaskIndex() * 3, inEdges[0].getSource().getPartitionNumber());
-			assertEquals(ev.getParallelSubtaskIndex() * 3 + 1, inEdges[1].getSource().getPartitionNumber());
-			assertEquals(ev.getParallelSubtaskIndex() * 3 + 2, inEdges[2].getSource().getPartitionNumber());
+			assertEquals(ev.getParallelSubtaskIndex() * 3, consumedPartitions.getPartitions().get(0).getPartitionNumber());
+			assertEquals(ev.getParallelSubtaskIndex() * 3 + 1, consumedPartitions.getPartitions().get(1).getPartitionNumber());
+			assertEquals(ev.getParallelSubtaskIndex() * 3 + 2, consumedPartitions.getPartitions().get(2).getPartitionNumber());
 		}
 	}
 	
@@ -185,10 +185,10 @@ public class PointwisePatternTest {
 		for (ExecutionVertex ev : target.getTaskVertices()) {
 			assertEquals(1, ev.getNumberOfInputs());
 			
-			ExecutionEdge[] inEdges = ev.getInputEdges(0);
-			assertEquals(1, inEdges.length);
+			ConsumedPartitionGroup consumedPartitions = ev.getConsumedPartitionGroup(0);
+			assertEquals(1, consumedPartitions.size());
 			
-			assertEquals(ev.getParallelSubtaskIndex() / 2, inEdges[0].getSource().getPartitionNumber());
+			assertEquals(ev.getParallelSubtaskIndex() / 2, consumedPartitions.getPartitions().get(0).getPartitionNumber());
 		}
 	}
 	
@@ -223,10 +223,10 @@ public class PointwisePatternTest {
 		for (ExecutionVertex ev : target.getTaskVertices()) {
 			assertEquals(1, ev.getNumberOfInputs());
 			
-			ExecutionEdge[] inEdges = ev.getInputEdges(0);
-			assertEquals(1, inEdges.length);
+			ConsumedPartitionGroup consumedPartitions = ev.getConsumedPartitionGroup(0);
+			assertEquals(1, consumedPartitions.size());
 			
-			assertEquals(ev.getParallelSubtaskIndex() / 7, inEdges[0].getSource().getPartitionNumber());
+			assertEquals(ev.getParallelSubtaskIndex() / 7, consumedPartitions.getPartitions().get(0).getPartitionNumber());
 		}
 	}
 	
@@ -287,11 +287,11 @@ public class PointwisePatternTest {
 		for (ExecutionVertex ev : target.getTaskVertices()) {
 			assertEquals(1, ev.getNumberOfInputs());
 			
-			ExecutionEdge[] inEdges = ev.getInputEdges(0);
-			assertEquals(1, inEdges.length);
+			ConsumedPartitionGroup consumedPartitions = ev.getConsumedPartitionGroup(0);
+			assertEquals(1, consumedPartitions.size());
 			
 			
-			timesUsed[inEdges[0].getSource().getPartitionNumber()]++;
+			timesUsed[consumedPartitions.getPartitions().get(0).getPartitionNumber()]++;
 		}
 
 		for (int used : timesUsed) {
@@ -336,11 +336,11 @@ public class PointwisePatternTest {
 		for (ExecutionVertex ev : target.getTaskVertices()) {
 			assertEquals(1, ev.getNumberOfInputs());
 			
-			ExecutionEdge[] inEdges = ev.getInputEdges(0);
-			assertTrue(inEdges.length >= factor && inEdges.length <= factor + delta);
+			ConsumedPartitionGroup consumedPartitions = ev.getConsumedPartitionGroup(0);
+			assertTrue(consumedPartitions.size() >= factor && consumedPartitions.size() <= factor + delta);
 			
-			for (ExecutionEdge ee : inEdges) {
-				timesUsed[ee.getSource().getPartitionNumber()]++;
+			for (IntermediateResultPartition partition : consumedPartitions) {
+				timesUsed[partition.getPartitionNumber()]++;
 			}
 		}
 
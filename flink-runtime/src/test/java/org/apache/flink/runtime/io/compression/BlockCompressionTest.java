@@ -18,6 +18,8 @@
 
 package org.apache.flink.runtime.io.compression;
 
+import org.apache.flink.configuration.IllegalConfigurationException;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -25,6 +27,7 @@ import java.nio.ByteBuffer;
 
 import static org.apache.flink.runtime.io.compression.Lz4BlockCompressionFactory.HEADER_LENGTH;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests for block compression.
@@ -33,7 +36,85 @@ public class BlockCompressionTest {
 
 	@Test
 	public void testLz4() {
-		BlockCompressionFactory factory = new Lz4BlockCompressionFactory();
+		runTests(new Lz4BlockCompressionFactory());
+	}
+
+	@Test
+	public void testLz4Hc() {
+		runTests(new Lz4HcBlockCompressionFactory());
+		runTests(new Lz4HcBlockCompressionFactory(Lz4HcBlockCompressionFactory.MAX_LEVEL));
+	}
+
+	@Test
+	public void testSnappy() {
+		runTests(new SnappyBlockCompressionFactory());
+	}
+
+	@Test
+	public void testZstd() {
+		runTests(new ZstdBlockCompressionFactory());
+		runTests(new ZstdBlockCompressionFactory(1));
+		runTests(new ZstdBlockCompressionFactory(19));
+	}
+
+	@Test
+	public void testMixedHeapAndDirectBuffers() {
+		for (BlockCompressionFactory factory : new BlockCompressionFactory[] {
+				new SnappyBlockCompressionFactory(), new ZstdBlockCompressionFactory()}) {
+			BlockCompressor compressor = factory.getCompressor();
+			BlockDecompressor decompressor = factory.getDecompressor();
+
+			int originalLen = 32768;
+			ByteBuffer data = ByteBuffer.allocateDirect(originalLen);
+			for (int i = 0; i < originalLen; i++) {
+				data.put((byte) i);
+			}
+			data.flip();
+
+			ByteBuffer compressedData = ByteBuffer.allocate(compressor.getMaxCompressedSize(originalLen));
+			int compressedLen = compressor.compress(data, 0, originalLen, compressedData, 0);
+			assertEquals(compressedLen, compressedData.position());
+			compressedData.flip();
+
+			ByteBuffer decompressedData = ByteBuffer.allocateDirect(originalLen);
+			int decompressedLen = decompressor.decompress(compressedData, 0, compressedLen, decompressedData, 0);
+			assertEquals(originalLen, decompressedLen);
+			decompressedData.flip();
+
+			for (int i = 0; i < originalLen; i++) {
+				assertEquals((byte) i, decompressedData.get());
+			}
+		}
+	}
+
+	@Test
+	public void testCreateFactoryByName() {
+		assertTrue(BlockCompressionFactory.createBlockCompressionFactory("lz4") instanceof Lz4BlockCompressionFactory);
+		assertTrue(BlockCompressionFactory.createBlockCompressionFactory("LZ4_HC") instanceof Lz4HcBlockCompressionFactory);
+		assertTrue(BlockCompressionFactory.createBlockCompressionFactory("LZ4_HC:12") instanceof Lz4HcBlockCompressionFactory);
+		assertTrue(BlockCompressionFactory.createBlockCompressionFactory("Snappy") instanceof SnappyBlockCompressionFactory);
+		assertTrue(BlockCompressionFactory.createBlockCompressionFactory("ZSTD") instanceof ZstdBlockCompressionFactory);
+		assertTrue(BlockCompressionFactory.createBlockCompressionFactory("zstd:9") instanceof ZstdBlockCompressionFactory);
+		assertTrue(BlockCompressionFactory.createBlockCompressionFactory(
+			SnappyBlockCompressionFactory.class.getName()) instanceof SnappyBlockCompressionFactory);
+	}
+
+	@Test(expected = IllegalConfigurationException.class)
+	public void testLevelOfCodecWithoutLevels() {
+		BlockCompressionFactory.createBlockCompressionFactory("SNAPPY:3");
+	}
+
+	@Test(expected = IllegalConfigurationException.class)
+	public void testIllegalLevel() {
+		BlockCompressionFactory.createBlockCompressionFactory("ZSTD:high");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLevelOutOfRange() {
+		BlockCompressionFactory.createBlockCompressionFactory("LZ4_HC:18");
+	}
+
+	private void runTests(BlockCompressionFactory factory) {
 		runArrayTest(factory, 32768);
 		runArrayTest(factory, 16);
 
@@ -18,12 +18,14 @@
 
 package org.apache.flink.runtime.io.network;
 
+import org.apache.flink.configuration.Configuration;
 import org.apache.flink.metrics.MetricGroup;
 import org.apache.flink.runtime.clusterframework.types.ResourceID;
 import org.apache.flink.runtime.concurrent.Executors;
 import org.apache.flink.runtime.io.network.netty.NettyConfig;
 import org.apache.flink.runtime.io.network.partition.BoundedBlockingSubpartitionType;
 import org.apache.flink.runtime.io.network.partition.ResultPartitionManager;
+import org.apache.flink.runtime.io.network.partition.consumer.BufferDebloatConfiguration;
 import org.apache.flink.runtime.metrics.groups.UnregisteredMetricGroups;
 import org.apache.flink.runtime.taskmanager.NettyShuffleEnvironmentConfiguration;
 import org.apache.flink.runtime.util.EnvironmentInformation;
@@ -58,8 +60,21 @@ public class NettyShuffleEnvironmentBuilder {
 
 	private boolean blockingShuffleCompressionEnabled = false;
 
+	private boolean pipelinedShuffleCompressionEnabled = false;
+
+	private BufferDebloatConfiguration bufferDebloatConfiguration =
+		BufferDebloatConfiguration.fromConfiguration(new Configuration());
+
+	private int localChannelNotificationBatchSize = 1;
+
+	private int maxBuffersPerSpanningRecord = 0;
+
 	private String compressionCodec = "LZ4";
 
+	private int sortShuffleMinBuffers = 64;
+
+	private int sortShuffleMinParallelism = Integer.MAX_VALUE;
+
 	private ResourceID taskManagerLocation = ResourceID.generate();
 
 	private NettyConfig nettyConfig;
@@ -115,11 +130,41 @@ public class NettyShuffleEnvironmentBuilder {
 		return this;
 	}
 
+	public NettyShuffleEnvironmentBuilder setPipelinedShuffleCompressionEnabled(boolean pipelinedShuffleCompressionEnabled) {
+		this.pipelinedShuffleCompressionEnabled = pipelinedShuffleCompressionEnabled;
+		return this;
+	}
+
+	public NettyShuffleEnvironmentBuilder setBufferDebloatConfiguration(BufferDebloatConfiguration bufferDebloatConfiguration) {
+		this.bufferDebloatConfiguration = bufferDebloatConfiguration;
+		return this;
+	}
+
+	public NettyShuffleEnvironmentBuilder setMaxBuffersPerSpanningRecord(int maxBuffersPerSpanningRecord) {
+		this.maxBuffersPerSpanningRecord = maxBuffersPerSpanningRecord;
+		return this;
+	}
+
+	public NettyShuffleEnvironmentBuilder setLocalChannelNotificationBatchSize(int localChannelNotificationBatchSize) {
+		this.localChannelNotificationBatchSize = localChannelNotificationBatchSize;
+		return this;
+	}
+
 	public NettyShuffleEnvironmentBuilder setCompressionCodec(String compressionCodec) {
 		this.compressionCodec = compressionCodec;
 		return this;
 	}
 
+	public NettyShuffleEnvironmentBuilder setSortShuffleMinBuffers(int sortShuffleMinBuffers) {
+		this.sortShuffleMinBuffers = sortShuffleMinBuffers;
+		return this;
+	}
+
+	public NettyShuffleEnvironmentBuilder setSortShuffleMinParallelism(int sortShuffleMinParallelism) {
+		this.sortShuffleMinParallelism = sortShuffleMinParallelism;
+		return this;
+	}
+
 	public NettyShuffleEnvironmentBuilder setNettyConfig(NettyConfig nettyConfig) {
 		this.nettyConfig = nettyConfig;
 		return this;
@@ -157,7 +202,13 @@ public class NettyShuffleEnvironmentBuilder {
 				false,
 				blockingShuffleCompressionEnabled,
 				compressionCodec,
-				maxBuffersPerChannel),
+				maxBuffersPerChannel,
+				sortShuffleMinBuffers,
+				sortShuffleMinParallelism,
+				pipelinedShuffleCompressionEnabled,
+				bufferDebloatConfiguration,
+				localChannelNotificationBatchSize,
+				maxBuffersPerSpanningRecord),
 			taskManagerLocation,
 			new TaskEventDispatcher(),
 			resultPartitionManager,
@@ -26,6 +26,7 @@ import org.apache.flink.runtime.io.network.buffer.BufferConsumer;
 import org.apache.flink.runtime.io.network.buffer.FreeingBufferRecycler;
 import org.apache.flink.runtime.io.network.serialization.types.LargeObjectType;
 import org.apache.flink.runtime.io.network.util.DeserializationUtils;
+import org.apache.flink.runtime.io.network.util.TestPooledBufferProvider;
 import org.apache.flink.testutils.serialization.types.IntType;
 import org.apache.flink.testutils.serialization.types.SerializationTestType;
 import org.apache.flink.testutils.serialization.types.SerializationTestTypeFactory;
@@ -51,6 +52,7 @@ import java.util.Random;
 
 import static org.apache.flink.runtime.io.network.buffer.BufferBuilderTestUtils.buildSingleBuffer;
 import static org.apache.flink.runtime.io.network.buffer.BufferBuilderTestUtils.createFilledBufferBuilder;
+import static org.junit.Assert.assertEquals;
 
 /**
  * Tests for the {@link SpillingAdaptiveSpanningRecordDeserializer}.
@@ -113,15 +115,63 @@ public class SpanningRecordSerializationTest extends TestLogger {
 		testSerializationRoundTrip(originalRecords, segmentSize);
 	}
 
+	@Test
+	public void testHandleMixedRecordsWithPooledBuffers() throws Exception {
+		final int numValues = 200;
+		final int segmentSize = 1024;
+		final TestPooledBufferProvider bufferProvider = new TestPooledBufferProvider(64, 512);
+
+		List<SerializationTestType> originalRecords = new ArrayList<>(numValues);
+		for (int i = 0; i < numValues; i++) {
+			if (i % 2 == 0) {
+				originalRecords.add(new IntType(42));
+			} else {
+				// some records fit into the pooled buffers, others are gathered on the heap
+				originalRecords.add(new LargeObjectType(1000 + RANDOM.nextInt(30000)));
+			}
+		}
+
+		RecordDeserializer<SerializationTestType> deserializer =
+			new SpillingAdaptiveSpanningRecordDeserializer<>(
+				new String[]{ tempFolder.getRoot().getAbsolutePath() },
+				bufferProvider::requestBuffer,
+				40);
+		testSerializationRoundTrip(originalRecords, segmentSize, new SpanningRecordSerializer<>(), deserializer, false);
+
+		assertEquals(bufferProvider.getNumberOfCreatedBuffers(), bufferProvider.getNumberOfAvailableBuffers());
+	}
+
+	@Test
+	public void testIntRecordsSpanningMultipleSegmentsDirectly() throws Exception {
+		testSerializationRoundTrip(Util.randomRecords(10, SerializationTestTypeFactory.INT), 1, true);
+	}
+
+	@Test
+	public void testIntRecordsWithUnalignedBuffersDirectly() throws Exception {
+		testSerializationRoundTrip(Util.randomRecords(248, SerializationTestTypeFactory.INT), 31, true);
+	}
+
+	@Test
+	public void testRandomRecordsDirectly() throws Exception {
+		testSerializationRoundTrip(Util.randomRecords(10000), 127, true);
+	}
+
 	// -----------------------------------------------------------------------------------------------------------------
 
 	private void testSerializationRoundTrip(Iterable<SerializationTestType> records, int segmentSize) throws Exception {
+		testSerializationRoundTrip(records, segmentSize, false);
+	}
+
+	private void testSerializationRoundTrip(
+			Iterable<SerializationTestType> records,
+			int segmentSize,
+			boolean serializeDirectly) throws Exception {
 		RecordSerializer<SerializationTestType> serializer = new SpanningRecordSerializer<>();
 		RecordDeserializer<SerializationTestType> deserializer =
 			new SpillingAdaptiveSpanningRecordDeserializer<>(
 				new String[]{ tempFolder.getRoot().getAbsolutePath() });
 
-		testSerializationRoundTrip(records, segmentSize, serializer, deserializer);
+		testSerializationRoundTrip(records, segmentSize, serializer, deserializer, serializeDirectly);
 	}
 
 	/**
@@ -132,12 +182,14 @@ public class SpanningRecordSerializationTest extends TestLogger {
 	 *
 	 * @param records records to test
 	 * @param segmentSize size for the {@link MemorySegment}
+	 * @param serializeDirectly whether to serialize the records directly into the target buffers
 	 */
 	private static void testSerializationRoundTrip(
 			Iterable<SerializationTestType> records,
 			int segmentSize,
 			RecordSerializer<SerializationTestType> serializer,
-			RecordDeserializer<SerializationTestType> deserializer)
+			RecordDeserializer<SerializationTestType> deserializer,
+			boolean serializeDirectly)
 		throws Exception {
 		final ArrayDeque<SerializationTestType> serializedRecords = new ArrayDeque<>();
 
@@ -153,8 +205,18 @@ public class SpanningRecordSerializationTest extends TestLogger {
 			numRecords++;
 
 			// serialize record
-			serializer.serializeRecord(record);
-			if (serializer.copyToBufferBuilder(serializationResult.getBufferBuilder()).isFullBuffer()) {
+			final BufferBuilder bufferBuilder = serializationResult.getBufferBuilder();
+			final boolean isFullBuffer;
+			if (serializeDirectly && serializer.serializeRecordToBufferBuilder(record, bufferBuilder)) {
+				bufferBuilder.commit();
+				isFullBuffer = bufferBuilder.isFull();
+			} else {
+				if (!serializeDirectly) {
+					serializer.serializeRecord(record);
+				}
+				isFullBuffer = serializer.copyToBufferBuilder(bufferBuilder).isFullBuffer();
+			}
+			if (isFullBuffer) {
 				// buffer is full => start deserializing
 				deserializer.setNextBuffer(serializationResult.buildBuffer());
 
@@ -19,6 +19,7 @@ package org.apache.flink.runtime.io.network.api.serialization;
 
 import org.apache.flink.core.memory.MemorySegment;
 import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.runtime.io.network.util.TestPooledBufferProvider;
 import org.apache.flink.util.CloseableIterator;
 
 import org.junit.Rule;
@@ -26,12 +27,14 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
 import static org.apache.flink.core.memory.MemorySegmentFactory.wrap;
 import static org.apache.flink.runtime.io.network.api.serialization.SpillingAdaptiveSpanningRecordDeserializer.LENGTH_BYTES;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 
 /**
  * {@link SpanningWrapper} test.
@@ -66,6 +69,56 @@ public class SpanningWrapperTest {
 		assertArrayEquals(concat(record1, record2), toByteArray(unconsumedSegment));
 	}
 
+	@Test
+	public void testGatherRecordInPooledBuffers() throws Exception {
+		int recordLen = 2000;
+		int firstChunk = 500;
+		TestPooledBufferProvider bufferProvider = new TestPooledBufferProvider(10, 256);
+
+		byte[] record1 = recordBytes(recordLen);
+		byte[] record2 = recordBytes(recordLen);
+
+		SpanningWrapper spanningWrapper = new SpanningWrapper(
+			new String[]{folder.newFolder().getAbsolutePath()}, bufferProvider::requestBuffer, 8);
+		spanningWrapper.transferFrom(wrapNonSpanning(record1, firstChunk), recordLen);
+		spanningWrapper.addNextChunkFromMemorySegment(wrap(record1), firstChunk, 1000);
+		// the record needs 8 buffers of 256 bytes
+		assertEquals(8, bufferProvider.getNumberOfCreatedBuffers());
+		assertEquals(0, bufferProvider.getNumberOfAvailableBuffers());
+
+		spanningWrapper.addNextChunkFromMemorySegment(wrap(record1), firstChunk + 1000, recordLen + LENGTH_BYTES - firstChunk - 1000);
+		spanningWrapper.addNextChunkFromMemorySegment(wrap(record2), 0, record2.length);
+
+		assertArrayEquals(concat(record1, record2), toByteArray(spanningWrapper.getUnconsumedSegment()));
+
+		byte[] result = new byte[recordLen];
+		spanningWrapper.getInputView().readFully(result);
+		assertArrayEquals(Arrays.copyOfRange(record1, LENGTH_BYTES, record1.length), result);
+
+		spanningWrapper.transferLeftOverTo(new NonSpanningWrapper());
+		assertEquals(8, bufferProvider.getNumberOfAvailableBuffers());
+	}
+
+	@Test
+	public void testGatherRecordOnHeapIfPooledBuffersAreExceeded() throws Exception {
+		int recordLen = 2000;
+		int firstChunk = 500;
+		TestPooledBufferProvider bufferProvider = new TestPooledBufferProvider(10, 256);
+
+		byte[] record = recordBytes(recordLen);
+
+		SpanningWrapper spanningWrapper = new SpanningWrapper(
+			new String[]{folder.newFolder().getAbsolutePath()}, bufferProvider::requestBuffer, 4);
+		spanningWrapper.transferFrom(wrapNonSpanning(record, firstChunk), recordLen);
+		assertEquals(bufferProvider.getNumberOfCreatedBuffers(), bufferProvider.getNumberOfAvailableBuffers());
+
+		spanningWrapper.addNextChunkFromMemorySegment(wrap(record), firstChunk, recordLen + LENGTH_BYTES - firstChunk);
+
+		byte[] result = new byte[recordLen];
+		spanningWrapper.getInputView().readFully(result);
+		assertArrayEquals(Arrays.copyOfRange(record, LENGTH_BYTES, record.length), result);
+	}
+
 	private byte[] recordBytes(int recordLen) {
 		byte[] inputData = randomBytes(recordLen + LENGTH_BYTES);
 		for (int i = 0; i < Integer.BYTES; i++) {
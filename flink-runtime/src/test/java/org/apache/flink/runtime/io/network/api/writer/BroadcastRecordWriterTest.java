@@ -67,7 +67,7 @@ public class BroadcastRecordWriterTest extends RecordWriterTest {
 		}
 
 		final TestPooledBufferProvider bufferProvider = new TestPooledBufferProvider(Integer.MAX_VALUE, bufferSize);
-		final ResultPartitionWriter partitionWriter = new CollectingPartitionWriter(queues, bufferProvider);
+		final BufferWritingResultPartitionWriter partitionWriter = new CollectingPartitionWriter(queues, bufferProvider);
 		final BroadcastRecordWriter<SerializationTestType> writer = new BroadcastRecordWriter<>(partitionWriter, 0, "test");
 		final RecordDeserializer<SerializationTestType> deserializer = new SpillingAdaptiveSpanningRecordDeserializer<>(
 			new String[]{ tempFolder.getRoot().getAbsolutePath() });
@@ -156,6 +156,37 @@ public class BroadcastRecordWriterTest extends RecordWriterTest {
 		assertEquals(1, bufferProvider.getNumberOfAvailableBuffers());
 	}
 
+	/**
+	 * Tests that the buffers shared by all channels are trimmed to the smallest buffer size desired by
+	 * any of the channels.
+	 */
+	@Test
+	public void testBroadcastBufferTrimmedToDesiredBufferSize() throws Exception {
+		int recordSize = 8;
+
+		final TestPooledBufferProvider bufferProvider = new TestPooledBufferProvider(4, 4 * recordSize);
+		final KeepingPartitionWriter partitionWriter = new KeepingPartitionWriter(bufferProvider) {
+			@Override
+			public int getNumberOfSubpartitions() {
+				return 2;
+			}
+
+			@Override
+			public int getDesiredBroadcastBufferSize() {
+				return recordSize;
+			}
+		};
+		final BroadcastRecordWriter<SerializationTestType> writer = new BroadcastRecordWriter<>(partitionWriter, 0, "test");
+
+		writer.broadcastEmit(new IntType(1));
+		writer.broadcastEmit(new IntType(2));
+
+		for (int subpartition = 0; subpartition < 2; subpartition++) {
+			assertEquals(2, partitionWriter.getAddedBufferConsumers(subpartition).size());
+			closeConsumer(partitionWriter, subpartition, recordSize);
+		}
+	}
+
 	public void closeConsumer(KeepingPartitionWriter partitionWriter, int subpartitionIndex, int expectedSize) {
 		BufferConsumer bufferConsumer = partitionWriter.getAddedBufferConsumers(subpartitionIndex).get(0);
 		Buffer buffer = bufferConsumer.build();
@@ -150,7 +150,7 @@ public class RecordWriterDelegateTest extends TestLogger {
 		assertTrue(writerDelegate.getAvailableFuture().isDone());
 
 		// request one buffer from the local pool to make it unavailable
-		RecordWriter recordWriter = writerDelegate.getRecordWriter(0);
+		BufferWritingRecordWriter recordWriter = (BufferWritingRecordWriter) writerDelegate.getRecordWriter(0);
 		final BufferBuilder bufferBuilder = checkNotNull(recordWriter.getBufferBuilder(0));
 		assertFalse(writerDelegate.isAvailable());
 		CompletableFuture future = writerDelegate.getAvailableFuture();
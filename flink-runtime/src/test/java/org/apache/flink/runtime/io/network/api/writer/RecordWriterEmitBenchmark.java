@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.api.writer;
+
+import org.apache.flink.core.io.IOReadableWritable;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputView;
+import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.runtime.io.network.buffer.BufferBuilder;
+import org.apache.flink.runtime.io.network.buffer.BufferConsumer;
+import org.apache.flink.runtime.io.network.buffer.BufferProvider;
+import org.apache.flink.runtime.io.network.partition.MockResultPartitionWriter;
+import org.apache.flink.runtime.io.network.util.TestPooledBufferProvider;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * Benchmark of the serialization of records into the buffers of a {@link ChannelSelectorRecordWriter}.
+ * It compares the copying path, which serializes every record into the intermediate serialization
+ * buffer and copies it into the target buffer, with the direct serialization of
+ * {@link RecordWriter#emit(IOReadableWritable)} and of the batch {@link RecordWriter#emitAll(Iterable)}.
+ * The buffers are discarded as soon as they are finished, so only the writer is measured. It can be
+ * executed by the external <a href="https://github.com/dataArtisans/flink-benchmarks">flink-benchmarks</a>
+ * project, or standalone via {@link #main(String[])}.
+ */
+public class RecordWriterEmitBenchmark {
+
+	/** The number of records emitted by one call of {@link RecordWriter#emitAll(Iterable)}. */
+	static final int BATCH_SIZE = 100;
+
+	private static final int DEFAULT_NUM_CHANNELS = 10;
+
+	private static final int DEFAULT_BUFFER_SIZE = 32 * 1024;
+
+	/**
+	 * The ways of emitting records which are compared.
+	 */
+	public enum EmitMode {
+		/** Serializes into the intermediate serialization buffer and copies into the target buffer. */
+		COPYING,
+		/** Serializes each record directly into the target buffer. */
+		DIRECT,
+		/** Serializes batches of records directly into the target buffers. */
+		BATCH
+	}
+
+	private DiscardingResultPartitionWriter partitionWriter;
+
+	private ChannelSelectorRecordWriter<FixedSizeRecord> recordWriter;
+
+	private FixedSizeRecord record;
+
+	private List<FixedSizeRecord> batch;
+
+	private int nextChannel;
+
+	public void setUp(int numChannels, int recordSize, int bufferSize) {
+		checkArgument(numChannels > 0);
+		checkArgument(recordSize > 0);
+
+		// every channel holds one unfinished buffer, and one more buffer is requested before
+		// the finished buffer of a channel is discarded
+		partitionWriter = new DiscardingResultPartitionWriter(numChannels, new TestPooledBufferProvider(numChannels + 1, bufferSize));
+		recordWriter = (ChannelSelectorRecordWriter<FixedSizeRecord>) new RecordWriterBuilder<FixedSizeRecord>().build(partitionWriter);
+		record = new FixedSizeRecord(recordSize);
+		batch = new ArrayList<>(BATCH_SIZE);
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			batch.add(record);
+		}
+	}
+
+	public void tearDown() {
+		if (recordWriter != null) {
+			recordWriter.close();
+			partitionWriter.close();
+		}
+		recordWriter = null;
+		partitionWriter = null;
+		record = null;
+		batch = null;
+	}
+
+	/**
+	 * Emits the given number of records round-robin over all channels, flushes them and returns the
+	 * number of bytes written into the buffers, including the length headers of the records.
+	 */
+	public long emitRecords(EmitMode mode, int numRecords) throws Exception {
+		checkState(recordWriter != null, "The benchmark has not been set up.");
+
+		final long bytesBefore = partitionWriter.getNumBytes();
+		switch (mode) {
+			case COPYING:
+				for (int i = 0; i < numRecords; i++) {
+					recordWriter.emit(record, nextChannel);
+					nextChannel = (nextChannel + 1) % partitionWriter.getNumberOfSubpartitions();
+				}
+				break;
+			case DIRECT:
+				for (int i = 0; i < numRecords; i++) {
+					recordWriter.emit(record);
+				}
+				break;
+			case BATCH:
+				int remaining = numRecords;
+				while (remaining >= BATCH_SIZE) {
+					recordWriter.emitAll(batch);
+					remaining -= BATCH_SIZE;
+				}
+				if (remaining > 0) {
+					recordWriter.emitAll(batch.subList(0, remaining));
+				}
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown emit mode " + mode);
+		}
+		recordWriter.flushAll();
+		return partitionWriter.getNumBytes() - bytesBefore;
+	}
+
+	public static void main(String[] args) throws Exception {
+		final int numRecords = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+		final int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+		System.out.printf("%-8s %12s %18s%n", "mode", "record size", "records/ms");
+		for (int recordSize : new int[] {16, 100, 1024}) {
+			for (EmitMode mode : EmitMode.values()) {
+				RecordWriterEmitBenchmark benchmark = new RecordWriterEmitBenchmark();
+				benchmark.setUp(DEFAULT_NUM_CHANNELS, recordSize, DEFAULT_BUFFER_SIZE);
+				try {
+					// warm up
+					benchmark.emitRecords(mode, numRecords);
+
+					long nanos = 0;
+					for (int i = 0; i < iterations; i++) {
+						long start = System.nanoTime();
+						benchmark.emitRecords(mode, numRecords);
+						nanos += System.nanoTime() - start;
+					}
+
+					System.out.printf("%-8s %12d %18d%n",
+						mode,
+						recordSize,
+						numRecords * iterations * 1_000_000L / nanos);
+				}
+				finally {
+					benchmark.tearDown();
+				}
+			}
+		}
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * A record of a fixed number of bytes.
+	 */
+	static final class FixedSizeRecord implements IOReadableWritable {
+
+		private final byte[] data;
+
+		FixedSizeRecord(int size) {
+			this.data = new byte[size];
+			Arrays.fill(data, (byte) 42);
+		}
+
+		@Override
+		public void write(DataOutputView out) throws IOException {
+			out.write(data);
+		}
+
+		@Override
+		public void read(DataInputView in) throws IOException {
+			in.readFully(data);
+		}
+	}
+
+	/**
+	 * {@link ResultPartitionWriter} which counts and recycles the data of the buffers. The buffer of
+	 * a channel is discarded once the next buffer of that channel is added, or when it is flushed.
+	 */
+	private static final class DiscardingResultPartitionWriter extends MockResultPartitionWriter {
+
+		private final BufferProvider bufferProvider;
+
+		private final BufferConsumer[] bufferConsumers;
+
+		private long numBytes;
+
+		DiscardingResultPartitionWriter(int numChannels, BufferProvider bufferProvider) {
+			this.bufferProvider = checkNotNull(bufferProvider);
+			this.bufferConsumers = new BufferConsumer[numChannels];
+		}
+
+		@Override
+		public int getNumberOfSubpartitions() {
+			return bufferConsumers.length;
+		}
+
+		@Override
+		public BufferBuilder getBufferBuilder(int targetChannel) throws IOException, InterruptedException {
+			return bufferProvider.requestBufferBuilderBlocking(targetChannel);
+		}
+
+		@Override
+		public BufferBuilder tryGetBufferBuilder(int targetChannel) throws IOException {
+			return bufferProvider.requestBufferBuilder(targetChannel);
+		}
+
+		@Override
+		public boolean addBufferConsumer(BufferConsumer bufferConsumer, int targetChannel, boolean isPriorityEvent) {
+			discard(targetChannel);
+			bufferConsumers[targetChannel] = bufferConsumer;
+			return true;
+		}
+
+		@Override
+		public void flushAll() {
+			for (int channel = 0; channel < bufferConsumers.length; channel++) {
+				flush(channel);
+			}
+		}
+
+		@Override
+		public void flush(int subpartitionIndex) {
+			discard(subpartitionIndex);
+		}
+
+		@Override
+		public void close() {
+			for (int channel = 0; channel < bufferConsumers.length; channel++) {
+				discard(channel);
+				if (bufferConsumers[channel] != null) {
+					bufferConsumers[channel].close();
+					bufferConsumers[channel] = null;
+				}
+			}
+		}
+
+		/**
+		 * Counts the data written to the buffer of the channel since it has been discarded last, and
+		 * closes the buffer if it is finished.
+		 */
+		private void discard(int channel) {
+			final BufferConsumer bufferConsumer = bufferConsumers[channel];
+			if (bufferConsumer == null) {
+				return;
+			}
+
+			final Buffer buffer = bufferConsumer.build();
+			numBytes += buffer.readableBytes();
+			buffer.recycleBuffer();
+			if (bufferConsumer.isFinished()) {
+				bufferConsumer.close();
+				bufferConsumers[channel] = null;
+			}
+		}
+
+		long getNumBytes() {
+			return numBytes;
+		}
+	}
+}
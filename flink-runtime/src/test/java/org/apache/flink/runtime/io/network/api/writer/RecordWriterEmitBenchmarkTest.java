@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.api.writer;
+
+import org.apache.flink.runtime.io.network.api.writer.RecordWriterEmitBenchmark.EmitMode;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link RecordWriterEmitBenchmark}.
+ */
+@RunWith(Parameterized.class)
+public class RecordWriterEmitBenchmarkTest extends TestLogger {
+
+	private static final int NUM_CHANNELS = 4;
+
+	private static final int BUFFER_SIZE = 1024;
+
+	/** Not a multiple of the batch size, and the large records span buffers. */
+	private static final int NUM_RECORDS = 1_050;
+
+	private final EmitMode mode;
+
+	private final int recordSize;
+
+	@Parameterized.Parameters(name = "mode = {0}, recordSize = {1}")
+	public static Collection<Object[]> parameters() {
+		final List<Object[]> parameters = new ArrayList<>();
+		for (EmitMode mode : EmitMode.values()) {
+			for (int recordSize : new int[] {16, 100, 1024}) {
+				parameters.add(new Object[] {mode, recordSize});
+			}
+		}
+		return parameters;
+	}
+
+	public RecordWriterEmitBenchmarkTest(EmitMode mode, int recordSize) {
+		this.mode = mode;
+		this.recordSize = recordSize;
+	}
+
+	@Test
+	public void testBenchmark() throws Exception {
+		RecordWriterEmitBenchmark benchmark = new RecordWriterEmitBenchmark();
+		benchmark.setUp(NUM_CHANNELS, recordSize, BUFFER_SIZE);
+		try {
+			// each record is prefixed by its length
+			final long expectedBytes = (long) NUM_RECORDS * (recordSize + 4);
+			assertEquals(expectedBytes, benchmark.emitRecords(mode, NUM_RECORDS));
+			assertEquals(expectedBytes, benchmark.emitRecords(mode, NUM_RECORDS));
+		}
+		finally {
+			benchmark.tearDown();
+		}
+	}
+}
@@ -42,6 +42,7 @@ import org.apache.flink.runtime.io.network.buffer.BufferPool;
 import org.apache.flink.runtime.io.network.buffer.BufferProvider;
 import org.apache.flink.runtime.io.network.buffer.BufferRecycler;
 import org.apache.flink.runtime.io.network.buffer.NetworkBufferPool;
+import org.apache.flink.runtime.io.network.partition.BufferWritingResultPartition;
 import org.apache.flink.runtime.io.network.partition.MockResultPartitionWriter;
 import org.apache.flink.runtime.io.network.partition.NoOpBufferAvailablityListener;
 import org.apache.flink.runtime.io.network.partition.NoOpResultPartitionConsumableNotifier;
@@ -407,6 +408,35 @@ public class RecordWriterTest {
 		}
 	}
 
+	/**
+	 * Tests that a batch of records emitted via {@link RecordWriter#emitAll(Iterable)} can be deserialized, including
+	 * the records spanning multiple buffers.
+	 */
+	@Test
+	public void testEmitAllRecords() throws Exception {
+		final int bufferSize = 32;
+		final int numValues = 100;
+
+		@SuppressWarnings("unchecked")
+		final Queue<BufferConsumer>[] queues = new Queue[] {new ArrayDeque<>()};
+
+		final TestPooledBufferProvider bufferProvider = new TestPooledBufferProvider(Integer.MAX_VALUE, bufferSize);
+		final ResultPartitionWriter partitionWriter = new CollectingPartitionWriter(queues, bufferProvider);
+		final RecordWriter<SerializationTestType> writer = createRecordWriter(partitionWriter);
+		final RecordDeserializer<SerializationTestType> deserializer = new SpillingAdaptiveSpanningRecordDeserializer<>(
+			new String[]{ tempFolder.getRoot().getAbsolutePath() });
+
+		final ArrayDeque<SerializationTestType> serializedRecords = new ArrayDeque<>();
+		final List<SerializationTestType> records = new ArrayList<>();
+		for (SerializationTestType record : Util.randomRecords(numValues)) {
+			serializedRecords.add(record);
+			records.add(record);
+		}
+		writer.emitAll(records);
+
+		verifyDeserializationResults(queues[0], deserializer, serializedRecords, queues[0].size(), numValues);
+	}
+
 	/**
 	 * Tests that the RecordWriter is available iif the respective LocalBufferPool has at-least one available buffer.
 	 */
@@ -415,7 +445,7 @@ public class RecordWriterTest {
 		// setup
 		final NetworkBufferPool globalPool = new NetworkBufferPool(10, 128);
 		final BufferPool localPool = globalPool.createBufferPool(1, 1, null, 1, Integer.MAX_VALUE);
-		final ResultPartitionWriter resultPartition = new ResultPartitionBuilder()
+		final BufferWritingResultPartition resultPartition = (BufferWritingResultPartition) new ResultPartitionBuilder()
 			.setBufferPoolFactory(p -> localPool)
 			.build();
 		resultPartition.setup();
@@ -509,7 +539,7 @@ public class RecordWriterTest {
 		// setup
 		final NetworkBufferPool globalPool = new NetworkBufferPool(10, 128);
 		final BufferPool localPool = globalPool.createBufferPool(1, 1, null, 1, Integer.MAX_VALUE);
-		final ResultPartitionWriter resultPartition = new ResultPartitionBuilder()
+		final BufferWritingResultPartition resultPartition = (BufferWritingResultPartition) new ResultPartitionBuilder()
 			.setBufferPoolFactory(p -> localPool)
 			.build();
 		resultPartition.setup();
@@ -518,7 +548,7 @@ public class RecordWriterTest {
 			new JobID(),
 			resultPartition,
 			new NoOpResultPartitionConsumableNotifier());
-		final RecordWriter recordWriter = createRecordWriter(partitionWrapper);
+		final BufferWritingRecordWriter recordWriter = (BufferWritingRecordWriter) createRecordWriter(partitionWrapper);
 		BufferBuilder builder = recordWriter.requestNewBufferBuilder(0);
 		BufferBuilderTestUtils.fillBufferBuilder(builder, 1).finish();
 		ResultSubpartitionView readView = resultPartition.getSubpartition(0).createReadView(new NoOpBufferAvailablityListener());
@@ -217,6 +217,24 @@ public class BufferBuilderAndConsumerTest {
 		assertEquals(0, bufferBuilder.getWritableBytes());
 	}
 
+	@Test
+	public void testTrim() {
+		BufferBuilder bufferBuilder = createBufferBuilder();
+		BufferConsumer bufferConsumer = bufferBuilder.createBufferConsumer();
+
+		bufferBuilder.trim(2 * Integer.BYTES);
+		assertEquals(2 * Integer.BYTES, bufferBuilder.getMaxCapacity());
+		assertEquals(2 * Integer.BYTES, bufferBuilder.appendAndCommit(toByteBuffer(0, 1, 2)));
+		assertTrue(bufferBuilder.isFull());
+		assertContent(bufferConsumer, 0, 1);
+
+		// can neither trim below the written bytes nor grow beyond the memory segment
+		bufferBuilder.trim(0);
+		assertEquals(2 * Integer.BYTES, bufferBuilder.getMaxCapacity());
+		bufferBuilder.trim(Integer.MAX_VALUE);
+		assertEquals(BUFFER_SIZE, bufferBuilder.getMaxCapacity());
+	}
+
 	private static void testIsFinished(int writes) {
 		BufferBuilder bufferBuilder = createBufferBuilder();
 		BufferConsumer bufferConsumer = bufferBuilder.createBufferConsumer();
@@ -31,8 +31,9 @@ import org.junit.runners.Parameterized.Parameters;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertFalse;
@@ -60,14 +61,15 @@ public class BufferCompressionTest {
 
 	@Parameters(name = "isDirect = {0}, codec = {1}, compressToOriginal = {2}, decompressToOriginal = {3}")
 	public static Collection<Object[]> parameters() {
-		return Arrays.asList(new Object[][] {
-			{true, "LZ4", true, false},
-			{true, "LZ4", false, true},
-			{true, "LZ4", false, false},
-			{false, "LZ4", true, false},
-			{false, "LZ4", false, true},
-			{false, "LZ4", false, false},
-		});
+		final List<Object[]> parameters = new ArrayList<>();
+		for (String codec : new String[] {"LZ4", "LZ4_HC", "SNAPPY", "ZSTD"}) {
+			for (boolean isDirect : new boolean[] {true, false}) {
+				parameters.add(new Object[] {isDirect, codec, true, false});
+				parameters.add(new Object[] {isDirect, codec, false, true});
+				parameters.add(new Object[] {isDirect, codec, false, false});
+			}
+		}
+		return parameters;
 	}
 
 	public BufferCompressionTest(
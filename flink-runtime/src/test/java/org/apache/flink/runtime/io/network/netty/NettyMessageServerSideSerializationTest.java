@@ -31,6 +31,7 @@ import java.util.Random;
 
 import static org.apache.flink.runtime.io.network.netty.NettyTestUtil.encodeAndDecode;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * Tests for the serialization and deserialization of the various {@link NettyMessage} sub-classes
@@ -70,6 +71,24 @@ public class NettyMessageServerSideSerializationTest extends TestLogger {
 		assertEquals(expected.queueIndex, actual.queueIndex);
 		assertEquals(expected.receiverId, actual.receiverId);
 		assertEquals(expected.credit, actual.credit);
+		assertNull(actual.decompressionCodec);
+	}
+
+	@Test
+	public void testPartitionRequestWithDecompressionCodec() {
+		NettyMessage.PartitionRequest expected = new NettyMessage.PartitionRequest(
+			new ResultPartitionID(),
+			random.nextInt(),
+			new InputChannelID(),
+			random.nextInt(),
+			"LZ4");
+
+		NettyMessage.PartitionRequest actual = encodeAndDecode(expected, channel);
+
+		assertEquals(expected.partitionId, actual.partitionId);
+		assertEquals(expected.receiverId, actual.receiverId);
+		assertEquals(expected.credit, actual.credit);
+		assertEquals("LZ4", actual.decompressionCodec);
 	}
 
 	@Test
@@ -120,4 +139,15 @@ public class NettyMessageServerSideSerializationTest extends TestLogger {
 
 		assertEquals(expected.receiverId, actual.receiverId);
 	}
+
+	@Test
+	public void testNewBufferSize() {
+		NettyMessage.NewBufferSize expected = new NettyMessage.NewBufferSize(
+			random.nextInt(Integer.MAX_VALUE) + 1,
+			new InputChannelID());
+		NettyMessage.NewBufferSize actual = encodeAndDecode(expected, channel);
+
+		assertEquals(expected.bufferSize, actual.bufferSize);
+		assertEquals(expected.receiverId, actual.receiverId);
+	}
 }
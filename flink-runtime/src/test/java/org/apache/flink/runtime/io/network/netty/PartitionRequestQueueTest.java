@@ -201,6 +201,55 @@ public class PartitionRequestQueueTest {
 		assertNull(read);
 	}
 
+	/**
+	 * Tests that the buffers which are available at the same time are written with as few flushes
+	 * as the configured maximum number of bytes per flush allows.
+	 */
+	@Test
+	public void testCoalesceAvailableBuffersIntoOneFlush() throws Exception {
+		testFlushes(1024, 5, 1);
+	}
+
+	@Test
+	public void testFlushWhenMaxBytesPerFlushReached() throws Exception {
+		// every buffer holds 10 bytes, so two buffers fill one flush
+		testFlushes(20, 5, 3);
+	}
+
+	@Test
+	public void testFlushEveryBufferWithoutCoalescing() throws Exception {
+		testFlushes(0, 5, 5);
+	}
+
+	private void testFlushes(int maxBytesPerFlush, int numBuffers, int expectedFlushes) throws Exception {
+		final ResultSubpartitionView view = new DefaultBufferResultSubpartitionView(numBuffers);
+		final ResultPartitionProvider partitionProvider =
+			(partitionId, index, availabilityListener) -> view;
+
+		final NettyServerFlushMetrics flushMetrics = new NettyServerFlushMetrics();
+		final PartitionRequestQueue queue = new PartitionRequestQueue(maxBytesPerFlush, flushMetrics);
+		final CreditBasedSequenceNumberingViewReader reader = new CreditBasedSequenceNumberingViewReader(
+			new InputChannelID(),
+			Integer.MAX_VALUE,
+			queue);
+		final EmbeddedChannel channel = new EmbeddedChannel(queue);
+
+		reader.requestSubpartitionView(partitionProvider, new ResultPartitionID(), 0);
+		reader.notifyDataAvailable();
+		channel.runPendingTasks();
+
+		for (int i = 0; i < numBuffers; i++) {
+			Object read = channel.readOutbound();
+			assertThat(read, instanceOf(NettyMessage.BufferResponse.class));
+			((NettyMessage.BufferResponse) read).releaseBuffer();
+		}
+		assertNull(channel.readOutbound());
+
+		assertEquals(expectedFlushes, flushMetrics.getNumFlushes());
+		assertEquals(10L * numBuffers, flushMetrics.getNumBytesFlushed());
+		assertEquals(10.0 * numBuffers / expectedFlushes, flushMetrics.getAverageBytesPerFlush(), 0.0);
+	}
+
 	private static class DefaultBufferResultSubpartitionView extends NoOpResultSubpartitionView {
 		/** Number of buffer in the backlog to report with every {@link #getNextBuffer()} call. */
 		private final AtomicInteger buffersInBacklog;
@@ -34,11 +34,26 @@ class AwaitableBufferAvailablityListener implements BufferAvailabilityListener {
 
 	private final AtomicBoolean consumePriorityEvents = new AtomicBoolean();
 
+	private final int notificationBatchSize;
+
+	AwaitableBufferAvailablityListener() {
+		this(1);
+	}
+
+	AwaitableBufferAvailablityListener(int notificationBatchSize) {
+		this.notificationBatchSize = notificationBatchSize;
+	}
+
 	@Override
 	public void notifyDataAvailable() {
 		numNotifications.getAndIncrement();
 	}
 
+	@Override
+	public int getNotificationBatchSize() {
+		return notificationBatchSize;
+	}
+
 	public long getNumNotifications() {
 		return numNotifications.get();
 	}
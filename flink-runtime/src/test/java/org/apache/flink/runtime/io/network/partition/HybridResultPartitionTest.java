@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import org.apache.flink.core.testutils.CheckedThread;
+import org.apache.flink.runtime.event.AbstractEvent;
+import org.apache.flink.runtime.io.disk.FileChannelManager;
+import org.apache.flink.runtime.io.disk.FileChannelManagerImpl;
+import org.apache.flink.runtime.io.network.api.CancelCheckpointMarker;
+import org.apache.flink.runtime.io.network.api.serialization.EventSerializer;
+import org.apache.flink.runtime.io.network.buffer.BufferBuilder;
+import org.apache.flink.runtime.io.network.buffer.BufferBuilderTestUtils;
+import org.apache.flink.runtime.io.network.buffer.NetworkBufferPool;
+import org.apache.flink.runtime.io.network.partition.ResultSubpartition.BufferAndBacklog;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link ResultPartitionType#HYBRID} partitions, whose subpartitions spill their
+ * buffers instead of producing back pressure.
+ */
+public class HybridResultPartitionTest extends TestLogger {
+
+	private static final int BUFFER_SIZE = 128;
+
+	private static final int NUM_BUFFERS = 20;
+
+	private static final int NUM_SUBPARTITIONS = 2;
+
+	@Rule
+	public final TemporaryFolder tmpFolder = new TemporaryFolder();
+
+	private FileChannelManager fileChannelManager;
+
+	private NetworkBufferPool globalPool;
+
+	@Before
+	public void setUp() {
+		fileChannelManager = new FileChannelManagerImpl(new String[] {tmpFolder.getRoot().getPath()}, "testing");
+		globalPool = new NetworkBufferPool(NUM_BUFFERS, BUFFER_SIZE);
+	}
+
+	@After
+	public void shutdown() throws Exception {
+		fileChannelManager.close();
+		assertEquals(NUM_BUFFERS, globalPool.getNumberOfAvailableMemorySegments());
+		globalPool.destroy();
+	}
+
+	@Test
+	public void testSpillInsteadOfBackPressure() throws Exception {
+		final int numRecords = 50;
+		final BufferWritingResultPartition partition = createPartition();
+		final PipelinedSubpartition subpartition = (PipelinedSubpartition) partition.subpartitions[0];
+
+		// the pool has far less buffers than written, none of which are consumed
+		for (int record = 0; record < numRecords; record++) {
+			writeBuffer(partition, 0, record);
+		}
+		assertTrue(subpartition.getNumberOfSpilledBuffers() > 0);
+		assertTrue(countFiles() > 0);
+
+		final ResultSubpartitionView view = partition.createSubpartitionView(0, () -> {});
+		for (int record = 0; record < numRecords; record++) {
+			readAndVerify(view, record);
+		}
+		assertNull(view.getNextBuffer());
+		assertEquals(0, subpartition.getNumberOfSpilledBuffers());
+
+		view.releaseAllResources();
+		partition.release();
+		partition.close();
+		assertEquals(0, countFiles());
+	}
+
+	@Test
+	public void testReadSpilledAndInMemoryBuffersInOrder() throws Exception {
+		final BufferWritingResultPartition partition = createPartition();
+		final ResultSubpartitionView slowView = partition.createSubpartitionView(0, () -> {});
+		final ResultSubpartitionView fastView = partition.createSubpartitionView(1, () -> {});
+
+		int numWritten = 0;
+		int numRead = 0;
+		for (int round = 0; round < 10; round++) {
+			// the fast consumer keeps up, the slow one only reads every now and then
+			for (int i = 0; i < 15; i++) {
+				writeBuffer(partition, 0, numWritten);
+				writeBuffer(partition, 1, numWritten++);
+				readAndVerify(fastView, numWritten - 1);
+			}
+			for (int i = 0; i < 10; i++) {
+				readAndVerify(slowView, numRead++);
+			}
+		}
+		while (numRead < numWritten) {
+			readAndVerify(slowView, numRead++);
+		}
+		assertNull(slowView.getNextBuffer());
+		assertNull(fastView.getNextBuffer());
+
+		slowView.releaseAllResources();
+		fastView.releaseAllResources();
+		partition.release();
+		partition.close();
+	}
+
+	/**
+	 * Tests that the buffers are read in order while the subpartition spills concurrently, which
+	 * happens outside of the subpartition lock.
+	 */
+	@Test
+	public void testConcurrentSpillingAndReading() throws Exception {
+		final int numRecords = 2_000;
+		final BufferWritingResultPartition partition = createPartition();
+		final ResultSubpartitionView view = partition.createSubpartitionView(0, () -> {});
+
+		final CheckedThread reader = new CheckedThread() {
+			@Override
+			public void go() throws Exception {
+				int record = 0;
+				while (record < numRecords) {
+					final BufferAndBacklog next = view.getNextBuffer();
+					if (next == null) {
+						Thread.yield();
+						continue;
+					}
+					assertEquals(record++, next.buffer().getNioBufferReadable().getInt());
+					next.buffer().recycleBuffer();
+				}
+			}
+		};
+		reader.start();
+
+		for (int record = 0; record < numRecords; record++) {
+			writeBuffer(partition, 0, record);
+		}
+		reader.sync();
+
+		view.releaseAllResources();
+		partition.release();
+		partition.close();
+	}
+
+	/**
+	 * Tests that events between the buffers do not stop the spilling, and that they are read in
+	 * order with the spilled buffers.
+	 */
+	@Test
+	public void testSpillPastEvents() throws Exception {
+		final int numRecords = 50;
+		final BufferWritingResultPartition partition = createPartition();
+		final PipelinedSubpartition subpartition = (PipelinedSubpartition) partition.subpartitions[0];
+
+		for (int record = 0; record < numRecords; record++) {
+			writeBuffer(partition, 0, record);
+			partition.addBufferConsumer(EventSerializer.toBufferConsumer(new CancelCheckpointMarker(record)), 0);
+		}
+		assertTrue(subpartition.getNumberOfSpilledBuffers() > numRecords / 2);
+
+		final ResultSubpartitionView view = partition.createSubpartitionView(0, () -> {});
+		for (int record = 0; record < numRecords; record++) {
+			readAndVerify(view, record);
+
+			final BufferAndBacklog next = view.getNextBuffer();
+			assertNotNull(next);
+			assertFalse(next.buffer().isBuffer());
+			final AbstractEvent event = EventSerializer.fromBuffer(next.buffer(), getClass().getClassLoader());
+			assertEquals(record, ((CancelCheckpointMarker) event).getCheckpointId());
+			next.buffer().recycleBuffer();
+		}
+		assertNull(view.getNextBuffer());
+
+		view.releaseAllResources();
+		partition.release();
+		partition.close();
+	}
+
+	/**
+	 * Tests that a single request to release memory spills a bounded number of buffers.
+	 */
+	@Test
+	public void testSpillingIsBounded() throws Exception {
+		final int numBuffers = PipelinedSubpartition.MAX_BUFFERS_PER_SPILL + 4;
+		final BufferWritingResultPartition partition = createPartition();
+		final PipelinedSubpartition subpartition = (PipelinedSubpartition) partition.subpartitions[0];
+
+		for (int i = 0; i < numBuffers; i++) {
+			subpartition.add(BufferBuilderTestUtils.createFilledFinishedBufferConsumer(BUFFER_SIZE));
+		}
+		// the buffer which is still being written is never spilled
+		subpartition.add(BufferBuilderTestUtils.createFilledUnfinishedBufferConsumer(BUFFER_SIZE));
+
+		assertEquals(PipelinedSubpartition.MAX_BUFFERS_PER_SPILL, subpartition.releaseMemory());
+		assertEquals(PipelinedSubpartition.MAX_BUFFERS_PER_SPILL, subpartition.getNumberOfSpilledBuffers());
+		assertEquals(5, subpartition.getCurrentNumberOfBuffers());
+
+		assertEquals(4, subpartition.releaseMemory());
+		assertEquals(numBuffers, subpartition.getNumberOfSpilledBuffers());
+		assertEquals(1, subpartition.getCurrentNumberOfBuffers());
+
+		partition.release();
+		partition.close();
+	}
+
+	// ------------------------------------------------------------------------
+
+	private BufferWritingResultPartition createPartition() throws IOException {
+		final BufferWritingResultPartition partition = (BufferWritingResultPartition) new ResultPartitionBuilder()
+			.setResultPartitionType(ResultPartitionType.HYBRID)
+			.setNumberOfSubpartitions(NUM_SUBPARTITIONS)
+			.setFileChannelManager(fileChannelManager)
+			.setNetworkBufferPool(globalPool)
+			.setNetworkBufferSize(BUFFER_SIZE)
+			.setNetworkBuffersPerChannel(2)
+			.setFloatingNetworkBuffersPerGate(2)
+			.build();
+		partition.setup();
+		return partition;
+	}
+
+	private long countFiles() throws IOException {
+		try (Stream<Path> files = Files.walk(tmpFolder.getRoot().toPath())) {
+			return files.filter(Files::isRegularFile).count();
+		}
+	}
+
+	private static void writeBuffer(BufferWritingResultPartition partition, int subpartition, int record) throws Exception {
+		// never blocks, the subpartitions release memory on demand
+		final BufferBuilder bufferBuilder = partition.tryGetBufferBuilder(subpartition);
+		assertNotNull(bufferBuilder);
+		partition.addBufferConsumer(bufferBuilder.createBufferConsumer(), subpartition);
+
+		final ByteBuffer data = ByteBuffer.allocate(BUFFER_SIZE);
+		data.putInt(record);
+		data.position(BUFFER_SIZE);
+		data.flip();
+		bufferBuilder.appendAndCommit(data);
+		bufferBuilder.finish();
+	}
+
+	private static void readAndVerify(ResultSubpartitionView view, int record) throws Exception {
+		final BufferAndBacklog next = view.getNextBuffer();
+		assertNotNull(next);
+		assertTrue(next.buffer().isBuffer());
+		assertEquals(BUFFER_SIZE, next.buffer().readableBytes());
+		assertEquals(record, next.buffer().getNioBufferReadable().getInt());
+		next.buffer().recycleBuffer();
+	}
+}
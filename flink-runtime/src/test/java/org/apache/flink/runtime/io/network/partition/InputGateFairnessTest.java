@@ -345,7 +345,10 @@ public class InputGateFairnessTest {
 				SingleInputGateBuilder.NO_OP_PRODUCER_CHECKER,
 				STUB_BUFFER_POOL_FACTORY,
 				null,
-				new UnpooledMemorySegmentProvider(32 * 1024));
+				new UnpooledMemorySegmentProvider(32 * 1024),
+				null,
+				1,
+				0);
 
 			try {
 				Field f = SingleInputGate.class.getDeclaredField("inputChannelsWithData");
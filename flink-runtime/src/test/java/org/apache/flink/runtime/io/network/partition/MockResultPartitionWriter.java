@@ -19,7 +19,7 @@
 package org.apache.flink.runtime.io.network.partition;
 
 import org.apache.flink.runtime.checkpoint.channel.ChannelStateReader;
-import org.apache.flink.runtime.io.network.api.writer.ResultPartitionWriter;
+import org.apache.flink.runtime.io.network.api.writer.BufferWritingResultPartitionWriter;
 import org.apache.flink.runtime.io.network.buffer.BufferBuilder;
 import org.apache.flink.runtime.io.network.buffer.BufferConsumer;
 
@@ -29,9 +29,9 @@ import java.io.IOException;
 import java.util.concurrent.CompletableFuture;
 
 /**
- * Dummy behaviours of {@link ResultPartitionWriter} for test purpose.
+ * Dummy behaviours of {@link BufferWritingResultPartitionWriter} for test purpose.
  */
-public class MockResultPartitionWriter implements ResultPartitionWriter {
+public class MockResultPartitionWriter implements BufferWritingResultPartitionWriter {
 
 	private final ResultPartitionID partitionId = new ResultPartitionID();
 
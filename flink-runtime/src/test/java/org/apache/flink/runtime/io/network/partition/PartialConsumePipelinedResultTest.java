@@ -22,7 +22,7 @@ import org.apache.flink.configuration.AkkaOptions;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.configuration.NettyShuffleEnvironmentOptions;
 import org.apache.flink.runtime.execution.Environment;
-import org.apache.flink.runtime.io.network.api.writer.ResultPartitionWriter;
+import org.apache.flink.runtime.io.network.api.writer.BufferWritingResultPartitionWriter;
 import org.apache.flink.runtime.io.network.buffer.Buffer;
 import org.apache.flink.runtime.io.network.buffer.BufferBuilder;
 import org.apache.flink.runtime.io.network.partition.consumer.InputGate;
@@ -115,7 +115,7 @@ public class PartialConsumePipelinedResultTest extends TestLogger {
 
 		@Override
 		public void invoke() throws Exception {
-			final ResultPartitionWriter writer = getEnvironment().getWriter(0);
+			final BufferWritingResultPartitionWriter writer = (BufferWritingResultPartitionWriter) getEnvironment().getWriter(0);
 
 			for (int i = 0; i < 8; i++) {
 				final BufferBuilder bufferBuilder = writer.getBufferBuilder(0);
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.core.memory.MemorySegmentFactory;
+import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.runtime.io.network.buffer.BufferPool;
+import org.apache.flink.runtime.io.network.buffer.FreeingBufferRecycler;
+import org.apache.flink.runtime.io.network.buffer.NetworkBufferPool;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link PartitionSortedBuffer}.
+ */
+public class PartitionSortedBufferTest extends TestLogger {
+
+	private static final int BUFFER_SIZE = 128;
+
+	private static final int NUM_BUFFERS = 16;
+
+	private static final int NUM_SUBPARTITIONS = 5;
+
+	private NetworkBufferPool globalPool;
+
+	private BufferPool bufferPool;
+
+	@Before
+	public void setUp() throws Exception {
+		globalPool = new NetworkBufferPool(NUM_BUFFERS, BUFFER_SIZE);
+		bufferPool = globalPool.createBufferPool(NUM_BUFFERS, NUM_BUFFERS);
+	}
+
+	@After
+	public void shutdown() throws Exception {
+		bufferPool.lazyDestroy();
+		assertEquals(NUM_BUFFERS, globalPool.getNumberOfAvailableMemorySegments());
+		globalPool.destroy();
+	}
+
+	@Test
+	public void testWriteAndReadSortedBySubpartition() throws Exception {
+		final PartitionSortedBuffer sortBuffer = new PartitionSortedBuffer(bufferPool, NUM_SUBPARTITIONS, BUFFER_SIZE, NUM_BUFFERS);
+
+		final Random random = new Random();
+		final List<List<byte[]>> expected = new ArrayList<>();
+		for (int i = 0; i < NUM_SUBPARTITIONS; i++) {
+			expected.add(new ArrayList<>());
+		}
+
+		// records of all sizes, also spanning multiple buffers, until the sort buffer is full
+		while (true) {
+			final int subpartition = random.nextInt(NUM_SUBPARTITIONS);
+			final byte[] record = new byte[1 + random.nextInt(2 * BUFFER_SIZE)];
+			random.nextBytes(record);
+			if (!sortBuffer.append(ByteBuffer.wrap(record), subpartition, Buffer.DataType.DATA_BUFFER)) {
+				break;
+			}
+			expected.get(subpartition).add(record);
+		}
+		assertEquals(NUM_BUFFERS, sortBuffer.numBuffers());
+		assertTrue(sortBuffer.numRecords() > 0);
+
+		sortBuffer.finish();
+		final List<ByteArrayOutputStream> actual = readAll(sortBuffer);
+
+		for (int subpartition = 0; subpartition < NUM_SUBPARTITIONS; subpartition++) {
+			final ByteArrayOutputStream expectedData = new ByteArrayOutputStream();
+			for (byte[] record : expected.get(subpartition)) {
+				expectedData.write(record);
+			}
+			assertArrayEquals(expectedData.toByteArray(), actual.get(subpartition).toByteArray());
+		}
+
+		sortBuffer.release();
+	}
+
+	@Test
+	public void testEventsAreCopiedIntoBuffersOfTheirOwn() throws Exception {
+		final PartitionSortedBuffer sortBuffer = new PartitionSortedBuffer(bufferPool, NUM_SUBPARTITIONS, BUFFER_SIZE, NUM_BUFFERS);
+
+		assertTrue(sortBuffer.append(ByteBuffer.wrap(new byte[10]), 2, Buffer.DataType.DATA_BUFFER));
+		assertTrue(sortBuffer.append(ByteBuffer.wrap(new byte[20]), 2, Buffer.DataType.EVENT_BUFFER));
+		assertTrue(sortBuffer.append(ByteBuffer.wrap(new byte[30]), 2, Buffer.DataType.DATA_BUFFER));
+		assertTrue(sortBuffer.append(ByteBuffer.wrap(new byte[40]), 2, Buffer.DataType.DATA_BUFFER));
+		sortBuffer.finish();
+
+		final MemorySegment target = MemorySegmentFactory.allocateUnpooledSegment(BUFFER_SIZE);
+		assertEquals(2, sortBuffer.getReadSubpartition());
+		verifyBuffer(sortBuffer.copyIntoSegment(target, FreeingBufferRecycler.INSTANCE), true, 10);
+		verifyBuffer(sortBuffer.copyIntoSegment(target, FreeingBufferRecycler.INSTANCE), false, 20);
+		verifyBuffer(sortBuffer.copyIntoSegment(target, FreeingBufferRecycler.INSTANCE), true, 70);
+		assertFalse(sortBuffer.hasRemaining());
+
+		sortBuffer.release();
+	}
+
+	@Test
+	public void testBroadcastRecordsAreStoredOnceAndReadByAllSubpartitions() throws Exception {
+		final PartitionSortedBuffer sortBuffer = new PartitionSortedBuffer(bufferPool, NUM_SUBPARTITIONS, BUFFER_SIZE, NUM_BUFFERS);
+
+		assertTrue(sortBuffer.append(ByteBuffer.wrap(new byte[] {1}), 1, Buffer.DataType.DATA_BUFFER));
+		assertTrue(sortBuffer.appendBroadcast(ByteBuffer.wrap(new byte[] {2}), Buffer.DataType.DATA_BUFFER));
+		assertTrue(sortBuffer.append(ByteBuffer.wrap(new byte[] {3}), 1, Buffer.DataType.DATA_BUFFER));
+		assertTrue(sortBuffer.appendBroadcast(ByteBuffer.wrap(new byte[] {4}), Buffer.DataType.DATA_BUFFER));
+		assertEquals(4, sortBuffer.numRecords());
+		assertEquals(4, sortBuffer.numBytes());
+		sortBuffer.finish();
+
+		final List<ByteArrayOutputStream> actual = readAll(sortBuffer);
+		for (int subpartition = 0; subpartition < NUM_SUBPARTITIONS; subpartition++) {
+			final byte[] expected = subpartition == 1 ? new byte[] {1, 2, 3, 4} : new byte[] {2, 4};
+			assertArrayEquals(expected, actual.get(subpartition).toByteArray());
+		}
+
+		sortBuffer.release();
+	}
+
+	@Test
+	public void testAppendFailsWhenFull() throws Exception {
+		final PartitionSortedBuffer sortBuffer = new PartitionSortedBuffer(bufferPool, NUM_SUBPARTITIONS, BUFFER_SIZE, 2);
+
+		final ByteBuffer tooLarge = ByteBuffer.wrap(new byte[2 * BUFFER_SIZE]);
+		assertFalse(sortBuffer.append(tooLarge, 0, Buffer.DataType.DATA_BUFFER));
+		assertEquals(0, tooLarge.position());
+		assertEquals(0, sortBuffer.numRecords());
+
+		final ByteBuffer record = ByteBuffer.wrap(new byte[BUFFER_SIZE]);
+		assertTrue(sortBuffer.append(record, 0, Buffer.DataType.DATA_BUFFER));
+		assertFalse(sortBuffer.append(ByteBuffer.wrap(new byte[BUFFER_SIZE]), 1, Buffer.DataType.DATA_BUFFER));
+		assertEquals(1, sortBuffer.numRecords());
+		assertEquals(2, sortBuffer.numBuffers());
+
+		sortBuffer.release();
+	}
+
+	@Test
+	public void testResetKeepsBuffers() throws Exception {
+		final PartitionSortedBuffer sortBuffer = new PartitionSortedBuffer(bufferPool, NUM_SUBPARTITIONS, BUFFER_SIZE, 2);
+
+		assertTrue(sortBuffer.append(ByteBuffer.wrap(new byte[BUFFER_SIZE]), 3, Buffer.DataType.DATA_BUFFER));
+		sortBuffer.finish();
+		readAll(sortBuffer);
+		sortBuffer.reset();
+
+		assertEquals(0, sortBuffer.numRecords());
+		assertFalse(sortBuffer.hasRemaining());
+		assertEquals(2, sortBuffer.numBuffers());
+
+		assertTrue(sortBuffer.append(ByteBuffer.wrap(new byte[BUFFER_SIZE]), 4, Buffer.DataType.DATA_BUFFER));
+		sortBuffer.finish();
+		assertEquals(4, sortBuffer.getReadSubpartition());
+		readAll(sortBuffer);
+
+		sortBuffer.release();
+		assertEquals(0, sortBuffer.numBuffers());
+	}
+
+	// ------------------------------------------------------------------------
+
+	private static List<ByteArrayOutputStream> readAll(PartitionSortedBuffer sortBuffer) {
+		final List<ByteArrayOutputStream> data = new ArrayList<>();
+		for (int i = 0; i < NUM_SUBPARTITIONS; i++) {
+			data.add(new ByteArrayOutputStream());
+		}
+
+		final MemorySegment target = MemorySegmentFactory.allocateUnpooledSegment(BUFFER_SIZE);
+		int lastSubpartition = -1;
+		while (sortBuffer.hasRemaining()) {
+			final int subpartition = sortBuffer.getReadSubpartition();
+			assertTrue(subpartition >= lastSubpartition);
+			lastSubpartition = subpartition;
+
+			final Buffer buffer = sortBuffer.copyIntoSegment(target, FreeingBufferRecycler.INSTANCE);
+			final byte[] bytes = new byte[buffer.readableBytes()];
+			buffer.getNioBufferReadable().get(bytes);
+			data.get(subpartition).write(bytes, 0, bytes.length);
+		}
+		return data;
+	}
+
+	private static void verifyBuffer(Buffer buffer, boolean isBuffer, int size) {
+		assertEquals(isBuffer, buffer.isBuffer());
+		assertEquals(size, buffer.readableBytes());
+	}
+}
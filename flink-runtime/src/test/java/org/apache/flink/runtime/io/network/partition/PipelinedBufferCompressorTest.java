@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.core.memory.MemorySegmentFactory;
+import org.apache.flink.runtime.io.disk.FileChannelManager;
+import org.apache.flink.runtime.io.disk.FileChannelManagerImpl;
+import org.apache.flink.runtime.io.network.api.EndOfPartitionEvent;
+import org.apache.flink.runtime.io.network.api.serialization.EventSerializer;
+import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.runtime.io.network.buffer.BufferDecompressor;
+import org.apache.flink.runtime.io.network.buffer.FreeingBufferRecycler;
+import org.apache.flink.runtime.io.network.buffer.NetworkBuffer;
+import org.apache.flink.runtime.io.network.partition.ResultSubpartition.BufferAndBacklog;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.apache.flink.runtime.io.network.buffer.BufferBuilderTestUtils.BUFFER_SIZE;
+import static org.apache.flink.runtime.io.network.buffer.BufferBuilderTestUtils.createFilledFinishedBufferConsumer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link PipelinedBufferCompressor} and the compression of pipelined subpartitions.
+ */
+public class PipelinedBufferCompressorTest extends TestLogger {
+
+	private static final String COMPRESSION_CODEC = "LZ4";
+
+	@Rule
+	public final TemporaryFolder tmpFolder = new TemporaryFolder();
+
+	@Test
+	public void testCompressBuffer() {
+		final PipelinedBufferCompressor compressor = new PipelinedBufferCompressor(BUFFER_SIZE, COMPRESSION_CODEC);
+		final Buffer buffer = createBuffer(BUFFER_SIZE, false);
+
+		final Buffer compressedBuffer = compressor.compress(buffer);
+		assertTrue(compressedBuffer.isCompressed());
+		assertTrue(compressedBuffer.readableBytes() < BUFFER_SIZE);
+		// the original buffer is recycled, the compressed data is a copy
+		assertTrue(buffer.isRecycled());
+		assertEquals(1, compressor.getNumIdleCompressors());
+
+		final BufferDecompressor decompressor = new BufferDecompressor(BUFFER_SIZE, COMPRESSION_CODEC);
+		final Buffer decompressedBuffer = decompressor.decompressToIntermediateBuffer(compressedBuffer);
+		assertEquals(BUFFER_SIZE, decompressedBuffer.readableBytes());
+		decompressedBuffer.recycleBuffer();
+		compressedBuffer.recycleBuffer();
+
+		assertTrue(compressor.getCompressionRatio() > 1.0);
+	}
+
+	@Test
+	public void testNotCompressSmallBuffer() {
+		final PipelinedBufferCompressor compressor = new PipelinedBufferCompressor(BUFFER_SIZE, COMPRESSION_CODEC);
+		final Buffer buffer = createBuffer(PipelinedBufferCompressor.MIN_COMPRESSION_SIZE - 1, false);
+
+		assertSame(buffer, compressor.compress(buffer));
+		assertFalse(buffer.isCompressed());
+		assertEquals(1.0, compressor.getCompressionRatio(), 0.0);
+		buffer.recycleBuffer();
+	}
+
+	@Test
+	public void testNotCompressIncompressibleBuffer() {
+		final PipelinedBufferCompressor compressor = new PipelinedBufferCompressor(BUFFER_SIZE, COMPRESSION_CODEC);
+		final Buffer buffer = createBuffer(BUFFER_SIZE, true);
+
+		assertSame(buffer, compressor.compress(buffer));
+		assertFalse(buffer.isCompressed());
+		assertFalse(buffer.isRecycled());
+		assertEquals(1.0, compressor.getCompressionRatio(), 0.0);
+		assertEquals(1, compressor.getNumIdleCompressors());
+		buffer.recycleBuffer();
+	}
+
+	@Test
+	public void testCompressSharedBufferOnce() {
+		final PipelinedBufferCompressor compressor = new PipelinedBufferCompressor(BUFFER_SIZE, COMPRESSION_CODEC);
+		// a broadcast buffer is shared by the subpartitions via read-only slices
+		final Buffer buffer = createBuffer(BUFFER_SIZE, false);
+		final Buffer first = buffer.readOnlySlice().retainBuffer();
+		final Buffer second = buffer.readOnlySlice().retainBuffer();
+		buffer.recycleBuffer();
+
+		final Buffer firstCompressed = compressor.compress(first);
+		final Buffer secondCompressed = compressor.compress(second);
+		assertTrue(firstCompressed.isCompressed());
+		assertTrue(secondCompressed.isCompressed());
+		assertSame(firstCompressed.getMemorySegment(), secondCompressed.getMemorySegment());
+		assertEquals(1, compressor.getNumCompressedBuffers());
+		assertTrue(buffer.isRecycled());
+
+		final BufferDecompressor decompressor = new BufferDecompressor(BUFFER_SIZE, COMPRESSION_CODEC);
+		for (Buffer compressedBuffer : new Buffer[] {firstCompressed, secondCompressed}) {
+			final Buffer decompressedBuffer = decompressor.decompressToIntermediateBuffer(compressedBuffer);
+			assertEquals(BUFFER_SIZE, decompressedBuffer.readableBytes());
+			decompressedBuffer.recycleBuffer();
+			compressedBuffer.recycleBuffer();
+		}
+		assertTrue(compressor.getCompressionRatio() > 1.0);
+	}
+
+	@Test
+	public void testNotCompressSharedIncompressibleBufferTwice() {
+		final PipelinedBufferCompressor compressor = new PipelinedBufferCompressor(BUFFER_SIZE, COMPRESSION_CODEC);
+		final Buffer buffer = createBuffer(BUFFER_SIZE, true);
+		final Buffer first = buffer.readOnlySlice().retainBuffer();
+		final Buffer second = buffer.readOnlySlice().retainBuffer();
+		buffer.recycleBuffer();
+
+		assertSame(first, compressor.compress(first));
+		assertSame(second, compressor.compress(second));
+		assertEquals(1, compressor.getNumCompressedBuffers());
+
+		first.recycleBuffer();
+		second.recycleBuffer();
+		assertTrue(buffer.isRecycled());
+	}
+
+	@Test
+	public void testNotCompressEvent() throws Exception {
+		final PipelinedBufferCompressor compressor = new PipelinedBufferCompressor(BUFFER_SIZE, COMPRESSION_CODEC);
+		final Buffer event = EventSerializer.toBuffer(EndOfPartitionEvent.INSTANCE);
+
+		assertSame(event, compressor.compress(event));
+		assertFalse(event.isCompressed());
+		event.recycleBuffer();
+	}
+
+	@Test
+	public void testCompressOnlyForRemoteConsumers() throws Exception {
+		final ResultPartition partition = new ResultPartitionBuilder()
+			.setResultPartitionType(ResultPartitionType.PIPELINED)
+			.setNumberOfSubpartitions(2)
+			.setNetworkBufferSize(BUFFER_SIZE)
+			.setPipelinedShuffleCompressionEnabled(true)
+			.setCompressionCodec(COMPRESSION_CODEC)
+			.build();
+		assertNotNull(partition.getPipelinedBufferCompressor());
+
+		for (int subpartition = 0; subpartition < 2; subpartition++) {
+			partition.addBufferConsumer(createFilledFinishedBufferConsumer(BUFFER_SIZE), subpartition);
+		}
+
+		final ResultSubpartitionView localView = partition.createSubpartitionView(0, () -> {});
+		final ResultSubpartitionView remoteView = partition.createSubpartitionView(1, () -> {});
+		remoteView.notifyRemoteConsumer(COMPRESSION_CODEC);
+
+		final BufferAndBacklog local = localView.getNextBuffer();
+		assertNotNull(local);
+		assertFalse(local.buffer().isCompressed());
+		assertEquals(BUFFER_SIZE, local.buffer().readableBytes());
+		local.buffer().recycleBuffer();
+
+		final BufferAndBacklog remote = remoteView.getNextBuffer();
+		assertNotNull(remote);
+		assertTrue(remote.buffer().isCompressed());
+		assertTrue(remote.buffer().readableBytes() < BUFFER_SIZE);
+		remote.buffer().recycleBuffer();
+
+		assertNull(localView.getNextBuffer());
+		assertNull(remoteView.getNextBuffer());
+		assertTrue(partition.getPipelinedBufferCompressor().getCompressionRatio() > 1.0);
+
+		localView.releaseAllResources();
+		remoteView.releaseAllResources();
+		partition.release();
+	}
+
+	@Test
+	public void testCompressOnlyWithRequestedCodec() throws Exception {
+		final ResultPartition partition = new ResultPartitionBuilder()
+			.setResultPartitionType(ResultPartitionType.PIPELINED)
+			.setNumberOfSubpartitions(2)
+			.setNetworkBufferSize(BUFFER_SIZE)
+			.setPipelinedShuffleCompressionEnabled(true)
+			.setCompressionCodec(COMPRESSION_CODEC)
+			.build();
+
+		for (int subpartition = 0; subpartition < 2; subpartition++) {
+			partition.addBufferConsumer(createFilledFinishedBufferConsumer(BUFFER_SIZE), subpartition);
+		}
+
+		// a consumer which does not decompress and a consumer of another codec
+		final ResultSubpartitionView uncompressedView = partition.createSubpartitionView(0, () -> {});
+		final ResultSubpartitionView otherCodecView = partition.createSubpartitionView(1, () -> {});
+		uncompressedView.notifyRemoteConsumer(null);
+		otherCodecView.notifyRemoteConsumer("ZSTD");
+
+		for (ResultSubpartitionView view : Arrays.asList(uncompressedView, otherCodecView)) {
+			final BufferAndBacklog next = view.getNextBuffer();
+			assertNotNull(next);
+			assertFalse(next.buffer().isCompressed());
+			assertEquals(BUFFER_SIZE, next.buffer().readableBytes());
+			next.buffer().recycleBuffer();
+			view.releaseAllResources();
+		}
+
+		partition.release();
+	}
+
+	@Test
+	public void testNoCompressorForBlockingPartition() throws Exception {
+		try (FileChannelManager fileChannelManager =
+				new FileChannelManagerImpl(new String[] {tmpFolder.getRoot().getPath()}, "testing")) {
+			final ResultPartition partition = new ResultPartitionBuilder()
+				.setResultPartitionType(ResultPartitionType.BLOCKING)
+				.setFileChannelManager(fileChannelManager)
+				.setPipelinedShuffleCompressionEnabled(true)
+				.build();
+
+			assertNull(partition.getPipelinedBufferCompressor());
+			partition.release();
+		}
+	}
+
+	// ------------------------------------------------------------------------
+
+	private static Buffer createBuffer(int size, boolean random) {
+		final MemorySegment segment = MemorySegmentFactory.allocateUnpooledSegment(size);
+		if (random) {
+			final byte[] bytes = new byte[size];
+			new Random(42).nextBytes(bytes);
+			segment.put(0, bytes);
+		}
+		return new NetworkBuffer(segment, FreeingBufferRecycler.INSTANCE, Buffer.DataType.DATA_BUFFER, size);
+	}
+}
@@ -310,7 +310,7 @@ public class PipelinedSubpartitionTest extends SubpartitionTestBase {
 		partition.finish();
 
 		// Create the view
-		BufferAvailabilityListener listener = mock(BufferAvailabilityListener.class);
+		BufferAvailabilityListener listener = new NoOpBufferAvailablityListener();
 		ResultSubpartitionView view = partition.createReadView(listener);
 
 		// The added bufferConsumer and end-of-partition event
@@ -41,6 +41,7 @@ import org.junit.runners.Parameterized;
 import javax.annotation.Nullable;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -440,6 +441,93 @@ public class PipelinedSubpartitionWithReadViewTest {
 		assertNextBuffer(readView, BUFFER_SIZE, false, 0, false, true);
 	}
 
+	@Test
+	public void testBatchedNotifications() throws Exception {
+		final AwaitableBufferAvailablityListener listener = new AwaitableBufferAvailablityListener(3);
+		final PipelinedSubpartition batchedSubpartition = createSubpartitionWithReadView(listener);
+
+		BufferBuilder bufferBuilder = createBufferBuilder();
+		batchedSubpartition.add(bufferBuilder.createBufferConsumer());
+		bufferBuilder = finishAndAddNextBuffer(batchedSubpartition, bufferBuilder);
+		bufferBuilder = finishAndAddNextBuffer(batchedSubpartition, bufferBuilder);
+		assertEquals(0, listener.getNumNotifications());
+
+		// the third finished buffer completes the batch
+		bufferBuilder = finishAndAddNextBuffer(batchedSubpartition, bufferBuilder);
+		assertEquals(1, listener.getNumNotifications());
+		drain(batchedSubpartition, 3);
+
+		// events are never held back
+		bufferBuilder = finishAndAddNextBuffer(batchedSubpartition, bufferBuilder);
+		bufferBuilder.appendAndCommit(ByteBuffer.allocate(BUFFER_SIZE));
+		bufferBuilder.finish();
+		assertEquals(1, listener.getNumNotifications());
+		batchedSubpartition.add(createEventBufferConsumer(BUFFER_SIZE, Buffer.DataType.EVENT_BUFFER));
+		assertEquals(2, listener.getNumNotifications());
+		drain(batchedSubpartition, 3);
+
+		batchedSubpartition.release();
+	}
+
+	@Test
+	public void testFlushAndNotifyHeldBackBuffersWithBatchedNotifications() throws Exception {
+		final AwaitableBufferAvailablityListener listener = new AwaitableBufferAvailablityListener(3);
+		final PipelinedSubpartition batchedSubpartition = createSubpartitionWithReadView(listener);
+
+		final BufferBuilder bufferBuilder = createBufferBuilder();
+		batchedSubpartition.add(createFilledFinishedBufferConsumer(BUFFER_SIZE));
+		batchedSubpartition.add(bufferBuilder.createBufferConsumer());
+		assertEquals(0, listener.getNumNotifications());
+
+		// the flush hands over the held back finished buffer
+		batchedSubpartition.flush();
+		assertEquals(1, listener.getNumNotifications());
+		drain(batchedSubpartition, 1);
+		assertNull(batchedSubpartition.pollBuffer());
+
+		bufferBuilder.appendAndCommit(ByteBuffer.allocate(BUFFER_SIZE));
+		bufferBuilder.finish();
+		batchedSubpartition.add(createFilledFinishedBufferConsumer(BUFFER_SIZE));
+		assertEquals(1, listener.getNumNotifications());
+
+		// as does a producer which is about to block on the buffer pool
+		batchedSubpartition.notifyHeldBackBuffers();
+		assertEquals(2, listener.getNumNotifications());
+		drain(batchedSubpartition, 2);
+
+		batchedSubpartition.release();
+	}
+
+	private PipelinedSubpartition createSubpartitionWithReadView(BufferAvailabilityListener listener) throws IOException {
+		final ResultPartition parent = PartitionTestUtils.createPartition(
+			ResultPartitionType.PIPELINED,
+			NoOpFileChannelManager.INSTANCE,
+			compressionEnabled,
+			BUFFER_SIZE);
+		final PipelinedSubpartition batchedSubpartition = new PipelinedSubpartition(0, parent);
+		batchedSubpartition.createReadView(listener);
+		return batchedSubpartition;
+	}
+
+	private static BufferBuilder finishAndAddNextBuffer(
+			PipelinedSubpartition subpartition,
+			BufferBuilder bufferBuilder) throws IOException {
+		bufferBuilder.appendAndCommit(ByteBuffer.allocate(BUFFER_SIZE));
+		bufferBuilder.finish();
+
+		final BufferBuilder nextBufferBuilder = createBufferBuilder();
+		subpartition.add(nextBufferBuilder.createBufferConsumer());
+		return nextBufferBuilder;
+	}
+
+	private static void drain(PipelinedSubpartition subpartition, int numBuffers) throws IOException {
+		for (int i = 0; i < numBuffers; i++) {
+			final ResultSubpartition.BufferAndBacklog next = subpartition.pollBuffer();
+			assertNotNull(next);
+			next.buffer().recycleBuffer();
+		}
+	}
+
 	// ------------------------------------------------------------------------
 
 	private void blockSubpartitionByCheckpoint(int numNotifications) throws IOException, InterruptedException {
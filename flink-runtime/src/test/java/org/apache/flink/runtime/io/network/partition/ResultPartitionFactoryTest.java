@@ -69,6 +69,19 @@ public class ResultPartitionFactoryTest extends TestLogger {
 		Arrays.stream(resultPartition.subpartitions).forEach(sp -> assertThat(sp, instanceOf(PipelinedSubpartition.class)));
 	}
 
+	@Test
+	public void testSortMergePartitionCreated() {
+		final ResultPartition resultPartition = createResultPartition(false, ResultPartitionType.BLOCKING, 1);
+		assertThat(resultPartition, instanceOf(SortMergeResultPartition.class));
+		Arrays.stream(resultPartition.subpartitions).forEach(sp -> assertThat(sp, instanceOf(SortMergeSubpartition.class)));
+	}
+
+	@Test
+	public void testSortMergePartitionNotCreatedForPipelined() {
+		final ResultPartition resultPartition = createResultPartition(false, ResultPartitionType.PIPELINED, 1);
+		assertThat(resultPartition, not(instanceOf(SortMergeResultPartition.class)));
+	}
+
 	@Test
 	public void testConsumptionOnReleaseForced() {
 		final ResultPartition resultPartition = createResultPartition(true, ResultPartitionType.BLOCKING);
@@ -90,6 +103,13 @@ public class ResultPartitionFactoryTest extends TestLogger {
 	private static ResultPartition createResultPartition(
 			boolean releasePartitionOnConsumption,
 			ResultPartitionType partitionType) {
+		return createResultPartition(releasePartitionOnConsumption, partitionType, Integer.MAX_VALUE);
+	}
+
+	private static ResultPartition createResultPartition(
+			boolean releasePartitionOnConsumption,
+			ResultPartitionType partitionType,
+			int sortShuffleMinParallelism) {
 		ResultPartitionFactory factory = new ResultPartitionFactory(
 			new ResultPartitionManager(),
 			fileChannelManager,
@@ -100,8 +120,11 @@ public class ResultPartitionFactoryTest extends TestLogger {
 			SEGMENT_SIZE,
 			releasePartitionOnConsumption,
 			false,
+			false,
 			"LZ4",
-			Integer.MAX_VALUE);
+			Integer.MAX_VALUE,
+			64,
+			sortShuffleMinParallelism);
 
 		final ResultPartitionDeploymentDescriptor descriptor = new ResultPartitionDeploymentDescriptor(
 			PartitionDescriptorBuilder
@@ -371,7 +371,8 @@ public class ResultPartitionTest {
 		final int numAllBuffers = 10;
 		final NettyShuffleEnvironment network = new NettyShuffleEnvironmentBuilder()
 				.setNumNetworkBuffers(numAllBuffers).build();
-		final ResultPartition resultPartition = createPartition(network, ResultPartitionType.PIPELINED, 1);
+		final BufferWritingResultPartition resultPartition =
+			(BufferWritingResultPartition) createPartition(network, ResultPartitionType.PIPELINED, 1);
 
 		try {
 			resultPartition.setup();
@@ -389,6 +390,38 @@ public class ResultPartitionTest {
 		}
 	}
 
+	/**
+	 * Tests that the buffers requested for a subpartition are trimmed to the buffer size desired by
+	 * its consumer.
+	 */
+	@Test
+	public void testBufferBuilderTrimmedToDesiredBufferSize() throws Exception {
+		final NettyShuffleEnvironment network = new NettyShuffleEnvironmentBuilder()
+				.setNumNetworkBuffers(10).build();
+		final BufferWritingResultPartition resultPartition =
+			(BufferWritingResultPartition) createPartition(network, ResultPartitionType.PIPELINED, 2);
+
+		try {
+			resultPartition.setup();
+
+			((PipelinedSubpartition) resultPartition.subpartitions[0]).setDesiredBufferSize(128);
+
+			BufferBuilder bufferBuilder = resultPartition.getBufferBuilder(0);
+			assertEquals(128, bufferBuilder.getMaxCapacity());
+			bufferBuilder.finish();
+
+			bufferBuilder = resultPartition.getBufferBuilder(1);
+			assertEquals(network.getConfiguration().networkBufferSize(), bufferBuilder.getMaxCapacity());
+			bufferBuilder.finish();
+
+			// buffers shared by all subpartitions must not exceed the smallest desired buffer size
+			assertEquals(128, resultPartition.getDesiredBroadcastBufferSize());
+		} finally {
+			resultPartition.release();
+			network.close();
+		}
+	}
+
 	@Test
 	public void testPipelinedPartitionBufferPool() throws Exception {
 		testPartitionBufferPool(ResultPartitionType.PIPELINED_BOUNDED);
@@ -0,0 +1,404 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition;
+
+import org.apache.flink.runtime.io.disk.FileChannelManager;
+import org.apache.flink.runtime.io.disk.FileChannelManagerImpl;
+import org.apache.flink.runtime.io.network.api.EndOfPartitionEvent;
+import org.apache.flink.runtime.io.network.api.writer.RecordWriter;
+import org.apache.flink.runtime.io.network.api.writer.RecordWriterBuilder;
+import org.apache.flink.runtime.io.network.api.writer.SortMergeRecordWriter;
+import org.apache.flink.runtime.io.network.api.serialization.EventSerializer;
+import org.apache.flink.runtime.io.network.buffer.Buffer;
+import org.apache.flink.runtime.io.network.buffer.BufferDecompressor;
+import org.apache.flink.runtime.io.network.buffer.NetworkBufferPool;
+import org.apache.flink.runtime.io.network.partition.ResultSubpartition.BufferAndBacklog;
+import org.apache.flink.types.IntValue;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.annotation.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link SortMergeResultPartition}.
+ */
+public class SortMergeResultPartitionTest extends TestLogger {
+
+	private static final int BUFFER_SIZE = 1024;
+
+	private static final int NUM_BUFFERS = 100;
+
+	private static final int NUM_SUBPARTITIONS = 10;
+
+	private static final int RECORD_SIZE = 100;
+
+	private static final String COMPRESSION_CODEC = "LZ4";
+
+	@Rule
+	public final TemporaryFolder tmpFolder = new TemporaryFolder();
+
+	private FileChannelManager fileChannelManager;
+
+	private NetworkBufferPool globalPool;
+
+	@Before
+	public void setUp() throws Exception {
+		fileChannelManager = new FileChannelManagerImpl(new String[] {tmpFolder.getRoot().getPath()}, "testing");
+		globalPool = new NetworkBufferPool(NUM_BUFFERS, BUFFER_SIZE);
+	}
+
+	@After
+	public void shutdown() throws Exception {
+		fileChannelManager.close();
+		assertEquals(NUM_BUFFERS, globalPool.getNumberOfAvailableMemorySegments());
+		globalPool.destroy();
+	}
+
+	@Test
+	public void testWriteAndRead() throws Exception {
+		testWriteAndRead(false);
+	}
+
+	@Test
+	public void testWriteAndReadWithCompression() throws Exception {
+		testWriteAndRead(true);
+	}
+
+	private void testWriteAndRead(boolean compressionEnabled) throws Exception {
+		final int numRecordsPerSubpartition = 200;
+		final SortMergeResultPartition partition = createPartition(4, compressionEnabled);
+
+		final Random random = new Random();
+		final int[] numWritten = new int[NUM_SUBPARTITIONS];
+		int numTotalRecords = NUM_SUBPARTITIONS * numRecordsPerSubpartition;
+		while (numTotalRecords > 0) {
+			int subpartition = random.nextInt(NUM_SUBPARTITIONS);
+			if (numWritten[subpartition] < numRecordsPerSubpartition) {
+				writeRecord(partition, subpartition, numWritten[subpartition]++, RECORD_SIZE);
+				--numTotalRecords;
+			}
+		}
+		partition.finish();
+		partition.close();
+
+		final PartitionedFile resultFile = partition.getResultFile();
+		assertNotNull(resultFile);
+		assertTrue(resultFile.getNumRegions() > 1);
+		assertEquals(0, partition.getNumRecordsInSortBuffer());
+
+		final BufferDecompressor decompressor = new BufferDecompressor(BUFFER_SIZE, COMPRESSION_CODEC);
+		for (int subpartition = 0; subpartition < NUM_SUBPARTITIONS; ++subpartition) {
+			final ResultSubpartitionView view = partition.createSubpartitionView(subpartition, () -> {});
+			readAndVerify(view, subpartition, numRecordsPerSubpartition, RECORD_SIZE, decompressor);
+			view.releaseAllResources();
+		}
+
+		partition.release();
+		assertFalse(Files.exists(resultFile.getDataFilePath()));
+		assertFalse(Files.exists(resultFile.getIndexFilePath()));
+	}
+
+	@Test
+	public void testMemoryIndependentOfParallelism() throws Exception {
+		// far fewer buffers than subpartitions
+		final SortMergeResultPartition partition = createPartition(2, false);
+		assertEquals(2, partition.getBufferPool().getNumberOfRequiredMemorySegments());
+		assertEquals(2, partition.getBufferPool().getMaxNumberOfMemorySegments());
+
+		for (int record = 0; record < 50; ++record) {
+			for (int subpartition = 0; subpartition < NUM_SUBPARTITIONS; ++subpartition) {
+				writeRecord(partition, subpartition, record, RECORD_SIZE);
+				assertTrue(partition.getNumBuffersInSortBuffer() <= 2);
+			}
+		}
+		partition.finish();
+		partition.close();
+
+		for (int subpartition = 0; subpartition < NUM_SUBPARTITIONS; ++subpartition) {
+			final ResultSubpartitionView view = partition.createSubpartitionView(subpartition, () -> {});
+			readAndVerify(view, subpartition, 50, RECORD_SIZE, null);
+			view.releaseAllResources();
+		}
+		partition.release();
+	}
+
+	@Test
+	public void testWriteLargeRecord() throws Exception {
+		// the record is larger than the whole sort buffer
+		final int recordSize = 3 * BUFFER_SIZE + 17;
+		final SortMergeResultPartition partition = createPartition(2, false);
+
+		writeRecord(partition, 1, 0, RECORD_SIZE);
+		writeRecord(partition, 1, 1, recordSize);
+		writeRecord(partition, 1, 2, RECORD_SIZE);
+		partition.finish();
+		partition.close();
+
+		final ResultSubpartitionView view = partition.createSubpartitionView(1, () -> {});
+		final ByteBuffer data = readData(view, null);
+		verifyRecord(data, 1, 0, RECORD_SIZE);
+		verifyRecord(data, 1, 1, recordSize);
+		verifyRecord(data, 1, 2, RECORD_SIZE);
+		assertFalse(data.hasRemaining());
+		view.releaseAllResources();
+
+		partition.release();
+	}
+
+	@Test
+	public void testBroadcastRecord() throws Exception {
+		final SortMergeResultPartition partition = createPartition(4, false);
+
+		for (int record = 0; record < 20; ++record) {
+			partition.broadcastRecord(createRecord(-1, record, RECORD_SIZE));
+		}
+		partition.finish();
+		partition.close();
+
+		for (int subpartition = 0; subpartition < NUM_SUBPARTITIONS; ++subpartition) {
+			final ResultSubpartitionView view = partition.createSubpartitionView(subpartition, () -> {});
+			final ByteBuffer data = readData(view, null);
+			for (int record = 0; record < 20; ++record) {
+				verifyRecord(data, -1, record, RECORD_SIZE);
+			}
+			assertFalse(data.hasRemaining());
+			view.releaseAllResources();
+		}
+		partition.release();
+	}
+
+	@Test
+	public void testWriteWithRecordWriter() throws Exception {
+		final int numRecords = 1000;
+		final SortMergeResultPartition partition = createPartition(2, false);
+		final RecordWriter<IntValue> writer = new RecordWriterBuilder<IntValue>().build(partition);
+		assertTrue(writer instanceof SortMergeRecordWriter);
+
+		for (int record = 0; record < numRecords; ++record) {
+			writer.emit(new IntValue(record));
+		}
+		writer.close();
+		partition.finish();
+		partition.close();
+
+		final Set<Integer> received = new HashSet<>();
+		for (int subpartition = 0; subpartition < NUM_SUBPARTITIONS; ++subpartition) {
+			final ResultSubpartitionView view = partition.createSubpartitionView(subpartition, () -> {});
+			final ByteBuffer data = readData(view, null);
+			int last = -1;
+			while (data.hasRemaining()) {
+				assertEquals(4, data.getInt());
+				final int record = data.getInt();
+				assertTrue(record > last);
+				assertTrue(received.add(record));
+				last = record;
+			}
+			view.releaseAllResources();
+		}
+		assertEquals(numRecords, received.size());
+
+		partition.release();
+	}
+
+	@Test
+	public void testReadConcurrently() throws Exception {
+		final int numRecordsPerSubpartition = 20;
+		final SortMergeResultPartition partition = createPartition(16, false);
+
+		for (int record = 0; record < numRecordsPerSubpartition; ++record) {
+			for (int subpartition = NUM_SUBPARTITIONS - 1; subpartition >= 0; --subpartition) {
+				writeRecord(partition, subpartition, record, BUFFER_SIZE - 4);
+			}
+		}
+		partition.finish();
+		partition.close();
+
+		final ResultSubpartitionView view1 = partition.createSubpartitionView(3, () -> {});
+		final ResultSubpartitionView view2 = partition.createSubpartitionView(3, () -> {});
+		final ByteBuffer data1 = readData(view1, null);
+		final ByteBuffer data2 = readData(view2, null);
+		for (int record = 0; record < numRecordsPerSubpartition; ++record) {
+			verifyRecord(data1, 3, record, BUFFER_SIZE - 4);
+			verifyRecord(data2, 3, record, BUFFER_SIZE - 4);
+		}
+		view1.releaseAllResources();
+		view2.releaseAllResources();
+
+		partition.release();
+	}
+
+	@Test
+	public void testReleaseWithReaders() throws Exception {
+		final SortMergeResultPartition partition = createPartition(4, false);
+		writeRecord(partition, 0, 0, RECORD_SIZE);
+		partition.finish();
+		partition.close();
+
+		final PartitionedFile resultFile = partition.getResultFile();
+		assertNotNull(resultFile);
+
+		final ResultSubpartitionView view = partition.createSubpartitionView(0, () -> {});
+		partition.release();
+
+		// the files are kept until the last reader is released
+		assertTrue(Files.exists(resultFile.getDataFilePath()));
+		verifyRecord(readData(view, null), 0, 0, RECORD_SIZE);
+
+		view.releaseAllResources();
+		assertFalse(Files.exists(resultFile.getDataFilePath()));
+		assertFalse(Files.exists(resultFile.getIndexFilePath()));
+	}
+
+	@Test
+	public void testReleaseWhileWriting() throws Exception {
+		final SortMergeResultPartition partition = createPartition(NUM_BUFFERS, false);
+		for (int subpartition = 0; subpartition < NUM_SUBPARTITIONS; ++subpartition) {
+			writeRecord(partition, subpartition, 0, RECORD_SIZE);
+			writeRecord(partition, subpartition, 1, RECORD_SIZE);
+		}
+		assertEquals(2 * NUM_SUBPARTITIONS, partition.getNumRecordsInSortBuffer());
+
+		partition.release();
+		partition.close();
+
+		assertEquals(0, partition.getNumRecordsInSortBuffer());
+		assertEquals(0, partition.getNumBuffersInSortBuffer());
+		assertNull(partition.getResultFile());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testCreateViewBeforeFinish() throws Exception {
+		final SortMergeResultPartition partition = createPartition(4, false);
+		try {
+			partition.createSubpartitionView(0, () -> {});
+		} finally {
+			partition.release();
+			partition.close();
+		}
+	}
+
+	// ------------------------------------------------------------------------
+
+	private SortMergeResultPartition createPartition(int sortBufferCapacity, boolean compressionEnabled) throws Exception {
+		final ResultPartition partition = new ResultPartitionBuilder()
+			.setResultPartitionType(ResultPartitionType.BLOCKING)
+			.setNumberOfSubpartitions(NUM_SUBPARTITIONS)
+			.setFileChannelManager(fileChannelManager)
+			.setNetworkBufferPool(globalPool)
+			.setNetworkBufferSize(BUFFER_SIZE)
+			.setBlockingShuffleCompressionEnabled(compressionEnabled)
+			.setCompressionCodec(COMPRESSION_CODEC)
+			.setSortShuffleMinParallelism(1)
+			.setSortShuffleMinBuffers(sortBufferCapacity)
+			.build();
+		partition.setup();
+
+		assertTrue(partition instanceof SortMergeResultPartition);
+		return (SortMergeResultPartition) partition;
+	}
+
+	/**
+	 * Creates a serialized record of the given size (including the length header) holding the
+	 * subpartition index and the record index, padded with compressible zeros.
+	 */
+	private static ByteBuffer createRecord(int subpartition, int record, int recordSize) {
+		final ByteBuffer data = ByteBuffer.allocate(recordSize);
+		data.putInt(recordSize - 4);
+		data.putInt(subpartition);
+		data.putInt(record);
+		data.position(recordSize);
+		data.flip();
+		return data;
+	}
+
+	private static void writeRecord(SortMergeResultPartition partition, int subpartition, int record, int recordSize) throws Exception {
+		partition.emitRecord(createRecord(subpartition, record, recordSize), subpartition);
+	}
+
+	private static void readAndVerify(
+			ResultSubpartitionView view,
+			int subpartition,
+			int numRecords,
+			int recordSize,
+			@Nullable BufferDecompressor decompressor) throws Exception {
+		final ByteBuffer data = readData(view, decompressor);
+		for (int record = 0; record < numRecords; ++record) {
+			verifyRecord(data, subpartition, record, recordSize);
+		}
+		assertFalse(data.hasRemaining());
+	}
+
+	/**
+	 * Reads all data buffers of the view up to the end of partition event and returns their
+	 * concatenated data. Also checks that the announced backlog matches the data buffers.
+	 */
+	private static ByteBuffer readData(ResultSubpartitionView view, @Nullable BufferDecompressor decompressor) throws Exception {
+		final ByteArrayOutputStream data = new ByteArrayOutputStream();
+		while (true) {
+			final BufferAndBacklog next = view.getNextBuffer();
+			assertNotNull(next);
+
+			Buffer buffer = next.buffer();
+			if (!buffer.isBuffer()) {
+				assertEquals(0, next.buffersInBacklog());
+				assertTrue(EventSerializer.isEvent(buffer, EndOfPartitionEvent.class));
+				buffer.recycleBuffer();
+				break;
+			}
+
+			if (buffer.isCompressed()) {
+				buffer = decompressor.decompressToIntermediateBuffer(buffer);
+				next.buffer().recycleBuffer();
+			}
+			final byte[] bytes = new byte[buffer.readableBytes()];
+			buffer.getNioBufferReadable().get(bytes);
+			data.write(bytes);
+			buffer.recycleBuffer();
+		}
+		assertNull(view.getNextBuffer());
+
+		return ByteBuffer.wrap(data.toByteArray());
+	}
+
+	private static void verifyRecord(ByteBuffer data, int subpartition, int record, int recordSize) {
+		final int start = data.position();
+		assertEquals(recordSize - 4, data.getInt());
+		assertEquals(subpartition, data.getInt());
+		assertEquals(record, data.getInt());
+		data.position(start + recordSize);
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.io.network.partition.consumer;
+
+import org.apache.flink.util.TestLogger;
+import org.apache.flink.util.clock.ManualClock;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link BufferDebloater}.
+ */
+public class BufferDebloaterTest extends TestLogger {
+
+	private static final int BUFFER_SIZE = 32 * 1024;
+
+	private static final int MIN_BUFFER_SIZE = 256;
+
+	private static final int NUM_CHANNELS = 2;
+
+	private static final int EXCLUSIVE_BUFFERS = 2;
+
+	private static final int FLOATING_BUFFERS = 8;
+
+	private final ManualClock clock = new ManualClock();
+
+	@Test
+	public void testHighThroughputKeepsMaximum() {
+		final BufferDebloater debloater = createDebloater();
+
+		assertFalse(debloater.update(10L * 1024 * 1024));
+		assertEquals(BUFFER_SIZE, debloater.getBufferSize());
+		assertEquals(EXCLUSIVE_BUFFERS + FLOATING_BUFFERS, debloater.getCredit());
+		assertEquals(10L * 1024 * 1024, debloater.getTargetInFlightBytes());
+	}
+
+	@Test
+	public void testLowThroughputShrinksToMinimum() {
+		final BufferDebloater debloater = createDebloater();
+
+		assertTrue(debloater.update(1000));
+		assertEquals(MIN_BUFFER_SIZE, debloater.getBufferSize());
+		// the credit never drops below the exclusive buffers
+		assertEquals(EXCLUSIVE_BUFFERS, debloater.getCredit());
+
+		// reaching the bound again is not announced twice
+		assertFalse(debloater.update(1000));
+	}
+
+	@Test
+	public void testSmallChangesAreNotAnnounced() {
+		final BufferDebloater debloater = createDebloater();
+
+		// 64 KiB per channel fit into the exclusive buffers of full size
+		assertTrue(debloater.update(NUM_CHANNELS * 2L * BUFFER_SIZE));
+		assertEquals(BUFFER_SIZE, debloater.getBufferSize());
+		assertEquals(EXCLUSIVE_BUFFERS, debloater.getCredit());
+
+		// a slightly lower throughput would shrink the buffers by less than 10%
+		assertFalse(debloater.update(107_500));
+		assertEquals(BUFFER_SIZE, debloater.getBufferSize());
+	}
+
+	@Test
+	public void testThroughputIsSmoothed() {
+		final BufferDebloater debloater = createDebloater();
+
+		debloater.update(1000);
+		assertEquals(1000, debloater.getThroughput());
+
+		debloater.update(2000);
+		assertEquals(1300, debloater.getThroughput());
+	}
+
+	@Test
+	public void testMeasuresOncePerPeriod() {
+		final BufferDebloater debloater = createDebloater();
+
+		assertFalse(debloater.onBufferConsumed(100));
+		assertEquals(0, debloater.getThroughput());
+
+		clock.advanceTime(200, TimeUnit.MILLISECONDS);
+		assertTrue(debloater.onBufferConsumed(100));
+		assertEquals(1000, debloater.getThroughput());
+		assertEquals(MIN_BUFFER_SIZE, debloater.getBufferSize());
+	}
+
+	@Test
+	public void testIdleTimeIsNotMeasured() {
+		final BufferDebloater debloater = createDebloater();
+
+		// the gate runs out of data for a long time, e.g. because the upstream tasks are slow
+		debloater.onIdle();
+		clock.advanceTime(10, TimeUnit.SECONDS);
+		assertFalse(debloater.onBufferConsumed(100));
+		assertEquals(0, debloater.getThroughput());
+
+		// only the busy time is measured
+		clock.advanceTime(200, TimeUnit.MILLISECONDS);
+		assertTrue(debloater.onBufferConsumed(100));
+		assertEquals(1000, debloater.getThroughput());
+
+		// marking the gate idle repeatedly does not restart the idle time
+		debloater.onIdle();
+		clock.advanceTime(100, TimeUnit.MILLISECONDS);
+		debloater.onIdle();
+		clock.advanceTime(100, TimeUnit.MILLISECONDS);
+		assertFalse(debloater.onBufferConsumed(100));
+	}
+
+	private BufferDebloater createDebloater() {
+		final BufferDebloatConfiguration configuration = new BufferDebloatConfiguration(
+			true,
+			Duration.ofSeconds(1),
+			Duration.ofMillis(200),
+			MIN_BUFFER_SIZE);
+
+		return new BufferDebloater(
+			configuration,
+			NUM_CHANNELS,
+			EXCLUSIVE_BUFFERS,
+			FLOATING_BUFFERS,
+			BUFFER_SIZE,
+			clock);
+	}
+}
@@ -35,7 +35,9 @@ import org.apache.flink.runtime.io.network.buffer.BufferProvider;
 import org.apache.flink.runtime.io.network.buffer.BufferReceivedListener;
 import org.apache.flink.runtime.io.network.buffer.FreeingBufferRecycler;
 import org.apache.flink.runtime.io.network.buffer.NetworkBufferPool;
+import org.apache.flink.runtime.io.network.buffer.ReadOnlySlicedNetworkBuffer;
 import org.apache.flink.runtime.io.network.partition.BufferAvailabilityListener;
+import org.apache.flink.runtime.io.network.partition.BufferWritingResultPartition;
 import org.apache.flink.runtime.io.network.partition.PartitionNotFoundException;
 import org.apache.flink.runtime.io.network.partition.PartitionTestUtils;
 import org.apache.flink.runtime.io.network.partition.ResultPartition;
@@ -83,6 +85,7 @@ import static org.apache.flink.util.Preconditions.checkArgument;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -453,6 +456,124 @@ public class LocalInputChannelTest {
 		assertFalse(bufferAndAvailability.get().buffer().isCompressed());
 	}
 
+	/**
+	 * Verifies that the buffers of the producer are handed over to a {@link LocalInputChannel} as
+	 * slices without copying, and that the gate is only notified once a batch of buffers is finished.
+	 */
+	@Test
+	public void testBatchedNotificationsOfZeroCopyHandover() throws Exception {
+		final int bufferSize = 128;
+		final NetworkBufferPool networkBufferPool = new NetworkBufferPool(10, bufferSize);
+		final ResultPartitionManager partitionManager = new ResultPartitionManager();
+		final BufferWritingResultPartition partition = (BufferWritingResultPartition) new ResultPartitionBuilder()
+			.setResultPartitionManager(partitionManager)
+			.setNetworkBufferPool(networkBufferPool)
+			.setNetworkBuffersPerChannel(4)
+			.build();
+		partition.setup();
+
+		final SingleInputGate inputGate = new SingleInputGateBuilder()
+			.setLocalChannelNotificationBatchSize(2)
+			.build();
+		final LocalInputChannel channel = InputChannelBuilder.newBuilder()
+			.setPartitionId(partition.getPartitionId())
+			.setPartitionManager(partitionManager)
+			.buildLocalChannel(inputGate);
+		inputGate.setInputChannels(channel);
+		channel.requestSubpartition(0);
+
+		try {
+			BufferBuilder bufferBuilder = partition.getBufferBuilder(0);
+			partition.addBufferConsumer(bufferBuilder.createBufferConsumer(), 0);
+			bufferBuilder = finishAndGetNextBufferBuilder(partition, bufferBuilder);
+			assertFalse(inputGate.getAvailableFuture().isDone());
+
+			bufferBuilder = finishAndGetNextBufferBuilder(partition, bufferBuilder);
+			assertTrue(inputGate.getAvailableFuture().isDone());
+
+			for (int i = 0; i < 2; i++) {
+				final Optional<InputChannel.BufferAndAvailability> next = channel.getNextBuffer();
+				assertTrue(next.isPresent());
+				assertEquals(bufferSize, next.get().buffer().getSize());
+				assertThat(next.get().buffer(), Matchers.instanceOf(ReadOnlySlicedNetworkBuffer.class));
+				next.get().buffer().recycleBuffer();
+			}
+			bufferBuilder.finish();
+		} finally {
+			channel.releaseAllResources();
+			partition.release();
+			networkBufferPool.destroyAllBufferPools();
+			networkBufferPool.destroy();
+		}
+	}
+
+	/**
+	 * Verifies that the buffers held back for batching are handed over once the buffer pool of the
+	 * producer is exhausted, even if the producer never flushes (buffer timeout -1) and only checks
+	 * the availability of the partition instead of blocking on the pool like the task does.
+	 */
+	@Test
+	public void testHeldBackBuffersNotifiedWhenBufferPoolExhausted() throws Exception {
+		final int bufferSize = 128;
+		final NetworkBufferPool networkBufferPool = new NetworkBufferPool(2, bufferSize);
+		final ResultPartitionManager partitionManager = new ResultPartitionManager();
+		final BufferWritingResultPartition partition = (BufferWritingResultPartition) new ResultPartitionBuilder()
+			.setResultPartitionManager(partitionManager)
+			.setNetworkBufferPool(networkBufferPool)
+			.build();
+		partition.setup();
+
+		final SingleInputGate inputGate = new SingleInputGateBuilder()
+			.setLocalChannelNotificationBatchSize(3)
+			.build();
+		final LocalInputChannel channel = InputChannelBuilder.newBuilder()
+			.setPartitionId(partition.getPartitionId())
+			.setPartitionManager(partitionManager)
+			.buildLocalChannel(inputGate);
+		inputGate.setInputChannels(channel);
+		channel.requestSubpartition(0);
+
+		try {
+			// fill the whole buffer pool with finished buffers, which do not complete a batch
+			for (int i = 0; i < 2; i++) {
+				final BufferBuilder bufferBuilder = partition.tryGetBufferBuilder(0);
+				assertNotNull(bufferBuilder);
+				partition.addBufferConsumer(bufferBuilder.createBufferConsumer(), 0);
+				bufferBuilder.appendAndCommit(ByteBuffer.allocate(bufferSize));
+				bufferBuilder.finish();
+			}
+			assertNull(partition.tryGetBufferBuilder(0));
+			assertFalse(inputGate.getAvailableFuture().isDone());
+
+			// the producer sees the exhausted pool, which releases the held back buffers
+			assertFalse(partition.isAvailable());
+			assertTrue(inputGate.getAvailableFuture().isDone());
+
+			for (int i = 0; i < 2; i++) {
+				final Optional<InputChannel.BufferAndAvailability> next = channel.getNextBuffer();
+				assertTrue(next.isPresent());
+				next.get().buffer().recycleBuffer();
+			}
+			assertTrue(partition.isAvailable());
+		} finally {
+			channel.releaseAllResources();
+			partition.release();
+			networkBufferPool.destroyAllBufferPools();
+			networkBufferPool.destroy();
+		}
+	}
+
+	private static BufferBuilder finishAndGetNextBufferBuilder(
+			BufferWritingResultPartition partition,
+			BufferBuilder bufferBuilder) throws Exception {
+		bufferBuilder.appendAndCommit(ByteBuffer.allocate(bufferBuilder.getMaxCapacity()));
+		bufferBuilder.finish();
+
+		final BufferBuilder nextBufferBuilder = partition.getBufferBuilder(0);
+		partition.addBufferConsumer(nextBufferBuilder.createBufferConsumer(), 0);
+		return nextBufferBuilder;
+	}
+
 	@Test(expected = IllegalStateException.class)
 	public void testUnblockReleasedChannel() throws Exception {
 		SingleInputGate inputGate = createSingleInputGate(1);
@@ -56,6 +56,12 @@ public class SingleInputGateBuilder {
 
 	private BufferDecompressor bufferDecompressor = null;
 
+	private BufferDebloater bufferDebloater = null;
+
+	private int localChannelNotificationBatchSize = 1;
+
+	private int maxBuffersPerSpanningRecord = 0;
+
 	private MemorySegmentProvider segmentProvider = InputChannelTestUtils.StubMemorySegmentProvider.getInstance();
 
 	@Nullable
@@ -114,6 +120,21 @@ public class SingleInputGateBuilder {
 		return this;
 	}
 
+	public SingleInputGateBuilder setBufferDebloater(BufferDebloater bufferDebloater) {
+		this.bufferDebloater = bufferDebloater;
+		return this;
+	}
+
+	public SingleInputGateBuilder setMaxBuffersPerSpanningRecord(int maxBuffersPerSpanningRecord) {
+		this.maxBuffersPerSpanningRecord = maxBuffersPerSpanningRecord;
+		return this;
+	}
+
+	public SingleInputGateBuilder setLocalChannelNotificationBatchSize(int localChannelNotificationBatchSize) {
+		this.localChannelNotificationBatchSize = localChannelNotificationBatchSize;
+		return this;
+	}
+
 	public SingleInputGateBuilder setSegmentProvider(MemorySegmentProvider segmentProvider) {
 		this.segmentProvider = segmentProvider;
 		return this;
@@ -139,7 +160,10 @@ public class SingleInputGateBuilder {
 			partitionProducerStateProvider,
 			bufferPoolFactory,
 			bufferDecompressor,
-			segmentProvider);
+			segmentProvider,
+			bufferDebloater,
+			localChannelNotificationBatchSize,
+			maxBuffersPerSpanningRecord);
 		if (channelFactory != null) {
 			gate.setInputChannels(IntStream.range(0, numberOfChannels)
 				.mapToObj(index -> channelFactory.apply(InputChannelBuilder.newBuilder().setChannelIndex(index), gate))
@@ -104,6 +104,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -350,6 +351,66 @@ public class SingleInputGateTest extends InputGateTestBase {
 		}
 	}
 
+	@Test
+	public void testSpillCompressedInflightBuffers() throws Exception {
+		int bufferSize = 1024;
+		String compressionCodec = "LZ4";
+		BufferCompressor compressor = new BufferCompressor(bufferSize, compressionCodec);
+		BufferDecompressor decompressor = new BufferDecompressor(bufferSize, compressionCodec);
+
+		try (SingleInputGate inputGate = new SingleInputGateBuilder().setBufferDecompressor(decompressor).build()) {
+			RemoteInputChannel inputChannel = InputChannelBuilder.newBuilder()
+				.setConnectionManager(new TestingConnectionManager())
+				.setNetworkBuffersPerChannel(0)
+				.buildRemoteChannel(inputGate);
+
+			MemorySegment segment = MemorySegmentFactory.allocateUnpooledSegment(bufferSize);
+			for (int i = 0; i < bufferSize; i += 8) {
+				segment.putLongLittleEndian(i, i);
+			}
+			Buffer uncompressedBuffer = new NetworkBuffer(segment, FreeingBufferRecycler.INSTANCE);
+			uncompressedBuffer.setSize(bufferSize);
+			Buffer compressedBuffer = compressor.compressToOriginalBuffer(uncompressedBuffer);
+			assertTrue(compressedBuffer.isCompressed());
+			inputChannel.onBuffer(compressedBuffer, 0, 0);
+
+			// the in-flight data is recovered without decompression, so it has to be spilled decompressed
+			List<Buffer> inflightBuffers = new ArrayList<>();
+			inputChannel.spillInflightBuffers(0, new ChannelStateWriterImpl.NoOpChannelStateWriter() {
+				@Override
+				public void addInputData(long checkpointId, InputChannelInfo info, int startSeqNum, CloseableIterator<Buffer> iterator) {
+					iterator.forEachRemaining(inflightBuffers::add);
+				}
+			});
+
+			assertEquals(1, inflightBuffers.size());
+			Buffer spilledBuffer = inflightBuffers.get(0);
+			assertFalse(spilledBuffer.isCompressed());
+			ByteBuffer buffer = spilledBuffer.getNioBufferReadable().order(ByteOrder.LITTLE_ENDIAN);
+			for (int i = 0; i < bufferSize; i += 8) {
+				assertEquals(i, buffer.getLong());
+			}
+			MemorySegment decompressionSegment = spilledBuffer.getMemorySegment();
+			spilledBuffer.recycleBuffer();
+
+			// the received buffer itself is untouched
+			assertTrue(compressedBuffer.isCompressed());
+			assertFalse(compressedBuffer.isRecycled());
+
+			// the segment of the recycled spilled buffer is reused for the next checkpoint
+			inflightBuffers.clear();
+			inputChannel.spillInflightBuffers(1, new ChannelStateWriterImpl.NoOpChannelStateWriter() {
+				@Override
+				public void addInputData(long checkpointId, InputChannelInfo info, int startSeqNum, CloseableIterator<Buffer> iterator) {
+					iterator.forEachRemaining(inflightBuffers::add);
+				}
+			});
+			assertEquals(1, inflightBuffers.size());
+			assertSame(decompressionSegment, inflightBuffers.get(0).getMemorySegment());
+			inflightBuffers.get(0).recycleBuffer();
+		}
+	}
+
 	@Test
 	public void testIsAvailable() throws Exception {
 		final SingleInputGate inputGate = createInputGate(1);
@@ -18,7 +18,6 @@
 
 package org.apache.flink.runtime.scheduler.adapter;
 
-import org.apache.flink.runtime.executiongraph.ExecutionEdge;
 import org.apache.flink.runtime.executiongraph.ExecutionGraph;
 import org.apache.flink.runtime.executiongraph.ExecutionVertex;
 import org.apache.flink.runtime.executiongraph.IntermediateResultPartition;
@@ -40,7 +39,6 @@ import org.apache.flink.shaded.guava18.com.google.common.collect.Sets;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -212,9 +210,8 @@ public class DefaultExecutionTopologyTest extends TestLogger {
 			assertVertexEquals(originalVertex, adaptedVertex);
 
 			List<IntermediateResultPartition> originalConsumedPartitions = IntStream.range(0, originalVertex.getNumberOfInputs())
-				.mapToObj(originalVertex::getInputEdges)
-				.flatMap(Arrays::stream)
-				.map(ExecutionEdge::getSource)
+				.mapToObj(originalVertex::getConsumedPartitionGroup)
+				.flatMap(IterableUtils::toStream)
 				.collect(Collectors.toList());
 			Iterable<DefaultResultPartition> adaptedConsumedPartitions = adaptedVertex.getConsumedResults();
 
@@ -243,9 +240,8 @@ public class DefaultExecutionTopologyTest extends TestLogger {
 
 			assertPartitionEquals(originalPartition, adaptedPartition);
 
-			List<ExecutionVertex> originalConsumers = originalPartition.getConsumers().stream()
-				.flatMap(Collection::stream)
-				.map(ExecutionEdge::getTarget)
+			List<ExecutionVertex> originalConsumers = originalPartition.getConsumerVertexGroups().stream()
+				.flatMap(IterableUtils::toStream)
 				.collect(Collectors.toList());
 			Iterable<DefaultExecutionVertex> adaptedConsumers = adaptedPartition.getConsumers();
 
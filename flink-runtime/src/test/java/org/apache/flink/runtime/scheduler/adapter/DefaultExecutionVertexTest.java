@@ -72,7 +72,7 @@ public class DefaultExecutionVertexTest extends TestLogger {
 			Collections.emptyList(),
 			stateSupplier,
 			ANY);
-		consumerVertex.addConsumedResult(schedulingResultPartition);
+		consumerVertex.addConsumedResultGroup(Collections.singletonList(schedulingResultPartition));
 	}
 
 	@Test
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.scheduler.benchmark;
+
+import org.apache.flink.runtime.executiongraph.ExecutionGraph;
+import org.apache.flink.runtime.executiongraph.TestingExecutionGraphBuilder;
+import org.apache.flink.runtime.executiongraph.failover.flip1.PipelinedRegionComputeUtil;
+import org.apache.flink.runtime.executiongraph.failover.flip1.RestartPipelinedRegionFailoverStrategy;
+import org.apache.flink.runtime.io.network.partition.ResultPartitionType;
+import org.apache.flink.runtime.jobgraph.DistributionPattern;
+import org.apache.flink.runtime.jobgraph.JobGraph;
+import org.apache.flink.runtime.jobgraph.JobVertex;
+import org.apache.flink.runtime.jobgraph.ScheduleMode;
+import org.apache.flink.runtime.scheduler.strategy.ExecutionVertexID;
+import org.apache.flink.runtime.scheduler.strategy.SchedulingTopology;
+import org.apache.flink.runtime.testtasks.NoOpInvokable;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * Benchmark of the pipelined region building and of the failover decision of the
+ * {@link RestartPipelinedRegionFailoverStrategy} on a large topology. The job consists of a source, a
+ * map which consumes the source via an ALL_TO_ALL edge, and a sink which consumes the map via a
+ * POINTWISE edge. With the default parallelism, the topology has more than 100k vertices. It can be
+ * executed by the external <a href="https://github.com/dataArtisans/flink-benchmarks">flink-benchmarks</a>
+ * project, or standalone via {@link #main(String[])}.
+ */
+public class PipelinedRegionBenchmark {
+
+	private static final int DEFAULT_PARALLELISM = 33_334;
+
+	private SchedulingTopology schedulingTopology;
+
+	private RestartPipelinedRegionFailoverStrategy failoverStrategy;
+
+	private ExecutionVertexID failedVertexId;
+
+	public void setUp(int parallelism, ResultPartitionType resultPartitionType) throws Exception {
+		checkArgument(parallelism > 0);
+
+		JobVertex source = new JobVertex("source");
+		source.setInvokableClass(NoOpInvokable.class);
+		source.setParallelism(parallelism);
+
+		JobVertex map = new JobVertex("map");
+		map.setInvokableClass(NoOpInvokable.class);
+		map.setParallelism(parallelism);
+		map.connectNewDataSetAsInput(source, DistributionPattern.ALL_TO_ALL, resultPartitionType);
+
+		JobVertex sink = new JobVertex("sink");
+		sink.setInvokableClass(NoOpInvokable.class);
+		sink.setParallelism(parallelism);
+		sink.connectNewDataSetAsInput(map, DistributionPattern.POINTWISE, resultPartitionType);
+
+		JobGraph jobGraph = new JobGraph(source, map, sink);
+		jobGraph.setScheduleMode(ScheduleMode.LAZY_FROM_SOURCES);
+
+		ExecutionGraph executionGraph = TestingExecutionGraphBuilder.newBuilder().setJobGraph(jobGraph).build();
+		schedulingTopology = executionGraph.getSchedulingTopology();
+		failoverStrategy = new RestartPipelinedRegionFailoverStrategy(schedulingTopology);
+		failedVertexId = new ExecutionVertexID(source.getID(), 0);
+	}
+
+	public void tearDown() {
+		schedulingTopology = null;
+		failoverStrategy = null;
+		failedVertexId = null;
+	}
+
+	/**
+	 * Computes the pipelined regions of the scheduling topology and returns their number.
+	 */
+	public int computePipelinedRegions() {
+		checkState(schedulingTopology != null, "The benchmark has not been set up.");
+
+		return PipelinedRegionComputeUtil.computePipelinedRegions(schedulingTopology).size();
+	}
+
+	/**
+	 * Computes the tasks to restart after the failure of the first source vertex and returns their number.
+	 */
+	public int computeTasksToRestart() {
+		checkState(failoverStrategy != null, "The benchmark has not been set up.");
+
+		return failoverStrategy.getTasksNeedingRestart(failedVertexId, new Exception("Test failure")).size();
+	}
+
+	public static void main(String[] args) throws Exception {
+		final int parallelism = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PARALLELISM;
+		final int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+		System.out.printf("%-9s %-12s %18s %18s%n", "type", "vertices", "regions (ms)", "failover (ms)");
+		for (ResultPartitionType type : new ResultPartitionType[] {ResultPartitionType.BLOCKING, ResultPartitionType.PIPELINED}) {
+			PipelinedRegionBenchmark benchmark = new PipelinedRegionBenchmark();
+			benchmark.setUp(parallelism, type);
+			try {
+				long regionNanos = 0;
+				long failoverNanos = 0;
+				for (int i = 0; i < iterations; i++) {
+					long start = System.nanoTime();
+					benchmark.computePipelinedRegions();
+					regionNanos += System.nanoTime() - start;
+
+					start = System.nanoTime();
+					benchmark.computeTasksToRestart();
+					failoverNanos += System.nanoTime() - start;
+				}
+
+				System.out.printf("%-9s %-12d %18d %18d%n",
+					type,
+					3 * parallelism,
+					regionNanos / iterations / 1_000_000,
+					failoverNanos / iterations / 1_000_000);
+			}
+			finally {
+				benchmark.tearDown();
+			}
+		}
+	}
+}
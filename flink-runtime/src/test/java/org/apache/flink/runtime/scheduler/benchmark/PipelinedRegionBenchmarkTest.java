@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.scheduler.benchmark;
+
+import org.apache.flink.runtime.io.network.partition.ResultPartitionType;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link PipelinedRegionBenchmark}.
+ */
+@RunWith(Parameterized.class)
+public class PipelinedRegionBenchmarkTest extends TestLogger {
+
+	private static final int PARALLELISM = 10;
+
+	private final ResultPartitionType resultPartitionType;
+
+	@Parameterized.Parameters(name = "resultPartitionType = {0}")
+	public static Collection<ResultPartitionType> parameters() {
+		return Arrays.asList(ResultPartitionType.BLOCKING, ResultPartitionType.PIPELINED);
+	}
+
+	public PipelinedRegionBenchmarkTest(ResultPartitionType resultPartitionType) {
+		this.resultPartitionType = resultPartitionType;
+	}
+
+	@Test
+	public void testBenchmark() throws Exception {
+		PipelinedRegionBenchmark benchmark = new PipelinedRegionBenchmark();
+		benchmark.setUp(PARALLELISM, resultPartitionType);
+		try {
+			if (resultPartitionType.isPipelined()) {
+				// all vertices form a single pipelined region
+				assertEquals(1, benchmark.computePipelinedRegions());
+				assertEquals(3 * PARALLELISM, benchmark.computeTasksToRestart());
+			} else {
+				// each vertex forms a region, the failed source is restarted with all maps and sinks
+				assertEquals(3 * PARALLELISM, benchmark.computePipelinedRegions());
+				assertEquals(2 * PARALLELISM + 1, benchmark.computeTasksToRestart());
+			}
+		}
+		finally {
+			benchmark.tearDown();
+		}
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.scheduler.benchmark;
+
+import org.apache.flink.runtime.clusterframework.types.AllocationID;
+import org.apache.flink.runtime.concurrent.ComponentMainThreadExecutorServiceAdapter;
+import org.apache.flink.runtime.deployment.TaskDeploymentDescriptor;
+import org.apache.flink.runtime.deployment.TaskDeploymentDescriptorFactory;
+import org.apache.flink.runtime.execution.ExecutionState;
+import org.apache.flink.runtime.executiongraph.ExecutionGraph;
+import org.apache.flink.runtime.executiongraph.ExecutionGraphTestUtils;
+import org.apache.flink.runtime.executiongraph.ExecutionJobVertex;
+import org.apache.flink.runtime.executiongraph.ExecutionVertex;
+import org.apache.flink.runtime.executiongraph.TestingExecutionGraphBuilder;
+import org.apache.flink.runtime.executiongraph.failover.flip1.RestartPipelinedRegionFailoverStrategy;
+import org.apache.flink.runtime.io.network.partition.ResultPartitionType;
+import org.apache.flink.runtime.jobgraph.DistributionPattern;
+import org.apache.flink.runtime.jobgraph.JobGraph;
+import org.apache.flink.runtime.jobgraph.JobVertex;
+import org.apache.flink.runtime.jobgraph.ScheduleMode;
+import org.apache.flink.runtime.taskmanager.LocalTaskManagerLocation;
+import org.apache.flink.runtime.taskmanager.TaskManagerLocation;
+import org.apache.flink.runtime.testtasks.NoOpInvokable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * Benchmark of the scheduling related data structures for a job with a source and a sink which are
+ * connected by an ALL_TO_ALL edge. It measures how long it takes to build the {@link ExecutionGraph}
+ * including its scheduling topology and pipelined regions, to create the {@link TaskDeploymentDescriptor
+ * TaskDeploymentDescriptors} of all sink vertices once all sources are deployed and to decide which
+ * tasks to restart when a source vertex fails. It can be executed by the external
+ * <a href="https://github.com/dataArtisans/flink-benchmarks">flink-benchmarks</a> project, or standalone via
+ * {@link #main(String[])}.
+ */
+public class SchedulerBenchmark {
+
+	private static final int[] PARALLELISMS = {1000, 4000, 8000};
+
+	private JobGraph jobGraph;
+
+	private JobVertex source;
+
+	private JobVertex sink;
+
+	private ResultPartitionType resultPartitionType;
+
+	private ExecutionGraph executionGraph;
+
+	public void setUp(int parallelism, ResultPartitionType resultPartitionType) {
+		checkArgument(parallelism > 0);
+
+		this.resultPartitionType = resultPartitionType;
+
+		source = new JobVertex("source");
+		source.setInvokableClass(NoOpInvokable.class);
+		source.setParallelism(parallelism);
+
+		sink = new JobVertex("sink");
+		sink.setInvokableClass(NoOpInvokable.class);
+		sink.setParallelism(parallelism);
+		sink.connectNewDataSetAsInput(source, DistributionPattern.ALL_TO_ALL, resultPartitionType);
+
+		jobGraph = new JobGraph(source, sink);
+		jobGraph.setScheduleMode(ScheduleMode.LAZY_FROM_SOURCES);
+	}
+
+	public void tearDown() {
+		jobGraph = null;
+		executionGraph = null;
+	}
+
+	/**
+	 * Builds the execution graph, including its scheduling topology and pipelined regions.
+	 */
+	public ExecutionGraph buildExecutionGraph() throws Exception {
+		executionGraph = TestingExecutionGraphBuilder.newBuilder().setJobGraph(jobGraph).build();
+		executionGraph.start(ComponentMainThreadExecutorServiceAdapter.forMainThread());
+		return executionGraph;
+	}
+
+	/**
+	 * Registers the partitions of all source vertices and marks the sources as RUNNING, or as FINISHED
+	 * for BLOCKING partitions, so that the shuffle descriptors of all partitions consumed by the sinks
+	 * are known.
+	 */
+	public void deploySources() throws Exception {
+		checkState(executionGraph != null, "The execution graph has not been built.");
+
+		TaskManagerLocation location = new LocalTaskManagerLocation();
+		for (ExecutionVertex vertex : getExecutionJobVertex(source).getTaskVertices()) {
+			vertex.getCurrentExecutionAttempt().registerProducedPartitions(location, false).get();
+			if (resultPartitionType.isBlocking()) {
+				ExecutionGraphTestUtils.finishProducedPartitions(vertex);
+				ExecutionGraphTestUtils.setVertexState(vertex, ExecutionState.FINISHED);
+			} else {
+				ExecutionGraphTestUtils.setVertexState(vertex, ExecutionState.RUNNING);
+			}
+		}
+	}
+
+	/**
+	 * Creates the deployment descriptors of all sink vertices.
+	 */
+	public List<TaskDeploymentDescriptor> createSinkDeploymentDescriptors() throws Exception {
+		checkState(executionGraph != null, "The execution graph has not been built.");
+
+		ExecutionVertex[] sinkVertices = getExecutionJobVertex(sink).getTaskVertices();
+		List<TaskDeploymentDescriptor> deploymentDescriptors = new ArrayList<>(sinkVertices.length);
+		for (ExecutionVertex vertex : sinkVertices) {
+			deploymentDescriptors.add(TaskDeploymentDescriptorFactory
+				.fromExecutionVertex(vertex, 0)
+				.createDeploymentDescriptor(new AllocationID(), 0, null, Collections.emptyList()));
+		}
+		return deploymentDescriptors;
+	}
+
+	/**
+	 * Computes the tasks to restart after the failure of the first source vertex and returns their number.
+	 */
+	public int computeTasksToRestart() {
+		checkState(executionGraph != null, "The execution graph has not been built.");
+
+		RestartPipelinedRegionFailoverStrategy failoverStrategy =
+			new RestartPipelinedRegionFailoverStrategy(executionGraph.getSchedulingTopology());
+		ExecutionVertex failedVertex = getExecutionJobVertex(source).getTaskVertices()[0];
+		return failoverStrategy.getTasksNeedingRestart(failedVertex.getID(), new Exception("Test failure")).size();
+	}
+
+	private ExecutionJobVertex getExecutionJobVertex(JobVertex jobVertex) {
+		return executionGraph.getJobVertex(jobVertex.getID());
+	}
+
+	public static void main(String[] args) throws Exception {
+		final int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+
+		System.out.printf("%-9s %-12s %16s %18s %18s%n", "type", "parallelism", "build (ms)", "deployment (ms)", "failover (ms)");
+		for (ResultPartitionType type : new ResultPartitionType[] {ResultPartitionType.BLOCKING, ResultPartitionType.PIPELINED}) {
+			for (int parallelism : PARALLELISMS) {
+				SchedulerBenchmark benchmark = new SchedulerBenchmark();
+				benchmark.setUp(parallelism, type);
+				try {
+					long buildNanos = 0;
+					long deploymentNanos = 0;
+					long failoverNanos = 0;
+					for (int i = 0; i < iterations; i++) {
+						long start = System.nanoTime();
+						benchmark.buildExecutionGraph();
+						buildNanos += System.nanoTime() - start;
+
+						benchmark.deploySources();
+
+						start = System.nanoTime();
+						benchmark.createSinkDeploymentDescriptors();
+						deploymentNanos += System.nanoTime() - start;
+
+						start = System.nanoTime();
+						benchmark.computeTasksToRestart();
+						failoverNanos += System.nanoTime() - start;
+					}
+
+					System.out.printf("%-9s %-12d %16d %18d %18d%n",
+						type,
+						parallelism,
+						buildNanos / iterations / 1_000_000,
+						deploymentNanos / iterations / 1_000_000,
+						failoverNanos / iterations / 1_000_000);
+				}
+				finally {
+					benchmark.tearDown();
+				}
+			}
+		}
+	}
+}
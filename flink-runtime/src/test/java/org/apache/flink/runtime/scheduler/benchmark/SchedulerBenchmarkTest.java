@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.scheduler.benchmark;
+
+import org.apache.flink.runtime.deployment.TaskDeploymentDescriptor;
+import org.apache.flink.runtime.io.network.partition.ResultPartitionType;
+import org.apache.flink.runtime.shuffle.ShuffleDescriptor;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tests for {@link SchedulerBenchmark}.
+ */
+@RunWith(Parameterized.class)
+public class SchedulerBenchmarkTest extends TestLogger {
+
+	private static final int PARALLELISM = 10;
+
+	private final ResultPartitionType resultPartitionType;
+
+	@Parameterized.Parameters(name = "resultPartitionType = {0}")
+	public static Collection<ResultPartitionType> parameters() {
+		return Arrays.asList(ResultPartitionType.BLOCKING, ResultPartitionType.PIPELINED);
+	}
+
+	public SchedulerBenchmarkTest(ResultPartitionType resultPartitionType) {
+		this.resultPartitionType = resultPartitionType;
+	}
+
+	@Test
+	public void testBenchmark() throws Exception {
+		SchedulerBenchmark benchmark = new SchedulerBenchmark();
+		benchmark.setUp(PARALLELISM, resultPartitionType);
+		try {
+			assertEquals(2 * PARALLELISM, benchmark.buildExecutionGraph().getTotalNumberOfVertices());
+			benchmark.deploySources();
+
+			List<TaskDeploymentDescriptor> deploymentDescriptors = benchmark.createSinkDeploymentDescriptors();
+			assertEquals(PARALLELISM, deploymentDescriptors.size());
+			for (TaskDeploymentDescriptor deploymentDescriptor : deploymentDescriptors) {
+				deploymentDescriptor.loadBigData(null);
+				ShuffleDescriptor[] shuffleDescriptors = deploymentDescriptor.getInputGates().get(0).getShuffleDescriptors();
+				assertEquals(PARALLELISM, shuffleDescriptors.length);
+				for (ShuffleDescriptor shuffleDescriptor : shuffleDescriptors) {
+					assertFalse(shuffleDescriptor.isUnknown());
+				}
+			}
+
+			// the failed source and all sinks, or all vertices of the single pipelined region
+			int expectedTasksToRestart = resultPartitionType.isPipelined() ? 2 * PARALLELISM : PARALLELISM + 1;
+			assertEquals(expectedTasksToRestart, benchmark.computeTasksToRestart());
+		}
+		finally {
+			benchmark.tearDown();
+		}
+	}
+}
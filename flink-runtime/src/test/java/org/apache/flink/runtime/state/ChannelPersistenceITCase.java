@@ -30,10 +30,19 @@ import org.apache.flink.runtime.checkpoint.channel.ChannelStateWriter.ChannelSta
 import org.apache.flink.runtime.checkpoint.channel.ChannelStateWriterImpl;
 import org.apache.flink.runtime.checkpoint.channel.InputChannelInfo;
 import org.apache.flink.runtime.checkpoint.channel.ResultSubpartitionInfo;
+import org.apache.flink.runtime.io.network.TestingConnectionManager;
+import org.apache.flink.runtime.io.network.api.CheckpointBarrier;
 import org.apache.flink.runtime.io.network.buffer.Buffer;
 import org.apache.flink.runtime.io.network.buffer.BufferBuilder;
+import org.apache.flink.runtime.io.network.buffer.BufferCompressor;
+import org.apache.flink.runtime.io.network.buffer.BufferDecompressor;
+import org.apache.flink.runtime.io.network.buffer.BufferReceivedListener;
 import org.apache.flink.runtime.io.network.buffer.FreeingBufferRecycler;
 import org.apache.flink.runtime.io.network.buffer.NetworkBuffer;
+import org.apache.flink.runtime.io.network.partition.consumer.InputChannelBuilder;
+import org.apache.flink.runtime.io.network.partition.consumer.RemoteInputChannel;
+import org.apache.flink.runtime.io.network.partition.consumer.SingleInputGate;
+import org.apache.flink.runtime.io.network.partition.consumer.SingleInputGateBuilder;
 import org.apache.flink.runtime.jobgraph.OperatorID;
 import org.apache.flink.runtime.state.memory.NonPersistentMetadataCheckpointStorageLocation;
 import org.apache.flink.util.function.BiFunctionWithException;
@@ -89,6 +98,79 @@ public class ChannelPersistenceITCase {
 		));
 	}
 
+	/**
+	 * Tests that the in-flight data of a channel which receives compressed buffers is restored uncompressed, both
+	 * for the buffers spilled when the checkpoint is triggered and for the buffers received before the barrier.
+	 */
+	@Test
+	public void testReadWrittenCompressedInflightData() throws Exception {
+		long checkpointId = 1L;
+		int bufferSize = 1024;
+		String compressionCodec = "LZ4";
+		BufferCompressor compressor = new BufferCompressor(bufferSize, compressionCodec);
+		BufferDecompressor decompressor = new BufferDecompressor(bufferSize, compressionCodec);
+
+		byte[] spilledData = compressibleBytes(bufferSize, 0);
+		byte[] receivedData = compressibleBytes(bufferSize, bufferSize);
+
+		ChannelStateWriteResult handles;
+		InputChannelInfo inputChannelInfo;
+		try (SingleInputGate inputGate = new SingleInputGateBuilder().setBufferDecompressor(decompressor).build();
+				ChannelStateWriterImpl writer = new ChannelStateWriterImpl("test", getStreamFactoryFactory(bufferSize * 4))) {
+			RemoteInputChannel inputChannel = InputChannelBuilder.newBuilder()
+				.setConnectionManager(new TestingConnectionManager())
+				.setNetworkBuffersPerChannel(0)
+				.buildRemoteChannel(inputGate);
+			inputGate.setInputChannels(inputChannel);
+			inputChannelInfo = inputChannel.getChannelInfo();
+			inputGate.registerBufferReceivedListener(new BufferReceivedListener() {
+				@Override
+				public void notifyBufferReceived(Buffer buffer, InputChannelInfo channelInfo) {
+					writer.addInputData(checkpointId, channelInfo, SEQUENCE_NUMBER_UNKNOWN, ofElements(Buffer::recycleBuffer, buffer));
+				}
+
+				@Override
+				public void notifyBarrierReceived(CheckpointBarrier barrier, InputChannelInfo channelInfo) {
+				}
+			});
+
+			writer.open();
+			writer.start(checkpointId, new CheckpointOptions(CHECKPOINT, new CheckpointStorageLocationReference("poly".getBytes())));
+
+			inputChannel.onBuffer(compressedBuffer(compressor, spilledData), 0, 0);
+			inputChannel.spillInflightBuffers(checkpointId, writer);
+			inputChannel.onBuffer(compressedBuffer(compressor, receivedData), 1, 0);
+
+			writer.finishInput(checkpointId);
+			writer.finishOutput(checkpointId);
+			handles = writer.getAndRemoveWriteResult(checkpointId);
+			handles.getResultSubpartitionStateHandles().join();
+		}
+
+		byte[] expected = new byte[bufferSize * 2];
+		System.arraycopy(spilledData, 0, expected, 0, bufferSize);
+		System.arraycopy(receivedData, 0, expected, bufferSize, bufferSize);
+		assertArrayEquals(expected, read(
+			toTaskStateSnapshot(handles),
+			expected.length,
+			(reader, mem) -> reader.readInputData(inputChannelInfo, new NetworkBuffer(mem, FreeingBufferRecycler.INSTANCE))
+		));
+	}
+
+	private static byte[] compressibleBytes(int size, int offset) {
+		byte[] bytes = new byte[size];
+		for (int i = 0; i < size; i++) {
+			bytes[i] = (byte) ((offset + i) / 8);
+		}
+		return bytes;
+	}
+
+	private static Buffer compressedBuffer(BufferCompressor compressor, byte[] data) {
+		Buffer buffer = compressor.compressToOriginalBuffer(wrapWithBuffer(data));
+		checkState(buffer.isCompressed());
+		return buffer;
+	}
+
 	private byte[] randomBytes(int size) {
 		byte[] bytes = new byte[size];
 		RANDOM.nextBytes(bytes);
@@ -59,7 +59,7 @@ public class SerializationProxiesTest {
 			StateDescriptor.Type.VALUE, "c", namespaceSerializer, stateSerializer).snapshot());
 
 		KeyedBackendSerializationProxy<?> serializationProxy =
-				new KeyedBackendSerializationProxy<>(keySerializer, stateMetaInfoList, true);
+				new KeyedBackendSerializationProxy<>(keySerializer, stateMetaInfoList, new ZstdStreamCompressionDecorator(7));
 
 		byte[] serialized;
 		try (ByteArrayOutputStreamWithPos out = new ByteArrayOutputStreamWithPos()) {
@@ -75,6 +75,7 @@ public class SerializationProxiesTest {
 		}
 
 		Assert.assertTrue(serializationProxy.isUsingKeyGroupCompression());
+		Assert.assertEquals(new ZstdStreamCompressionDecorator(7), serializationProxy.getKeyGroupCompressionDecorator());
 		Assert.assertTrue(serializationProxy.getKeySerializerSnapshot() instanceof IntSerializer.IntSerializerSnapshot);
 
 		assertEqualStateMetaInfoSnapshotsLists(stateMetaInfoList, serializationProxy.getStateMetaInfoSnapshots());
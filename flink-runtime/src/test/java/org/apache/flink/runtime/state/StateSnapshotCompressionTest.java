@@ -21,6 +21,8 @@ package org.apache.flink.runtime.state;
 import org.apache.flink.api.common.ExecutionConfig;
 import org.apache.flink.api.common.state.ValueStateDescriptor;
 import org.apache.flink.api.common.typeutils.base.StringSerializer;
+import org.apache.flink.configuration.ExecutionOptions;
+import org.apache.flink.configuration.IllegalConfigurationException;
 import org.apache.flink.core.fs.CloseableRegistry;
 import org.apache.flink.runtime.checkpoint.CheckpointOptions;
 import org.apache.flink.runtime.checkpoint.StateObjectCollection;
@@ -77,11 +79,49 @@ public class StateSnapshotCompressionTest extends TestLogger {
 		}
 	}
 
+	@Test
+	public void testCompressionCodecConfiguration() {
+		Assert.assertEquals(
+			SnappyStreamCompressionDecorator.INSTANCE,
+			StreamCompressionDecorators.forCodec("snappy"));
+		Assert.assertEquals(
+			Lz4StreamCompressionDecorator.INSTANCE,
+			StreamCompressionDecorators.forCodec("LZ4"));
+		Assert.assertEquals(
+			new Lz4StreamCompressionDecorator(Lz4StreamCompressionDecorator.DEFAULT_HC_LEVEL),
+			StreamCompressionDecorators.forCodec("LZ4_HC"));
+		Assert.assertEquals(
+			new ZstdStreamCompressionDecorator(9),
+			StreamCompressionDecorators.forCodec("ZSTD:9"));
+
+		ExecutionConfig executionConfig = new ExecutionConfig();
+		executionConfig.setUseSnapshotCompression(true);
+		executionConfig.setSnapshotCompressionCodec("ZSTD");
+		Assert.assertEquals(
+			ZstdStreamCompressionDecorator.INSTANCE,
+			AbstractStateBackend.getCompressionDecorator(executionConfig));
+	}
+
+	@Test(expected = IllegalConfigurationException.class)
+	public void testUnsupportedCompressionLevel() {
+		StreamCompressionDecorators.forCodec("SNAPPY:3");
+	}
+
 	@Test
 	public void snapshotRestoreRoundtripWithCompression() throws Exception {
 		snapshotRestoreRoundtrip(true);
 	}
 
+	@Test
+	public void snapshotRestoreRoundtripWithLz4Compression() throws Exception {
+		snapshotRestoreRoundtrip(true, "LZ4_HC:3");
+	}
+
+	@Test
+	public void snapshotRestoreRoundtripWithZstdCompression() throws Exception {
+		snapshotRestoreRoundtrip(true, "ZSTD");
+	}
+
 	@Test
 	public void snapshotRestoreRoundtripUncompressed() throws Exception {
 		snapshotRestoreRoundtrip(false);
@@ -113,9 +153,14 @@ public class StateSnapshotCompressionTest extends TestLogger {
 	}
 
 	private void snapshotRestoreRoundtrip(boolean useCompression) throws Exception {
+		snapshotRestoreRoundtrip(useCompression, ExecutionOptions.SNAPSHOT_COMPRESSION_CODEC.defaultValue());
+	}
+
+	private void snapshotRestoreRoundtrip(boolean useCompression, String compressionCodec) throws Exception {
 
 		ExecutionConfig executionConfig = new ExecutionConfig();
 		executionConfig.setUseSnapshotCompression(useCompression);
+		executionConfig.setSnapshotCompressionCodec(compressionCodec);
 
 		KeyedStateHandle stateHandle;
 
@@ -0,0 +1,336 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.state.ListState;
+import org.apache.flink.api.common.state.ListStateDescriptor;
+import org.apache.flink.api.common.state.MapState;
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.api.common.typeutils.base.StringSerializer;
+import org.apache.flink.core.fs.CloseableRegistry;
+import org.apache.flink.runtime.checkpoint.CheckpointOptions;
+import org.apache.flink.runtime.concurrent.FutureUtils;
+import org.apache.flink.runtime.query.TaskKvStateRegistry;
+import org.apache.flink.runtime.state.AbstractStateBackend;
+import org.apache.flink.runtime.state.IncrementalRemoteKeyedStateHandle;
+import org.apache.flink.runtime.state.KeyGroupRange;
+import org.apache.flink.runtime.state.KeyGroupRangeAssignment;
+import org.apache.flink.runtime.state.KeyedStateHandle;
+import org.apache.flink.runtime.state.PlaceholderStreamStateHandle;
+import org.apache.flink.runtime.state.SharedStateRegistry;
+import org.apache.flink.runtime.state.StreamStateHandle;
+import org.apache.flink.runtime.state.TestLocalRecoveryConfig;
+import org.apache.flink.runtime.state.VoidNamespace;
+import org.apache.flink.runtime.state.VoidNamespaceSerializer;
+import org.apache.flink.runtime.state.memory.MemCheckpointStreamFactory;
+import org.apache.flink.runtime.state.ttl.TtlTimeProvider;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for the incremental snapshots of the {@link HeapKeyedStateBackend}.
+ */
+public class HeapIncrementalSnapshotTest extends TestLogger {
+
+	private static final KeyGroupRange KEY_GROUP_RANGE = new KeyGroupRange(0, 15);
+
+	private static final ValueStateDescriptor<String> STATE_DESCRIPTOR =
+		new ValueStateDescriptor<>("value", StringSerializer.INSTANCE);
+
+	private static final ListStateDescriptor<String> LIST_STATE_DESCRIPTOR =
+		new ListStateDescriptor<>("list", StringSerializer.INSTANCE);
+
+	private static final MapStateDescriptor<String, String> MAP_STATE_DESCRIPTOR =
+		new MapStateDescriptor<>("map", StringSerializer.INSTANCE, StringSerializer.INSTANCE);
+
+	@Test
+	public void testSnapshotOnlyWritesModifiedKeyGroups() throws Exception {
+		HeapKeyedStateBackend<Integer> backend = createKeyedBackend(10, Collections.emptyList());
+		SharedStateRegistry sharedStateRegistry = new SharedStateRegistry();
+
+		try {
+			for (int key = 0; key < 100; key++) {
+				update(backend, key, "first-" + key);
+			}
+
+			IncrementalRemoteKeyedStateHandle firstSnapshot = snapshot(backend, 1L);
+			firstSnapshot.registerSharedStates(sharedStateRegistry);
+			backend.notifyCheckpointComplete(1L);
+			assertEquals(1, firstSnapshot.getSharedState().size());
+
+			update(backend, 7, "second-7");
+
+			IncrementalRemoteKeyedStateHandle secondSnapshot = snapshot(backend, 2L);
+			assertEquals(2, secondSnapshot.getSharedState().size());
+			StreamStateHandle referencedFile = secondSnapshot.getSharedState().get(
+				firstSnapshot.getSharedState().keySet().iterator().next());
+			assertTrue(referencedFile instanceof PlaceholderStreamStateHandle);
+			assertTrue(secondSnapshot.getStateSize() < firstSnapshot.getStateSize());
+
+			secondSnapshot.registerSharedStates(sharedStateRegistry);
+			backend.notifyCheckpointComplete(2L);
+
+			HeapKeyedStateBackend<Integer> restoredBackend =
+				createKeyedBackend(10, Collections.singletonList(secondSnapshot));
+			try {
+				for (int key = 0; key < 100; key++) {
+					assertEquals(key == 7 ? "second-7" : "first-" + key, get(restoredBackend, key));
+				}
+			} finally {
+				restoredBackend.dispose();
+			}
+		} finally {
+			backend.dispose();
+			sharedStateRegistry.close();
+		}
+	}
+
+	@Test
+	public void testSnapshotDoesNotWriteReadKeyGroups() throws Exception {
+		HeapKeyedStateBackend<Integer> backend = createKeyedBackend(10, Collections.emptyList());
+
+		try {
+			for (int key = 0; key < 100; key++) {
+				update(backend, key, "first-" + key);
+			}
+			IncrementalRemoteKeyedStateHandle firstSnapshot = snapshot(backend, 1L);
+			backend.notifyCheckpointComplete(1L);
+
+			for (int key = 0; key < 100; key++) {
+				assertEquals("first-" + key, get(backend, key));
+			}
+
+			IncrementalRemoteKeyedStateHandle secondSnapshot = snapshot(backend, 2L);
+			assertEquals(firstSnapshot.getSharedState().keySet(), secondSnapshot.getSharedState().keySet());
+			for (StreamStateHandle referencedFile : secondSnapshot.getSharedState().values()) {
+				assertTrue(referencedFile instanceof PlaceholderStreamStateHandle);
+			}
+		} finally {
+			backend.dispose();
+		}
+	}
+
+	@Test
+	public void testSnapshotRewritesAllKeyGroupsWithTooManyFiles() throws Exception {
+		HeapKeyedStateBackend<Integer> backend = createKeyedBackend(2, Collections.emptyList());
+
+		try {
+			int firstKey = 0;
+			int secondKey = 1;
+			while (keyGroupOf(secondKey) == keyGroupOf(firstKey)) {
+				secondKey++;
+			}
+
+			for (int key = 0; key < 100; key++) {
+				update(backend, key, "first-" + key);
+			}
+			assertEquals(1, snapshot(backend, 1L).getSharedState().size());
+			backend.notifyCheckpointComplete(1L);
+
+			update(backend, firstKey, "second");
+			assertEquals(2, snapshot(backend, 2L).getSharedState().size());
+			backend.notifyCheckpointComplete(2L);
+
+			update(backend, secondKey, "third");
+			IncrementalRemoteKeyedStateHandle thirdSnapshot = snapshot(backend, 3L);
+			assertEquals(1, thirdSnapshot.getSharedState().size());
+			assertFalse(thirdSnapshot.getSharedState().values().iterator().next() instanceof PlaceholderStreamStateHandle);
+		} finally {
+			backend.dispose();
+		}
+	}
+
+	@Test
+	public void testListStateSnapshotOnlyWritesModifiedKeyGroups() throws Exception {
+		HeapKeyedStateBackend<Integer> backend = createKeyedBackend(10, Collections.emptyList());
+		SharedStateRegistry sharedStateRegistry = new SharedStateRegistry();
+
+		try {
+			for (int key = 0; key < 100; key++) {
+				getListState(backend, key).add("first-" + key);
+			}
+			IncrementalRemoteKeyedStateHandle firstSnapshot = snapshot(backend, 1L);
+			firstSnapshot.registerSharedStates(sharedStateRegistry);
+			backend.notifyCheckpointComplete(1L);
+
+			for (int key = 0; key < 100; key++) {
+				assertEquals(Collections.singletonList("first-" + key), getListState(backend, key).get());
+			}
+			getListState(backend, 7).add("second-7");
+
+			IncrementalRemoteKeyedStateHandle secondSnapshot = snapshot(backend, 2L);
+			assertOnlyOneKeyGroupWritten(firstSnapshot, secondSnapshot);
+			secondSnapshot.registerSharedStates(sharedStateRegistry);
+			backend.notifyCheckpointComplete(2L);
+
+			HeapKeyedStateBackend<Integer> restoredBackend =
+				createKeyedBackend(10, Collections.singletonList(secondSnapshot));
+			try {
+				for (int key = 0; key < 100; key++) {
+					assertEquals(
+						key == 7 ? Arrays.asList("first-7", "second-7") : Collections.singletonList("first-" + key),
+						getListState(restoredBackend, key).get());
+				}
+			} finally {
+				restoredBackend.dispose();
+			}
+		} finally {
+			backend.dispose();
+			sharedStateRegistry.close();
+		}
+	}
+
+	@Test
+	public void testMapStateSnapshotOnlyWritesModifiedKeyGroups() throws Exception {
+		HeapKeyedStateBackend<Integer> backend = createKeyedBackend(10, Collections.emptyList());
+		SharedStateRegistry sharedStateRegistry = new SharedStateRegistry();
+
+		try {
+			for (int key = 0; key < 100; key++) {
+				MapState<String, String> state = getMapState(backend, key);
+				state.put("a", "first-" + key);
+				state.put("b", "first-" + key);
+			}
+			IncrementalRemoteKeyedStateHandle firstSnapshot = snapshot(backend, 1L);
+			firstSnapshot.registerSharedStates(sharedStateRegistry);
+			backend.notifyCheckpointComplete(1L);
+
+			for (int key = 0; key < 100; key++) {
+				MapState<String, String> state = getMapState(backend, key);
+				assertEquals("first-" + key, state.get("a"));
+				assertTrue(state.contains("b"));
+				assertFalse(state.isEmpty());
+			}
+			MapState<String, String> modifiedState = getMapState(backend, 7);
+			modifiedState.put("a", "second-7");
+			modifiedState.remove("b");
+
+			IncrementalRemoteKeyedStateHandle secondSnapshot = snapshot(backend, 2L);
+			assertOnlyOneKeyGroupWritten(firstSnapshot, secondSnapshot);
+			secondSnapshot.registerSharedStates(sharedStateRegistry);
+			backend.notifyCheckpointComplete(2L);
+
+			HeapKeyedStateBackend<Integer> restoredBackend =
+				createKeyedBackend(10, Collections.singletonList(secondSnapshot));
+			try {
+				for (int key = 0; key < 100; key++) {
+					MapState<String, String> state = getMapState(restoredBackend, key);
+					assertEquals(key == 7 ? "second-7" : "first-" + key, state.get("a"));
+					assertEquals(key != 7, state.contains("b"));
+				}
+			} finally {
+				restoredBackend.dispose();
+			}
+		} finally {
+			backend.dispose();
+			sharedStateRegistry.close();
+		}
+	}
+
+	/**
+	 * Asserts that the second snapshot references the single file of the first snapshot and writes one new file.
+	 */
+	private static void assertOnlyOneKeyGroupWritten(
+		IncrementalRemoteKeyedStateHandle firstSnapshot,
+		IncrementalRemoteKeyedStateHandle secondSnapshot) {
+
+		assertEquals(1, firstSnapshot.getSharedState().size());
+		assertEquals(2, secondSnapshot.getSharedState().size());
+		StreamStateHandle referencedFile = secondSnapshot.getSharedState().get(
+			firstSnapshot.getSharedState().keySet().iterator().next());
+		assertTrue(referencedFile instanceof PlaceholderStreamStateHandle);
+	}
+
+	private static int keyGroupOf(int key) {
+		return KeyGroupRangeAssignment.assignToKeyGroup(key, KEY_GROUP_RANGE.getNumberOfKeyGroups());
+	}
+
+	private static void update(HeapKeyedStateBackend<Integer> backend, int key, String value) throws Exception {
+		backend.setCurrentKey(key);
+		getState(backend).update(value);
+	}
+
+	private static String get(HeapKeyedStateBackend<Integer> backend, int key) throws Exception {
+		backend.setCurrentKey(key);
+		return getState(backend).value();
+	}
+
+	private static ValueState<String> getState(HeapKeyedStateBackend<Integer> backend) throws Exception {
+		return backend.getPartitionedState(VoidNamespace.INSTANCE, VoidNamespaceSerializer.INSTANCE, STATE_DESCRIPTOR);
+	}
+
+	private static ListState<String> getListState(HeapKeyedStateBackend<Integer> backend, int key) throws Exception {
+		backend.setCurrentKey(key);
+		return backend.getPartitionedState(VoidNamespace.INSTANCE, VoidNamespaceSerializer.INSTANCE, LIST_STATE_DESCRIPTOR);
+	}
+
+	private static MapState<String, String> getMapState(HeapKeyedStateBackend<Integer> backend, int key) throws Exception {
+		backend.setCurrentKey(key);
+		return backend.getPartitionedState(VoidNamespace.INSTANCE, VoidNamespaceSerializer.INSTANCE, MAP_STATE_DESCRIPTOR);
+	}
+
+	private static IncrementalRemoteKeyedStateHandle snapshot(
+		HeapKeyedStateBackend<Integer> backend,
+		long checkpointId) throws Exception {
+
+		KeyedStateHandle stateHandle = FutureUtils.runIfNotDoneAndGet(backend.snapshot(
+			checkpointId,
+			checkpointId,
+			new MemCheckpointStreamFactory(4 * 1024 * 1024),
+			CheckpointOptions.forCheckpointWithDefaultLocation())).getJobManagerOwnedSnapshot();
+		return (IncrementalRemoteKeyedStateHandle) stateHandle;
+	}
+
+	private static HeapKeyedStateBackend<Integer> createKeyedBackend(
+		int maxIncrementalCheckpointFiles,
+		Collection<KeyedStateHandle> stateHandles) throws Exception {
+
+		ExecutionConfig executionConfig = new ExecutionConfig();
+		return new HeapKeyedStateBackendBuilder<>(
+			mock(TaskKvStateRegistry.class),
+			IntSerializer.INSTANCE,
+			HeapIncrementalSnapshotTest.class.getClassLoader(),
+			KEY_GROUP_RANGE.getNumberOfKeyGroups(),
+			KEY_GROUP_RANGE,
+			executionConfig,
+			TtlTimeProvider.DEFAULT,
+			stateHandles,
+			AbstractStateBackend.getCompressionDecorator(executionConfig),
+			TestLocalRecoveryConfig.disabled(),
+			new HeapPriorityQueueSetFactory(KEY_GROUP_RANGE, KEY_GROUP_RANGE.getNumberOfKeyGroups(), 128),
+			true,
+			new CloseableRegistry())
+			.setIncrementalCheckpoints(true, maxIncrementalCheckpointFiles)
+			.build();
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.runtime.state.InternalPriorityQueueTestBase;
+import org.apache.flink.runtime.state.KeyGroupRangeAssignment;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Test for {@link HeapTimingWheelPriorityQueueSet}.
+ */
+public class HeapTimingWheelPriorityQueueSetTest extends InternalPriorityQueueTestBase {
+
+	/** Splits the range of random priorities into 16 buckets. */
+	private static final long TICK = 1L << 60;
+
+	@Override
+	protected HeapTimingWheelPriorityQueueSet<TestElement> newPriorityQueue(int initialCapacity) {
+		return newPriorityQueue(initialCapacity, TICK);
+	}
+
+	private static HeapTimingWheelPriorityQueueSet<TestElement> newPriorityQueue(int initialCapacity, long tick) {
+		return new HeapTimingWheelPriorityQueueSet<>(
+			TEST_ELEMENT_PRIORITY_COMPARATOR,
+			KEY_EXTRACTOR_FUNCTION,
+			TestElement::getPriority,
+			tick,
+			initialCapacity,
+			KEY_GROUP_RANGE,
+			KEY_GROUP_RANGE.getNumberOfKeyGroups());
+	}
+
+	@Override
+	protected boolean testSetSemanticsAgainstDuplicateElements() {
+		return true;
+	}
+
+	@Test
+	public void testPollFromBucketsInOrder() {
+		HeapTimingWheelPriorityQueueSet<TestElement> priorityQueue = newPriorityQueue(1, 10L);
+
+		List<TestElement> elements = Arrays.asList(
+			new TestElement(1L, 25L),
+			new TestElement(2L, -3L),
+			new TestElement(3L, 21L),
+			new TestElement(4L, 7L),
+			new TestElement(5L, 20L));
+		priorityQueue.addAll(elements);
+
+		Assert.assertEquals(new TestElement(2L, -3L), priorityQueue.poll());
+		Assert.assertEquals(new TestElement(4L, 7L), priorityQueue.poll());
+		Assert.assertEquals(new TestElement(5L, 20L), priorityQueue.peek());
+
+		// elements of earlier buckets are added to the active bucket
+		Assert.assertTrue(priorityQueue.add(new TestElement(6L, 2L)));
+		Assert.assertTrue(priorityQueue.remove(new TestElement(6L, 2L)));
+		Assert.assertFalse(priorityQueue.add(new TestElement(7L, 33L)));
+		Assert.assertFalse(priorityQueue.remove(new TestElement(1L, 25L)));
+
+		Assert.assertEquals(new TestElement(5L, 20L), priorityQueue.poll());
+		Assert.assertEquals(new TestElement(3L, 21L), priorityQueue.poll());
+		Assert.assertEquals(new TestElement(7L, 33L), priorityQueue.poll());
+		Assert.assertNull(priorityQueue.poll());
+		Assert.assertTrue(priorityQueue.isEmpty());
+	}
+
+	@Test
+	public void testKeyGroupsAndToArray() {
+		HeapTimingWheelPriorityQueueSet<TestElement> priorityQueue = newPriorityQueue(1, 10L);
+
+		int testSize = 20;
+		HashSet<TestElement> checkSet = new HashSet<>(testSize);
+		insertRandomElements(priorityQueue, checkSet, testSize);
+		priorityQueue.peek();
+
+		HashSet<TestElement> elementsByKeyGroup = new HashSet<>(testSize);
+		for (int keyGroup : KEY_GROUP_RANGE) {
+			for (TestElement element : priorityQueue.getSubsetForKeyGroup(keyGroup)) {
+				Assert.assertEquals(
+					keyGroup,
+					KeyGroupRangeAssignment.assignToKeyGroup(element.getKey(), KEY_GROUP_RANGE.getNumberOfKeyGroups()));
+				Assert.assertTrue(elementsByKeyGroup.add(element));
+			}
+		}
+		Assert.assertEquals(checkSet, elementsByKeyGroup);
+
+		TestElement[] array = priorityQueue.toArray(new TestElement[0]);
+		Assert.assertEquals(checkSet, new HashSet<>(Arrays.asList(array)));
+
+		BitSet modifiedKeyGroups = new BitSet();
+		priorityQueue.drainModifiedKeyGroups(modifiedKeyGroups);
+		Assert.assertFalse(modifiedKeyGroups.isEmpty());
+
+		priorityQueue.clear();
+		Assert.assertTrue(priorityQueue.isEmpty());
+		Assert.assertNull(priorityQueue.peek());
+		Assert.assertEquals(0, priorityQueue.toArray(new TestElement[0]).length);
+	}
+
+	@Test
+	public void testFactoryOnlyUsesTimingWheelForTimestampedElements() {
+		HeapPriorityQueueSetFactory factory =
+			new HeapPriorityQueueSetFactory(KEY_GROUP_RANGE, KEY_GROUP_RANGE.getNumberOfKeyGroups(), 1, 10L);
+
+		Assert.assertFalse(
+			factory.create("plain", TestElementSerializer.INSTANCE) instanceof HeapTimingWheelPriorityQueueSet);
+		Assert.assertTrue(
+			factory.create("timestamped", new TimestampedTestElementSerializer()) instanceof HeapTimingWheelPriorityQueueSet);
+	}
+
+	private static final class TimestampedTestElementSerializer
+		extends TestElementSerializer implements TimestampedHeapPriorityQueueElementSerializer {
+
+		private static final long serialVersionUID = 1L;
+	}
+}
@@ -1250,6 +1250,15 @@ public final class CopyOnWriteSkipListStateMap<K, N, S> extends StateMap<K, N, S
 		}
 	}
 
+	/**
+	 * Returns whether there are snapshots of this map which have not been released yet.
+	 */
+	boolean hasUnreleasedSnapshots() {
+		synchronized (snapshotVersions) {
+			return !snapshotVersions.isEmpty();
+		}
+	}
+
 	LevelIndexHeader getLevelIndexHeader() {
 		return levelIndexHeader;
 	}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * Monitors the heap usage and the time spent in garbage collection to decide whether state should be spilled
+ * off the heap. The heap usage is measured after the last garbage collection of each memory pool, so that
+ * garbage which is about to be collected does not count.
+ *
+ * <p>The status is sampled lazily: {@link #isUnderPressure()} refreshes it at most once per check interval, so
+ * that it can be called on the path of state accesses. This class is not thread safe, it is used by the task
+ * thread which owns the backend.
+ */
+class HeapStatusMonitor {
+
+	private final long checkIntervalNanos;
+
+	/** Fraction of the maximum heap which may be used after garbage collection. */
+	private final float heapUsageThreshold;
+
+	/** Fraction of the wall clock time which may be spent in garbage collection. */
+	private final float gcTimeThreshold;
+
+	private final long maxHeapMemory;
+
+	private final List<MemoryPoolMXBean> heapMemoryPools;
+
+	private final List<GarbageCollectorMXBean> garbageCollectors;
+
+	private long lastCheckNanos;
+
+	private long lastGcTimeMillis;
+
+	private boolean underPressure;
+
+	HeapStatusMonitor(long checkIntervalMillis, float heapUsageThreshold, float gcTimeThreshold) {
+		checkArgument(checkIntervalMillis >= 0, "Check interval must not be negative.");
+		checkArgument(heapUsageThreshold > 0 && heapUsageThreshold <= 1, "Heap usage threshold must be in (0, 1].");
+		checkArgument(gcTimeThreshold > 0 && gcTimeThreshold <= 1, "GC time threshold must be in (0, 1].");
+		this.checkIntervalNanos = TimeUnit.MILLISECONDS.toNanos(checkIntervalMillis);
+		this.heapUsageThreshold = heapUsageThreshold;
+		this.gcTimeThreshold = gcTimeThreshold;
+
+		long maxHeap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax();
+		this.maxHeapMemory = maxHeap > 0 ? maxHeap : Runtime.getRuntime().maxMemory();
+		this.heapMemoryPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+			.filter(pool -> pool.getType() == MemoryType.HEAP)
+			.collect(Collectors.toList());
+		this.garbageCollectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+		this.lastCheckNanos = System.nanoTime();
+		this.lastGcTimeMillis = getTotalGcTimeMillis();
+	}
+
+	/**
+	 * Returns whether the heap is under pressure, i.e. too much of it is used even after garbage collection, or
+	 * too much time is spent in garbage collection.
+	 */
+	boolean isUnderPressure() {
+		long now = System.nanoTime();
+		if (now - lastCheckNanos >= checkIntervalNanos) {
+			long gcTimeMillis = getTotalGcTimeMillis();
+			double gcTimeRatio = now > lastCheckNanos ?
+				TimeUnit.MILLISECONDS.toNanos(gcTimeMillis - lastGcTimeMillis) / (double) (now - lastCheckNanos) : 0.0;
+			underPressure = getHeapUsageRatio() > heapUsageThreshold || gcTimeRatio > gcTimeThreshold;
+			lastCheckNanos = now;
+			lastGcTimeMillis = gcTimeMillis;
+		}
+		return underPressure;
+	}
+
+	/**
+	 * Returns the fraction of the maximum heap which was used after the last garbage collection.
+	 */
+	double getHeapUsageRatio() {
+		long used = 0L;
+		for (MemoryPoolMXBean pool : heapMemoryPools) {
+			MemoryUsage usage = pool.getCollectionUsage();
+			if (usage == null) {
+				usage = pool.getUsage();
+			}
+			used += usage.getUsed();
+		}
+		return used / (double) maxHeapMemory;
+	}
+
+	private long getTotalGcTimeMillis() {
+		long total = 0L;
+		for (GarbageCollectorMXBean garbageCollector : garbageCollectors) {
+			total += Math.max(0L, garbageCollector.getCollectionTime());
+		}
+		return total;
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.fs.CloseableRegistry;
+import org.apache.flink.runtime.memory.MemoryManager;
+import org.apache.flink.runtime.query.TaskKvStateRegistry;
+import org.apache.flink.runtime.state.BackendBuildingException;
+import org.apache.flink.runtime.state.KeyGroupRange;
+import org.apache.flink.runtime.state.KeyedStateHandle;
+import org.apache.flink.runtime.state.LocalRecoveryConfig;
+import org.apache.flink.runtime.state.StreamCompressionDecorator;
+import org.apache.flink.runtime.state.heap.space.Allocator;
+import org.apache.flink.runtime.state.heap.space.DirectBucketAllocator;
+import org.apache.flink.runtime.state.ttl.TtlTimeProvider;
+import org.apache.flink.util.IOUtils;
+
+import javax.annotation.Nonnull;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Builder class for a {@link HeapKeyedStateBackend} whose state tables spill cold key-groups off the heap.
+ * Snapshots are always taken asynchronously.
+ *
+ * @param <K> The data type that the key serializer serializes.
+ */
+public class SpillableKeyedStateBackendBuilder<K> extends HeapKeyedStateBackendBuilder<K> {
+
+	private final int chunkSize;
+
+	private final MemoryManager memoryManager;
+
+	private final long checkIntervalMillis;
+
+	private final float heapUsageThreshold;
+
+	private final float gcTimeThreshold;
+
+	public SpillableKeyedStateBackendBuilder(
+		TaskKvStateRegistry kvStateRegistry,
+		TypeSerializer<K> keySerializer,
+		ClassLoader userCodeClassLoader,
+		int numberOfKeyGroups,
+		KeyGroupRange keyGroupRange,
+		ExecutionConfig executionConfig,
+		TtlTimeProvider ttlTimeProvider,
+		@Nonnull Collection<KeyedStateHandle> stateHandles,
+		StreamCompressionDecorator keyGroupCompressionDecorator,
+		LocalRecoveryConfig localRecoveryConfig,
+		HeapPriorityQueueSetFactory priorityQueueSetFactory,
+		CloseableRegistry cancelStreamRegistry,
+		int chunkSize,
+		MemoryManager memoryManager,
+		long checkIntervalMillis,
+		float heapUsageThreshold,
+		float gcTimeThreshold) {
+		super(
+			kvStateRegistry,
+			keySerializer,
+			userCodeClassLoader,
+			numberOfKeyGroups,
+			keyGroupRange,
+			executionConfig,
+			ttlTimeProvider,
+			stateHandles,
+			keyGroupCompressionDecorator,
+			localRecoveryConfig,
+			priorityQueueSetFactory,
+			true,
+			cancelStreamRegistry);
+		this.chunkSize = chunkSize;
+		this.memoryManager = memoryManager;
+		this.checkIntervalMillis = checkIntervalMillis;
+		this.heapUsageThreshold = heapUsageThreshold;
+		this.gcTimeThreshold = gcTimeThreshold;
+	}
+
+	@Override
+	SnapshotStrategySynchronicityBehavior<K> createSynchronicityBehavior(
+		boolean asynchronousSnapshots,
+		CloseableRegistry cancelStreamRegistryForBackend) throws BackendBuildingException {
+		HeapStatusMonitor heapStatusMonitor = new HeapStatusMonitor(checkIntervalMillis, heapUsageThreshold, gcTimeThreshold);
+		Allocator spaceAllocator = new DirectBucketAllocator(chunkSize, memoryManager);
+		try {
+			// the spilled state is released together with the backend
+			cancelStreamRegistryForBackend.registerCloseable(spaceAllocator);
+		} catch (IOException e) {
+			IOUtils.closeQuietly(spaceAllocator);
+			throw new BackendBuildingException("Failed to register the space allocator of the spillable backend.", e);
+		}
+		return new SpillableSnapshotStrategySynchronicityBehavior<>(spaceAllocator, heapStatusMonitor);
+	}
+}
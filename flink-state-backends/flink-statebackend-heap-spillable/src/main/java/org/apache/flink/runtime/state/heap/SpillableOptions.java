@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.configuration.ConfigOption;
+import org.apache.flink.configuration.MemorySize;
+
+import java.time.Duration;
+
+import static org.apache.flink.configuration.ConfigOptions.key;
+
+/**
+ * Configuration options for the {@link SpillableStateBackend}.
+ */
+public class SpillableOptions {
+
+	/** Fraction of the heap which may be used after garbage collection before state is spilled. */
+	public static final ConfigOption<Float> HEAP_USAGE_THRESHOLD = key("state.backend.spillable.heap-usage-threshold")
+		.floatType()
+		.defaultValue(0.7f)
+		.withDescription("Fraction of the maximum JVM heap which may be used after garbage collection. When the " +
+			"heap usage is higher, the coldest key groups are spilled off the heap.");
+
+	/** Fraction of time which may be spent in garbage collection before state is spilled. */
+	public static final ConfigOption<Float> GC_TIME_THRESHOLD = key("state.backend.spillable.gc-time-threshold")
+		.floatType()
+		.defaultValue(0.2f)
+		.withDescription("Fraction of the time which may be spent in garbage collection. When more time is " +
+			"spent in garbage collection, the coldest key groups are spilled off the heap.");
+
+	/** Interval in which the heap status is checked. */
+	public static final ConfigOption<Duration> CHECK_INTERVAL = key("state.backend.spillable.check-interval")
+		.durationType()
+		.defaultValue(Duration.ofSeconds(1))
+		.withDescription("Interval in which the heap usage and the garbage collection time are checked.");
+
+	/** Size of the off-heap chunks which hold the spilled state. */
+	public static final ConfigOption<MemorySize> CHUNK_SIZE = key("state.backend.spillable.chunk-size")
+		.memoryType()
+		.defaultValue(MemorySize.parse("64mb"))
+		.withDescription("Size of the off-heap chunks which are allocated to hold the spilled key groups. " +
+			"The chunks are reserved from the managed memory of the slot, the key groups stay on the heap once " +
+			"it is exhausted. The size must be a multiple of 1 mb.");
+}
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.api.common.JobID;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.configuration.IllegalConfigurationException;
+import org.apache.flink.configuration.ReadableConfig;
+import org.apache.flink.core.fs.CloseableRegistry;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.runtime.execution.Environment;
+import org.apache.flink.runtime.query.TaskKvStateRegistry;
+import org.apache.flink.runtime.state.AbstractKeyedStateBackend;
+import org.apache.flink.runtime.state.AbstractStateBackend;
+import org.apache.flink.runtime.state.BackendBuildingException;
+import org.apache.flink.runtime.state.CheckpointStorage;
+import org.apache.flink.runtime.state.CompletedCheckpointStorageLocation;
+import org.apache.flink.runtime.state.ConfigurableStateBackend;
+import org.apache.flink.runtime.state.DefaultOperatorStateBackendBuilder;
+import org.apache.flink.runtime.state.KeyGroupRange;
+import org.apache.flink.runtime.state.KeyedStateHandle;
+import org.apache.flink.runtime.state.OperatorStateBackend;
+import org.apache.flink.runtime.state.OperatorStateHandle;
+import org.apache.flink.runtime.state.StateBackend;
+import org.apache.flink.runtime.state.filesystem.FsStateBackend;
+import org.apache.flink.runtime.state.heap.space.Constants;
+import org.apache.flink.runtime.state.ttl.TtlTimeProvider;
+
+import javax.annotation.Nonnull;
+
+import java.io.IOException;
+import java.util.Collection;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * A {@link StateBackend} which holds the keyed state in objects on the Java heap like the {@link FsStateBackend},
+ * but spills cold key groups off the heap when the heap runs full or garbage collection takes too much time.
+ * Spilled key groups are kept in serialized form in the managed memory of the slot and are loaded back to the
+ * heap when they are accessed. Once the managed memory is exhausted, the key groups stay on the heap.
+ *
+ * <p>Snapshots have the same format as the snapshots of the {@link FsStateBackend}, they are always taken
+ * asynchronously. The checkpoint data streams are written by the given checkpoint stream backend.
+ */
+@PublicEvolving
+public class SpillableStateBackend extends AbstractStateBackend implements ConfigurableStateBackend {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The state backend that we use for creating checkpoint streams. */
+	private final StateBackend checkpointStreamBackend;
+
+	private final float heapUsageThreshold;
+
+	private final float gcTimeThreshold;
+
+	private final long checkIntervalMillis;
+
+	private final int chunkSize;
+
+	/**
+	 * Creates a new {@code SpillableStateBackend} that stores its checkpoint data in the file system and location
+	 * defined by the given URI.
+	 *
+	 * @param checkpointDataUri The URI describing the filesystem and path to the checkpoint data directory.
+	 */
+	public SpillableStateBackend(String checkpointDataUri) {
+		this(new FsStateBackend(checkpointDataUri));
+	}
+
+	/**
+	 * Creates a new {@code SpillableStateBackend} that uses the given state backend to store its checkpoint data
+	 * streams.
+	 *
+	 * @param checkpointStreamBackend The backend write the checkpoint streams to.
+	 */
+	public SpillableStateBackend(StateBackend checkpointStreamBackend) {
+		this(checkpointStreamBackend, new Configuration());
+	}
+
+	private SpillableStateBackend(StateBackend checkpointStreamBackend, ReadableConfig config) {
+		this.checkpointStreamBackend = checkNotNull(checkpointStreamBackend);
+
+		this.heapUsageThreshold = config.get(SpillableOptions.HEAP_USAGE_THRESHOLD);
+		this.gcTimeThreshold = config.get(SpillableOptions.GC_TIME_THRESHOLD);
+		this.checkIntervalMillis = config.get(SpillableOptions.CHECK_INTERVAL).toMillis();
+		long chunkSize = config.get(SpillableOptions.CHUNK_SIZE).getBytes();
+
+		if (heapUsageThreshold <= 0 || heapUsageThreshold > 1) {
+			throw new IllegalConfigurationException("Invalid value for " +
+				SpillableOptions.HEAP_USAGE_THRESHOLD.key() + ": " + heapUsageThreshold + ". Must be in (0, 1].");
+		}
+		if (gcTimeThreshold <= 0 || gcTimeThreshold > 1) {
+			throw new IllegalConfigurationException("Invalid value for " +
+				SpillableOptions.GC_TIME_THRESHOLD.key() + ": " + gcTimeThreshold + ". Must be in (0, 1].");
+		}
+		if (chunkSize <= 0 || chunkSize > Integer.MAX_VALUE || chunkSize % Constants.BUCKET_SIZE != 0) {
+			throw new IllegalConfigurationException("Invalid value for " +
+				SpillableOptions.CHUNK_SIZE.key() + ": " + chunkSize + ". Must be a multiple of 1 mb below 2 gb.");
+		}
+		this.chunkSize = (int) chunkSize;
+	}
+
+	// ------------------------------------------------------------------------
+	//  Reconfiguration
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Creates a copy of this state backend that uses the values defined in the configuration.
+	 *
+	 * @param config The configuration.
+	 * @param classLoader The class loader.
+	 * @return The re-configured variant of the state backend
+	 */
+	@Override
+	public SpillableStateBackend configure(ReadableConfig config, ClassLoader classLoader) {
+		final StateBackend streamBackend = checkpointStreamBackend instanceof ConfigurableStateBackend ?
+			((ConfigurableStateBackend) checkpointStreamBackend).configure(config, classLoader) :
+			checkpointStreamBackend;
+		return new SpillableStateBackend(streamBackend, config);
+	}
+
+	/**
+	 * Gets the state backend that this state backend uses to persist its bytes to.
+	 */
+	public StateBackend getCheckpointBackend() {
+		return checkpointStreamBackend;
+	}
+
+	// ------------------------------------------------------------------------
+	//  Checkpoint initialization and persistent storage
+	// ------------------------------------------------------------------------
+
+	@Override
+	public CompletedCheckpointStorageLocation resolveCheckpoint(String pointer) throws IOException {
+		return checkpointStreamBackend.resolveCheckpoint(pointer);
+	}
+
+	@Override
+	public CheckpointStorage createCheckpointStorage(JobID jobId) throws IOException {
+		return checkpointStreamBackend.createCheckpointStorage(jobId);
+	}
+
+	// ------------------------------------------------------------------------
+	//  State holding data structures
+	// ------------------------------------------------------------------------
+
+	@Override
+	public <K> AbstractKeyedStateBackend<K> createKeyedStateBackend(
+		Environment env,
+		JobID jobID,
+		String operatorIdentifier,
+		TypeSerializer<K> keySerializer,
+		int numberOfKeyGroups,
+		KeyGroupRange keyGroupRange,
+		TaskKvStateRegistry kvStateRegistry,
+		TtlTimeProvider ttlTimeProvider,
+		MetricGroup metricGroup,
+		@Nonnull Collection<KeyedStateHandle> stateHandles,
+		CloseableRegistry cancelStreamRegistry) throws BackendBuildingException {
+
+		HeapPriorityQueueSetFactory priorityQueueSetFactory =
+			new HeapPriorityQueueSetFactory(keyGroupRange, numberOfKeyGroups, 128);
+
+		return new SpillableKeyedStateBackendBuilder<>(
+			kvStateRegistry,
+			keySerializer,
+			env.getUserClassLoader(),
+			numberOfKeyGroups,
+			keyGroupRange,
+			env.getExecutionConfig(),
+			ttlTimeProvider,
+			stateHandles,
+			getCompressionDecorator(env.getExecutionConfig()),
+			env.getTaskStateManager().createLocalRecoveryConfig(),
+			priorityQueueSetFactory,
+			cancelStreamRegistry,
+			chunkSize,
+			env.getMemoryManager(),
+			checkIntervalMillis,
+			heapUsageThreshold,
+			gcTimeThreshold).build();
+	}
+
+	@Override
+	public OperatorStateBackend createOperatorStateBackend(
+		Environment env,
+		String operatorIdentifier,
+		@Nonnull Collection<OperatorStateHandle> stateHandles,
+		CloseableRegistry cancelStreamRegistry) throws Exception {
+
+		return new DefaultOperatorStateBackendBuilder(
+			env.getUserClassLoader(),
+			env.getExecutionConfig(),
+			true,
+			stateHandles,
+			cancelStreamRegistry).build();
+	}
+
+	@Override
+	public String toString() {
+		return "SpillableStateBackend{" +
+			"checkpointStreamBackend=" + checkpointStreamBackend +
+			", heapUsageThreshold=" + heapUsageThreshold +
+			", gcTimeThreshold=" + gcTimeThreshold +
+			", checkIntervalMillis=" + checkIntervalMillis +
+			", chunkSize=" + chunkSize +
+			'}';
+	}
+}
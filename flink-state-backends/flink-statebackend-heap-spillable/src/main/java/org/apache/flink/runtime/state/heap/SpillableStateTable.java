@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.runtime.state.RegisteredKeyValueStateBackendMetaInfo;
+import org.apache.flink.runtime.state.StateEntry;
+import org.apache.flink.runtime.state.heap.space.Allocator;
+import org.apache.flink.util.Preconditions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.apache.flink.runtime.state.heap.CopyOnWriteSkipListStateMap.DEFAULT_LOGICAL_REMOVED_KEYS_RATIO;
+import static org.apache.flink.runtime.state.heap.CopyOnWriteSkipListStateMap.DEFAULT_MAX_KEYS_TO_DELETE_ONE_TIME;
+
+/**
+ * This implementation of {@link StateTable} keeps hot key-groups in {@link CopyOnWriteStateMap}s on the heap and
+ * spills cold key-groups to {@link CopyOnWriteSkipListStateMap}s, which store the serialized state in space from an
+ * {@link Allocator}. Both maps support asynchronous snapshots and write the same format as the
+ * {@link CopyOnWriteStateTable}.
+ *
+ * <p>Every key-group access is counted. When the {@link HeapStatusMonitor} reports pressure on the heap, the
+ * key-group with the least recent accesses is spilled. Heap states modify the returned state objects in place, so a
+ * spilled key-group which is accessed again is loaded back to the heap before it is handed out.
+ *
+ * <p>To not move the same key-groups back and forth, only key-groups which have not been accessed since the
+ * previous heap check are spilled, and a key-group which has been loaded back stays on the heap for
+ * {@link #MIN_HEAP_CHECKS_AFTER_LOAD} heap checks.
+ *
+ * @param <K> type of key.
+ * @param <N> type of namespace.
+ * @param <S> type of state.
+ */
+public class SpillableStateTable<K, N, S> extends StateTable<K, N, S> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SpillableStateTable.class);
+
+	/** Number of key-group accesses between two checks of the heap status. */
+	@VisibleForTesting
+	static final int ACCESSES_PER_HEAP_CHECK = 1024;
+
+	/** Number of heap checks after loading a key-group back to the heap before it may be spilled again. */
+	@VisibleForTesting
+	static final int MIN_HEAP_CHECKS_AFTER_LOAD = 8;
+
+	private final Allocator spaceAllocator;
+
+	private final HeapStatusMonitor heapStatusMonitor;
+
+	/** Accesses to each key-group, halved on every heap check so that old accesses fade out. */
+	private final int[] accessCounts;
+
+	/** Spilled maps which were loaded back to the heap, but are still read by a running snapshot. */
+	private final List<CopyOnWriteSkipListStateMap<K, N, S>> retiredStateMaps;
+
+	/** The heap check during which each key-group has been accessed last. */
+	private final int[] lastAccessedChecks;
+
+	/** The heap check during which each key-group has been loaded back to the heap last. */
+	private final int[] lastLoadedChecks;
+
+	private int numAccessesSinceHeapCheck;
+
+	private int numHeapChecks;
+
+	/**
+	 * Constructs a new {@code SpillableStateTable}.
+	 *
+	 * @param keyContext        the key context.
+	 * @param metaInfo          the meta information, including the type serializer for state copy-on-write.
+	 * @param keySerializer     the serializer of the key.
+	 * @param spaceAllocator    the allocator for the space of spilled key-groups.
+	 * @param heapStatusMonitor the monitor which decides when key-groups are spilled.
+	 */
+	SpillableStateTable(
+		InternalKeyContext<K> keyContext,
+		RegisteredKeyValueStateBackendMetaInfo<N, S> metaInfo,
+		TypeSerializer<K> keySerializer,
+		Allocator spaceAllocator,
+		HeapStatusMonitor heapStatusMonitor) {
+		super(keyContext, metaInfo, keySerializer);
+		this.spaceAllocator = Preconditions.checkNotNull(spaceAllocator);
+		this.heapStatusMonitor = Preconditions.checkNotNull(heapStatusMonitor);
+		this.accessCounts = new int[keyGroupedStateMaps.length];
+		this.lastAccessedChecks = new int[keyGroupedStateMaps.length];
+		this.lastLoadedChecks = new int[keyGroupedStateMaps.length];
+		Arrays.fill(lastLoadedChecks, -MIN_HEAP_CHECKS_AFTER_LOAD);
+		this.retiredStateMaps = new ArrayList<>();
+	}
+
+	@Override
+	protected CopyOnWriteStateMap<K, N, S> createStateMap() {
+		return new CopyOnWriteStateMap<>(getStateSerializer());
+	}
+
+	@Override
+	protected StateMap<K, N, S> getMapForKeyGroup(int keyGroupIndex) {
+		final int pos = keyGroupIndex - keyGroupOffset;
+		if (pos < 0 || pos >= keyGroupedStateMaps.length) {
+			return null;
+		}
+
+		if (++numAccessesSinceHeapCheck >= ACCESSES_PER_HEAP_CHECK) {
+			numAccessesSinceHeapCheck = 0;
+			checkHeapStatus(pos);
+		}
+		accessCounts[pos]++;
+		lastAccessedChecks[pos] = numHeapChecks;
+
+		StateMap<K, N, S> stateMap = keyGroupedStateMaps[pos];
+		if (stateMap instanceof CopyOnWriteSkipListStateMap) {
+			stateMap = loadKeyGroup(pos);
+		}
+		return stateMap;
+	}
+
+	private void checkHeapStatus(int accessedPos) {
+		releaseRetiredStateMaps();
+
+		if (heapStatusMonitor.isUnderPressure()) {
+			int coldestPos = -1;
+			for (int i = 0; i < keyGroupedStateMaps.length; i++) {
+				StateMap<K, N, S> stateMap = keyGroupedStateMaps[i];
+				if (i != accessedPos && isSpillable(i) && stateMap.size() > 0 &&
+					(coldestPos < 0 || accessCounts[i] < accessCounts[coldestPos])) {
+					coldestPos = i;
+				}
+			}
+			if (coldestPos >= 0) {
+				spillKeyGroup(coldestPos + keyGroupOffset);
+			}
+		}
+
+		for (int i = 0; i < accessCounts.length; i++) {
+			accessCounts[i] >>>= 1;
+		}
+		numHeapChecks++;
+	}
+
+	private boolean isSpillable(int pos) {
+		return keyGroupedStateMaps[pos] instanceof CopyOnWriteStateMap
+			&& lastAccessedChecks[pos] < numHeapChecks
+			&& numHeapChecks - lastLoadedChecks[pos] >= MIN_HEAP_CHECKS_AFTER_LOAD;
+	}
+
+	/**
+	 * Moves the state of the given key-group from the heap into a {@link CopyOnWriteSkipListStateMap}.
+	 *
+	 * @return true if the key-group was spilled, false if it is already spilled or spilling failed.
+	 */
+	@VisibleForTesting
+	boolean spillKeyGroup(int keyGroupIndex) {
+		final int pos = keyGroupIndex - keyGroupOffset;
+		if (!(keyGroupedStateMaps[pos] instanceof CopyOnWriteStateMap)) {
+			return false;
+		}
+
+		StateMap<K, N, S> heapStateMap = keyGroupedStateMaps[pos];
+		CopyOnWriteSkipListStateMap<K, N, S> spilledStateMap = new CopyOnWriteSkipListStateMap<>(
+			getKeySerializer().duplicate(),
+			getNamespaceSerializer().duplicate(),
+			getStateSerializer().duplicate(),
+			spaceAllocator,
+			DEFAULT_MAX_KEYS_TO_DELETE_ONE_TIME,
+			DEFAULT_LOGICAL_REMOVED_KEYS_RATIO);
+		try {
+			for (StateEntry<K, N, S> entry : heapStateMap) {
+				spilledStateMap.put(entry.getKey(), entry.getNamespace(), entry.getState());
+			}
+		} catch (RuntimeException e) {
+			LOG.warn("Failed to spill key-group {} of state {}, keeping it on heap.",
+				keyGroupIndex, metaInfo.getName(), e);
+			spilledStateMap.close();
+			return false;
+		}
+
+		keyGroupedStateMaps[pos] = spilledStateMap;
+		LOG.debug("Spilled {} entries of key-group {} of state {}.",
+			spilledStateMap.size(), keyGroupIndex, metaInfo.getName());
+		return true;
+	}
+
+	private StateMap<K, N, S> loadKeyGroup(int pos) {
+		@SuppressWarnings("unchecked")
+		CopyOnWriteSkipListStateMap<K, N, S> spilledStateMap = (CopyOnWriteSkipListStateMap<K, N, S>) keyGroupedStateMaps[pos];
+		CopyOnWriteStateMap<K, N, S> heapStateMap = createStateMap();
+		for (StateEntry<K, N, S> entry : spilledStateMap) {
+			heapStateMap.put(entry.getKey(), entry.getNamespace(), entry.getState());
+		}
+		keyGroupedStateMaps[pos] = heapStateMap;
+		lastLoadedChecks[pos] = numHeapChecks;
+
+		// the space can only be freed once the running snapshots of the spilled map are done
+		retiredStateMaps.add(spilledStateMap);
+		releaseRetiredStateMaps();
+		return heapStateMap;
+	}
+
+	private void releaseRetiredStateMaps() {
+		Iterator<CopyOnWriteSkipListStateMap<K, N, S>> iterator = retiredStateMaps.iterator();
+		while (iterator.hasNext()) {
+			CopyOnWriteSkipListStateMap<K, N, S> stateMap = iterator.next();
+			if (!stateMap.hasUnreleasedSnapshots()) {
+				stateMap.close();
+				iterator.remove();
+			}
+		}
+	}
+
+	@VisibleForTesting
+	boolean isSpilled(int keyGroupIndex) {
+		return keyGroupedStateMaps[keyGroupIndex - keyGroupOffset] instanceof CopyOnWriteSkipListStateMap;
+	}
+
+	@VisibleForTesting
+	int getNumberOfRetiredStateMaps() {
+		return retiredStateMaps.size();
+	}
+
+	// Snapshotting ----------------------------------------------------------------------------------------------------
+
+	/**
+	 * Creates a snapshot of this {@link SpillableStateTable}, to be written in checkpointing.
+	 *
+	 * @return a snapshot from this {@link SpillableStateTable}, for checkpointing.
+	 */
+	@Nonnull
+	@Override
+	public SpillableStateTableSnapshot<K, N, S> stateSnapshot() {
+		return new SpillableStateTableSnapshot<>(
+			this,
+			getKeySerializer().duplicate(),
+			getNamespaceSerializer().duplicate(),
+			getStateSerializer().duplicate(),
+			getMetaInfo().getStateSnapshotTransformFactory().createForDeserializedState().orElse(null));
+	}
+
+	List<StateMapSnapshot<K, N, S, ? extends StateMap<K, N, S>>> getStateMapSnapshotList() {
+		List<StateMapSnapshot<K, N, S, ? extends StateMap<K, N, S>>> snapshotList = new ArrayList<>(keyGroupedStateMaps.length);
+		for (StateMap<K, N, S> stateMap : keyGroupedStateMaps) {
+			snapshotList.add(stateMap.stateSnapshot());
+		}
+		return snapshotList;
+	}
+}
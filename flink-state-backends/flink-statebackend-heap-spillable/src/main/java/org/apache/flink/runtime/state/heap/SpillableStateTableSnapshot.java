@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.memory.DataOutputView;
+import org.apache.flink.runtime.state.StateSnapshotTransformer;
+
+import javax.annotation.Nonnull;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * This class represents the snapshot of a {@link SpillableStateTable}. The snapshot of each key-group is taken from
+ * whichever map holds the key-group, and all of them write the format of {@link CopyOnWriteStateTableSnapshot}.
+ *
+ * @param <K> type of key
+ * @param <N> type of namespace
+ * @param <S> type of state
+ */
+@Internal
+public class SpillableStateTableSnapshot<K, N, S> extends AbstractStateTableSnapshot<K, N, S> {
+
+	/**
+	 * The offset to the contiguous key groups.
+	 */
+	private final int keyGroupOffset;
+
+	/**
+	 * Snapshots of state partitioned by key-group.
+	 */
+	@Nonnull
+	private final List<StateMapSnapshot<K, N, S, ? extends StateMap<K, N, S>>> stateMapSnapshots;
+
+	/**
+	 * Whether the snapshot of each key-group has been released. The snapshots of the spilled maps must not be
+	 * released twice.
+	 */
+	private final boolean[] released;
+
+	SpillableStateTableSnapshot(
+		SpillableStateTable<K, N, S> owningStateTable,
+		TypeSerializer<K> localKeySerializer,
+		TypeSerializer<N> localNamespaceSerializer,
+		TypeSerializer<S> localStateSerializer,
+		StateSnapshotTransformer<S> stateSnapshotTransformer) {
+		super(owningStateTable,
+			localKeySerializer,
+			localNamespaceSerializer,
+			localStateSerializer,
+			stateSnapshotTransformer);
+
+		this.keyGroupOffset = owningStateTable.getKeyGroupOffset();
+		this.stateMapSnapshots = owningStateTable.getStateMapSnapshotList();
+		this.released = new boolean[stateMapSnapshots.size()];
+	}
+
+	@Override
+	protected StateMapSnapshot<K, N, S, ? extends StateMap<K, N, S>> getStateMapSnapshotForKeyGroup(int keyGroup) {
+		int indexOffset = keyGroup - keyGroupOffset;
+		StateMapSnapshot<K, N, S, ? extends StateMap<K, N, S>> stateMapSnapshot = null;
+		if (indexOffset >= 0 && indexOffset < stateMapSnapshots.size()) {
+			stateMapSnapshot = stateMapSnapshots.get(indexOffset);
+		}
+
+		return stateMapSnapshot;
+	}
+
+	@Override
+	public void writeStateInKeyGroup(@Nonnull DataOutputView dov, int keyGroupId) throws IOException {
+		super.writeStateInKeyGroup(dov, keyGroupId);
+		// the key-group snapshot is released after it was written
+		released[keyGroupId - keyGroupOffset] = true;
+	}
+
+	@Override
+	public void release() {
+		for (int i = 0; i < stateMapSnapshots.size(); i++) {
+			if (!released[i]) {
+				stateMapSnapshots.get(i).release();
+				released[i] = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap.space;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.runtime.memory.MemoryManager;
+import org.apache.flink.runtime.memory.MemoryReservationException;
+import org.apache.flink.util.Preconditions;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import static org.apache.flink.runtime.state.heap.space.Constants.BUCKET_SIZE;
+import static org.apache.flink.runtime.state.heap.space.Constants.FOUR_BYTES_BITS;
+import static org.apache.flink.runtime.state.heap.space.Constants.FOUR_BYTES_MARK;
+import static org.apache.flink.runtime.state.heap.space.Constants.NO_SPACE;
+
+/**
+ * An {@link Allocator} which allocates space from off-heap {@link DirectChunk}s.
+ *
+ * <p>Chunks are divided into buckets of {@link Constants#BUCKET_SIZE}. Each bucket serves one size class,
+ * where size classes are powers of two between {@link #MIN_SLOT_SIZE} and the bucket size. Freed slots are
+ * kept in a free list of their size class and reused by later allocations of that class. Spaces larger than a
+ * bucket are served by a dedicated chunk, which is released as soon as the space is freed.
+ *
+ * <p>The chunks are reserved from the managed memory of the slot, so the spilled state cannot grow beyond the memory
+ * budget of the TaskManager. Allocations fail with a {@link MemoryReservationException} once the managed memory is
+ * exhausted. The reservation of a chunk is returned as soon as the chunk is released, and all reservations are
+ * returned when the allocator is closed. The memory itself is freed once the chunks are garbage collected.
+ */
+public class DirectBucketAllocator implements Allocator {
+
+	/** The smallest slot handed out by this allocator. */
+	static final int MIN_SLOT_SIZE = 32;
+
+	private static final int MIN_SLOT_SIZE_BITS = Integer.numberOfTrailingZeros(MIN_SLOT_SIZE);
+
+	private static final int NUM_SIZE_CLASSES = Integer.numberOfTrailingZeros(BUCKET_SIZE) - MIN_SLOT_SIZE_BITS + 1;
+
+	/** Page tag of a chunk which serves one allocation larger than a bucket. */
+	private static final int LARGE_ALLOCATION = Integer.MAX_VALUE;
+
+	private static final long NO_BUCKET = -1L;
+
+	/** Size of the chunks holding the buckets. */
+	private final int chunkSize;
+
+	/** The memory manager of the slot, from which the memory of the chunks is reserved. */
+	private final MemoryManager memoryManager;
+
+	/** Chunks indexed by their id, null for released ids. */
+	private DirectChunk[] chunks;
+
+	/** Ids of released chunks which can be reused. */
+	private final ArrayDeque<Integer> freeChunkIds;
+
+	private int nextChunkId;
+
+	/** The chunk from which new buckets are taken. */
+	private DirectChunk currentChunk;
+
+	/** Address of the bucket from which new slots of each size class are cut. */
+	private final long[] currentBuckets;
+
+	/** Offset of the next unused slot in the current bucket of each size class. */
+	private final int[] nextSlotOffsets;
+
+	/** Addresses of freed slots of each size class. */
+	private final long[][] freeSlots;
+
+	private final int[] numFreeSlots;
+
+	private long totalChunkMemory;
+
+	private boolean closed;
+
+	public DirectBucketAllocator(int chunkSize, MemoryManager memoryManager) {
+		Preconditions.checkArgument(chunkSize >= BUCKET_SIZE && chunkSize % BUCKET_SIZE == 0,
+			"Chunk size %s must be a positive multiple of the bucket size %s.", chunkSize, BUCKET_SIZE);
+		this.chunkSize = chunkSize;
+		this.memoryManager = Preconditions.checkNotNull(memoryManager);
+		this.chunks = new DirectChunk[8];
+		this.freeChunkIds = new ArrayDeque<>();
+		this.currentBuckets = new long[NUM_SIZE_CLASSES];
+		this.nextSlotOffsets = new int[NUM_SIZE_CLASSES];
+		this.freeSlots = new long[NUM_SIZE_CLASSES][];
+		this.numFreeSlots = new int[NUM_SIZE_CLASSES];
+		Arrays.fill(currentBuckets, NO_BUCKET);
+		for (int i = 0; i < NUM_SIZE_CLASSES; i++) {
+			freeSlots[i] = new long[16];
+		}
+	}
+
+	@Override
+	public synchronized long allocate(int size) throws MemoryReservationException {
+		Preconditions.checkState(!closed, "Allocator has been closed.");
+		Preconditions.checkArgument(size > 0, "Size must be positive, but is %s.", size);
+
+		if (size > BUCKET_SIZE) {
+			return allocateLarge(size);
+		}
+
+		int sizeClass = getSizeClass(size);
+		if (numFreeSlots[sizeClass] > 0) {
+			return freeSlots[sizeClass][--numFreeSlots[sizeClass]];
+		}
+
+		int slotSize = MIN_SLOT_SIZE << sizeClass;
+		if (currentBuckets[sizeClass] == NO_BUCKET || nextSlotOffsets[sizeClass] + slotSize > BUCKET_SIZE) {
+			currentBuckets[sizeClass] = allocateBucket(sizeClass);
+			nextSlotOffsets[sizeClass] = 0;
+		}
+		long address = currentBuckets[sizeClass] + nextSlotOffsets[sizeClass];
+		nextSlotOffsets[sizeClass] += slotSize;
+		return address;
+	}
+
+	@Override
+	public synchronized void free(long address) {
+		if (closed) {
+			return;
+		}
+
+		DirectChunk chunk = getChunkById(SpaceUtils.getChunkIdByAddress(address));
+		int offset = SpaceUtils.getChunkOffsetByAddress(address);
+		int tag = chunk.getPageTag(chunk.getPageIndex(offset));
+		if (tag == LARGE_ALLOCATION) {
+			releaseChunk(chunk);
+			return;
+		}
+
+		Preconditions.checkState(tag >= 0, "Space at %s has not been allocated.", address);
+		if (numFreeSlots[tag] == freeSlots[tag].length) {
+			freeSlots[tag] = Arrays.copyOf(freeSlots[tag], freeSlots[tag].length * 2);
+		}
+		freeSlots[tag][numFreeSlots[tag]++] = address;
+	}
+
+	@Override
+	public synchronized DirectChunk getChunkById(int chunkId) {
+		DirectChunk chunk = chunkId < chunks.length ? chunks[chunkId] : null;
+		Preconditions.checkNotNull(chunk, "chunk %s does not exist.", chunkId);
+		return chunk;
+	}
+
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		if (!memoryManager.isShutdown()) {
+			memoryManager.releaseMemory(this, totalChunkMemory);
+		}
+		Arrays.fill(chunks, null);
+		Arrays.fill(currentBuckets, NO_BUCKET);
+		Arrays.fill(numFreeSlots, 0);
+		currentChunk = null;
+		totalChunkMemory = 0L;
+	}
+
+	/**
+	 * Returns the total size of the chunks held by this allocator.
+	 */
+	public synchronized long getTotalChunkMemory() {
+		return totalChunkMemory;
+	}
+
+	@VisibleForTesting
+	static int getSizeClass(int size) {
+		return Math.max(0, Integer.SIZE - Integer.numberOfLeadingZeros(size - 1) - MIN_SLOT_SIZE_BITS);
+	}
+
+	private long allocateBucket(int sizeClass) throws MemoryReservationException {
+		int offset = currentChunk == null ? NO_SPACE : currentChunk.allocate(BUCKET_SIZE);
+		if (offset == NO_SPACE) {
+			currentChunk = newChunk(chunkSize, BUCKET_SIZE);
+			offset = currentChunk.allocate(BUCKET_SIZE);
+		}
+		currentChunk.setPageTag(currentChunk.getPageIndex(offset), sizeClass);
+		return toAddress(currentChunk.getChunkId(), offset);
+	}
+
+	private long allocateLarge(int size) throws MemoryReservationException {
+		DirectChunk chunk = newChunk(size, size);
+		int offset = chunk.allocate(size);
+		chunk.setPageTag(chunk.getPageIndex(offset), LARGE_ALLOCATION);
+		return toAddress(chunk.getChunkId(), offset);
+	}
+
+	private DirectChunk newChunk(int capacity, int pageSize) throws MemoryReservationException {
+		memoryManager.reserveMemory(this, capacity);
+
+		Integer freeId = freeChunkIds.poll();
+		int chunkId = freeId != null ? freeId : nextChunkId++;
+		if (chunkId >= chunks.length) {
+			chunks = Arrays.copyOf(chunks, chunks.length * 2);
+		}
+		DirectChunk chunk;
+		try {
+			chunk = new DirectChunk(chunkId, capacity, pageSize);
+		} catch (Throwable t) {
+			freeChunkIds.add(chunkId);
+			memoryManager.releaseMemory(this, capacity);
+			throw t;
+		}
+		chunks[chunkId] = chunk;
+		totalChunkMemory += capacity;
+		return chunk;
+	}
+
+	private void releaseChunk(DirectChunk chunk) {
+		chunks[chunk.getChunkId()] = null;
+		freeChunkIds.add(chunk.getChunkId());
+		totalChunkMemory -= chunk.getChunkCapacity();
+		memoryManager.releaseMemory(this, chunk.getChunkCapacity());
+	}
+
+	private static long toAddress(int chunkId, int offset) {
+		return ((chunkId & FOUR_BYTES_MARK) << FOUR_BYTES_BITS) | (offset & FOUR_BYTES_MARK);
+	}
+}
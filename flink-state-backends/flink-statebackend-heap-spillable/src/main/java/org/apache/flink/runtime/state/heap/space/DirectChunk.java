@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap.space;
+
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.core.memory.MemorySegmentFactory;
+import org.apache.flink.util.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * A {@link Chunk} backed by one off-heap {@link MemorySegment}. The chunk is divided into pages of equal size,
+ * and {@link #allocate(int)} hands out whole pages. Every page carries a tag which the {@link Allocator} can use
+ * to remember how the page is sub-divided.
+ *
+ * <p>The memory is allocated outside of the JVM's direct memory limit, because the owning allocator accounts
+ * for it in the managed memory of the slot. It is freed when the chunk is garbage collected, so that running
+ * snapshots can still read a chunk which has been released by the allocator.
+ *
+ * <p>This class is not thread safe, the owning allocator is responsible for synchronization.
+ */
+public class DirectChunk implements Chunk {
+
+	private final int chunkId;
+
+	private final int pageSize;
+
+	private final MemorySegment segment;
+
+	/** Tag for each page, set by the allocator. */
+	private final int[] pageTags;
+
+	/** Stack of the indexes of free pages. */
+	private final int[] freePages;
+
+	private int numFreePages;
+
+	DirectChunk(int chunkId, int capacity, int pageSize) {
+		Preconditions.checkArgument(pageSize > 0 && capacity >= pageSize && capacity % pageSize == 0,
+			"Capacity %s must be a multiple of the page size %s.", capacity, pageSize);
+		this.chunkId = chunkId;
+		this.pageSize = pageSize;
+		this.segment = MemorySegmentFactory.allocateOffHeapUnsafeMemory(capacity, null, () -> {});
+
+		int numPages = capacity / pageSize;
+		this.pageTags = new int[numPages];
+		this.freePages = new int[numPages];
+		// hand out the pages in ascending order
+		for (int i = 0; i < numPages; i++) {
+			freePages[i] = numPages - 1 - i;
+		}
+		this.numFreePages = numPages;
+		Arrays.fill(pageTags, -1);
+	}
+
+	@Override
+	public int allocate(int len) {
+		Preconditions.checkArgument(len <= pageSize, "Can't allocate %s bytes from pages of %s bytes.", len, pageSize);
+		if (numFreePages == 0) {
+			return Constants.NO_SPACE;
+		}
+		return freePages[--numFreePages] * pageSize;
+	}
+
+	@Override
+	public void free(int interChunkOffset) {
+		int page = getPageIndex(interChunkOffset);
+		pageTags[page] = -1;
+		freePages[numFreePages++] = page;
+	}
+
+	@Override
+	public int getChunkId() {
+		return chunkId;
+	}
+
+	@Override
+	public int getChunkCapacity() {
+		return segment.size();
+	}
+
+	@Override
+	public MemorySegment getMemorySegment(int chunkOffset) {
+		return segment;
+	}
+
+	@Override
+	public int getOffsetInSegment(int offsetInChunk) {
+		return offsetInChunk;
+	}
+
+	int getPageSize() {
+		return pageSize;
+	}
+
+	int getPageIndex(int offsetInChunk) {
+		return offsetInChunk / pageSize;
+	}
+
+	int getPageTag(int page) {
+		return pageTags[page];
+	}
+
+	void setPageTag(int page, int tag) {
+		pageTags[page] = tag;
+	}
+}
@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap;
+
+import org.apache.flink.api.common.state.StateDescriptor;
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.api.common.typeutils.base.StringSerializer;
+import org.apache.flink.core.memory.ByteArrayInputStreamWithPos;
+import org.apache.flink.core.memory.ByteArrayOutputStreamWithPos;
+import org.apache.flink.core.memory.DataInputViewStreamWrapper;
+import org.apache.flink.core.memory.DataOutputViewStreamWrapper;
+import org.apache.flink.runtime.memory.MemoryManager;
+import org.apache.flink.runtime.state.KeyGroupRange;
+import org.apache.flink.runtime.state.KeyGroupRangeAssignment;
+import org.apache.flink.runtime.state.KeyedBackendSerializationProxy;
+import org.apache.flink.runtime.state.RegisteredKeyValueStateBackendMetaInfo;
+import org.apache.flink.runtime.state.StateEntry;
+import org.apache.flink.runtime.state.StateSnapshot;
+import org.apache.flink.runtime.state.StateSnapshotKeyGroupReader;
+import org.apache.flink.runtime.state.heap.space.DirectBucketAllocator;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.apache.flink.runtime.state.heap.space.Constants.BUCKET_SIZE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link SpillableStateTable}.
+ */
+public class SpillableStateTableTest extends TestLogger {
+
+	private static final int NUMBER_OF_KEY_GROUPS = 4;
+
+	private static final int NUMBER_OF_KEYS = 100;
+
+	private final KeyGroupRange keyGroupRange = KeyGroupRange.of(0, NUMBER_OF_KEY_GROUPS - 1);
+
+	private final RegisteredKeyValueStateBackendMetaInfo<Integer, String> metaInfo =
+		new RegisteredKeyValueStateBackendMetaInfo<>(
+			StateDescriptor.Type.VALUE,
+			"test",
+			IntSerializer.INSTANCE,
+			StringSerializer.INSTANCE);
+
+	private MemoryManager memoryManager;
+
+	private DirectBucketAllocator spaceAllocator;
+
+	private TestHeapStatusMonitor heapStatusMonitor;
+
+	private SpillableStateTable<Integer, Integer, String> table;
+
+	@Before
+	public void setup() {
+		memoryManager = MemoryManager.forDefaultPageSize(16L * BUCKET_SIZE);
+		spaceAllocator = new DirectBucketAllocator(BUCKET_SIZE, memoryManager);
+		heapStatusMonitor = new TestHeapStatusMonitor();
+		table = new SpillableStateTable<>(
+			new InternalKeyContextImpl<>(keyGroupRange, NUMBER_OF_KEY_GROUPS),
+			metaInfo,
+			IntSerializer.INSTANCE,
+			spaceAllocator,
+			heapStatusMonitor);
+
+		for (int key = 0; key < NUMBER_OF_KEYS; key++) {
+			table.put(key, keyGroupOf(key), key % 2, "value-" + key);
+		}
+	}
+
+	@After
+	public void tearDown() {
+		spaceAllocator.close();
+		memoryManager.shutdown();
+	}
+
+	@Test
+	public void testSpillAndLoadKeyGroup() {
+		assertTrue(table.spillKeyGroup(1));
+		assertTrue(table.isSpilled(1));
+		assertFalse(table.spillKeyGroup(1));
+		assertTrue(spaceAllocator.getTotalChunkMemory() > 0);
+
+		// the spilled entries are still visible to iterations
+		assertEquals(NUMBER_OF_KEYS, table.size());
+		int numEntries = 0;
+		for (StateEntry<Integer, Integer, String> entry : table) {
+			assertEquals("value-" + entry.getKey(), entry.getState());
+			numEntries++;
+		}
+		assertEquals(NUMBER_OF_KEYS, numEntries);
+
+		// an access loads the key group back to the heap
+		verifyValues(table);
+		assertFalse(table.isSpilled(1));
+		assertEquals(0, table.getNumberOfRetiredStateMaps());
+	}
+
+	@Test
+	public void testSpillColdestKeyGroupUnderHeapPressure() {
+		heapStatusMonitor.underPressure = true;
+		int hotKey = 0;
+		// all key groups have been accessed before the first heap check, so only the second one spills
+		for (int i = 0; i < 2 * SpillableStateTable.ACCESSES_PER_HEAP_CHECK; i++) {
+			table.get(hotKey, 0);
+		}
+
+		int numSpilledKeyGroups = 0;
+		for (int keyGroup = 0; keyGroup < NUMBER_OF_KEY_GROUPS; keyGroup++) {
+			numSpilledKeyGroups += table.isSpilled(keyGroup) ? 1 : 0;
+		}
+		assertEquals(1, numSpilledKeyGroups);
+		assertFalse(table.isSpilled(keyGroupOf(hotKey)));
+	}
+
+	@Test
+	public void testLoadedKeyGroupIsNotSpilledAgainRightAway() {
+		int loadedKey = 0;
+		int loadedKeyGroup = keyGroupOf(loadedKey);
+		assertTrue(table.spillKeyGroup(loadedKeyGroup));
+		table.get(loadedKey, loadedKey % 2);
+		assertFalse(table.isSpilled(loadedKeyGroup));
+
+		// the other key groups are accessed all the time, so the loaded one is the only candidate
+		heapStatusMonitor.underPressure = true;
+		for (int check = 0; check < SpillableStateTable.MIN_HEAP_CHECKS_AFTER_LOAD; check++) {
+			accessAllKeyGroupsBut(loadedKeyGroup);
+			assertFalse(table.isSpilled(loadedKeyGroup));
+		}
+
+		accessAllKeyGroupsBut(loadedKeyGroup);
+		assertTrue(table.isSpilled(loadedKeyGroup));
+	}
+
+	@Test
+	public void testKeyGroupStaysOnHeapWhenManagedMemoryIsExhausted() throws Exception {
+		// take all managed memory, so that no chunk can be reserved for the spilled state
+		memoryManager.reserveMemory(this, memoryManager.availableMemory());
+		try {
+			assertFalse(table.spillKeyGroup(1));
+			assertFalse(table.isSpilled(1));
+			verifyValues(table);
+		} finally {
+			memoryManager.releaseAllMemory(this);
+		}
+	}
+
+	@Test
+	public void testSnapshotCompatibleWithCopyOnWriteStateTable() throws IOException {
+		int spilledKey = 0;
+		assertTrue(table.spillKeyGroup(keyGroupOf(spilledKey)));
+		StateSnapshot snapshot = table.stateSnapshot();
+
+		// loading the key group back to the heap must not affect the running snapshot
+		table.put(spilledKey, keyGroupOf(spilledKey), spilledKey % 2, "modified");
+		assertFalse(table.isSpilled(keyGroupOf(spilledKey)));
+		assertEquals(1, table.getNumberOfRetiredStateMaps());
+
+		CopyOnWriteStateTable<Integer, Integer, String> cowStateTable = new CopyOnWriteStateTable<>(
+			new InternalKeyContextImpl<>(keyGroupRange, NUMBER_OF_KEY_GROUPS), metaInfo, IntSerializer.INSTANCE);
+		restoreStateTableFromSnapshot(cowStateTable, snapshot);
+		snapshot.release();
+
+		assertEquals(NUMBER_OF_KEYS, cowStateTable.size());
+		verifyValues(cowStateTable);
+
+		// the retired map is closed once its snapshot is released
+		assertTrue(table.spillKeyGroup(keyGroupOf(spilledKey)));
+		assertEquals("modified", table.get(spilledKey, spilledKey % 2));
+		assertEquals(0, table.getNumberOfRetiredStateMaps());
+	}
+
+	private void restoreStateTableFromSnapshot(
+		StateTable<Integer, Integer, String> stateTable,
+		StateSnapshot snapshot) throws IOException {
+
+		final ByteArrayOutputStreamWithPos out = new ByteArrayOutputStreamWithPos(1024 * 1024);
+		final DataOutputViewStreamWrapper dov = new DataOutputViewStreamWrapper(out);
+		final StateSnapshot.StateKeyGroupWriter keyGroupPartitionedSnapshot = snapshot.getKeyGroupWriter();
+		for (Integer keyGroup : keyGroupRange) {
+			keyGroupPartitionedSnapshot.writeStateInKeyGroup(dov, keyGroup);
+		}
+
+		final ByteArrayInputStreamWithPos in = new ByteArrayInputStreamWithPos(out.getBuf());
+		final DataInputViewStreamWrapper div = new DataInputViewStreamWrapper(in);
+
+		final StateSnapshotKeyGroupReader keyGroupReader =
+			StateTableByKeyGroupReaders.readerForVersion(stateTable, KeyedBackendSerializationProxy.VERSION);
+
+		for (Integer keyGroup : keyGroupRange) {
+			keyGroupReader.readMappingsInKeyGroup(div, keyGroup);
+		}
+	}
+
+	/**
+	 * Accesses the key groups other than the given one until the next heap check has been done.
+	 */
+	private void accessAllKeyGroupsBut(int excludedKeyGroup) {
+		int numAccesses = 0;
+		while (numAccesses < SpillableStateTable.ACCESSES_PER_HEAP_CHECK) {
+			for (int key = 0; key < NUMBER_OF_KEYS; key++) {
+				if (keyGroupOf(key) != excludedKeyGroup) {
+					table.get(key, key % 2);
+					numAccesses++;
+				}
+			}
+		}
+	}
+
+	private static void verifyValues(StateTable<Integer, Integer, String> stateTable) {
+		for (int key = 0; key < NUMBER_OF_KEYS; key++) {
+			assertEquals("value-" + key, stateTable.get(key, key % 2));
+		}
+	}
+
+	private static int keyGroupOf(int key) {
+		return KeyGroupRangeAssignment.assignToKeyGroup(key, NUMBER_OF_KEY_GROUPS);
+	}
+
+	/**
+	 * A {@link HeapStatusMonitor} whose status is set by the test.
+	 */
+	private static class TestHeapStatusMonitor extends HeapStatusMonitor {
+
+		private boolean underPressure;
+
+		TestHeapStatusMonitor() {
+			super(0L, 1f, 1f);
+		}
+
+		@Override
+		boolean isUnderPressure() {
+			return underPressure;
+		}
+	}
+}
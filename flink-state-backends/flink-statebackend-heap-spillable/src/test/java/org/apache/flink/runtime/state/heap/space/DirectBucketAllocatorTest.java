@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.runtime.state.heap.space;
+
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.runtime.memory.MemoryManager;
+import org.apache.flink.runtime.memory.MemoryReservationException;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.apache.flink.runtime.state.heap.space.Constants.BUCKET_SIZE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link DirectBucketAllocator}.
+ */
+public class DirectBucketAllocatorTest extends TestLogger {
+
+	private final MemoryManager memoryManager = MemoryManager.forDefaultPageSize(4L * BUCKET_SIZE);
+
+	@After
+	public void shutdown() {
+		// all reservations are returned when the allocators are closed
+		assertTrue(memoryManager.verifyEmpty());
+		memoryManager.shutdown();
+	}
+
+	@Test
+	public void testSizeClasses() {
+		assertEquals(0, DirectBucketAllocator.getSizeClass(1));
+		assertEquals(0, DirectBucketAllocator.getSizeClass(DirectBucketAllocator.MIN_SLOT_SIZE));
+		assertEquals(1, DirectBucketAllocator.getSizeClass(DirectBucketAllocator.MIN_SLOT_SIZE + 1));
+		assertEquals(15, DirectBucketAllocator.getSizeClass(BUCKET_SIZE));
+	}
+
+	@Test
+	public void testAllocateAndFree() throws Exception {
+		try (DirectBucketAllocator allocator = new DirectBucketAllocator(BUCKET_SIZE, memoryManager)) {
+			Set<Long> addresses = new HashSet<>();
+			for (int i = 0; i < 100; i++) {
+				long address = allocator.allocate(50);
+				assertTrue(addresses.add(address));
+
+				Chunk chunk = allocator.getChunkById(SpaceUtils.getChunkIdByAddress(address));
+				int offsetInChunk = SpaceUtils.getChunkOffsetByAddress(address);
+				MemorySegment segment = chunk.getMemorySegment(offsetInChunk);
+				segment.putInt(chunk.getOffsetInSegment(offsetInChunk), i);
+			}
+			assertEquals(BUCKET_SIZE, allocator.getTotalChunkMemory());
+
+			long freed = addresses.iterator().next();
+			allocator.free(freed);
+			// the freed slot is reused by the next allocation of the same size class
+			assertEquals(freed, allocator.allocate(64));
+		}
+	}
+
+	@Test
+	public void testAllocateNewChunkWhenFull() throws Exception {
+		try (DirectBucketAllocator allocator = new DirectBucketAllocator(BUCKET_SIZE, memoryManager)) {
+			long first = allocator.allocate(BUCKET_SIZE);
+			long second = allocator.allocate(BUCKET_SIZE);
+			assertTrue(SpaceUtils.getChunkIdByAddress(first) != SpaceUtils.getChunkIdByAddress(second));
+			assertEquals(2L * BUCKET_SIZE, allocator.getTotalChunkMemory());
+		}
+	}
+
+	@Test
+	public void testLargeAllocation() throws Exception {
+		try (DirectBucketAllocator allocator = new DirectBucketAllocator(BUCKET_SIZE, memoryManager)) {
+			long address = allocator.allocate(BUCKET_SIZE + 1);
+			assertEquals(BUCKET_SIZE + 1, allocator.getTotalChunkMemory());
+			assertEquals(BUCKET_SIZE + 1,
+				allocator.getChunkById(SpaceUtils.getChunkIdByAddress(address)).getChunkCapacity());
+
+			// the dedicated chunk is released with the space
+			allocator.free(address);
+			assertEquals(0L, allocator.getTotalChunkMemory());
+		}
+	}
+
+	@Test
+	public void testChunksAreReservedFromManagedMemory() throws Exception {
+		try (DirectBucketAllocator allocator = new DirectBucketAllocator(BUCKET_SIZE, memoryManager)) {
+			for (int i = 0; i < 4; i++) {
+				allocator.allocate(BUCKET_SIZE);
+			}
+			assertEquals(0L, memoryManager.availableMemory());
+
+			try {
+				allocator.allocate(BUCKET_SIZE);
+				fail("The allocation should fail once the managed memory is exhausted.");
+			} catch (MemoryReservationException expected) {
+				// expected
+			}
+			assertEquals(4L * BUCKET_SIZE, allocator.getTotalChunkMemory());
+		}
+	}
+}
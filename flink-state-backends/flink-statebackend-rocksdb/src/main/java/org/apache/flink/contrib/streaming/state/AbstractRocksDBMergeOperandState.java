@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.contrib.streaming.state;
+
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.util.FlinkRuntimeException;
+import org.apache.flink.util.StateMigrationException;
+
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDBException;
+
+import java.io.IOException;
+
+/**
+ * Base class for the appending states of the RocksDB backend which support merge aggregation.
+ *
+ * <p>With merge aggregation, values are added as merge operands instead of reading, updating and writing back the
+ * stored value. The merge operator of the column family appends the operands separated by
+ * {@link #OPERAND_DELIMITER}, and they are folded with {@link #mergeOperands(Object, Object)} whenever the value is
+ * read. Reads never write, so the operands stay until the value is cleared or overwritten; merge aggregation suits
+ * states which receive many values and are read rarely, like window contents. The stored value of a state without
+ * pending operands is a single serialized value, so states written with and without merge aggregation can be read
+ * either way.
+ */
+abstract class AbstractRocksDBMergeOperandState<K, N, IN, SV, OUT>
+	extends AbstractRocksDBAppendingState<K, N, IN, SV, OUT> {
+
+	/** The delimiter which the merge operator of the column families puts between two operands. */
+	static final byte OPERAND_DELIMITER = ',';
+
+	/**
+	 * Creates a new RocksDB backend state which supports merge aggregation.
+	 *
+	 * @param columnFamily        The RocksDB column family that this state is associated to.
+	 * @param namespaceSerializer The serializer for the namespace.
+	 * @param valueSerializer     The serializer for the state.
+	 * @param defaultValue        The default value for the state.
+	 * @param backend             The backend for which this state is bind to.
+	 */
+	protected AbstractRocksDBMergeOperandState(
+		ColumnFamilyHandle columnFamily,
+		TypeSerializer<N> namespaceSerializer,
+		TypeSerializer<SV> valueSerializer,
+		SV defaultValue,
+		RocksDBKeyedStateBackend<K> backend) {
+		super(columnFamily, namespaceSerializer, valueSerializer, defaultValue, backend);
+	}
+
+	@Override
+	SV getInternal(byte[] key) {
+		try {
+			byte[] valueBytes = backend.db.get(columnFamily, key);
+			if (valueBytes == null) {
+				return null;
+			}
+			return deserializeValue(valueBytes);
+		} catch (IOException | RocksDBException e) {
+			throw new FlinkRuntimeException("Error while retrieving data from RocksDB", e);
+		}
+	}
+
+	/**
+	 * Deserializes the stored value and folds the pending merge operands into it.
+	 */
+	SV deserializeValue(byte[] valueBytes) throws IOException {
+		dataInputView.setBuffer(valueBytes);
+		return foldOperands(valueSerializer.deserialize(dataInputView), dataInputView, valueSerializer);
+	}
+
+	/**
+	 * Appends the given value as a merge operand to the stored value.
+	 */
+	void addOperand(byte[] key, SV operand) {
+		try {
+			backend.db.merge(columnFamily, writeOptions, key, getValueBytes(operand));
+		} catch (RocksDBException e) {
+			throw new FlinkRuntimeException("Error while adding value to RocksDB", e);
+		}
+	}
+
+	/**
+	 * Combines two values of the state. This is called for every pending merge operand of a stored value.
+	 */
+	abstract SV mergeOperands(SV first, SV second);
+
+	private SV foldOperands(SV value, DataInputDeserializer in, TypeSerializer<SV> serializer) throws IOException {
+		while (in.available() > 0) {
+			in.readByte();
+			value = mergeOperands(value, serializer.deserialize(in));
+		}
+		return value;
+	}
+
+	@Override
+	public byte[] getSerializedValue(
+			final byte[] serializedKeyAndNamespace,
+			final TypeSerializer<K> safeKeySerializer,
+			final TypeSerializer<N> safeNamespaceSerializer,
+			final TypeSerializer<SV> safeValueSerializer) throws Exception {
+
+		byte[] valueBytes = super.getSerializedValue(
+			serializedKeyAndNamespace, safeKeySerializer, safeNamespaceSerializer, safeValueSerializer);
+		if (valueBytes == null) {
+			return null;
+		}
+
+		// queryable state clients expect a single value, so fold the pending operands on a private copy
+		DataInputDeserializer in = new DataInputDeserializer(valueBytes);
+		SV value = safeValueSerializer.deserialize(in);
+		if (in.available() == 0) {
+			return valueBytes;
+		}
+
+		DataOutputSerializer out = new DataOutputSerializer(valueBytes.length);
+		safeValueSerializer.serialize(foldOperands(value, in, safeValueSerializer), out);
+		return out.getCopyOfBuffer();
+	}
+
+	@Override
+	public void migrateSerializedValue(
+			DataInputDeserializer serializedOldValueInput,
+			DataOutputSerializer serializedMigratedValueOutput,
+			TypeSerializer<SV> priorSerializer,
+			TypeSerializer<SV> newSerializer) throws StateMigrationException {
+
+		try {
+			// migrate every pending operand on its own and keep the delimiters
+			newSerializer.serialize(priorSerializer.deserialize(serializedOldValueInput), serializedMigratedValueOutput);
+			while (serializedOldValueInput.available() > 0) {
+				serializedMigratedValueOutput.write(serializedOldValueInput.readByte());
+				newSerializer.serialize(priorSerializer.deserialize(serializedOldValueInput), serializedMigratedValueOutput);
+			}
+		} catch (Exception e) {
+			throw new StateMigrationException("Error while trying to migrate RocksDB state.", e);
+		}
+	}
+}
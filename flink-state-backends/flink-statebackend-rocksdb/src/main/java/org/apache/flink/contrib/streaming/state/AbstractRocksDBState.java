@@ -163,6 +163,15 @@ public abstract class AbstractRocksDBState<K, N, V> implements InternalKvState<K
 		return sharedKeyNamespaceSerializer.buildCompositeKeyNamespace(currentNamespace, namespaceSerializer);
 	}
 
+	/**
+	 * Serializes the given key with its key-group and the current namespace, without changing the current key of
+	 * the backend.
+	 */
+	byte[] serializeKeyWithGroupAndNamespace(K key, RocksDBSerializedCompositeKeyBuilder<K> keyBuilder) {
+		keyBuilder.setKeyAndKeyGroup(key, KeyGroupRangeAssignment.assignToKeyGroup(key, backend.getNumberOfKeyGroups()));
+		return keyBuilder.buildCompositeKeyNamespace(currentNamespace, namespaceSerializer);
+	}
+
 	byte[] serializeValue(V value) throws IOException {
 		return serializeValue(value, valueSerializer);
 	}
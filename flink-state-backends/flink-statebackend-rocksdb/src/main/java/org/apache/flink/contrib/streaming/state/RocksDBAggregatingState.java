@@ -43,12 +43,15 @@ import java.util.Collection;
  * @param <R> The type of the value returned from the state
  */
 class RocksDBAggregatingState<K, N, T, ACC, R>
-	extends AbstractRocksDBAppendingState<K, N, T, ACC, R>
+	extends AbstractRocksDBMergeOperandState<K, N, T, ACC, R>
 	implements InternalAggregatingState<K, N, T, ACC, R> {
 
 	/** User-specified aggregation function. */
 	private final AggregateFunction<T, ACC, R> aggFunction;
 
+	/** True if added values are appended as accumulator merge operands, which are merged when the state is read. */
+	private final boolean mergeAggregation;
+
 	/**
 	 * Creates a new {@code RocksDBAggregatingState}.
 	 *
@@ -58,6 +61,7 @@ class RocksDBAggregatingState<K, N, T, ACC, R>
 	 * @param defaultValue The default value for the state.
 	 * @param aggFunction The aggregate function used for aggregating state.
 	 * @param backend The backend for which this state is bind to.
+	 * @param mergeAggregation True if added values are appended as merge operands.
 	 */
 	private RocksDBAggregatingState(
 			ColumnFamilyHandle columnFamily,
@@ -65,10 +69,12 @@ class RocksDBAggregatingState<K, N, T, ACC, R>
 			TypeSerializer<ACC> valueSerializer,
 			ACC defaultValue,
 			AggregateFunction<T, ACC, R> aggFunction,
-			RocksDBKeyedStateBackend<K> backend) {
+			RocksDBKeyedStateBackend<K> backend,
+			boolean mergeAggregation) {
 
 		super(columnFamily, namespaceSerializer, valueSerializer, defaultValue, backend);
 		this.aggFunction = aggFunction;
+		this.mergeAggregation = mergeAggregation;
 	}
 
 	@Override
@@ -98,6 +104,11 @@ class RocksDBAggregatingState<K, N, T, ACC, R>
 	@Override
 	public void add(T value) {
 		byte[] key = getKeyBytes();
+		if (mergeAggregation) {
+			addOperand(key, aggFunction.add(value, aggFunction.createAccumulator()));
+			return;
+		}
+
 		ACC accumulator = getInternal(key);
 		accumulator = accumulator == null ? aggFunction.createAccumulator() : accumulator;
 		updateInternal(key, aggFunction.add(value, accumulator));
@@ -121,8 +132,7 @@ class RocksDBAggregatingState<K, N, T, ACC, R>
 
 					if (valueBytes != null) {
 						backend.db.delete(columnFamily, writeOptions, sourceKey);
-						dataInputView.setBuffer(valueBytes);
-						ACC value = valueSerializer.deserialize(dataInputView);
+						ACC value = deserializeValue(valueBytes);
 
 						if (current != null) {
 							current = aggFunction.merge(current, value);
@@ -139,12 +149,16 @@ class RocksDBAggregatingState<K, N, T, ACC, R>
 				setCurrentNamespace(target);
 				// create the target full-binary-key
 				final byte[] targetKey = serializeCurrentKeyWithGroupAndNamespace();
+				if (mergeAggregation) {
+					addOperand(targetKey, current);
+					return;
+				}
+
 				final byte[] targetValueBytes = backend.db.get(columnFamily, targetKey);
 
 				if (targetValueBytes != null) {
 					// target also had a value, merge
-					dataInputView.setBuffer(targetValueBytes);
-					ACC value = valueSerializer.deserialize(dataInputView);
+					ACC value = deserializeValue(targetValueBytes);
 
 					current = aggFunction.merge(current, value);
 				}
@@ -162,17 +176,26 @@ class RocksDBAggregatingState<K, N, T, ACC, R>
 		}
 	}
 
+	@Override
+	ACC mergeOperands(ACC first, ACC second) {
+		return aggFunction.merge(first, second);
+	}
+
 	@SuppressWarnings("unchecked")
 	static <K, N, SV, S extends State, IS extends S> IS create(
 		StateDescriptor<S, SV> stateDesc,
 		Tuple2<ColumnFamilyHandle, RegisteredKeyValueStateBackendMetaInfo<N, SV>> registerResult,
 		RocksDBKeyedStateBackend<K> backend) {
+		AggregatingStateDescriptor<?, SV, ?> aggregatingStateDesc = (AggregatingStateDescriptor<?, SV, ?>) stateDesc;
 		return (IS) new RocksDBAggregatingState<>(
 			registerResult.f0,
 			registerResult.f1.getNamespaceSerializer(),
 			registerResult.f1.getStateSerializer(),
 			stateDesc.getDefaultValue(),
-			((AggregatingStateDescriptor<?, SV, ?>) stateDesc).getAggregateFunction(),
-			backend);
+			aggregatingStateDesc.getAggregateFunction(),
+			backend,
+			// merging the operands relies on AggregateFunction#merge, which the descriptor has to declare
+			aggregatingStateDesc.isMergeAggregationEnabled() &&
+				backend.isMergeAggregationEnabled(registerResult.f1.getStateSerializer()));
 	}
 }
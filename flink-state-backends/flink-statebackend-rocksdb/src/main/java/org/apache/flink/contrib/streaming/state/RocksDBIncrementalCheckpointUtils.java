@@ -21,15 +21,21 @@ import org.apache.flink.runtime.state.KeyGroupRange;
 import org.apache.flink.runtime.state.KeyedStateHandle;
 
 import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.EnvOptions;
+import org.rocksdb.IngestExternalFileOptions;
+import org.rocksdb.Options;
 import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
+import org.rocksdb.SstFileWriter;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import java.io.File;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.BiFunction;
 
@@ -65,13 +71,16 @@ public class RocksDBIncrementalCheckpointUtils {
 
 	/**
 	 * The method to clip the db instance according to the target key group range using
-	 * the {@link RocksDB#delete(ColumnFamilyHandle, byte[])}.
+	 * the {@link RocksDB#delete(ColumnFamilyHandle, byte[])}, or the
+	 * {@link RocksDB#deleteRange(ColumnFamilyHandle, byte[], byte[])} if enabled.
 	 *
 	 * @param db the RocksDB instance to be clipped.
 	 * @param columnFamilyHandles the column families in the db instance.
 	 * @param targetKeyGroupRange the target key group range.
 	 * @param currentKeyGroupRange the key group range of the db instance.
 	 * @param keyGroupPrefixBytes Number of bytes required to prefix the key groups.
+	 * @param useDeleteRange whether to delete the records with one range tombstone per column family.
+	 * @param writeBatchSize the write batch size of the deletes per key.
 	 */
 	public static void clipDBWithKeyGroupRange(
 		@Nonnull RocksDB db,
@@ -79,6 +88,7 @@ public class RocksDBIncrementalCheckpointUtils {
 		@Nonnull KeyGroupRange targetKeyGroupRange,
 		@Nonnull KeyGroupRange currentKeyGroupRange,
 		@Nonnegative int keyGroupPrefixBytes,
+		boolean useDeleteRange,
 		@Nonnegative long writeBatchSize) throws RocksDBException {
 
 		final byte[] beginKeyGroupBytes = new byte[keyGroupPrefixBytes];
@@ -89,7 +99,7 @@ public class RocksDBIncrementalCheckpointUtils {
 				currentKeyGroupRange.getStartKeyGroup(), beginKeyGroupBytes);
 			RocksDBKeySerializationUtils.serializeKeyGroup(
 				targetKeyGroupRange.getStartKeyGroup(), endKeyGroupBytes);
-			deleteRange(db, columnFamilyHandles, beginKeyGroupBytes, endKeyGroupBytes, writeBatchSize);
+			deleteRange(db, columnFamilyHandles, beginKeyGroupBytes, endKeyGroupBytes, useDeleteRange, writeBatchSize);
 		}
 
 		if (currentKeyGroupRange.getEndKeyGroup() > targetKeyGroupRange.getEndKeyGroup()) {
@@ -97,26 +107,37 @@ public class RocksDBIncrementalCheckpointUtils {
 				targetKeyGroupRange.getEndKeyGroup() + 1, beginKeyGroupBytes);
 			RocksDBKeySerializationUtils.serializeKeyGroup(
 				currentKeyGroupRange.getEndKeyGroup() + 1, endKeyGroupBytes);
-			deleteRange(db, columnFamilyHandles, beginKeyGroupBytes, endKeyGroupBytes, writeBatchSize);
+			deleteRange(db, columnFamilyHandles, beginKeyGroupBytes, endKeyGroupBytes, useDeleteRange, writeBatchSize);
 		}
 	}
 
 	/**
-	 * Delete the record falls into [beginKeyBytes, endKeyBytes) of the db.
+	 * Delete the record falls into [beginKeyBytes, endKeyBytes) of the db. With range deletes, each column family
+	 * gets one range tombstone instead of a delete per key, and the files which are fully covered by the range are
+	 * dropped by the next compactions without being rewritten. The range tombstones have to be checked by every
+	 * read until they are compacted away, though.
 	 *
 	 * @param db the target need to be clipped.
 	 * @param columnFamilyHandles the column family need to be clipped.
 	 * @param beginKeyBytes the begin key bytes
 	 * @param endKeyBytes the end key bytes
+	 * @param useDeleteRange whether to delete the records with one range tombstone per column family.
+	 * @param writeBatchSize the write batch size of the deletes per key.
 	 */
 	private static void deleteRange(
 		RocksDB db,
 		List<ColumnFamilyHandle> columnFamilyHandles,
 		byte[] beginKeyBytes,
 		byte[] endKeyBytes,
+		boolean useDeleteRange,
 		@Nonnegative long writeBatchSize) throws RocksDBException {
 
 		for (ColumnFamilyHandle columnFamilyHandle : columnFamilyHandles) {
+			if (useDeleteRange) {
+				db.deleteRange(columnFamilyHandle, beginKeyBytes, endKeyBytes);
+				continue;
+			}
+
 			try (ReadOptions readOptions = RocksDBOperationUtils.createTotalOrderSeekReadOptions();
 				RocksIteratorWrapper iteratorWrapper = RocksDBOperationUtils.getRocksIterator(db, columnFamilyHandle, readOptions);
 				RocksDBWriteBatchWrapper writeBatchWrapper = new RocksDBWriteBatchWrapper(db, writeBatchSize)) {
@@ -136,6 +157,68 @@ public class RocksDBIncrementalCheckpointUtils {
 		}
 	}
 
+	/**
+	 * Copies the records of the source column family which fall into [beginKeyBytes, endKeyBytes) into the
+	 * target column family. The records are written into an external SST file in key order, which is then
+	 * ingested into the target db as a whole, so that they don't go through the memtable and the write-ahead log
+	 * of the target db. The key range must not overlap with the existing records of the target column family.
+	 *
+	 * @param sourceDb the db to copy the records from.
+	 * @param sourceColumnFamilyHandle the column family to copy the records from.
+	 * @param sourceReadOptions the read options to iterate the source column family with.
+	 * @param targetDb the db to ingest the records into.
+	 * @param targetColumnFamilyHandle the column family to ingest the records into.
+	 * @param targetOptions the options to write the SST file with, compatible with the target column family.
+	 * @param beginKeyBytes the begin key bytes
+	 * @param endKeyBytes the end key bytes
+	 * @param sstFile the path of the SST file to write, which is moved into the target db.
+	 * @return whether there were any records to copy.
+	 */
+	public static boolean ingestKeyRange(
+		@Nonnull RocksDB sourceDb,
+		@Nonnull ColumnFamilyHandle sourceColumnFamilyHandle,
+		@Nonnull ReadOptions sourceReadOptions,
+		@Nonnull RocksDB targetDb,
+		@Nonnull ColumnFamilyHandle targetColumnFamilyHandle,
+		@Nonnull Options targetOptions,
+		@Nonnull byte[] beginKeyBytes,
+		@Nonnull byte[] endKeyBytes,
+		@Nonnull File sstFile) throws RocksDBException {
+
+		boolean empty = true;
+		try (EnvOptions envOptions = new EnvOptions();
+			SstFileWriter sstFileWriter = new SstFileWriter(envOptions, targetOptions);
+			RocksIteratorWrapper iterator = RocksDBOperationUtils.getRocksIterator(
+				sourceDb, sourceColumnFamilyHandle, sourceReadOptions)) {
+
+			iterator.seek(beginKeyBytes);
+
+			while (iterator.isValid() && beforeThePrefixBytes(iterator.key(), endKeyBytes)) {
+				if (empty) {
+					sstFileWriter.open(sstFile.getAbsolutePath());
+					empty = false;
+				}
+				sstFileWriter.put(iterator.key(), iterator.value());
+				iterator.next();
+			}
+
+			if (empty) {
+				// RocksDB cannot write an SST file without records
+				return false;
+			}
+			sstFileWriter.finish();
+		}
+
+		try (IngestExternalFileOptions ingestOptions = new IngestExternalFileOptions()) {
+			ingestOptions.setMoveFiles(true);
+			targetDb.ingestExternalFile(
+				targetColumnFamilyHandle,
+				Collections.singletonList(sstFile.getAbsolutePath()),
+				ingestOptions);
+		}
+		return true;
+	}
+
 	/**
 	 * check whether the bytes is before prefixBytes in the character order.
 	 */
@@ -39,6 +39,7 @@ import org.apache.flink.contrib.streaming.state.ttl.RocksDbTtlCompactFiltersMana
 import org.apache.flink.core.fs.CloseableRegistry;
 import org.apache.flink.core.memory.DataInputDeserializer;
 import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.metrics.MetricGroup;
 import org.apache.flink.runtime.checkpoint.CheckpointOptions;
 import org.apache.flink.runtime.query.TaskKvStateRegistry;
 import org.apache.flink.runtime.state.AbstractKeyedStateBackend;
@@ -46,6 +47,7 @@ import org.apache.flink.runtime.state.CheckpointStreamFactory;
 import org.apache.flink.runtime.state.KeyGroupedInternalPriorityQueue;
 import org.apache.flink.runtime.state.Keyed;
 import org.apache.flink.runtime.state.KeyedStateHandle;
+import org.apache.flink.runtime.state.PrefetchingKeyedStateBackend;
 import org.apache.flink.runtime.state.PriorityComparable;
 import org.apache.flink.runtime.state.PriorityQueueSetFactory;
 import org.apache.flink.runtime.state.RegisteredKeyValueStateBackendMetaInfo;
@@ -56,6 +58,7 @@ import org.apache.flink.runtime.state.StreamCompressionDecorator;
 import org.apache.flink.runtime.state.heap.HeapPriorityQueueElement;
 import org.apache.flink.runtime.state.heap.HeapPriorityQueueSetFactory;
 import org.apache.flink.runtime.state.heap.InternalKeyContext;
+import org.apache.flink.runtime.state.ttl.TtlStateFactory;
 import org.apache.flink.runtime.state.ttl.TtlTimeProvider;
 import org.apache.flink.util.FileUtils;
 import org.apache.flink.util.FlinkRuntimeException;
@@ -76,10 +79,13 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -105,10 +111,14 @@ import static org.apache.flink.util.Preconditions.checkState;
  + <a href="https://github.com/facebook/rocksdb/wiki/RocksJava-Basics#opening-a-database-with-column-families">
  * this document</a>.
  */
-public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
+public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K>
+	implements PrefetchingKeyedStateBackend<K> {
 
 	private static final Logger LOG = LoggerFactory.getLogger(RocksDBKeyedStateBackend.class);
 
+	/** The name of the metric group under which the per-state object cache metrics are registered. */
+	static final String OBJECT_CACHE_METRIC_GROUP = "rocksdbObjectCache";
+
 	/** The name of the merge operator in RocksDB. Do not change except you know exactly what you do. */
 	public static final String MERGE_OPERATOR_NAME = "stringappendtest";
 
@@ -161,6 +171,26 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
 	 */
 	private final long writeBatchSize;
 
+	/**
+	 * The max number of deserialized objects cached per value or map state, 0 if the cache is disabled.
+	 */
+	private final int objectCacheSize;
+
+	/**
+	 * The object caches by state name. A cache outlives the state objects, which are re-created when the state is
+	 * registered again.
+	 */
+	private final Map<String, RocksDBObjectCache<?>> objectCaches;
+
+	/** The value states by name, which values can be prefetched for. */
+	private final Map<String, RocksDBValueState<K, ?, ?>> valueStates;
+
+	/** Whether reducing and aggregating states add values with merge operands instead of read-modify-write. */
+	private final boolean mergeAggregation;
+
+	/** The metric group under which the object cache metrics are registered. */
+	private final MetricGroup metricGroup;
+
 	/**
 	 * Information about the k/v states, maintained in the order as we create them. This is used to retrieve the
 	 * column family that is used for a state and also for sanity checks when restoring.
@@ -233,7 +263,10 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
 		PriorityQueueSetFactory priorityQueueFactory,
 		RocksDbTtlCompactFiltersManager ttlCompactFiltersManager,
 		InternalKeyContext<K> keyContext,
-		@Nonnegative long writeBatchSize) {
+		@Nonnegative long writeBatchSize,
+		@Nonnegative int objectCacheSize,
+		boolean mergeAggregation,
+		MetricGroup metricGroup) {
 
 		super(
 			kvStateRegistry,
@@ -261,6 +294,12 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
 		this.readOptions = optionsContainer.getReadOptions();
 		checkArgument(writeBatchSize >= 0, "Write batch size have to be no negative value.");
 		this.writeBatchSize = writeBatchSize;
+		checkArgument(objectCacheSize >= 0, "Object cache size have to be no negative value.");
+		this.objectCacheSize = objectCacheSize;
+		this.objectCaches = new HashMap<>();
+		this.valueStates = new HashMap<>();
+		this.mergeAggregation = mergeAggregation;
+		this.metricGroup = metricGroup;
 		this.db = db;
 		this.rocksDBResourceGuard = rocksDBResourceGuard;
 		this.checkpointSnapshotStrategy = checkpointSnapshotStrategy;
@@ -669,7 +708,21 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
 		}
 		Tuple2<ColumnFamilyHandle, RegisteredKeyValueStateBackendMetaInfo<N, SV>> registerResult = tryRegisterKvStateInformation(
 			stateDesc, namespaceSerializer, snapshotTransformFactory);
-		return stateFactory.createState(stateDesc, registerResult, RocksDBKeyedStateBackend.this);
+		IS state = stateFactory.createState(stateDesc, registerResult, RocksDBKeyedStateBackend.this);
+		if (state instanceof RocksDBValueState) {
+			@SuppressWarnings("unchecked")
+			RocksDBValueState<K, ?, ?> valueState = (RocksDBValueState<K, ?, ?>) state;
+			valueStates.put(stateDesc.getName(), valueState);
+		}
+		return state;
+	}
+
+	@Override
+	public void prefetchValues(String stateName, Collection<? extends K> keys) throws Exception {
+		RocksDBValueState<K, ?, ?> valueState = valueStates.get(stateName);
+		if (valueState != null) {
+			valueState.prefetch(keys);
+		}
 	}
 
 	/**
@@ -738,4 +791,42 @@ public class RocksDBKeyedStateBackend<K> extends AbstractKeyedStateBackend<K> {
 	long getWriteBatchSize() {
 		return writeBatchSize;
 	}
+
+	/**
+	 * Returns true if a reducing or aggregating state with the given serializer should add values with merge
+	 * operands. This is never the case for states with TTL, because the compaction filter only checks the
+	 * timestamp of the first operand.
+	 */
+	boolean isMergeAggregationEnabled(TypeSerializer<?> stateSerializer) {
+		return mergeAggregation && !TtlStateFactory.TtlSerializer.isTtlStateSerializer(stateSerializer);
+	}
+
+	/**
+	 * Returns the object cache for the given state, or null if the cache is disabled. The cache of a state which is
+	 * registered again is reset, because its serializer may have changed.
+	 */
+	@Nullable
+	<V> RocksDBObjectCache<V> getObjectCache(String stateName, TypeSerializer<V> serializer) {
+		if (objectCacheSize == 0) {
+			return null;
+		}
+
+		@SuppressWarnings("unchecked")
+		RocksDBObjectCache<V> cache = (RocksDBObjectCache<V>) objectCaches.get(stateName);
+		if (cache != null) {
+			cache.reset(serializer);
+			return cache;
+		}
+
+		MetricGroup cacheMetricGroup = metricGroup.addGroup(OBJECT_CACHE_METRIC_GROUP).addGroup(stateName);
+		cache = new RocksDBObjectCache<>(
+			objectCacheSize,
+			serializer,
+			cacheMetricGroup.counter("hits"),
+			cacheMetricGroup.counter("misses"),
+			cacheMetricGroup.counter("evictions"));
+		cacheMetricGroup.gauge("size", cache::size);
+		objectCaches.put(stateName, cache);
+		return cache;
+	}
 }
@@ -21,6 +21,7 @@ package org.apache.flink.contrib.streaming.state;
 import org.apache.flink.annotation.VisibleForTesting;
 import org.apache.flink.api.common.ExecutionConfig;
 import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.configuration.CheckpointingOptions;
 import org.apache.flink.contrib.streaming.state.restore.AbstractRocksDBRestoreOperation;
 import org.apache.flink.contrib.streaming.state.restore.RocksDBFullRestoreOperation;
 import org.apache.flink.contrib.streaming.state.restore.RocksDBIncrementalRestoreOperation;
@@ -111,6 +112,13 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
 	private RocksDBNativeMetricOptions nativeMetricOptions;
 	private int numberOfTransferingThreads;
 	private long writeBatchSize = RocksDBConfigurableOptions.WRITE_BATCH_SIZE.defaultValue().getBytes();
+	private int objectCacheSize = RocksDBOptions.OBJECT_CACHE_SIZE.defaultValue();
+	private boolean mergeAggregation = RocksDBOptions.MERGE_AGGREGATION.defaultValue();
+	private boolean useDeleteRange = RocksDBOptions.USE_DELETE_RANGE.defaultValue();
+	private int numberOfFullSnapshotThreads = RocksDBOptions.FULL_SNAPSHOT_THREAD_NUM.defaultValue();
+	private long transferRateLimit = RocksDBOptions.CHECKPOINT_TRANSFER_RATE_LIMIT.defaultValue().getBytes();
+	private int transferRetries = RocksDBOptions.CHECKPOINT_TRANSFER_RETRIES.defaultValue();
+	private long timerTimingWheelTickMillis = CheckpointingOptions.TIMER_SERVICE_TIMING_WHEEL_TICK.defaultValue().toMillis();
 
 	private RocksDB injectedTestDB; // for testing
 	private ColumnFamilyHandle injectedDefaultColumnFamilyHandle; // for testing
@@ -225,6 +233,46 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
 		return this;
 	}
 
+	RocksDBKeyedStateBackendBuilder<K> setObjectCacheSize(int objectCacheSize) {
+		checkArgument(objectCacheSize >= 0, "Object cache size should be non negative.");
+		this.objectCacheSize = objectCacheSize;
+		return this;
+	}
+
+	RocksDBKeyedStateBackendBuilder<K> setMergeAggregationEnabled(boolean mergeAggregation) {
+		this.mergeAggregation = mergeAggregation;
+		return this;
+	}
+
+	RocksDBKeyedStateBackendBuilder<K> setUseDeleteRange(boolean useDeleteRange) {
+		this.useDeleteRange = useDeleteRange;
+		return this;
+	}
+
+	RocksDBKeyedStateBackendBuilder<K> setNumberOfFullSnapshotThreads(int numberOfFullSnapshotThreads) {
+		checkArgument(numberOfFullSnapshotThreads > 0, "The number of full snapshot threads must be positive.");
+		this.numberOfFullSnapshotThreads = numberOfFullSnapshotThreads;
+		return this;
+	}
+
+	RocksDBKeyedStateBackendBuilder<K> setTransferRateLimit(long transferRateLimit) {
+		checkArgument(transferRateLimit >= 0, "The transfer rate limit must not be negative.");
+		this.transferRateLimit = transferRateLimit;
+		return this;
+	}
+
+	RocksDBKeyedStateBackendBuilder<K> setTransferRetries(int transferRetries) {
+		checkArgument(transferRetries >= 0, "The number of transfer retries must not be negative.");
+		this.transferRetries = transferRetries;
+		return this;
+	}
+
+	RocksDBKeyedStateBackendBuilder<K> setTimerTimingWheelTickMillis(long timerTimingWheelTickMillis) {
+		checkArgument(timerTimingWheelTickMillis >= 0, "The tick of the timing wheel must not be negative.");
+		this.timerTimingWheelTickMillis = timerTimingWheelTickMillis;
+		return this;
+	}
+
 	private static void checkAndCreateDirectory(File directory) throws IOException {
 		if (directory.exists()) {
 			if (!directory.isDirectory()) {
@@ -258,6 +306,9 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
 			UUID backendUID = UUID.randomUUID();
 			SortedMap<Long, Set<StateHandleID>> materializedSstFiles = new TreeMap<>();
 			long lastCompletedCheckpointId = -1L;
+			// the uploads and downloads of this backend share the rate limit and the metrics
+			RocksDBStateTransferContext transferContext =
+				RocksDBStateTransferContext.create(transferRateLimit, transferRetries, metricGroup);
 			if (injectedTestDB != null) {
 				db = injectedTestDB;
 				defaultColumnFamilyHandle = injectedDefaultColumnFamilyHandle;
@@ -266,7 +317,7 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
 			} else {
 				prepareDirectories();
 				restoreOperation = getRocksDBRestoreOperation(
-					keyGroupPrefixBytes, cancelStreamRegistry, kvStateInformation, ttlCompactFiltersManager);
+					keyGroupPrefixBytes, cancelStreamRegistry, kvStateInformation, ttlCompactFiltersManager, transferContext);
 				RocksDBRestoreResult restoreResult = restoreOperation.restore();
 				db = restoreResult.getDb();
 				defaultColumnFamilyHandle = restoreResult.getDefaultColumnFamilyHandle();
@@ -288,7 +339,8 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
 				32);
 			// init snapshot strategy after db is assured to be initialized
 			snapshotStrategy = initializeSavepointAndCheckpointStrategies(cancelStreamRegistryForBackend, rocksDBResourceGuard,
-				kvStateInformation, keyGroupPrefixBytes, db, backendUID, materializedSstFiles, lastCompletedCheckpointId);
+				kvStateInformation, keyGroupPrefixBytes, db, backendUID, materializedSstFiles, lastCompletedCheckpointId,
+				transferContext);
 			// init priority queue factory
 			priorityQueueFactory = initPriorityQueueFactory(
 				keyGroupPrefixBytes,
@@ -357,14 +409,18 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
 			priorityQueueFactory,
 			ttlCompactFiltersManager,
 			keyContext,
-			writeBatchSize);
+			writeBatchSize,
+			objectCacheSize,
+			mergeAggregation,
+			metricGroup);
 	}
 
 	private AbstractRocksDBRestoreOperation<K> getRocksDBRestoreOperation(
 		int keyGroupPrefixBytes,
 		CloseableRegistry cancelStreamRegistry,
 		LinkedHashMap<String, RocksDBKeyedStateBackend.RocksDbKvStateInfo> kvStateInformation,
-		RocksDbTtlCompactFiltersManager ttlCompactFiltersManager) {
+		RocksDbTtlCompactFiltersManager ttlCompactFiltersManager,
+		RocksDBStateTransferContext transferContext) {
 		DBOptions dbOptions = optionsContainer.getDbOptions();
 		if (restoreStateHandles.isEmpty()) {
 			return new RocksDBNoneRestoreOperation<>(
@@ -403,6 +459,8 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
 				metricGroup,
 				restoreStateHandles,
 				ttlCompactFiltersManager,
+				transferContext,
+				useDeleteRange,
 				writeBatchSize);
 		} else {
 			return new RocksDBFullRestoreOperation<>(
@@ -433,7 +491,8 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
 		RocksDB db,
 		UUID backendUID,
 		SortedMap<Long, Set<StateHandleID>> materializedSstFiles,
-		long lastCompletedCheckpointId) {
+		long lastCompletedCheckpointId,
+		RocksDBStateTransferContext transferContext) {
 		RocksDBSnapshotStrategyBase<K> savepointSnapshotStrategy = new RocksFullSnapshotStrategy<>(
 			db,
 			rocksDBResourceGuard,
@@ -443,7 +502,9 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
 			keyGroupPrefixBytes,
 			localRecoveryConfig,
 			cancelStreamRegistry,
-			keyGroupCompressionDecorator);
+			keyGroupCompressionDecorator,
+			numberOfFullSnapshotThreads,
+			instanceBasePath);
 		RocksDBSnapshotStrategyBase<K> checkpointSnapshotStrategy;
 		if (enableIncrementalCheckpointing) {
 			// TODO eventually we might want to separate savepoint and snapshot strategy, i.e. having 2 strategies.
@@ -460,7 +521,8 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
 				backendUID,
 				materializedSstFiles,
 				lastCompletedCheckpointId,
-				numberOfTransferingThreads);
+				numberOfTransferingThreads,
+				transferContext);
 		} else {
 			checkpointSnapshotStrategy = savepointSnapshotStrategy;
 		}
@@ -476,7 +538,11 @@ public class RocksDBKeyedStateBackendBuilder<K> extends AbstractKeyedStateBacken
 		PriorityQueueSetFactory priorityQueueFactory;
 		switch (priorityQueueStateType) {
 			case HEAP:
-				priorityQueueFactory = new HeapPriorityQueueSetFactory(keyGroupRange, numberOfKeyGroups, 128);
+				priorityQueueFactory = new HeapPriorityQueueSetFactory(
+					keyGroupRange,
+					numberOfKeyGroups,
+					128,
+					timerTimingWheelTickMillis);
 				break;
 			case ROCKSDB:
 				priorityQueueFactory = new RocksDBPriorityQueueSetFactory(
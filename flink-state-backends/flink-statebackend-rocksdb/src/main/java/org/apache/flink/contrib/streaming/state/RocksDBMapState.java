@@ -71,6 +71,13 @@ class RocksDBMapState<K, N, UK, UV>
 	private final TypeSerializer<UK> userKeySerializer;
 	private final TypeSerializer<UV> userValueSerializer;
 
+	/**
+	 * The cache of deserialized user values by serialized user key, null if the object cache is disabled. Null user
+	 * values are never cached.
+	 */
+	@Nullable
+	private final RocksDBObjectCache<UV> objectCache;
+
 	/**
 	 * Creates a new {@code RocksDBMapState}.
 	 *
@@ -79,13 +86,15 @@ class RocksDBMapState<K, N, UK, UV>
 	 * @param valueSerializer The serializer for the state.
 	 * @param defaultValue The default value for the state.
 	 * @param backend The backend for which this state is bind to.
+	 * @param stateName The name of the state, which identifies its object cache.
 	 */
 	private RocksDBMapState(
 			ColumnFamilyHandle columnFamily,
 			TypeSerializer<N> namespaceSerializer,
 			TypeSerializer<Map<UK, UV>> valueSerializer,
 			Map<UK, UV> defaultValue,
-			RocksDBKeyedStateBackend<K> backend) {
+			RocksDBKeyedStateBackend<K> backend,
+			String stateName) {
 
 		super(columnFamily, namespaceSerializer, valueSerializer, defaultValue, backend);
 
@@ -94,6 +103,7 @@ class RocksDBMapState<K, N, UK, UV>
 		MapSerializer<UK, UV> castedMapSerializer = (MapSerializer<UK, UV>) valueSerializer;
 		this.userKeySerializer = castedMapSerializer.getKeySerializer();
 		this.userValueSerializer = castedMapSerializer.getValueSerializer();
+		this.objectCache = backend.getObjectCache(stateName, userValueSerializer);
 	}
 
 	@Override
@@ -118,9 +128,32 @@ class RocksDBMapState<K, N, UK, UV>
 	@Override
 	public UV get(UK userKey) throws IOException, RocksDBException {
 		byte[] rawKeyBytes = serializeCurrentKeyWithGroupAndNamespacePlusUserKey(userKey, userKeySerializer);
+
+		if (objectCache != null) {
+			Object cached = objectCache.get(rawKeyBytes);
+			if (cached == RocksDBObjectCache.ABSENT) {
+				return null;
+			} else if (cached != null) {
+				@SuppressWarnings("unchecked")
+				UV userValue = (UV) cached;
+				return userValue;
+			}
+		}
+
 		byte[] rawValueBytes = backend.db.get(columnFamily, rawKeyBytes);
 
-		return (rawValueBytes == null ? null : deserializeUserValue(dataInputView, rawValueBytes, userValueSerializer));
+		if (rawValueBytes == null) {
+			if (objectCache != null) {
+				objectCache.putAbsent(rawKeyBytes);
+			}
+			return null;
+		}
+
+		UV userValue = deserializeUserValue(dataInputView, rawValueBytes, userValueSerializer);
+		if (objectCache != null && userValue != null) {
+			objectCache.put(rawKeyBytes, userValue);
+		}
+		return userValue;
 	}
 
 	@Override
@@ -130,6 +163,7 @@ class RocksDBMapState<K, N, UK, UV>
 		byte[] rawValueBytes = serializeValueNullSensitive(userValue, userValueSerializer);
 
 		backend.db.put(columnFamily, writeOptions, rawKeyBytes, rawValueBytes);
+		updateObjectCache(rawKeyBytes, userValue);
 	}
 
 	@Override
@@ -143,6 +177,7 @@ class RocksDBMapState<K, N, UK, UV>
 				byte[] rawKeyBytes = serializeCurrentKeyWithGroupAndNamespacePlusUserKey(entry.getKey(), userKeySerializer);
 				byte[] rawValueBytes = serializeValueNullSensitive(entry.getValue(), userValueSerializer);
 				writeBatchWrapper.put(columnFamily, rawKeyBytes, rawValueBytes);
+				updateObjectCache(rawKeyBytes, entry.getValue());
 			}
 		}
 	}
@@ -152,16 +187,46 @@ class RocksDBMapState<K, N, UK, UV>
 		byte[] rawKeyBytes = serializeCurrentKeyWithGroupAndNamespacePlusUserKey(userKey, userKeySerializer);
 
 		backend.db.delete(columnFamily, writeOptions, rawKeyBytes);
+		if (objectCache != null) {
+			objectCache.putAbsent(rawKeyBytes);
+		}
 	}
 
 	@Override
 	public boolean contains(UK userKey) throws IOException, RocksDBException {
 		byte[] rawKeyBytes = serializeCurrentKeyWithGroupAndNamespacePlusUserKey(userKey, userKeySerializer);
+
+		if (objectCache != null) {
+			Object cached = objectCache.get(rawKeyBytes);
+			if (cached != null) {
+				return cached != RocksDBObjectCache.ABSENT;
+			}
+		}
+
 		byte[] rawValueBytes = backend.db.get(columnFamily, rawKeyBytes);
 
+		if (rawValueBytes == null && objectCache != null) {
+			objectCache.putAbsent(rawKeyBytes);
+		}
 		return (rawValueBytes != null);
 	}
 
+	/**
+	 * Writes the new user value through the object cache. Null user values are not cached, so their entries are
+	 * invalidated instead.
+	 */
+	private void updateObjectCache(byte[] rawKeyBytes, @Nullable UV userValue) {
+		if (objectCache == null) {
+			return;
+		}
+
+		if (userValue == null) {
+			objectCache.invalidate(rawKeyBytes);
+		} else {
+			objectCache.put(rawKeyBytes, userValue);
+		}
+	}
+
 	@Override
 	public Iterable<Map.Entry<UK, UV>> entries() {
 		return this::iterator;
@@ -257,6 +322,9 @@ class RocksDBMapState<K, N, UK, UV>
 					byte[] keyBytes = iterator.key();
 					if (startWithKeyPrefix(keyPrefixBytes, keyBytes)) {
 						rocksDBWriteBatchWrapper.remove(columnFamily, keyBytes);
+						if (objectCache != null) {
+							objectCache.invalidate(keyBytes);
+						}
 					} else {
 						break;
 					}
@@ -422,6 +490,9 @@ class RocksDBMapState<K, N, UK, UV>
 
 			try {
 				db.delete(columnFamily, writeOptions, rawKeyBytes);
+				if (objectCache != null) {
+					objectCache.putAbsent(rawKeyBytes);
+				}
 			} catch (RocksDBException e) {
 				throw new FlinkRuntimeException("Error while removing data from RocksDB.", e);
 			}
@@ -470,6 +541,7 @@ class RocksDBMapState<K, N, UK, UV>
 				rawValueBytes = serializeValueNullSensitive(value, valueSerializer);
 
 				db.put(columnFamily, writeOptions, rawKeyBytes, rawValueBytes);
+				updateObjectCache(rawKeyBytes, value);
 			} catch (IOException | RocksDBException e) {
 				throw new FlinkRuntimeException("Error while putting data into RocksDB.", e);
 			}
@@ -629,7 +701,8 @@ class RocksDBMapState<K, N, UK, UV>
 			registerResult.f1.getNamespaceSerializer(),
 			(TypeSerializer<Map<UK, UV>>) registerResult.f1.getStateSerializer(),
 			(Map<UK, UV>) stateDesc.getDefaultValue(),
-			backend);
+			backend,
+			stateDesc.getName());
 	}
 
 	/**
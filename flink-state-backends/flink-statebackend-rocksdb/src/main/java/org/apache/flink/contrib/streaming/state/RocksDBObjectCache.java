@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.contrib.streaming.state;
+
+import org.apache.flink.annotation.VisibleForTesting;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.metrics.Counter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * A size-bounded read-through cache of deserialized state objects in front of RocksDB, keyed by the serialized
+ * composite key of the entry. The least recently used entry is evicted when the cache is full.
+ *
+ * <p>The owning state writes through the cache on every modification, so that the cache never serves stale
+ * objects. Mutable objects are copied when they enter and leave the cache, because users may modify the
+ * objects they retrieved or stored.
+ *
+ * <p>This class is not thread safe, it is accessed by the task thread only.
+ *
+ * @param <V> The type of the cached objects.
+ */
+class RocksDBObjectCache<V> {
+
+	/** Marker of entries which are known to be absent in RocksDB. */
+	static final Object ABSENT = new Object();
+
+	private final LinkedHashMap<CacheKey, Object> entries;
+
+	private final int maxSize;
+
+	private final Counter hits;
+
+	private final Counter misses;
+
+	private final Counter evictions;
+
+	private TypeSerializer<V> serializer;
+
+	RocksDBObjectCache(
+		int maxSize,
+		@Nonnull TypeSerializer<V> serializer,
+		@Nonnull Counter hits,
+		@Nonnull Counter misses,
+		@Nonnull Counter evictions) {
+		checkArgument(maxSize > 0, "Cache size must be positive.");
+		this.maxSize = maxSize;
+		this.serializer = checkNotNull(serializer);
+		this.hits = checkNotNull(hits);
+		this.misses = checkNotNull(misses);
+		this.evictions = checkNotNull(evictions);
+		this.entries = new LinkedHashMap<CacheKey, Object>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<CacheKey, Object> eldest) {
+				if (size() > RocksDBObjectCache.this.maxSize) {
+					RocksDBObjectCache.this.evictions.inc();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cached object for the given key, {@link #ABSENT} if the key is known to be absent, or null if
+	 * the key is not cached.
+	 */
+	@Nullable
+	Object get(byte[] key) {
+		Object value = entries.get(new CacheKey(key));
+		if (value == null) {
+			misses.inc();
+			return null;
+		}
+
+		hits.inc();
+		return value == ABSENT ? ABSENT : copyIfMutable(castValue(value));
+	}
+
+	/**
+	 * Caches the object for the given key.
+	 */
+	void put(byte[] key, @Nonnull V value) {
+		entries.put(new CacheKey(key), copyIfMutable(value));
+	}
+
+	/**
+	 * Marks the given key as absent in RocksDB.
+	 */
+	void putAbsent(byte[] key) {
+		entries.put(new CacheKey(key), ABSENT);
+	}
+
+	void invalidate(byte[] key) {
+		entries.remove(new CacheKey(key));
+	}
+
+	/**
+	 * Drops all cached objects and uses the given serializer from now on, e.g. after the state was re-registered
+	 * with a migrated serializer.
+	 */
+	void reset(@Nonnull TypeSerializer<V> serializer) {
+		entries.clear();
+		this.serializer = checkNotNull(serializer);
+	}
+
+	int size() {
+		return entries.size();
+	}
+
+	@VisibleForTesting
+	long getHitCount() {
+		return hits.getCount();
+	}
+
+	@VisibleForTesting
+	long getMissCount() {
+		return misses.getCount();
+	}
+
+	@VisibleForTesting
+	long getEvictionCount() {
+		return evictions.getCount();
+	}
+
+	private V copyIfMutable(V value) {
+		return serializer.isImmutableType() ? value : serializer.copy(value);
+	}
+
+	@SuppressWarnings("unchecked")
+	private V castValue(Object value) {
+		return (V) value;
+	}
+
+	/**
+	 * Wraps the serialized key to compare it by content.
+	 */
+	private static final class CacheKey {
+
+		private final byte[] key;
+
+		private final int hash;
+
+		CacheKey(byte[] key) {
+			this.key = key;
+			this.hash = Arrays.hashCode(key);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return this == o || (o instanceof CacheKey && Arrays.equals(key, ((CacheKey) o).key));
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
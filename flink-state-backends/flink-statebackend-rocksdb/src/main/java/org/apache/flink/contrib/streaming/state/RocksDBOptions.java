@@ -65,6 +65,83 @@ public class RocksDBOptions {
 		.defaultValue(1)
 		.withDescription("The number of threads (per stateful operator) used to transfer (download and upload) files in RocksDBStateBackend.");
 
+	/**
+	 * The maximum rate of the file transfers of the keyed state backend of each operator subtask in RocksDBStateBackend.
+	 */
+	@Documentation.Section(Documentation.Sections.EXPERT_ROCKSDB)
+	public static final ConfigOption<MemorySize> CHECKPOINT_TRANSFER_RATE_LIMIT = ConfigOptions
+		.key("state.backend.rocksdb.checkpoint.transfer.rate-limit")
+		.memoryType()
+		.defaultValue(MemorySize.ZERO)
+		.withDescription("The maximum number of bytes per second with which the keyed state backend of each " +
+			"operator subtask transfers (uploads and downloads) files of incremental checkpoints, so that " +
+			"checkpoints and restores don't saturate the network of the data path. 0 disables the limit.");
+
+	/**
+	 * The number of times a failed file transfer is retried in RocksDBStateBackend.
+	 */
+	@Documentation.Section(Documentation.Sections.EXPERT_ROCKSDB)
+	public static final ConfigOption<Integer> CHECKPOINT_TRANSFER_RETRIES = ConfigOptions
+		.key("state.backend.rocksdb.checkpoint.transfer.retries")
+		.intType()
+		.defaultValue(0)
+		.withDescription("The number of times a failed upload or download of a file of an incremental checkpoint " +
+			"is retried, with an exponential backoff from 1 second to 10 seconds.");
+
+	/**
+	 * The number of threads used to write a full snapshot in RocksDBStateBackend.
+	 */
+	@Documentation.Section(Documentation.Sections.EXPERT_ROCKSDB)
+	public static final ConfigOption<Integer> FULL_SNAPSHOT_THREAD_NUM = ConfigOptions
+		.key("state.backend.rocksdb.full-snapshot.thread.num")
+		.intType()
+		.defaultValue(1)
+		.withDescription("The number of threads (per stateful operator) which write a full snapshot of " +
+			"RocksDBStateBackend, e.g. a savepoint, concurrently. Each thread iterates and writes a contiguous " +
+			"range of key-groups into a local file, and the files are appended to the snapshot in key-group order, " +
+			"so the snapshot is the same as if it was written by one thread. This needs local disk space for the " +
+			"snapshot.");
+
+	/**
+	 * The maximum number of deserialized objects cached per state in RocksDBStateBackend.
+	 */
+	@Documentation.Section(Documentation.Sections.EXPERT_ROCKSDB)
+	public static final ConfigOption<Integer> OBJECT_CACHE_SIZE = ConfigOptions
+		.key("state.backend.rocksdb.object-cache.size")
+		.intType()
+		.defaultValue(0)
+		.withDescription("The maximum number of deserialized objects which are cached per value or map state in " +
+			"front of RocksDB, so that hot entries are not deserialized on every access. The least recently used " +
+			"objects are evicted first. 0 disables the cache.");
+
+	/**
+	 * Whether reducing and aggregating states add values with RocksDB merge operands.
+	 */
+	@Documentation.Section(Documentation.Sections.EXPERT_ROCKSDB)
+	public static final ConfigOption<Boolean> MERGE_AGGREGATION = ConfigOptions
+		.key("state.backend.rocksdb.merge-aggregation.enabled")
+		.booleanType()
+		.defaultValue(false)
+		.withDescription("If true, reducing and aggregating states append every added value as a RocksDB merge " +
+			"operand instead of reading, updating and writing back the stored value. The operands are folded " +
+			"every time the state is read and are only dropped when the state is cleared. This removes the point " +
+			"lookup from adding a value, at the cost of slower reads. Aggregating states rely on " +
+			"AggregateFunction#merge to fold the operands, so only states whose descriptor enables merge " +
+			"aggregation use it. States with TTL always read, update and write back the stored value.");
+
+	/**
+	 * Whether the key-groups outside of the key-group range of a rescaled backend are removed with range deletes.
+	 */
+	@Documentation.Section(Documentation.Sections.EXPERT_ROCKSDB)
+	public static final ConfigOption<Boolean> USE_DELETE_RANGE = ConfigOptions
+		.key("state.backend.rocksdb.rescaling.use-delete-range")
+		.booleanType()
+		.defaultValue(false)
+		.withDescription("If true, the key-groups outside of the key-group range of a backend which is restored " +
+			"from a rescaled incremental checkpoint are removed with one RocksDB range delete per column family " +
+			"instead of a delete per key. This speeds up the restore, but every read has to check the range " +
+			"tombstones until they are compacted away.");
+
 	/**
 	 * The predefined settings for RocksDB DBOptions and ColumnFamilyOptions by Flink community.
 	 */
@@ -41,12 +41,15 @@ import java.util.Collection;
  * @param <V> The type of value that the state state stores.
  */
 class RocksDBReducingState<K, N, V>
-	extends AbstractRocksDBAppendingState<K, N, V, V, V>
+	extends AbstractRocksDBMergeOperandState<K, N, V, V, V>
 	implements InternalReducingState<K, N, V> {
 
 	/** User-specified reduce function. */
 	private final ReduceFunction<V> reduceFunction;
 
+	/** True if added values are appended as merge operands, which are reduced when the state is read. */
+	private final boolean mergeAggregation;
+
 	/**
 	 * Creates a new {@code RocksDBReducingState}.
 	 *
@@ -56,16 +59,19 @@ class RocksDBReducingState<K, N, V>
 	 * @param defaultValue The default value for the state.
 	 * @param reduceFunction The reduce function used for reducing state.
 	 * @param backend The backend for which this state is bind to.
+	 * @param mergeAggregation True if added values are appended as merge operands.
 	 */
 	private RocksDBReducingState(ColumnFamilyHandle columnFamily,
 			TypeSerializer<N> namespaceSerializer,
 			TypeSerializer<V> valueSerializer,
 			V defaultValue,
 			ReduceFunction<V> reduceFunction,
-			RocksDBKeyedStateBackend<K> backend) {
+			RocksDBKeyedStateBackend<K> backend,
+			boolean mergeAggregation) {
 
 		super(columnFamily, namespaceSerializer, valueSerializer, defaultValue, backend);
 		this.reduceFunction = reduceFunction;
+		this.mergeAggregation = mergeAggregation;
 	}
 
 	@Override
@@ -91,6 +97,11 @@ class RocksDBReducingState<K, N, V>
 	@Override
 	public void add(V value) throws Exception {
 		byte[] key = getKeyBytes();
+		if (mergeAggregation) {
+			addOperand(key, value);
+			return;
+		}
+
 		V oldValue = getInternal(key);
 		V newValue = oldValue == null ? value : reduceFunction.reduce(oldValue, value);
 		updateInternal(key, newValue);
@@ -114,8 +125,7 @@ class RocksDBReducingState<K, N, V>
 
 					if (valueBytes != null) {
 						backend.db.delete(columnFamily, writeOptions, sourceKey);
-						dataInputView.setBuffer(valueBytes);
-						V value = valueSerializer.deserialize(dataInputView);
+						V value = deserializeValue(valueBytes);
 
 						if (current != null) {
 							current = reduceFunction.reduce(current, value);
@@ -132,12 +142,16 @@ class RocksDBReducingState<K, N, V>
 				// create the target full-binary-key
 				setCurrentNamespace(target);
 				final byte[] targetKey = serializeCurrentKeyWithGroupAndNamespace();
+				if (mergeAggregation) {
+					addOperand(targetKey, current);
+					return;
+				}
+
 				final byte[] targetValueBytes = backend.db.get(columnFamily, targetKey);
 
 				if (targetValueBytes != null) {
-					dataInputView.setBuffer(targetValueBytes);
 					// target also had a value, merge
-					V value = valueSerializer.deserialize(dataInputView);
+					V value = deserializeValue(targetValueBytes);
 
 					current = reduceFunction.reduce(current, value);
 				}
@@ -155,6 +169,15 @@ class RocksDBReducingState<K, N, V>
 		}
 	}
 
+	@Override
+	V mergeOperands(V first, V second) {
+		try {
+			return reduceFunction.reduce(first, second);
+		} catch (Exception e) {
+			throw new FlinkRuntimeException("Error while reducing the merge operands of the state", e);
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	static <K, N, SV, S extends State, IS extends S> IS create(
 		StateDescriptor<S, SV> stateDesc,
@@ -166,6 +189,7 @@ class RocksDBReducingState<K, N, V>
 			registerResult.f1.getStateSerializer(),
 			stateDesc.getDefaultValue(),
 			((ReducingStateDescriptor<SV>) stateDesc).getReduceFunction(),
-			backend);
+			backend,
+			backend.isMergeAggregationEnabled(registerResult.f1.getStateSerializer()));
 	}
 }
@@ -72,7 +72,13 @@ import java.util.Random;
 import java.util.UUID;
 
 import static org.apache.flink.contrib.streaming.state.RocksDBConfigurableOptions.WRITE_BATCH_SIZE;
+import static org.apache.flink.contrib.streaming.state.RocksDBOptions.CHECKPOINT_TRANSFER_RATE_LIMIT;
+import static org.apache.flink.contrib.streaming.state.RocksDBOptions.CHECKPOINT_TRANSFER_RETRIES;
 import static org.apache.flink.contrib.streaming.state.RocksDBOptions.CHECKPOINT_TRANSFER_THREAD_NUM;
+import static org.apache.flink.contrib.streaming.state.RocksDBOptions.FULL_SNAPSHOT_THREAD_NUM;
+import static org.apache.flink.contrib.streaming.state.RocksDBOptions.MERGE_AGGREGATION;
+import static org.apache.flink.contrib.streaming.state.RocksDBOptions.USE_DELETE_RANGE;
+import static org.apache.flink.contrib.streaming.state.RocksDBOptions.OBJECT_CACHE_SIZE;
 import static org.apache.flink.contrib.streaming.state.RocksDBOptions.TIMER_SERVICE_FACTORY;
 import static org.apache.flink.util.Preconditions.checkArgument;
 import static org.apache.flink.util.Preconditions.checkNotNull;
@@ -112,6 +118,11 @@ public class RocksDBStateBackend extends AbstractStateBackend implements Configu
 
 	private static final int UNDEFINED_NUMBER_OF_TRANSFER_THREADS = -1;
 	private static final long UNDEFINED_WRITE_BATCH_SIZE = -1;
+	private static final int UNDEFINED_OBJECT_CACHE_SIZE = -1;
+	private static final int UNDEFINED_NUMBER_OF_FULL_SNAPSHOT_THREADS = -1;
+	private static final long UNDEFINED_TRANSFER_RATE_LIMIT = -1;
+	private static final int UNDEFINED_TRANSFER_RETRIES = -1;
+	private static final long UNDEFINED_TIMER_TIMING_WHEEL_TICK = -1;
 
 	// ------------------------------------------------------------------------
 
@@ -169,6 +180,29 @@ public class RocksDBStateBackend extends AbstractStateBackend implements Configu
 	 */
 	private long writeBatchSize;
 
+	/**
+	 * Max number of deserialized objects cached per state, 0 disables the cache.
+	 */
+	private int objectCacheSize;
+
+	/** Whether reducing and aggregating states add values with merge operands. */
+	private TernaryBoolean mergeAggregation;
+
+	/** Whether the key-groups outside of the key-group range are removed with range deletes when rescaling. */
+	private TernaryBoolean useDeleteRange;
+
+	/** The number of threads which write a full snapshot concurrently. */
+	private int numberOfFullSnapshotThreads;
+
+	/** The max bytes per second of the file transfers of each keyed state backend, 0 for no limit. */
+	private long transferRateLimit;
+
+	/** The number of times a failed file transfer is retried. */
+	private int transferRetries;
+
+	/** The tick of the timing wheel of the timers on the heap in milliseconds, 0 for a binary heap. */
+	private long timerTimingWheelTickMillis;
+
 	// ------------------------------------------------------------------------
 
 	/**
@@ -269,6 +303,13 @@ public class RocksDBStateBackend extends AbstractStateBackend implements Configu
 		this.defaultMetricOptions = new RocksDBNativeMetricOptions();
 		this.memoryConfiguration = new RocksDBMemoryConfiguration();
 		this.writeBatchSize = UNDEFINED_WRITE_BATCH_SIZE;
+		this.objectCacheSize = UNDEFINED_OBJECT_CACHE_SIZE;
+		this.mergeAggregation = TernaryBoolean.UNDEFINED;
+		this.useDeleteRange = TernaryBoolean.UNDEFINED;
+		this.numberOfFullSnapshotThreads = UNDEFINED_NUMBER_OF_FULL_SNAPSHOT_THREADS;
+		this.transferRateLimit = UNDEFINED_TRANSFER_RATE_LIMIT;
+		this.transferRetries = UNDEFINED_TRANSFER_RETRIES;
+		this.timerTimingWheelTickMillis = UNDEFINED_TIMER_TIMING_WHEEL_TICK;
 	}
 
 	/**
@@ -317,6 +358,39 @@ public class RocksDBStateBackend extends AbstractStateBackend implements Configu
 			this.writeBatchSize = original.writeBatchSize;
 		}
 
+		if (original.objectCacheSize == UNDEFINED_OBJECT_CACHE_SIZE) {
+			this.objectCacheSize = config.get(OBJECT_CACHE_SIZE);
+		} else {
+			this.objectCacheSize = original.objectCacheSize;
+		}
+
+		this.mergeAggregation = original.mergeAggregation.resolveUndefined(config.get(MERGE_AGGREGATION));
+		this.useDeleteRange = original.useDeleteRange.resolveUndefined(config.get(USE_DELETE_RANGE));
+
+		if (original.numberOfFullSnapshotThreads == UNDEFINED_NUMBER_OF_FULL_SNAPSHOT_THREADS) {
+			this.numberOfFullSnapshotThreads = config.get(FULL_SNAPSHOT_THREAD_NUM);
+		} else {
+			this.numberOfFullSnapshotThreads = original.numberOfFullSnapshotThreads;
+		}
+
+		if (original.transferRateLimit == UNDEFINED_TRANSFER_RATE_LIMIT) {
+			this.transferRateLimit = config.get(CHECKPOINT_TRANSFER_RATE_LIMIT).getBytes();
+		} else {
+			this.transferRateLimit = original.transferRateLimit;
+		}
+
+		if (original.transferRetries == UNDEFINED_TRANSFER_RETRIES) {
+			this.transferRetries = config.get(CHECKPOINT_TRANSFER_RETRIES);
+		} else {
+			this.transferRetries = original.transferRetries;
+		}
+
+		if (original.timerTimingWheelTickMillis == UNDEFINED_TIMER_TIMING_WHEEL_TICK) {
+			this.timerTimingWheelTickMillis = config.get(CheckpointingOptions.TIMER_SERVICE_TIMING_WHEEL_TICK).toMillis();
+		} else {
+			this.timerTimingWheelTickMillis = original.timerTimingWheelTickMillis;
+		}
+
 		this.memoryConfiguration = RocksDBMemoryConfiguration.fromOtherAndConfiguration(original.memoryConfiguration, config);
 		this.memoryConfiguration.validate();
 
@@ -531,7 +605,14 @@ public class RocksDBStateBackend extends AbstractStateBackend implements Configu
 			.setEnableIncrementalCheckpointing(isIncrementalCheckpointsEnabled())
 			.setNumberOfTransferingThreads(getNumberOfTransferThreads())
 			.setNativeMetricOptions(resourceContainer.getMemoryWatcherOptions(defaultMetricOptions))
-			.setWriteBatchSize(getWriteBatchSize());
+			.setWriteBatchSize(getWriteBatchSize())
+			.setObjectCacheSize(getObjectCacheSize())
+			.setMergeAggregationEnabled(isMergeAggregationEnabled())
+			.setUseDeleteRange(isUseDeleteRange())
+			.setNumberOfFullSnapshotThreads(getNumberOfFullSnapshotThreads())
+			.setTransferRateLimit(getTransferRateLimit())
+			.setTransferRetries(getTransferRetries())
+			.setTimerTimingWheelTickMillis(getTimerTimingWheelTickMillis());
 		return builder.build();
 	}
 
@@ -856,6 +937,128 @@ public class RocksDBStateBackend extends AbstractStateBackend implements Configu
 		this.writeBatchSize = writeBatchSize;
 	}
 
+	/**
+	 * Gets the max number of deserialized objects cached per state.
+	 */
+	public int getObjectCacheSize() {
+		return objectCacheSize == UNDEFINED_OBJECT_CACHE_SIZE ?
+			OBJECT_CACHE_SIZE.defaultValue() : objectCacheSize;
+	}
+
+	/**
+	 * Sets the max number of deserialized objects cached per value or map state in front of RocksDB.
+	 * 0 disables the cache.
+	 * @param objectCacheSize The max number of cached objects per state.
+	 */
+	public void setObjectCacheSize(int objectCacheSize) {
+		checkArgument(objectCacheSize >= 0, "Object cache size have to be no negative.");
+		this.objectCacheSize = objectCacheSize;
+	}
+
+	/**
+	 * Gets whether reducing and aggregating states add values with RocksDB merge operands.
+	 */
+	public boolean isMergeAggregationEnabled() {
+		return mergeAggregation.getOrDefault(MERGE_AGGREGATION.defaultValue());
+	}
+
+	/**
+	 * Sets whether reducing and aggregating states add values with RocksDB merge operands, which are folded
+	 * when the state is read, instead of reading, updating and writing back the stored value.
+	 * @param mergeAggregation True to add values with merge operands.
+	 */
+	public void setMergeAggregationEnabled(boolean mergeAggregation) {
+		this.mergeAggregation = TernaryBoolean.fromBoolean(mergeAggregation);
+	}
+
+	/**
+	 * Gets whether the key-groups outside of the key-group range are removed with range deletes when rescaling.
+	 */
+	public boolean isUseDeleteRange() {
+		return useDeleteRange.getOrDefault(USE_DELETE_RANGE.defaultValue());
+	}
+
+	/**
+	 * Sets whether the key-groups outside of the key-group range of a backend which is restored from a rescaled
+	 * incremental checkpoint are removed with range deletes instead of a delete per key.
+	 * @param useDeleteRange True to remove the key-groups with range deletes.
+	 */
+	public void setUseDeleteRange(boolean useDeleteRange) {
+		this.useDeleteRange = TernaryBoolean.fromBoolean(useDeleteRange);
+	}
+
+	/**
+	 * Gets the number of threads which write a full snapshot concurrently.
+	 */
+	public int getNumberOfFullSnapshotThreads() {
+		return numberOfFullSnapshotThreads == UNDEFINED_NUMBER_OF_FULL_SNAPSHOT_THREADS ?
+			FULL_SNAPSHOT_THREAD_NUM.defaultValue() : numberOfFullSnapshotThreads;
+	}
+
+	/**
+	 * Sets the number of threads which write disjoint key-group ranges of a full snapshot, e.g. a savepoint,
+	 * concurrently into local files before they are appended to the snapshot.
+	 * @param numberOfFullSnapshotThreads The number of threads, 1 writes the snapshot directly.
+	 */
+	public void setNumberOfFullSnapshotThreads(int numberOfFullSnapshotThreads) {
+		checkArgument(numberOfFullSnapshotThreads > 0, "The number of full snapshot threads must be positive.");
+		this.numberOfFullSnapshotThreads = numberOfFullSnapshotThreads;
+	}
+
+	/**
+	 * Gets the max bytes per second of the file transfers of each keyed state backend, 0 for no limit.
+	 */
+	public long getTransferRateLimit() {
+		return transferRateLimit == UNDEFINED_TRANSFER_RATE_LIMIT ?
+			CHECKPOINT_TRANSFER_RATE_LIMIT.defaultValue().getBytes() : transferRateLimit;
+	}
+
+	/**
+	 * Sets the max bytes per second with which each keyed state backend uploads and downloads the files of
+	 * incremental checkpoints. 0 disables the limit.
+	 * @param transferRateLimit The max bytes per second.
+	 */
+	public void setTransferRateLimit(long transferRateLimit) {
+		checkArgument(transferRateLimit >= 0, "The transfer rate limit must not be negative.");
+		this.transferRateLimit = transferRateLimit;
+	}
+
+	/**
+	 * Gets the number of times a failed file transfer is retried.
+	 */
+	public int getTransferRetries() {
+		return transferRetries == UNDEFINED_TRANSFER_RETRIES ?
+			CHECKPOINT_TRANSFER_RETRIES.defaultValue() : transferRetries;
+	}
+
+	/**
+	 * Sets the number of times a failed upload or download of a file of an incremental checkpoint is retried.
+	 * @param transferRetries The number of retries, 0 fails on the first error.
+	 */
+	public void setTransferRetries(int transferRetries) {
+		checkArgument(transferRetries >= 0, "The number of transfer retries must not be negative.");
+		this.transferRetries = transferRetries;
+	}
+
+	/**
+	 * Gets the tick of the timing wheel which keeps the timers on the heap, in milliseconds.
+	 */
+	public long getTimerTimingWheelTickMillis() {
+		return timerTimingWheelTickMillis == UNDEFINED_TIMER_TIMING_WHEEL_TICK ?
+			CheckpointingOptions.TIMER_SERVICE_TIMING_WHEEL_TICK.defaultValue().toMillis() : timerTimingWheelTickMillis;
+	}
+
+	/**
+	 * Sets the tick of the timing wheel which keeps the timers, if they are kept on the heap
+	 * (see {@link #setPriorityQueueStateType(PriorityQueueStateType)}).
+	 * @param timerTimingWheelTickMillis The interval of timestamps of every bucket in milliseconds, 0 keeps the
+	 *                                   timers in a binary heap.
+	 */
+	public void setTimerTimingWheelTickMillis(long timerTimingWheelTickMillis) {
+		checkArgument(timerTimingWheelTickMillis >= 0, "The tick of the timing wheel must not be negative.");
+		this.timerTimingWheelTickMillis = timerTimingWheelTickMillis;
+	}
+
 	// ------------------------------------------------------------------------
 	//  utilities
 	// ------------------------------------------------------------------------
@@ -883,6 +1086,13 @@ public class RocksDBStateBackend extends AbstractStateBackend implements Configu
 				", enableIncrementalCheckpointing=" + enableIncrementalCheckpointing +
 				", numberOfTransferThreads=" + numberOfTransferThreads +
 				", writeBatchSize=" + writeBatchSize +
+				", objectCacheSize=" + objectCacheSize +
+				", mergeAggregation=" + mergeAggregation +
+				", useDeleteRange=" + useDeleteRange +
+				", numberOfFullSnapshotThreads=" + numberOfFullSnapshotThreads +
+				", transferRateLimit=" + transferRateLimit +
+				", transferRetries=" + transferRetries +
+				", timerTimingWheelTickMillis=" + timerTimingWheelTickMillis +
 				'}';
 	}
 
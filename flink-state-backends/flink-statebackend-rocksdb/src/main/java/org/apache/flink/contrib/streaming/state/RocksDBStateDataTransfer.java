@@ -17,29 +17,222 @@
 
 package org.apache.flink.contrib.streaming.state;
 
+import org.apache.flink.core.fs.CloseableRegistry;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.runtime.util.ExecutorThreadFactory;
+import org.apache.flink.util.function.SupplierWithException;
+
+import org.apache.flink.shaded.guava18.com.google.common.util.concurrent.RateLimiter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
 import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static org.apache.flink.runtime.concurrent.Executors.newDirectExecutorService;
+import static org.apache.flink.util.Preconditions.checkNotNull;
 
 /**
  * Data transfer base class for {@link RocksDBKeyedStateBackend}.
+ *
+ * <p>The uploads and downloads of a backend share the rate limit of its {@link RocksDBStateTransferContext}, so that
+ * checkpoints and restores don't saturate the network of the data path. A failed transfer of a file is retried with
+ * an exponential backoff. The retries are scheduled, so that no transfer thread is blocked while waiting.
  */
 class RocksDBStateDataTransfer implements Closeable {
 
+	private static final Logger LOG = LoggerFactory.getLogger(RocksDBStateDataTransfer.class);
+
+	private static final int BUFFER_SIZE = 16 * 1024;
+
+	private static final long INITIAL_RETRY_BACKOFF_MILLIS = 1000L;
+
+	private static final long MAX_RETRY_BACKOFF_MILLIS = 10000L;
+
 	protected final ExecutorService executorService;
 
-	RocksDBStateDataTransfer(int threadNum) {
+	/** The rate limiter of the transfers, null if the rate is not limited. */
+	@Nullable
+	private final RateLimiter rateLimiter;
+
+	/** The number of times a failed transfer of a file is retried. */
+	private final int maxRetries;
+
+	/** The number of bytes transferred by this instance. */
+	private final Counter numBytesTransferred;
+
+	/** The number of retried file transfers. */
+	private final Counter numRetries;
+
+	/** The executor which schedules the retries, created with the first retry. */
+	@GuardedBy("this")
+	@Nullable
+	private ScheduledExecutorService retryExecutor;
+
+	/** The result futures of the transfers which wait for a scheduled retry. */
+	@GuardedBy("this")
+	private final Set<CompletableFuture<?>> retryingTransfers = new HashSet<>();
+
+	@GuardedBy("this")
+	private boolean closed;
+
+	RocksDBStateDataTransfer(
+		int threadNum,
+		@Nullable RateLimiter rateLimiter,
+		int maxRetries,
+		Counter numBytesTransferred,
+		Counter numRetries) {
 		if (threadNum > 1) {
 			executorService = Executors.newFixedThreadPool(threadNum);
 		} else {
 			executorService = newDirectExecutorService();
 		}
+		this.rateLimiter = rateLimiter;
+		this.maxRetries = maxRetries;
+		this.numBytesTransferred = checkNotNull(numBytesTransferred);
+		this.numRetries = checkNotNull(numRetries);
+	}
+
+	/**
+	 * Copies all bytes of the input stream to the output stream within the rate limit.
+	 */
+	protected void transfer(InputStream inputStream, OutputStream outputStream) throws IOException {
+		final byte[] buffer = new byte[BUFFER_SIZE];
+		while (true) {
+			int numBytes = inputStream.read(buffer);
+			if (numBytes == -1) {
+				break;
+			}
+
+			if (rateLimiter != null && numBytes > 0) {
+				rateLimiter.acquire(numBytes);
+			}
+			outputStream.write(buffer, 0, numBytes);
+			numBytesTransferred.inc(numBytes);
+		}
+	}
+
+	/**
+	 * Runs the given transfer of a file in the executor service, and retries it with an exponential backoff if it
+	 * fails with an {@link IOException}, unless the transfers were cancelled by closing the given registry. Every
+	 * attempt must clean up its partial result.
+	 *
+	 * @return the future of the result of the successful attempt, or of the failure of the last attempt.
+	 */
+	protected <T> CompletableFuture<T> transferWithRetries(
+		SupplierWithException<T, IOException> transfer,
+		CloseableRegistry closeableRegistry,
+		Object description) {
+
+		final CompletableFuture<T> resultFuture = new CompletableFuture<>();
+		runAttempt(transfer, closeableRegistry, description, 0, INITIAL_RETRY_BACKOFF_MILLIS, resultFuture);
+		return resultFuture;
+	}
+
+	private <T> void runAttempt(
+		SupplierWithException<T, IOException> transfer,
+		CloseableRegistry closeableRegistry,
+		Object description,
+		int attempt,
+		long backoffMillis,
+		CompletableFuture<T> resultFuture) {
+
+		try {
+			executorService.execute(() -> {
+				try {
+					resultFuture.complete(transfer.get());
+				} catch (IOException e) {
+					if (attempt >= maxRetries || closeableRegistry.isClosed()) {
+						resultFuture.completeExceptionally(e);
+						return;
+					}
+					LOG.warn("Failed to transfer {}, retrying in {} ms ({}/{}).",
+						description, backoffMillis, attempt + 1, maxRetries, e);
+					numRetries.inc();
+					scheduleRetry(
+						() -> runAttempt(
+							transfer,
+							closeableRegistry,
+							description,
+							attempt + 1,
+							Math.min(2 * backoffMillis, MAX_RETRY_BACKOFF_MILLIS),
+							resultFuture),
+						backoffMillis,
+						resultFuture,
+						e);
+				} catch (Throwable t) {
+					resultFuture.completeExceptionally(t);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			resultFuture.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * Schedules the given retry of a transfer. The transfer fails with the given failure if this instance is closed
+	 * before the retry runs.
+	 */
+	private synchronized void scheduleRetry(
+		Runnable retry,
+		long backoffMillis,
+		CompletableFuture<?> resultFuture,
+		IOException failure) {
+
+		if (closed) {
+			resultFuture.completeExceptionally(failure);
+			return;
+		}
+		if (retryExecutor == null) {
+			retryExecutor = Executors.newSingleThreadScheduledExecutor(
+				new ExecutorThreadFactory("rocksdb-transfer-retry"));
+		}
+
+		retryingTransfers.add(resultFuture);
+		retryExecutor.schedule(
+			() -> {
+				synchronized (this) {
+					if (!retryingTransfers.remove(resultFuture)) {
+						// failed by close()
+						return;
+					}
+				}
+				retry.run();
+			},
+			backoffMillis,
+			TimeUnit.MILLISECONDS);
 	}
 
 	@Override
 	public void close() {
+		final List<CompletableFuture<?>> abortedTransfers;
+		synchronized (this) {
+			closed = true;
+			if (retryExecutor != null) {
+				retryExecutor.shutdownNow();
+			}
+			abortedTransfers = new ArrayList<>(retryingTransfers);
+			retryingTransfers.clear();
+		}
+		for (CompletableFuture<?> transfer : abortedTransfers) {
+			transfer.completeExceptionally(new IOException("The transfer was closed while waiting for a retry."));
+		}
 		executorService.shutdownNow();
 	}
 }
@@ -25,13 +25,13 @@ import org.apache.flink.runtime.state.StateHandleID;
 import org.apache.flink.runtime.state.StreamStateHandle;
 import org.apache.flink.util.ExceptionUtils;
 import org.apache.flink.util.FlinkRuntimeException;
-import org.apache.flink.util.function.ThrowingRunnable;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -41,8 +41,18 @@ import java.util.concurrent.ExecutionException;
  * Help class for downloading RocksDB state files.
  */
 public class RocksDBStateDownloader extends RocksDBStateDataTransfer {
+
 	public RocksDBStateDownloader(int restoringThreadNum) {
-		super(restoringThreadNum);
+		this(restoringThreadNum, RocksDBStateTransferContext.createUnlimited());
+	}
+
+	public RocksDBStateDownloader(int restoringThreadNum, RocksDBStateTransferContext transferContext) {
+		super(
+			restoringThreadNum,
+			transferContext.getRateLimiter(),
+			transferContext.getMaxRetries(),
+			transferContext.getNumBytesDownloaded(),
+			transferContext.getNumRetries());
 	}
 
 	/**
@@ -69,7 +79,7 @@ public class RocksDBStateDownloader extends RocksDBStateDataTransfer {
 
 	/**
 	 * Copies all the files from the given stream state handles to the given path, renaming the files w.r.t. their
-	 * {@link StateHandleID}.
+	 * {@link StateHandleID}. The smallest files are downloaded first.
 	 */
 	private void downloadDataForAllStateHandles(
 		Map<StateHandleID, StreamStateHandle> stateHandleMap,
@@ -77,11 +87,7 @@ public class RocksDBStateDownloader extends RocksDBStateDataTransfer {
 		CloseableRegistry closeableRegistry) throws Exception {
 
 		try {
-			List<Runnable> runnables = createDownloadRunnables(stateHandleMap, restoreInstancePath, closeableRegistry);
-			List<CompletableFuture<Void>> futures = new ArrayList<>(runnables.size());
-			for (Runnable runnable : runnables) {
-				futures.add(CompletableFuture.runAsync(runnable, executorService));
-			}
+			List<CompletableFuture<Void>> futures = createDownloadFutures(stateHandleMap, restoreInstancePath, closeableRegistry);
 			FutureUtils.waitForAll(futures).get();
 		} catch (ExecutionException e) {
 			Throwable throwable = ExceptionUtils.stripExecutionException(e);
@@ -94,27 +100,48 @@ public class RocksDBStateDownloader extends RocksDBStateDataTransfer {
 		}
 	}
 
-	private List<Runnable> createDownloadRunnables(
+	private List<CompletableFuture<Void>> createDownloadFutures(
 		Map<StateHandleID, StreamStateHandle> stateHandleMap,
 		Path restoreInstancePath,
 		CloseableRegistry closeableRegistry) {
-		List<Runnable> runnables = new ArrayList<>(stateHandleMap.size());
-		for (Map.Entry<StateHandleID, StreamStateHandle> entry : stateHandleMap.entrySet()) {
+		List<Map.Entry<StateHandleID, StreamStateHandle>> entries = new ArrayList<>(stateHandleMap.entrySet());
+		entries.sort(Comparator.comparingLong(entry -> entry.getValue().getStateSize()));
+
+		List<CompletableFuture<Void>> futures = new ArrayList<>(entries.size());
+		for (Map.Entry<StateHandleID, StreamStateHandle> entry : entries) {
 			StateHandleID stateHandleID = entry.getKey();
 			StreamStateHandle remoteFileHandle = entry.getValue();
 
 			Path path = restoreInstancePath.resolve(stateHandleID.toString());
 
-			runnables.add(ThrowingRunnable.unchecked(
-				() -> downloadDataForStateHandle(path, remoteFileHandle, closeableRegistry)));
+			futures.add(downloadDataForStateHandle(path, remoteFileHandle, closeableRegistry));
 		}
-		return runnables;
+		return futures;
 	}
 
 	/**
 	 * Copies the file from a single state handle to the given path.
 	 */
-	private void downloadDataForStateHandle(
+	private CompletableFuture<Void> downloadDataForStateHandle(
+		Path restoreFilePath,
+		StreamStateHandle remoteFileHandle,
+		CloseableRegistry closeableRegistry) {
+
+		return transferWithRetries(
+			() -> {
+				try {
+					downloadDataForStateHandleOnce(restoreFilePath, remoteFileHandle, closeableRegistry);
+				} catch (IOException e) {
+					Files.deleteIfExists(restoreFilePath);
+					throw e;
+				}
+				return null;
+			},
+			closeableRegistry,
+			remoteFileHandle);
+	}
+
+	private void downloadDataForStateHandleOnce(
 		Path restoreFilePath,
 		StreamStateHandle remoteFileHandle,
 		CloseableRegistry closeableRegistry) throws IOException {
@@ -130,15 +157,7 @@ public class RocksDBStateDownloader extends RocksDBStateDataTransfer {
 			outputStream = Files.newOutputStream(restoreFilePath);
 			closeableRegistry.registerCloseable(outputStream);
 
-			byte[] buffer = new byte[8 * 1024];
-			while (true) {
-				int numBytes = inputStream.read(buffer);
-				if (numBytes == -1) {
-					break;
-				}
-
-				outputStream.write(buffer, 0, numBytes);
-			}
+			transfer(inputStream, outputStream);
 		} finally {
 			if (closeableRegistry.unregisterCloseable(inputStream)) {
 				inputStream.close();
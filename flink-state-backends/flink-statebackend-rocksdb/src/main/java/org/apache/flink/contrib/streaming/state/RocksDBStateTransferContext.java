@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.contrib.streaming.state;
+
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.MeterView;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.metrics.SimpleCounter;
+
+import org.apache.flink.shaded.guava18.com.google.common.util.concurrent.RateLimiter;
+
+import javax.annotation.Nullable;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * The rate limit, retries and metrics which the uploads and downloads of the files of incremental checkpoints of one
+ * {@link RocksDBKeyedStateBackend} share.
+ */
+public class RocksDBStateTransferContext {
+
+	/** The name of the metric group of the transfer metrics, below the metric group of the backend. */
+	static final String TRANSFER_METRIC_GROUP = "rocksdbTransfer";
+
+	/** The rate limiter of the uploads and downloads, null if the rate is not limited. */
+	@Nullable
+	private final RateLimiter rateLimiter;
+
+	/** The number of times a failed transfer of a file is retried. */
+	private final int maxRetries;
+
+	private final Counter numBytesUploaded;
+
+	private final Counter numBytesDownloaded;
+
+	private final Counter numRetries;
+
+	private RocksDBStateTransferContext(
+		@Nullable RateLimiter rateLimiter,
+		int maxRetries,
+		Counter numBytesUploaded,
+		Counter numBytesDownloaded,
+		Counter numRetries) {
+		this.rateLimiter = rateLimiter;
+		this.maxRetries = maxRetries;
+		this.numBytesUploaded = checkNotNull(numBytesUploaded);
+		this.numBytesDownloaded = checkNotNull(numBytesDownloaded);
+		this.numRetries = checkNotNull(numRetries);
+	}
+
+	@Nullable
+	RateLimiter getRateLimiter() {
+		return rateLimiter;
+	}
+
+	int getMaxRetries() {
+		return maxRetries;
+	}
+
+	Counter getNumBytesUploaded() {
+		return numBytesUploaded;
+	}
+
+	Counter getNumBytesDownloaded() {
+		return numBytesDownloaded;
+	}
+
+	Counter getNumRetries() {
+		return numRetries;
+	}
+
+	/**
+	 * Creates the context of a backend, and registers the transfer metrics in the given metric group.
+	 *
+	 * @param rateLimitBytesPerSecond the maximum number of bytes per second of all transfers, 0 disables the limit.
+	 * @param maxRetries the number of times a failed transfer of a file is retried.
+	 * @param metricGroup the metric group of the backend.
+	 */
+	public static RocksDBStateTransferContext create(
+		long rateLimitBytesPerSecond,
+		int maxRetries,
+		MetricGroup metricGroup) {
+
+		checkArgument(rateLimitBytesPerSecond >= 0, "The transfer rate limit must not be negative.");
+		checkArgument(maxRetries >= 0, "The number of transfer retries must not be negative.");
+
+		MetricGroup transferMetricGroup = metricGroup.addGroup(TRANSFER_METRIC_GROUP);
+		Counter numBytesUploaded = transferMetricGroup.counter("numBytesUploaded");
+		Counter numBytesDownloaded = transferMetricGroup.counter("numBytesDownloaded");
+		transferMetricGroup.meter("numBytesUploadedPerSecond", new MeterView(numBytesUploaded));
+		transferMetricGroup.meter("numBytesDownloadedPerSecond", new MeterView(numBytesDownloaded));
+
+		return new RocksDBStateTransferContext(
+			rateLimitBytesPerSecond > 0 ? RateLimiter.create(rateLimitBytesPerSecond) : null,
+			maxRetries,
+			numBytesUploaded,
+			numBytesDownloaded,
+			transferMetricGroup.counter("numRetries"));
+	}
+
+	/**
+	 * Creates a context without rate limit and retries, whose metrics are not registered.
+	 */
+	public static RocksDBStateTransferContext createUnlimited() {
+		return createUnregistered(0L, 0);
+	}
+
+	/**
+	 * Creates a context whose metrics are not registered.
+	 */
+	static RocksDBStateTransferContext createUnregistered(long rateLimitBytesPerSecond, int maxRetries) {
+		checkArgument(rateLimitBytesPerSecond >= 0, "The transfer rate limit must not be negative.");
+		checkArgument(maxRetries >= 0, "The number of transfer retries must not be negative.");
+		return new RocksDBStateTransferContext(
+			rateLimitBytesPerSecond > 0 ? RateLimiter.create(rateLimitBytesPerSecond) : null,
+			maxRetries,
+			new SimpleCounter(),
+			new SimpleCounter(),
+			new SimpleCounter());
+	}
+}
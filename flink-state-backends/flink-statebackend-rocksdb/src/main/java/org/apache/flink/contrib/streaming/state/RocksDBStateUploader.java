@@ -27,7 +27,6 @@ import org.apache.flink.runtime.state.StreamStateHandle;
 import org.apache.flink.util.ExceptionUtils;
 import org.apache.flink.util.FlinkRuntimeException;
 import org.apache.flink.util.IOUtils;
-import org.apache.flink.util.function.CheckedSupplier;
 
 import javax.annotation.Nonnull;
 
@@ -35,24 +34,35 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.function.Supplier;
 
 /**
  * Help class for uploading RocksDB state files.
  */
 public class RocksDBStateUploader extends RocksDBStateDataTransfer {
-	private static final int READ_BUFFER_SIZE = 16 * 1024;
 
 	public RocksDBStateUploader(int numberOfSnapshottingThreads) {
-		super(numberOfSnapshottingThreads);
+		this(numberOfSnapshottingThreads, RocksDBStateTransferContext.createUnlimited());
+	}
+
+	public RocksDBStateUploader(int numberOfSnapshottingThreads, RocksDBStateTransferContext transferContext) {
+		super(
+			numberOfSnapshottingThreads,
+			transferContext.getRateLimiter(),
+			transferContext.getMaxRetries(),
+			transferContext.getNumBytesUploaded(),
+			transferContext.getNumRetries());
 	}
 
 	/**
-	 * Upload all the files to checkpoint fileSystem using specified number of threads.
+	 * Upload all the files to checkpoint fileSystem using specified number of threads. The smallest files are
+	 * uploaded first, so that many small files are not queued behind a few large ones.
 	 *
 	 * @param files The files will be uploaded to checkpoint filesystem.
 	 * @param checkpointStreamFactory The checkpoint streamFactory used to create outputstream.
@@ -91,19 +101,41 @@ public class RocksDBStateUploader extends RocksDBStateDataTransfer {
 	private Map<StateHandleID, CompletableFuture<StreamStateHandle>> createUploadFutures(
 		Map<StateHandleID, Path> files,
 		CheckpointStreamFactory checkpointStreamFactory,
-		CloseableRegistry closeableRegistry) {
+		CloseableRegistry closeableRegistry) throws IOException {
 		Map<StateHandleID, CompletableFuture<StreamStateHandle>> futures = new HashMap<>(files.size());
 
-		for (Map.Entry<StateHandleID, Path> entry : files.entrySet()) {
-			final Supplier<StreamStateHandle> supplier =
-				CheckedSupplier.unchecked(() -> uploadLocalFileToCheckpointFs(entry.getValue(), checkpointStreamFactory, closeableRegistry));
-			futures.put(entry.getKey(), CompletableFuture.supplyAsync(supplier, executorService));
+		for (Map.Entry<StateHandleID, Path> entry : sortBySize(files)) {
+			futures.put(
+				entry.getKey(),
+				uploadLocalFileToCheckpointFs(entry.getValue(), checkpointStreamFactory, closeableRegistry));
 		}
 
 		return futures;
 	}
 
-	private StreamStateHandle uploadLocalFileToCheckpointFs(
+	private static List<Map.Entry<StateHandleID, Path>> sortBySize(Map<StateHandleID, Path> files) throws IOException {
+		final Map<Path, Long> fileSizes = new HashMap<>(files.size());
+		for (Path path : files.values()) {
+			fileSizes.put(path, Files.size(path));
+		}
+
+		final List<Map.Entry<StateHandleID, Path>> entries = new ArrayList<>(files.entrySet());
+		entries.sort(Comparator.comparing(entry -> fileSizes.get(entry.getValue())));
+		return entries;
+	}
+
+	private CompletableFuture<StreamStateHandle> uploadLocalFileToCheckpointFs(
+		Path filePath,
+		CheckpointStreamFactory checkpointStreamFactory,
+		CloseableRegistry closeableRegistry) {
+
+		return transferWithRetries(
+			() -> uploadLocalFileToCheckpointFsOnce(filePath, checkpointStreamFactory, closeableRegistry),
+			closeableRegistry,
+			filePath);
+	}
+
+	private StreamStateHandle uploadLocalFileToCheckpointFsOnce(
 		Path filePath,
 		CheckpointStreamFactory checkpointStreamFactory,
 		CloseableRegistry closeableRegistry) throws IOException {
@@ -112,8 +144,6 @@ public class RocksDBStateUploader extends RocksDBStateDataTransfer {
 		CheckpointStreamFactory.CheckpointStateOutputStream outputStream = null;
 
 		try {
-			final byte[] buffer = new byte[READ_BUFFER_SIZE];
-
 			inputStream = Files.newInputStream(filePath);
 			closeableRegistry.registerCloseable(inputStream);
 
@@ -121,15 +151,7 @@ public class RocksDBStateUploader extends RocksDBStateDataTransfer {
 				.createCheckpointStateOutputStream(CheckpointedStateScope.SHARED);
 			closeableRegistry.registerCloseable(outputStream);
 
-			while (true) {
-				int numBytes = inputStream.read(buffer);
-
-				if (numBytes == -1) {
-					break;
-				}
-
-				outputStream.write(buffer, 0, numBytes);
-			}
+			transfer(inputStream, outputStream);
 
 			StreamStateHandle result = null;
 			if (closeableRegistry.unregisterCloseable(outputStream)) {
@@ -30,7 +30,16 @@ import org.apache.flink.util.FlinkRuntimeException;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.RocksDBException;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * {@link ValueState} implementation that stores state in RocksDB.
@@ -43,6 +52,17 @@ class RocksDBValueState<K, N, V>
 	extends AbstractRocksDBState<K, N, V>
 	implements InternalValueState<K, N, V> {
 
+	/** The cache of deserialized values, null if the object cache is disabled. */
+	@Nullable
+	private final RocksDBObjectCache<V> objectCache;
+
+	/**
+	 * The serialized values fetched by {@link #prefetch(Collection)} by serialized key, null for keys which are
+	 * absent in RocksDB. An entry is consumed by the next read and dropped by a write of its key, so it is never
+	 * stale.
+	 */
+	private final Map<ByteBuffer, byte[]> prefetchedValues;
+
 	/**
 	 * Creates a new {@code RocksDBValueState}.
 	 *
@@ -51,15 +71,19 @@ class RocksDBValueState<K, N, V>
 	 * @param valueSerializer The serializer for the state.
 	 * @param defaultValue The default value for the state.
 	 * @param backend The backend for which this state is bind to.
+	 * @param objectCache The cache of deserialized values, or null if the object cache is disabled.
 	 */
 	private RocksDBValueState(
 			ColumnFamilyHandle columnFamily,
 			TypeSerializer<N> namespaceSerializer,
 			TypeSerializer<V> valueSerializer,
 			V defaultValue,
-			RocksDBKeyedStateBackend<K> backend) {
+			RocksDBKeyedStateBackend<K> backend,
+			@Nullable RocksDBObjectCache<V> objectCache) {
 
 		super(columnFamily, namespaceSerializer, valueSerializer, defaultValue, backend);
+		this.objectCache = objectCache;
+		this.prefetchedValues = new HashMap<>();
 	}
 
 	@Override
@@ -80,14 +104,33 @@ class RocksDBValueState<K, N, V>
 	@Override
 	public V value() {
 		try {
-			byte[] valueBytes = backend.db.get(columnFamily,
-				serializeCurrentKeyWithGroupAndNamespace());
+			byte[] key = serializeCurrentKeyWithGroupAndNamespace();
+
+			if (objectCache != null) {
+				Object cached = objectCache.get(key);
+				if (cached == RocksDBObjectCache.ABSENT) {
+					return getDefaultValue();
+				} else if (cached != null) {
+					@SuppressWarnings("unchecked")
+					V value = (V) cached;
+					return value;
+				}
+			}
+
+			byte[] valueBytes = readValueBytes(key);
 
 			if (valueBytes == null) {
+				if (objectCache != null) {
+					objectCache.putAbsent(key);
+				}
 				return getDefaultValue();
 			}
 			dataInputView.setBuffer(valueBytes);
-			return valueSerializer.deserialize(dataInputView);
+			V value = valueSerializer.deserialize(dataInputView);
+			if (objectCache != null) {
+				objectCache.put(key, value);
+			}
+			return value;
 		} catch (IOException | RocksDBException e) {
 			throw new FlinkRuntimeException("Error while retrieving data from RocksDB.", e);
 		}
@@ -101,14 +144,82 @@ class RocksDBValueState<K, N, V>
 		}
 
 		try {
-			backend.db.put(columnFamily, writeOptions,
-				serializeCurrentKeyWithGroupAndNamespace(),
-				serializeValue(value));
+			byte[] key = serializeCurrentKeyWithGroupAndNamespace();
+			dropPrefetchedValue(key);
+			backend.db.put(columnFamily, writeOptions, key, serializeValue(value));
+			if (objectCache != null) {
+				objectCache.put(key, value);
+			}
 		} catch (Exception e) {
 			throw new FlinkRuntimeException("Error while adding data to RocksDB", e);
 		}
 	}
 
+	@Override
+	public void clear() {
+		if (objectCache == null && prefetchedValues.isEmpty()) {
+			super.clear();
+			return;
+		}
+
+		try {
+			byte[] key = serializeCurrentKeyWithGroupAndNamespace();
+			dropPrefetchedValue(key);
+			backend.db.delete(columnFamily, writeOptions, key);
+			if (objectCache != null) {
+				objectCache.putAbsent(key);
+			}
+		} catch (RocksDBException e) {
+			throw new FlinkRuntimeException("Error while removing entry from RocksDB", e);
+		}
+	}
+
+	/**
+	 * Fetches the values of the given keys in the current namespace with one RocksDB multi-get, so that the next
+	 * read of each of these keys does not access RocksDB. The values of a previous prefetch which were not read are
+	 * dropped.
+	 */
+	void prefetch(Collection<? extends K> keys) throws RocksDBException {
+		prefetchedValues.clear();
+		if (keys.isEmpty()) {
+			return;
+		}
+
+		RocksDBSerializedCompositeKeyBuilder<K> keyBuilder = new RocksDBSerializedCompositeKeyBuilder<>(
+			backend.getKeySerializer(),
+			backend.getKeyGroupPrefixBytes(),
+			32);
+		List<byte[]> rawKeys = new ArrayList<>(keys.size());
+		for (K key : keys) {
+			rawKeys.add(serializeKeyWithGroupAndNamespace(key, keyBuilder));
+		}
+
+		// the result only contains the keys which exist, by the identity of the given key arrays
+		Map<byte[], byte[]> rawValues = backend.db.multiGet(
+			backend.getReadOptions(),
+			Collections.nCopies(rawKeys.size(), columnFamily),
+			rawKeys);
+		for (byte[] rawKey : rawKeys) {
+			prefetchedValues.put(ByteBuffer.wrap(rawKey), rawValues.get(rawKey));
+		}
+	}
+
+	private byte[] readValueBytes(byte[] key) throws RocksDBException {
+		if (!prefetchedValues.isEmpty()) {
+			ByteBuffer prefetchKey = ByteBuffer.wrap(key);
+			if (prefetchedValues.containsKey(prefetchKey)) {
+				return prefetchedValues.remove(prefetchKey);
+			}
+		}
+		return backend.db.get(columnFamily, key);
+	}
+
+	private void dropPrefetchedValue(byte[] key) {
+		if (!prefetchedValues.isEmpty()) {
+			prefetchedValues.remove(ByteBuffer.wrap(key));
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	static <K, N, SV, S extends State, IS extends S> IS create(
 		StateDescriptor<S, SV> stateDesc,
@@ -119,6 +230,7 @@ class RocksDBValueState<K, N, V>
 			registerResult.f1.getNamespaceSerializer(),
 			registerResult.f1.getStateSerializer(),
 			stateDesc.getDefaultValue(),
-			backend);
+			backend,
+			backend.getObjectCache(stateDesc.getName(), registerResult.f1.getStateSerializer()));
 	}
 }
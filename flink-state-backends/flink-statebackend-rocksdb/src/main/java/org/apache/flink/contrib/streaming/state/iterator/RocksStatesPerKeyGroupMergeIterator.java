@@ -23,6 +23,8 @@ import org.apache.flink.contrib.streaming.state.RocksIteratorWrapper;
 import org.apache.flink.util.IOUtils;
 import org.apache.flink.util.Preconditions;
 
+import javax.annotation.Nullable;
+
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -59,13 +61,24 @@ public class RocksStatesPerKeyGroupMergeIterator implements AutoCloseable {
 	public RocksStatesPerKeyGroupMergeIterator(
 		List<Tuple2<RocksIteratorWrapper, Integer>> kvStateIterators,
 		final int keyGroupPrefixByteCount) {
+		this(kvStateIterators, keyGroupPrefixByteCount, null);
+	}
+
+	/**
+	 * Creates a merge iterator which starts at the first key which is not smaller than the given start key, or at
+	 * the first key of the states if the start key is null.
+	 */
+	public RocksStatesPerKeyGroupMergeIterator(
+		List<Tuple2<RocksIteratorWrapper, Integer>> kvStateIterators,
+		final int keyGroupPrefixByteCount,
+		@Nullable byte[] startKey) {
 		Preconditions.checkNotNull(kvStateIterators);
 		Preconditions.checkArgument(keyGroupPrefixByteCount >= 1);
 
 		this.keyGroupPrefixByteCount = keyGroupPrefixByteCount;
 
 		if (kvStateIterators.size() > 0) {
-			this.heap = buildIteratorHeap(kvStateIterators);
+			this.heap = buildIteratorHeap(kvStateIterators, startKey);
 			this.valid = !heap.isEmpty();
 			this.currentSubIterator = heap.poll();
 			kvStateIterators.clear();
@@ -116,7 +129,8 @@ public class RocksStatesPerKeyGroupMergeIterator implements AutoCloseable {
 	}
 
 	private PriorityQueue<RocksSingleStateIterator> buildIteratorHeap(
-		List<Tuple2<RocksIteratorWrapper, Integer>> kvStateIterators) {
+		List<Tuple2<RocksIteratorWrapper, Integer>> kvStateIterators,
+		@Nullable byte[] startKey) {
 
 		Comparator<RocksSingleStateIterator> iteratorComparator = COMPARATORS.get(keyGroupPrefixByteCount - 1);
 
@@ -125,7 +139,11 @@ public class RocksStatesPerKeyGroupMergeIterator implements AutoCloseable {
 
 		for (Tuple2<RocksIteratorWrapper, Integer> rocksIteratorWithKVStateId : kvStateIterators) {
 			final RocksIteratorWrapper rocksIterator = rocksIteratorWithKVStateId.f0;
-			rocksIterator.seekToFirst();
+			if (startKey == null) {
+				rocksIterator.seekToFirst();
+			} else {
+				rocksIterator.seek(startKey);
+			}
 			if (rocksIterator.isValid()) {
 				iteratorPriorityQueue.offer(
 					new RocksSingleStateIterator(rocksIterator, rocksIteratorWithKVStateId.f1));
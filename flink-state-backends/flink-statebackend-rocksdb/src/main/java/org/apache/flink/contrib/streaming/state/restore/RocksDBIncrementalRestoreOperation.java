@@ -24,8 +24,7 @@ import org.apache.flink.contrib.streaming.state.RocksDBKeyedStateBackend.RocksDb
 import org.apache.flink.contrib.streaming.state.RocksDBNativeMetricOptions;
 import org.apache.flink.contrib.streaming.state.RocksDBOperationUtils;
 import org.apache.flink.contrib.streaming.state.RocksDBStateDownloader;
-import org.apache.flink.contrib.streaming.state.RocksDBWriteBatchWrapper;
-import org.apache.flink.contrib.streaming.state.RocksIteratorWrapper;
+import org.apache.flink.contrib.streaming.state.RocksDBStateTransferContext;
 import org.apache.flink.contrib.streaming.state.ttl.RocksDbTtlCompactFiltersManager;
 import org.apache.flink.core.fs.CloseableRegistry;
 import org.apache.flink.core.memory.DataInputView;
@@ -51,6 +50,7 @@ import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.ColumnFamilyOptions;
 import org.rocksdb.DBOptions;
+import org.rocksdb.Options;
 import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
@@ -91,6 +91,8 @@ public class RocksDBIncrementalRestoreOperation<K> extends AbstractRocksDBRestor
 	private final SortedMap<Long, Set<StateHandleID>> restoredSstFiles;
 	private long lastCompletedCheckpointId;
 	private UUID backendUID;
+	private final RocksDBStateTransferContext transferContext;
+	private final boolean useDeleteRange;
 	private final long writeBatchSize;
 
 	public RocksDBIncrementalRestoreOperation(
@@ -110,6 +112,8 @@ public class RocksDBIncrementalRestoreOperation<K> extends AbstractRocksDBRestor
 		MetricGroup metricGroup,
 		@Nonnull Collection<KeyedStateHandle> restoreStateHandles,
 		@Nonnull RocksDbTtlCompactFiltersManager ttlCompactFiltersManager,
+		@Nonnull RocksDBStateTransferContext transferContext,
+		boolean useDeleteRange,
 		@Nonnegative long writeBatchSize) {
 		super(keyGroupRange,
 			keyGroupPrefixBytes,
@@ -130,6 +134,8 @@ public class RocksDBIncrementalRestoreOperation<K> extends AbstractRocksDBRestor
 		this.restoredSstFiles = new TreeMap<>();
 		this.lastCompletedCheckpointId = -1L;
 		this.backendUID = UUID.randomUUID();
+		this.transferContext = transferContext;
+		this.useDeleteRange = useDeleteRange;
 		checkArgument(writeBatchSize >= 0, "Write batch size have to be no negative.");
 		this.writeBatchSize = writeBatchSize;
 	}
@@ -226,7 +232,8 @@ public class RocksDBIncrementalRestoreOperation<K> extends AbstractRocksDBRestor
 		Path temporaryRestoreInstancePath,
 		IncrementalRemoteKeyedStateHandle restoreStateHandle) throws Exception {
 
-		try (RocksDBStateDownloader rocksDBStateDownloader = new RocksDBStateDownloader(numberOfTransferringThreads)) {
+		try (RocksDBStateDownloader rocksDBStateDownloader =
+				new RocksDBStateDownloader(numberOfTransferringThreads, transferContext)) {
 			rocksDBStateDownloader.transferAllStateDataToDirectory(
 				restoreStateHandle,
 				temporaryRestoreInstancePath,
@@ -261,8 +268,9 @@ public class RocksDBIncrementalRestoreOperation<K> extends AbstractRocksDBRestor
 
 	/**
 	 * Recovery from multi incremental states with rescaling. For rescaling, this method creates a temporary
-	 * RocksDB instance for a key-groups shard. All contents from the temporary instance are copied into the
-	 * real restore instance and then the temporary instance is discarded.
+	 * RocksDB instance for a key-groups shard. The records of the target key-groups are written from the temporary
+	 * instance into SST files, one per column family, which are ingested into the real restore instance, and then
+	 * the temporary instance is discarded.
 	 */
 	private void restoreWithRescaling(Collection<KeyedStateHandle> restoreStateHandles) throws Exception {
 
@@ -294,10 +302,12 @@ public class RocksDBIncrementalRestoreOperation<K> extends AbstractRocksDBRestor
 			}
 
 			Path temporaryRestoreInstancePath = instanceBasePath.getAbsoluteFile().toPath().resolve(UUID.randomUUID().toString());
+			Path temporaryIngestPath = instanceBasePath.getAbsoluteFile().toPath().resolve(UUID.randomUUID().toString());
 			try (RestoredDBInstance tmpRestoreDBInfo = restoreDBInstanceFromStateHandle(
 				(IncrementalRemoteKeyedStateHandle) rawStateHandle,
-				temporaryRestoreInstancePath);
-				RocksDBWriteBatchWrapper writeBatchWrapper = new RocksDBWriteBatchWrapper(this.db, writeBatchSize)) {
+				temporaryRestoreInstancePath)) {
+
+				Files.createDirectories(temporaryIngestPath);
 
 				List<ColumnFamilyDescriptor> tmpColumnFamilyDescriptors = tmpRestoreDBInfo.columnFamilyDescriptors;
 				List<ColumnFamilyHandle> tmpColumnFamilyHandles = tmpRestoreDBInfo.columnFamilyHandles;
@@ -310,26 +320,24 @@ public class RocksDBIncrementalRestoreOperation<K> extends AbstractRocksDBRestor
 						null, tmpRestoreDBInfo.stateMetaInfoSnapshots.get(i))
 						.columnFamilyHandle;
 
-					try (RocksIteratorWrapper iterator = RocksDBOperationUtils.getRocksIterator(tmpRestoreDBInfo.db, tmpColumnFamilyHandle, tmpRestoreDBInfo.readOptions)) {
-
-						iterator.seek(startKeyGroupPrefixBytes);
-
-						while (iterator.isValid()) {
-
-							if (RocksDBIncrementalCheckpointUtils.beforeThePrefixBytes(iterator.key(), stopKeyGroupPrefixBytes)) {
-								writeBatchWrapper.put(targetColumnFamilyHandle, iterator.key(), iterator.value());
-							} else {
-								// Since the iterator will visit the record according to the sorted order,
-								// we can just break here.
-								break;
-							}
-
-							iterator.next();
-						}
-					} // releases native iterator resources
+					// the column family options of the temporary instance are created by the same factory as
+					// the ones of the target column family
+					try (Options sstFileOptions = new Options(dbOptions, tmpColumnFamilyDescriptors.get(i).getOptions())) {
+						RocksDBIncrementalCheckpointUtils.ingestKeyRange(
+							tmpRestoreDBInfo.db,
+							tmpColumnFamilyHandle,
+							tmpRestoreDBInfo.readOptions,
+							this.db,
+							targetColumnFamilyHandle,
+							sstFileOptions,
+							startKeyGroupPrefixBytes,
+							stopKeyGroupPrefixBytes,
+							temporaryIngestPath.resolve(i + SST_FILE_SUFFIX).toFile());
+					}
 				}
 			} finally {
 				cleanUpPathQuietly(temporaryRestoreInstancePath);
+				cleanUpPathQuietly(temporaryIngestPath);
 			}
 		}
 	}
@@ -349,6 +357,7 @@ public class RocksDBIncrementalRestoreOperation<K> extends AbstractRocksDBRestor
 				keyGroupRange,
 				initialHandle.getKeyGroupRange(),
 				keyGroupPrefixBytes,
+				useDeleteRange,
 				writeBatchSize);
 		} catch (RocksDBException e) {
 			String errMsg = "Failed to clip DB after initialization.";
@@ -410,7 +419,7 @@ public class RocksDBIncrementalRestoreOperation<K> extends AbstractRocksDBRestor
 		Path temporaryRestoreInstancePath) throws Exception {
 
 		try (RocksDBStateDownloader rocksDBStateDownloader =
-				new RocksDBStateDownloader(numberOfTransferringThreads)) {
+				new RocksDBStateDownloader(numberOfTransferringThreads, transferContext)) {
 			rocksDBStateDownloader.transferAllStateDataToDirectory(
 				restoreStateHandle,
 				temporaryRestoreInstancePath,
@@ -22,11 +22,13 @@ import org.apache.flink.annotation.VisibleForTesting;
 import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.api.common.typeutils.base.array.BytePrimitiveArraySerializer;
 import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.contrib.streaming.state.RocksDBKeySerializationUtils;
 import org.apache.flink.contrib.streaming.state.RocksDBKeyedStateBackend.RocksDbKvStateInfo;
 import org.apache.flink.contrib.streaming.state.RocksIteratorWrapper;
 import org.apache.flink.contrib.streaming.state.iterator.RocksStatesPerKeyGroupMergeIterator;
 import org.apache.flink.contrib.streaming.state.iterator.RocksTransformingIteratorWrapper;
 import org.apache.flink.core.fs.CloseableRegistry;
+import org.apache.flink.core.fs.FSDataOutputStream;
 import org.apache.flink.core.memory.DataOutputView;
 import org.apache.flink.core.memory.DataOutputViewStreamWrapper;
 import org.apache.flink.runtime.checkpoint.CheckpointOptions;
@@ -43,8 +45,9 @@ import org.apache.flink.runtime.state.RegisteredKeyValueStateBackendMetaInfo;
 import org.apache.flink.runtime.state.SnapshotResult;
 import org.apache.flink.runtime.state.StateSnapshotTransformer;
 import org.apache.flink.runtime.state.StreamCompressionDecorator;
-import org.apache.flink.runtime.state.UncompressedStreamCompressionDecorator;
 import org.apache.flink.runtime.state.metainfo.StateMetaInfoSnapshot;
+import org.apache.flink.runtime.util.ExecutorThreadFactory;
+import org.apache.flink.util.FileUtils;
 import org.apache.flink.util.IOUtils;
 import org.apache.flink.util.ResourceGuard;
 import org.apache.flink.util.function.SupplierWithException;
@@ -58,13 +61,23 @@ import org.rocksdb.Snapshot;
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.apache.flink.contrib.streaming.state.snapshot.RocksSnapshotUtil.END_OF_KEY_GROUP_MARK;
 import static org.apache.flink.contrib.streaming.state.snapshot.RocksSnapshotUtil.hasMetaDataFollowsFlag;
@@ -85,6 +98,14 @@ public class RocksFullSnapshotStrategy<K> extends RocksDBSnapshotStrategyBase<K>
 	@Nonnull
 	private final StreamCompressionDecorator keyGroupCompressionDecorator;
 
+	/** The number of threads which iterate and write disjoint key-group ranges of a snapshot concurrently. */
+	@Nonnegative
+	private final int numberOfSnapshotThreads;
+
+	/** The local directory for the key-group ranges which are written concurrently, before they are uploaded. */
+	@Nonnull
+	private final File localSnapshotDirectory;
+
 	public RocksFullSnapshotStrategy(
 		@Nonnull RocksDB db,
 		@Nonnull ResourceGuard rocksDBResourceGuard,
@@ -94,7 +115,9 @@ public class RocksFullSnapshotStrategy<K> extends RocksDBSnapshotStrategyBase<K>
 		@Nonnegative int keyGroupPrefixBytes,
 		@Nonnull LocalRecoveryConfig localRecoveryConfig,
 		@Nonnull CloseableRegistry cancelStreamRegistry,
-		@Nonnull StreamCompressionDecorator keyGroupCompressionDecorator) {
+		@Nonnull StreamCompressionDecorator keyGroupCompressionDecorator,
+		@Nonnegative int numberOfSnapshotThreads,
+		@Nonnull File localSnapshotDirectory) {
 		super(
 			DESCRIPTION,
 			db,
@@ -107,6 +130,8 @@ public class RocksFullSnapshotStrategy<K> extends RocksDBSnapshotStrategyBase<K>
 			cancelStreamRegistry);
 
 		this.keyGroupCompressionDecorator = keyGroupCompressionDecorator;
+		this.numberOfSnapshotThreads = Math.max(1, Math.min(numberOfSnapshotThreads, keyGroupRange.getNumberOfKeyGroups()));
+		this.localSnapshotDirectory = localSnapshotDirectory;
 	}
 
 	@Nonnull
@@ -248,40 +273,20 @@ public class RocksFullSnapshotStrategy<K> extends RocksDBSnapshotStrategyBase<K>
 
 		private void writeSnapshotToOutputStream(
 			@Nonnull CheckpointStreamWithResultProvider checkpointStreamWithResultProvider,
-			@Nonnull KeyGroupRangeOffsets keyGroupRangeOffsets) throws IOException, InterruptedException {
-
-			final List<Tuple2<RocksIteratorWrapper, Integer>> kvStateIterators =
-				new ArrayList<>(metaData.size());
-			final DataOutputView outputView =
-				new DataOutputViewStreamWrapper(checkpointStreamWithResultProvider.getCheckpointOutputStream());
-			final ReadOptions readOptions = new ReadOptions();
-			try {
-				readOptions.setSnapshot(snapshot);
-				writeKVStateMetaData(kvStateIterators, readOptions, outputView);
-				writeKVStateData(kvStateIterators, checkpointStreamWithResultProvider, keyGroupRangeOffsets);
-			} finally {
+			@Nonnull KeyGroupRangeOffsets keyGroupRangeOffsets) throws Exception {
 
-				for (Tuple2<RocksIteratorWrapper, Integer> kvStateIterator : kvStateIterators) {
-					IOUtils.closeQuietly(kvStateIterator.f0);
-				}
+			final CheckpointStreamFactory.CheckpointStateOutputStream checkpointOutputStream =
+				checkpointStreamWithResultProvider.getCheckpointOutputStream();
+			writeKVStateMetaData(new DataOutputViewStreamWrapper(checkpointOutputStream));
 
-				IOUtils.closeQuietly(readOptions);
+			if (numberOfSnapshotThreads > 1) {
+				writeKVStateDataConcurrently(checkpointOutputStream, keyGroupRangeOffsets);
+			} else {
+				writeKVStateData(keyGroupRange, checkpointOutputStream, keyGroupRangeOffsets::setKeyGroupOffset);
 			}
 		}
 
-		private void writeKVStateMetaData(
-			final List<Tuple2<RocksIteratorWrapper, Integer>> kvStateIterators,
-			final ReadOptions readOptions,
-			final DataOutputView outputView) throws IOException {
-
-			int kvStateId = 0;
-
-			for (MetaData metaDataEntry : metaData) {
-				RocksIteratorWrapper rocksIteratorWrapper = getRocksIterator(
-					db, metaDataEntry.rocksDbKvStateInfo.columnFamilyHandle, metaDataEntry.stateSnapshotTransformer, readOptions);
-				kvStateIterators.add(Tuple2.of(rocksIteratorWrapper, kvStateId));
-				++kvStateId;
-			}
+		private void writeKVStateMetaData(final DataOutputView outputView) throws IOException {
 
 			KeyedBackendSerializationProxy<K> serializationProxy =
 				new KeyedBackendSerializationProxy<>(
@@ -289,38 +294,143 @@ public class RocksFullSnapshotStrategy<K> extends RocksDBSnapshotStrategyBase<K>
 					// get a serialized form already at state registration time in the future
 					keySerializer,
 					stateMetaInfoSnapshots,
-					!Objects.equals(
-						UncompressedStreamCompressionDecorator.INSTANCE,
-						keyGroupCompressionDecorator));
+					keyGroupCompressionDecorator);
 
 			serializationProxy.write(outputView);
 		}
 
+		/**
+		 * Splits the key-group range into one contiguous range per snapshot thread. Each thread iterates its
+		 * range and writes it into a local part file, and the part files are appended to the checkpoint stream in
+		 * key-group order as soon as they are complete. The result is the same as if all key-groups were written
+		 * by one thread.
+		 */
+		private void writeKVStateDataConcurrently(
+			final CheckpointStreamFactory.CheckpointStateOutputStream checkpointOutputStream,
+			final KeyGroupRangeOffsets keyGroupRangeOffsets) throws Exception {
+
+			final List<KeyGroupRange> partRanges = splitKeyGroupRange(keyGroupRange, numberOfSnapshotThreads);
+			final Path partsDirectory = localSnapshotDirectory.toPath().resolve("full-snapshot-" + UUID.randomUUID());
+			final ExecutorService executorService = Executors.newFixedThreadPool(
+				partRanges.size(), new ExecutorThreadFactory("Flink-RocksDBFullSnapshot"));
+
+			try {
+				Files.createDirectories(partsDirectory);
+
+				final List<Future<long[]>> partFutures = new ArrayList<>(partRanges.size());
+				for (int i = 0; i < partRanges.size(); ++i) {
+					final KeyGroupRange partRange = partRanges.get(i);
+					final Path partFile = partsDirectory.resolve(String.valueOf(i));
+					partFutures.add(executorService.submit(() -> writePartFile(partRange, partFile)));
+				}
+
+				for (int i = 0; i < partRanges.size(); ++i) {
+					final KeyGroupRange partRange = partRanges.get(i);
+					final Path partFile = partsDirectory.resolve(String.valueOf(i));
+					final long[] partOffsets;
+					try {
+						partOffsets = partFutures.get(i).get();
+					} catch (ExecutionException e) {
+						throw new IOException("Could not write the key-groups " + partRange + '.', e.getCause());
+					}
+
+					final long basePosition = checkpointOutputStream.getPos();
+					for (int keyGroup : partRange) {
+						long partOffset = partOffsets[keyGroup - partRange.getStartKeyGroup()];
+						if (partOffset >= 0) {
+							keyGroupRangeOffsets.setKeyGroupOffset(keyGroup, basePosition + partOffset);
+						}
+					}
+
+					Files.copy(partFile, checkpointOutputStream);
+					Files.delete(partFile);
+				}
+			} finally {
+				shutdownAndAwaitTermination(executorService);
+				FileUtils.deleteDirectoryQuietly(partsDirectory.toFile());
+			}
+		}
+
+		/**
+		 * Stops the snapshot threads and waits until they are terminated, also if this thread is interrupted,
+		 * because their native iterators must not outlive the RocksDB snapshot which is released afterwards.
+		 */
+		private void shutdownAndAwaitTermination(ExecutorService executorService) {
+			executorService.shutdownNow();
+			boolean interrupted = false;
+			while (!executorService.isTerminated()) {
+				try {
+					executorService.awaitTermination(1L, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		/**
+		 * Writes the key-groups of the given range into the given local file.
+		 *
+		 * @return the offsets of the key-groups in the file, -1 for key-groups without state.
+		 */
+		private long[] writePartFile(final KeyGroupRange partRange, final Path partFile) throws Exception {
+			final long[] partOffsets = new long[partRange.getNumberOfKeyGroups()];
+			Arrays.fill(partOffsets, -1L);
+
+			try (PartFileOutputStream partOutputStream = new PartFileOutputStream(Files.newOutputStream(partFile))) {
+				writeKVStateData(
+					partRange,
+					partOutputStream,
+					(keyGroup, offset) -> partOffsets[keyGroup - partRange.getStartKeyGroup()] = offset);
+			}
+			return partOffsets;
+		}
+
+		/**
+		 * Writes the key-groups of the given range, ordered by (key-group, kv-state), and reports the position in
+		 * the output stream where each key-group with state begins.
+		 */
 		private void writeKVStateData(
-			final List<Tuple2<RocksIteratorWrapper, Integer>> kvStateIterators,
-			final CheckpointStreamWithResultProvider checkpointStreamWithResultProvider,
-			final KeyGroupRangeOffsets keyGroupRangeOffsets) throws IOException, InterruptedException {
+			final KeyGroupRange range,
+			final FSDataOutputStream outputStream,
+			final KeyGroupOffsetConsumer keyGroupOffsetConsumer) throws IOException, InterruptedException {
+
+			final List<Tuple2<RocksIteratorWrapper, Integer>> kvStateIterators =
+				new ArrayList<>(metaData.size());
+			final byte[] startKeyGroupPrefixBytes = new byte[keyGroupPrefixBytes];
+			RocksDBKeySerializationUtils.serializeKeyGroup(range.getStartKeyGroup(), startKeyGroupPrefixBytes);
+			final int endKeyGroup = range.getEndKeyGroup();
 
 			byte[] previousKey = null;
 			byte[] previousValue = null;
 			DataOutputView kgOutView = null;
 			OutputStream kgOutStream = null;
-			CheckpointStreamFactory.CheckpointStateOutputStream checkpointOutputStream =
-				checkpointStreamWithResultProvider.getCheckpointOutputStream();
+			final ReadOptions readOptions = new ReadOptions();
 
 			try {
+				readOptions.setSnapshot(snapshot);
+				int kvStateId = 0;
+				for (MetaData metaDataEntry : metaData) {
+					RocksIteratorWrapper rocksIteratorWrapper = getRocksIterator(
+						db, metaDataEntry.rocksDbKvStateInfo.columnFamilyHandle, metaDataEntry.stateSnapshotTransformer, readOptions);
+					kvStateIterators.add(Tuple2.of(rocksIteratorWrapper, kvStateId));
+					++kvStateId;
+				}
+
 				// Here we transfer ownership of RocksIterators to the RocksStatesPerKeyGroupMergeIterator
 				try (RocksStatesPerKeyGroupMergeIterator mergeIterator = new RocksStatesPerKeyGroupMergeIterator(
-					kvStateIterators, keyGroupPrefixBytes)) {
+					kvStateIterators, keyGroupPrefixBytes, startKeyGroupPrefixBytes)) {
 
 					//preamble: setup with first key-group as our lookahead
-					if (mergeIterator.isValid()) {
+					if (isValidInRange(mergeIterator, endKeyGroup)) {
 						//begin first key-group by recording the offset
-						keyGroupRangeOffsets.setKeyGroupOffset(
+						keyGroupOffsetConsumer.setKeyGroupOffset(
 							mergeIterator.keyGroup(),
-							checkpointOutputStream.getPos());
+							outputStream.getPos());
 						//write the k/v-state id as metadata
-						kgOutStream = keyGroupCompressionDecorator.decorateWithCompression(checkpointOutputStream);
+						kgOutStream = keyGroupCompressionDecorator.decorateWithCompression(outputStream);
 						kgOutView = new DataOutputViewStreamWrapper(kgOutStream);
 						//TODO this could be aware of keyGroupPrefixBytes and write only one byte if possible
 						kgOutView.writeShort(mergeIterator.kvStateId());
@@ -330,7 +440,7 @@ public class RocksFullSnapshotStrategy<K> extends RocksDBSnapshotStrategyBase<K>
 					}
 
 					//main loop: write k/v pairs ordered by (key-group, kv-state), thereby tracking key-group offsets.
-					while (mergeIterator.isValid()) {
+					while (isValidInRange(mergeIterator, endKeyGroup)) {
 
 						assert (!hasMetaDataFollowsFlag(previousKey));
 
@@ -352,12 +462,12 @@ public class RocksFullSnapshotStrategy<K> extends RocksDBSnapshotStrategyBase<K>
 							// this will just close the outer stream
 							kgOutStream.close();
 							//begin new key-group
-							keyGroupRangeOffsets.setKeyGroupOffset(
+							keyGroupOffsetConsumer.setKeyGroupOffset(
 								mergeIterator.keyGroup(),
-								checkpointOutputStream.getPos());
+								outputStream.getPos());
 							//write the kev-state
 							//TODO this could be aware of keyGroupPrefixBytes and write only one byte if possible
-							kgOutStream = keyGroupCompressionDecorator.decorateWithCompression(checkpointOutputStream);
+							kgOutStream = keyGroupCompressionDecorator.decorateWithCompression(outputStream);
 							kgOutView = new DataOutputViewStreamWrapper(kgOutStream);
 							kgOutView.writeShort(mergeIterator.kvStateId());
 						} else if (mergeIterator.isNewKeyValueState()) {
@@ -388,9 +498,20 @@ public class RocksFullSnapshotStrategy<K> extends RocksDBSnapshotStrategyBase<K>
 			} finally {
 				// this will just close the outer stream
 				IOUtils.closeQuietly(kgOutStream);
+
+				// the iterators which were not transferred to the merge iterator
+				for (Tuple2<RocksIteratorWrapper, Integer> kvStateIterator : kvStateIterators) {
+					IOUtils.closeQuietly(kvStateIterator.f0);
+				}
+
+				IOUtils.closeQuietly(readOptions);
 			}
 		}
 
+		private boolean isValidInRange(RocksStatesPerKeyGroupMergeIterator mergeIterator, int endKeyGroup) {
+			return mergeIterator.isValid() && mergeIterator.keyGroup() <= endKeyGroup;
+		}
+
 		private void writeKeyValuePair(byte[] key, byte[] value, DataOutputView out) throws IOException {
 			BytePrimitiveArraySerializer.INSTANCE.serialize(key, out);
 			BytePrimitiveArraySerializer.INSTANCE.serialize(value, out);
@@ -417,6 +538,23 @@ public class RocksFullSnapshotStrategy<K> extends RocksDBSnapshotStrategyBase<K>
 		return metaData;
 	}
 
+	/**
+	 * Splits the given key-group range into the given number of contiguous ranges of about the same size.
+	 */
+	@VisibleForTesting
+	public static List<KeyGroupRange> splitKeyGroupRange(KeyGroupRange keyGroupRange, int numberOfParts) {
+		final int numberOfKeyGroups = keyGroupRange.getNumberOfKeyGroups();
+		final int parts = Math.min(numberOfParts, numberOfKeyGroups);
+		final List<KeyGroupRange> partRanges = new ArrayList<>(parts);
+		int startKeyGroup = keyGroupRange.getStartKeyGroup();
+		for (int i = 0; i < parts; ++i) {
+			int partSize = numberOfKeyGroups / parts + (i < numberOfKeyGroups % parts ? 1 : 0);
+			partRanges.add(new KeyGroupRange(startKeyGroup, startKeyGroup + partSize - 1));
+			startKeyGroup += partSize;
+		}
+		return partRanges;
+	}
+
 	@SuppressWarnings("unchecked")
 	private static RocksIteratorWrapper getRocksIterator(
 		RocksDB db,
@@ -429,6 +567,60 @@ public class RocksFullSnapshotStrategy<K> extends RocksDBSnapshotStrategyBase<K>
 			new RocksTransformingIteratorWrapper(rocksIterator, stateSnapshotTransformer);
 	}
 
+	/**
+	 * Receives the position in the output stream where a key-group begins.
+	 */
+	@FunctionalInterface
+	private interface KeyGroupOffsetConsumer {
+		void setKeyGroupOffset(int keyGroup, long offset);
+	}
+
+	/**
+	 * A buffered stream into a local part file, which tracks its position.
+	 */
+	private static class PartFileOutputStream extends FSDataOutputStream {
+
+		private final OutputStream out;
+
+		private long pos;
+
+		PartFileOutputStream(OutputStream fileOutputStream) {
+			this.out = new BufferedOutputStream(fileOutputStream);
+		}
+
+		@Override
+		public long getPos() {
+			return pos;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			pos++;
+		}
+
+		@Override
+		public void write(@Nonnull byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			pos += len;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			out.flush();
+		}
+
+		@Override
+		public void sync() throws IOException {
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.close();
+		}
+	}
+
 	private static class MetaData {
 		final RocksDbKvStateInfo rocksDbKvStateInfo;
 		final StateSnapshotTransformer<byte[]> stateSnapshotTransformer;
@@ -29,9 +29,12 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.Options;
+import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -50,22 +53,97 @@ public class RocksDBIncrementalCheckpointUtilsTest extends TestLogger {
 
 	@Test
 	public void testClipDBWithKeyGroupRange() throws Exception {
+		testClipDBWithKeyGroupRange(false);
+	}
+
+	@Test
+	public void testClipDBWithKeyGroupRangeUsingDeleteRange() throws Exception {
+		testClipDBWithKeyGroupRange(true);
+	}
+
+	private void testClipDBWithKeyGroupRange(boolean useDeleteRange) throws Exception {
+		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(0, 1), new KeyGroupRange(0, 2), 1, useDeleteRange);
 
-		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(0, 1), new KeyGroupRange(0, 2), 1);
+		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(0, 1), new KeyGroupRange(0, 1), 1, useDeleteRange);
 
-		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(0, 1), new KeyGroupRange(0, 1), 1);
+		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(0, 1), new KeyGroupRange(1, 2), 1, useDeleteRange);
 
-		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(0, 1), new KeyGroupRange(1, 2), 1);
+		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(0, 1), new KeyGroupRange(2, 4), 1, useDeleteRange);
 
-		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(0, 1), new KeyGroupRange(2, 4), 1);
+		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(Byte.MAX_VALUE - 15, Byte.MAX_VALUE), new KeyGroupRange(Byte.MAX_VALUE - 10, Byte.MAX_VALUE), 1, useDeleteRange);
 
-		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(Byte.MAX_VALUE - 15, Byte.MAX_VALUE), new KeyGroupRange(Byte.MAX_VALUE - 10, Byte.MAX_VALUE), 1);
+		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(Short.MAX_VALUE - 15, Short.MAX_VALUE), new KeyGroupRange(Short.MAX_VALUE - 10, Short.MAX_VALUE), 2, useDeleteRange);
+
+		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(Byte.MAX_VALUE - 15, Byte.MAX_VALUE - 1), new KeyGroupRange(Byte.MAX_VALUE - 10, Byte.MAX_VALUE), 1, useDeleteRange);
+
+		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(Short.MAX_VALUE - 15, Short.MAX_VALUE - 1), new KeyGroupRange(Short.MAX_VALUE - 10, Short.MAX_VALUE), 2, useDeleteRange);
+	}
+
+	@Test
+	public void testIngestKeyRange() throws Exception {
+		final int keyGroupPrefixBytes = 1;
+		try (
+			RocksDB sourceDB = RocksDB.open(tmp.newFolder().getAbsolutePath());
+			RocksDB targetDB = RocksDB.open(tmp.newFolder().getAbsolutePath());
+			ColumnFamilyHandle sourceHandle = sourceDB.createColumnFamily(new ColumnFamilyDescriptor("test".getBytes()));
+			ColumnFamilyHandle targetHandle = targetDB.createColumnFamily(new ColumnFamilyDescriptor("test".getBytes()));
+			ReadOptions readOptions = RocksDBOperationUtils.createTotalOrderSeekReadOptions();
+			Options options = new Options()) {
+
+			for (int keyGroup = 0; keyGroup < 4; ++keyGroup) {
+				for (int key = 0; key < 100; ++key) {
+					sourceDB.put(sourceHandle, serializeKey(keyGroup, key, keyGroupPrefixBytes), String.valueOf(key).getBytes());
+				}
+			}
 
-		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(Short.MAX_VALUE - 15, Short.MAX_VALUE), new KeyGroupRange(Short.MAX_VALUE - 10, Short.MAX_VALUE), 2);
+			byte[] beginKeyBytes = new byte[keyGroupPrefixBytes];
+			byte[] endKeyBytes = new byte[keyGroupPrefixBytes];
+			RocksDBKeySerializationUtils.serializeKeyGroup(1, beginKeyBytes);
+			RocksDBKeySerializationUtils.serializeKeyGroup(3, endKeyBytes);
+
+			Assert.assertTrue(RocksDBIncrementalCheckpointUtils.ingestKeyRange(
+				sourceDB,
+				sourceHandle,
+				readOptions,
+				targetDB,
+				targetHandle,
+				options,
+				beginKeyBytes,
+				endKeyBytes,
+				new File(tmp.newFolder(), "ingest.sst")));
+
+			for (int keyGroup = 0; keyGroup < 4; ++keyGroup) {
+				for (int key = 0; key < 100; ++key) {
+					byte[] value = targetDB.get(targetHandle, serializeKey(keyGroup, key, keyGroupPrefixBytes));
+					if (keyGroup == 1 || keyGroup == 2) {
+						Assert.assertEquals(String.valueOf(key), new String(value));
+					} else {
+						Assert.assertNull(value);
+					}
+				}
+			}
 
-		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(Byte.MAX_VALUE - 15, Byte.MAX_VALUE - 1), new KeyGroupRange(Byte.MAX_VALUE - 10, Byte.MAX_VALUE), 1);
+			// an empty key range has nothing to ingest
+			RocksDBKeySerializationUtils.serializeKeyGroup(5, beginKeyBytes);
+			RocksDBKeySerializationUtils.serializeKeyGroup(6, endKeyBytes);
+			Assert.assertFalse(RocksDBIncrementalCheckpointUtils.ingestKeyRange(
+				sourceDB,
+				sourceHandle,
+				readOptions,
+				targetDB,
+				targetHandle,
+				options,
+				beginKeyBytes,
+				endKeyBytes,
+				new File(tmp.newFolder(), "empty.sst")));
+		}
+	}
 
-		testClipDBWithKeyGroupRangeHelper(new KeyGroupRange(Short.MAX_VALUE - 15, Short.MAX_VALUE - 1), new KeyGroupRange(Short.MAX_VALUE - 10, Short.MAX_VALUE), 2);
+	private static byte[] serializeKey(int keyGroup, int key, int keyGroupPrefixBytes) throws IOException {
+		DataOutputSerializer outputView = new DataOutputSerializer(32);
+		RocksDBKeySerializationUtils.writeKeyGroup(keyGroup, keyGroupPrefixBytes, outputView);
+		RocksDBKeySerializationUtils.writeKey(key, IntSerializer.INSTANCE, outputView, false);
+		return outputView.getCopyOfBuffer();
 	}
 
 	@Test
@@ -102,7 +180,8 @@ public class RocksDBIncrementalCheckpointUtilsTest extends TestLogger {
 	private void testClipDBWithKeyGroupRangeHelper(
 		KeyGroupRange targetGroupRange,
 		KeyGroupRange currentGroupRange,
-		int keyGroupPrefixBytes) throws RocksDBException, IOException {
+		int keyGroupPrefixBytes,
+		boolean useDeleteRange) throws RocksDBException, IOException {
 
 		try (
 			RocksDB rocksDB = RocksDB.open(tmp.newFolder().getAbsolutePath());
@@ -146,6 +225,7 @@ public class RocksDBIncrementalCheckpointUtilsTest extends TestLogger {
 				targetGroupRange,
 				currentGroupRange,
 				keyGroupPrefixBytes,
+				useDeleteRange,
 				RocksDBConfigurableOptions.WRITE_BATCH_SIZE.defaultValue().getBytes());
 
 			for (int i = currentGroupRangeStart; i <= currentGroupRangeEnd; ++i) {
@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.contrib.streaming.state;
+
+import org.apache.flink.api.common.functions.AggregateFunction;
+import org.apache.flink.api.common.state.AggregatingStateDescriptor;
+import org.apache.flink.api.common.state.ReducingState;
+import org.apache.flink.api.common.state.ReducingStateDescriptor;
+import org.apache.flink.api.common.state.StateTtlConfig;
+import org.apache.flink.api.common.time.Time;
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.api.common.typeutils.base.LongSerializer;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.queryablestate.client.state.serialization.KvStateSerializer;
+import org.apache.flink.runtime.state.VoidNamespace;
+import org.apache.flink.runtime.state.VoidNamespaceSerializer;
+import org.apache.flink.runtime.state.internal.InternalAggregatingState;
+import org.apache.flink.runtime.state.internal.InternalReducingState;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for reducing and aggregating states which add values as RocksDB merge operands.
+ */
+public class RocksDBMergeAggregationTest extends TestLogger {
+
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private RocksDBKeyedStateBackend<Integer> backend;
+
+	@Before
+	public void setupBackend() throws Exception {
+		backend = RocksDBTestUtils.builderForTestDefaults(tempFolder.newFolder(), IntSerializer.INSTANCE)
+			.setMergeAggregationEnabled(true)
+			.build();
+		backend.setCurrentKey(1);
+	}
+
+	@After
+	public void disposeBackend() {
+		backend.dispose();
+	}
+
+	@Test
+	public void testReducingStateFoldsOperandsOnRead() throws Exception {
+		InternalReducingState<Integer, VoidNamespace, Long> state = createReducingState("reducing");
+
+		state.add(1L);
+		state.add(2L);
+		state.add(3L);
+		// three operands and two delimiters
+		assertEquals(3 * Long.BYTES + 2, getStoredValue("reducing").length);
+
+		assertEquals(Long.valueOf(6L), state.get());
+		// reading does not write the folded value back
+		assertEquals(3 * Long.BYTES + 2, getStoredValue("reducing").length);
+
+		state.add(4L);
+		assertEquals(Long.valueOf(10L), state.getInternal());
+
+		state.clear();
+		assertNull(state.get());
+	}
+
+	@Test
+	public void testAggregatingStateFoldsOperandsOnRead() throws Exception {
+		AggregatingStateDescriptor<Long, Long, String> descriptor =
+			new AggregatingStateDescriptor<>("aggregating", new SumAggregator(), LongSerializer.INSTANCE);
+		descriptor.enableMergeAggregation();
+		InternalAggregatingState<Integer, VoidNamespace, Long, Long, String> state = backend.createInternalState(
+			VoidNamespaceSerializer.INSTANCE, descriptor);
+		state.setCurrentNamespace(VoidNamespace.INSTANCE);
+
+		state.add(1L);
+		state.add(2L);
+		assertEquals(2 * Long.BYTES + 1, getStoredValue("aggregating").length);
+
+		assertEquals("3", state.get());
+		assertEquals(2 * Long.BYTES + 1, getStoredValue("aggregating").length);
+	}
+
+	@Test
+	public void testNoOperandsWithoutMergeAggregationOnDescriptor() throws Exception {
+		InternalAggregatingState<Integer, VoidNamespace, Long, Long, String> state = backend.createInternalState(
+			VoidNamespaceSerializer.INSTANCE,
+			new AggregatingStateDescriptor<>("aggregating", new SumAggregator(), LongSerializer.INSTANCE));
+		state.setCurrentNamespace(VoidNamespace.INSTANCE);
+
+		state.add(1L);
+		state.add(2L);
+
+		// the stored value was read, updated and written back
+		assertEquals(Long.BYTES, getStoredValue("aggregating").length);
+		assertEquals("3", state.get());
+	}
+
+	@Test
+	public void testMergeNamespacesFoldsOperands() throws Exception {
+		InternalReducingState<Integer, Integer, Long> state = backend.createInternalState(
+			IntSerializer.INSTANCE,
+			new ReducingStateDescriptor<>("reducing", Long::sum, LongSerializer.INSTANCE));
+
+		for (int namespace = 0; namespace < 3; namespace++) {
+			state.setCurrentNamespace(namespace);
+			state.add(1L);
+			state.add(2L);
+		}
+
+		state.mergeNamespaces(0, Arrays.asList(1, 2));
+
+		state.setCurrentNamespace(0);
+		assertEquals(Long.valueOf(9L), state.get());
+		state.setCurrentNamespace(1);
+		assertNull(state.get());
+	}
+
+	@Test
+	public void testSerializedValueIsFolded() throws Exception {
+		InternalReducingState<Integer, VoidNamespace, Long> state = createReducingState("reducing");
+		state.add(1L);
+		state.add(2L);
+
+		byte[] serializedKeyAndNamespace = KvStateSerializer.serializeKeyAndNamespace(
+			1, IntSerializer.INSTANCE, VoidNamespace.INSTANCE, VoidNamespaceSerializer.INSTANCE);
+		byte[] serializedValue = state.getSerializedValue(
+			serializedKeyAndNamespace, IntSerializer.INSTANCE, VoidNamespaceSerializer.INSTANCE, LongSerializer.INSTANCE);
+
+		assertEquals(
+			Long.valueOf(3L),
+			KvStateSerializer.deserializeValue(serializedValue, LongSerializer.INSTANCE));
+	}
+
+	@Test
+	public void testMigrateKeepsOperands() throws Exception {
+		InternalReducingState<Integer, VoidNamespace, Long> state = createReducingState("reducing");
+		state.add(1L);
+		state.add(2L);
+
+		DataOutputSerializer migrated = new DataOutputSerializer(32);
+		((AbstractRocksDBState<Integer, VoidNamespace, Long>) state).migrateSerializedValue(
+			new DataInputDeserializer(getStoredValue("reducing")), migrated, LongSerializer.INSTANCE, LongSerializer.INSTANCE);
+
+		assertTrue(Arrays.equals(getStoredValue("reducing"), migrated.getCopyOfBuffer()));
+	}
+
+	@Test
+	public void testNoOperandsWithTtl() throws Exception {
+		ReducingStateDescriptor<Long> descriptor = new ReducingStateDescriptor<>("ttl", Long::sum, LongSerializer.INSTANCE);
+		descriptor.enableTimeToLive(StateTtlConfig.newBuilder(Time.days(1)).build());
+		ReducingState<Long> state = backend.getPartitionedState(
+			VoidNamespace.INSTANCE, VoidNamespaceSerializer.INSTANCE, descriptor);
+
+		state.add(1L);
+		int singleValueLength = getStoredValue("ttl").length;
+		state.add(2L);
+
+		// the stored value was read, updated and written back
+		assertEquals(singleValueLength, getStoredValue("ttl").length);
+		assertEquals(Long.valueOf(3L), state.get());
+	}
+
+	private InternalReducingState<Integer, VoidNamespace, Long> createReducingState(String name) throws Exception {
+		InternalReducingState<Integer, VoidNamespace, Long> state = backend.createInternalState(
+			VoidNamespaceSerializer.INSTANCE,
+			new ReducingStateDescriptor<>(name, Long::sum, LongSerializer.INSTANCE));
+		state.setCurrentNamespace(VoidNamespace.INSTANCE);
+		return state;
+	}
+
+	/**
+	 * Returns the stored value of the only entry of the given state.
+	 */
+	private byte[] getStoredValue(String stateName) {
+		try (RocksIteratorWrapper iterator = RocksDBOperationUtils.getRocksIterator(
+				backend.db, backend.getColumnFamilyHandle(stateName), backend.getReadOptions())) {
+			iterator.seekToFirst();
+			assertTrue(iterator.isValid());
+			byte[] value = iterator.value();
+			iterator.next();
+			assertFalse(iterator.isValid());
+			return value;
+		}
+	}
+
+	private static class SumAggregator implements AggregateFunction<Long, Long, String> {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Long createAccumulator() {
+			return 0L;
+		}
+
+		@Override
+		public Long add(Long value, Long accumulator) {
+			return accumulator + value;
+		}
+
+		@Override
+		public String getResult(Long accumulator) {
+			return String.valueOf(accumulator);
+		}
+
+		@Override
+		public Long merge(Long a, Long b) {
+			return a + b;
+		}
+	}
+}
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.contrib.streaming.state;
+
+import org.apache.flink.api.common.state.MapState;
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.api.common.typeutils.base.StringSerializer;
+import org.apache.flink.api.common.typeutils.base.array.IntPrimitiveArraySerializer;
+import org.apache.flink.metrics.SimpleCounter;
+import org.apache.flink.runtime.state.VoidNamespace;
+import org.apache.flink.runtime.state.VoidNamespaceSerializer;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the {@link RocksDBObjectCache} and the value and map states which use it.
+ */
+public class RocksDBObjectCacheTest extends TestLogger {
+
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	@Test
+	public void testEvictLeastRecentlyUsed() {
+		RocksDBObjectCache<String> cache = createCache(2, StringSerializer.INSTANCE);
+
+		cache.put(new byte[] {1}, "a");
+		cache.put(new byte[] {2}, "b");
+		// touch the first entry, so that the second one is the least recently used
+		assertEquals("a", cache.get(new byte[] {1}));
+		cache.putAbsent(new byte[] {3});
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+		assertNull(cache.get(new byte[] {2}));
+		assertSame(RocksDBObjectCache.ABSENT, cache.get(new byte[] {3}));
+		assertEquals(2, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void testCopyMutableObjects() {
+		RocksDBObjectCache<int[]> cache = createCache(2, IntPrimitiveArraySerializer.INSTANCE);
+		int[] value = {1, 2};
+
+		cache.put(new byte[] {1}, value);
+		value[0] = 42;
+
+		int[] cached = (int[]) cache.get(new byte[] {1});
+		assertArrayEquals(new int[] {1, 2}, cached);
+		cached[1] = 42;
+		assertArrayEquals(new int[] {1, 2}, (int[]) cache.get(new byte[] {1}));
+		assertNotSame(cached, cache.get(new byte[] {1}));
+	}
+
+	@Test
+	public void testResetDropsEntries() {
+		RocksDBObjectCache<String> cache = createCache(2, StringSerializer.INSTANCE);
+		cache.put(new byte[] {1}, "a");
+
+		cache.reset(StringSerializer.INSTANCE);
+
+		assertEquals(0, cache.size());
+		assertNull(cache.get(new byte[] {1}));
+	}
+
+	@Test
+	public void testValueStateWritesThroughCache() throws Exception {
+		RocksDBKeyedStateBackend<Integer> backend = createBackend(16);
+		try {
+			ValueState<String> state = backend.getPartitionedState(
+				VoidNamespace.INSTANCE,
+				VoidNamespaceSerializer.INSTANCE,
+				new ValueStateDescriptor<>("value", StringSerializer.INSTANCE));
+			RocksDBObjectCache<String> cache = backend.getObjectCache("value", StringSerializer.INSTANCE);
+
+			backend.setCurrentKey(1);
+			assertNull(state.value());
+			assertEquals(1, cache.getMissCount());
+			// the absence of the entry is cached
+			assertNull(state.value());
+			assertEquals(1, cache.getHitCount());
+
+			state.update("a");
+			assertEquals("a", state.value());
+			assertEquals(2, cache.getHitCount());
+
+			backend.setCurrentKey(2);
+			state.update("b");
+			backend.setCurrentKey(1);
+			assertEquals("a", state.value());
+
+			state.clear();
+			assertNull(state.value());
+			assertEquals(1, cache.getMissCount());
+		} finally {
+			backend.dispose();
+		}
+	}
+
+	@Test
+	public void testMapStateWritesThroughCache() throws Exception {
+		RocksDBKeyedStateBackend<Integer> backend = createBackend(16);
+		try {
+			MapState<Integer, String> state = backend.getPartitionedState(
+				VoidNamespace.INSTANCE,
+				VoidNamespaceSerializer.INSTANCE,
+				new MapStateDescriptor<>("map", IntSerializer.INSTANCE, StringSerializer.INSTANCE));
+			RocksDBObjectCache<String> cache = backend.getObjectCache("map", StringSerializer.INSTANCE);
+
+			backend.setCurrentKey(1);
+			state.put(1, "a");
+			state.put(2, null);
+			assertEquals("a", state.get(1));
+			assertEquals(0, cache.getMissCount());
+			// null user values are not cached
+			assertNull(state.get(2));
+			assertTrue(state.contains(2));
+			assertEquals(2, cache.getMissCount());
+
+			state.remove(1);
+			assertFalse(state.contains(1));
+			assertNull(state.get(1));
+
+			state.put(3, "c");
+			Iterator<Map.Entry<Integer, String>> iterator = state.iterator();
+			while (iterator.hasNext()) {
+				Map.Entry<Integer, String> entry = iterator.next();
+				if (entry.getKey() == 3) {
+					entry.setValue("d");
+				} else {
+					iterator.remove();
+				}
+			}
+			assertEquals("d", state.get(3));
+			assertFalse(state.contains(2));
+
+			state.clear();
+			assertNull(state.get(3));
+			assertTrue(state.isEmpty());
+		} finally {
+			backend.dispose();
+		}
+	}
+
+	@Test
+	public void testEvictionsAreReadFromRocksDB() throws Exception {
+		RocksDBKeyedStateBackend<Integer> backend = createBackend(2);
+		try {
+			ValueState<String> state = backend.getPartitionedState(
+				VoidNamespace.INSTANCE,
+				VoidNamespaceSerializer.INSTANCE,
+				new ValueStateDescriptor<>("value", StringSerializer.INSTANCE));
+			RocksDBObjectCache<String> cache = backend.getObjectCache("value", StringSerializer.INSTANCE);
+
+			for (int key = 0; key < 10; key++) {
+				backend.setCurrentKey(key);
+				state.update(String.valueOf(key));
+			}
+			assertEquals(2, cache.size());
+			assertEquals(8, cache.getEvictionCount());
+
+			for (int key = 0; key < 10; key++) {
+				backend.setCurrentKey(key);
+				assertEquals(String.valueOf(key), state.value());
+			}
+		} finally {
+			backend.dispose();
+		}
+	}
+
+	@Test
+	public void testCacheDisabledByDefault() throws Exception {
+		RocksDBKeyedStateBackend<Integer> backend = RocksDBTestUtils
+			.builderForTestDefaults(tempFolder.newFolder(), IntSerializer.INSTANCE)
+			.build();
+		try {
+			assertNull(backend.getObjectCache("value", StringSerializer.INSTANCE));
+		} finally {
+			backend.dispose();
+		}
+	}
+
+	private RocksDBKeyedStateBackend<Integer> createBackend(int objectCacheSize) throws Exception {
+		return RocksDBTestUtils.builderForTestDefaults(tempFolder.newFolder(), IntSerializer.INSTANCE)
+			.setObjectCacheSize(objectCacheSize)
+			.build();
+	}
+
+	private static <V> RocksDBObjectCache<V> createCache(
+		int maxSize,
+		TypeSerializer<V> serializer) {
+		return new RocksDBObjectCache<>(maxSize, serializer, new SimpleCounter(), new SimpleCounter(), new SimpleCounter());
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.contrib.streaming.state;
+
+import org.apache.flink.api.common.state.MapState;
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.api.common.typeutils.base.StringSerializer;
+import org.apache.flink.contrib.streaming.state.snapshot.RocksFullSnapshotStrategy;
+import org.apache.flink.runtime.checkpoint.CheckpointOptions;
+import org.apache.flink.runtime.concurrent.FutureUtils;
+import org.apache.flink.runtime.state.KeyGroupRange;
+import org.apache.flink.runtime.state.KeyGroupsStateHandle;
+import org.apache.flink.runtime.state.KeyedStateHandle;
+import org.apache.flink.runtime.state.SnapshotResult;
+import org.apache.flink.runtime.state.VoidNamespace;
+import org.apache.flink.runtime.state.VoidNamespaceSerializer;
+import org.apache.flink.runtime.state.memory.ByteStreamStateHandle;
+import org.apache.flink.runtime.state.memory.MemCheckpointStreamFactory;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Tests for writing a full snapshot of the {@link RocksDBKeyedStateBackend} with several threads.
+ */
+public class RocksDBParallelFullSnapshotTest extends TestLogger {
+
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	@Test
+	public void testSplitKeyGroupRange() {
+		assertEquals(
+			Arrays.asList(new KeyGroupRange(0, 3), new KeyGroupRange(4, 6), new KeyGroupRange(7, 9)),
+			RocksFullSnapshotStrategy.splitKeyGroupRange(new KeyGroupRange(0, 9), 3));
+
+		assertEquals(
+			Arrays.asList(new KeyGroupRange(5, 5), new KeyGroupRange(6, 6)),
+			RocksFullSnapshotStrategy.splitKeyGroupRange(new KeyGroupRange(5, 6), 4));
+	}
+
+	@Test
+	public void testParallelSnapshotIsSameAsSequentialSnapshot() throws Exception {
+		KeyGroupsStateHandle sequentialSnapshot = writeStateAndSnapshot(1);
+		KeyGroupsStateHandle parallelSnapshot = writeStateAndSnapshot(2);
+
+		assertEquals(sequentialSnapshot.getGroupRangeOffsets(), parallelSnapshot.getGroupRangeOffsets());
+		assertArrayEquals(
+			((ByteStreamStateHandle) sequentialSnapshot.getDelegateStateHandle()).getData(),
+			((ByteStreamStateHandle) parallelSnapshot.getDelegateStateHandle()).getData());
+	}
+
+	private KeyGroupsStateHandle writeStateAndSnapshot(int numberOfSnapshotThreads) throws Exception {
+		File instanceBasePath = tempFolder.newFolder();
+		RocksDBKeyedStateBackend<Integer> backend = RocksDBTestUtils
+			.builderForTestDefaults(instanceBasePath, IntSerializer.INSTANCE)
+			.setNumberOfFullSnapshotThreads(numberOfSnapshotThreads)
+			.build();
+
+		try {
+			ValueState<String> valueState = backend.getPartitionedState(
+				VoidNamespace.INSTANCE,
+				VoidNamespaceSerializer.INSTANCE,
+				new ValueStateDescriptor<>("value", StringSerializer.INSTANCE));
+			MapState<Integer, String> mapState = backend.getPartitionedState(
+				VoidNamespace.INSTANCE,
+				VoidNamespaceSerializer.INSTANCE,
+				new MapStateDescriptor<>("map", IntSerializer.INSTANCE, StringSerializer.INSTANCE));
+
+			for (int key = 0; key < 100; key++) {
+				backend.setCurrentKey(key);
+				valueState.update(String.valueOf(key));
+				mapState.put(key, String.valueOf(key));
+				mapState.put(-key, String.valueOf(-key));
+			}
+
+			SnapshotResult<KeyedStateHandle> snapshotResult = FutureUtils.runIfNotDoneAndGet(backend.snapshot(
+				1L,
+				1L,
+				new MemCheckpointStreamFactory(4 * 1024 * 1024),
+				CheckpointOptions.forCheckpointWithDefaultLocation()));
+
+			KeyedStateHandle stateHandle = snapshotResult.getJobManagerOwnedSnapshot();
+			assertNotNull(stateHandle);
+			// the local part files are deleted
+			assertArrayEquals(new String[0], instanceBasePath.list((dir, name) -> name.startsWith("full-snapshot-")));
+			return (KeyGroupsStateHandle) stateHandle;
+		} finally {
+			backend.dispose();
+		}
+	}
+}
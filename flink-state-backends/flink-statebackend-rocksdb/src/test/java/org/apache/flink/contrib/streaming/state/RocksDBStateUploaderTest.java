@@ -21,12 +21,14 @@ package org.apache.flink.contrib.streaming.state;
 import org.apache.flink.core.fs.CloseableRegistry;
 import org.apache.flink.core.fs.FSDataInputStream;
 import org.apache.flink.core.fs.FileSystem;
+import org.apache.flink.core.testutils.CheckedThread;
 import org.apache.flink.runtime.state.CheckpointStreamFactory;
 import org.apache.flink.runtime.state.CheckpointedStateScope;
 import org.apache.flink.runtime.state.StateHandleID;
 import org.apache.flink.runtime.state.StreamStateHandle;
 import org.apache.flink.runtime.state.filesystem.FsCheckpointStreamFactory;
 import org.apache.flink.runtime.state.memory.ByteStreamStateHandle;
+import org.apache.flink.runtime.state.memory.MemCheckpointStreamFactory;
 import org.apache.flink.util.IOUtils;
 import org.apache.flink.util.TestLogger;
 
@@ -45,6 +47,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
@@ -113,6 +116,75 @@ public class RocksDBStateUploaderTest extends TestLogger {
 		}
 	}
 
+	/**
+	 * Test that a failed upload of a file is retried with a new stream.
+	 */
+	@Test
+	public void testUploadRetriesFailedFile() throws Exception {
+		AtomicInteger numberOfStreams = new AtomicInteger();
+		CheckpointStreamFactory checkpointStreamFactory = (CheckpointedStateScope scope) ->
+			numberOfStreams.getAndIncrement() == 0 ?
+				createFailingCheckpointStateOutputStream(new SpecifiedException("first attempt fails")) :
+				new MemCheckpointStreamFactory.MemoryCheckpointOutputStream(1024);
+
+		File file = temporaryFolder.newFile(String.valueOf(UUID.randomUUID()));
+		generateRandomFileContent(file.getPath(), 20);
+
+		Map<StateHandleID, Path> filePaths = new HashMap<>(1);
+		StateHandleID stateHandleID = new StateHandleID("mockHandleID");
+		filePaths.put(stateHandleID, file.toPath());
+		RocksDBStateTransferContext transferContext = RocksDBStateTransferContext.createUnregistered(0L, 1);
+		try (RocksDBStateUploader rocksDBStateUploader = new RocksDBStateUploader(1, transferContext)) {
+			Map<StateHandleID, StreamStateHandle> sstFiles =
+				rocksDBStateUploader.uploadFilesToCheckpointFs(filePaths, checkpointStreamFactory, new CloseableRegistry());
+
+			assertEquals(2, numberOfStreams.get());
+			assertStateContentEqual(file.toPath(), sstFiles.get(stateHandleID).openInputStream());
+			assertEquals(1, transferContext.getNumRetries().getCount());
+			assertEquals(Files.size(file.toPath()), transferContext.getNumBytesUploaded().getCount());
+		}
+	}
+
+	/**
+	 * Test that closing the uploader fails an upload which waits for its retry.
+	 */
+	@Test
+	public void testCloseFailsUploadWaitingForRetry() throws Exception {
+		AtomicInteger numberOfStreams = new AtomicInteger();
+		CheckpointStreamFactory checkpointStreamFactory = (CheckpointedStateScope scope) -> {
+			numberOfStreams.incrementAndGet();
+			return createFailingCheckpointStateOutputStream(new SpecifiedException("upload fails"));
+		};
+
+		File file = temporaryFolder.newFile(String.valueOf(UUID.randomUUID()));
+		generateRandomFileContent(file.getPath(), 20);
+
+		Map<StateHandleID, Path> filePaths = new HashMap<>(1);
+		filePaths.put(new StateHandleID("mockHandleID"), file.toPath());
+		RocksDBStateUploader rocksDBStateUploader =
+			new RocksDBStateUploader(1, RocksDBStateTransferContext.createUnregistered(0L, 10));
+		CheckedThread uploadThread = new CheckedThread() {
+			@Override
+			public void go() throws Exception {
+				try {
+					rocksDBStateUploader.uploadFilesToCheckpointFs(filePaths, checkpointStreamFactory, new CloseableRegistry());
+					fail("The upload should fail.");
+				} catch (IOException expected) {
+					// expected
+				}
+			}
+		};
+		uploadThread.start();
+
+		while (numberOfStreams.get() == 0) {
+			Thread.sleep(1);
+		}
+		rocksDBStateUploader.close();
+
+		uploadThread.sync();
+		assertEquals(1, numberOfStreams.get());
+	}
+
 	private CheckpointStreamFactory.CheckpointStateOutputStream createFailingCheckpointStateOutputStream(
 		IOException failureException) {
 		return new CheckpointStreamFactory.CheckpointStateOutputStream() {
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.contrib.streaming.state;
+
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeutils.base.IntSerializer;
+import org.apache.flink.api.common.typeutils.base.StringSerializer;
+import org.apache.flink.runtime.state.VoidNamespace;
+import org.apache.flink.runtime.state.VoidNamespaceSerializer;
+import org.apache.flink.util.IOUtils;
+import org.apache.flink.util.TestLogger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDB;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for prefetching the values of a {@link RocksDBValueState} with
+ * {@link RocksDBKeyedStateBackend#prefetchValues(String, java.util.Collection)}.
+ */
+public class RocksDBValueStatePrefetchTest extends TestLogger {
+
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private final RocksDBResourceContainer optionsContainer = new RocksDBResourceContainer();
+
+	private RocksDB db;
+
+	private ColumnFamilyHandle defaultCFHandle;
+
+	private RocksDB spyDB;
+
+	private RocksDBKeyedStateBackend<Integer> backend;
+
+	private ValueState<String> state;
+
+	@Before
+	public void setupBackend() throws Exception {
+		ArrayList<ColumnFamilyHandle> columnFamilyHandles = new ArrayList<>(1);
+		db = RocksDBOperationUtils.openDB(
+			tempFolder.newFolder().getAbsolutePath(),
+			Collections.emptyList(),
+			columnFamilyHandles,
+			optionsContainer.getColumnOptions(),
+			optionsContainer.getDbOptions());
+		defaultCFHandle = columnFamilyHandles.remove(0);
+		spyDB = spy(db);
+
+		backend = RocksDBTestUtils.builderForTestDB(
+				tempFolder.newFolder(),
+				IntSerializer.INSTANCE,
+				spyDB,
+				defaultCFHandle,
+				optionsContainer.getColumnOptions())
+			.build();
+		state = backend.getPartitionedState(
+			VoidNamespace.INSTANCE,
+			VoidNamespaceSerializer.INSTANCE,
+			new ValueStateDescriptor<>("value", StringSerializer.INSTANCE));
+
+		for (int key = 0; key < 3; key++) {
+			backend.setCurrentKey(key);
+			state.update(String.valueOf(key));
+		}
+		clearInvocations(spyDB);
+	}
+
+	@After
+	public void disposeBackend() {
+		backend.dispose();
+		IOUtils.closeQuietly(defaultCFHandle);
+		IOUtils.closeQuietly(db);
+		IOUtils.closeQuietly(optionsContainer);
+	}
+
+	@Test
+	public void testReadPrefetchedValues() throws Exception {
+		backend.prefetchValues("value", Arrays.asList(0, 1, 2, 3));
+		verify(spyDB, times(1)).multiGet(any(), any(), any());
+
+		for (int key = 0; key < 3; key++) {
+			backend.setCurrentKey(key);
+			assertEquals(String.valueOf(key), state.value());
+		}
+		backend.setCurrentKey(3);
+		assertNull(state.value());
+		verify(spyDB, never()).get(any(ColumnFamilyHandle.class), any(byte[].class));
+
+		// the prefetched values are consumed by the first read
+		backend.setCurrentKey(0);
+		assertEquals("0", state.value());
+		verify(spyDB, times(1)).get(any(ColumnFamilyHandle.class), any(byte[].class));
+	}
+
+	@Test
+	public void testWritesDropPrefetchedValues() throws Exception {
+		backend.prefetchValues("value", Arrays.asList(0, 1));
+
+		backend.setCurrentKey(0);
+		state.update("updated");
+		assertEquals("updated", state.value());
+
+		backend.setCurrentKey(1);
+		state.clear();
+		assertNull(state.value());
+	}
+
+	@Test
+	public void testPrefetchReplacesPreviousPrefetch() throws Exception {
+		backend.prefetchValues("value", Collections.singletonList(0));
+		backend.prefetchValues("value", Collections.singletonList(1));
+
+		backend.setCurrentKey(1);
+		assertEquals("1", state.value());
+		verify(spyDB, never()).get(any(ColumnFamilyHandle.class), any(byte[].class));
+
+		backend.setCurrentKey(0);
+		assertEquals("0", state.value());
+		verify(spyDB, times(1)).get(any(ColumnFamilyHandle.class), any(byte[].class));
+	}
+
+	@Test
+	public void testPrefetchUnknownStateIsIgnored() throws Exception {
+		backend.prefetchValues("unknown", Collections.singletonList(0));
+		verify(spyDB, never()).multiGet(any(), any(), any());
+	}
+}
@@ -562,6 +562,14 @@ public class StreamingJobGraphGenerator {
 			case BATCH:
 				resultPartitionType = ResultPartitionType.BLOCKING;
 				break;
+			case HYBRID:
+				if (streamGraph.getCheckpointConfig().isUnalignedCheckpointsEnabled()) {
+					// priority events cannot overtake the buffers spilled by hybrid partitions
+					throw new UnsupportedOperationException(
+						"Data exchange mode HYBRID is not supported with unaligned checkpoints.");
+				}
+				resultPartitionType = ResultPartitionType.HYBRID;
+				break;
 			case UNDEFINED:
 				resultPartitionType = determineResultPartitionType(partitioner);
 				break;
@@ -19,19 +19,21 @@
 package org.apache.flink.streaming.api.operators;
 
 import org.apache.flink.annotation.Internal;
-import org.apache.flink.runtime.state.heap.HeapPriorityQueueElement;
 import org.apache.flink.runtime.state.heap.HeapPriorityQueueSet;
+import org.apache.flink.runtime.state.heap.HeapTimingWheelPriorityQueueSet;
+import org.apache.flink.runtime.state.heap.TimestampedHeapPriorityQueueElement;
 
 import javax.annotation.Nonnull;
 
 /**
- * Implementation of {@link InternalTimer} to use with a {@link HeapPriorityQueueSet}.
+ * Implementation of {@link InternalTimer} to use with a {@link HeapPriorityQueueSet} or a
+ * {@link HeapTimingWheelPriorityQueueSet}.
  *
  * @param <K> Type of the keys to which timers are scoped.
  * @param <N> Type of the namespace to which timers are scoped.
  */
 @Internal
-public final class TimerHeapInternalTimer<K, N> implements InternalTimer<K, N>, HeapPriorityQueueElement {
+public final class TimerHeapInternalTimer<K, N> implements InternalTimer<K, N>, TimestampedHeapPriorityQueueElement {
 
 	/** The key for which the timer is scoped. */
 	@Nonnull
@@ -26,6 +26,7 @@ import org.apache.flink.api.common.typeutils.TypeSerializerSchemaCompatibility;
 import org.apache.flink.api.common.typeutils.TypeSerializerSnapshot;
 import org.apache.flink.core.memory.DataInputView;
 import org.apache.flink.core.memory.DataOutputView;
+import org.apache.flink.runtime.state.heap.TimestampedHeapPriorityQueueElementSerializer;
 import org.apache.flink.util.MathUtils;
 
 import javax.annotation.Nonnull;
@@ -41,7 +42,8 @@ import java.util.Objects;
  * @param <N> type of the timer namespace.
  */
 @Internal
-public class TimerSerializer<K, N> extends TypeSerializer<TimerHeapInternalTimer<K, N>> {
+public class TimerSerializer<K, N> extends TypeSerializer<TimerHeapInternalTimer<K, N>>
+	implements TimestampedHeapPriorityQueueElementSerializer {
 
 	private static final long serialVersionUID = 1L;
 
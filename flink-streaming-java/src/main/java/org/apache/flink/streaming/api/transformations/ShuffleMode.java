@@ -37,6 +37,12 @@ public enum ShuffleMode {
 	 */
 	BATCH,
 
+	/**
+	 * Producer and consumer are online at the same time, but the producer spills the data to disk
+	 * instead of waiting when a consumer cannot keep up. Only applicable to bounded streams.
+	 */
+	HYBRID,
+
 	/**
 	 * The shuffle mode is undefined. It leaves it up to the framework to decide the shuffle mode.
 	 * The framework will pick one of {@link ShuffleMode#BATCH} or {@link ShuffleMode#PIPELINED} in
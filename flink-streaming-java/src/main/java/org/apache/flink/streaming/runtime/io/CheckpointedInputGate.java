@@ -196,6 +196,10 @@ public class CheckpointedInputGate implements PullingAsyncDataInput<BufferOrEven
 		return inputGate.getChannel(channelIndex);
 	}
 
+	public int getMaxBuffersPerSpanningRecord() {
+		return inputGate.getMaxBuffersPerSpanningRecord();
+	}
+
 	public List<InputChannelInfo> getChannelInfos() {
 		return inputGate.getChannelInfos();
 	}
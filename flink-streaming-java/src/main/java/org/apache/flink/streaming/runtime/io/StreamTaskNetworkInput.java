@@ -99,9 +99,12 @@ public final class StreamTaskNetworkInput<T> implements StreamTaskInput<T> {
 
 		// Initialize one deserializer per input channel
 		this.recordDeserializers = new SpillingAdaptiveSpanningRecordDeserializer[checkpointedInputGate.getNumberOfInputChannels()];
+		final int maxBuffersPerSpanningRecord = checkpointedInputGate.getMaxBuffersPerSpanningRecord();
 		for (int i = 0; i < recordDeserializers.length; i++) {
 			recordDeserializers[i] = new SpillingAdaptiveSpanningRecordDeserializer<>(
-				ioManager.getSpillingDirectoriesPaths());
+				ioManager.getSpillingDirectoriesPaths(),
+				maxBuffersPerSpanningRecord > 0 ? checkpointedInputGate.getChannel(i)::requestSpanningRecordBuffer : null,
+				maxBuffersPerSpanningRecord);
 		}
 
 		this.statusWatermarkValve = checkNotNull(statusWatermarkValve);
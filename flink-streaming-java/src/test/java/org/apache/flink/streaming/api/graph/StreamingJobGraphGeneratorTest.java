@@ -609,6 +609,44 @@ public class StreamingJobGraphGeneratorTest extends TestLogger {
 			sourceAndMapVertex.getProducedDataSets().get(0).getResultType());
 	}
 
+	/**
+	 * Test setting shuffle mode to {@link ShuffleMode#HYBRID}.
+	 */
+	@Test
+	public void testShuffleModeHybrid() {
+		StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+		env.enableCheckpointing(1000, CheckpointingMode.EXACTLY_ONCE);
+		createHybridShuffleJob(env);
+
+		JobGraph jobGraph = StreamingJobGraphGenerator.createJobGraph(env.getStreamGraph());
+
+		List<JobVertex> verticesSorted = jobGraph.getVerticesSortedTopologicallyFromSources();
+		assertEquals(2, verticesSorted.size());
+
+		// HYBRID shuffle mode is translated into HYBRID result partition
+		assertEquals(ResultPartitionType.HYBRID,
+			verticesSorted.get(0).getProducedDataSets().get(0).getResultType());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testShuffleModeHybridNotSupportedWithUnalignedCheckpoints() {
+		StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+		env.enableCheckpointing(1000, CheckpointingMode.EXACTLY_ONCE);
+		env.getCheckpointConfig().enableUnalignedCheckpoints(true);
+		createHybridShuffleJob(env);
+
+		StreamingJobGraphGenerator.createJobGraph(env.getStreamGraph());
+	}
+
+	private static void createHybridShuffleJob(StreamExecutionEnvironment env) {
+		// fromElements -> Print
+		DataStream<Integer> sourceDataStream = env.fromElements(1, 2, 3);
+
+		DataStream<Integer> partitionAfterSourceDataStream = new DataStream<>(env, new PartitionTransformation<>(
+				sourceDataStream.getTransformation(), new RescalePartitioner<>(), ShuffleMode.HYBRID));
+		partitionAfterSourceDataStream.print().setParallelism(2);
+	}
+
 	/**
 	 * Test iteration job, check slot sharing group and co-location group.
 	 */
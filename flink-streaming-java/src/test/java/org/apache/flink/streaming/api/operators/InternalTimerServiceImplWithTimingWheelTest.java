@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.api.operators;
+
+import org.apache.flink.runtime.state.KeyGroupRange;
+import org.apache.flink.runtime.state.PriorityQueueSetFactory;
+import org.apache.flink.runtime.state.heap.HeapPriorityQueueSetFactory;
+import org.apache.flink.runtime.state.heap.HeapTimingWheelPriorityQueueSet;
+
+/**
+ * Tests for {@link InternalTimerServiceImpl} with timers in a {@link HeapTimingWheelPriorityQueueSet}.
+ */
+public class InternalTimerServiceImplWithTimingWheelTest extends InternalTimerServiceImplTest {
+
+	public InternalTimerServiceImplWithTimingWheelTest(int startKeyGroup, int endKeyGroup, int maxParallelism) {
+		super(startKeyGroup, endKeyGroup, maxParallelism);
+	}
+
+	@Override
+	protected PriorityQueueSetFactory createQueueFactory(KeyGroupRange keyGroupRange, int numKeyGroups) {
+		return new HeapPriorityQueueSetFactory(keyGroupRange, numKeyGroups, 128, 15L);
+	}
+}
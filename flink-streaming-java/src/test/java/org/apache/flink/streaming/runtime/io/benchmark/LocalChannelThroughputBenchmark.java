@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.io.benchmark;
+
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.configuration.NettyShuffleEnvironmentOptions;
+
+/**
+ * Throughput benchmarks of local input channels executed by the external
+ * <a href="https://github.com/dataArtisans/flink-benchmarks">flink-benchmarks</a> project.
+ *
+ * <p>The records are handed over to consumers in the same TaskManager, which are notified of the
+ * available buffers in batches of the given size. A batch size of 1 notifies the consumer of every
+ * single finished buffer and serves as the baseline.
+ */
+public class LocalChannelThroughputBenchmark extends StreamNetworkThroughputBenchmark {
+
+	/**
+	 * Same as {@link StreamNetworkThroughputBenchmark#setUp(int, int, int, boolean)} in local mode,
+	 * but with the given notification batch size of the local input channels.
+	 */
+	public void setUp(int recordWriters, int channels, int flushTimeout, int notificationBatchSize) throws Exception {
+		Configuration config = new Configuration();
+		config.setInteger(NettyShuffleEnvironmentOptions.NETWORK_LOCAL_CHANNEL_NOTIFICATION_BATCH_SIZE, notificationBatchSize);
+
+		setUp(
+			recordWriters,
+			channels,
+			flushTimeout,
+			false,
+			true,
+			-1,
+			-1,
+			config
+		);
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.runtime.io.benchmark;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Tests for {@link LocalChannelThroughputBenchmark}.
+ */
+@RunWith(Parameterized.class)
+public class LocalChannelThroughputBenchmarkTest {
+
+	private final int notificationBatchSize;
+
+	@Parameterized.Parameters(name = "notificationBatchSize = {0}")
+	public static Collection<Integer> parameters() {
+		return Arrays.asList(1, 4);
+	}
+
+	public LocalChannelThroughputBenchmarkTest(int notificationBatchSize) {
+		this.notificationBatchSize = notificationBatchSize;
+	}
+
+	@Test
+	public void pointToPointBenchmark() throws Exception {
+		LocalChannelThroughputBenchmark benchmark = new LocalChannelThroughputBenchmark();
+		benchmark.setUp(1, 1, 100, notificationBatchSize);
+		try {
+			benchmark.executeBenchmark(100_000);
+		}
+		finally {
+			benchmark.tearDown();
+		}
+	}
+
+	@Test
+	public void multiPointToMultiPointBenchmark() throws Exception {
+		LocalChannelThroughputBenchmark benchmark = new LocalChannelThroughputBenchmark();
+		benchmark.setUp(4, 10, 100, notificationBatchSize);
+		try {
+			benchmark.executeBenchmark(100_000);
+		}
+		finally {
+			benchmark.tearDown();
+		}
+	}
+
+	@Test
+	public void noFlushBenchmark() throws Exception {
+		// without output flusher, the held back buffers are only handed over once the producer
+		// runs out of buffers or flushes after the last record
+		LocalChannelThroughputBenchmark benchmark = new LocalChannelThroughputBenchmark();
+		benchmark.setUp(1, 1, -1, notificationBatchSize);
+		try {
+			benchmark.executeBenchmark(100_000);
+		}
+		finally {
+			benchmark.tearDown();
+		}
+	}
+}
@@ -20,6 +20,7 @@ package org.apache.flink.streaming.runtime.io.benchmark;
 
 import org.apache.flink.api.common.JobID;
 import org.apache.flink.configuration.Configuration;
+import org.apache.flink.configuration.NettyShuffleEnvironmentOptions;
 import org.apache.flink.core.io.IOReadableWritable;
 import org.apache.flink.metrics.SimpleCounter;
 import org.apache.flink.runtime.clusterframework.types.ResourceID;
@@ -218,6 +219,8 @@ public class StreamNetworkBenchmarkEnvironment<T extends IOReadableWritable> {
 		return new NettyShuffleEnvironmentBuilder()
 			.setNumNetworkBuffers(bufferPoolSize)
 			.setNettyConfig(nettyConfig)
+			.setLocalChannelNotificationBatchSize(
+				config.getInteger(NettyShuffleEnvironmentOptions.NETWORK_LOCAL_CHANNEL_NOTIFICATION_BATCH_SIZE))
 			.build();
 	}
 
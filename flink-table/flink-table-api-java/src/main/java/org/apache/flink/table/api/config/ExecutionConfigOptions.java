@@ -98,6 +98,14 @@ public class ExecutionConfigOptions {
 			.withDescription("Whether to compress spilled data. " +
 				"Currently we only support compress spilled data for sort and hash-agg and hash-join operators.");
 
+	@Documentation.TableOption(execMode = Documentation.ExecMode.BATCH)
+	public static final ConfigOption<String> TABLE_EXEC_SPILL_COMPRESSION_CODEC =
+		key("table.exec.spill-compression.codec")
+			.defaultValue("LZ4")
+			.withDescription("The codec to be used when compressing spilled data. Supported codecs are " +
+				"\"LZ4\", \"LZ4_HC\", \"SNAPPY\" and \"ZSTD\". The compression level of \"LZ4_HC\" and " +
+				"\"ZSTD\" can be appended to the codec name, e.g. \"ZSTD:9\".");
+
 	@Documentation.TableOption(execMode = Documentation.ExecMode.BATCH)
 	public static final ConfigOption<String> TABLE_EXEC_SPILL_COMPRESSION_BLOCK_SIZE =
 		key("table.exec.spill-compression.block-size")
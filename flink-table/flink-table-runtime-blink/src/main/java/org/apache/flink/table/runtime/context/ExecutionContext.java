@@ -21,6 +21,8 @@ package org.apache.flink.table.runtime.context;
 import org.apache.flink.api.common.functions.RuntimeContext;
 import org.apache.flink.table.data.RowData;
 
+import java.util.Collection;
+
 /**
  * A ExecutionContext contains information about the context in which functions are executed and
  * the APIs to create state.
@@ -40,4 +42,11 @@ public interface ExecutionContext {
 	void setCurrentKey(RowData key);
 
 	RuntimeContext getRuntimeContext();
+
+	/**
+	 * Prefetches the values of the given keys of the value state with the given name with one batched lookup, if
+	 * the keyed state backend supports it. Functions which process a bundle of keys call this before they access
+	 * the state of the keys one by one.
+	 */
+	void prefetchValues(String stateName, Collection<RowData> keys) throws Exception;
 }
@@ -19,10 +19,13 @@
 package org.apache.flink.table.runtime.context;
 
 import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.runtime.state.KeyedStateBackend;
+import org.apache.flink.runtime.state.PrefetchingKeyedStateBackend;
 import org.apache.flink.streaming.api.operators.AbstractStreamOperator;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.util.Preconditions;
 
+import java.util.Collection;
 
 /**
  * Implementation of ExecutionContext.
@@ -53,4 +56,13 @@ public final class ExecutionContextImpl implements ExecutionContext {
 	public RuntimeContext getRuntimeContext() {
 		return runtimeContext;
 	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void prefetchValues(String stateName, Collection<RowData> keys) throws Exception {
+		KeyedStateBackend<RowData> keyedStateBackend = operator.getKeyedStateBackend();
+		if (keyedStateBackend instanceof PrefetchingKeyedStateBackend) {
+			((PrefetchingKeyedStateBackend<RowData>) keyedStateBackend).prefetchValues(stateName, keys);
+		}
+	}
 }
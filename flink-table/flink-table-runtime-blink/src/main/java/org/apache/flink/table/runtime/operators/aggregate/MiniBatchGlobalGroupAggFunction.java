@@ -46,6 +46,8 @@ public class MiniBatchGlobalGroupAggFunction extends MapBundleFunction<RowData,
 
 	private static final long serialVersionUID = 8349579876002001744L;
 
+	private static final String ACC_STATE_NAME = "accState";
+
 	/**
 	 * The code generated local function used to handle aggregates.
 	 */
@@ -132,7 +134,7 @@ public class MiniBatchGlobalGroupAggFunction extends MapBundleFunction<RowData,
 		equaliser = genRecordEqualiser.newInstance(ctx.getRuntimeContext().getUserCodeClassLoader());
 
 		InternalTypeInfo<RowData> accTypeInfo = InternalTypeInfo.ofFields(accTypes);
-		ValueStateDescriptor<RowData> accDesc = new ValueStateDescriptor<>("accState", accTypeInfo);
+		ValueStateDescriptor<RowData> accDesc = new ValueStateDescriptor<>(ACC_STATE_NAME, accTypeInfo);
 		accState = ctx.getRuntimeContext().getState(accDesc);
 
 		resultRow = new JoinedRowData();
@@ -159,6 +161,7 @@ public class MiniBatchGlobalGroupAggFunction extends MapBundleFunction<RowData,
 
 	@Override
 	public void finishBundle(Map<RowData, RowData> buffer, Collector<RowData> out) throws Exception {
+		ctx.prefetchValues(ACC_STATE_NAME, buffer.keySet());
 		for (Map.Entry<RowData, RowData> entry : buffer.entrySet()) {
 			RowData currentKey = entry.getKey();
 			RowData bufferAcc = entry.getValue();
@@ -54,6 +54,8 @@ public class MiniBatchGroupAggFunction extends MapBundleFunction<RowData, List<R
 
 	private static final long serialVersionUID = 7455939331036508477L;
 
+	private static final String ACC_STATE_NAME = "accState";
+
 	/**
 	 * The code generated function used to handle aggregates.
 	 */
@@ -138,7 +140,7 @@ public class MiniBatchGroupAggFunction extends MapBundleFunction<RowData, List<R
 		equaliser = genRecordEqualiser.newInstance(ctx.getRuntimeContext().getUserCodeClassLoader());
 
 		InternalTypeInfo<RowData> accTypeInfo = InternalTypeInfo.ofFields(accTypes);
-		ValueStateDescriptor<RowData> accDesc = new ValueStateDescriptor<>("accState", accTypeInfo);
+		ValueStateDescriptor<RowData> accDesc = new ValueStateDescriptor<>(ACC_STATE_NAME, accTypeInfo);
 		accState = ctx.getRuntimeContext().getState(accDesc);
 
 		inputRowSerializer = InternalSerializers.create(inputType);
@@ -159,6 +161,7 @@ public class MiniBatchGroupAggFunction extends MapBundleFunction<RowData, List<R
 
 	@Override
 	public void finishBundle(Map<RowData, List<RowData>> buffer, Collector<RowData> out) throws Exception {
+		ctx.prefetchValues(ACC_STATE_NAME, buffer.keySet());
 		for (Map.Entry<RowData, List<RowData>> entry : buffer.entrySet()) {
 			RowData currentKey = entry.getKey();
 			List<RowData> inputRows = entry.getValue();
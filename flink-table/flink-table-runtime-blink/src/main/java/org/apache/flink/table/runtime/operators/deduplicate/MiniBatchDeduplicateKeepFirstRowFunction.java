@@ -43,6 +43,8 @@ public class MiniBatchDeduplicateKeepFirstRowFunction
 
 	private static final long serialVersionUID = -7994602893547654994L;
 
+	private static final String STATE_NAME = "existsState";
+
 	private final TypeSerializer<RowData> typeSerializer;
 	private final long minRetentionTime;
 	// state stores a boolean flag to indicate whether key appears before.
@@ -58,7 +60,7 @@ public class MiniBatchDeduplicateKeepFirstRowFunction
 	@Override
 	public void open(ExecutionContext ctx) throws Exception {
 		super.open(ctx);
-		ValueStateDescriptor<Boolean> stateDesc = new ValueStateDescriptor<>("existsState", Types.BOOLEAN);
+		ValueStateDescriptor<Boolean> stateDesc = new ValueStateDescriptor<>(STATE_NAME, Types.BOOLEAN);
 		StateTtlConfig ttlConfig = createTtlConfig(minRetentionTime);
 		if (ttlConfig.isEnabled()) {
 			stateDesc.enableTimeToLive(ttlConfig);
@@ -80,6 +82,7 @@ public class MiniBatchDeduplicateKeepFirstRowFunction
 	@Override
 	public void finishBundle(
 			Map<RowData, RowData> buffer, Collector<RowData> out) throws Exception {
+		ctx.prefetchValues(STATE_NAME, buffer.keySet());
 		for (Map.Entry<RowData, RowData> entry : buffer.entrySet()) {
 			RowData currentKey = entry.getKey();
 			RowData currentRow = entry.getValue();
@@ -43,6 +43,8 @@ public class MiniBatchDeduplicateKeepLastRowFunction
 
 	private static final long serialVersionUID = -8981813609115029119L;
 
+	private static final String STATE_NAME = "preRowState";
+
 	private final InternalTypeInfo<RowData> rowTypeInfo;
 	private final boolean generateUpdateBefore;
 	private final boolean generateInsert;
@@ -67,7 +69,7 @@ public class MiniBatchDeduplicateKeepLastRowFunction
 	@Override
 	public void open(ExecutionContext ctx) throws Exception {
 		super.open(ctx);
-		ValueStateDescriptor<RowData> stateDesc = new ValueStateDescriptor<>("preRowState", rowTypeInfo);
+		ValueStateDescriptor<RowData> stateDesc = new ValueStateDescriptor<>(STATE_NAME, rowTypeInfo);
 		StateTtlConfig ttlConfig = createTtlConfig(minRetentionTime);
 		if (ttlConfig.isEnabled()) {
 			stateDesc.enableTimeToLive(ttlConfig);
@@ -84,6 +86,10 @@ public class MiniBatchDeduplicateKeepLastRowFunction
 	@Override
 	public void finishBundle(
 			Map<RowData, RowData> buffer, Collector<RowData> out) throws Exception {
+		if (generateUpdateBefore || generateInsert) {
+			// the previous rows are only read if they are emitted
+			ctx.prefetchValues(STATE_NAME, buffer.keySet());
+		}
 		for (Map.Entry<RowData, RowData> entry : buffer.entrySet()) {
 			RowData currentKey = entry.getKey();
 			RowData currentRow = entry.getValue();
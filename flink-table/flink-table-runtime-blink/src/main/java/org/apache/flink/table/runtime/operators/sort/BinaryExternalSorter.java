@@ -211,7 +211,7 @@ public class BinaryExternalSorter implements Sorter<BinaryRowData> {
 		this.compressionEnable = conf.getBoolean(ExecutionConfigOptions.TABLE_EXEC_SPILL_COMPRESSION_ENABLED);
 		this.compressionCodecFactory = this.compressionEnable
 			? BlockCompressionFactory.createBlockCompressionFactory(
-					BlockCompressionFactory.CompressionFactoryName.LZ4.toString())
+					conf.getString(ExecutionConfigOptions.TABLE_EXEC_SPILL_COMPRESSION_CODEC))
 			: null;
 		this.compressionBlockSize = (int) MemorySize.parse(
 			conf.getString(ExecutionConfigOptions.TABLE_EXEC_SPILL_COMPRESSION_BLOCK_SIZE)).getBytes();
@@ -19,7 +19,6 @@
 package org.apache.flink.table.runtime.io;
 
 import org.apache.flink.runtime.io.compression.BlockCompressionFactory;
-import org.apache.flink.runtime.io.compression.Lz4BlockCompressionFactory;
 import org.apache.flink.runtime.io.disk.iomanager.BufferFileWriter;
 import org.apache.flink.runtime.io.disk.iomanager.FileIOChannel;
 import org.apache.flink.runtime.io.disk.iomanager.IOManager;
@@ -27,8 +26,12 @@ import org.apache.flink.runtime.io.disk.iomanager.IOManagerAsync;
 
 import org.junit.After;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
@@ -37,15 +40,22 @@ import static org.junit.Assert.assertEquals;
  * Tests for {@link CompressedHeaderlessChannelReaderInputView} and
  * {@link CompressedHeaderlessChannelWriterOutputView}.
  */
+@RunWith(Parameterized.class)
 public class CompressedHeaderlessChannelTest {
 	private static final int BUFFER_SIZE = 256;
 
 	private IOManager ioManager;
 
-	private BlockCompressionFactory compressionFactory = new Lz4BlockCompressionFactory();
+	private final BlockCompressionFactory compressionFactory;
 
-	public CompressedHeaderlessChannelTest() {
+	@Parameterized.Parameters(name = "codec = {0}")
+	public static Collection<String> parameters() {
+		return Arrays.asList("LZ4", "LZ4_HC", "SNAPPY", "ZSTD");
+	}
+
+	public CompressedHeaderlessChannelTest(String compressionCodec) {
 		ioManager = new IOManagerAsync();
+		compressionFactory = BlockCompressionFactory.createBlockCompressionFactory(compressionCodec);
 	}
 
 	@After
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.io.benchmark;
+
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.runtime.io.compression.BlockCompressionFactory;
+import org.apache.flink.runtime.io.compression.BlockCompressor;
+import org.apache.flink.runtime.io.compression.BlockDecompressor;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.data.binary.BinaryRowData;
+import org.apache.flink.table.data.writer.BinaryRowWriter;
+import org.apache.flink.table.runtime.typeutils.BinaryRowDataSerializer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * Benchmark of the block compression codecs on pages of serialized {@link BinaryRowData}, like the
+ * ones written by the spilling operators. It reports the compression ratio and can be executed by
+ * the external <a href="https://github.com/dataArtisans/flink-benchmarks">flink-benchmarks</a>
+ * project to measure the compression and decompression throughput, or standalone via
+ * {@link #main(String[])}.
+ */
+public class BlockCompressionBenchmark {
+
+	/** The default block size of the spilled data, see {@code table.exec.spill-compression.block-size}. */
+	public static final int DEFAULT_PAGE_SIZE = 64 * 1024;
+
+	private static final String[] CODECS = {"LZ4", "LZ4_HC", "SNAPPY", "ZSTD", "ZSTD:1", "ZSTD:9"};
+
+	private static final String[] CATEGORIES = {
+		"books", "electronics", "garden", "grocery", "health", "music", "sports", "toys"};
+
+	private byte[][] pages;
+
+	private byte[][] compressedPages;
+
+	private int[] compressedLengths;
+
+	private byte[] decompressedPage;
+
+	private BlockCompressor compressor;
+
+	private BlockDecompressor decompressor;
+
+	public void setUp(String codec, int numPages) throws IOException {
+		setUp(codec, numPages, DEFAULT_PAGE_SIZE);
+	}
+
+	public void setUp(String codec, int numPages, int pageSize) throws IOException {
+		checkArgument(numPages > 0 && pageSize > 0);
+
+		BlockCompressionFactory factory = BlockCompressionFactory.createBlockCompressionFactory(codec);
+		this.compressor = factory.getCompressor();
+		this.decompressor = factory.getDecompressor();
+
+		this.pages = createPages(numPages, pageSize);
+		this.compressedPages = new byte[numPages][compressor.getMaxCompressedSize(pageSize)];
+		this.compressedLengths = new int[numPages];
+		this.decompressedPage = new byte[pageSize];
+
+		// fill the compressed pages, so the decompression can be benchmarked independently
+		compressPages();
+	}
+
+	public void tearDown() {
+		pages = null;
+		compressedPages = null;
+	}
+
+	/**
+	 * Compresses all pages and returns the total number of compressed bytes.
+	 */
+	public long compressPages() {
+		long compressedBytes = 0;
+		for (int i = 0; i < pages.length; i++) {
+			compressedLengths[i] = compressor.compress(pages[i], 0, pages[i].length, compressedPages[i], 0);
+			compressedBytes += compressedLengths[i];
+		}
+		return compressedBytes;
+	}
+
+	/**
+	 * Decompresses all pages and returns the total number of decompressed bytes.
+	 */
+	public long decompressPages() {
+		long decompressedBytes = 0;
+		for (int i = 0; i < pages.length; i++) {
+			decompressedBytes += decompressor.decompress(
+				compressedPages[i], 0, compressedLengths[i], decompressedPage, 0);
+		}
+		return decompressedBytes;
+	}
+
+	/**
+	 * Returns the ratio of the original size to the compressed size of the pages.
+	 */
+	public double getCompressionRatio() {
+		long originalBytes = 0;
+		long compressedBytes = 0;
+		for (int i = 0; i < pages.length; i++) {
+			originalBytes += pages[i].length;
+			compressedBytes += compressedLengths[i];
+		}
+		return (double) originalBytes / compressedBytes;
+	}
+
+	/**
+	 * Checks that the decompressed pages are equal to the original ones.
+	 */
+	public void verifyPages() {
+		for (int i = 0; i < pages.length; i++) {
+			int length = decompressor.decompress(compressedPages[i], 0, compressedLengths[i], decompressedPage, 0);
+			checkState(length == pages[i].length && Arrays.equals(pages[i], decompressedPage),
+				"Page %s differs after decompression.", i);
+		}
+	}
+
+	/**
+	 * Creates pages of rows with the typical mix of fields of an order table: ids, numbers with
+	 * few distinct values, prices, low-cardinality strings and free-text strings.
+	 */
+	private static byte[][] createPages(int numPages, int pageSize) throws IOException {
+		final Random random = new Random(42);
+		final BinaryRowData row = new BinaryRowData(6);
+		final BinaryRowWriter writer = new BinaryRowWriter(row);
+		final BinaryRowDataSerializer serializer = new BinaryRowDataSerializer(6);
+
+		final int totalSize = numPages * pageSize;
+		final DataOutputSerializer output = new DataOutputSerializer(totalSize + pageSize);
+		long orderId = 1_000_000L;
+		long timestamp = 1_600_000_000_000L;
+		while (output.length() < totalSize) {
+			writer.reset();
+			writer.writeLong(0, orderId++);
+			writer.writeInt(1, random.nextInt(1000));
+			writer.writeDouble(2, random.nextInt(100_000) / 100.0);
+			writer.writeString(3, StringData.fromString(CATEGORIES[random.nextInt(CATEGORIES.length)]));
+			writer.writeString(4, StringData.fromString("customer-" + random.nextInt(50_000) + "@example.com"));
+			writer.writeLong(5, timestamp += random.nextInt(1000));
+			writer.complete();
+			serializer.serialize(row, output);
+		}
+
+		final byte[] data = output.getSharedBuffer();
+		final byte[][] pages = new byte[numPages][];
+		for (int i = 0; i < numPages; i++) {
+			pages[i] = Arrays.copyOfRange(data, i * pageSize, (i + 1) * pageSize);
+		}
+		return pages;
+	}
+
+	public static void main(String[] args) throws Exception {
+		final int numPages = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+		final int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+		System.out.printf("%-8s %8s %20s %22s%n", "codec", "ratio", "compression (MB/s)", "decompression (MB/s)");
+		for (String codec : CODECS) {
+			BlockCompressionBenchmark benchmark = new BlockCompressionBenchmark();
+			benchmark.setUp(codec, numPages);
+			try {
+				benchmark.verifyPages();
+				// warm up
+				for (int i = 0; i < iterations; i++) {
+					benchmark.compressPages();
+					benchmark.decompressPages();
+				}
+
+				long bytes = 0;
+				long start = System.nanoTime();
+				for (int i = 0; i < iterations; i++) {
+					benchmark.compressPages();
+					bytes += (long) numPages * DEFAULT_PAGE_SIZE;
+				}
+				double compressionThroughput = toMegaBytesPerSecond(bytes, System.nanoTime() - start);
+
+				bytes = 0;
+				start = System.nanoTime();
+				for (int i = 0; i < iterations; i++) {
+					bytes += benchmark.decompressPages();
+				}
+				double decompressionThroughput = toMegaBytesPerSecond(bytes, System.nanoTime() - start);
+
+				System.out.printf("%-8s %8.2f %20.1f %22.1f%n",
+					codec, benchmark.getCompressionRatio(), compressionThroughput, decompressionThroughput);
+			}
+			finally {
+				benchmark.tearDown();
+			}
+		}
+	}
+
+	private static double toMegaBytesPerSecond(long bytes, long nanos) {
+		return bytes / (1024.0 * 1024.0) / (nanos / 1_000_000_000.0);
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.table.runtime.io.benchmark;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link BlockCompressionBenchmark}.
+ */
+@RunWith(Parameterized.class)
+public class BlockCompressionBenchmarkTest {
+
+	private static final int NUM_PAGES = 4;
+
+	private final String codec;
+
+	@Parameterized.Parameters(name = "codec = {0}")
+	public static Collection<String> parameters() {
+		return Arrays.asList("LZ4", "LZ4_HC", "SNAPPY", "ZSTD");
+	}
+
+	public BlockCompressionBenchmarkTest(String codec) {
+		this.codec = codec;
+	}
+
+	@Test
+	public void testBenchmark() throws Exception {
+		BlockCompressionBenchmark benchmark = new BlockCompressionBenchmark();
+		benchmark.setUp(codec, NUM_PAGES);
+		try {
+			assertTrue(benchmark.compressPages() > 0);
+			assertEquals((long) NUM_PAGES * BlockCompressionBenchmark.DEFAULT_PAGE_SIZE, benchmark.decompressPages());
+			assertTrue(benchmark.getCompressionRatio() > 1.0);
+			benchmark.verifyPages();
+		}
+		finally {
+			benchmark.tearDown();
+		}
+	}
+}